@@ -17,6 +17,7 @@ package com.linkedin.pinot.broker.broker;
 
 import com.google.common.base.Preconditions;
 import com.linkedin.pinot.broker.broker.helix.LiveInstancesChangeListenerImpl;
+import com.linkedin.pinot.broker.cache.BrokerResultCache;
 import com.linkedin.pinot.broker.pruner.SegmentZKMetadataPrunerService;
 import com.linkedin.pinot.broker.requesthandler.BrokerRequestHandler;
 import com.linkedin.pinot.broker.routing.CfgBasedRouting;
@@ -29,6 +30,7 @@ import com.linkedin.pinot.common.metrics.MetricsHelper;
 import com.linkedin.pinot.common.query.ReduceServiceRegistry;
 import com.linkedin.pinot.common.response.BrokerResponseFactory;
 import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.common.utils.NamedThreadFactory;
 import com.linkedin.pinot.core.query.reduce.BrokerReduceService;
 import com.linkedin.pinot.transport.conf.TransportClientConf;
 import com.linkedin.pinot.transport.conf.TransportClientConf.RoutingMode;
@@ -37,15 +39,21 @@ import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
 import com.linkedin.pinot.transport.netty.PooledNettyClientResourceManager;
 import com.linkedin.pinot.transport.pool.KeyedPool;
 import com.linkedin.pinot.transport.pool.KeyedPoolImpl;
+import com.linkedin.pinot.transport.scattergather.HedgingPolicy;
 import com.linkedin.pinot.transport.scattergather.ScatterGather;
 import com.linkedin.pinot.transport.scattergather.ScatterGatherImpl;
+import com.linkedin.pinot.transport.scattergather.ServerLoadTracker;
 import com.yammer.metrics.core.MetricsRegistry;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.HashedWheelTimer;
 import java.net.URI;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.configuration.Configuration;
@@ -64,12 +72,32 @@ public class BrokerServerBuilder {
   private static final String BROKER_SEGMENT_PRUNERS = "pinot.broker.segment.pruners";
   private static final String[] DEFAULT_BROKER_SEGMENT_PRUNERS = {};
   private static final String BROKER_ACCESS_CONTROL_PREFIX = "pinot.broker.access.control";
+  // Number of threads (and group key partitions) for parallel group-by reduce, parallel reduce is disabled if <= 1
+  private static final String BROKER_REDUCE_NUM_THREADS = "pinot.broker.reduce.numThreads";
+  private static final int DEFAULT_BROKER_REDUCE_NUM_THREADS = 1;
+  // Minimum number of groups received from servers to trigger parallel group-by reduce
+  private static final String BROKER_REDUCE_PARALLEL_MIN_NUM_GROUPS = "pinot.broker.reduce.parallel.minNumGroups";
+  private static final long DEFAULT_BROKER_REDUCE_PARALLEL_MIN_NUM_GROUPS = 100_000L;
+  // Weight of the new sample in the moving averages of the server load tracked for adaptive routing
+  private static final String BROKER_SERVER_LOAD_EWMA_ALPHA = "pinot.broker.server.load.ewmaAlpha";
+  // Number of brokers querying the same servers, used to account for the in-flight requests from other brokers
+  private static final String BROKER_SERVER_LOAD_NUM_BROKERS = "pinot.broker.server.load.numBrokers";
+  // Whether to hedge slow server requests to another replica, disabled by default
+  private static final String BROKER_HEDGING_ENABLED = "pinot.broker.hedging.enabled";
+  // Percentile of the table response times after which a hedged request is sent
+  private static final String BROKER_HEDGING_PERCENTILE = "pinot.broker.hedging.percentile";
+  // Per table percentile overrides, e.g. pinot.broker.hedging.tablePercentile.myTable=99
+  private static final String BROKER_HEDGING_TABLE_PERCENTILE_PREFIX = "pinot.broker.hedging.tablePercentile";
+  private static final String BROKER_HEDGING_MIN_DELAY_MS = "pinot.broker.hedging.minDelayMs";
+  private static final String BROKER_HEDGING_MIN_NUM_SAMPLES = "pinot.broker.hedging.minNumSamples";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(BrokerServerBuilder.class);
   // Connection Pool Related
   private KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> _connPool;
   private ScheduledThreadPoolExecutor _poolTimeoutExecutor;
   private ExecutorService _requestSenderPool;
+  private ExecutorService _reduceExecutor;
+  private ScheduledExecutorService _hedgingScheduler;
 
   // Netty Specific
   private EventLoopGroup _eventLoopGroup;
@@ -161,8 +189,16 @@ public class BrokerServerBuilder {
       // Helix based routing is already initialized.
     }
 
+    // Setup the server load tracker used by the adaptive routing
+    ServerLoadTracker serverLoadTracker =
+        new ServerLoadTracker(_config.getDouble(BROKER_SERVER_LOAD_EWMA_ALPHA, ServerLoadTracker.DEFAULT_EWMA_ALPHA),
+            _config.getInt(BROKER_SERVER_LOAD_NUM_BROKERS, ServerLoadTracker.DEFAULT_NUM_BROKERS));
+    if (_routingTable instanceof HelixExternalViewBasedRouting) {
+      ((HelixExternalViewBasedRouting) _routingTable).setServerLoadTracker(serverLoadTracker);
+    }
+
     // Setup ScatterGather
-    _scatterGather = new ScatterGatherImpl(_connPool, _requestSenderPool);
+    _scatterGather = new ScatterGatherImpl(_connPool, _requestSenderPool, serverLoadTracker, buildHedgingPolicy());
 
     // Setup the broker pruner service
     String[] prunerNames = _config.getStringArray(BROKER_SEGMENT_PRUNERS);
@@ -171,11 +207,23 @@ public class BrokerServerBuilder {
     }
     SegmentZKMetadataPrunerService brokerPrunerService = new SegmentZKMetadataPrunerService(prunerNames);
 
+    // Setup the broker result cache, which gets invalidated on routing table changes
+    BrokerResultCache brokerResultCache = BrokerResultCache.create(_config, _brokerMetrics);
+    if (brokerResultCache != null) {
+      if (_routingTable instanceof HelixExternalViewBasedRouting) {
+        ((HelixExternalViewBasedRouting) _routingTable).setBrokerResultCache(brokerResultCache);
+      } else {
+        LOGGER.warn("Broker result cache is only supported with Helix external view based routing, disabling it");
+        brokerResultCache = null;
+      }
+    }
+
     // Setup Broker Request Handler
     ReduceServiceRegistry reduceServiceRegistry = buildReduceServiceRegistry();
     _accessControlFactory = AccessControlFactory.loadFactory(_config.subset(BROKER_ACCESS_CONTROL_PREFIX));
     _requestHandler = new BrokerRequestHandler(_routingTable, _timeBoundaryService, _scatterGather,
-        reduceServiceRegistry, brokerPrunerService, _brokerMetrics, _config, _accessControlFactory);
+        reduceServiceRegistry, brokerPrunerService, _brokerMetrics, _config, _accessControlFactory,
+        brokerResultCache, serverLoadTracker);
 
     LOGGER.info("Network initialized !!");
   }
@@ -184,12 +232,46 @@ public class BrokerServerBuilder {
     return _accessControlFactory;
   }
 
+  /**
+   * Build the hedging policy if hedged requests are enabled, or return null otherwise.
+   */
+  private HedgingPolicy buildHedgingPolicy() {
+    if (!_config.getBoolean(BROKER_HEDGING_ENABLED, false)) {
+      return null;
+    }
+    double defaultPercentile = _config.getDouble(BROKER_HEDGING_PERCENTILE, HedgingPolicy.DEFAULT_PERCENTILE);
+    Map<String, Double> tablePercentiles = new HashMap<>();
+    Configuration tablePercentileConfig = _config.subset(BROKER_HEDGING_TABLE_PERCENTILE_PREFIX);
+    Iterator<String> tableNames = tablePercentileConfig.getKeys();
+    while (tableNames.hasNext()) {
+      String tableName = tableNames.next();
+      tablePercentiles.put(tableName, tablePercentileConfig.getDouble(tableName));
+    }
+    long minDelayMs = _config.getLong(BROKER_HEDGING_MIN_DELAY_MS, HedgingPolicy.DEFAULT_MIN_DELAY_MS);
+    int minNumSamples = _config.getInt(BROKER_HEDGING_MIN_NUM_SAMPLES, HedgingPolicy.DEFAULT_MIN_NUM_SAMPLES);
+    LOGGER.info("Hedged requests enabled at percentile {} (table overrides: {}) with min delay {}ms", defaultPercentile,
+        tablePercentiles, minDelayMs);
+    _hedgingScheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("BrokerHedging"));
+    return new HedgingPolicy(_hedgingScheduler, defaultPercentile, tablePercentiles, minDelayMs, minNumSamples);
+  }
+
   /**
    * Build the reduce service registry for each broker response.
    */
   private ReduceServiceRegistry buildReduceServiceRegistry() {
     ReduceServiceRegistry reduceServiceRegistry = new ReduceServiceRegistry();
-    BrokerReduceService reduceService = new BrokerReduceService();
+    int numReduceThreads = _config.getInt(BROKER_REDUCE_NUM_THREADS, DEFAULT_BROKER_REDUCE_NUM_THREADS);
+    BrokerReduceService reduceService;
+    if (numReduceThreads > 1) {
+      long minNumGroupsForParallelReduce =
+          _config.getLong(BROKER_REDUCE_PARALLEL_MIN_NUM_GROUPS, DEFAULT_BROKER_REDUCE_PARALLEL_MIN_NUM_GROUPS);
+      LOGGER.info("Parallel group-by reduce enabled with {} threads for queries with at least {} groups",
+          numReduceThreads, minNumGroupsForParallelReduce);
+      _reduceExecutor = Executors.newFixedThreadPool(numReduceThreads, new NamedThreadFactory("BrokerReduce"));
+      reduceService = new BrokerReduceService(_reduceExecutor, numReduceThreads, minNumGroupsForParallelReduce);
+    } else {
+      reduceService = new BrokerReduceService();
+    }
     reduceServiceRegistry.register(BrokerResponseFactory.ResponseType.BROKER_RESPONSE_TYPE_NATIVE,
         reduceService);
 
@@ -238,6 +320,12 @@ public class BrokerServerBuilder {
     _eventLoopGroup.shutdownGracefully();
     _poolTimeoutExecutor.shutdown();
     _requestSenderPool.shutdown();
+    if (_reduceExecutor != null) {
+      _reduceExecutor.shutdown();
+    }
+    if (_hedgingScheduler != null) {
+      _hedgingScheduler.shutdown();
+    }
     _state.set(State.SHUTDOWN);
     LOGGER.info("Network shutdown!!");
 
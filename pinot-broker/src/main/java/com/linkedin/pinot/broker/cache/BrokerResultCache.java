@@ -0,0 +1,271 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.linkedin.pinot.common.metrics.BrokerMeter;
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.BrokerResponse;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.serde.SerDe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.configuration.Configuration;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>BrokerResultCache</code> class is a bounded, size-aware cache for broker responses.
+ * <p>Entries are keyed on the normalized broker request, the set of segments the request is routed to and the routing
+ * version of the table. The routing version is bumped whenever the routing table of the table gets rebuilt (e.g. on
+ * external view change) or any segment of the table gets refreshed, so that responses computed against an older view
+ * of the table can never be served.
+ * <p>Only requests whose segments are immutable (OFFLINE tables) should be cached.
+ */
+@ThreadSafe
+public class BrokerResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResultCache.class);
+
+  public static final String ENABLE_CONFIG = "pinot.broker.result.cache.enabled";
+  public static final String MAX_SIZE_IN_BYTES_CONFIG = "pinot.broker.result.cache.max.size.bytes";
+  public static final String EXPIRE_AFTER_WRITE_MS_CONFIG = "pinot.broker.result.cache.expire.after.write.ms";
+  public static final boolean DEFAULT_ENABLE = false;
+  public static final long DEFAULT_MAX_SIZE_IN_BYTES = 64 * 1024 * 1024L;
+  public static final long DEFAULT_EXPIRE_AFTER_WRITE_MS = 5 * 60 * 1000L;
+
+  // Rough estimation of the per entry overhead (cache entry, key object, segment names list).
+  private static final int ENTRY_OVERHEAD_IN_BYTES = 128;
+
+  private final Cache<Key, String> _cache;
+  private final Map<String, AtomicLong> _routingVersionMap = new ConcurrentHashMap<>();
+  private final BrokerMetrics _brokerMetrics;
+
+  public BrokerResultCache(long maxSizeInBytes, long expireAfterWriteMs, @Nonnull BrokerMetrics brokerMetrics) {
+    _brokerMetrics = brokerMetrics;
+    _cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxSizeInBytes)
+        .weigher(new Weigher<Key, String>() {
+          @Override
+          public int weigh(@Nonnull Key key, @Nonnull String value) {
+            return key.getSizeInBytes() + 2 * value.length();
+          }
+        })
+        .expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS)
+        .removalListener(new RemovalListener<Key, String>() {
+          @Override
+          public void onRemoval(@Nonnull RemovalNotification<Key, String> notification) {
+            if (notification.wasEvicted()) {
+              _brokerMetrics.addMeteredGlobalValue(BrokerMeter.RESULT_CACHE_EVICTIONS, 1L);
+            }
+          }
+        })
+        .build();
+    LOGGER.info("Initialized broker result cache with max size: {} bytes, expire after write: {} ms", maxSizeInBytes,
+        expireAfterWriteMs);
+  }
+
+  /**
+   * Create a broker result cache from the broker configuration, or return <code>null</code> if it is not enabled.
+   */
+  @Nullable
+  public static BrokerResultCache create(@Nonnull Configuration config, @Nonnull BrokerMetrics brokerMetrics) {
+    if (!config.getBoolean(ENABLE_CONFIG, DEFAULT_ENABLE)) {
+      return null;
+    }
+    return new BrokerResultCache(config.getLong(MAX_SIZE_IN_BYTES_CONFIG, DEFAULT_MAX_SIZE_IN_BYTES),
+        config.getLong(EXPIRE_AFTER_WRITE_MS_CONFIG, DEFAULT_EXPIRE_AFTER_WRITE_MS), brokerMetrics);
+  }
+
+  /**
+   * Build the cache key for a broker request routed with the given routing table.
+   * <p>The routing version must be read before the routing table is looked up, so that a concurrent invalidation
+   * results in a key that will never be looked up again.
+   *
+   * @param brokerRequest optimized broker request with table name type suffix.
+   * @param routingTable map from server to list of segments.
+   * @param routingVersion routing version of the table.
+   * @return cache key, or <code>null</code> if the broker request cannot be serialized.
+   */
+  @Nullable
+  public Key getKey(@Nonnull BrokerRequest brokerRequest, @Nonnull Map<String, List<String>> routingTable,
+      long routingVersion) {
+    String tableName = brokerRequest.getQuerySource().getTableName();
+    // SerDe is not thread-safe.
+    byte[] requestBytes = new SerDe(new TCompactProtocol.Factory()).serialize(normalize(brokerRequest));
+    if (requestBytes == null) {
+      return null;
+    }
+    TreeSet<String> segments = new TreeSet<>();
+    for (List<String> segmentsForServer : routingTable.values()) {
+      segments.addAll(segmentsForServer);
+    }
+    return new Key(tableName, routingVersion, requestBytes, new ArrayList<>(segments));
+  }
+
+  /**
+   * Get the current routing version for the given table.
+   */
+  public long getRoutingVersion(@Nonnull String tableNameWithType) {
+    return getRoutingVersionCounter(tableNameWithType).get();
+  }
+
+  /**
+   * Get the cached broker response for the given key, or <code>null</code> if there is no cached response.
+   * <p>A new broker response instance is returned for each call, so that the caller is free to modify it.
+   */
+  @Nullable
+  public BrokerResponse get(@Nonnull Key key, @Nonnull String rawTableName) {
+    String cachedResponse = _cache.getIfPresent(key);
+    if (cachedResponse != null) {
+      try {
+        BrokerResponse brokerResponse = BrokerResponseNative.fromJsonString(cachedResponse);
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1L);
+        return brokerResponse;
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while de-serializing cached response for table: {}", key._tableName, e);
+        _cache.invalidate(key);
+      }
+    }
+    _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_MISSES, 1L);
+    return null;
+  }
+
+  /**
+   * Put a broker response into the cache. Responses computed against an outdated routing version are dropped.
+   */
+  public void put(@Nonnull Key key, @Nonnull BrokerResponse brokerResponse) {
+    if (key._routingVersion != getRoutingVersion(key._tableName)) {
+      return;
+    }
+    try {
+      _cache.put(key, brokerResponse.toJsonString());
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while serializing response for table: {}", key._tableName, e);
+    }
+  }
+
+  /**
+   * Invalidate all the cached responses for the given table. Should be invoked whenever the routing table of the table
+   * gets rebuilt or removed, or the segment ZK metadata of the table changes (see
+   * {@link SegmentZKMetadataChangeListener}).
+   */
+  public void invalidate(@Nonnull String tableNameWithType) {
+    getRoutingVersionCounter(tableNameWithType).incrementAndGet();
+    Iterator<Key> iterator = _cache.asMap().keySet().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next()._tableName.equals(tableNameWithType)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  public long size() {
+    return _cache.size();
+  }
+
+  private AtomicLong getRoutingVersionCounter(String tableNameWithType) {
+    AtomicLong routingVersion = _routingVersionMap.get(tableNameWithType);
+    if (routingVersion == null) {
+      _routingVersionMap.putIfAbsent(tableNameWithType, new AtomicLong());
+      routingVersion = _routingVersionMap.get(tableNameWithType);
+    }
+    return routingVersion;
+  }
+
+  /**
+   * Normalize the broker request so that semantically identical requests share the same cache key.
+   * <p>Currently normalizes:
+   * <ul>
+   *   <li>Children of AND/OR filter nodes are put in a canonical order.</li>
+   *   <li>Trace flag and response format are removed.</li>
+   * </ul>
+   */
+  @Nonnull
+  static BrokerRequest normalize(@Nonnull BrokerRequest brokerRequest) {
+    BrokerRequest normalizedRequest = brokerRequest.deepCopy();
+    normalizedRequest.unsetEnableTrace();
+    normalizedRequest.unsetResponseFormat();
+    RequestUtils.normalizeFilter(normalizedRequest);
+    return normalizedRequest;
+  }
+
+  /**
+   * Key of the broker result cache.
+   */
+  public static final class Key {
+    private final String _tableName;
+    private final long _routingVersion;
+    private final byte[] _requestBytes;
+    private final List<String> _segments;
+    private final int _hashCode;
+
+    private Key(String tableName, long routingVersion, byte[] requestBytes, List<String> segments) {
+      _tableName = tableName;
+      _routingVersion = routingVersion;
+      _requestBytes = requestBytes;
+      _segments = segments;
+      int hashCode = tableName.hashCode();
+      hashCode = 31 * hashCode + Long.valueOf(routingVersion).hashCode();
+      hashCode = 31 * hashCode + Arrays.hashCode(requestBytes);
+      hashCode = 31 * hashCode + segments.hashCode();
+      _hashCode = hashCode;
+    }
+
+    private int getSizeInBytes() {
+      int sizeInBytes = ENTRY_OVERHEAD_IN_BYTES + 2 * _tableName.length() + _requestBytes.length;
+      for (String segment : _segments) {
+        sizeInBytes += 2 * segment.length();
+      }
+      return sizeInBytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _hashCode == that._hashCode && _routingVersion == that._routingVersion && _tableName.equals(
+          that._tableName) && Arrays.equals(_requestBytes, that._requestBytes) && _segments.equals(that._segments);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.cache;
+
+import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import org.I0Itec.zkclient.IZkDataListener;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentZKMetadataChangeListener</code> class invalidates the cached broker responses of a table when the
+ * segment ZK metadata of any of its segments changes.
+ * <p>Refreshing a segment with the same name only updates its ZK metadata (CRC and refresh time) without changing the
+ * external view, so it does not trigger a routing table rebuild which invalidates the cached responses.
+ */
+@ThreadSafe
+public class SegmentZKMetadataChangeListener {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentZKMetadataChangeListener.class);
+
+  private final ZkHelixPropertyStore<ZNRecord> _propertyStore;
+  private final BrokerResultCache _brokerResultCache;
+  private final Map<String, TableListener> _tableListenerMap = new HashMap<>();
+
+  public SegmentZKMetadataChangeListener(@Nonnull ZkHelixPropertyStore<ZNRecord> propertyStore,
+      @Nonnull BrokerResultCache brokerResultCache) {
+    _propertyStore = propertyStore;
+    _brokerResultCache = brokerResultCache;
+  }
+
+  /**
+   * Update the segments to listen to for the given table, subscribing to the newly added segments and unsubscribing
+   * from the removed ones.
+   *
+   * @param tableNameWithType table name with type suffix.
+   * @param segments current segments of the table.
+   */
+  public synchronized void updateSegments(@Nonnull String tableNameWithType, @Nonnull Collection<String> segments) {
+    TableListener tableListener = _tableListenerMap.get(tableNameWithType);
+    if (tableListener == null) {
+      tableListener = new TableListener(tableNameWithType);
+      _tableListenerMap.put(tableNameWithType, tableListener);
+    }
+
+    Set<String> segmentPaths = new HashSet<>(segments.size());
+    for (String segment : segments) {
+      segmentPaths.add(ZKMetadataProvider.constructPropertyStorePathForSegment(tableNameWithType, segment));
+    }
+    Iterator<String> iterator = tableListener._segmentPaths.iterator();
+    while (iterator.hasNext()) {
+      String segmentPath = iterator.next();
+      if (!segmentPaths.contains(segmentPath)) {
+        _propertyStore.unsubscribeDataChanges(segmentPath, tableListener);
+        iterator.remove();
+      }
+    }
+    for (String segmentPath : segmentPaths) {
+      if (tableListener._segmentPaths.add(segmentPath)) {
+        _propertyStore.subscribeDataChanges(segmentPath, tableListener);
+      }
+    }
+  }
+
+  /**
+   * Stop listening to the segments of the given table.
+   *
+   * @param tableNameWithType table name with type suffix.
+   */
+  public synchronized void removeTable(@Nonnull String tableNameWithType) {
+    TableListener tableListener = _tableListenerMap.remove(tableNameWithType);
+    if (tableListener != null) {
+      for (String segmentPath : tableListener._segmentPaths) {
+        _propertyStore.unsubscribeDataChanges(segmentPath, tableListener);
+      }
+    }
+  }
+
+  /**
+   * Listener for the segment ZK metadata of a table. Only accessed under the lock of the outer class except for the
+   * callbacks, which only access the immutable table name.
+   */
+  private class TableListener implements IZkDataListener {
+    private final String _tableNameWithType;
+    private final Set<String> _segmentPaths = new HashSet<>();
+
+    TableListener(String tableNameWithType) {
+      _tableNameWithType = tableNameWithType;
+    }
+
+    @Override
+    public void handleDataChange(String dataPath, Object data) {
+      LOGGER.info("Invalidating cached results for table: {} due to segment ZK metadata change: {}",
+          _tableNameWithType, dataPath);
+      _brokerResultCache.invalidate(_tableNameWithType);
+    }
+
+    @Override
+    public void handleDataDeleted(String dataPath) {
+      LOGGER.info("Invalidating cached results for table: {} due to segment ZK metadata deletion: {}",
+          _tableNameWithType, dataPath);
+      _brokerResultCache.invalidate(_tableNameWithType);
+    }
+  }
+}
@@ -18,6 +18,7 @@ package com.linkedin.pinot.broker.requesthandler;
 import com.google.common.base.Splitter;
 import com.linkedin.pinot.broker.api.RequesterIdentity;
 import com.linkedin.pinot.broker.broker.AccessControlFactory;
+import com.linkedin.pinot.broker.cache.BrokerResultCache;
 import com.linkedin.pinot.broker.pruner.SegmentZKMetadataPrunerService;
 import com.linkedin.pinot.broker.routing.RoutingTable;
 import com.linkedin.pinot.broker.routing.RoutingTableLookupRequest;
@@ -29,6 +30,7 @@ import com.linkedin.pinot.common.metrics.BrokerMeter;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
 import com.linkedin.pinot.common.metrics.BrokerQueryPhase;
 import com.linkedin.pinot.common.query.ReduceService;
+import com.linkedin.pinot.common.query.DataTableReducer;
 import com.linkedin.pinot.common.query.ReduceServiceRegistry;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.request.FilterOperator;
@@ -49,6 +51,7 @@ import com.linkedin.pinot.transport.common.CompositeFuture;
 import com.linkedin.pinot.transport.scattergather.ScatterGather;
 import com.linkedin.pinot.transport.scattergather.ScatterGatherRequest;
 import com.linkedin.pinot.transport.scattergather.ScatterGatherStats;
+import com.linkedin.pinot.transport.scattergather.ServerLoadTracker;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
@@ -81,13 +84,16 @@ public class BrokerRequestHandler {
 
   private static final String BROKER_QUERY_SPLIT_IN_CLAUSE = "pinot.broker.query.split.in.clause";
   private static final String BROKER_QUERY_LOG_LENGTH = "pinot.broker.query.log.length";
+  private static final String BROKER_STREAMING_REDUCE = "pinot.broker.streaming.reduce";
   private static final ResponseType DEFAULT_BROKER_RESPONSE_TYPE = ResponseType.BROKER_RESPONSE_TYPE_NATIVE;
   private static final boolean DEFAULT_BROKER_QUERY_SPLIT_IN_CLAUSE = false;
   private static final int DEFAULT_QUERY_LOG_LENGTH = Integer.MAX_VALUE;
+  private static final boolean DEFAULT_BROKER_STREAMING_REDUCE = true;
 
   private final SegmentZKMetadataPrunerService _segmentPrunerService;
   private final boolean _splitInClause;
   private final int _queryLogLength;
+  private final boolean _streamingReduce;
   private final AccessControlFactory _accessControlFactory;
   private final RoutingTable _routingTable;
   private final ScatterGather _scatterGatherer;
@@ -99,11 +105,30 @@ public class BrokerRequestHandler {
   private final int _queryResponseLimit;
   private final AtomicLong _requestIdGenerator;
   private final String _brokerId;
+  private final BrokerResultCache _brokerResultCache;
+  private final ServerLoadTracker _serverLoadTracker;
 
   public BrokerRequestHandler(RoutingTable table, TimeBoundaryService timeBoundaryService,
       ScatterGather scatterGatherer, ReduceServiceRegistry reduceServiceRegistry,
       SegmentZKMetadataPrunerService segmentPrunerService, BrokerMetrics brokerMetrics, Configuration config,
       AccessControlFactory accessControlFactory) {
+    this(table, timeBoundaryService, scatterGatherer, reduceServiceRegistry, segmentPrunerService, brokerMetrics,
+        config, accessControlFactory, null);
+  }
+
+  public BrokerRequestHandler(RoutingTable table, TimeBoundaryService timeBoundaryService,
+      ScatterGather scatterGatherer, ReduceServiceRegistry reduceServiceRegistry,
+      SegmentZKMetadataPrunerService segmentPrunerService, BrokerMetrics brokerMetrics, Configuration config,
+      AccessControlFactory accessControlFactory, @Nullable BrokerResultCache brokerResultCache) {
+    this(table, timeBoundaryService, scatterGatherer, reduceServiceRegistry, segmentPrunerService, brokerMetrics,
+        config, accessControlFactory, brokerResultCache, null);
+  }
+
+  public BrokerRequestHandler(RoutingTable table, TimeBoundaryService timeBoundaryService,
+      ScatterGather scatterGatherer, ReduceServiceRegistry reduceServiceRegistry,
+      SegmentZKMetadataPrunerService segmentPrunerService, BrokerMetrics brokerMetrics, Configuration config,
+      AccessControlFactory accessControlFactory, @Nullable BrokerResultCache brokerResultCache,
+      @Nullable ServerLoadTracker serverLoadTracker) {
     _routingTable = table;
     _timeBoundaryService = timeBoundaryService;
     _reduceServiceRegistry = reduceServiceRegistry;
@@ -115,15 +140,19 @@ public class BrokerRequestHandler {
         CommonConstants.Broker.DEFAULT_BROKER_QUERY_RESPONSE_LIMIT);
     _splitInClause = config.getBoolean(BROKER_QUERY_SPLIT_IN_CLAUSE, DEFAULT_BROKER_QUERY_SPLIT_IN_CLAUSE);
     _queryLogLength = config.getInt(BROKER_QUERY_LOG_LENGTH, DEFAULT_QUERY_LOG_LENGTH);
+    _streamingReduce = config.getBoolean(BROKER_STREAMING_REDUCE, DEFAULT_BROKER_STREAMING_REDUCE);
     _brokerTimeOutMs = config.getLong(CommonConstants.Broker.CONFIG_OF_BROKER_TIMEOUT_MS,
         CommonConstants.Broker.DEFAULT_BROKER_TIMEOUT_MS);
     _brokerId = config.getString(CommonConstants.Broker.CONFIG_OF_BROKER_ID, getDefaultBrokerId());
     _segmentPrunerService = segmentPrunerService;
     _accessControlFactory = accessControlFactory;
+    _brokerResultCache = brokerResultCache;
+    _serverLoadTracker = serverLoadTracker;
 
     LOGGER.info("Broker response limit is: " + _queryResponseLimit);
     LOGGER.info("Broker timeout is - " + _brokerTimeOutMs + " ms");
     LOGGER.info("Broker id: " + _brokerId);
+    LOGGER.info("Broker streaming reduce: " + _streamingReduce);
   }
 
   private String getDefaultBrokerId() {
@@ -305,6 +334,8 @@ public class BrokerRequestHandler {
    *   <li>4. Deserialize the server responses.</li>
    *   <li>5. Reduce (merge) the server responses and create a broker response to be returned.</li>
    * </ul>
+   * <p>With streaming reduce enabled, stages 3 to 5 are pipelined: each server response is deserialized and merged as
+   * soon as it arrives, and only the final rendering of the broker response is left after the last response.
    *
    * @param brokerRequest broker request to be processed.
    * @param offlineTableName offline table hit by the request.
@@ -455,6 +486,9 @@ public class BrokerRequestHandler {
    * @param reduceService reduce service.
    * @param scatterGatherStats scatter-gather statistics.
    * @param requestId request ID.
+   * <p>OFFLINE only requests are served from the broker result cache if it is enabled, as segments of OFFLINE tables
+   * never change without a routing table change.
+   *
    * @return broker response.
    * @throws InterruptedException
    */
@@ -464,16 +498,34 @@ public class BrokerRequestHandler {
       @Nonnull ReduceService reduceService, @Nonnull ScatterGatherStats scatterGatherStats, long requestId)
       throws InterruptedException {
     ResponseType serverResponseType = BrokerResponseFactory.getResponseType(originalBrokerRequest.getResponseFormat());
+    String rawTableName = TableNameBuilder.extractRawTableName(originalBrokerRequest.getQuerySource().getTableName());
     PhaseTimes phaseTimes = new PhaseTimes();
 
     // Step 1: find the candidate servers to be queried for each set of segments from the routing table.
     // Step 2: select servers for each segment set and scatter request to the servers.
     String offlineTableName = null;
     CompositeFuture<byte[]> offlineCompositeFuture = null;
+    BrokerResultCache.Key resultCacheKey = null;
     if (offlineBrokerRequest != null) {
       offlineTableName = offlineBrokerRequest.getQuerySource().getTableName();
-      offlineCompositeFuture =
-          routeAndScatterBrokerRequest(offlineBrokerRequest, phaseTimes, scatterGatherStats, true, requestId);
+      boolean useResultCache =
+          (_brokerResultCache != null) && (realtimeBrokerRequest == null) && !offlineBrokerRequest.isEnableTrace();
+      // Read the routing version before looking up the routing table
+      long routingVersion = useResultCache ? _brokerResultCache.getRoutingVersion(offlineTableName) : 0L;
+      Map<String, List<String>> routingTable = routeBrokerRequest(offlineBrokerRequest, phaseTimes);
+      if (routingTable != null) {
+        if (useResultCache) {
+          resultCacheKey = _brokerResultCache.getKey(offlineBrokerRequest, routingTable, routingVersion);
+          if (resultCacheKey != null) {
+            BrokerResponse cachedBrokerResponse = _brokerResultCache.get(resultCacheKey, rawTableName);
+            if (cachedBrokerResponse != null) {
+              return cachedBrokerResponse;
+            }
+          }
+        }
+        offlineCompositeFuture =
+            scatterBrokerRequest(offlineBrokerRequest, routingTable, phaseTimes, scatterGatherStats, true, requestId);
+      }
     }
     String realtimeTableName = null;
     CompositeFuture<byte[]> realtimeCompositeFuture = null;
@@ -487,50 +539,87 @@ public class BrokerRequestHandler {
       return BrokerResponseFactory.getStaticEmptyBrokerResponse(serverResponseType);
     }
 
-    // Step 3: gather response from the servers.
     int numServersQueried = 0;
-    long gatherStartTime = System.nanoTime();
-    List<ProcessingException> processingExceptions = new ArrayList<>();
-    Map<ServerInstance, byte[]> offlineServerResponseMap = null;
-    Map<ServerInstance, byte[]> realtimeServerResponseMap = null;
-    if (offlineCompositeFuture != null) {
-      numServersQueried += offlineCompositeFuture.getNumFutures();
-      offlineServerResponseMap =
-          gatherServerResponses(offlineCompositeFuture, scatterGatherStats, true, offlineTableName,
-              processingExceptions);
-    }
-    if (realtimeCompositeFuture != null) {
-      numServersQueried += realtimeCompositeFuture.getNumFutures();
-      realtimeServerResponseMap =
-          gatherServerResponses(realtimeCompositeFuture, scatterGatherStats, false, realtimeTableName,
-              processingExceptions);
-    }
-    phaseTimes.addToGatherTime(System.nanoTime() - gatherStartTime);
-    if ((offlineServerResponseMap == null) && (realtimeServerResponseMap == null)) {
-      // No response gathered.
-      return BrokerResponseFactory.getBrokerResponseWithExceptions(serverResponseType, processingExceptions);
-    }
-
-    //Step 4: deserialize the server responses.
     int numServersResponded = 0;
-    long deserializationStartTime = System.nanoTime();
-    Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
-    if (offlineServerResponseMap != null) {
-      numServersResponded += offlineServerResponseMap.size();
-      deserializeServerResponses(offlineServerResponseMap, true, dataTableMap, offlineTableName, processingExceptions);
-    }
-    if (realtimeServerResponseMap != null) {
-      numServersResponded += realtimeServerResponseMap.size();
-      deserializeServerResponses(realtimeServerResponseMap, false, dataTableMap, realtimeTableName,
-          processingExceptions);
-    }
-    phaseTimes.addToDeserializationTime(System.nanoTime() - deserializationStartTime);
+    List<ProcessingException> processingExceptions = new ArrayList<>();
+    BrokerResponse brokerResponse;
+    if (_streamingReduce) {
+      // Step 3, 4, 5: gather, deserialize and reduce (merge) each server response as soon as it arrives.
+      DataTableReducer<? extends BrokerResponse> dataTableReducer =
+          reduceService.getDataTableReducer(originalBrokerRequest, _brokerMetrics);
+      boolean responsesGathered = false;
+      if (offlineCompositeFuture != null) {
+        numServersQueried += offlineCompositeFuture.getNumFutures();
+        int numOfflineServersResponded =
+            gatherAndReduceServerResponses(offlineCompositeFuture, dataTableReducer, phaseTimes, scatterGatherStats,
+                true, offlineTableName, processingExceptions);
+        if (numOfflineServersResponded >= 0) {
+          responsesGathered = true;
+          numServersResponded += numOfflineServersResponded;
+        }
+      }
+      if (realtimeCompositeFuture != null) {
+        numServersQueried += realtimeCompositeFuture.getNumFutures();
+        int numRealtimeServersResponded =
+            gatherAndReduceServerResponses(realtimeCompositeFuture, dataTableReducer, phaseTimes, scatterGatherStats,
+                false, realtimeTableName, processingExceptions);
+        if (numRealtimeServersResponded >= 0) {
+          responsesGathered = true;
+          numServersResponded += numRealtimeServersResponded;
+        }
+      }
+      if (!responsesGathered) {
+        // No response gathered.
+        return BrokerResponseFactory.getBrokerResponseWithExceptions(serverResponseType, processingExceptions);
+      }
 
-    // Step 5: reduce (merge) the server responses and create a broker response to be returned.
-    long reduceStartTime = System.nanoTime();
-    BrokerResponse brokerResponse =
-        reduceService.reduceOnDataTable(originalBrokerRequest, dataTableMap, _brokerMetrics);
-    phaseTimes.addToReduceTime(System.nanoTime() - reduceStartTime);
+      // Create the broker response from the merged results.
+      long reduceStartTime = System.nanoTime();
+      brokerResponse = dataTableReducer.getBrokerResponse();
+      phaseTimes.addToReduceTime(System.nanoTime() - reduceStartTime);
+    } else {
+      // Step 3: gather response from the servers.
+      long gatherStartTime = System.nanoTime();
+      Map<ServerInstance, byte[]> offlineServerResponseMap = null;
+      Map<ServerInstance, byte[]> realtimeServerResponseMap = null;
+      if (offlineCompositeFuture != null) {
+        numServersQueried += offlineCompositeFuture.getNumFutures();
+        offlineServerResponseMap =
+            gatherServerResponses(offlineCompositeFuture, scatterGatherStats, true, offlineTableName,
+                processingExceptions);
+      }
+      if (realtimeCompositeFuture != null) {
+        numServersQueried += realtimeCompositeFuture.getNumFutures();
+        realtimeServerResponseMap =
+            gatherServerResponses(realtimeCompositeFuture, scatterGatherStats, false, realtimeTableName,
+                processingExceptions);
+      }
+      phaseTimes.addToGatherTime(System.nanoTime() - gatherStartTime);
+      if ((offlineServerResponseMap == null) && (realtimeServerResponseMap == null)) {
+        // No response gathered.
+        return BrokerResponseFactory.getBrokerResponseWithExceptions(serverResponseType, processingExceptions);
+      }
+
+      //Step 4: deserialize the server responses.
+      long deserializationStartTime = System.nanoTime();
+      Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
+      if (offlineServerResponseMap != null) {
+        numServersResponded += offlineServerResponseMap.size();
+        deserializeServerResponses(offlineServerResponseMap, true, dataTableMap, offlineTableName,
+            processingExceptions);
+      }
+      if (realtimeServerResponseMap != null) {
+        numServersResponded += realtimeServerResponseMap.size();
+        deserializeServerResponses(realtimeServerResponseMap, false, dataTableMap, realtimeTableName,
+            processingExceptions);
+      }
+      phaseTimes.addToDeserializationTime(System.nanoTime() - deserializationStartTime);
+
+      // Step 5: reduce (merge) the server responses and create a broker response to be returned.
+      long reduceStartTime = System.nanoTime();
+      brokerResponse = reduceService.reduceOnDataTable(originalBrokerRequest, dataTableMap, _brokerMetrics);
+      phaseTimes.addToReduceTime(System.nanoTime() - reduceStartTime);
+    }
 
     // Set processing exceptions and number of servers queried/responded.
     brokerResponse.setExceptions(processingExceptions);
@@ -538,7 +627,6 @@ public class BrokerRequestHandler {
     brokerResponse.setNumServersResponded(numServersResponded);
 
     // Update broker metrics.
-    String rawTableName = TableNameBuilder.extractRawTableName(originalBrokerRequest.getQuerySource().getTableName());
     phaseTimes.addPhaseTimesToBrokerMetrics(_brokerMetrics, rawTableName);
     if (brokerResponse.getExceptionsSize() > 0) {
       _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PROCESSING_EXCEPTIONS, 1L);
@@ -548,6 +636,12 @@ public class BrokerRequestHandler {
           1L);
     }
 
+    // Only cache complete responses.
+    if ((resultCacheKey != null) && (brokerResponse.getExceptionsSize() == 0)
+        && (numServersQueried == numServersResponded)) {
+      _brokerResultCache.put(resultCacheKey, brokerResponse);
+    }
+
     return brokerResponse;
   }
 
@@ -560,7 +654,22 @@ public class BrokerRequestHandler {
   private CompositeFuture<byte[]> routeAndScatterBrokerRequest(@Nonnull BrokerRequest brokerRequest,
       @Nonnull PhaseTimes phaseTimes, @Nonnull ScatterGatherStats scatterGatherStats, boolean isOfflineTable,
       long requestId) throws InterruptedException {
-    // Step 1: find the candidate servers to be queried for each set of segments from the routing table.
+    Map<String, List<String>> routingTable = routeBrokerRequest(brokerRequest, phaseTimes);
+    if (routingTable == null) {
+      return null;
+    }
+    return scatterBrokerRequest(brokerRequest, routingTable, phaseTimes, scatterGatherStats, isOfflineTable,
+        requestId);
+  }
+
+  /**
+   * Find the candidate servers to be queried for each set of segments from the routing table.
+   *
+   * @return routing table, or <code>null</code> if no server is found.
+   */
+  @Nullable
+  private Map<String, List<String>> routeBrokerRequest(@Nonnull BrokerRequest brokerRequest,
+      @Nonnull PhaseTimes phaseTimes) {
     // TODO: add checks for whether all segments are covered.
     long routingStartTime = System.nanoTime();
     Map<String, List<String>> routingTable =
@@ -572,11 +681,25 @@ public class BrokerRequestHandler {
       _brokerMetrics.addMeteredTableValue(tableNameWithType, BrokerMeter.NO_SERVER_FOUND_EXCEPTIONS, 1L);
       return null;
     }
+    return routingTable;
+  }
 
-    // Step 2: select servers for each segment set and scatter request to the servers.
+  /**
+   * Select servers for each segment set and scatter request to the servers.
+   *
+   * @return composite future used to gather responses.
+   */
+  @Nonnull
+  private CompositeFuture<byte[]> scatterBrokerRequest(@Nonnull BrokerRequest brokerRequest,
+      @Nonnull Map<String, List<String>> routingTable, @Nonnull PhaseTimes phaseTimes,
+      @Nonnull ScatterGatherStats scatterGatherStats, boolean isOfflineTable, long requestId)
+      throws InterruptedException {
     long scatterStartTime = System.nanoTime();
+    Map<String, List<String>> segmentToServersMap =
+        _routingTable.getSegmentToServersMap(brokerRequest.getQuerySource().getTableName());
     ScatterGatherRequestImpl scatterRequest =
-        new ScatterGatherRequestImpl(brokerRequest, routingTable, requestId, _brokerTimeOutMs, _brokerId);
+        new ScatterGatherRequestImpl(brokerRequest, routingTable, segmentToServersMap, requestId, _brokerTimeOutMs,
+            _brokerId);
     CompositeFuture<byte[]> compositeFuture =
         _scatterGatherer.scatterGather(scatterRequest, scatterGatherStats, isOfflineTable, _brokerMetrics);
     phaseTimes.addToScatterTime(System.nanoTime() - scatterStartTime);
@@ -618,6 +741,72 @@ public class BrokerRequestHandler {
     }
   }
 
+  /**
+   * Gather server responses as they arrive, deserialize each of them and merge it into the data table reducer passed
+   * in right away, append processing exceptions to the processing exception list passed in.
+   * <p>For hybrid use case, multiple responses might be from the same instance. Use response sequence to distinguish
+   * them.
+   *
+   * @param compositeFuture composite future returned from scatter phase.
+   * @param dataTableReducer data table reducer to merge the responses into.
+   * @param phaseTimes phase times to record the gather, deserialization and reduce time.
+   * @param scatterGatherStats scatter-gather statistics.
+   * @param isOfflineTable whether the scatter-gather target is an OFFLINE table.
+   * @param tableNameWithType table name with type suffix.
+   * @param processingExceptions list of processing exceptions.
+   * @return number of servers responded, or -1 if caught exception while gathering the responses.
+   */
+  private int gatherAndReduceServerResponses(@Nonnull CompositeFuture<byte[]> compositeFuture,
+      @Nonnull DataTableReducer<? extends BrokerResponse> dataTableReducer, @Nonnull PhaseTimes phaseTimes,
+      @Nonnull ScatterGatherStats scatterGatherStats, boolean isOfflineTable, @Nonnull String tableNameWithType,
+      @Nonnull List<ProcessingException> processingExceptions) {
+    int numServersResponded = 0;
+    try {
+      long gatherStartTime = System.nanoTime();
+      Entry<ServerInstance, byte[]> response;
+      while ((response = compositeFuture.takeNextResponse()) != null) {
+        phaseTimes.addToGatherTime(System.nanoTime() - gatherStartTime);
+        ServerInstance serverInstance = response.getKey();
+        byte[] responseBytes = response.getValue();
+        if (responseBytes.length == 0) {
+          LOGGER.warn("Got empty response from server: {}", serverInstance.getShortHostName());
+        } else {
+          numServersResponded++;
+          if (!isOfflineTable) {
+            serverInstance = serverInstance.withSeq(1);
+          }
+          long deserializationStartTime = System.nanoTime();
+          DataTable dataTable = null;
+          try {
+            dataTable = DataTableFactory.getDataTable(responseBytes);
+          } catch (Exception e) {
+            LOGGER.error("Caught exceptions while deserializing response for table: {} from server: {}",
+                tableNameWithType, serverInstance, e);
+            _brokerMetrics.addMeteredTableValue(tableNameWithType, BrokerMeter.DATA_TABLE_DESERIALIZATION_EXCEPTIONS,
+                1L);
+            processingExceptions.add(QueryException.getException(QueryException.DATA_TABLE_DESERIALIZATION_ERROR, e));
+          }
+          phaseTimes.addToDeserializationTime(System.nanoTime() - deserializationStartTime);
+          if (dataTable != null) {
+            updateServerLoad(response.getKey(), dataTable);
+            long reduceStartTime = System.nanoTime();
+            dataTableReducer.reduce(serverInstance, dataTable);
+            phaseTimes.addToReduceTime(System.nanoTime() - reduceStartTime);
+          }
+        }
+        gatherStartTime = System.nanoTime();
+      }
+      phaseTimes.addToGatherTime(System.nanoTime() - gatherStartTime);
+      scatterGatherStats.setResponseTimeMillis(compositeFuture.getResponseTimes(), isOfflineTable);
+      return numServersResponded;
+    } catch (InterruptedException e) {
+      LOGGER.error("Interrupted while fetching responses for table: {}", tableNameWithType, e);
+      _brokerMetrics.addMeteredTableValue(tableNameWithType, BrokerMeter.RESPONSE_FETCH_EXCEPTIONS, 1L);
+      processingExceptions.add(QueryException.getException(QueryException.BROKER_GATHER_ERROR, e));
+      return -1;
+    }
+  }
+
   /**
    * Deserialize the server responses, put the de-serialized data table into the data table map passed in, append
    * processing exceptions to the processing exception list passed in.
@@ -639,7 +828,9 @@ public class BrokerRequestHandler {
         serverInstance = serverInstance.withSeq(1);
       }
       try {
-        dataTableMap.put(serverInstance, DataTableFactory.getDataTable(entry.getValue()));
+        DataTable dataTable = DataTableFactory.getDataTable(entry.getValue());
+        updateServerLoad(entry.getKey(), dataTable);
+        dataTableMap.put(serverInstance, dataTable);
       } catch (Exception e) {
         LOGGER.error("Caught exceptions while deserializing response for table: {} from server: {}", tableNameWithType,
             serverInstance, e);
@@ -649,6 +840,36 @@ public class BrokerRequestHandler {
     }
   }
 
+  /**
+   * Feed the server load tracker with the load information reported by the server in the data table metadata.
+   *
+   * @param serverInstance server instance the request was sent to.
+   * @param dataTable data table returned from the server.
+   */
+  private void updateServerLoad(@Nonnull ServerInstance serverInstance, @Nonnull DataTable dataTable) {
+    if (_serverLoadTracker == null) {
+      return;
+    }
+    Map<String, String> metadata = dataTable.getMetadata();
+    String timeUsedMsString = metadata.get(DataTable.TIME_USED_MS_METADATA_KEY);
+    if (timeUsedMsString != null) {
+      _serverLoadTracker.updateServiceTime(serverInstance, Long.parseLong(timeUsedMsString));
+    }
+    // Servers not reporting the load do not have the queue length in the metadata
+    String queueLengthString = metadata.get(DataTable.SERVER_QUEUE_LENGTH_METADATA_KEY);
+    if (queueLengthString != null) {
+      _serverLoadTracker.updateReportedLoad(serverInstance, Integer.parseInt(queueLengthString),
+          (int) getLongMetadataValue(metadata, DataTable.SERVER_NUM_ACTIVE_THREADS_METADATA_KEY),
+          getLongMetadataValue(metadata, DataTable.SERVER_LATENCY_P50_MS_METADATA_KEY),
+          getLongMetadataValue(metadata, DataTable.SERVER_LATENCY_P99_MS_METADATA_KEY));
+    }
+  }
+
+  private static long getLongMetadataValue(@Nonnull Map<String, String> metadata, @Nonnull String key) {
+    String value = metadata.get(key);
+    return value != null ? Long.parseLong(value) : 0L;
+  }
+
   /**
    * Container for time statistics in all phases.
    */
@@ -690,14 +911,17 @@ public class BrokerRequestHandler {
   private static class ScatterGatherRequestImpl implements ScatterGatherRequest {
     private final BrokerRequest _brokerRequest;
     private final Map<String, List<String>> _routingTable;
+    private final Map<String, List<String>> _segmentToServersMap;
     private final long _requestId;
     private final long _requestTimeoutMs;
     private final String _brokerId;
 
-    public ScatterGatherRequestImpl(BrokerRequest request, Map<String, List<String>> routingTable, long requestId,
-        long requestTimeoutMs, String brokerId) {
+    public ScatterGatherRequestImpl(BrokerRequest request, Map<String, List<String>> routingTable,
+        @Nullable Map<String, List<String>> segmentToServersMap, long requestId, long requestTimeoutMs,
+        String brokerId) {
       _brokerRequest = request;
       _routingTable = routingTable;
+      _segmentToServersMap = segmentToServersMap;
       _requestId = requestId;
       _requestTimeoutMs = requestTimeoutMs;
       _brokerId = brokerId;
@@ -708,6 +932,11 @@ public class BrokerRequestHandler {
       return _routingTable;
     }
 
+    @Override
+    public Map<String, List<String>> getSegmentToServersMap() {
+      return _segmentToServersMap;
+    }
+
     @Override
     public byte[] getRequestForService(List<String> segments) {
       InstanceRequest r = new InstanceRequest();
@@ -48,6 +48,11 @@ public class CfgBasedRouting implements RoutingTable {
     return cfg.buildRequestRoutingMap();
   }
 
+  @Override
+  public Map<String, List<String>> getSegmentToServersMap(String tableName) {
+    return null;
+  }
+
   @Override
   public boolean routingTableExists(String tableName) {
     return _cfg.getPerTableRoutingCfg().containsKey(tableName);
@@ -17,7 +17,10 @@
 package com.linkedin.pinot.broker.routing;
 
 import com.google.common.collect.Sets;
+import com.linkedin.pinot.broker.cache.BrokerResultCache;
+import com.linkedin.pinot.broker.cache.SegmentZKMetadataChangeListener;
 import com.linkedin.pinot.broker.routing.builder.RoutingTableBuilder;
+import com.linkedin.pinot.broker.routing.builder.RoutingTableInstancePruner;
 import com.linkedin.pinot.common.config.TableConfig;
 import com.linkedin.pinot.common.config.TableNameBuilder;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
@@ -27,6 +30,7 @@ import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.EqualityUtils;
 import com.linkedin.pinot.common.utils.NetUtil;
 import com.linkedin.pinot.common.utils.helix.HelixHelper;
+import com.linkedin.pinot.transport.scattergather.ServerLoadTracker;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -68,6 +72,7 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
   private final Map<String, Map<String, InstanceConfig>> _lastKnownInstanceConfigsForTable = new ConcurrentHashMap<>();
   private final Map<String, InstanceConfig> _lastKnownInstanceConfigs = new ConcurrentHashMap<>();
   private final Map<String, Set<String>> _tablesForInstance = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, List<String>>> _segmentToServersMaps = new ConcurrentHashMap<>();
 
   private final HelixExternalViewBasedTimeBoundaryService _timeBoundaryService;
   private final HelixManager _helixManager;
@@ -75,6 +80,9 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
 
   private BrokerMetrics _brokerMetrics;
 
+  private BrokerResultCache _brokerResultCache;
+  private SegmentZKMetadataChangeListener _segmentZKMetadataChangeListener;
+
   private Configuration _configuration;
 
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
@@ -98,6 +106,11 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     return routingTableBuilder.getRoutingTable(request);
   }
 
+  @Override
+  public Map<String, List<String>> getSegmentToServersMap(String tableName) {
+    return _segmentToServersMaps.get(tableName);
+  }
+
   @Override
   public boolean routingTableExists(String tableName) {
     return _routingTableBuilderMap.containsKey(tableName);
@@ -108,6 +121,19 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     _brokerMetrics = brokerMetrics;
   }
 
+  public void setBrokerResultCache(BrokerResultCache brokerResultCache) {
+    _brokerResultCache = brokerResultCache;
+    // Segment refreshes do not change the external view, listen to the segment ZK metadata changes to invalidate the
+    // cached results
+    if (_propertyStore != null) {
+      _segmentZKMetadataChangeListener = new SegmentZKMetadataChangeListener(_propertyStore, brokerResultCache);
+    }
+  }
+
+  public void setServerLoadTracker(ServerLoadTracker serverLoadTracker) {
+    _routingTableBuilderFactory.setServerLoadTracker(serverLoadTracker);
+  }
+
   public void markDataResourceOnline(TableConfig tableConfig, ExternalView externalView,
       List<InstanceConfig> instanceConfigList) {
     String tableName = tableConfig.getTableName();
@@ -237,6 +263,7 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
       Map<String, InstanceConfig> relevantInstanceConfigs = new HashMap<>();
 
       routingTableBuilder.computeRoutingTableFromExternalView(tableNameWithType, externalView, instanceConfigs);
+      _segmentToServersMaps.put(tableNameWithType, computeSegmentToServersMap(externalView, instanceConfigs));
 
       // Keep track of the instance configs that are used in that routing table
       updateInstanceConfigsMapFromExternalView(relevantInstanceConfigs, instanceConfigs, externalView);
@@ -275,6 +302,16 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
       _lastKnownExternalViewVersionMap.put(tableNameWithType, INVALID_EXTERNAL_VIEW_VERSION);
     }
 
+    // Invalidate the cached results after the routing table gets rebuilt, so that results computed against the previous
+    // external view cannot be put back into the cache
+    if (_brokerResultCache != null) {
+      _brokerResultCache.invalidate(tableNameWithType);
+      // Only results of OFFLINE tables are cached
+      if (_segmentZKMetadataChangeListener != null && tableType == CommonConstants.Helix.TableType.OFFLINE) {
+        _segmentZKMetadataChangeListener.updateSegments(tableNameWithType, externalView.getPartitionSet());
+      }
+    }
+
     try {
       // We need to compute the time boundary only in two situations:
       // 1) We're adding/updating an offline table and there's a realtime table that we're serving
@@ -355,12 +392,41 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     }
   }
 
+  /**
+   * Computes the map from segment to the active servers with the segment ONLINE. Only ONLINE replicas are included
+   * so that a hedged request for a consuming segment is never sent to a replica at a different offset.
+   */
+  private static Map<String, List<String>> computeSegmentToServersMap(ExternalView externalView,
+      List<InstanceConfig> instanceConfigs) {
+    RoutingTableInstancePruner instancePruner = new RoutingTableInstancePruner(instanceConfigs);
+    Map<String, List<String>> segmentToServersMap = new HashMap<>();
+    for (String segmentName : externalView.getPartitionSet()) {
+      List<String> servers = new ArrayList<>();
+      for (Map.Entry<String, String> entry : externalView.getStateMap(segmentName).entrySet()) {
+        String serverName = entry.getKey();
+        if (entry.getValue().equals(CommonConstants.Helix.StateModel.SegmentOnlineOfflineStateModel.ONLINE)
+            && !instancePruner.isInactive(serverName)) {
+          servers.add(serverName);
+        }
+      }
+      segmentToServersMap.put(segmentName, servers);
+    }
+    return segmentToServersMap;
+  }
+
   public void markDataResourceOffline(String tableName) {
     LOGGER.info("Trying to remove data table from broker for {}", tableName);
     _routingTableBuilderMap.remove(tableName);
     _lastKnownExternalViewVersionMap.remove(tableName);
     _lastKnownInstanceConfigsForTable.remove(tableName);
+    _segmentToServersMaps.remove(tableName);
     _timeBoundaryService.remove(tableName);
+    if (_brokerResultCache != null) {
+      _brokerResultCache.invalidate(tableName);
+    }
+    if (_segmentZKMetadataChangeListener != null) {
+      _segmentZKMetadataChangeListener.removeTable(tableName);
+    }
 
     // Remove table from all instances
     synchronized (_tablesForInstance) {
@@ -17,6 +17,7 @@ package com.linkedin.pinot.broker.routing;
 
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 
 /**
@@ -32,6 +33,16 @@ public interface RoutingTable {
    */
   Map<String, List<String>> getRoutingTable(RoutingTableLookupRequest request);
 
+  /**
+   * Get the map from segment to all the active servers serving it, which is used to pick a replica for hedged
+   * requests.
+   *
+   * @param tableName Table name
+   * @return Map from segment to list of servers, or null if not available
+   */
+  @Nullable
+  Map<String, List<String>> getSegmentToServersMap(String tableName);
+
   /**
    * Return whether the routing table for the given table exists.
    *
@@ -15,11 +15,13 @@
  */
 package com.linkedin.pinot.broker.routing;
 
+import com.linkedin.pinot.broker.routing.builder.AdaptiveRoutingTableBuilder;
 import com.linkedin.pinot.broker.routing.builder.PartitionAwareOfflineRoutingTableBuilder;
 import com.linkedin.pinot.broker.routing.builder.PartitionAwareRealtimeRoutingTableBuilder;
 import com.linkedin.pinot.common.config.SegmentsValidationAndRetentionConfig;
 import com.linkedin.pinot.common.metadata.stream.KafkaStreamMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.transport.scattergather.ServerLoadTracker;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
@@ -43,6 +45,8 @@ public class RoutingTableBuilderFactory {
 
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
 
+  private ServerLoadTracker _serverLoadTracker;
+
   enum RoutingTableBuilderName {
     DefaultOffline,
     DefaultRealtime,
@@ -50,7 +54,8 @@ public class RoutingTableBuilderFactory {
     KafkaLowLevel,
     KafkaHighLevel,
     PartitionAwareOffline,
-    PartitionAwareRealtime
+    PartitionAwareRealtime,
+    Adaptive
   }
 
   public RoutingTableBuilderFactory(Configuration configuration, ZkHelixPropertyStore<ZNRecord> propertyStore) {
@@ -58,6 +63,10 @@ public class RoutingTableBuilderFactory {
     _propertyStore = propertyStore;
   }
 
+  public void setServerLoadTracker(ServerLoadTracker serverLoadTracker) {
+    _serverLoadTracker = serverLoadTracker;
+  }
+
   public RoutingTableBuilder createRoutingTableBuilder(TableConfig tableConfig) {
     String builderName = null;
     if (tableConfig.getRoutingConfig() != null) {
@@ -92,6 +101,11 @@ public class RoutingTableBuilderFactory {
       case DefaultOffline:
         builder = new DefaultOfflineRoutingTableBuilder();
         break;
+      case Adaptive:
+        AdaptiveRoutingTableBuilder adaptiveRoutingTableBuilder = new AdaptiveRoutingTableBuilder();
+        adaptiveRoutingTableBuilder.setServerLoadTracker(_serverLoadTracker);
+        builder = adaptiveRoutingTableBuilder;
+        break;
       case DefaultRealtime:
         builder = new DefaultRealtimeRoutingTableBuilder();
         break;
@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.routing.builder;
+
+import com.linkedin.pinot.broker.routing.RoutingTableLookupRequest;
+import com.linkedin.pinot.common.config.TableConfig;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.transport.scattergather.ServerLoadTracker;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.commons.configuration.Configuration;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+
+
+/**
+ * Adaptive routing table builder that selects the replica for each segment per query based on the live server load
+ * observed by the broker (see {@link ServerLoadTracker}).
+ * <p>For each query, the score of each server is read from the server load tracker, then each segment is assigned to
+ * the replica with the lowest estimated cost, which is the server score weighted by the number of segments already
+ * assigned to it for the query. Servers with lower score get proportionally more segments, and the segments are
+ * balanced across replicas if there is no load information.
+ * <p>Without a server load tracker, it falls back to a single balanced routing table.
+ */
+public class AdaptiveRoutingTableBuilder extends BaseRoutingTableBuilder {
+  // Added to the server score to balance segments across servers with no or little load
+  private static final double BASE_SERVER_SCORE = 1.0;
+
+  private ServerLoadTracker _serverLoadTracker;
+
+  // Set variable as volatile so all threads can get the up-to-date routing state
+  private volatile RoutingState _routingState;
+
+  public void setServerLoadTracker(@Nullable ServerLoadTracker serverLoadTracker) {
+    _serverLoadTracker = serverLoadTracker;
+  }
+
+  @Override
+  public void init(Configuration configuration, TableConfig tableConfig, ZkHelixPropertyStore<ZNRecord> propertyStore) {
+  }
+
+  @Override
+  public void computeRoutingTableFromExternalView(String tableName, ExternalView externalView,
+      List<InstanceConfig> instanceConfigs) {
+    RoutingTableInstancePruner instancePruner = new RoutingTableInstancePruner(instanceConfigs);
+    Map<String, Integer> serverIds = new HashMap<>();
+    List<String> serverNames = new ArrayList<>();
+    List<String> segmentNames = new ArrayList<>();
+    List<int[]> segmentServerIds = new ArrayList<>();
+    Map<String, List<String>> balancedRoutingTable = new HashMap<>();
+
+    for (String segmentName : externalView.getPartitionSet()) {
+      // List of servers that are active and are serving the segment
+      List<String> servers = new ArrayList<>();
+      for (Map.Entry<String, String> entry : externalView.getStateMap(segmentName).entrySet()) {
+        String serverName = entry.getKey();
+        if (entry.getValue().equals(CommonConstants.Helix.StateModel.SegmentOnlineOfflineStateModel.ONLINE)
+            && !instancePruner.isInactive(serverName)) {
+          servers.add(serverName);
+        }
+      }
+
+      int numServers = servers.size();
+      if (numServers != 0) {
+        int[] ids = new int[numServers];
+        for (int i = 0; i < numServers; i++) {
+          String serverName = servers.get(i);
+          Integer serverId = serverIds.get(serverName);
+          if (serverId == null) {
+            serverId = serverNames.size();
+            serverIds.put(serverName, serverId);
+            serverNames.add(serverName);
+          }
+          ids[i] = serverId;
+        }
+        segmentNames.add(segmentName);
+        segmentServerIds.add(ids);
+
+        // Assign the segment to the server with least segments assigned
+        balancedRoutingTable.get(getServerWithLeastSegmentsAssigned(servers, balancedRoutingTable)).add(segmentName);
+      }
+    }
+
+    int numServers = serverNames.size();
+    ServerInstance[] serverInstances = new ServerInstance[numServers];
+    for (int i = 0; i < numServers; i++) {
+      serverInstances[i] = ServerInstance.forInstanceName(serverNames.get(i));
+    }
+    _routingState = new RoutingState(serverNames.toArray(new String[numServers]), serverInstances,
+        segmentNames.toArray(new String[segmentNames.size()]),
+        segmentServerIds.toArray(new int[segmentServerIds.size()][]));
+    setRoutingTables(Collections.singletonList(balancedRoutingTable));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Map<String, List<String>> getRoutingTable(RoutingTableLookupRequest request) {
+    ServerLoadTracker serverLoadTracker = _serverLoadTracker;
+    RoutingState routingState = _routingState;
+    if (serverLoadTracker == null || routingState == null) {
+      return super.getRoutingTable(request);
+    }
+
+    // Snapshot the server scores
+    int numServers = routingState._serverNames.length;
+    double[] serverScores = new double[numServers];
+    for (int i = 0; i < numServers; i++) {
+      serverScores[i] = BASE_SERVER_SCORE + serverLoadTracker.getScore(routingState._serverInstances[i]);
+    }
+
+    // Assign each segment to the replica with the lowest cost
+    List<String>[] serverSegments = new List[numServers];
+    int[] numSegmentsAssigned = new int[numServers];
+    String[] segmentNames = routingState._segmentNames;
+    int numSegments = segmentNames.length;
+    for (int i = 0; i < numSegments; i++) {
+      int[] serverIds = routingState._segmentServerIds[i];
+      int numReplicas = serverIds.length;
+      // Start from a random replica to break ties randomly
+      int startIndex = numReplicas > 1 ? _random.nextInt(numReplicas) : 0;
+      int selectedServerId = -1;
+      double minCost = Double.MAX_VALUE;
+      for (int j = 0; j < numReplicas; j++) {
+        int serverId = serverIds[(startIndex + j) % numReplicas];
+        double cost = serverScores[serverId] * (numSegmentsAssigned[serverId] + 1);
+        if (cost < minCost) {
+          minCost = cost;
+          selectedServerId = serverId;
+        }
+      }
+      List<String> segments = serverSegments[selectedServerId];
+      if (segments == null) {
+        segments = new ArrayList<>();
+        serverSegments[selectedServerId] = segments;
+      }
+      segments.add(segmentNames[i]);
+      numSegmentsAssigned[selectedServerId]++;
+    }
+
+    Map<String, List<String>> routingTable = new HashMap<>();
+    for (int i = 0; i < numServers; i++) {
+      if (serverSegments[i] != null) {
+        routingTable.put(routingState._serverNames[i], serverSegments[i]);
+      }
+    }
+    return routingTable;
+  }
+
+  /**
+   * Immutable routing state computed from the external view, where servers are referenced by their ids.
+   */
+  private static class RoutingState {
+    private final String[] _serverNames;
+    private final ServerInstance[] _serverInstances;
+    private final String[] _segmentNames;
+    private final int[][] _segmentServerIds;
+
+    private RoutingState(String[] serverNames, ServerInstance[] serverInstances, String[] segmentNames,
+        int[][] segmentServerIds) {
+      _serverNames = serverNames;
+      _serverInstances = serverInstances;
+      _segmentNames = segmentNames;
+      _segmentServerIds = segmentServerIds;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.cache;
+
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.BrokerResponse;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+
+public class BrokerResultCacheTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String TABLE_NAME = "myTable_OFFLINE";
+
+  private BrokerResultCache _brokerResultCache;
+
+  @BeforeMethod
+  public void setUp() {
+    _brokerResultCache = new BrokerResultCache(1024 * 1024L, 60_000L, new BrokerMetrics(new MetricsRegistry()));
+  }
+
+  @Test
+  public void testNormalizedKey() {
+    Map<String, List<String>> routingTable = getRoutingTable("segment0", "segment1");
+    long routingVersion = _brokerResultCache.getRoutingVersion(TABLE_NAME);
+
+    // The parser keeps the operands of AND/OR in query order
+    BrokerRequest brokerRequest1 = getBrokerRequest("SELECT COUNT(*) FROM myTable WHERE (a = 1 OR b = 2) AND c = 3");
+    BrokerRequest brokerRequest2 = getBrokerRequest("SELECT COUNT(*) FROM myTable WHERE c = 3 AND (b = 2 OR a = 1)");
+    Assert.assertFalse(brokerRequest1.getFilterSubQueryMap().equals(brokerRequest2.getFilterSubQueryMap()));
+
+    BrokerResultCache.Key key1 = _brokerResultCache.getKey(brokerRequest1, routingTable, routingVersion);
+    BrokerResultCache.Key key2 = _brokerResultCache.getKey(brokerRequest2, routingTable, routingVersion);
+    Assert.assertEquals(key1, key2);
+    Assert.assertEquals(key1.hashCode(), key2.hashCode());
+
+    // Different literal
+    BrokerResultCache.Key key3 = _brokerResultCache.getKey(
+        getBrokerRequest("SELECT COUNT(*) FROM myTable WHERE c = 3 AND (b = 2 OR a = 4)"), routingTable,
+        routingVersion);
+    Assert.assertFalse(key1.equals(key3));
+
+    // Different operator
+    BrokerResultCache.Key key4 = _brokerResultCache.getKey(
+        getBrokerRequest("SELECT COUNT(*) FROM myTable WHERE c = 3 OR (b = 2 AND a = 1)"), routingTable,
+        routingVersion);
+    Assert.assertFalse(key1.equals(key4));
+
+    // Different segment set
+    BrokerResultCache.Key key5 =
+        _brokerResultCache.getKey(brokerRequest2, getRoutingTable("segment0", "segment2"), routingVersion);
+    Assert.assertFalse(key1.equals(key5));
+  }
+
+  @Test
+  public void testGetAndInvalidate() {
+    BrokerRequest brokerRequest = getBrokerRequest("SELECT COUNT(*) FROM myTable");
+    Map<String, List<String>> routingTable = getRoutingTable("segment0", "segment1");
+    BrokerResultCache.Key key =
+        _brokerResultCache.getKey(brokerRequest, routingTable, _brokerResultCache.getRoutingVersion(TABLE_NAME));
+    Assert.assertNull(_brokerResultCache.get(key, "myTable"));
+
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    brokerResponse.setNumDocsScanned(123L);
+    brokerResponse.setTotalDocs(456L);
+    _brokerResultCache.put(key, brokerResponse);
+    BrokerResponse cachedBrokerResponse = _brokerResultCache.get(key, "myTable");
+    Assert.assertNotNull(cachedBrokerResponse);
+    Assert.assertNotSame(cachedBrokerResponse, brokerResponse);
+    Assert.assertEquals(cachedBrokerResponse.getNumDocsScanned(), 123L);
+    Assert.assertEquals(cachedBrokerResponse.getTotalDocs(), 456L);
+
+    // After invalidation, neither the old key nor the results computed against the old routing version should be served
+    _brokerResultCache.invalidate(TABLE_NAME);
+    Assert.assertNull(_brokerResultCache.get(key, "myTable"));
+    _brokerResultCache.put(key, brokerResponse);
+    Assert.assertEquals(_brokerResultCache.size(), 0L);
+
+    BrokerResultCache.Key newKey =
+        _brokerResultCache.getKey(brokerRequest, routingTable, _brokerResultCache.getRoutingVersion(TABLE_NAME));
+    Assert.assertFalse(newKey.equals(key));
+    _brokerResultCache.put(newKey, brokerResponse);
+    Assert.assertNotNull(_brokerResultCache.get(newKey, "myTable"));
+  }
+
+  @Test
+  public void testSizeBound() {
+    BrokerResultCache brokerResultCache =
+        new BrokerResultCache(16 * 1024L, 60_000L, new BrokerMetrics(new MetricsRegistry()));
+    Map<String, List<String>> routingTable = getRoutingTable("segment0", "segment1");
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    for (int i = 0; i < 1000; i++) {
+      BrokerResultCache.Key key =
+          brokerResultCache.getKey(getBrokerRequest("SELECT COUNT(*) FROM myTable WHERE a = " + i), routingTable,
+              brokerResultCache.getRoutingVersion(TABLE_NAME));
+      brokerResultCache.put(key, brokerResponse);
+    }
+    Assert.assertTrue(brokerResultCache.size() < 1000L);
+  }
+
+  private static BrokerRequest getBrokerRequest(String query) {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(query);
+    brokerRequest.getQuerySource().setTableName(TABLE_NAME);
+    return brokerRequest;
+  }
+
+  private static Map<String, List<String>> getRoutingTable(String segment1, String segment2) {
+    Map<String, List<String>> routingTable = new HashMap<>();
+    routingTable.put("Server_1", Collections.singletonList(segment2));
+    routingTable.put("Server_2", Arrays.asList(segment1));
+    return routingTable;
+  }
+}
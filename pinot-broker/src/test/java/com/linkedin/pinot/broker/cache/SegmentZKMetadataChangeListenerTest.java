@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.cache;
+
+import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.I0Itec.zkclient.IZkDataListener;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.mockito.ArgumentCaptor;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.*;
+
+
+public class SegmentZKMetadataChangeListenerTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String TABLE_NAME = "myTable_OFFLINE";
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testInvalidateOnSegmentZKMetadataChange()
+      throws Exception {
+    ZkHelixPropertyStore<ZNRecord> propertyStore = mock(ZkHelixPropertyStore.class);
+    BrokerResultCache brokerResultCache =
+        new BrokerResultCache(1024 * 1024L, 60_000L, new BrokerMetrics(new MetricsRegistry()));
+    SegmentZKMetadataChangeListener listener = new SegmentZKMetadataChangeListener(propertyStore, brokerResultCache);
+
+    listener.updateSegments(TABLE_NAME, Arrays.asList("segment0", "segment1"));
+    ArgumentCaptor<IZkDataListener> captor = ArgumentCaptor.forClass(IZkDataListener.class);
+    verify(propertyStore).subscribeDataChanges(eq(getSegmentPath("segment0")), captor.capture());
+    verify(propertyStore).subscribeDataChanges(eq(getSegmentPath("segment1")), any(IZkDataListener.class));
+
+    // Refreshing a segment should invalidate the cached results
+    Map<String, List<String>> routingTable =
+        Collections.singletonMap("Server_1", Arrays.asList("segment0", "segment1"));
+    long routingVersion = brokerResultCache.getRoutingVersion(TABLE_NAME);
+    BrokerResultCache.Key key = brokerResultCache.getKey(getBrokerRequest(), routingTable, routingVersion);
+    brokerResultCache.put(key, new BrokerResponseNative());
+    Assert.assertEquals(brokerResultCache.size(), 1L);
+    captor.getValue().handleDataChange(getSegmentPath("segment0"), new ZNRecord("segment0"));
+    Assert.assertEquals(brokerResultCache.size(), 0L);
+    Assert.assertEquals(brokerResultCache.getRoutingVersion(TABLE_NAME), routingVersion + 1);
+
+    // Only subscribe to the new segments and unsubscribe from the removed segments
+    listener.updateSegments(TABLE_NAME, Arrays.asList("segment1", "segment2"));
+    verify(propertyStore).unsubscribeDataChanges(getSegmentPath("segment0"), captor.getValue());
+    verify(propertyStore).subscribeDataChanges(getSegmentPath("segment2"), captor.getValue());
+    verify(propertyStore, times(1)).subscribeDataChanges(eq(getSegmentPath("segment1")), any(IZkDataListener.class));
+
+    listener.removeTable(TABLE_NAME);
+    verify(propertyStore).unsubscribeDataChanges(getSegmentPath("segment1"), captor.getValue());
+    verify(propertyStore).unsubscribeDataChanges(getSegmentPath("segment2"), captor.getValue());
+  }
+
+  private static BrokerRequest getBrokerRequest() {
+    BrokerRequest brokerRequest =
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable");
+    brokerRequest.getQuerySource().setTableName(TABLE_NAME);
+    return brokerRequest;
+  }
+
+  private static String getSegmentPath(String segmentName) {
+    return ZKMetadataProvider.constructPropertyStorePathForSegment(TABLE_NAME, segmentName);
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.routing.builder;
+
+import com.linkedin.pinot.broker.routing.RoutingTableLookupRequest;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.scattergather.ServerLoadTracker;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.InstanceConfig;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class AdaptiveRoutingTableBuilderTest {
+  private static final String[] SERVERS = {"Server_1.2.3.4_1234", "Server_1.2.3.5_2345", "Server_1.2.3.6_3456"};
+  private static final int NUM_SEGMENTS = 30;
+  private static final RoutingTableLookupRequest REQUEST = new RoutingTableLookupRequest("dummy");
+
+  private static AdaptiveRoutingTableBuilder buildRoutingTableBuilder(ServerLoadTracker serverLoadTracker) {
+    AdaptiveRoutingTableBuilder routingTableBuilder = new AdaptiveRoutingTableBuilder();
+    routingTableBuilder.setServerLoadTracker(serverLoadTracker);
+    List<InstanceConfig> instanceConfigList = new ArrayList<>();
+    ExternalView externalView = new ExternalView("dummy");
+    for (String server : SERVERS) {
+      for (int i = 0; i < NUM_SEGMENTS; i++) {
+        externalView.setState("segment_" + i, server, "ONLINE");
+      }
+      instanceConfigList.add(new InstanceConfig(server));
+    }
+    routingTableBuilder.computeRoutingTableFromExternalView("dummy", externalView, instanceConfigList);
+    return routingTableBuilder;
+  }
+
+  private static int getNumSegments(Map<String, List<String>> routingTable, String server) {
+    List<String> segments = routingTable.get(server);
+    return segments != null ? segments.size() : 0;
+  }
+
+  private static void assertAllSegmentsRouted(Map<String, List<String>> routingTable) {
+    int numSegments = 0;
+    for (List<String> segments : routingTable.values()) {
+      numSegments += segments.size();
+    }
+    Assert.assertEquals(numSegments, NUM_SEGMENTS);
+  }
+
+  @Test
+  public void testBalancedWithoutLoad() {
+    AdaptiveRoutingTableBuilder routingTableBuilder = buildRoutingTableBuilder(new ServerLoadTracker());
+    Map<String, List<String>> routingTable = routingTableBuilder.getRoutingTable(REQUEST);
+    assertAllSegmentsRouted(routingTable);
+    for (String server : SERVERS) {
+      Assert.assertEquals(getNumSegments(routingTable, server), NUM_SEGMENTS / SERVERS.length);
+    }
+
+    // Without server load tracker, fall back to the balanced routing table
+    routingTableBuilder = buildRoutingTableBuilder(null);
+    routingTable = routingTableBuilder.getRoutingTable(REQUEST);
+    assertAllSegmentsRouted(routingTable);
+    for (String server : SERVERS) {
+      Assert.assertEquals(getNumSegments(routingTable, server), NUM_SEGMENTS / SERVERS.length);
+    }
+  }
+
+  @Test
+  public void testAvoidSlowServer() {
+    ServerLoadTracker serverLoadTracker = new ServerLoadTracker();
+    ServerInstance slowServer = ServerInstance.forInstanceName(SERVERS[0]);
+    serverLoadTracker.requestSent(slowServer);
+    serverLoadTracker.requestCompleted(slowServer, 100L);
+    for (int i = 1; i < SERVERS.length; i++) {
+      ServerInstance server = ServerInstance.forInstanceName(SERVERS[i]);
+      serverLoadTracker.requestSent(server);
+      serverLoadTracker.requestCompleted(server, 1L);
+    }
+
+    AdaptiveRoutingTableBuilder routingTableBuilder = buildRoutingTableBuilder(serverLoadTracker);
+    Map<String, List<String>> routingTable = routingTableBuilder.getRoutingTable(REQUEST);
+    assertAllSegmentsRouted(routingTable);
+    Assert.assertEquals(getNumSegments(routingTable, SERVERS[0]), 0);
+    Assert.assertEquals(getNumSegments(routingTable, SERVERS[1]), NUM_SEGMENTS / 2);
+    Assert.assertEquals(getNumSegments(routingTable, SERVERS[2]), NUM_SEGMENTS / 2);
+  }
+
+  @Test
+  public void testAvoidServerWithInFlightRequests() {
+    ServerLoadTracker serverLoadTracker = new ServerLoadTracker();
+    for (String serverName : SERVERS) {
+      ServerInstance server = ServerInstance.forInstanceName(serverName);
+      serverLoadTracker.requestSent(server);
+      serverLoadTracker.requestCompleted(server, 10L);
+      serverLoadTracker.updateServiceTime(server, 5L);
+    }
+    ServerInstance busyServer = ServerInstance.forInstanceName(SERVERS[1]);
+    for (int i = 0; i < 10; i++) {
+      serverLoadTracker.requestSent(busyServer);
+    }
+    Assert.assertEquals(serverLoadTracker.getNumInFlightRequests(busyServer), 10);
+    Assert.assertTrue(serverLoadTracker.getScore(busyServer) > serverLoadTracker.getScore(
+        ServerInstance.forInstanceName(SERVERS[0])));
+
+    AdaptiveRoutingTableBuilder routingTableBuilder = buildRoutingTableBuilder(serverLoadTracker);
+    Map<String, List<String>> routingTable = routingTableBuilder.getRoutingTable(REQUEST);
+    assertAllSegmentsRouted(routingTable);
+    Assert.assertEquals(getNumSegments(routingTable, SERVERS[1]), 0);
+
+    // Once the in-flight requests are cancelled, the server gets its share of segments again
+    for (int i = 0; i < 10; i++) {
+      serverLoadTracker.requestCancelled(busyServer);
+    }
+    routingTable = routingTableBuilder.getRoutingTable(REQUEST);
+    assertAllSegmentsRouted(routingTable);
+    for (String server : SERVERS) {
+      Assert.assertEquals(getNumSegments(routingTable, server), NUM_SEGMENTS / SERVERS.length);
+    }
+  }
+}
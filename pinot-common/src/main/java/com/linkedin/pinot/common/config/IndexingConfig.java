@@ -40,7 +40,10 @@ public class IndexingConfig {
   private String _segmentFormatVersion;
   private String _columnMinMaxValueGeneratorMode;
   private List<String> _noDictionaryColumns;
+  private Map<String, String> _noDictionaryCompressionTypes;
   private List<String> _onHeapDictionaryColumns;
+  private List<String> _warmUpColumns;
+  private List<String> _bloomFilterColumns;
   private StarTreeIndexSpec _starTreeIndexSpec;
   private SegmentPartitionConfig _segmentPartitionConfig;
   private boolean _aggregateMetrics;
@@ -113,6 +116,17 @@ public class IndexingConfig {
     return _noDictionaryColumns;
   }
 
+  /**
+   * Returns the map from no-dictionary column to the name of the compression type of its raw index.
+   */
+  public Map<String, String> getNoDictionaryCompressionTypes() {
+    return _noDictionaryCompressionTypes;
+  }
+
+  public void setNoDictionaryCompressionTypes(Map<String, String> noDictionaryCompressionTypes) {
+    _noDictionaryCompressionTypes = noDictionaryCompressionTypes;
+  }
+
   public List<String> getOnHeapDictionaryColumns() {
     return _onHeapDictionaryColumns;
   }
@@ -125,6 +139,22 @@ public class IndexingConfig {
     _onHeapDictionaryColumns = onHeapDictionaryColumns;
   }
 
+  public List<String> getWarmUpColumns() {
+    return _warmUpColumns;
+  }
+
+  public void setWarmUpColumns(List<String> warmUpColumns) {
+    _warmUpColumns = warmUpColumns;
+  }
+
+  public List<String> getBloomFilterColumns() {
+    return _bloomFilterColumns;
+  }
+
+  public void setBloomFilterColumns(List<String> bloomFilterColumns) {
+    _bloomFilterColumns = bloomFilterColumns;
+  }
+
   public void setStarTreeIndexSpec(StarTreeIndexSpec starTreeIndexSpec) {
     _starTreeIndexSpec = starTreeIndexSpec;
   }
@@ -201,7 +231,10 @@ public class IndexingConfig {
         EqualityUtils.isEqual(_segmentFormatVersion, that._segmentFormatVersion) &&
         EqualityUtils.isEqual(_columnMinMaxValueGeneratorMode, that._columnMinMaxValueGeneratorMode) &&
         EqualityUtils.isEqual(_noDictionaryColumns, that._noDictionaryColumns) &&
+        EqualityUtils.isEqual(_noDictionaryCompressionTypes, that._noDictionaryCompressionTypes) &&
         EqualityUtils.isEqual(_onHeapDictionaryColumns, that._onHeapDictionaryColumns) &&
+        EqualityUtils.isEqual(_warmUpColumns, that._warmUpColumns) &&
+        EqualityUtils.isEqual(_bloomFilterColumns, that._bloomFilterColumns) &&
         EqualityUtils.isEqual(_starTreeIndexSpec, that._starTreeIndexSpec) &&
         EqualityUtils.isEqual(_segmentPartitionConfig, that._segmentPartitionConfig);
   }
@@ -216,7 +249,10 @@ public class IndexingConfig {
     result = EqualityUtils.hashCodeOf(result, _segmentFormatVersion);
     result = EqualityUtils.hashCodeOf(result, _columnMinMaxValueGeneratorMode);
     result = EqualityUtils.hashCodeOf(result, _noDictionaryColumns);
+    result = EqualityUtils.hashCodeOf(result, _noDictionaryCompressionTypes);
     result = EqualityUtils.hashCodeOf(result, _onHeapDictionaryColumns);
+    result = EqualityUtils.hashCodeOf(result, _warmUpColumns);
+    result = EqualityUtils.hashCodeOf(result, _bloomFilterColumns);
     result = EqualityUtils.hashCodeOf(result, _starTreeIndexSpec);
     result = EqualityUtils.hashCodeOf(result, _segmentPartitionConfig);
     return result;
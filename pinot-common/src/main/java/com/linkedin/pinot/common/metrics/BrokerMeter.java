@@ -78,7 +78,19 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   LLC_QUERY_COUNT("queries", false),
   HLC_QUERY_COUNT("queries", false),
 
-  ROUTING_TABLE_REBUILD_FAILURES("failures", false);
+  ROUTING_TABLE_REBUILD_FAILURES("failures", false),
+
+  // These metrics track the usage of the broker result cache.
+  RESULT_CACHE_HITS("queries", false),
+  RESULT_CACHE_MISSES("queries", false),
+  RESULT_CACHE_EVICTIONS("entries", true),
+
+  // These metrics track the speculative hedged requests sent to a second replica.
+  HEDGED_REQUESTS_SENT("requests", false),
+  // Number of hedged requests whose response arrived before the original request's.
+  HEDGED_REQUESTS_WON("requests", false),
+  // Time spent by the requests that lost the race before they got cancelled.
+  HEDGED_REQUESTS_WASTED_TIME_MS("milliseconds", false);
 
   private final String brokerMeterName;
   private final String unit;
@@ -46,7 +46,13 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   LLC_CONTROLLER_RESPONSE_KEEP("messages", false),
   LLC_CONTROLLER_RESPONSE_NOT_LEADER("messages", false),
   LLC_CONTROLLER_RESPONSE_FAILED("messages", false),
-  LLC_CONTROLLER_RESPONSE_COMMIT_SUCCESS("messages", false);
+  LLC_CONTROLLER_RESPONSE_COMMIT_SUCCESS("messages", false),
+  SEGMENT_RESULT_CACHE_HITS("segments", false),
+  SEGMENT_RESULT_CACHE_MISSES("segments", false),
+  SEGMENT_RESULT_CACHE_EVICTIONS("entries", true),
+  SCHEDULER_QUERIES_SHED("queries", false),
+  SCHEDULER_QUERIES_COMPLETED_ON_TIME("queries", false),
+  SCHEDULER_QUERIES_COMPLETED_LATE("queries", false);
 
   private final String meterName;
   private final String unit;
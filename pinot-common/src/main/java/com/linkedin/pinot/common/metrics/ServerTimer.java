@@ -23,7 +23,11 @@ import com.linkedin.pinot.common.Utils;
 *
 */
 public enum ServerTimer implements AbstractMetrics.Timer {
-  CURRENT_MSG_EVENT_TIMESTAMP_LAG("currentMsgEventTimestampLag", false);
+  CURRENT_MSG_EVENT_TIMESTAMP_LAG("currentMsgEventTimestampLag", false),
+  // Time to load (convert, pre-process and map) one segment
+  SEGMENT_LOAD_TIME_MS("milliseconds", false),
+  // Time to prefetch the warm-up columns of one segment
+  SEGMENT_WARM_UP_TIME_MS("milliseconds", false);
 
   private final String timerName;
   private final boolean global;
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.query;
+
+import com.linkedin.pinot.common.response.BrokerResponse;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.utils.DataTable;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+
+/**
+ * Interface for incrementally merging/reducing responses from a set of servers, one data table at a time.
+ * <p>Allows the broker to merge each server response as soon as it arrives instead of waiting for all of them.
+ * @param <T> type of broker response.
+ */
+@NotThreadSafe
+public interface DataTableReducer<T extends BrokerResponse> {
+
+  /**
+   * Merge the data table from a server instance into the reduced results.
+   * <p>Server instance information here is useful for debugging purpose.
+   *
+   * @param serverInstance server instance.
+   * @param dataTable data table.
+   */
+  void reduce(@Nonnull ServerInstance serverInstance, @Nonnull DataTable dataTable);
+
+  /**
+   * Build the broker response from all the data tables reduced so far.
+   * <p>Should be called only once, after all the data tables have been reduced.
+   *
+   * @return broker response.
+   */
+  @Nonnull
+  T getBrokerResponse();
+}
@@ -45,4 +45,16 @@ public interface ReduceService<T extends BrokerResponse> {
   @Nonnull
   T reduceOnDataTable(@Nonnull BrokerRequest brokerRequest, @Nonnull Map<ServerInstance, DataTable> instanceResponseMap,
       @Nullable BrokerMetrics brokerMetrics);
+
+  /**
+   * Get a reducer to incrementally reduce data tables gathered from server instances to one brokerResponse.
+   * <p>Reducing all data tables through the returned reducer gives the same broker response as
+   * {@link #reduceOnDataTable(BrokerRequest, Map, BrokerMetrics)}.
+   *
+   * @param brokerRequest broker request.
+   * @param brokerMetrics broker metrics to track execution statistics.
+   * @return data table reducer.
+   */
+  @Nonnull
+  DataTableReducer<T> getDataTableReducer(@Nonnull BrokerRequest brokerRequest, @Nullable BrokerMetrics brokerMetrics);
 }
@@ -27,12 +27,17 @@ import javax.annotation.Nullable;
 
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class to encapsulate the query request and query processing context within the server. Goal is to make most of the
  * information available to lower levels of code in the server for logging, tracking etc.
  */
 public class ServerQueryRequest {
+  // Query option to specify the query timeout in milliseconds
+  public static final String TIMEOUT_MS_QUERY_OPTION = "timeoutMs";
+
   private final InstanceRequest _instanceRequest;
   private final ServerMetrics _serverMetrics;
   private final BrokerRequest _brokerRequest;
@@ -45,6 +50,9 @@ public class ServerQueryRequest {
 
   private int _segmentCountAfterPruning = -1;
 
+  // Whether query execution must stop at the query deadline, set by deadline aware schedulers
+  private boolean _deadlineEnforced = false;
+
   public ServerQueryRequest(@Nonnull InstanceRequest instanceRequest, @Nonnull ServerMetrics serverMetrics) {
     _instanceRequest = instanceRequest;
     _serverMetrics = serverMetrics;
@@ -101,6 +109,52 @@ public class ServerQueryRequest {
     return _brokerRequest.getQuerySource().getTableName();
   }
 
+  /**
+   * Get the query timeout in milliseconds from the query options, or the given default if not specified or invalid.
+   */
+  public long getTimeoutMs(long defaultTimeoutMs) {
+    Map<String, String> queryOptions = _brokerRequest.getQueryOptions();
+    if (queryOptions != null) {
+      String timeoutMsString = queryOptions.get(TIMEOUT_MS_QUERY_OPTION);
+      if (timeoutMsString != null) {
+        try {
+          long timeoutMs = Long.parseLong(timeoutMsString);
+          if (timeoutMs > 0) {
+            return timeoutMs;
+          }
+        } catch (NumberFormatException e) {
+          // Fall back to the default timeout
+        }
+      }
+    }
+    return defaultTimeoutMs;
+  }
+
+  /**
+   * Get the deadline of the query (query arrival time plus timeout) in the {@link System#nanoTime()} time base.
+   */
+  public long getDeadlineNs(long defaultTimeoutMs) {
+    return _timerContext.getQueryArrivalTimeNs() + TimeUnit.MILLISECONDS.toNanos(getTimeoutMs(defaultTimeoutMs));
+  }
+
+  /**
+   * Get the remaining time in milliseconds before the deadline of the query, negative if already passed.
+   */
+  public long getRemainingTimeMs(long defaultTimeoutMs) {
+    return TimeUnit.NANOSECONDS.toMillis(getDeadlineNs(defaultTimeoutMs) - System.nanoTime());
+  }
+
+  /**
+   * Returns whether query execution must stop at the query deadline instead of only at the table timeout.
+   */
+  public boolean isDeadlineEnforced() {
+    return _deadlineEnforced;
+  }
+
+  public void setDeadlineEnforced(boolean deadlineEnforced) {
+    _deadlineEnforced = deadlineEnforced;
+  }
+
   /**
    * Get the segment count after pruning.
    */
@@ -35,6 +35,11 @@ public interface DataTable {
   String TRACE_INFO_METADATA_KEY = "traceInfo";
   String REQUEST_ID_METADATA_KEY = "requestId";
   String EXECUTOR_CPU_TIME = "cpuTime";
+  // Server load piggybacked on the response
+  String SERVER_QUEUE_LENGTH_METADATA_KEY = "serverQueueLength";
+  String SERVER_NUM_ACTIVE_THREADS_METADATA_KEY = "serverNumActiveThreads";
+  String SERVER_LATENCY_P50_MS_METADATA_KEY = "serverLatencyP50Ms";
+  String SERVER_LATENCY_P99_MS_METADATA_KEY = "serverLatencyP99Ms";
 
   void addException(@Nonnull ProcessingException processingException);
 
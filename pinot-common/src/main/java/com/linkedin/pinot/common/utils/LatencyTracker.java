@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The <code>LatencyTracker</code> class tracks the most recent latencies and provides their percentiles, e.g. the
+ * latency of the recent queries on a server, or the response time of the servers observed by a broker.
+ * <p>Latencies are recorded into a lock-free ring buffer. The ring buffer is sorted at most once per refresh interval,
+ * so that recording latencies and reading percentiles stay cheap on the query path.
+ */
+@ThreadSafe
+public class LatencyTracker {
+  public static final int DEFAULT_WINDOW_SIZE = 1024;
+  public static final long DEFAULT_REFRESH_INTERVAL_MS = 100L;
+
+  private static final long[] EMPTY_LATENCIES = new long[0];
+
+  private final AtomicLongArray _latencies;
+  private final AtomicLong _numRecorded = new AtomicLong();
+  private final long _refreshIntervalMs;
+  private final AtomicBoolean _refreshing = new AtomicBoolean();
+
+  private volatile long[] _sortedLatencies = EMPTY_LATENCIES;
+  private volatile long _lastRefreshTimeMs;
+
+  public LatencyTracker() {
+    this(DEFAULT_WINDOW_SIZE, DEFAULT_REFRESH_INTERVAL_MS);
+  }
+
+  public LatencyTracker(int windowSize, long refreshIntervalMs) {
+    _latencies = new AtomicLongArray(windowSize);
+    _refreshIntervalMs = refreshIntervalMs;
+  }
+
+  public void record(long latencyMs) {
+    long index = _numRecorded.getAndIncrement();
+    _latencies.set((int) (index % _latencies.length()), latencyMs);
+  }
+
+  /**
+   * Returns the number of latencies recorded so far (including the ones evicted from the window).
+   */
+  public long getNumRecorded() {
+    return _numRecorded.get();
+  }
+
+  /**
+   * Returns the given percentile (0-100) of the recent latencies, or 0 if no latency has been recorded.
+   */
+  public long getPercentileMs(double percentile) {
+    long[] sortedLatencies = getSortedLatencies();
+    int numLatencies = sortedLatencies.length;
+    if (numLatencies == 0) {
+      return 0L;
+    }
+    return sortedLatencies[(int) ((numLatencies - 1) * percentile / 100)];
+  }
+
+  /**
+   * Returns the sorted recent latencies, refreshing them if they are older than the refresh interval. Only one thread
+   * refreshes the latencies, other threads get the previous values.
+   */
+  private long[] getSortedLatencies() {
+    long currentTimeMs = System.currentTimeMillis();
+    if (currentTimeMs - _lastRefreshTimeMs >= _refreshIntervalMs && _refreshing.compareAndSet(false, true)) {
+      try {
+        int numLatencies = (int) Math.min(_numRecorded.get(), _latencies.length());
+        long[] sortedLatencies = new long[numLatencies];
+        for (int i = 0; i < numLatencies; i++) {
+          sortedLatencies[i] = _latencies.get(i);
+        }
+        Arrays.sort(sortedLatencies);
+        _sortedLatencies = sortedLatencies;
+        _lastRefreshTimeMs = currentTimeMs;
+      } finally {
+        _refreshing.set(false);
+      }
+    }
+    return _sortedLatencies;
+  }
+}
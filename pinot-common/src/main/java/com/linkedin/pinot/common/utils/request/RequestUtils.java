@@ -30,6 +30,8 @@ import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.common.segment.StarTreeMetadata;
 import com.linkedin.pinot.pql.parsers.Pql2Compiler;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -159,6 +161,56 @@ public class RequestUtils {
     return q2;
   }
 
+  /**
+   * Rewrite the filter of the broker request so that the children of every AND/OR node are in a canonical order, and
+   * regenerate the filter query ids accordingly.
+   * <p>The parser keeps the operands of AND/OR in query order, so <code>a = 1 AND b = 2</code> and
+   * <code>b = 2 AND a = 1</code> produce different filters. After this method they produce the same one, which allows
+   * semantically identical requests to share result cache entries.
+   */
+  public static void normalizeFilter(BrokerRequest request) {
+    FilterQueryTree filterQueryTree = generateFilterQueryTree(request);
+    if (filterQueryTree != null) {
+      generateFilterFromTree(normalizeFilterQueryTree(filterQueryTree), request);
+    }
+  }
+
+  private static FilterQueryTree normalizeFilterQueryTree(FilterQueryTree filterQueryTree) {
+    List<FilterQueryTree> children = filterQueryTree.getChildren();
+    if (children == null) {
+      return filterQueryTree;
+    }
+    List<FilterQueryTree> normalizedChildren = new ArrayList<>(children.size());
+    for (FilterQueryTree child : children) {
+      normalizedChildren.add(normalizeFilterQueryTree(child));
+    }
+    FilterOperator operator = filterQueryTree.getOperator();
+    if (operator == FilterOperator.AND || operator == FilterOperator.OR) {
+      Collections.sort(normalizedChildren, new Comparator<FilterQueryTree>() {
+        @Override
+        public int compare(FilterQueryTree o1, FilterQueryTree o2) {
+          return getCanonicalString(o1).compareTo(getCanonicalString(o2));
+        }
+      });
+    }
+    return new FilterQueryTree(filterQueryTree.getColumn(), filterQueryTree.getValue(), operator, normalizedChildren);
+  }
+
+  /**
+   * Canonical string of an already normalized filter query tree, used to order the children of AND/OR nodes.
+   */
+  private static String getCanonicalString(FilterQueryTree filterQueryTree) {
+    List<FilterQueryTree> children = filterQueryTree.getChildren();
+    if (children == null) {
+      return filterQueryTree.getColumn() + ' ' + filterQueryTree.getOperator() + ' ' + filterQueryTree.getValue();
+    }
+    StringBuilder stringBuilder = new StringBuilder().append(filterQueryTree.getOperator()).append('(');
+    for (FilterQueryTree child : children) {
+      stringBuilder.append(getCanonicalString(child)).append(',');
+    }
+    return stringBuilder.append(')').toString();
+  }
+
   /**
    * Helper method to extract all column names from group-by columns and expressions.
    * <p>We have this method because group-by columns might be passed from columns (old behavior) or expressions (UDF).
@@ -18,12 +18,17 @@ package com.linkedin.pinot.pql.parsers.pql2.ast;
 import com.linkedin.pinot.common.request.AggregationInfo;
 import com.linkedin.pinot.common.utils.EqualityUtils;
 import com.linkedin.pinot.pql.parsers.Pql2CompilationException;
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
  * AST node for function calls, such as count(foo).
  */
 public class FunctionCallAstNode extends BaseAstNode {
+  // Aggregation params of the additional arguments of the function: argument1, argument2...
+  private static final String ARGUMENT_PARAM_PREFIX = "argument";
+
   private final String _name;
   private String _expression;
   private boolean _isInSelectList;
@@ -72,6 +77,7 @@ public class FunctionCallAstNode extends BaseAstNode {
 
   public AggregationInfo buildAggregationInfo() {
     String identifier = null;
+    List<String> arguments = new ArrayList<>();
     for (AstNode astNode : getChildren()) {
       if (astNode instanceof IdentifierAstNode) {
         IdentifierAstNode node = (IdentifierAstNode) astNode;
@@ -82,12 +88,15 @@ public class FunctionCallAstNode extends BaseAstNode {
         }
       } else if (astNode instanceof StarExpressionAstNode) {
         identifier = "*";
-      } else if (astNode instanceof StringLiteralAstNode) {
+      } else if (identifier == null && astNode instanceof StringLiteralAstNode) {
         // Pinot quirk: Passing a string as an aggregation function is probably a column name
-        StringLiteralAstNode node = (StringLiteralAstNode) astNode;
-        identifier = node.getText();
+        identifier = ((StringLiteralAstNode) astNode).getText();
+      } else if (identifier != null && astNode instanceof LiteralAstNode) {
+        // Additional arguments of the function, validated by the aggregation function itself
+        arguments.add(((LiteralAstNode) astNode).getValueAsString());
       } else {
-        throw new Pql2CompilationException("Child node of aggregation function is not an identifier, star or string literal.");
+        throw new Pql2CompilationException(
+            "Child node of aggregation function is not an identifier, star or literal after the column.");
       }
     }
 
@@ -102,6 +111,9 @@ public class FunctionCallAstNode extends BaseAstNode {
     AggregationInfo aggregationInfo = new AggregationInfo();
     aggregationInfo.setAggregationType(function);
     aggregationInfo.putToAggregationParams("column", identifier);
+    for (int i = 0; i < arguments.size(); i++) {
+      aggregationInfo.putToAggregationParams(ARGUMENT_PARAM_PREFIX + (i + 1), arguments.get(i));
+    }
     aggregationInfo.setIsInSelectList(_isInSelectList);
 
     return aggregationInfo;
@@ -18,6 +18,7 @@ package com.linkedin.pinot.common.config;
 import com.linkedin.pinot.common.data.StarTreeIndexSpec;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -43,6 +44,9 @@ public class IndexingConfigTest {
 
     String[] expectedOnHeapDictionaryColumns = new String[] {"x", "y", "z"};
     json.put("onHeapDictionaryColumns", Arrays.asList(expectedOnHeapDictionaryColumns));
+    json.put("warmUpColumns", Arrays.asList("a", "x"));
+    json.put("bloomFilterColumns", Arrays.asList("b"));
+    json.put("noDictionaryCompressionTypes", Collections.singletonMap("m", "LZ4"));
     json.put("loadMode", "MMAP");
     json.put("keyThatIsUnknown", "randomValue");
     json.put("aggregateMetrics", "true");
@@ -70,6 +74,10 @@ public class IndexingConfigTest {
       Assert.assertEquals(actualOnHeapDictionaryColumns.get(i), expectedOnHeapDictionaryColumns[i]);
     }
 
+    Assert.assertEquals(indexingConfig.getWarmUpColumns(), Arrays.asList("a", "x"));
+    Assert.assertEquals(indexingConfig.getBloomFilterColumns(), Arrays.asList("b"));
+    Assert.assertEquals(indexingConfig.getNoDictionaryCompressionTypes(), Collections.singletonMap("m", "LZ4"));
+
     Assert.assertTrue(indexingConfig.getAggregateMetrics());
   }
 
@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.utils;
+
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class LatencyTrackerTest {
+
+  @Test
+  public void testPercentiles() {
+    LatencyTracker latencyTracker = new LatencyTracker(100, 0L);
+    Assert.assertEquals(latencyTracker.getPercentileMs(50), 0L);
+    Assert.assertEquals(latencyTracker.getPercentileMs(99), 0L);
+
+    for (int i = 1; i <= 100; i++) {
+      latencyTracker.record(i);
+    }
+    Assert.assertEquals(latencyTracker.getNumRecorded(), 100L);
+    Assert.assertEquals(latencyTracker.getPercentileMs(0), 1L);
+    Assert.assertEquals(latencyTracker.getPercentileMs(50), 50L);
+    Assert.assertEquals(latencyTracker.getPercentileMs(99), 99L);
+    Assert.assertEquals(latencyTracker.getPercentileMs(100), 100L);
+
+    // Only the most recent latencies are kept in the window
+    for (int i = 0; i < 100; i++) {
+      latencyTracker.record(1000L);
+    }
+    Assert.assertEquals(latencyTracker.getNumRecorded(), 200L);
+    Assert.assertEquals(latencyTracker.getPercentileMs(50), 1000L);
+    Assert.assertEquals(latencyTracker.getPercentileMs(99), 1000L);
+  }
+
+  @Test
+  public void testRefreshInterval() {
+    LatencyTracker latencyTracker = new LatencyTracker(100, TimeUnit.HOURS.toMillis(1L));
+    latencyTracker.record(10L);
+    // The percentiles are computed on the first read, then not refreshed until the refresh interval passes
+    Assert.assertEquals(latencyTracker.getPercentileMs(50), 10L);
+    latencyTracker.record(20L);
+    latencyTracker.record(30L);
+    Assert.assertEquals(latencyTracker.getPercentileMs(50), 10L);
+  }
+}
@@ -21,6 +21,7 @@ import org.testng.annotations.Test;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.request.GroupBy;
 import com.linkedin.pinot.pql.parsers.pql2.ast.TopAstNode;
+import java.util.Map;
 
 
 /**
@@ -49,6 +50,32 @@ public class Pql2CompilerTest {
     Assert.assertEquals(brokerRequest.getFilterQuery().getValue().get(0), "Martha''s Vineyard");
   }
 
+  @Test
+  public void testAggregationFunctionArguments() {
+    Pql2Compiler compiler = new Pql2Compiler();
+    BrokerRequest brokerRequest = compiler.compileToBrokerRequest(
+        "select distinctCountThetaSketch(memberId, 'country = ''us''', 'device = ''mobile''', "
+            + "'SET_INTERSECT($1, $2)') from a");
+    Map<String, String> aggregationParams = brokerRequest.getAggregationsInfo().get(0).getAggregationParams();
+    Assert.assertEquals(aggregationParams.get("column"), "memberId");
+    Assert.assertEquals(aggregationParams.get("argument1"), "country = 'us'");
+    Assert.assertEquals(aggregationParams.get("argument2"), "device = 'mobile'");
+    Assert.assertEquals(aggregationParams.get("argument3"), "SET_INTERSECT($1, $2)");
+
+    // Other functions keep using the string literal as the column name
+    brokerRequest = compiler.compileToBrokerRequest("select sum('foo') from a");
+    aggregationParams = brokerRequest.getAggregationsInfo().get(0).getAggregationParams();
+    Assert.assertEquals(aggregationParams.get("column"), "foo");
+    Assert.assertEquals(aggregationParams.size(), 1);
+
+    // Literals after the column are additional arguments for any function
+    brokerRequest = compiler.compileToBrokerRequest("select sum(foo, 'bar', 5) from a");
+    aggregationParams = brokerRequest.getAggregationsInfo().get(0).getAggregationParams();
+    Assert.assertEquals(aggregationParams.get("column"), "foo");
+    Assert.assertEquals(aggregationParams.get("argument1"), "bar");
+    Assert.assertEquals(aggregationParams.get("argument2"), "5");
+  }
+
   @Test
   public void testDuplicateClauses() {
     Pql2Compiler compiler = new Pql2Compiler();
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
+import org.apache.commons.lang.StringUtils;
 import org.apache.helix.task.TaskState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -100,6 +101,20 @@ public class ConvertToRawIndexTaskGenerator implements PinotTaskGenerator {
       // Get the config for columns to convert
       String columnsToConvertConfig = taskConfigs.get(MinionConstants.ConvertToRawIndexTask.COLUMNS_TO_CONVERT_KEY);
 
+      // Get the config for compression types, fall back to the ones configured in the indexing config
+      String compressionTypesConfig = taskConfigs.get(MinionConstants.ConvertToRawIndexTask.COMPRESSION_TYPES_KEY);
+      if (compressionTypesConfig == null) {
+        Map<String, String> noDictionaryCompressionTypes =
+            tableConfig.getIndexingConfig().getNoDictionaryCompressionTypes();
+        if (noDictionaryCompressionTypes != null && !noDictionaryCompressionTypes.isEmpty()) {
+          List<String> columnCompressionTypes = new ArrayList<>(noDictionaryCompressionTypes.size());
+          for (Map.Entry<String, String> entry : noDictionaryCompressionTypes.entrySet()) {
+            columnCompressionTypes.add(entry.getKey() + ':' + entry.getValue());
+          }
+          compressionTypesConfig = StringUtils.join(columnCompressionTypes, ',');
+        }
+      }
+
       // Generate tasks
       int tableNumTasks = 0;
       for (OfflineSegmentZKMetadata offlineSegmentZKMetadata : _clusterInfoProvider.getOfflineSegmentsMetadata(
@@ -128,6 +143,9 @@ public class ConvertToRawIndexTaskGenerator implements PinotTaskGenerator {
           if (columnsToConvertConfig != null) {
             configs.put(MinionConstants.ConvertToRawIndexTask.COLUMNS_TO_CONVERT_KEY, columnsToConvertConfig);
           }
+          if (compressionTypesConfig != null) {
+            configs.put(MinionConstants.ConvertToRawIndexTask.COMPRESSION_TYPES_KEY, compressionTypesConfig);
+          }
           pinotTaskConfigs.add(new PinotTaskConfig(MinionConstants.ConvertToRawIndexTask.TASK_TYPE, configs));
           tableNumTasks++;
         }
@@ -48,4 +48,48 @@ public abstract class BlockSingleValIterator implements BlockValIterator {
   public String nextStringVal() {
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * Batch read the values for the given doc ids (sorted), after which the iterator is positioned after the last doc id.
+   * <p>The default implementations read the values one by one through {@link #skipTo(int)}, and should be overridden
+   * by the iterators that can read multiple values at once.
+   *
+   * @param docIds Doc ids to read
+   * @param numDocs Number of doc ids to read
+   * @param values Array to store the values
+   */
+  public void getIntValues(int[] docIds, int numDocs, int[] values) {
+    for (int i = 0; i < numDocs; i++) {
+      skipTo(docIds[i]);
+      values[i] = nextIntVal();
+    }
+  }
+
+  public void getLongValues(int[] docIds, int numDocs, long[] values) {
+    for (int i = 0; i < numDocs; i++) {
+      skipTo(docIds[i]);
+      values[i] = nextLongVal();
+    }
+  }
+
+  public void getFloatValues(int[] docIds, int numDocs, float[] values) {
+    for (int i = 0; i < numDocs; i++) {
+      skipTo(docIds[i]);
+      values[i] = nextFloatVal();
+    }
+  }
+
+  public void getDoubleValues(int[] docIds, int numDocs, double[] values) {
+    for (int i = 0; i < numDocs; i++) {
+      skipTo(docIds[i]);
+      values[i] = nextDoubleVal();
+    }
+  }
+
+  public void getStringValues(int[] docIds, int numDocs, String[] values) {
+    for (int i = 0; i < numDocs; i++) {
+      skipTo(docIds[i]);
+      values[i] = nextStringVal();
+    }
+  }
 }
@@ -44,6 +44,8 @@ public class MinionConstants {
   public static class ConvertToRawIndexTask {
     public static final String TASK_TYPE = "ConvertToRawIndexTask";
     public static final String COLUMNS_TO_CONVERT_KEY = "columnsToConvert";
+    // Comma separated column to compression type pairs, e.g. "column1:LZ4,column2:DEFLATE"
+    public static final String COMPRESSION_TYPES_KEY = "compressionTypes";
   }
 
   // Purges rows inside segment that match chosen criteria
@@ -86,8 +86,8 @@ public class DataTableBuilder {
   private final int _rowSizeInBytes;
   private final Map<String, Map<String, Integer>> _dictionaryMap = new HashMap<>();
   private final Map<String, Map<Integer, String>> _reverseDictionaryMap = new HashMap<>();
-  private final ByteArrayOutputStream _fixedSizeDataByteArrayOutputStream = new ByteArrayOutputStream();
-  private final ByteArrayOutputStream _variableSizeDataByteArrayOutputStream = new ByteArrayOutputStream();
+  private final DataByteArrayOutputStream _fixedSizeDataByteArrayOutputStream = new DataByteArrayOutputStream();
+  private final DataByteArrayOutputStream _variableSizeDataByteArrayOutputStream = new DataByteArrayOutputStream();
   private final DataOutputStream _variableSizeDataOutputStream =
       new DataOutputStream(_variableSizeDataByteArrayOutputStream);
 
@@ -277,9 +277,14 @@ public class DataTableBuilder {
     _fixedSizeDataByteArrayOutputStream.write(_currentRowDataByteBuffer.array());
   }
 
+  /**
+   * Build the data table.
+   * <p>The data table references the data written into this builder without any copy, so no more row should be added
+   * after calling this method.
+   */
   public DataTable build() {
     return new DataTableImplV2(_numRows, _dataSchema, _reverseDictionaryMap,
-        _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+        _fixedSizeDataByteArrayOutputStream.toByteBuffer(), _variableSizeDataByteArrayOutputStream.toByteBuffer());
   }
 
   /**
@@ -387,4 +392,13 @@ public class DataTableBuilder {
     metadata.put(DataTable.TOTAL_DOCS_METADATA_KEY, totalDocs);
     return dataTable;
   }
+
+  /**
+   * Byte array output stream which exposes the written bytes as a byte buffer without copying them.
+   */
+  private static class DataByteArrayOutputStream extends ByteArrayOutputStream {
+    ByteBuffer toByteBuffer() {
+      return ByteBuffer.wrap(buf, 0, count).slice();
+    }
+  }
 }
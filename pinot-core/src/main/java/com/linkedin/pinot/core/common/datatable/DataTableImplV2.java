@@ -52,9 +52,9 @@ public class DataTableImplV2 implements DataTable {
   private final int[] _columnOffsets;
   private final int _rowSizeInBytes;
   private final Map<String, Map<Integer, String>> _dictionaryMap;
-  private final byte[] _fixedSizeDataBytes;
+  // Fixed size and variable size data sections, both start at position 0 and are limited to the section size.
+  // On broker side, they are views over the bytes received from the server without any copy.
   private final ByteBuffer _fixedSizeData;
-  private final byte[] _variableSizeDataBytes;
   private final ByteBuffer _variableSizeData;
   private final Map<String, String> _metadata;
 
@@ -64,16 +64,26 @@ public class DataTableImplV2 implements DataTable {
   public DataTableImplV2(int numRows, @Nonnull DataSchema dataSchema,
       @Nonnull Map<String, Map<Integer, String>> dictionaryMap, @Nonnull byte[] fixedSizeDataBytes,
       @Nonnull byte[] variableSizeDataBytes) {
+    this(numRows, dataSchema, dictionaryMap, ByteBuffer.wrap(fixedSizeDataBytes),
+        ByteBuffer.wrap(variableSizeDataBytes));
+  }
+
+  /**
+   * Construct data table with results, where the data sections are passed in as byte buffers starting at position 0
+   * and limited to the section size. (Server side)
+   * <p>The byte buffers are referenced directly without any copy.
+   */
+  public DataTableImplV2(int numRows, @Nonnull DataSchema dataSchema,
+      @Nonnull Map<String, Map<Integer, String>> dictionaryMap, @Nonnull ByteBuffer fixedSizeData,
+      @Nonnull ByteBuffer variableSizeData) {
     _numRows = numRows;
     _numColumns = dataSchema.size();
     _dataSchema = dataSchema;
     _columnOffsets = new int[_numColumns];
     _rowSizeInBytes = DataTableUtils.computeColumnOffsets(dataSchema, _columnOffsets);
     _dictionaryMap = dictionaryMap;
-    _fixedSizeDataBytes = fixedSizeDataBytes;
-    _fixedSizeData = ByteBuffer.wrap(fixedSizeDataBytes);
-    _variableSizeDataBytes = variableSizeDataBytes;
-    _variableSizeData = ByteBuffer.wrap(variableSizeDataBytes);
+    _fixedSizeData = fixedSizeData;
+    _variableSizeData = variableSizeData;
     _metadata = new HashMap<>();
   }
 
@@ -87,15 +97,15 @@ public class DataTableImplV2 implements DataTable {
     _columnOffsets = null;
     _rowSizeInBytes = 0;
     _dictionaryMap = null;
-    _fixedSizeDataBytes = null;
     _fixedSizeData = null;
-    _variableSizeDataBytes = null;
     _variableSizeData = null;
     _metadata = new HashMap<>();
   }
 
   /**
    * Construct data table from byte array. (broker side)
+   * <p>The fixed size and variable size data sections are not copied, the data table keeps views over the given byte
+   * buffer, so the byte buffer should not be modified afterwards.
    */
   public DataTableImplV2(@Nonnull ByteBuffer byteBuffer)
       throws IOException {
@@ -145,27 +155,29 @@ public class DataTableImplV2 implements DataTable {
 
     // Read fixed size data.
     if (fixedSizeDataLength != 0) {
-      _fixedSizeDataBytes = new byte[fixedSizeDataLength];
-      byteBuffer.position(fixedSizeDataStart);
-      byteBuffer.get(_fixedSizeDataBytes);
-      _fixedSizeData = ByteBuffer.wrap(_fixedSizeDataBytes);
+      _fixedSizeData = sliceSection(byteBuffer, fixedSizeDataStart, fixedSizeDataLength);
     } else {
-      _fixedSizeDataBytes = null;
       _fixedSizeData = null;
     }
 
     // Read variable size data.
     if (variableSizeDataLength != 0) {
-      _variableSizeDataBytes = new byte[variableSizeDataLength];
-      byteBuffer.position(variableSizeDataStart);
-      byteBuffer.get(_variableSizeDataBytes);
-      _variableSizeData = ByteBuffer.wrap(_variableSizeDataBytes);
+      _variableSizeData = sliceSection(byteBuffer, variableSizeDataStart, variableSizeDataLength);
     } else {
-      _variableSizeDataBytes = null;
       _variableSizeData = null;
     }
   }
 
+  /**
+   * Returns a view of the given section of the byte buffer, starting at position 0 and limited to the section size.
+   */
+  private static ByteBuffer sliceSection(ByteBuffer byteBuffer, int sectionStart, int sectionLength) {
+    ByteBuffer duplicate = byteBuffer.duplicate();
+    duplicate.position(sectionStart);
+    duplicate.limit(sectionStart + sectionLength);
+    return duplicate.slice();
+  }
+
   private Map<String, Map<Integer, String>> deserializeDictionaryMap(byte[] bytes)
       throws IOException {
     ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes);
@@ -232,74 +244,76 @@ public class DataTableImplV2 implements DataTable {
   @Override
   public byte[] toBytes()
       throws IOException {
-    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-    DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
-    dataOutputStream.writeInt(VERSION);
-    dataOutputStream.writeInt(_numRows);
-    dataOutputStream.writeInt(_numColumns);
-    int dataOffset = HEADER_SIZE;
-
-    // Write dictionary.
-    dataOutputStream.writeInt(dataOffset);
     byte[] dictionaryMapBytes = null;
+    int dictionaryMapLength = 0;
     if (_dictionaryMap != null) {
       dictionaryMapBytes = serializeDictionaryMap();
-      dataOutputStream.writeInt(dictionaryMapBytes.length);
-      dataOffset += dictionaryMapBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
+      dictionaryMapLength = dictionaryMapBytes.length;
     }
-
-    // Write metadata.
-    dataOutputStream.writeInt(dataOffset);
     byte[] metadataBytes = serializeMetadata();
-    dataOutputStream.writeInt(metadataBytes.length);
-    dataOffset += metadataBytes.length;
-
-    // Write data schema.
-    dataOutputStream.writeInt(dataOffset);
     byte[] dataSchemaBytes = null;
+    int dataSchemaLength = 0;
     if (_dataSchema != null) {
       dataSchemaBytes = _dataSchema.toBytes();
-      dataOutputStream.writeInt(dataSchemaBytes.length);
-      dataOffset += dataSchemaBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
+      dataSchemaLength = dataSchemaBytes.length;
     }
+    int fixedSizeDataLength = _fixedSizeData != null ? _fixedSizeData.limit() : 0;
+    int variableSizeDataLength = _variableSizeData != null ? _variableSizeData.limit() : 0;
+
+    // Compute the size of all the sections first, so that the data is written only once into an exact-sized array.
+    byte[] bytes = new byte[HEADER_SIZE + dictionaryMapLength + metadataBytes.length + dataSchemaLength
+        + fixedSizeDataLength + variableSizeDataLength];
+    ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+    byteBuffer.putInt(VERSION);
+    byteBuffer.putInt(_numRows);
+    byteBuffer.putInt(_numColumns);
+    int dataOffset = HEADER_SIZE;
+
+    // Write dictionary.
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dictionaryMapLength);
+    dataOffset += dictionaryMapLength;
+
+    // Write metadata.
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(metadataBytes.length);
+    dataOffset += metadataBytes.length;
+
+    // Write data schema.
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dataSchemaLength);
+    dataOffset += dataSchemaLength;
 
     // Write fixed size data.
-    dataOutputStream.writeInt(dataOffset);
-    if (_fixedSizeDataBytes != null) {
-      dataOutputStream.writeInt(_fixedSizeDataBytes.length);
-      dataOffset += _fixedSizeDataBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
-    }
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(fixedSizeDataLength);
+    dataOffset += fixedSizeDataLength;
 
     // Write variable size data.
-    dataOutputStream.writeInt(dataOffset);
-    if (_variableSizeDataBytes != null) {
-      dataOutputStream.writeInt(_variableSizeDataBytes.length);
-    } else {
-      dataOutputStream.writeInt(0);
-    }
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(variableSizeDataLength);
 
     // Write actual data.
     if (dictionaryMapBytes != null) {
-      dataOutputStream.write(dictionaryMapBytes);
+      byteBuffer.put(dictionaryMapBytes);
     }
-    dataOutputStream.write(metadataBytes);
+    byteBuffer.put(metadataBytes);
     if (dataSchemaBytes != null) {
-      dataOutputStream.write(dataSchemaBytes);
+      byteBuffer.put(dataSchemaBytes);
     }
-    if (_fixedSizeDataBytes != null) {
-      dataOutputStream.write(_fixedSizeDataBytes);
+    // Write from duplicates to keep the cursor of the data sections untouched.
+    if (_fixedSizeData != null) {
+      ByteBuffer fixedSizeData = _fixedSizeData.duplicate();
+      fixedSizeData.position(0);
+      byteBuffer.put(fixedSizeData);
     }
-    if (_variableSizeDataBytes != null) {
-      dataOutputStream.write(_variableSizeDataBytes);
+    if (_variableSizeData != null) {
+      ByteBuffer variableSizeData = _variableSizeData.duplicate();
+      variableSizeData.position(0);
+      byteBuffer.put(variableSizeData);
     }
 
-    return byteArrayOutputStream.toByteArray();
+    return bytes;
   }
 
   private byte[] serializeDictionaryMap()
@@ -19,6 +19,8 @@ import com.clearspring.analytics.stream.cardinality.HyperLogLog;
 import com.linkedin.pinot.core.query.aggregation.function.customobject.AvgPair;
 import com.linkedin.pinot.core.query.aggregation.function.customobject.MinMaxRangePair;
 import com.linkedin.pinot.core.query.aggregation.function.customobject.QuantileDigest;
+import com.linkedin.pinot.core.query.aggregation.function.customobject.TDigest;
+import com.linkedin.pinot.core.query.aggregation.function.customobject.ThetaSketch;
 import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.ints.IntIterator;
@@ -71,6 +73,10 @@ public class ObjectCustomSerDe {
       return serializeHashMap((HashMap<Object, Object>) object);
     } else if (object instanceof IntOpenHashSet) {
       return serializeIntOpenHashSet((IntOpenHashSet) object);
+    } else if (object instanceof TDigest) {
+      return ((TDigest) object).toBytes();
+    } else if (object instanceof ThetaSketch[]) {
+      return serializeThetaSketchArray((ThetaSketch[]) object);
     } else {
       throw new IllegalArgumentException("Illegal class for serialization: " + object.getClass().getName());
     }
@@ -104,6 +110,10 @@ public class ObjectCustomSerDe {
         return (T) deserializeHashMap(bytes);
       case IntOpenHashSet:
         return (T) deserializeIntOpenHashSet(bytes);
+      case TDigest:
+        return (T) TDigest.fromBytes(bytes);
+      case ThetaSketchArray:
+        return (T) deserializeThetaSketchArray(ByteBuffer.wrap(bytes));
       default:
         throw new IllegalArgumentException("Illegal object type for de-serialization: " + objectType);
     }
@@ -140,6 +150,10 @@ public class ObjectCustomSerDe {
         return (T) deserializeHashMap(byteBuffer);
       case IntOpenHashSet:
         return (T) deserializeIntOpenHashSet(byteBuffer);
+      case TDigest:
+        return (T) TDigest.fromByteBuffer(byteBuffer);
+      case ThetaSketchArray:
+        return (T) deserializeThetaSketchArray(byteBuffer);
       default:
         throw new IllegalArgumentException("Illegal object type for de-serialization: " + objectType);
     }
@@ -182,6 +196,10 @@ public class ObjectCustomSerDe {
       return ObjectType.HashMap;
     } else if (object instanceof IntOpenHashSet) {
       return ObjectType.IntOpenHashSet;
+    } else if (object instanceof TDigest) {
+      return ObjectType.TDigest;
+    } else if (object instanceof ThetaSketch[]) {
+      return ObjectType.ThetaSketchArray;
     } else {
       throw new IllegalArgumentException("No object type matches class: " + object.getClass().getName());
     }
@@ -381,4 +399,32 @@ public class ObjectCustomSerDe {
   private static IntOpenHashSet deserializeIntOpenHashSet(byte[] bytes) {
     return deserializeIntOpenHashSet(ByteBuffer.wrap(bytes));
   }
+
+  /**
+   * Helper method to serialize an array of {@link ThetaSketch}.
+   */
+  private static byte[] serializeThetaSketchArray(ThetaSketch[] thetaSketches) {
+    int size = V1Constants.Numbers.INTEGER_SIZE;
+    for (ThetaSketch thetaSketch : thetaSketches) {
+      size += thetaSketch.getSerializedSize();
+    }
+    ByteBuffer byteBuffer = ByteBuffer.allocate(size);
+    byteBuffer.putInt(thetaSketches.length);
+    for (ThetaSketch thetaSketch : thetaSketches) {
+      thetaSketch.toByteBuffer(byteBuffer);
+    }
+    return byteBuffer.array();
+  }
+
+  /**
+   * Helper method to de-serialize an array of {@link ThetaSketch} from a ByteBuffer.
+   */
+  private static ThetaSketch[] deserializeThetaSketchArray(ByteBuffer byteBuffer) {
+    int length = byteBuffer.getInt();
+    ThetaSketch[] thetaSketches = new ThetaSketch[length];
+    for (int i = 0; i < length; i++) {
+      thetaSketches[i] = ThetaSketch.fromByteBuffer(byteBuffer);
+    }
+    return thetaSketches;
+  }
 }
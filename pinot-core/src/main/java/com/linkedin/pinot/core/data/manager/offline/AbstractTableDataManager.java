@@ -18,6 +18,7 @@ package com.linkedin.pinot.core.data.manager.offline;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.linkedin.pinot.common.config.TableConfig;
 import com.linkedin.pinot.common.metrics.ServerGauge;
 import com.linkedin.pinot.common.metrics.ServerMeter;
@@ -30,8 +31,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nonnull;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
@@ -40,10 +39,12 @@ import org.slf4j.LoggerFactory;
 
 
 public abstract class AbstractTableDataManager implements TableDataManager {
-  // This read-write lock protects the _segmentsMap and SegmentDataManager.refCnt
-  protected final ReadWriteLock _rwLock = new ReentrantReadWriteLock();
+  // Segment additions and removals are applied to _segmentsMap while holding its monitor, and then published as an
+  // immutable copy through the volatile _segmentsSnapshot, which is read without locking on the query path.
+  // A SegmentDataManager is destroyed once its reference count drops to 0, and can no longer be acquired after that.
   @VisibleForTesting
   protected final Map<String, SegmentDataManager> _segmentsMap = new HashMap<>();
+  protected volatile ImmutableMap<String, SegmentDataManager> _segmentsSnapshot = ImmutableMap.of();
 
   protected TableDataManagerConfig _tableDataManagerConfig;
   protected String _instanceId;
@@ -126,16 +127,10 @@ public abstract class AbstractTableDataManager implements TableDataManager {
     OfflineSegmentDataManager newSegmentManager = new OfflineSegmentDataManager(indexSegmentToAdd);
     final int newNumDocs = indexSegmentToAdd.getSegmentMetadata().getTotalRawDocs();
     final long segmentSize = indexSegmentToAdd.getDiskSizeBytes();
-    SegmentDataManager oldSegmentManager;
+    SegmentDataManager oldSegmentManager = putSegmentDataManager(segmentName, newSegmentManager);
     int refCnt = -1;
-    try {
-      _rwLock.writeLock().lock();
-      oldSegmentManager = _segmentsMap.put(segmentName, newSegmentManager);
-      if (oldSegmentManager != null) {
-        refCnt = oldSegmentManager.decrementRefCnt();
-      }
-    } finally {
-      _rwLock.writeLock().unlock();
+    if (oldSegmentManager != null) {
+      refCnt = oldSegmentManager.decrementRefCnt();
     }
     if (oldSegmentManager == null) {
       _logger.info("Added new segment {} for table {}", segmentName, _tableName);
@@ -169,22 +164,46 @@ public abstract class AbstractTableDataManager implements TableDataManager {
    */
   @Override
   public void removeSegment(String segmentName) {
-    SegmentDataManager segmentDataManager;
+    SegmentDataManager segmentDataManager = removeSegmentDataManager(segmentName);
     int refCnt = -1;
-    try {
-      _rwLock.writeLock().lock();
-      segmentDataManager = _segmentsMap.remove(segmentName);
-      if (segmentDataManager != null) {
-        refCnt = segmentDataManager.decrementRefCnt();
-      }
-    } finally {
-      _rwLock.writeLock().unlock();
+    if (segmentDataManager != null) {
+      refCnt = segmentDataManager.decrementRefCnt();
     }
     if (refCnt == 0) {  // segmentDataManager must be non-null.
       closeSegment(segmentDataManager);
     }
   }
 
+  /**
+   * Puts the segment data manager into the segments map and publishes a new snapshot.
+   *
+   * @return The segment data manager previously mapped to the segment name, or null if none. The caller owns the
+   * reference held by the map on it.
+   */
+  protected SegmentDataManager putSegmentDataManager(@Nonnull String segmentName,
+      @Nonnull SegmentDataManager segmentDataManager) {
+    synchronized (_segmentsMap) {
+      SegmentDataManager oldSegmentDataManager = _segmentsMap.put(segmentName, segmentDataManager);
+      _segmentsSnapshot = ImmutableMap.copyOf(_segmentsMap);
+      return oldSegmentDataManager;
+    }
+  }
+
+  /**
+   * Removes the segment data manager from the segments map and publishes a new snapshot.
+   *
+   * @return The removed segment data manager, or null if none. The caller owns the reference held by the map on it.
+   */
+  protected SegmentDataManager removeSegmentDataManager(@Nonnull String segmentName) {
+    synchronized (_segmentsMap) {
+      SegmentDataManager segmentDataManager = _segmentsMap.remove(segmentName);
+      if (segmentDataManager != null) {
+        _segmentsSnapshot = ImmutableMap.copyOf(_segmentsMap);
+      }
+      return segmentDataManager;
+    }
+  }
+
   protected void closeSegment(SegmentDataManager segmentDataManager) {
     final String segmentName = segmentDataManager.getSegmentName();
     _logger.info("Closing segment {} for table {}", segmentName, _tableName);
@@ -199,51 +218,56 @@ public abstract class AbstractTableDataManager implements TableDataManager {
   @Nonnull
   @Override
   public ImmutableList<SegmentDataManager> acquireAllSegments() {
+    ImmutableMap<String, SegmentDataManager> segmentsSnapshot = _segmentsSnapshot;
     ImmutableList.Builder<SegmentDataManager> segmentListBuilder = ImmutableList.builder();
-    try {
-      _rwLock.readLock().lock();
-      for (Map.Entry<String, SegmentDataManager> segmentEntry : _segmentsMap.entrySet()) {
-        SegmentDataManager segmentDataManager = segmentEntry.getValue();
-        segmentDataManager.incrementRefCnt();
+    for (Map.Entry<String, SegmentDataManager> segmentEntry : segmentsSnapshot.entrySet()) {
+      SegmentDataManager segmentDataManager = acquireSegment(segmentEntry.getKey(), segmentEntry.getValue());
+      if (segmentDataManager != null) {
         segmentListBuilder.add(segmentDataManager);
       }
-    } finally {
-      _rwLock.readLock().unlock();
     }
     return segmentListBuilder.build();
   }
 
   @Override
   public List<SegmentDataManager> acquireSegments(List<String> segmentList) {
+    ImmutableMap<String, SegmentDataManager> segmentsSnapshot = _segmentsSnapshot;
     List<SegmentDataManager> ret = new ArrayList<>();
-    try {
-      _rwLock.readLock().lock();
-      for (String segName : segmentList) {
-        SegmentDataManager segmentDataManager;
-        segmentDataManager = _segmentsMap.get(segName);
-        if (segmentDataManager != null) {
-          segmentDataManager.incrementRefCnt();
-          ret.add(segmentDataManager);
-        }
+    for (String segName : segmentList) {
+      SegmentDataManager segmentDataManager = acquireSegment(segName, segmentsSnapshot.get(segName));
+      if (segmentDataManager != null) {
+        ret.add(segmentDataManager);
       }
-    } finally {
-      _rwLock.readLock().unlock();
     }
     return ret;
   }
 
   @Override
   public SegmentDataManager acquireSegment(String segmentName) {
-    try {
-      _rwLock.readLock().lock();
-      SegmentDataManager segmentDataManager = _segmentsMap.get(segmentName);
-      if (segmentDataManager != null) {
-        segmentDataManager.incrementRefCnt();
+    return acquireSegment(segmentName, _segmentsSnapshot.get(segmentName));
+  }
+
+  /**
+   * Helper method to acquire the segment data manager read from a snapshot.
+   * <p>
+   * If the segment data manager has been released by the map (segment removed or replaced after the snapshot was
+   * read), re-read the latest snapshot so that a replacing segment data manager is returned instead.
+   *
+   * @return The acquired segment data manager, or null if the segment no longer exists.
+   */
+  private SegmentDataManager acquireSegment(String segmentName, SegmentDataManager segmentDataManager) {
+    while (segmentDataManager != null) {
+      if (segmentDataManager.tryIncrementRefCnt()) {
+        return segmentDataManager;
       }
-      return segmentDataManager;
-    } finally {
-      _rwLock.readLock().unlock();
+      SegmentDataManager latestSegmentDataManager = _segmentsSnapshot.get(segmentName);
+      if (latestSegmentDataManager == segmentDataManager) {
+        // Should not happen because the reference held by the map is only released after the new snapshot is published
+        return null;
+      }
+      segmentDataManager = latestSegmentDataManager;
     }
+    return null;
   }
 
   @Override
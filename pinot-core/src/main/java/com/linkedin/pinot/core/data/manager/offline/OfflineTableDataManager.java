@@ -17,9 +17,15 @@ package com.linkedin.pinot.core.data.manager.offline;
 
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
+import com.linkedin.pinot.common.metrics.ServerTimer;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.indexsegment.columnar.ColumnarSegmentLoader;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import com.linkedin.pinot.core.segment.index.IndexSegmentImpl;
 import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import java.io.File;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 
 
@@ -36,9 +42,60 @@ public class OfflineTableDataManager extends AbstractTableDataManager {
   protected void doShutdown() {
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>Also invalidates the cached results of the replaced segment (if any).
+   */
+  @Override
+  public void addSegment(@Nonnull IndexSegment indexSegmentToAdd) {
+    super.addSegment(indexSegmentToAdd);
+    invalidateSegmentResultCache(indexSegmentToAdd.getSegmentName());
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>Also warms up the configured warm-up columns before the segment is added, so that the segment only starts
+   * serving queries once its buffers are prefetched.
+   */
   @Override
   public void addSegment(@Nonnull File indexDir, @Nonnull IndexLoadingConfig indexLoadingConfig) throws Exception {
     Schema schema = ZKMetadataProvider.getTableSchema(_propertyStore, _tableName);
-    addSegment(ColumnarSegmentLoader.load(indexDir, indexLoadingConfig, schema));
+
+    long loadStartTime = System.currentTimeMillis();
+    IndexSegment indexSegment = ColumnarSegmentLoader.load(indexDir, indexLoadingConfig, schema);
+    long loadTimeMs = System.currentTimeMillis() - loadStartTime;
+    _serverMetrics.addTimedTableValue(_tableName, ServerTimer.SEGMENT_LOAD_TIME_MS, loadTimeMs, TimeUnit.MILLISECONDS);
+
+    Set<String> warmUpColumns = indexLoadingConfig.getWarmUpColumns();
+    if (!warmUpColumns.isEmpty() && indexSegment instanceof IndexSegmentImpl) {
+      long warmUpStartTime = System.currentTimeMillis();
+      long numBytes = ((IndexSegmentImpl) indexSegment).warmUp(warmUpColumns);
+      long warmUpTimeMs = System.currentTimeMillis() - warmUpStartTime;
+      _serverMetrics.addTimedTableValue(_tableName, ServerTimer.SEGMENT_WARM_UP_TIME_MS, warmUpTimeMs,
+          TimeUnit.MILLISECONDS);
+      _logger.info("Loaded segment: {} in {}ms, warmed up {} bytes in {}ms", indexSegment.getSegmentName(),
+          loadTimeMs, numBytes, warmUpTimeMs);
+    } else {
+      _logger.info("Loaded segment: {} in {}ms", indexSegment.getSegmentName(), loadTimeMs);
+    }
+
+    addSegment(indexSegment);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>Also invalidates the cached results of the removed segment.
+   */
+  @Override
+  public void removeSegment(String segmentName) {
+    super.removeSegment(segmentName);
+    invalidateSegmentResultCache(segmentName);
+  }
+
+  private void invalidateSegmentResultCache(String segmentName) {
+    SegmentResultCache segmentResultCache = SegmentResultCache.getInstance();
+    if (segmentResultCache != null) {
+      segmentResultCache.invalidate(_tableName, segmentName);
+    }
   }
 }
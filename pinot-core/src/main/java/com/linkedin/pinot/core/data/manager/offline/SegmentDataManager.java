@@ -30,8 +30,22 @@ public abstract class SegmentDataManager {
     return _refCnt.get();
   }
 
-  public int incrementRefCnt() {
-    return _refCnt.incrementAndGet();
+  /**
+   * Increments the reference count unless it has already dropped to 0, in which case the segment is (or is about to be)
+   * destroyed and must not be used.
+   *
+   * @return Whether the reference count was incremented
+   */
+  public boolean tryIncrementRefCnt() {
+    while (true) {
+      int refCnt = _refCnt.get();
+      if (refCnt <= 0) {
+        return false;
+      }
+      if (_refCnt.compareAndSet(refCnt, refCnt + 1)) {
+        return true;
+      }
+    }
   }
 
   public int decrementRefCnt() {
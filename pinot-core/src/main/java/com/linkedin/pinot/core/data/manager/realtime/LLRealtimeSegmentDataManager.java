@@ -41,6 +41,7 @@ import com.linkedin.pinot.core.data.extractors.FieldExtractorFactory;
 import com.linkedin.pinot.core.data.extractors.PlainFieldExtractor;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
 import com.linkedin.pinot.core.realtime.converter.RealtimeSegmentConverter;
 import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentConfig;
@@ -57,6 +58,8 @@ import com.yammer.metrics.core.Meter;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -193,11 +196,16 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   final String _clientId;
   private final LLCSegmentName _segmentName;
   private final PlainFieldExtractor _fieldExtractor;
+  // Decode stage for pipelined consumption, null if messages are decoded on the consuming thread
+  private final PipelinedMessageDecoder _pipelinedMessageDecoder;
+  // All the field extractors in use, whose counters should be summed up
+  private final List<PlainFieldExtractor> _fieldExtractors;
   private PinotKafkaConsumer _consumerWrapper = null;
   private final File _resourceTmpDir;
   private final String _tableName;
   private final List<String> _invertedIndexColumns;
   private final List<String> _noDictionaryColumns;
+  private final Map<String, ChunkCompressorFactory.CompressionType> _noDictionaryCompressionTypes;
   private final StarTreeIndexSpec _starTreeIndexSpec;
   private final String _sortedColumn;
   private Logger segmentLogger = LOGGER;
@@ -295,7 +303,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   }
 
   protected boolean consumeLoop() throws Exception {
-    _fieldExtractor.resetCounters();
+    for (PlainFieldExtractor fieldExtractor : _fieldExtractors) {
+      fieldExtractor.resetCounters();
+    }
     final long idlePipeSleepTimeMillis = 100;
     final long maxIdleCountBeforeStatUpdate = (3 * 60 * 1000)/(idlePipeSleepTimeMillis + _kafkaStreamMetadata.getKafkaFetchTimeoutMillis());  // 3 minute count
     long lastUpdatedOffset = _currentOffset;  // so that we always update the metric when we enter this method.
@@ -348,18 +358,39 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       }
     }
 
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_ERRORS,
-        (long) _fieldExtractor.getTotalErrors());
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_NEEDING_CONVERSIONS,
-        (long) _fieldExtractor.getTotalConversions());
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_NULL_VALUES,
-        (long) _fieldExtractor.getTotalNulls());
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.COLUMNS_WITH_NULL_VALUES,
-        (long) _fieldExtractor.getTotalNullCols());
+    long totalErrors = 0;
+    long totalConversions = 0;
+    long totalNulls = 0;
+    long totalNullCols = 0;
+    for (PlainFieldExtractor fieldExtractor : _fieldExtractors) {
+      totalErrors += fieldExtractor.getTotalErrors();
+      totalConversions += fieldExtractor.getTotalConversions();
+      totalNulls += fieldExtractor.getTotalNulls();
+      totalNullCols += fieldExtractor.getTotalNullCols();
+    }
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_ERRORS, totalErrors);
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_NEEDING_CONVERSIONS, totalConversions);
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_NULL_VALUES, totalNulls);
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.COLUMNS_WITH_NULL_VALUES, totalNullCols);
     return true;
   }
 
-  private void processKafkaEvents(MessageBatch messagesAndOffsets, long idlePipeSleepTimeMillis) {
+  private void processKafkaEvents(MessageBatch messagesAndOffsets, long idlePipeSleepTimeMillis)
+      throws InterruptedException {
+    if (_pipelinedMessageDecoder != null) {
+      _pipelinedMessageDecoder.startBatch(messagesAndOffsets);
+      try {
+        processKafkaEventsInternal(messagesAndOffsets, idlePipeSleepTimeMillis);
+      } finally {
+        _pipelinedMessageDecoder.finishBatch();
+      }
+    } else {
+      processKafkaEventsInternal(messagesAndOffsets, idlePipeSleepTimeMillis);
+    }
+  }
+
+  private void processKafkaEventsInternal(MessageBatch messagesAndOffsets, long idlePipeSleepTimeMillis)
+      throws InterruptedException {
     Meter realtimeRowsConsumedMeter = null;
     Meter realtimeRowsDroppedMeter = null;
 
@@ -393,16 +424,32 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       }
 
       // Index each message
-      decodedRow = GenericRow.createOrReuseRow(decodedRow);
+      boolean isDecoded;
+      if (_pipelinedMessageDecoder != null) {
+        // The message has been decoded and transformed by the decode stage
+        transformedRow = _pipelinedMessageDecoder.take(index);
+        isDecoded = transformedRow != null;
+        if (index % PipelinedMessageDecoder.CHUNK_SIZE == 0) {
+          _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_DECODE_STAGE_LAG,
+              _pipelinedMessageDecoder.getDecodeLag());
+          _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_INDEX_STAGE_LAG,
+              _pipelinedMessageDecoder.getIndexLag());
+        }
+      } else {
+        decodedRow = GenericRow.createOrReuseRow(decodedRow);
 
-      decodedRow = _messageDecoder
-          .decode(messagesAndOffsets.getMessageAtIndex(index), messagesAndOffsets.getMessageOffsetAtIndex(index),
-              messagesAndOffsets.getMessageLengthAtIndex(index), decodedRow);
+        decodedRow = _messageDecoder
+            .decode(messagesAndOffsets.getMessageAtIndex(index), messagesAndOffsets.getMessageOffsetAtIndex(index),
+                messagesAndOffsets.getMessageLengthAtIndex(index), decodedRow);
 
-      if (decodedRow != null) {
-        transformedRow = GenericRow.createOrReuseRow(transformedRow);
-        transformedRow = _fieldExtractor.transform(decodedRow, transformedRow);
+        isDecoded = decodedRow != null;
+        if (isDecoded) {
+          transformedRow = GenericRow.createOrReuseRow(transformedRow);
+          transformedRow = _fieldExtractor.transform(decodedRow, transformedRow);
+        }
+      }
 
+      if (isDecoded) {
         if (transformedRow != null) {
           realtimeRowsConsumedMeter = _serverMetrics
               .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1, realtimeRowsConsumedMeter);
@@ -608,7 +655,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       RealtimeSegmentConverter converter =
           new RealtimeSegmentConverter(_realtimeSegment, tempSegmentFolder.getAbsolutePath(), _schema,
               _segmentZKMetadata.getTableName(), _segmentZKMetadata.getSegmentName(), _sortedColumn,
-              _invertedIndexColumns, _noDictionaryColumns, _starTreeIndexSpec);
+              _invertedIndexColumns, _noDictionaryColumns, _noDictionaryCompressionTypes, _starTreeIndexSpec);
       logStatistics();
       segmentLogger.info("Trying to build segment");
       final long buildStartTime = now();
@@ -853,6 +900,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     } catch (InterruptedException e) {
       segmentLogger.error("Could not stop consumer thread");
     }
+    // Not closed when the consumer thread exits, since catching up to the final offset still decodes messages
+    closePipelinedMessageDecoder();
     _realtimeSegment.destroy();
     try {
       _consumerWrapper.close();
@@ -961,6 +1010,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
     // No dictionary Columns
     _noDictionaryColumns = new ArrayList<>(indexLoadingConfig.getNoDictionaryColumns());
+    _noDictionaryCompressionTypes = indexLoadingConfig.getNoDictionaryCompressionTypes();
 
     // Read the star tree config
     _starTreeIndexSpec = indexingConfig.getStarTreeIndexSpec();
@@ -995,6 +1045,23 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
     // Create field extractor
     _fieldExtractor = FieldExtractorFactory.getPlainFieldExtractor(schema);
+
+    // Create decode stage for pipelined consumption, where each decode thread has its own decoder and field extractor
+    int numDecodeThreads = indexLoadingConfig.getRealtimeNumDecodeThreads();
+    if (numDecodeThreads > 0) {
+      List<KafkaMessageDecoder> messageDecoders = new ArrayList<>(numDecodeThreads);
+      List<PlainFieldExtractor> fieldExtractors = new ArrayList<>(numDecodeThreads);
+      for (int i = 0; i < numDecodeThreads; i++) {
+        messageDecoders.add(_pinotKafkaConsumerFactory.getDecoder(kafkaStreamProviderConfig));
+        fieldExtractors.add(FieldExtractorFactory.getPlainFieldExtractor(schema));
+      }
+      _pipelinedMessageDecoder = new PipelinedMessageDecoder(messageDecoders, fieldExtractors, _segmentNameStr);
+      _fieldExtractors = _pipelinedMessageDecoder.getFieldExtractors();
+      segmentLogger.info("Decoding messages with {} threads ahead of the indexing thread", numDecodeThreads);
+    } else {
+      _pipelinedMessageDecoder = null;
+      _fieldExtractors = Collections.singletonList(_fieldExtractor);
+    }
     makeConsumerWrapper("Starting");
 
     SegmentPartitionConfig segmentPartitionConfig = indexingConfig.getSegmentPartitionConfig();
@@ -1025,29 +1092,45 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     start();
   }
 
+  private void closePipelinedMessageDecoder() {
+    if (_pipelinedMessageDecoder != null) {
+      _pipelinedMessageDecoder.close();
+    }
+  }
+
   private void logStatistics() {
-    int numErrors, numConversions, numNulls, numNullCols;
-    if ((numErrors = _fieldExtractor.getTotalErrors()) > 0) {
+    int numErrors = 0, numConversions = 0, numNulls = 0, numNullCols = 0;
+    Map<String, Integer> errorCount = new HashMap<>();
+    for (PlainFieldExtractor fieldExtractor : _fieldExtractors) {
+      numErrors += fieldExtractor.getTotalErrors();
+      numConversions += fieldExtractor.getTotalConversions();
+      numNulls += fieldExtractor.getTotalNulls();
+      numNullCols += fieldExtractor.getTotalNullCols();
+      for (Map.Entry<String, Integer> entry : fieldExtractor.getErrorCount().entrySet()) {
+        Integer count = errorCount.get(entry.getKey());
+        errorCount.put(entry.getKey(), count == null ? entry.getValue() : count + entry.getValue());
+      }
+    }
+    if (numErrors > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.ROWS_WITH_ERRORS, (long) numErrors);
     }
-    Map<String, Integer> errorCount = _fieldExtractor.getErrorCount();
     for (String column : errorCount.keySet()) {
       if ((numErrors = errorCount.get(column)) > 0) {
         segmentLogger.warn("Column {} had {} rows with errors", column, numErrors);
       }
     }
-    if ((numConversions = _fieldExtractor.getTotalConversions()) > 0) {
+    if (numConversions > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.ROWS_NEEDING_CONVERSIONS, (long) numConversions);
       segmentLogger.info("{} rows needed conversions ", numConversions);
     }
-    if ((numNulls = _fieldExtractor.getTotalNulls()) > 0) {
+    if (numNulls > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.ROWS_WITH_NULL_VALUES, (long) numNulls);
       segmentLogger.info("{} rows had null columns", numNulls);
     }
-    if ((numNullCols = _fieldExtractor.getTotalNullCols()) > 0) {
+    if (numNullCols > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.COLUMNS_WITH_NULL_VALUES, (long) numNullCols);
       segmentLogger.info("{} columns had null values", numNullCols);
@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.data.manager.realtime;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.extractors.PlainFieldExtractor;
+import com.linkedin.pinot.core.realtime.impl.kafka.KafkaMessageDecoder;
+import com.linkedin.pinot.core.realtime.impl.kafka.MessageBatch;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+
+/**
+ * The <code>PipelinedMessageDecoder</code> class is the decode stage of the pipelined consumption in
+ * {@link LLRealtimeSegmentDataManager}.
+ * <p>The messages of a {@link MessageBatch} are split into chunks, which are decoded and transformed into
+ * {@link GenericRow}s by a pool of worker threads. The consuming thread takes the rows in offset order and indexes
+ * them. The chunks are decoded into a bounded ring of reusable chunk buffers, and a buffer is only handed to the next
+ * chunk after the consuming thread is done with it, so the decode stage can be at most one ring ahead of the index
+ * stage.
+ * <p>Message decoders and field extractors are not thread-safe, so each worker has its own.
+ * <p>Except for {@link #getFieldExtractors()}, all methods should be called from the consuming thread only.
+ */
+public class PipelinedMessageDecoder implements Closeable {
+  public static final int CHUNK_SIZE = 64;
+  public static final int RING_BUFFER_SIZE = 4096;
+
+  private final ExecutorService _executorService;
+  private final BlockingQueue<Worker> _idleWorkers;
+  private final List<PlainFieldExtractor> _fieldExtractors;
+  private final Chunk[] _ring;
+  private final AtomicInteger _numMessagesDecoded = new AtomicInteger();
+
+  // State of the current message batch
+  private MessageBatch _messageBatch;
+  private int _numMessages;
+  private int _numChunks;
+  private int _numChunksSubmitted;
+  private int _numMessagesTaken;
+  private volatile boolean _aborted;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param messageDecoders One message decoder for each decode thread
+   * @param fieldExtractors One field extractor for each decode thread
+   * @param threadNamePrefix Prefix of the decode thread names
+   */
+  public PipelinedMessageDecoder(List<KafkaMessageDecoder> messageDecoders, List<PlainFieldExtractor> fieldExtractors,
+      String threadNamePrefix) {
+    int numThreads = messageDecoders.size();
+    _executorService = Executors.newFixedThreadPool(numThreads,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat(threadNamePrefix + "-decoder-%d").build());
+    _idleWorkers = new ArrayBlockingQueue<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      _idleWorkers.add(new Worker(messageDecoders.get(i), fieldExtractors.get(i)));
+    }
+    _fieldExtractors = new ArrayList<>(fieldExtractors);
+    _ring = new Chunk[RING_BUFFER_SIZE / CHUNK_SIZE];
+    for (int i = 0; i < _ring.length; i++) {
+      _ring[i] = new Chunk();
+    }
+  }
+
+  /**
+   * Returns the field extractors of all decode threads, whose counters should be summed up.
+   */
+  public List<PlainFieldExtractor> getFieldExtractors() {
+    return _fieldExtractors;
+  }
+
+  /**
+   * Starts decoding the messages of the given batch. {@link #finishBatch()} must be called once done with the batch.
+   */
+  public void startBatch(MessageBatch messageBatch) {
+    _messageBatch = messageBatch;
+    _numMessages = messageBatch.getMessageCount();
+    _numChunks = (_numMessages + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    _numChunksSubmitted = 0;
+    _numMessagesTaken = 0;
+    _numMessagesDecoded.set(0);
+    _aborted = false;
+    int numChunksToSubmit = Math.min(_numChunks, _ring.length);
+    for (int i = 0; i < numChunksToSubmit; i++) {
+      submitNextChunk();
+    }
+  }
+
+  /**
+   * Takes the row for the message at the given index, blocking until it is decoded. The messages must be taken in
+   * order, and the returned row is only valid until the first message of the next chunk is taken.
+   *
+   * @param index Index of the message in the batch
+   * @return The decoded and transformed row, or null if the message could not be decoded
+   */
+  @Nullable
+  public GenericRow take(int index) throws InterruptedException {
+    int chunkId = index / CHUNK_SIZE;
+    int indexInChunk = index % CHUNK_SIZE;
+    Chunk chunk = _ring[chunkId % _ring.length];
+    if (indexInChunk == 0) {
+      if (chunkId > 0) {
+        // The buffer of the previous chunk is free now, reuse it for the next chunk to decode
+        submitNextChunk();
+      }
+      try {
+        chunk._future.get();
+      } catch (ExecutionException e) {
+        throw new RuntimeException("Caught exception while decoding messages", e.getCause());
+      }
+    }
+    _numMessagesTaken++;
+    return chunk._isDecoded[indexInChunk] ? chunk._transformedRows[indexInChunk] : null;
+  }
+
+  /**
+   * Returns the number of messages in the current batch not decoded yet.
+   */
+  public int getDecodeLag() {
+    return _numMessages - _numMessagesDecoded.get();
+  }
+
+  /**
+   * Returns the number of messages in the current batch decoded but not indexed yet.
+   */
+  public int getIndexLag() {
+    return _numMessagesDecoded.get() - _numMessagesTaken;
+  }
+
+  /**
+   * Finishes the current batch. Decoding of the messages not taken is aborted, and this method waits for the decode
+   * threads to release all the chunk buffers.
+   */
+  public void finishBatch() {
+    _aborted = true;
+    for (Chunk chunk : _ring) {
+      Future future = chunk._future;
+      if (future != null) {
+        try {
+          future.get();
+        } catch (Exception e) {
+          // Ignore exceptions from the messages not taken, they will be fetched again if needed
+        }
+        chunk._future = null;
+      }
+    }
+    _messageBatch = null;
+  }
+
+  @Override
+  public void close() {
+    _executorService.shutdownNow();
+  }
+
+  private void submitNextChunk() {
+    if (_numChunksSubmitted == _numChunks) {
+      return;
+    }
+    final int startIndex = _numChunksSubmitted * CHUNK_SIZE;
+    final int endIndex = Math.min(startIndex + CHUNK_SIZE, _numMessages);
+    final Chunk chunk = _ring[_numChunksSubmitted % _ring.length];
+    final MessageBatch messageBatch = _messageBatch;
+    chunk._future = _executorService.submit(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        decodeChunk(messageBatch, startIndex, endIndex, chunk);
+        return null;
+      }
+    });
+    _numChunksSubmitted++;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void decodeChunk(MessageBatch messageBatch, int startIndex, int endIndex, Chunk chunk)
+      throws InterruptedException {
+    Worker worker = _idleWorkers.take();
+    try {
+      for (int i = startIndex; i < endIndex && !_aborted; i++) {
+        int indexInChunk = i - startIndex;
+        GenericRow decodedRow = worker._messageDecoder.decode(messageBatch.getMessageAtIndex(i),
+            messageBatch.getMessageOffsetAtIndex(i), messageBatch.getMessageLengthAtIndex(i),
+            GenericRow.createOrReuseRow(chunk._decodedRows[indexInChunk]));
+        if (decodedRow != null) {
+          chunk._decodedRows[indexInChunk] = decodedRow;
+          chunk._transformedRows[indexInChunk] = worker._fieldExtractor.transform(decodedRow,
+              GenericRow.createOrReuseRow(chunk._transformedRows[indexInChunk]));
+          chunk._isDecoded[indexInChunk] = true;
+        } else {
+          chunk._isDecoded[indexInChunk] = false;
+        }
+        _numMessagesDecoded.incrementAndGet();
+      }
+    } finally {
+      _idleWorkers.add(worker);
+    }
+  }
+
+  private static class Worker {
+    final KafkaMessageDecoder _messageDecoder;
+    final PlainFieldExtractor _fieldExtractor;
+
+    Worker(KafkaMessageDecoder messageDecoder, PlainFieldExtractor fieldExtractor) {
+      _messageDecoder = messageDecoder;
+      _fieldExtractor = fieldExtractor;
+    }
+  }
+
+  private static class Chunk {
+    final GenericRow[] _decodedRows = new GenericRow[CHUNK_SIZE];
+    final GenericRow[] _transformedRows = new GenericRow[CHUNK_SIZE];
+    final boolean[] _isDecoded = new boolean[CHUNK_SIZE];
+    Future _future;
+  }
+}
@@ -112,7 +112,7 @@ public class RealtimeTableDataManager extends AbstractTableDataManager {
   @Override
   protected void doShutdown() {
     _segmentAsyncExecutorService.shutdown();
-    for (SegmentDataManager segmentDataManager : _segmentsMap.values()) {
+    for (SegmentDataManager segmentDataManager : _segmentsSnapshot.values()) {
       segmentDataManager.destroy();
     }
     KafkaConsumerManager.closeAllConsumers();
@@ -184,9 +184,10 @@ public class RealtimeTableDataManager extends AbstractTableDataManager {
     LoaderUtils.reloadFailureRecovery(indexDir);
     if (indexDir.exists() && (realtimeSegmentZKMetadata.getStatus() == Status.DONE)) {
       // segment already exists on file, and we have committed the realtime segment in ZK. Treat it like an offline segment
-      if (_segmentsMap.containsKey(segmentName)) {
+      SegmentDataManager segmentDataManager = _segmentsSnapshot.get(segmentName);
+      if (segmentDataManager != null) {
         _logger.warn("Got reload for segment already on disk {} table {}, have {}", segmentName, _tableName,
-            _segmentsMap.get(segmentName).getClass().getSimpleName());
+            segmentDataManager.getClass().getSimpleName());
         return;
       }
 
@@ -196,9 +197,10 @@ public class RealtimeTableDataManager extends AbstractTableDataManager {
       // Either we don't have the segment on disk or we have not committed in ZK. We should be starting the consumer
       // for realtime segment here. If we wrote it on disk but could not get to commit to zk yet, we should replace the
       // on-disk segment next time
-      if (_segmentsMap.containsKey(segmentName)) {
+      SegmentDataManager segmentDataManager = _segmentsSnapshot.get(segmentName);
+      if (segmentDataManager != null) {
         _logger.warn("Got reload for segment not on disk {} table {}, have {}", segmentName, _tableName,
-            _segmentsMap.get(segmentName).getClass().getSimpleName());
+            segmentDataManager.getClass().getSimpleName());
         return;
       }
       Schema schema = ZKMetadataProvider.getTableSchema(_propertyStore, _tableName);
@@ -224,12 +226,7 @@ public class RealtimeTableDataManager extends AbstractTableDataManager {
             _indexDir.getAbsolutePath(), indexLoadingConfig, schema, _serverMetrics);
       }
       _logger.info("Initialize RealtimeSegmentDataManager - " + segmentName);
-      try {
-        _rwLock.writeLock().lock();
-        _segmentsMap.put(segmentName, manager);
-      } finally {
-        _rwLock.writeLock().unlock();
-      }
+      putSegmentDataManager(segmentName, manager);
     }
   }
 
@@ -26,8 +26,11 @@ public class ChunkCompressorFactory {
   }
 
   public enum CompressionType {
+    // Values are persisted in the raw index header, so new types must only be appended.
     PASS_THROUGH(0),
-    SNAPPY(1);
+    SNAPPY(1),
+    LZ4(2),
+    DEFLATE(3);
 
     private final int _value;
 
@@ -55,6 +58,12 @@ public class ChunkCompressorFactory {
       case SNAPPY:
         return new SnappyCompressor();
 
+      case LZ4:
+        return new LZ4Compressor();
+
+      case DEFLATE:
+        return new DeflateCompressor();
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -74,6 +83,12 @@ public class ChunkCompressorFactory {
       case SNAPPY:
         return new SnappyDecompressor();
 
+      case LZ4:
+        return new LZ4Decompressor();
+
+      case DEFLATE:
+        return new DeflateDecompressor();
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
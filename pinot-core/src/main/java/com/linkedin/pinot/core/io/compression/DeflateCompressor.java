@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+
+
+/**
+ * Implementation of {@link ChunkCompressor} using DEFLATE at its best compression level. It gives the smallest
+ * chunks at the cost of slower compression and decompression, so it suits cold, bulky raw columns that are rarely
+ * scanned.
+ */
+public class DeflateCompressor implements ChunkCompressor {
+
+  // Compressors are owned by a single writer, so the byte arrays can be reused across chunks.
+  private byte[] _uncompressedBytes = new byte[0];
+  private byte[] _compressedBytes = new byte[0];
+
+  @Override
+  public int compress(ByteBuffer inUncompressed, ByteBuffer outCompressed)
+      throws IOException {
+    int uncompressedSize = inUncompressed.remaining();
+    if (_uncompressedBytes.length < uncompressedSize) {
+      _uncompressedBytes = new byte[uncompressedSize];
+    }
+    inUncompressed.get(_uncompressedBytes, 0, uncompressedSize);
+
+    int maxCompressedSize = outCompressed.remaining();
+    if (_compressedBytes.length < maxCompressedSize) {
+      _compressedBytes = new byte[maxCompressedSize];
+    }
+
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    int compressedSize = 0;
+    try {
+      deflater.setInput(_uncompressedBytes, 0, uncompressedSize);
+      deflater.finish();
+      while (!deflater.finished()) {
+        if (compressedSize == maxCompressedSize) {
+          throw new IOException("Output buffer too small to compress chunk of size: " + uncompressedSize);
+        }
+        compressedSize += deflater.deflate(_compressedBytes, compressedSize, maxCompressedSize - compressedSize);
+      }
+    } finally {
+      deflater.end();
+    }
+    outCompressed.put(_compressedBytes, 0, compressedSize);
+
+    // Make the output ByteBuffer read for read.
+    outCompressed.flip();
+    return compressedSize;
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import net.jpountz.lz4.LZ4Factory;
+
+
+/**
+ * Implementation of {@link ChunkCompressor} using LZ4, which trades some compression ratio for faster decompression
+ * than Snappy. Suited for frequently scanned raw columns.
+ */
+public class LZ4Compressor implements ChunkCompressor {
+  private static final net.jpountz.lz4.LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+
+  // Compressors are owned by a single writer, so the byte arrays can be reused across chunks.
+  private byte[] _uncompressedBytes = new byte[0];
+  private byte[] _compressedBytes = new byte[0];
+
+  @Override
+  public int compress(ByteBuffer inUncompressed, ByteBuffer outCompressed)
+      throws IOException {
+    int uncompressedSize = inUncompressed.remaining();
+    if (_uncompressedBytes.length < uncompressedSize) {
+      _uncompressedBytes = new byte[uncompressedSize];
+    }
+    inUncompressed.get(_uncompressedBytes, 0, uncompressedSize);
+
+    int maxCompressedSize = COMPRESSOR.maxCompressedLength(uncompressedSize);
+    if (_compressedBytes.length < maxCompressedSize) {
+      _compressedBytes = new byte[maxCompressedSize];
+    }
+    int compressedSize =
+        COMPRESSOR.compress(_uncompressedBytes, 0, uncompressedSize, _compressedBytes, 0, maxCompressedSize);
+    outCompressed.put(_compressedBytes, 0, compressedSize);
+
+    // Make the output ByteBuffer read for read.
+    outCompressed.flip();
+    return compressedSize;
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+
+/**
+ * Implementation of {@link ChunkDecompressor} using LZ4.
+ */
+public class LZ4Decompressor implements ChunkDecompressor {
+  private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+  // Decompressors are shared by all threads reading the same column, so the byte arrays are thread local.
+  private static final ThreadLocal<byte[]> COMPRESSED_BYTES = new ThreadLocal<byte[]>() {
+    @Override
+    protected byte[] initialValue() {
+      return new byte[0];
+    }
+  };
+  private static final ThreadLocal<byte[]> DECOMPRESSED_BYTES = new ThreadLocal<byte[]>() {
+    @Override
+    protected byte[] initialValue() {
+      return new byte[0];
+    }
+  };
+
+  @Override
+  public int decompress(ByteBuffer inCompressed, ByteBuffer outDecompressed)
+      throws IOException {
+    int compressedSize = inCompressed.remaining();
+    byte[] compressedBytes = getBytes(COMPRESSED_BYTES, compressedSize);
+    inCompressed.get(compressedBytes, 0, compressedSize);
+
+    int maxDecompressedSize = outDecompressed.remaining();
+    byte[] decompressedBytes = getBytes(DECOMPRESSED_BYTES, maxDecompressedSize);
+    int decompressedSize;
+    try {
+      decompressedSize =
+          DECOMPRESSOR.decompress(compressedBytes, 0, compressedSize, decompressedBytes, 0, maxDecompressedSize);
+    } catch (LZ4Exception e) {
+      throw new IOException("Caught exception while decompressing LZ4 chunk", e);
+    }
+    outDecompressed.put(decompressedBytes, 0, decompressedSize);
+
+    // Make the output ByteBuffer read for read.
+    outDecompressed.flip();
+    return decompressedSize;
+  }
+
+  private static byte[] getBytes(ThreadLocal<byte[]> threadLocalBytes, int size) {
+    byte[] bytes = threadLocalBytes.get();
+    if (bytes.length < size) {
+      bytes = new byte[size];
+      threadLocalBytes.set(bytes);
+    }
+    return bytes;
+  }
+}
@@ -29,6 +29,9 @@ public class PassThroughDecompressor implements ChunkDecompressor {
   public int decompress(ByteBuffer inCompressed, ByteBuffer outDecompressed)
       throws IOException {
     outDecompressed.put(inCompressed);
-    return inCompressed.limit();
+
+    // Make the output ByteBuffer read for read.
+    outDecompressed.flip();
+    return outDecompressed.limit();
   }
 }
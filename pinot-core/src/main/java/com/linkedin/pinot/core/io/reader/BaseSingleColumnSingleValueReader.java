@@ -92,4 +92,39 @@ public abstract class BaseSingleColumnSingleValueReader<T extends ReaderContext>
   public void readValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos) {
     throw new UnsupportedOperationException("not supported");
   }
+
+  @Override
+  public void readIntValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos, T context) {
+    int rowEndPos = rowStartPos + rowSize;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      values[valuesStartPos++] = getInt(rows[i], context);
+    }
+  }
+
+  @Override
+  public void readLongValues(int[] rows, int rowStartPos, int rowSize, long[] values, int valuesStartPos,
+      T context) {
+    int rowEndPos = rowStartPos + rowSize;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      values[valuesStartPos++] = getLong(rows[i], context);
+    }
+  }
+
+  @Override
+  public void readFloatValues(int[] rows, int rowStartPos, int rowSize, float[] values, int valuesStartPos,
+      T context) {
+    int rowEndPos = rowStartPos + rowSize;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      values[valuesStartPos++] = getFloat(rows[i], context);
+    }
+  }
+
+  @Override
+  public void readDoubleValues(int[] rows, int rowStartPos, int rowSize, double[] values, int valuesStartPos,
+      T context) {
+    int rowEndPos = rowStartPos + rowSize;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      values[valuesStartPos++] = getDouble(rows[i], context);
+    }
+  }
 }
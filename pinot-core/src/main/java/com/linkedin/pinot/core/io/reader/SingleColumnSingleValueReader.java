@@ -84,4 +84,22 @@ public interface SingleColumnSingleValueReader<T extends ReaderContext> extends
   byte[] getBytes(int row);
 
   void readValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos);
+
+  /**
+   * Batch read the int values for the given rows, where the reader context is shared by all the rows.
+   *
+   * @param rows Rows (sorted) to read
+   * @param rowStartPos Start position in the row array
+   * @param rowSize Number of rows to read
+   * @param values Array to store the values
+   * @param valuesStartPos Start position in the value array
+   * @param context Reader context
+   */
+  void readIntValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos, T context);
+
+  void readLongValues(int[] rows, int rowStartPos, int rowSize, long[] values, int valuesStartPos, T context);
+
+  void readFloatValues(int[] rows, int rowStartPos, int rowSize, float[] values, int valuesStartPos, T context);
+
+  void readDoubleValues(int[] rows, int rowStartPos, int rowSize, double[] values, int valuesStartPos, T context);
 }
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.reader.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+
+/**
+ * Server-wide, size bounded cache of decompressed chunks for the raw (no-dictionary) forward indexes.
+ * <p>Without the cache, each query decompresses the chunks it reads into its own {@link ChunkReaderContext}, so
+ * concurrent queries over the same hot raw columns decompress the same chunks again and again.
+ * <ul>
+ *   <li> Decompressed chunks are stored on heap, bounded by the total size in bytes. Heap buffers are released as soon
+ *   as they are evicted, while direct buffers are only freed once garbage collected, which does not bound the actual
+ *   off-heap usage. </li>
+ *   <li> Chunks are keyed by the owner (one id per loaded segment column, see {@link #newOwnerId()}) and chunk id.
+ *   Using an id per loaded forward index instead of the segment name guarantees that a refreshed segment never reads
+ *   the chunks of the segment it replaces. </li>
+ *   <li> The keys of the cached chunks are also tracked per owner, so that {@link #invalidate(long)} only visits the
+ *   chunks of the owner when the segment is unloaded. </li>
+ * </ul>
+ * <p>Cached buffers are shared between threads, and should only be read through {@link ByteBuffer#duplicate()}.
+ */
+public class ChunkCache {
+  private static final AtomicLong NEXT_OWNER_ID = new AtomicLong();
+
+  private final Cache<ChunkKey, ByteBuffer> _cache;
+  private final Map<Long, Set<ChunkKey>> _ownerKeysMap = new ConcurrentHashMap<>();
+  private final AtomicLong _sizeInBytes = new AtomicLong();
+
+  public ChunkCache(long maxSizeInBytes) {
+    _cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxSizeInBytes)
+        .weigher(new Weigher<ChunkKey, ByteBuffer>() {
+          @Override
+          public int weigh(ChunkKey key, ByteBuffer value) {
+            return value.capacity();
+          }
+        })
+        .removalListener(new RemovalListener<ChunkKey, ByteBuffer>() {
+          @Override
+          public void onRemoval(RemovalNotification<ChunkKey, ByteBuffer> notification) {
+            // A replaced chunk is still cached under the same key
+            if (notification.getCause() != RemovalCause.REPLACED) {
+              ChunkKey key = notification.getKey();
+              Set<ChunkKey> ownerKeys = _ownerKeysMap.get(key._ownerId);
+              if (ownerKeys != null) {
+                ownerKeys.remove(key);
+              }
+            }
+            _sizeInBytes.addAndGet(-notification.getValue().capacity());
+          }
+        })
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Returns a new unique id to identify the chunks of one loaded forward index.
+   */
+  public static long newOwnerId() {
+    return NEXT_OWNER_ID.getAndIncrement();
+  }
+
+  /**
+   * Returns the cached decompressed chunk, or null if it is not cached.
+   */
+  @Nullable
+  public ByteBuffer get(long ownerId, int chunkId) {
+    return _cache.getIfPresent(new ChunkKey(ownerId, chunkId));
+  }
+
+  /**
+   * Caches a copy of the decompressed chunk (from position 0 to limit) and returns the cached buffer.
+   */
+  public ByteBuffer put(long ownerId, int chunkId, ByteBuffer decompressedChunk) {
+    ByteBuffer source = decompressedChunk.duplicate();
+    source.position(0);
+    ByteBuffer cachedChunk = ByteBuffer.allocate(source.limit());
+    cachedChunk.put(source);
+    cachedChunk.flip();
+
+    ChunkKey key = new ChunkKey(ownerId, chunkId);
+    Set<ChunkKey> ownerKeys = _ownerKeysMap.get(ownerId);
+    if (ownerKeys == null) {
+      _ownerKeysMap.putIfAbsent(ownerId, Collections.newSetFromMap(new ConcurrentHashMap<ChunkKey, Boolean>()));
+      ownerKeys = _ownerKeysMap.get(ownerId);
+    }
+    ownerKeys.add(key);
+    _sizeInBytes.addAndGet(cachedChunk.capacity());
+    _cache.put(key, cachedChunk);
+    return cachedChunk;
+  }
+
+  /**
+   * Evicts all the chunks of the given owner, e.g. when the segment is unloaded.
+   */
+  public void invalidate(long ownerId) {
+    Set<ChunkKey> ownerKeys = _ownerKeysMap.remove(ownerId);
+    if (ownerKeys != null) {
+      _cache.invalidateAll(ownerKeys);
+    }
+  }
+
+  /**
+   * Returns the total size in bytes of the cached chunks.
+   */
+  public long getSizeInBytes() {
+    return _sizeInBytes.get();
+  }
+
+  /**
+   * Returns the ratio of lookups served by the cache, 1.0 if there is no lookup yet.
+   */
+  public double getHitRatio() {
+    return _cache.stats().hitRate();
+  }
+
+  private static final class ChunkKey {
+    private final long _ownerId;
+    private final int _chunkId;
+
+    ChunkKey(long ownerId, int chunkId) {
+      _ownerId = ownerId;
+      _chunkId = chunkId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ChunkKey)) {
+        return false;
+      }
+      ChunkKey that = (ChunkKey) o;
+      return _ownerId == that._ownerId && _chunkId == that._chunkId;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (int) (_ownerId ^ (_ownerId >>> 32)) + _chunkId;
+    }
+  }
+}
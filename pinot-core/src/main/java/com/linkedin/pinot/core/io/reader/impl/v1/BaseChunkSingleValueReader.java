@@ -18,10 +18,12 @@ package com.linkedin.pinot.core.io.reader.impl.v1;
 import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.io.compression.ChunkDecompressor;
 import com.linkedin.pinot.core.io.reader.BaseSingleColumnSingleValueReader;
+import com.linkedin.pinot.core.io.reader.impl.ChunkCache;
 import com.linkedin.pinot.core.io.reader.impl.ChunkReaderContext;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +47,8 @@ public abstract class BaseChunkSingleValueReader extends BaseSingleColumnSingleV
   private final PinotDataBuffer _rawData;
   private final boolean _isCompressed;
   protected ChunkDecompressor _chunkDecompressor;
+  private final ChunkCache _chunkCache;
+  private final long _chunkCacheOwnerId;
 
   protected final int _numDocsPerChunk;
   protected final int _numChunks;
@@ -56,6 +60,16 @@ public abstract class BaseChunkSingleValueReader extends BaseSingleColumnSingleV
    * @param pinotDataBuffer Data buffer
    */
   public BaseChunkSingleValueReader(PinotDataBuffer pinotDataBuffer) {
+    this(pinotDataBuffer, null);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param pinotDataBuffer Data buffer
+   * @param chunkCache Optional server-wide cache for decompressed chunks, shared by concurrent queries
+   */
+  public BaseChunkSingleValueReader(PinotDataBuffer pinotDataBuffer, @Nullable ChunkCache chunkCache) {
     _dataBuffer = pinotDataBuffer;
 
     int headerOffset = 0;
@@ -97,18 +111,26 @@ public abstract class BaseChunkSingleValueReader extends BaseSingleColumnSingleV
 
     // Useful for uncompressed data.
     _rawData = _dataBuffer.view(rawDataStart, _dataBuffer.size());
+
+    // Uncompressed chunks are read directly from the data buffer, no need to cache them.
+    _chunkCache = _isCompressed ? chunkCache : null;
+    _chunkCacheOwnerId = (_chunkCache != null) ? ChunkCache.newOwnerId() : -1;
   }
 
   @Override
   public void close() {
-    // Nothing to close here.
+    // Evict the decompressed chunks of this reader.
+    if (_chunkCache != null) {
+      _chunkCache.invalidate(_chunkCacheOwnerId);
+    }
   }
 
   /**
    * Helper method to get the chunk for a given row.
    * <ul>
    *   <li> If the chunk already exists in the reader context, returns the same. </li>
-   *   <li> Otherwise, loads the chunk for the row, and sets it in the reader context. </li>
+   *   <li> If the chunk exists in the chunk cache, sets a duplicate of the cached chunk in the reader context. </li>
+   *   <li> Otherwise, loads the chunk for the row, and sets it in the reader context (and the chunk cache). </li>
    * </ul>
    * @param row Row for which to get the chunk
    * @param context Reader context
@@ -120,6 +142,30 @@ public abstract class BaseChunkSingleValueReader extends BaseSingleColumnSingleV
       return context.getChunkBuffer();
     }
 
+    if (_chunkCache != null) {
+      ByteBuffer cachedChunk = _chunkCache.get(_chunkCacheOwnerId, chunkId);
+      if (cachedChunk == null) {
+        cachedChunk = _chunkCache.put(_chunkCacheOwnerId, chunkId, decompressChunk(chunkId, context));
+      }
+      // Duplicate so that the position of the shared buffer is never modified.
+      ByteBuffer chunkBuffer = cachedChunk.duplicate();
+      context.setChunkBuffer(chunkId, chunkBuffer);
+      return chunkBuffer;
+    }
+
+    ByteBuffer decompressedBuffer = decompressChunk(chunkId, context);
+    context.setChunkBuffer(chunkId, decompressedBuffer);
+    return decompressedBuffer;
+  }
+
+  /**
+   * Helper method to decompress a chunk into the decompression buffer of the reader context.
+   *
+   * @param chunkId Id of the chunk to decompress
+   * @param context Reader context
+   * @return Decompression buffer containing the chunk
+   */
+  private ByteBuffer decompressChunk(int chunkId, ChunkReaderContext context) {
     int chunkSize;
     int chunkPosition = getChunkPosition(chunkId);
 
@@ -131,7 +177,7 @@ public abstract class BaseChunkSingleValueReader extends BaseSingleColumnSingleV
       chunkSize = nextChunkOffset - chunkPosition;
     }
 
-    ByteBuffer decompressedBuffer = context.getChunkBuffer();
+    ByteBuffer decompressedBuffer = context.getDecompressionBuffer();
     decompressedBuffer.clear();
 
     try {
@@ -140,7 +186,6 @@ public abstract class BaseChunkSingleValueReader extends BaseSingleColumnSingleV
       LOGGER.error("Exception caught while decompressing data chunk", e);
       throw new RuntimeException(e);
     }
-    context.setChunkId(chunkId);
     return decompressedBuffer;
   }
 
@@ -40,10 +40,28 @@ public final class FixedBitSingleValueReader extends BaseSingleColumnSingleValue
 
   @Override
   public void readValues(int[] rows, int rowsStartIndex, int rowSize, int[] values, int valuesStartIndex) {
+    if (rowSize == 0) {
+      return;
+    }
     int rowsEndIndex = rowsStartIndex + rowSize;
-    for (int i = rowsStartIndex; i < rowsEndIndex; i++) {
-      values[valuesStartIndex++] = getInt(rows[i]);
+    if (isContiguous(rows, rowsStartIndex, rowsEndIndex)) {
+      // Bulk read for contiguous rows (e.g. full scan or large doc id ranges)
+      _reader.readInt(rows[rowsStartIndex], rowSize, values, valuesStartIndex);
+    } else {
+      for (int i = rowsStartIndex; i < rowsEndIndex; i++) {
+        values[valuesStartIndex++] = getInt(rows[i]);
+      }
+    }
+  }
+
+  private static boolean isContiguous(int[] rows, int rowsStartIndex, int rowsEndIndex) {
+    int expectedRow = rows[rowsStartIndex];
+    for (int i = rowsStartIndex + 1; i < rowsEndIndex; i++) {
+      if (rows[i] != ++expectedRow) {
+        return false;
+      }
     }
+    return true;
   }
 
   @Override
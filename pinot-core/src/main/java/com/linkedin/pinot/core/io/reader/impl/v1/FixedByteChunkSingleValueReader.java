@@ -15,11 +15,13 @@
  */
 package com.linkedin.pinot.core.io.reader.impl.v1;
 
+import com.linkedin.pinot.core.io.reader.impl.ChunkCache;
 import com.linkedin.pinot.core.io.reader.impl.ChunkReaderContext;
 import com.linkedin.pinot.core.io.writer.impl.v1.FixedByteChunkSingleValueWriter;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import javax.annotation.Nullable;
 
 
 /**
@@ -37,7 +39,19 @@ public class FixedByteChunkSingleValueReader extends BaseChunkSingleValueReader
    */
   public FixedByteChunkSingleValueReader(PinotDataBuffer pinotDataBuffer)
       throws IOException {
-    super(pinotDataBuffer);
+    this(pinotDataBuffer, null);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param pinotDataBuffer Data buffer to read from
+   * @param chunkCache Optional server-wide cache for decompressed chunks
+   * @throws IOException
+   */
+  public FixedByteChunkSingleValueReader(PinotDataBuffer pinotDataBuffer, @Nullable ChunkCache chunkCache)
+      throws IOException {
+    super(pinotDataBuffer, chunkCache);
   }
 
   @Override
@@ -108,6 +122,86 @@ public class FixedByteChunkSingleValueReader extends BaseChunkSingleValueReader
     return chunkBuffer.getDouble(chunkRowId * DOUBLE_SIZE);
   }
 
+  @Override
+  public void readIntValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos,
+      ChunkReaderContext context) {
+    assert _lengthOfLongestEntry == INT_SIZE;
+    int rowEndPos = rowStartPos + rowSize;
+    int chunkStartRow = 0;
+    int chunkEndRow = 0;
+    ByteBuffer chunkBuffer = null;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      int row = rows[i];
+      // Only look up the chunk when the row is not in the current one
+      if (row < chunkStartRow || row >= chunkEndRow) {
+        chunkStartRow = row - row % _numDocsPerChunk;
+        chunkEndRow = chunkStartRow + _numDocsPerChunk;
+        chunkBuffer = getChunkForRow(row, context);
+      }
+      values[valuesStartPos++] = chunkBuffer.getInt((row - chunkStartRow) * INT_SIZE);
+    }
+  }
+
+  @Override
+  public void readLongValues(int[] rows, int rowStartPos, int rowSize, long[] values, int valuesStartPos,
+      ChunkReaderContext context) {
+    assert _lengthOfLongestEntry == LONG_SIZE;
+    int rowEndPos = rowStartPos + rowSize;
+    int chunkStartRow = 0;
+    int chunkEndRow = 0;
+    ByteBuffer chunkBuffer = null;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      int row = rows[i];
+      // Only look up the chunk when the row is not in the current one
+      if (row < chunkStartRow || row >= chunkEndRow) {
+        chunkStartRow = row - row % _numDocsPerChunk;
+        chunkEndRow = chunkStartRow + _numDocsPerChunk;
+        chunkBuffer = getChunkForRow(row, context);
+      }
+      values[valuesStartPos++] = chunkBuffer.getLong((row - chunkStartRow) * LONG_SIZE);
+    }
+  }
+
+  @Override
+  public void readFloatValues(int[] rows, int rowStartPos, int rowSize, float[] values, int valuesStartPos,
+      ChunkReaderContext context) {
+    assert _lengthOfLongestEntry == FLOAT_SIZE;
+    int rowEndPos = rowStartPos + rowSize;
+    int chunkStartRow = 0;
+    int chunkEndRow = 0;
+    ByteBuffer chunkBuffer = null;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      int row = rows[i];
+      // Only look up the chunk when the row is not in the current one
+      if (row < chunkStartRow || row >= chunkEndRow) {
+        chunkStartRow = row - row % _numDocsPerChunk;
+        chunkEndRow = chunkStartRow + _numDocsPerChunk;
+        chunkBuffer = getChunkForRow(row, context);
+      }
+      values[valuesStartPos++] = chunkBuffer.getFloat((row - chunkStartRow) * FLOAT_SIZE);
+    }
+  }
+
+  @Override
+  public void readDoubleValues(int[] rows, int rowStartPos, int rowSize, double[] values, int valuesStartPos,
+      ChunkReaderContext context) {
+    assert _lengthOfLongestEntry == DOUBLE_SIZE;
+    int rowEndPos = rowStartPos + rowSize;
+    int chunkStartRow = 0;
+    int chunkEndRow = 0;
+    ByteBuffer chunkBuffer = null;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      int row = rows[i];
+      // Only look up the chunk when the row is not in the current one
+      if (row < chunkStartRow || row >= chunkEndRow) {
+        chunkStartRow = row - row % _numDocsPerChunk;
+        chunkEndRow = chunkStartRow + _numDocsPerChunk;
+        chunkBuffer = getChunkForRow(row, context);
+      }
+      values[valuesStartPos++] = chunkBuffer.getDouble((row - chunkStartRow) * DOUBLE_SIZE);
+    }
+  }
+
   @Override
   public ChunkReaderContext createContext() {
     return new ChunkReaderContext(_chunkSize);
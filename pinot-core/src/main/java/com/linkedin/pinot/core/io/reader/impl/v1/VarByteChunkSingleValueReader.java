@@ -15,12 +15,14 @@
  */
 package com.linkedin.pinot.core.io.reader.impl.v1;
 
+import com.linkedin.pinot.core.io.reader.impl.ChunkCache;
 import com.linkedin.pinot.core.io.reader.impl.ChunkReaderContext;
 import com.linkedin.pinot.core.io.writer.impl.v1.VarByteChunkSingleValueWriter;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import javax.annotation.Nullable;
 
 
 /**
@@ -47,7 +49,19 @@ public class VarByteChunkSingleValueReader extends BaseChunkSingleValueReader {
    */
   public VarByteChunkSingleValueReader(PinotDataBuffer pinotDataBuffer)
       throws IOException {
-    super(pinotDataBuffer);
+    this(pinotDataBuffer, null);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param pinotDataBuffer Data buffer to read from
+   * @param chunkCache Optional server-wide cache for decompressed chunks
+   * @throws IOException
+   */
+  public VarByteChunkSingleValueReader(PinotDataBuffer pinotDataBuffer, @Nullable ChunkCache chunkCache)
+      throws IOException {
+    super(pinotDataBuffer, chunkCache);
 
     int chunkHeaderSize = _numDocsPerChunk * INT_SIZE;
     _maxChunkSize = chunkHeaderSize + (_lengthOfLongestEntry * _numDocsPerChunk);
@@ -93,6 +93,41 @@ public abstract class BaseSingleColumnSingleValueReaderWriter<T extends ReaderCo
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void readIntValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos, T context) {
+    int rowEndPos = rowStartPos + rowSize;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      values[valuesStartPos++] = getInt(rows[i], context);
+    }
+  }
+
+  @Override
+  public void readLongValues(int[] rows, int rowStartPos, int rowSize, long[] values, int valuesStartPos,
+      T context) {
+    int rowEndPos = rowStartPos + rowSize;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      values[valuesStartPos++] = getLong(rows[i], context);
+    }
+  }
+
+  @Override
+  public void readFloatValues(int[] rows, int rowStartPos, int rowSize, float[] values, int valuesStartPos,
+      T context) {
+    int rowEndPos = rowStartPos + rowSize;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      values[valuesStartPos++] = getFloat(rows[i], context);
+    }
+  }
+
+  @Override
+  public void readDoubleValues(int[] rows, int rowStartPos, int rowSize, double[] values, int valuesStartPos,
+      T context) {
+    int rowEndPos = rowStartPos + rowSize;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      values[valuesStartPos++] = getDouble(rows[i], context);
+    }
+  }
+
   @Override
   public T createContext() {
     return null;
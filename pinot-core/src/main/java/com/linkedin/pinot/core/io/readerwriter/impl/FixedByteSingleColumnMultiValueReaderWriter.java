@@ -261,8 +261,16 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
 
   @Override
   public void setIntArray(int row, int[] intArray) {
-    int newStartIndex = updateHeader(row, intArray.length);
-    for (int i = 0; i < intArray.length; i++) {
+    setIntArray(row, intArray, intArray.length);
+  }
+
+  /**
+   * Sets the first <code>numValues</code> values of the int array for the given row, which allows the caller to reuse
+   * the array across rows.
+   */
+  public void setIntArray(int row, int[] intArray, int numValues) {
+    int newStartIndex = updateHeader(row, numValues);
+    for (int i = 0; i < numValues; i++) {
       _currentDataWriter.setInt(newStartIndex + i, 0, intArray[i]);
     }
   }
@@ -0,0 +1,1262 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.util;
+
+/**
+ * The <code>FixedBitIntUnpacker</code> class provides bulk unpacking of 32 bit-packed values at a time, with one
+ * specialized routine for each number of bits per value (1-32).
+ * <p>The values are packed in the same bit order as {@link PinotDataBitSet}, where the first value is in the highest
+ * bits of the first packed int. 32 values with N bits per value always take exactly N packed ints.
+ * <p>Each routine is straight-line code with constant shifts and masks and no branches, which decodes much faster than
+ * computing the bit offset for each value.
+ */
+public final class FixedBitIntUnpacker {
+  public static final int NUM_VALUES_PER_UNPACK = 32;
+
+  private FixedBitIntUnpacker() {
+  }
+
+  /**
+   * Unpack 32 values from the packed ints.
+   *
+   * @param numBitsPerValue Number of bits per value (1-32)
+   * @param packed Packed ints, where only the first numBitsPerValue ints are used
+   * @param values Buffer for the unpacked values
+   * @param valuesStartIndex Start index in the values buffer
+   */
+  public static void unpack(int numBitsPerValue, int[] packed, int[] values, int valuesStartIndex) {
+    switch (numBitsPerValue) {
+      case 1:
+        unpack1(packed, values, valuesStartIndex);
+        return;
+      case 2:
+        unpack2(packed, values, valuesStartIndex);
+        return;
+      case 3:
+        unpack3(packed, values, valuesStartIndex);
+        return;
+      case 4:
+        unpack4(packed, values, valuesStartIndex);
+        return;
+      case 5:
+        unpack5(packed, values, valuesStartIndex);
+        return;
+      case 6:
+        unpack6(packed, values, valuesStartIndex);
+        return;
+      case 7:
+        unpack7(packed, values, valuesStartIndex);
+        return;
+      case 8:
+        unpack8(packed, values, valuesStartIndex);
+        return;
+      case 9:
+        unpack9(packed, values, valuesStartIndex);
+        return;
+      case 10:
+        unpack10(packed, values, valuesStartIndex);
+        return;
+      case 11:
+        unpack11(packed, values, valuesStartIndex);
+        return;
+      case 12:
+        unpack12(packed, values, valuesStartIndex);
+        return;
+      case 13:
+        unpack13(packed, values, valuesStartIndex);
+        return;
+      case 14:
+        unpack14(packed, values, valuesStartIndex);
+        return;
+      case 15:
+        unpack15(packed, values, valuesStartIndex);
+        return;
+      case 16:
+        unpack16(packed, values, valuesStartIndex);
+        return;
+      case 17:
+        unpack17(packed, values, valuesStartIndex);
+        return;
+      case 18:
+        unpack18(packed, values, valuesStartIndex);
+        return;
+      case 19:
+        unpack19(packed, values, valuesStartIndex);
+        return;
+      case 20:
+        unpack20(packed, values, valuesStartIndex);
+        return;
+      case 21:
+        unpack21(packed, values, valuesStartIndex);
+        return;
+      case 22:
+        unpack22(packed, values, valuesStartIndex);
+        return;
+      case 23:
+        unpack23(packed, values, valuesStartIndex);
+        return;
+      case 24:
+        unpack24(packed, values, valuesStartIndex);
+        return;
+      case 25:
+        unpack25(packed, values, valuesStartIndex);
+        return;
+      case 26:
+        unpack26(packed, values, valuesStartIndex);
+        return;
+      case 27:
+        unpack27(packed, values, valuesStartIndex);
+        return;
+      case 28:
+        unpack28(packed, values, valuesStartIndex);
+        return;
+      case 29:
+        unpack29(packed, values, valuesStartIndex);
+        return;
+      case 30:
+        unpack30(packed, values, valuesStartIndex);
+        return;
+      case 31:
+        unpack31(packed, values, valuesStartIndex);
+        return;
+      case 32:
+        unpack32(packed, values, valuesStartIndex);
+        return;
+      default:
+        throw new IllegalArgumentException("Unsupported number of bits per value: " + numBitsPerValue);
+    }
+  }
+
+  private static void unpack1(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 31;
+    values[i + 1] = (packed[0] >>> 30) & 0x1;
+    values[i + 2] = (packed[0] >>> 29) & 0x1;
+    values[i + 3] = (packed[0] >>> 28) & 0x1;
+    values[i + 4] = (packed[0] >>> 27) & 0x1;
+    values[i + 5] = (packed[0] >>> 26) & 0x1;
+    values[i + 6] = (packed[0] >>> 25) & 0x1;
+    values[i + 7] = (packed[0] >>> 24) & 0x1;
+    values[i + 8] = (packed[0] >>> 23) & 0x1;
+    values[i + 9] = (packed[0] >>> 22) & 0x1;
+    values[i + 10] = (packed[0] >>> 21) & 0x1;
+    values[i + 11] = (packed[0] >>> 20) & 0x1;
+    values[i + 12] = (packed[0] >>> 19) & 0x1;
+    values[i + 13] = (packed[0] >>> 18) & 0x1;
+    values[i + 14] = (packed[0] >>> 17) & 0x1;
+    values[i + 15] = (packed[0] >>> 16) & 0x1;
+    values[i + 16] = (packed[0] >>> 15) & 0x1;
+    values[i + 17] = (packed[0] >>> 14) & 0x1;
+    values[i + 18] = (packed[0] >>> 13) & 0x1;
+    values[i + 19] = (packed[0] >>> 12) & 0x1;
+    values[i + 20] = (packed[0] >>> 11) & 0x1;
+    values[i + 21] = (packed[0] >>> 10) & 0x1;
+    values[i + 22] = (packed[0] >>> 9) & 0x1;
+    values[i + 23] = (packed[0] >>> 8) & 0x1;
+    values[i + 24] = (packed[0] >>> 7) & 0x1;
+    values[i + 25] = (packed[0] >>> 6) & 0x1;
+    values[i + 26] = (packed[0] >>> 5) & 0x1;
+    values[i + 27] = (packed[0] >>> 4) & 0x1;
+    values[i + 28] = (packed[0] >>> 3) & 0x1;
+    values[i + 29] = (packed[0] >>> 2) & 0x1;
+    values[i + 30] = (packed[0] >>> 1) & 0x1;
+    values[i + 31] = packed[0] & 0x1;
+  }
+
+  private static void unpack2(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 30;
+    values[i + 1] = (packed[0] >>> 28) & 0x3;
+    values[i + 2] = (packed[0] >>> 26) & 0x3;
+    values[i + 3] = (packed[0] >>> 24) & 0x3;
+    values[i + 4] = (packed[0] >>> 22) & 0x3;
+    values[i + 5] = (packed[0] >>> 20) & 0x3;
+    values[i + 6] = (packed[0] >>> 18) & 0x3;
+    values[i + 7] = (packed[0] >>> 16) & 0x3;
+    values[i + 8] = (packed[0] >>> 14) & 0x3;
+    values[i + 9] = (packed[0] >>> 12) & 0x3;
+    values[i + 10] = (packed[0] >>> 10) & 0x3;
+    values[i + 11] = (packed[0] >>> 8) & 0x3;
+    values[i + 12] = (packed[0] >>> 6) & 0x3;
+    values[i + 13] = (packed[0] >>> 4) & 0x3;
+    values[i + 14] = (packed[0] >>> 2) & 0x3;
+    values[i + 15] = packed[0] & 0x3;
+    values[i + 16] = packed[1] >>> 30;
+    values[i + 17] = (packed[1] >>> 28) & 0x3;
+    values[i + 18] = (packed[1] >>> 26) & 0x3;
+    values[i + 19] = (packed[1] >>> 24) & 0x3;
+    values[i + 20] = (packed[1] >>> 22) & 0x3;
+    values[i + 21] = (packed[1] >>> 20) & 0x3;
+    values[i + 22] = (packed[1] >>> 18) & 0x3;
+    values[i + 23] = (packed[1] >>> 16) & 0x3;
+    values[i + 24] = (packed[1] >>> 14) & 0x3;
+    values[i + 25] = (packed[1] >>> 12) & 0x3;
+    values[i + 26] = (packed[1] >>> 10) & 0x3;
+    values[i + 27] = (packed[1] >>> 8) & 0x3;
+    values[i + 28] = (packed[1] >>> 6) & 0x3;
+    values[i + 29] = (packed[1] >>> 4) & 0x3;
+    values[i + 30] = (packed[1] >>> 2) & 0x3;
+    values[i + 31] = packed[1] & 0x3;
+  }
+
+  private static void unpack3(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 29;
+    values[i + 1] = (packed[0] >>> 26) & 0x7;
+    values[i + 2] = (packed[0] >>> 23) & 0x7;
+    values[i + 3] = (packed[0] >>> 20) & 0x7;
+    values[i + 4] = (packed[0] >>> 17) & 0x7;
+    values[i + 5] = (packed[0] >>> 14) & 0x7;
+    values[i + 6] = (packed[0] >>> 11) & 0x7;
+    values[i + 7] = (packed[0] >>> 8) & 0x7;
+    values[i + 8] = (packed[0] >>> 5) & 0x7;
+    values[i + 9] = (packed[0] >>> 2) & 0x7;
+    values[i + 10] = ((packed[0] & 0x3) << 1) | (packed[1] >>> 31);
+    values[i + 11] = (packed[1] >>> 28) & 0x7;
+    values[i + 12] = (packed[1] >>> 25) & 0x7;
+    values[i + 13] = (packed[1] >>> 22) & 0x7;
+    values[i + 14] = (packed[1] >>> 19) & 0x7;
+    values[i + 15] = (packed[1] >>> 16) & 0x7;
+    values[i + 16] = (packed[1] >>> 13) & 0x7;
+    values[i + 17] = (packed[1] >>> 10) & 0x7;
+    values[i + 18] = (packed[1] >>> 7) & 0x7;
+    values[i + 19] = (packed[1] >>> 4) & 0x7;
+    values[i + 20] = (packed[1] >>> 1) & 0x7;
+    values[i + 21] = ((packed[1] & 0x1) << 2) | (packed[2] >>> 30);
+    values[i + 22] = (packed[2] >>> 27) & 0x7;
+    values[i + 23] = (packed[2] >>> 24) & 0x7;
+    values[i + 24] = (packed[2] >>> 21) & 0x7;
+    values[i + 25] = (packed[2] >>> 18) & 0x7;
+    values[i + 26] = (packed[2] >>> 15) & 0x7;
+    values[i + 27] = (packed[2] >>> 12) & 0x7;
+    values[i + 28] = (packed[2] >>> 9) & 0x7;
+    values[i + 29] = (packed[2] >>> 6) & 0x7;
+    values[i + 30] = (packed[2] >>> 3) & 0x7;
+    values[i + 31] = packed[2] & 0x7;
+  }
+
+  private static void unpack4(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 28;
+    values[i + 1] = (packed[0] >>> 24) & 0xF;
+    values[i + 2] = (packed[0] >>> 20) & 0xF;
+    values[i + 3] = (packed[0] >>> 16) & 0xF;
+    values[i + 4] = (packed[0] >>> 12) & 0xF;
+    values[i + 5] = (packed[0] >>> 8) & 0xF;
+    values[i + 6] = (packed[0] >>> 4) & 0xF;
+    values[i + 7] = packed[0] & 0xF;
+    values[i + 8] = packed[1] >>> 28;
+    values[i + 9] = (packed[1] >>> 24) & 0xF;
+    values[i + 10] = (packed[1] >>> 20) & 0xF;
+    values[i + 11] = (packed[1] >>> 16) & 0xF;
+    values[i + 12] = (packed[1] >>> 12) & 0xF;
+    values[i + 13] = (packed[1] >>> 8) & 0xF;
+    values[i + 14] = (packed[1] >>> 4) & 0xF;
+    values[i + 15] = packed[1] & 0xF;
+    values[i + 16] = packed[2] >>> 28;
+    values[i + 17] = (packed[2] >>> 24) & 0xF;
+    values[i + 18] = (packed[2] >>> 20) & 0xF;
+    values[i + 19] = (packed[2] >>> 16) & 0xF;
+    values[i + 20] = (packed[2] >>> 12) & 0xF;
+    values[i + 21] = (packed[2] >>> 8) & 0xF;
+    values[i + 22] = (packed[2] >>> 4) & 0xF;
+    values[i + 23] = packed[2] & 0xF;
+    values[i + 24] = packed[3] >>> 28;
+    values[i + 25] = (packed[3] >>> 24) & 0xF;
+    values[i + 26] = (packed[3] >>> 20) & 0xF;
+    values[i + 27] = (packed[3] >>> 16) & 0xF;
+    values[i + 28] = (packed[3] >>> 12) & 0xF;
+    values[i + 29] = (packed[3] >>> 8) & 0xF;
+    values[i + 30] = (packed[3] >>> 4) & 0xF;
+    values[i + 31] = packed[3] & 0xF;
+  }
+
+  private static void unpack5(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 27;
+    values[i + 1] = (packed[0] >>> 22) & 0x1F;
+    values[i + 2] = (packed[0] >>> 17) & 0x1F;
+    values[i + 3] = (packed[0] >>> 12) & 0x1F;
+    values[i + 4] = (packed[0] >>> 7) & 0x1F;
+    values[i + 5] = (packed[0] >>> 2) & 0x1F;
+    values[i + 6] = ((packed[0] & 0x3) << 3) | (packed[1] >>> 29);
+    values[i + 7] = (packed[1] >>> 24) & 0x1F;
+    values[i + 8] = (packed[1] >>> 19) & 0x1F;
+    values[i + 9] = (packed[1] >>> 14) & 0x1F;
+    values[i + 10] = (packed[1] >>> 9) & 0x1F;
+    values[i + 11] = (packed[1] >>> 4) & 0x1F;
+    values[i + 12] = ((packed[1] & 0xF) << 1) | (packed[2] >>> 31);
+    values[i + 13] = (packed[2] >>> 26) & 0x1F;
+    values[i + 14] = (packed[2] >>> 21) & 0x1F;
+    values[i + 15] = (packed[2] >>> 16) & 0x1F;
+    values[i + 16] = (packed[2] >>> 11) & 0x1F;
+    values[i + 17] = (packed[2] >>> 6) & 0x1F;
+    values[i + 18] = (packed[2] >>> 1) & 0x1F;
+    values[i + 19] = ((packed[2] & 0x1) << 4) | (packed[3] >>> 28);
+    values[i + 20] = (packed[3] >>> 23) & 0x1F;
+    values[i + 21] = (packed[3] >>> 18) & 0x1F;
+    values[i + 22] = (packed[3] >>> 13) & 0x1F;
+    values[i + 23] = (packed[3] >>> 8) & 0x1F;
+    values[i + 24] = (packed[3] >>> 3) & 0x1F;
+    values[i + 25] = ((packed[3] & 0x7) << 2) | (packed[4] >>> 30);
+    values[i + 26] = (packed[4] >>> 25) & 0x1F;
+    values[i + 27] = (packed[4] >>> 20) & 0x1F;
+    values[i + 28] = (packed[4] >>> 15) & 0x1F;
+    values[i + 29] = (packed[4] >>> 10) & 0x1F;
+    values[i + 30] = (packed[4] >>> 5) & 0x1F;
+    values[i + 31] = packed[4] & 0x1F;
+  }
+
+  private static void unpack6(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 26;
+    values[i + 1] = (packed[0] >>> 20) & 0x3F;
+    values[i + 2] = (packed[0] >>> 14) & 0x3F;
+    values[i + 3] = (packed[0] >>> 8) & 0x3F;
+    values[i + 4] = (packed[0] >>> 2) & 0x3F;
+    values[i + 5] = ((packed[0] & 0x3) << 4) | (packed[1] >>> 28);
+    values[i + 6] = (packed[1] >>> 22) & 0x3F;
+    values[i + 7] = (packed[1] >>> 16) & 0x3F;
+    values[i + 8] = (packed[1] >>> 10) & 0x3F;
+    values[i + 9] = (packed[1] >>> 4) & 0x3F;
+    values[i + 10] = ((packed[1] & 0xF) << 2) | (packed[2] >>> 30);
+    values[i + 11] = (packed[2] >>> 24) & 0x3F;
+    values[i + 12] = (packed[2] >>> 18) & 0x3F;
+    values[i + 13] = (packed[2] >>> 12) & 0x3F;
+    values[i + 14] = (packed[2] >>> 6) & 0x3F;
+    values[i + 15] = packed[2] & 0x3F;
+    values[i + 16] = packed[3] >>> 26;
+    values[i + 17] = (packed[3] >>> 20) & 0x3F;
+    values[i + 18] = (packed[3] >>> 14) & 0x3F;
+    values[i + 19] = (packed[3] >>> 8) & 0x3F;
+    values[i + 20] = (packed[3] >>> 2) & 0x3F;
+    values[i + 21] = ((packed[3] & 0x3) << 4) | (packed[4] >>> 28);
+    values[i + 22] = (packed[4] >>> 22) & 0x3F;
+    values[i + 23] = (packed[4] >>> 16) & 0x3F;
+    values[i + 24] = (packed[4] >>> 10) & 0x3F;
+    values[i + 25] = (packed[4] >>> 4) & 0x3F;
+    values[i + 26] = ((packed[4] & 0xF) << 2) | (packed[5] >>> 30);
+    values[i + 27] = (packed[5] >>> 24) & 0x3F;
+    values[i + 28] = (packed[5] >>> 18) & 0x3F;
+    values[i + 29] = (packed[5] >>> 12) & 0x3F;
+    values[i + 30] = (packed[5] >>> 6) & 0x3F;
+    values[i + 31] = packed[5] & 0x3F;
+  }
+
+  private static void unpack7(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 25;
+    values[i + 1] = (packed[0] >>> 18) & 0x7F;
+    values[i + 2] = (packed[0] >>> 11) & 0x7F;
+    values[i + 3] = (packed[0] >>> 4) & 0x7F;
+    values[i + 4] = ((packed[0] & 0xF) << 3) | (packed[1] >>> 29);
+    values[i + 5] = (packed[1] >>> 22) & 0x7F;
+    values[i + 6] = (packed[1] >>> 15) & 0x7F;
+    values[i + 7] = (packed[1] >>> 8) & 0x7F;
+    values[i + 8] = (packed[1] >>> 1) & 0x7F;
+    values[i + 9] = ((packed[1] & 0x1) << 6) | (packed[2] >>> 26);
+    values[i + 10] = (packed[2] >>> 19) & 0x7F;
+    values[i + 11] = (packed[2] >>> 12) & 0x7F;
+    values[i + 12] = (packed[2] >>> 5) & 0x7F;
+    values[i + 13] = ((packed[2] & 0x1F) << 2) | (packed[3] >>> 30);
+    values[i + 14] = (packed[3] >>> 23) & 0x7F;
+    values[i + 15] = (packed[3] >>> 16) & 0x7F;
+    values[i + 16] = (packed[3] >>> 9) & 0x7F;
+    values[i + 17] = (packed[3] >>> 2) & 0x7F;
+    values[i + 18] = ((packed[3] & 0x3) << 5) | (packed[4] >>> 27);
+    values[i + 19] = (packed[4] >>> 20) & 0x7F;
+    values[i + 20] = (packed[4] >>> 13) & 0x7F;
+    values[i + 21] = (packed[4] >>> 6) & 0x7F;
+    values[i + 22] = ((packed[4] & 0x3F) << 1) | (packed[5] >>> 31);
+    values[i + 23] = (packed[5] >>> 24) & 0x7F;
+    values[i + 24] = (packed[5] >>> 17) & 0x7F;
+    values[i + 25] = (packed[5] >>> 10) & 0x7F;
+    values[i + 26] = (packed[5] >>> 3) & 0x7F;
+    values[i + 27] = ((packed[5] & 0x7) << 4) | (packed[6] >>> 28);
+    values[i + 28] = (packed[6] >>> 21) & 0x7F;
+    values[i + 29] = (packed[6] >>> 14) & 0x7F;
+    values[i + 30] = (packed[6] >>> 7) & 0x7F;
+    values[i + 31] = packed[6] & 0x7F;
+  }
+
+  private static void unpack8(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 24;
+    values[i + 1] = (packed[0] >>> 16) & 0xFF;
+    values[i + 2] = (packed[0] >>> 8) & 0xFF;
+    values[i + 3] = packed[0] & 0xFF;
+    values[i + 4] = packed[1] >>> 24;
+    values[i + 5] = (packed[1] >>> 16) & 0xFF;
+    values[i + 6] = (packed[1] >>> 8) & 0xFF;
+    values[i + 7] = packed[1] & 0xFF;
+    values[i + 8] = packed[2] >>> 24;
+    values[i + 9] = (packed[2] >>> 16) & 0xFF;
+    values[i + 10] = (packed[2] >>> 8) & 0xFF;
+    values[i + 11] = packed[2] & 0xFF;
+    values[i + 12] = packed[3] >>> 24;
+    values[i + 13] = (packed[3] >>> 16) & 0xFF;
+    values[i + 14] = (packed[3] >>> 8) & 0xFF;
+    values[i + 15] = packed[3] & 0xFF;
+    values[i + 16] = packed[4] >>> 24;
+    values[i + 17] = (packed[4] >>> 16) & 0xFF;
+    values[i + 18] = (packed[4] >>> 8) & 0xFF;
+    values[i + 19] = packed[4] & 0xFF;
+    values[i + 20] = packed[5] >>> 24;
+    values[i + 21] = (packed[5] >>> 16) & 0xFF;
+    values[i + 22] = (packed[5] >>> 8) & 0xFF;
+    values[i + 23] = packed[5] & 0xFF;
+    values[i + 24] = packed[6] >>> 24;
+    values[i + 25] = (packed[6] >>> 16) & 0xFF;
+    values[i + 26] = (packed[6] >>> 8) & 0xFF;
+    values[i + 27] = packed[6] & 0xFF;
+    values[i + 28] = packed[7] >>> 24;
+    values[i + 29] = (packed[7] >>> 16) & 0xFF;
+    values[i + 30] = (packed[7] >>> 8) & 0xFF;
+    values[i + 31] = packed[7] & 0xFF;
+  }
+
+  private static void unpack9(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 23;
+    values[i + 1] = (packed[0] >>> 14) & 0x1FF;
+    values[i + 2] = (packed[0] >>> 5) & 0x1FF;
+    values[i + 3] = ((packed[0] & 0x1F) << 4) | (packed[1] >>> 28);
+    values[i + 4] = (packed[1] >>> 19) & 0x1FF;
+    values[i + 5] = (packed[1] >>> 10) & 0x1FF;
+    values[i + 6] = (packed[1] >>> 1) & 0x1FF;
+    values[i + 7] = ((packed[1] & 0x1) << 8) | (packed[2] >>> 24);
+    values[i + 8] = (packed[2] >>> 15) & 0x1FF;
+    values[i + 9] = (packed[2] >>> 6) & 0x1FF;
+    values[i + 10] = ((packed[2] & 0x3F) << 3) | (packed[3] >>> 29);
+    values[i + 11] = (packed[3] >>> 20) & 0x1FF;
+    values[i + 12] = (packed[3] >>> 11) & 0x1FF;
+    values[i + 13] = (packed[3] >>> 2) & 0x1FF;
+    values[i + 14] = ((packed[3] & 0x3) << 7) | (packed[4] >>> 25);
+    values[i + 15] = (packed[4] >>> 16) & 0x1FF;
+    values[i + 16] = (packed[4] >>> 7) & 0x1FF;
+    values[i + 17] = ((packed[4] & 0x7F) << 2) | (packed[5] >>> 30);
+    values[i + 18] = (packed[5] >>> 21) & 0x1FF;
+    values[i + 19] = (packed[5] >>> 12) & 0x1FF;
+    values[i + 20] = (packed[5] >>> 3) & 0x1FF;
+    values[i + 21] = ((packed[5] & 0x7) << 6) | (packed[6] >>> 26);
+    values[i + 22] = (packed[6] >>> 17) & 0x1FF;
+    values[i + 23] = (packed[6] >>> 8) & 0x1FF;
+    values[i + 24] = ((packed[6] & 0xFF) << 1) | (packed[7] >>> 31);
+    values[i + 25] = (packed[7] >>> 22) & 0x1FF;
+    values[i + 26] = (packed[7] >>> 13) & 0x1FF;
+    values[i + 27] = (packed[7] >>> 4) & 0x1FF;
+    values[i + 28] = ((packed[7] & 0xF) << 5) | (packed[8] >>> 27);
+    values[i + 29] = (packed[8] >>> 18) & 0x1FF;
+    values[i + 30] = (packed[8] >>> 9) & 0x1FF;
+    values[i + 31] = packed[8] & 0x1FF;
+  }
+
+  private static void unpack10(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 22;
+    values[i + 1] = (packed[0] >>> 12) & 0x3FF;
+    values[i + 2] = (packed[0] >>> 2) & 0x3FF;
+    values[i + 3] = ((packed[0] & 0x3) << 8) | (packed[1] >>> 24);
+    values[i + 4] = (packed[1] >>> 14) & 0x3FF;
+    values[i + 5] = (packed[1] >>> 4) & 0x3FF;
+    values[i + 6] = ((packed[1] & 0xF) << 6) | (packed[2] >>> 26);
+    values[i + 7] = (packed[2] >>> 16) & 0x3FF;
+    values[i + 8] = (packed[2] >>> 6) & 0x3FF;
+    values[i + 9] = ((packed[2] & 0x3F) << 4) | (packed[3] >>> 28);
+    values[i + 10] = (packed[3] >>> 18) & 0x3FF;
+    values[i + 11] = (packed[3] >>> 8) & 0x3FF;
+    values[i + 12] = ((packed[3] & 0xFF) << 2) | (packed[4] >>> 30);
+    values[i + 13] = (packed[4] >>> 20) & 0x3FF;
+    values[i + 14] = (packed[4] >>> 10) & 0x3FF;
+    values[i + 15] = packed[4] & 0x3FF;
+    values[i + 16] = packed[5] >>> 22;
+    values[i + 17] = (packed[5] >>> 12) & 0x3FF;
+    values[i + 18] = (packed[5] >>> 2) & 0x3FF;
+    values[i + 19] = ((packed[5] & 0x3) << 8) | (packed[6] >>> 24);
+    values[i + 20] = (packed[6] >>> 14) & 0x3FF;
+    values[i + 21] = (packed[6] >>> 4) & 0x3FF;
+    values[i + 22] = ((packed[6] & 0xF) << 6) | (packed[7] >>> 26);
+    values[i + 23] = (packed[7] >>> 16) & 0x3FF;
+    values[i + 24] = (packed[7] >>> 6) & 0x3FF;
+    values[i + 25] = ((packed[7] & 0x3F) << 4) | (packed[8] >>> 28);
+    values[i + 26] = (packed[8] >>> 18) & 0x3FF;
+    values[i + 27] = (packed[8] >>> 8) & 0x3FF;
+    values[i + 28] = ((packed[8] & 0xFF) << 2) | (packed[9] >>> 30);
+    values[i + 29] = (packed[9] >>> 20) & 0x3FF;
+    values[i + 30] = (packed[9] >>> 10) & 0x3FF;
+    values[i + 31] = packed[9] & 0x3FF;
+  }
+
+  private static void unpack11(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 21;
+    values[i + 1] = (packed[0] >>> 10) & 0x7FF;
+    values[i + 2] = ((packed[0] & 0x3FF) << 1) | (packed[1] >>> 31);
+    values[i + 3] = (packed[1] >>> 20) & 0x7FF;
+    values[i + 4] = (packed[1] >>> 9) & 0x7FF;
+    values[i + 5] = ((packed[1] & 0x1FF) << 2) | (packed[2] >>> 30);
+    values[i + 6] = (packed[2] >>> 19) & 0x7FF;
+    values[i + 7] = (packed[2] >>> 8) & 0x7FF;
+    values[i + 8] = ((packed[2] & 0xFF) << 3) | (packed[3] >>> 29);
+    values[i + 9] = (packed[3] >>> 18) & 0x7FF;
+    values[i + 10] = (packed[3] >>> 7) & 0x7FF;
+    values[i + 11] = ((packed[3] & 0x7F) << 4) | (packed[4] >>> 28);
+    values[i + 12] = (packed[4] >>> 17) & 0x7FF;
+    values[i + 13] = (packed[4] >>> 6) & 0x7FF;
+    values[i + 14] = ((packed[4] & 0x3F) << 5) | (packed[5] >>> 27);
+    values[i + 15] = (packed[5] >>> 16) & 0x7FF;
+    values[i + 16] = (packed[5] >>> 5) & 0x7FF;
+    values[i + 17] = ((packed[5] & 0x1F) << 6) | (packed[6] >>> 26);
+    values[i + 18] = (packed[6] >>> 15) & 0x7FF;
+    values[i + 19] = (packed[6] >>> 4) & 0x7FF;
+    values[i + 20] = ((packed[6] & 0xF) << 7) | (packed[7] >>> 25);
+    values[i + 21] = (packed[7] >>> 14) & 0x7FF;
+    values[i + 22] = (packed[7] >>> 3) & 0x7FF;
+    values[i + 23] = ((packed[7] & 0x7) << 8) | (packed[8] >>> 24);
+    values[i + 24] = (packed[8] >>> 13) & 0x7FF;
+    values[i + 25] = (packed[8] >>> 2) & 0x7FF;
+    values[i + 26] = ((packed[8] & 0x3) << 9) | (packed[9] >>> 23);
+    values[i + 27] = (packed[9] >>> 12) & 0x7FF;
+    values[i + 28] = (packed[9] >>> 1) & 0x7FF;
+    values[i + 29] = ((packed[9] & 0x1) << 10) | (packed[10] >>> 22);
+    values[i + 30] = (packed[10] >>> 11) & 0x7FF;
+    values[i + 31] = packed[10] & 0x7FF;
+  }
+
+  private static void unpack12(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 20;
+    values[i + 1] = (packed[0] >>> 8) & 0xFFF;
+    values[i + 2] = ((packed[0] & 0xFF) << 4) | (packed[1] >>> 28);
+    values[i + 3] = (packed[1] >>> 16) & 0xFFF;
+    values[i + 4] = (packed[1] >>> 4) & 0xFFF;
+    values[i + 5] = ((packed[1] & 0xF) << 8) | (packed[2] >>> 24);
+    values[i + 6] = (packed[2] >>> 12) & 0xFFF;
+    values[i + 7] = packed[2] & 0xFFF;
+    values[i + 8] = packed[3] >>> 20;
+    values[i + 9] = (packed[3] >>> 8) & 0xFFF;
+    values[i + 10] = ((packed[3] & 0xFF) << 4) | (packed[4] >>> 28);
+    values[i + 11] = (packed[4] >>> 16) & 0xFFF;
+    values[i + 12] = (packed[4] >>> 4) & 0xFFF;
+    values[i + 13] = ((packed[4] & 0xF) << 8) | (packed[5] >>> 24);
+    values[i + 14] = (packed[5] >>> 12) & 0xFFF;
+    values[i + 15] = packed[5] & 0xFFF;
+    values[i + 16] = packed[6] >>> 20;
+    values[i + 17] = (packed[6] >>> 8) & 0xFFF;
+    values[i + 18] = ((packed[6] & 0xFF) << 4) | (packed[7] >>> 28);
+    values[i + 19] = (packed[7] >>> 16) & 0xFFF;
+    values[i + 20] = (packed[7] >>> 4) & 0xFFF;
+    values[i + 21] = ((packed[7] & 0xF) << 8) | (packed[8] >>> 24);
+    values[i + 22] = (packed[8] >>> 12) & 0xFFF;
+    values[i + 23] = packed[8] & 0xFFF;
+    values[i + 24] = packed[9] >>> 20;
+    values[i + 25] = (packed[9] >>> 8) & 0xFFF;
+    values[i + 26] = ((packed[9] & 0xFF) << 4) | (packed[10] >>> 28);
+    values[i + 27] = (packed[10] >>> 16) & 0xFFF;
+    values[i + 28] = (packed[10] >>> 4) & 0xFFF;
+    values[i + 29] = ((packed[10] & 0xF) << 8) | (packed[11] >>> 24);
+    values[i + 30] = (packed[11] >>> 12) & 0xFFF;
+    values[i + 31] = packed[11] & 0xFFF;
+  }
+
+  private static void unpack13(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 19;
+    values[i + 1] = (packed[0] >>> 6) & 0x1FFF;
+    values[i + 2] = ((packed[0] & 0x3F) << 7) | (packed[1] >>> 25);
+    values[i + 3] = (packed[1] >>> 12) & 0x1FFF;
+    values[i + 4] = ((packed[1] & 0xFFF) << 1) | (packed[2] >>> 31);
+    values[i + 5] = (packed[2] >>> 18) & 0x1FFF;
+    values[i + 6] = (packed[2] >>> 5) & 0x1FFF;
+    values[i + 7] = ((packed[2] & 0x1F) << 8) | (packed[3] >>> 24);
+    values[i + 8] = (packed[3] >>> 11) & 0x1FFF;
+    values[i + 9] = ((packed[3] & 0x7FF) << 2) | (packed[4] >>> 30);
+    values[i + 10] = (packed[4] >>> 17) & 0x1FFF;
+    values[i + 11] = (packed[4] >>> 4) & 0x1FFF;
+    values[i + 12] = ((packed[4] & 0xF) << 9) | (packed[5] >>> 23);
+    values[i + 13] = (packed[5] >>> 10) & 0x1FFF;
+    values[i + 14] = ((packed[5] & 0x3FF) << 3) | (packed[6] >>> 29);
+    values[i + 15] = (packed[6] >>> 16) & 0x1FFF;
+    values[i + 16] = (packed[6] >>> 3) & 0x1FFF;
+    values[i + 17] = ((packed[6] & 0x7) << 10) | (packed[7] >>> 22);
+    values[i + 18] = (packed[7] >>> 9) & 0x1FFF;
+    values[i + 19] = ((packed[7] & 0x1FF) << 4) | (packed[8] >>> 28);
+    values[i + 20] = (packed[8] >>> 15) & 0x1FFF;
+    values[i + 21] = (packed[8] >>> 2) & 0x1FFF;
+    values[i + 22] = ((packed[8] & 0x3) << 11) | (packed[9] >>> 21);
+    values[i + 23] = (packed[9] >>> 8) & 0x1FFF;
+    values[i + 24] = ((packed[9] & 0xFF) << 5) | (packed[10] >>> 27);
+    values[i + 25] = (packed[10] >>> 14) & 0x1FFF;
+    values[i + 26] = (packed[10] >>> 1) & 0x1FFF;
+    values[i + 27] = ((packed[10] & 0x1) << 12) | (packed[11] >>> 20);
+    values[i + 28] = (packed[11] >>> 7) & 0x1FFF;
+    values[i + 29] = ((packed[11] & 0x7F) << 6) | (packed[12] >>> 26);
+    values[i + 30] = (packed[12] >>> 13) & 0x1FFF;
+    values[i + 31] = packed[12] & 0x1FFF;
+  }
+
+  private static void unpack14(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 18;
+    values[i + 1] = (packed[0] >>> 4) & 0x3FFF;
+    values[i + 2] = ((packed[0] & 0xF) << 10) | (packed[1] >>> 22);
+    values[i + 3] = (packed[1] >>> 8) & 0x3FFF;
+    values[i + 4] = ((packed[1] & 0xFF) << 6) | (packed[2] >>> 26);
+    values[i + 5] = (packed[2] >>> 12) & 0x3FFF;
+    values[i + 6] = ((packed[2] & 0xFFF) << 2) | (packed[3] >>> 30);
+    values[i + 7] = (packed[3] >>> 16) & 0x3FFF;
+    values[i + 8] = (packed[3] >>> 2) & 0x3FFF;
+    values[i + 9] = ((packed[3] & 0x3) << 12) | (packed[4] >>> 20);
+    values[i + 10] = (packed[4] >>> 6) & 0x3FFF;
+    values[i + 11] = ((packed[4] & 0x3F) << 8) | (packed[5] >>> 24);
+    values[i + 12] = (packed[5] >>> 10) & 0x3FFF;
+    values[i + 13] = ((packed[5] & 0x3FF) << 4) | (packed[6] >>> 28);
+    values[i + 14] = (packed[6] >>> 14) & 0x3FFF;
+    values[i + 15] = packed[6] & 0x3FFF;
+    values[i + 16] = packed[7] >>> 18;
+    values[i + 17] = (packed[7] >>> 4) & 0x3FFF;
+    values[i + 18] = ((packed[7] & 0xF) << 10) | (packed[8] >>> 22);
+    values[i + 19] = (packed[8] >>> 8) & 0x3FFF;
+    values[i + 20] = ((packed[8] & 0xFF) << 6) | (packed[9] >>> 26);
+    values[i + 21] = (packed[9] >>> 12) & 0x3FFF;
+    values[i + 22] = ((packed[9] & 0xFFF) << 2) | (packed[10] >>> 30);
+    values[i + 23] = (packed[10] >>> 16) & 0x3FFF;
+    values[i + 24] = (packed[10] >>> 2) & 0x3FFF;
+    values[i + 25] = ((packed[10] & 0x3) << 12) | (packed[11] >>> 20);
+    values[i + 26] = (packed[11] >>> 6) & 0x3FFF;
+    values[i + 27] = ((packed[11] & 0x3F) << 8) | (packed[12] >>> 24);
+    values[i + 28] = (packed[12] >>> 10) & 0x3FFF;
+    values[i + 29] = ((packed[12] & 0x3FF) << 4) | (packed[13] >>> 28);
+    values[i + 30] = (packed[13] >>> 14) & 0x3FFF;
+    values[i + 31] = packed[13] & 0x3FFF;
+  }
+
+  private static void unpack15(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 17;
+    values[i + 1] = (packed[0] >>> 2) & 0x7FFF;
+    values[i + 2] = ((packed[0] & 0x3) << 13) | (packed[1] >>> 19);
+    values[i + 3] = (packed[1] >>> 4) & 0x7FFF;
+    values[i + 4] = ((packed[1] & 0xF) << 11) | (packed[2] >>> 21);
+    values[i + 5] = (packed[2] >>> 6) & 0x7FFF;
+    values[i + 6] = ((packed[2] & 0x3F) << 9) | (packed[3] >>> 23);
+    values[i + 7] = (packed[3] >>> 8) & 0x7FFF;
+    values[i + 8] = ((packed[3] & 0xFF) << 7) | (packed[4] >>> 25);
+    values[i + 9] = (packed[4] >>> 10) & 0x7FFF;
+    values[i + 10] = ((packed[4] & 0x3FF) << 5) | (packed[5] >>> 27);
+    values[i + 11] = (packed[5] >>> 12) & 0x7FFF;
+    values[i + 12] = ((packed[5] & 0xFFF) << 3) | (packed[6] >>> 29);
+    values[i + 13] = (packed[6] >>> 14) & 0x7FFF;
+    values[i + 14] = ((packed[6] & 0x3FFF) << 1) | (packed[7] >>> 31);
+    values[i + 15] = (packed[7] >>> 16) & 0x7FFF;
+    values[i + 16] = (packed[7] >>> 1) & 0x7FFF;
+    values[i + 17] = ((packed[7] & 0x1) << 14) | (packed[8] >>> 18);
+    values[i + 18] = (packed[8] >>> 3) & 0x7FFF;
+    values[i + 19] = ((packed[8] & 0x7) << 12) | (packed[9] >>> 20);
+    values[i + 20] = (packed[9] >>> 5) & 0x7FFF;
+    values[i + 21] = ((packed[9] & 0x1F) << 10) | (packed[10] >>> 22);
+    values[i + 22] = (packed[10] >>> 7) & 0x7FFF;
+    values[i + 23] = ((packed[10] & 0x7F) << 8) | (packed[11] >>> 24);
+    values[i + 24] = (packed[11] >>> 9) & 0x7FFF;
+    values[i + 25] = ((packed[11] & 0x1FF) << 6) | (packed[12] >>> 26);
+    values[i + 26] = (packed[12] >>> 11) & 0x7FFF;
+    values[i + 27] = ((packed[12] & 0x7FF) << 4) | (packed[13] >>> 28);
+    values[i + 28] = (packed[13] >>> 13) & 0x7FFF;
+    values[i + 29] = ((packed[13] & 0x1FFF) << 2) | (packed[14] >>> 30);
+    values[i + 30] = (packed[14] >>> 15) & 0x7FFF;
+    values[i + 31] = packed[14] & 0x7FFF;
+  }
+
+  private static void unpack16(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 16;
+    values[i + 1] = packed[0] & 0xFFFF;
+    values[i + 2] = packed[1] >>> 16;
+    values[i + 3] = packed[1] & 0xFFFF;
+    values[i + 4] = packed[2] >>> 16;
+    values[i + 5] = packed[2] & 0xFFFF;
+    values[i + 6] = packed[3] >>> 16;
+    values[i + 7] = packed[3] & 0xFFFF;
+    values[i + 8] = packed[4] >>> 16;
+    values[i + 9] = packed[4] & 0xFFFF;
+    values[i + 10] = packed[5] >>> 16;
+    values[i + 11] = packed[5] & 0xFFFF;
+    values[i + 12] = packed[6] >>> 16;
+    values[i + 13] = packed[6] & 0xFFFF;
+    values[i + 14] = packed[7] >>> 16;
+    values[i + 15] = packed[7] & 0xFFFF;
+    values[i + 16] = packed[8] >>> 16;
+    values[i + 17] = packed[8] & 0xFFFF;
+    values[i + 18] = packed[9] >>> 16;
+    values[i + 19] = packed[9] & 0xFFFF;
+    values[i + 20] = packed[10] >>> 16;
+    values[i + 21] = packed[10] & 0xFFFF;
+    values[i + 22] = packed[11] >>> 16;
+    values[i + 23] = packed[11] & 0xFFFF;
+    values[i + 24] = packed[12] >>> 16;
+    values[i + 25] = packed[12] & 0xFFFF;
+    values[i + 26] = packed[13] >>> 16;
+    values[i + 27] = packed[13] & 0xFFFF;
+    values[i + 28] = packed[14] >>> 16;
+    values[i + 29] = packed[14] & 0xFFFF;
+    values[i + 30] = packed[15] >>> 16;
+    values[i + 31] = packed[15] & 0xFFFF;
+  }
+
+  private static void unpack17(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 15;
+    values[i + 1] = ((packed[0] & 0x7FFF) << 2) | (packed[1] >>> 30);
+    values[i + 2] = (packed[1] >>> 13) & 0x1FFFF;
+    values[i + 3] = ((packed[1] & 0x1FFF) << 4) | (packed[2] >>> 28);
+    values[i + 4] = (packed[2] >>> 11) & 0x1FFFF;
+    values[i + 5] = ((packed[2] & 0x7FF) << 6) | (packed[3] >>> 26);
+    values[i + 6] = (packed[3] >>> 9) & 0x1FFFF;
+    values[i + 7] = ((packed[3] & 0x1FF) << 8) | (packed[4] >>> 24);
+    values[i + 8] = (packed[4] >>> 7) & 0x1FFFF;
+    values[i + 9] = ((packed[4] & 0x7F) << 10) | (packed[5] >>> 22);
+    values[i + 10] = (packed[5] >>> 5) & 0x1FFFF;
+    values[i + 11] = ((packed[5] & 0x1F) << 12) | (packed[6] >>> 20);
+    values[i + 12] = (packed[6] >>> 3) & 0x1FFFF;
+    values[i + 13] = ((packed[6] & 0x7) << 14) | (packed[7] >>> 18);
+    values[i + 14] = (packed[7] >>> 1) & 0x1FFFF;
+    values[i + 15] = ((packed[7] & 0x1) << 16) | (packed[8] >>> 16);
+    values[i + 16] = ((packed[8] & 0xFFFF) << 1) | (packed[9] >>> 31);
+    values[i + 17] = (packed[9] >>> 14) & 0x1FFFF;
+    values[i + 18] = ((packed[9] & 0x3FFF) << 3) | (packed[10] >>> 29);
+    values[i + 19] = (packed[10] >>> 12) & 0x1FFFF;
+    values[i + 20] = ((packed[10] & 0xFFF) << 5) | (packed[11] >>> 27);
+    values[i + 21] = (packed[11] >>> 10) & 0x1FFFF;
+    values[i + 22] = ((packed[11] & 0x3FF) << 7) | (packed[12] >>> 25);
+    values[i + 23] = (packed[12] >>> 8) & 0x1FFFF;
+    values[i + 24] = ((packed[12] & 0xFF) << 9) | (packed[13] >>> 23);
+    values[i + 25] = (packed[13] >>> 6) & 0x1FFFF;
+    values[i + 26] = ((packed[13] & 0x3F) << 11) | (packed[14] >>> 21);
+    values[i + 27] = (packed[14] >>> 4) & 0x1FFFF;
+    values[i + 28] = ((packed[14] & 0xF) << 13) | (packed[15] >>> 19);
+    values[i + 29] = (packed[15] >>> 2) & 0x1FFFF;
+    values[i + 30] = ((packed[15] & 0x3) << 15) | (packed[16] >>> 17);
+    values[i + 31] = packed[16] & 0x1FFFF;
+  }
+
+  private static void unpack18(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 14;
+    values[i + 1] = ((packed[0] & 0x3FFF) << 4) | (packed[1] >>> 28);
+    values[i + 2] = (packed[1] >>> 10) & 0x3FFFF;
+    values[i + 3] = ((packed[1] & 0x3FF) << 8) | (packed[2] >>> 24);
+    values[i + 4] = (packed[2] >>> 6) & 0x3FFFF;
+    values[i + 5] = ((packed[2] & 0x3F) << 12) | (packed[3] >>> 20);
+    values[i + 6] = (packed[3] >>> 2) & 0x3FFFF;
+    values[i + 7] = ((packed[3] & 0x3) << 16) | (packed[4] >>> 16);
+    values[i + 8] = ((packed[4] & 0xFFFF) << 2) | (packed[5] >>> 30);
+    values[i + 9] = (packed[5] >>> 12) & 0x3FFFF;
+    values[i + 10] = ((packed[5] & 0xFFF) << 6) | (packed[6] >>> 26);
+    values[i + 11] = (packed[6] >>> 8) & 0x3FFFF;
+    values[i + 12] = ((packed[6] & 0xFF) << 10) | (packed[7] >>> 22);
+    values[i + 13] = (packed[7] >>> 4) & 0x3FFFF;
+    values[i + 14] = ((packed[7] & 0xF) << 14) | (packed[8] >>> 18);
+    values[i + 15] = packed[8] & 0x3FFFF;
+    values[i + 16] = packed[9] >>> 14;
+    values[i + 17] = ((packed[9] & 0x3FFF) << 4) | (packed[10] >>> 28);
+    values[i + 18] = (packed[10] >>> 10) & 0x3FFFF;
+    values[i + 19] = ((packed[10] & 0x3FF) << 8) | (packed[11] >>> 24);
+    values[i + 20] = (packed[11] >>> 6) & 0x3FFFF;
+    values[i + 21] = ((packed[11] & 0x3F) << 12) | (packed[12] >>> 20);
+    values[i + 22] = (packed[12] >>> 2) & 0x3FFFF;
+    values[i + 23] = ((packed[12] & 0x3) << 16) | (packed[13] >>> 16);
+    values[i + 24] = ((packed[13] & 0xFFFF) << 2) | (packed[14] >>> 30);
+    values[i + 25] = (packed[14] >>> 12) & 0x3FFFF;
+    values[i + 26] = ((packed[14] & 0xFFF) << 6) | (packed[15] >>> 26);
+    values[i + 27] = (packed[15] >>> 8) & 0x3FFFF;
+    values[i + 28] = ((packed[15] & 0xFF) << 10) | (packed[16] >>> 22);
+    values[i + 29] = (packed[16] >>> 4) & 0x3FFFF;
+    values[i + 30] = ((packed[16] & 0xF) << 14) | (packed[17] >>> 18);
+    values[i + 31] = packed[17] & 0x3FFFF;
+  }
+
+  private static void unpack19(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 13;
+    values[i + 1] = ((packed[0] & 0x1FFF) << 6) | (packed[1] >>> 26);
+    values[i + 2] = (packed[1] >>> 7) & 0x7FFFF;
+    values[i + 3] = ((packed[1] & 0x7F) << 12) | (packed[2] >>> 20);
+    values[i + 4] = (packed[2] >>> 1) & 0x7FFFF;
+    values[i + 5] = ((packed[2] & 0x1) << 18) | (packed[3] >>> 14);
+    values[i + 6] = ((packed[3] & 0x3FFF) << 5) | (packed[4] >>> 27);
+    values[i + 7] = (packed[4] >>> 8) & 0x7FFFF;
+    values[i + 8] = ((packed[4] & 0xFF) << 11) | (packed[5] >>> 21);
+    values[i + 9] = (packed[5] >>> 2) & 0x7FFFF;
+    values[i + 10] = ((packed[5] & 0x3) << 17) | (packed[6] >>> 15);
+    values[i + 11] = ((packed[6] & 0x7FFF) << 4) | (packed[7] >>> 28);
+    values[i + 12] = (packed[7] >>> 9) & 0x7FFFF;
+    values[i + 13] = ((packed[7] & 0x1FF) << 10) | (packed[8] >>> 22);
+    values[i + 14] = (packed[8] >>> 3) & 0x7FFFF;
+    values[i + 15] = ((packed[8] & 0x7) << 16) | (packed[9] >>> 16);
+    values[i + 16] = ((packed[9] & 0xFFFF) << 3) | (packed[10] >>> 29);
+    values[i + 17] = (packed[10] >>> 10) & 0x7FFFF;
+    values[i + 18] = ((packed[10] & 0x3FF) << 9) | (packed[11] >>> 23);
+    values[i + 19] = (packed[11] >>> 4) & 0x7FFFF;
+    values[i + 20] = ((packed[11] & 0xF) << 15) | (packed[12] >>> 17);
+    values[i + 21] = ((packed[12] & 0x1FFFF) << 2) | (packed[13] >>> 30);
+    values[i + 22] = (packed[13] >>> 11) & 0x7FFFF;
+    values[i + 23] = ((packed[13] & 0x7FF) << 8) | (packed[14] >>> 24);
+    values[i + 24] = (packed[14] >>> 5) & 0x7FFFF;
+    values[i + 25] = ((packed[14] & 0x1F) << 14) | (packed[15] >>> 18);
+    values[i + 26] = ((packed[15] & 0x3FFFF) << 1) | (packed[16] >>> 31);
+    values[i + 27] = (packed[16] >>> 12) & 0x7FFFF;
+    values[i + 28] = ((packed[16] & 0xFFF) << 7) | (packed[17] >>> 25);
+    values[i + 29] = (packed[17] >>> 6) & 0x7FFFF;
+    values[i + 30] = ((packed[17] & 0x3F) << 13) | (packed[18] >>> 19);
+    values[i + 31] = packed[18] & 0x7FFFF;
+  }
+
+  private static void unpack20(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 12;
+    values[i + 1] = ((packed[0] & 0xFFF) << 8) | (packed[1] >>> 24);
+    values[i + 2] = (packed[1] >>> 4) & 0xFFFFF;
+    values[i + 3] = ((packed[1] & 0xF) << 16) | (packed[2] >>> 16);
+    values[i + 4] = ((packed[2] & 0xFFFF) << 4) | (packed[3] >>> 28);
+    values[i + 5] = (packed[3] >>> 8) & 0xFFFFF;
+    values[i + 6] = ((packed[3] & 0xFF) << 12) | (packed[4] >>> 20);
+    values[i + 7] = packed[4] & 0xFFFFF;
+    values[i + 8] = packed[5] >>> 12;
+    values[i + 9] = ((packed[5] & 0xFFF) << 8) | (packed[6] >>> 24);
+    values[i + 10] = (packed[6] >>> 4) & 0xFFFFF;
+    values[i + 11] = ((packed[6] & 0xF) << 16) | (packed[7] >>> 16);
+    values[i + 12] = ((packed[7] & 0xFFFF) << 4) | (packed[8] >>> 28);
+    values[i + 13] = (packed[8] >>> 8) & 0xFFFFF;
+    values[i + 14] = ((packed[8] & 0xFF) << 12) | (packed[9] >>> 20);
+    values[i + 15] = packed[9] & 0xFFFFF;
+    values[i + 16] = packed[10] >>> 12;
+    values[i + 17] = ((packed[10] & 0xFFF) << 8) | (packed[11] >>> 24);
+    values[i + 18] = (packed[11] >>> 4) & 0xFFFFF;
+    values[i + 19] = ((packed[11] & 0xF) << 16) | (packed[12] >>> 16);
+    values[i + 20] = ((packed[12] & 0xFFFF) << 4) | (packed[13] >>> 28);
+    values[i + 21] = (packed[13] >>> 8) & 0xFFFFF;
+    values[i + 22] = ((packed[13] & 0xFF) << 12) | (packed[14] >>> 20);
+    values[i + 23] = packed[14] & 0xFFFFF;
+    values[i + 24] = packed[15] >>> 12;
+    values[i + 25] = ((packed[15] & 0xFFF) << 8) | (packed[16] >>> 24);
+    values[i + 26] = (packed[16] >>> 4) & 0xFFFFF;
+    values[i + 27] = ((packed[16] & 0xF) << 16) | (packed[17] >>> 16);
+    values[i + 28] = ((packed[17] & 0xFFFF) << 4) | (packed[18] >>> 28);
+    values[i + 29] = (packed[18] >>> 8) & 0xFFFFF;
+    values[i + 30] = ((packed[18] & 0xFF) << 12) | (packed[19] >>> 20);
+    values[i + 31] = packed[19] & 0xFFFFF;
+  }
+
+  private static void unpack21(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 11;
+    values[i + 1] = ((packed[0] & 0x7FF) << 10) | (packed[1] >>> 22);
+    values[i + 2] = (packed[1] >>> 1) & 0x1FFFFF;
+    values[i + 3] = ((packed[1] & 0x1) << 20) | (packed[2] >>> 12);
+    values[i + 4] = ((packed[2] & 0xFFF) << 9) | (packed[3] >>> 23);
+    values[i + 5] = (packed[3] >>> 2) & 0x1FFFFF;
+    values[i + 6] = ((packed[3] & 0x3) << 19) | (packed[4] >>> 13);
+    values[i + 7] = ((packed[4] & 0x1FFF) << 8) | (packed[5] >>> 24);
+    values[i + 8] = (packed[5] >>> 3) & 0x1FFFFF;
+    values[i + 9] = ((packed[5] & 0x7) << 18) | (packed[6] >>> 14);
+    values[i + 10] = ((packed[6] & 0x3FFF) << 7) | (packed[7] >>> 25);
+    values[i + 11] = (packed[7] >>> 4) & 0x1FFFFF;
+    values[i + 12] = ((packed[7] & 0xF) << 17) | (packed[8] >>> 15);
+    values[i + 13] = ((packed[8] & 0x7FFF) << 6) | (packed[9] >>> 26);
+    values[i + 14] = (packed[9] >>> 5) & 0x1FFFFF;
+    values[i + 15] = ((packed[9] & 0x1F) << 16) | (packed[10] >>> 16);
+    values[i + 16] = ((packed[10] & 0xFFFF) << 5) | (packed[11] >>> 27);
+    values[i + 17] = (packed[11] >>> 6) & 0x1FFFFF;
+    values[i + 18] = ((packed[11] & 0x3F) << 15) | (packed[12] >>> 17);
+    values[i + 19] = ((packed[12] & 0x1FFFF) << 4) | (packed[13] >>> 28);
+    values[i + 20] = (packed[13] >>> 7) & 0x1FFFFF;
+    values[i + 21] = ((packed[13] & 0x7F) << 14) | (packed[14] >>> 18);
+    values[i + 22] = ((packed[14] & 0x3FFFF) << 3) | (packed[15] >>> 29);
+    values[i + 23] = (packed[15] >>> 8) & 0x1FFFFF;
+    values[i + 24] = ((packed[15] & 0xFF) << 13) | (packed[16] >>> 19);
+    values[i + 25] = ((packed[16] & 0x7FFFF) << 2) | (packed[17] >>> 30);
+    values[i + 26] = (packed[17] >>> 9) & 0x1FFFFF;
+    values[i + 27] = ((packed[17] & 0x1FF) << 12) | (packed[18] >>> 20);
+    values[i + 28] = ((packed[18] & 0xFFFFF) << 1) | (packed[19] >>> 31);
+    values[i + 29] = (packed[19] >>> 10) & 0x1FFFFF;
+    values[i + 30] = ((packed[19] & 0x3FF) << 11) | (packed[20] >>> 21);
+    values[i + 31] = packed[20] & 0x1FFFFF;
+  }
+
+  private static void unpack22(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 10;
+    values[i + 1] = ((packed[0] & 0x3FF) << 12) | (packed[1] >>> 20);
+    values[i + 2] = ((packed[1] & 0xFFFFF) << 2) | (packed[2] >>> 30);
+    values[i + 3] = (packed[2] >>> 8) & 0x3FFFFF;
+    values[i + 4] = ((packed[2] & 0xFF) << 14) | (packed[3] >>> 18);
+    values[i + 5] = ((packed[3] & 0x3FFFF) << 4) | (packed[4] >>> 28);
+    values[i + 6] = (packed[4] >>> 6) & 0x3FFFFF;
+    values[i + 7] = ((packed[4] & 0x3F) << 16) | (packed[5] >>> 16);
+    values[i + 8] = ((packed[5] & 0xFFFF) << 6) | (packed[6] >>> 26);
+    values[i + 9] = (packed[6] >>> 4) & 0x3FFFFF;
+    values[i + 10] = ((packed[6] & 0xF) << 18) | (packed[7] >>> 14);
+    values[i + 11] = ((packed[7] & 0x3FFF) << 8) | (packed[8] >>> 24);
+    values[i + 12] = (packed[8] >>> 2) & 0x3FFFFF;
+    values[i + 13] = ((packed[8] & 0x3) << 20) | (packed[9] >>> 12);
+    values[i + 14] = ((packed[9] & 0xFFF) << 10) | (packed[10] >>> 22);
+    values[i + 15] = packed[10] & 0x3FFFFF;
+    values[i + 16] = packed[11] >>> 10;
+    values[i + 17] = ((packed[11] & 0x3FF) << 12) | (packed[12] >>> 20);
+    values[i + 18] = ((packed[12] & 0xFFFFF) << 2) | (packed[13] >>> 30);
+    values[i + 19] = (packed[13] >>> 8) & 0x3FFFFF;
+    values[i + 20] = ((packed[13] & 0xFF) << 14) | (packed[14] >>> 18);
+    values[i + 21] = ((packed[14] & 0x3FFFF) << 4) | (packed[15] >>> 28);
+    values[i + 22] = (packed[15] >>> 6) & 0x3FFFFF;
+    values[i + 23] = ((packed[15] & 0x3F) << 16) | (packed[16] >>> 16);
+    values[i + 24] = ((packed[16] & 0xFFFF) << 6) | (packed[17] >>> 26);
+    values[i + 25] = (packed[17] >>> 4) & 0x3FFFFF;
+    values[i + 26] = ((packed[17] & 0xF) << 18) | (packed[18] >>> 14);
+    values[i + 27] = ((packed[18] & 0x3FFF) << 8) | (packed[19] >>> 24);
+    values[i + 28] = (packed[19] >>> 2) & 0x3FFFFF;
+    values[i + 29] = ((packed[19] & 0x3) << 20) | (packed[20] >>> 12);
+    values[i + 30] = ((packed[20] & 0xFFF) << 10) | (packed[21] >>> 22);
+    values[i + 31] = packed[21] & 0x3FFFFF;
+  }
+
+  private static void unpack23(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 9;
+    values[i + 1] = ((packed[0] & 0x1FF) << 14) | (packed[1] >>> 18);
+    values[i + 2] = ((packed[1] & 0x3FFFF) << 5) | (packed[2] >>> 27);
+    values[i + 3] = (packed[2] >>> 4) & 0x7FFFFF;
+    values[i + 4] = ((packed[2] & 0xF) << 19) | (packed[3] >>> 13);
+    values[i + 5] = ((packed[3] & 0x1FFF) << 10) | (packed[4] >>> 22);
+    values[i + 6] = ((packed[4] & 0x3FFFFF) << 1) | (packed[5] >>> 31);
+    values[i + 7] = (packed[5] >>> 8) & 0x7FFFFF;
+    values[i + 8] = ((packed[5] & 0xFF) << 15) | (packed[6] >>> 17);
+    values[i + 9] = ((packed[6] & 0x1FFFF) << 6) | (packed[7] >>> 26);
+    values[i + 10] = (packed[7] >>> 3) & 0x7FFFFF;
+    values[i + 11] = ((packed[7] & 0x7) << 20) | (packed[8] >>> 12);
+    values[i + 12] = ((packed[8] & 0xFFF) << 11) | (packed[9] >>> 21);
+    values[i + 13] = ((packed[9] & 0x1FFFFF) << 2) | (packed[10] >>> 30);
+    values[i + 14] = (packed[10] >>> 7) & 0x7FFFFF;
+    values[i + 15] = ((packed[10] & 0x7F) << 16) | (packed[11] >>> 16);
+    values[i + 16] = ((packed[11] & 0xFFFF) << 7) | (packed[12] >>> 25);
+    values[i + 17] = (packed[12] >>> 2) & 0x7FFFFF;
+    values[i + 18] = ((packed[12] & 0x3) << 21) | (packed[13] >>> 11);
+    values[i + 19] = ((packed[13] & 0x7FF) << 12) | (packed[14] >>> 20);
+    values[i + 20] = ((packed[14] & 0xFFFFF) << 3) | (packed[15] >>> 29);
+    values[i + 21] = (packed[15] >>> 6) & 0x7FFFFF;
+    values[i + 22] = ((packed[15] & 0x3F) << 17) | (packed[16] >>> 15);
+    values[i + 23] = ((packed[16] & 0x7FFF) << 8) | (packed[17] >>> 24);
+    values[i + 24] = (packed[17] >>> 1) & 0x7FFFFF;
+    values[i + 25] = ((packed[17] & 0x1) << 22) | (packed[18] >>> 10);
+    values[i + 26] = ((packed[18] & 0x3FF) << 13) | (packed[19] >>> 19);
+    values[i + 27] = ((packed[19] & 0x7FFFF) << 4) | (packed[20] >>> 28);
+    values[i + 28] = (packed[20] >>> 5) & 0x7FFFFF;
+    values[i + 29] = ((packed[20] & 0x1F) << 18) | (packed[21] >>> 14);
+    values[i + 30] = ((packed[21] & 0x3FFF) << 9) | (packed[22] >>> 23);
+    values[i + 31] = packed[22] & 0x7FFFFF;
+  }
+
+  private static void unpack24(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 8;
+    values[i + 1] = ((packed[0] & 0xFF) << 16) | (packed[1] >>> 16);
+    values[i + 2] = ((packed[1] & 0xFFFF) << 8) | (packed[2] >>> 24);
+    values[i + 3] = packed[2] & 0xFFFFFF;
+    values[i + 4] = packed[3] >>> 8;
+    values[i + 5] = ((packed[3] & 0xFF) << 16) | (packed[4] >>> 16);
+    values[i + 6] = ((packed[4] & 0xFFFF) << 8) | (packed[5] >>> 24);
+    values[i + 7] = packed[5] & 0xFFFFFF;
+    values[i + 8] = packed[6] >>> 8;
+    values[i + 9] = ((packed[6] & 0xFF) << 16) | (packed[7] >>> 16);
+    values[i + 10] = ((packed[7] & 0xFFFF) << 8) | (packed[8] >>> 24);
+    values[i + 11] = packed[8] & 0xFFFFFF;
+    values[i + 12] = packed[9] >>> 8;
+    values[i + 13] = ((packed[9] & 0xFF) << 16) | (packed[10] >>> 16);
+    values[i + 14] = ((packed[10] & 0xFFFF) << 8) | (packed[11] >>> 24);
+    values[i + 15] = packed[11] & 0xFFFFFF;
+    values[i + 16] = packed[12] >>> 8;
+    values[i + 17] = ((packed[12] & 0xFF) << 16) | (packed[13] >>> 16);
+    values[i + 18] = ((packed[13] & 0xFFFF) << 8) | (packed[14] >>> 24);
+    values[i + 19] = packed[14] & 0xFFFFFF;
+    values[i + 20] = packed[15] >>> 8;
+    values[i + 21] = ((packed[15] & 0xFF) << 16) | (packed[16] >>> 16);
+    values[i + 22] = ((packed[16] & 0xFFFF) << 8) | (packed[17] >>> 24);
+    values[i + 23] = packed[17] & 0xFFFFFF;
+    values[i + 24] = packed[18] >>> 8;
+    values[i + 25] = ((packed[18] & 0xFF) << 16) | (packed[19] >>> 16);
+    values[i + 26] = ((packed[19] & 0xFFFF) << 8) | (packed[20] >>> 24);
+    values[i + 27] = packed[20] & 0xFFFFFF;
+    values[i + 28] = packed[21] >>> 8;
+    values[i + 29] = ((packed[21] & 0xFF) << 16) | (packed[22] >>> 16);
+    values[i + 30] = ((packed[22] & 0xFFFF) << 8) | (packed[23] >>> 24);
+    values[i + 31] = packed[23] & 0xFFFFFF;
+  }
+
+  private static void unpack25(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 7;
+    values[i + 1] = ((packed[0] & 0x7F) << 18) | (packed[1] >>> 14);
+    values[i + 2] = ((packed[1] & 0x3FFF) << 11) | (packed[2] >>> 21);
+    values[i + 3] = ((packed[2] & 0x1FFFFF) << 4) | (packed[3] >>> 28);
+    values[i + 4] = (packed[3] >>> 3) & 0x1FFFFFF;
+    values[i + 5] = ((packed[3] & 0x7) << 22) | (packed[4] >>> 10);
+    values[i + 6] = ((packed[4] & 0x3FF) << 15) | (packed[5] >>> 17);
+    values[i + 7] = ((packed[5] & 0x1FFFF) << 8) | (packed[6] >>> 24);
+    values[i + 8] = ((packed[6] & 0xFFFFFF) << 1) | (packed[7] >>> 31);
+    values[i + 9] = (packed[7] >>> 6) & 0x1FFFFFF;
+    values[i + 10] = ((packed[7] & 0x3F) << 19) | (packed[8] >>> 13);
+    values[i + 11] = ((packed[8] & 0x1FFF) << 12) | (packed[9] >>> 20);
+    values[i + 12] = ((packed[9] & 0xFFFFF) << 5) | (packed[10] >>> 27);
+    values[i + 13] = (packed[10] >>> 2) & 0x1FFFFFF;
+    values[i + 14] = ((packed[10] & 0x3) << 23) | (packed[11] >>> 9);
+    values[i + 15] = ((packed[11] & 0x1FF) << 16) | (packed[12] >>> 16);
+    values[i + 16] = ((packed[12] & 0xFFFF) << 9) | (packed[13] >>> 23);
+    values[i + 17] = ((packed[13] & 0x7FFFFF) << 2) | (packed[14] >>> 30);
+    values[i + 18] = (packed[14] >>> 5) & 0x1FFFFFF;
+    values[i + 19] = ((packed[14] & 0x1F) << 20) | (packed[15] >>> 12);
+    values[i + 20] = ((packed[15] & 0xFFF) << 13) | (packed[16] >>> 19);
+    values[i + 21] = ((packed[16] & 0x7FFFF) << 6) | (packed[17] >>> 26);
+    values[i + 22] = (packed[17] >>> 1) & 0x1FFFFFF;
+    values[i + 23] = ((packed[17] & 0x1) << 24) | (packed[18] >>> 8);
+    values[i + 24] = ((packed[18] & 0xFF) << 17) | (packed[19] >>> 15);
+    values[i + 25] = ((packed[19] & 0x7FFF) << 10) | (packed[20] >>> 22);
+    values[i + 26] = ((packed[20] & 0x3FFFFF) << 3) | (packed[21] >>> 29);
+    values[i + 27] = (packed[21] >>> 4) & 0x1FFFFFF;
+    values[i + 28] = ((packed[21] & 0xF) << 21) | (packed[22] >>> 11);
+    values[i + 29] = ((packed[22] & 0x7FF) << 14) | (packed[23] >>> 18);
+    values[i + 30] = ((packed[23] & 0x3FFFF) << 7) | (packed[24] >>> 25);
+    values[i + 31] = packed[24] & 0x1FFFFFF;
+  }
+
+  private static void unpack26(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 6;
+    values[i + 1] = ((packed[0] & 0x3F) << 20) | (packed[1] >>> 12);
+    values[i + 2] = ((packed[1] & 0xFFF) << 14) | (packed[2] >>> 18);
+    values[i + 3] = ((packed[2] & 0x3FFFF) << 8) | (packed[3] >>> 24);
+    values[i + 4] = ((packed[3] & 0xFFFFFF) << 2) | (packed[4] >>> 30);
+    values[i + 5] = (packed[4] >>> 4) & 0x3FFFFFF;
+    values[i + 6] = ((packed[4] & 0xF) << 22) | (packed[5] >>> 10);
+    values[i + 7] = ((packed[5] & 0x3FF) << 16) | (packed[6] >>> 16);
+    values[i + 8] = ((packed[6] & 0xFFFF) << 10) | (packed[7] >>> 22);
+    values[i + 9] = ((packed[7] & 0x3FFFFF) << 4) | (packed[8] >>> 28);
+    values[i + 10] = (packed[8] >>> 2) & 0x3FFFFFF;
+    values[i + 11] = ((packed[8] & 0x3) << 24) | (packed[9] >>> 8);
+    values[i + 12] = ((packed[9] & 0xFF) << 18) | (packed[10] >>> 14);
+    values[i + 13] = ((packed[10] & 0x3FFF) << 12) | (packed[11] >>> 20);
+    values[i + 14] = ((packed[11] & 0xFFFFF) << 6) | (packed[12] >>> 26);
+    values[i + 15] = packed[12] & 0x3FFFFFF;
+    values[i + 16] = packed[13] >>> 6;
+    values[i + 17] = ((packed[13] & 0x3F) << 20) | (packed[14] >>> 12);
+    values[i + 18] = ((packed[14] & 0xFFF) << 14) | (packed[15] >>> 18);
+    values[i + 19] = ((packed[15] & 0x3FFFF) << 8) | (packed[16] >>> 24);
+    values[i + 20] = ((packed[16] & 0xFFFFFF) << 2) | (packed[17] >>> 30);
+    values[i + 21] = (packed[17] >>> 4) & 0x3FFFFFF;
+    values[i + 22] = ((packed[17] & 0xF) << 22) | (packed[18] >>> 10);
+    values[i + 23] = ((packed[18] & 0x3FF) << 16) | (packed[19] >>> 16);
+    values[i + 24] = ((packed[19] & 0xFFFF) << 10) | (packed[20] >>> 22);
+    values[i + 25] = ((packed[20] & 0x3FFFFF) << 4) | (packed[21] >>> 28);
+    values[i + 26] = (packed[21] >>> 2) & 0x3FFFFFF;
+    values[i + 27] = ((packed[21] & 0x3) << 24) | (packed[22] >>> 8);
+    values[i + 28] = ((packed[22] & 0xFF) << 18) | (packed[23] >>> 14);
+    values[i + 29] = ((packed[23] & 0x3FFF) << 12) | (packed[24] >>> 20);
+    values[i + 30] = ((packed[24] & 0xFFFFF) << 6) | (packed[25] >>> 26);
+    values[i + 31] = packed[25] & 0x3FFFFFF;
+  }
+
+  private static void unpack27(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 5;
+    values[i + 1] = ((packed[0] & 0x1F) << 22) | (packed[1] >>> 10);
+    values[i + 2] = ((packed[1] & 0x3FF) << 17) | (packed[2] >>> 15);
+    values[i + 3] = ((packed[2] & 0x7FFF) << 12) | (packed[3] >>> 20);
+    values[i + 4] = ((packed[3] & 0xFFFFF) << 7) | (packed[4] >>> 25);
+    values[i + 5] = ((packed[4] & 0x1FFFFFF) << 2) | (packed[5] >>> 30);
+    values[i + 6] = (packed[5] >>> 3) & 0x7FFFFFF;
+    values[i + 7] = ((packed[5] & 0x7) << 24) | (packed[6] >>> 8);
+    values[i + 8] = ((packed[6] & 0xFF) << 19) | (packed[7] >>> 13);
+    values[i + 9] = ((packed[7] & 0x1FFF) << 14) | (packed[8] >>> 18);
+    values[i + 10] = ((packed[8] & 0x3FFFF) << 9) | (packed[9] >>> 23);
+    values[i + 11] = ((packed[9] & 0x7FFFFF) << 4) | (packed[10] >>> 28);
+    values[i + 12] = (packed[10] >>> 1) & 0x7FFFFFF;
+    values[i + 13] = ((packed[10] & 0x1) << 26) | (packed[11] >>> 6);
+    values[i + 14] = ((packed[11] & 0x3F) << 21) | (packed[12] >>> 11);
+    values[i + 15] = ((packed[12] & 0x7FF) << 16) | (packed[13] >>> 16);
+    values[i + 16] = ((packed[13] & 0xFFFF) << 11) | (packed[14] >>> 21);
+    values[i + 17] = ((packed[14] & 0x1FFFFF) << 6) | (packed[15] >>> 26);
+    values[i + 18] = ((packed[15] & 0x3FFFFFF) << 1) | (packed[16] >>> 31);
+    values[i + 19] = (packed[16] >>> 4) & 0x7FFFFFF;
+    values[i + 20] = ((packed[16] & 0xF) << 23) | (packed[17] >>> 9);
+    values[i + 21] = ((packed[17] & 0x1FF) << 18) | (packed[18] >>> 14);
+    values[i + 22] = ((packed[18] & 0x3FFF) << 13) | (packed[19] >>> 19);
+    values[i + 23] = ((packed[19] & 0x7FFFF) << 8) | (packed[20] >>> 24);
+    values[i + 24] = ((packed[20] & 0xFFFFFF) << 3) | (packed[21] >>> 29);
+    values[i + 25] = (packed[21] >>> 2) & 0x7FFFFFF;
+    values[i + 26] = ((packed[21] & 0x3) << 25) | (packed[22] >>> 7);
+    values[i + 27] = ((packed[22] & 0x7F) << 20) | (packed[23] >>> 12);
+    values[i + 28] = ((packed[23] & 0xFFF) << 15) | (packed[24] >>> 17);
+    values[i + 29] = ((packed[24] & 0x1FFFF) << 10) | (packed[25] >>> 22);
+    values[i + 30] = ((packed[25] & 0x3FFFFF) << 5) | (packed[26] >>> 27);
+    values[i + 31] = packed[26] & 0x7FFFFFF;
+  }
+
+  private static void unpack28(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 4;
+    values[i + 1] = ((packed[0] & 0xF) << 24) | (packed[1] >>> 8);
+    values[i + 2] = ((packed[1] & 0xFF) << 20) | (packed[2] >>> 12);
+    values[i + 3] = ((packed[2] & 0xFFF) << 16) | (packed[3] >>> 16);
+    values[i + 4] = ((packed[3] & 0xFFFF) << 12) | (packed[4] >>> 20);
+    values[i + 5] = ((packed[4] & 0xFFFFF) << 8) | (packed[5] >>> 24);
+    values[i + 6] = ((packed[5] & 0xFFFFFF) << 4) | (packed[6] >>> 28);
+    values[i + 7] = packed[6] & 0xFFFFFFF;
+    values[i + 8] = packed[7] >>> 4;
+    values[i + 9] = ((packed[7] & 0xF) << 24) | (packed[8] >>> 8);
+    values[i + 10] = ((packed[8] & 0xFF) << 20) | (packed[9] >>> 12);
+    values[i + 11] = ((packed[9] & 0xFFF) << 16) | (packed[10] >>> 16);
+    values[i + 12] = ((packed[10] & 0xFFFF) << 12) | (packed[11] >>> 20);
+    values[i + 13] = ((packed[11] & 0xFFFFF) << 8) | (packed[12] >>> 24);
+    values[i + 14] = ((packed[12] & 0xFFFFFF) << 4) | (packed[13] >>> 28);
+    values[i + 15] = packed[13] & 0xFFFFFFF;
+    values[i + 16] = packed[14] >>> 4;
+    values[i + 17] = ((packed[14] & 0xF) << 24) | (packed[15] >>> 8);
+    values[i + 18] = ((packed[15] & 0xFF) << 20) | (packed[16] >>> 12);
+    values[i + 19] = ((packed[16] & 0xFFF) << 16) | (packed[17] >>> 16);
+    values[i + 20] = ((packed[17] & 0xFFFF) << 12) | (packed[18] >>> 20);
+    values[i + 21] = ((packed[18] & 0xFFFFF) << 8) | (packed[19] >>> 24);
+    values[i + 22] = ((packed[19] & 0xFFFFFF) << 4) | (packed[20] >>> 28);
+    values[i + 23] = packed[20] & 0xFFFFFFF;
+    values[i + 24] = packed[21] >>> 4;
+    values[i + 25] = ((packed[21] & 0xF) << 24) | (packed[22] >>> 8);
+    values[i + 26] = ((packed[22] & 0xFF) << 20) | (packed[23] >>> 12);
+    values[i + 27] = ((packed[23] & 0xFFF) << 16) | (packed[24] >>> 16);
+    values[i + 28] = ((packed[24] & 0xFFFF) << 12) | (packed[25] >>> 20);
+    values[i + 29] = ((packed[25] & 0xFFFFF) << 8) | (packed[26] >>> 24);
+    values[i + 30] = ((packed[26] & 0xFFFFFF) << 4) | (packed[27] >>> 28);
+    values[i + 31] = packed[27] & 0xFFFFFFF;
+  }
+
+  private static void unpack29(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 3;
+    values[i + 1] = ((packed[0] & 0x7) << 26) | (packed[1] >>> 6);
+    values[i + 2] = ((packed[1] & 0x3F) << 23) | (packed[2] >>> 9);
+    values[i + 3] = ((packed[2] & 0x1FF) << 20) | (packed[3] >>> 12);
+    values[i + 4] = ((packed[3] & 0xFFF) << 17) | (packed[4] >>> 15);
+    values[i + 5] = ((packed[4] & 0x7FFF) << 14) | (packed[5] >>> 18);
+    values[i + 6] = ((packed[5] & 0x3FFFF) << 11) | (packed[6] >>> 21);
+    values[i + 7] = ((packed[6] & 0x1FFFFF) << 8) | (packed[7] >>> 24);
+    values[i + 8] = ((packed[7] & 0xFFFFFF) << 5) | (packed[8] >>> 27);
+    values[i + 9] = ((packed[8] & 0x7FFFFFF) << 2) | (packed[9] >>> 30);
+    values[i + 10] = (packed[9] >>> 1) & 0x1FFFFFFF;
+    values[i + 11] = ((packed[9] & 0x1) << 28) | (packed[10] >>> 4);
+    values[i + 12] = ((packed[10] & 0xF) << 25) | (packed[11] >>> 7);
+    values[i + 13] = ((packed[11] & 0x7F) << 22) | (packed[12] >>> 10);
+    values[i + 14] = ((packed[12] & 0x3FF) << 19) | (packed[13] >>> 13);
+    values[i + 15] = ((packed[13] & 0x1FFF) << 16) | (packed[14] >>> 16);
+    values[i + 16] = ((packed[14] & 0xFFFF) << 13) | (packed[15] >>> 19);
+    values[i + 17] = ((packed[15] & 0x7FFFF) << 10) | (packed[16] >>> 22);
+    values[i + 18] = ((packed[16] & 0x3FFFFF) << 7) | (packed[17] >>> 25);
+    values[i + 19] = ((packed[17] & 0x1FFFFFF) << 4) | (packed[18] >>> 28);
+    values[i + 20] = ((packed[18] & 0xFFFFFFF) << 1) | (packed[19] >>> 31);
+    values[i + 21] = (packed[19] >>> 2) & 0x1FFFFFFF;
+    values[i + 22] = ((packed[19] & 0x3) << 27) | (packed[20] >>> 5);
+    values[i + 23] = ((packed[20] & 0x1F) << 24) | (packed[21] >>> 8);
+    values[i + 24] = ((packed[21] & 0xFF) << 21) | (packed[22] >>> 11);
+    values[i + 25] = ((packed[22] & 0x7FF) << 18) | (packed[23] >>> 14);
+    values[i + 26] = ((packed[23] & 0x3FFF) << 15) | (packed[24] >>> 17);
+    values[i + 27] = ((packed[24] & 0x1FFFF) << 12) | (packed[25] >>> 20);
+    values[i + 28] = ((packed[25] & 0xFFFFF) << 9) | (packed[26] >>> 23);
+    values[i + 29] = ((packed[26] & 0x7FFFFF) << 6) | (packed[27] >>> 26);
+    values[i + 30] = ((packed[27] & 0x3FFFFFF) << 3) | (packed[28] >>> 29);
+    values[i + 31] = packed[28] & 0x1FFFFFFF;
+  }
+
+  private static void unpack30(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 2;
+    values[i + 1] = ((packed[0] & 0x3) << 28) | (packed[1] >>> 4);
+    values[i + 2] = ((packed[1] & 0xF) << 26) | (packed[2] >>> 6);
+    values[i + 3] = ((packed[2] & 0x3F) << 24) | (packed[3] >>> 8);
+    values[i + 4] = ((packed[3] & 0xFF) << 22) | (packed[4] >>> 10);
+    values[i + 5] = ((packed[4] & 0x3FF) << 20) | (packed[5] >>> 12);
+    values[i + 6] = ((packed[5] & 0xFFF) << 18) | (packed[6] >>> 14);
+    values[i + 7] = ((packed[6] & 0x3FFF) << 16) | (packed[7] >>> 16);
+    values[i + 8] = ((packed[7] & 0xFFFF) << 14) | (packed[8] >>> 18);
+    values[i + 9] = ((packed[8] & 0x3FFFF) << 12) | (packed[9] >>> 20);
+    values[i + 10] = ((packed[9] & 0xFFFFF) << 10) | (packed[10] >>> 22);
+    values[i + 11] = ((packed[10] & 0x3FFFFF) << 8) | (packed[11] >>> 24);
+    values[i + 12] = ((packed[11] & 0xFFFFFF) << 6) | (packed[12] >>> 26);
+    values[i + 13] = ((packed[12] & 0x3FFFFFF) << 4) | (packed[13] >>> 28);
+    values[i + 14] = ((packed[13] & 0xFFFFFFF) << 2) | (packed[14] >>> 30);
+    values[i + 15] = packed[14] & 0x3FFFFFFF;
+    values[i + 16] = packed[15] >>> 2;
+    values[i + 17] = ((packed[15] & 0x3) << 28) | (packed[16] >>> 4);
+    values[i + 18] = ((packed[16] & 0xF) << 26) | (packed[17] >>> 6);
+    values[i + 19] = ((packed[17] & 0x3F) << 24) | (packed[18] >>> 8);
+    values[i + 20] = ((packed[18] & 0xFF) << 22) | (packed[19] >>> 10);
+    values[i + 21] = ((packed[19] & 0x3FF) << 20) | (packed[20] >>> 12);
+    values[i + 22] = ((packed[20] & 0xFFF) << 18) | (packed[21] >>> 14);
+    values[i + 23] = ((packed[21] & 0x3FFF) << 16) | (packed[22] >>> 16);
+    values[i + 24] = ((packed[22] & 0xFFFF) << 14) | (packed[23] >>> 18);
+    values[i + 25] = ((packed[23] & 0x3FFFF) << 12) | (packed[24] >>> 20);
+    values[i + 26] = ((packed[24] & 0xFFFFF) << 10) | (packed[25] >>> 22);
+    values[i + 27] = ((packed[25] & 0x3FFFFF) << 8) | (packed[26] >>> 24);
+    values[i + 28] = ((packed[26] & 0xFFFFFF) << 6) | (packed[27] >>> 26);
+    values[i + 29] = ((packed[27] & 0x3FFFFFF) << 4) | (packed[28] >>> 28);
+    values[i + 30] = ((packed[28] & 0xFFFFFFF) << 2) | (packed[29] >>> 30);
+    values[i + 31] = packed[29] & 0x3FFFFFFF;
+  }
+
+  private static void unpack31(int[] packed, int[] values, int i) {
+    values[i] = packed[0] >>> 1;
+    values[i + 1] = ((packed[0] & 0x1) << 30) | (packed[1] >>> 2);
+    values[i + 2] = ((packed[1] & 0x3) << 29) | (packed[2] >>> 3);
+    values[i + 3] = ((packed[2] & 0x7) << 28) | (packed[3] >>> 4);
+    values[i + 4] = ((packed[3] & 0xF) << 27) | (packed[4] >>> 5);
+    values[i + 5] = ((packed[4] & 0x1F) << 26) | (packed[5] >>> 6);
+    values[i + 6] = ((packed[5] & 0x3F) << 25) | (packed[6] >>> 7);
+    values[i + 7] = ((packed[6] & 0x7F) << 24) | (packed[7] >>> 8);
+    values[i + 8] = ((packed[7] & 0xFF) << 23) | (packed[8] >>> 9);
+    values[i + 9] = ((packed[8] & 0x1FF) << 22) | (packed[9] >>> 10);
+    values[i + 10] = ((packed[9] & 0x3FF) << 21) | (packed[10] >>> 11);
+    values[i + 11] = ((packed[10] & 0x7FF) << 20) | (packed[11] >>> 12);
+    values[i + 12] = ((packed[11] & 0xFFF) << 19) | (packed[12] >>> 13);
+    values[i + 13] = ((packed[12] & 0x1FFF) << 18) | (packed[13] >>> 14);
+    values[i + 14] = ((packed[13] & 0x3FFF) << 17) | (packed[14] >>> 15);
+    values[i + 15] = ((packed[14] & 0x7FFF) << 16) | (packed[15] >>> 16);
+    values[i + 16] = ((packed[15] & 0xFFFF) << 15) | (packed[16] >>> 17);
+    values[i + 17] = ((packed[16] & 0x1FFFF) << 14) | (packed[17] >>> 18);
+    values[i + 18] = ((packed[17] & 0x3FFFF) << 13) | (packed[18] >>> 19);
+    values[i + 19] = ((packed[18] & 0x7FFFF) << 12) | (packed[19] >>> 20);
+    values[i + 20] = ((packed[19] & 0xFFFFF) << 11) | (packed[20] >>> 21);
+    values[i + 21] = ((packed[20] & 0x1FFFFF) << 10) | (packed[21] >>> 22);
+    values[i + 22] = ((packed[21] & 0x3FFFFF) << 9) | (packed[22] >>> 23);
+    values[i + 23] = ((packed[22] & 0x7FFFFF) << 8) | (packed[23] >>> 24);
+    values[i + 24] = ((packed[23] & 0xFFFFFF) << 7) | (packed[24] >>> 25);
+    values[i + 25] = ((packed[24] & 0x1FFFFFF) << 6) | (packed[25] >>> 26);
+    values[i + 26] = ((packed[25] & 0x3FFFFFF) << 5) | (packed[26] >>> 27);
+    values[i + 27] = ((packed[26] & 0x7FFFFFF) << 4) | (packed[27] >>> 28);
+    values[i + 28] = ((packed[27] & 0xFFFFFFF) << 3) | (packed[28] >>> 29);
+    values[i + 29] = ((packed[28] & 0x1FFFFFFF) << 2) | (packed[29] >>> 30);
+    values[i + 30] = ((packed[29] & 0x3FFFFFFF) << 1) | (packed[30] >>> 31);
+    values[i + 31] = packed[30] & 0x7FFFFFFF;
+  }
+
+  private static void unpack32(int[] packed, int[] values, int i) {
+    values[i] = packed[0];
+    values[i + 1] = packed[1];
+    values[i + 2] = packed[2];
+    values[i + 3] = packed[3];
+    values[i + 4] = packed[4];
+    values[i + 5] = packed[5];
+    values[i + 6] = packed[6];
+    values[i + 7] = packed[7];
+    values[i + 8] = packed[8];
+    values[i + 9] = packed[9];
+    values[i + 10] = packed[10];
+    values[i + 11] = packed[11];
+    values[i + 12] = packed[12];
+    values[i + 13] = packed[13];
+    values[i + 14] = packed[14];
+    values[i + 15] = packed[15];
+    values[i + 16] = packed[16];
+    values[i + 17] = packed[17];
+    values[i + 18] = packed[18];
+    values[i + 19] = packed[19];
+    values[i + 20] = packed[20];
+    values[i + 21] = packed[21];
+    values[i + 22] = packed[22];
+    values[i + 23] = packed[23];
+    values[i + 24] = packed[24];
+    values[i + 25] = packed[25];
+    values[i + 26] = packed[26];
+    values[i + 27] = packed[27];
+    values[i + 28] = packed[28];
+    values[i + 29] = packed[29];
+    values[i + 30] = packed[30];
+    values[i + 31] = packed[31];
+  }
+}
@@ -68,6 +68,56 @@ public final class PinotDataBitSet implements Closeable {
   }
 
   public void readInt(int startIndex, int numBitsPerValue, int length, int[] buffer) {
+    readInt(startIndex, numBitsPerValue, length, buffer, 0);
+  }
+
+  /**
+   * Read a range of values into the buffer starting at the given buffer index.
+   * <p>The values in the blocks of 32 aligned values are decoded with {@link FixedBitIntUnpacker}, the values before
+   * the first and after the last aligned block are decoded one by one.
+   */
+  public void readInt(int startIndex, int numBitsPerValue, int length, int[] buffer, int bufferStartIndex) {
+    int endIndex = startIndex + length;
+    int alignedStartIndex =
+        (startIndex + FixedBitIntUnpacker.NUM_VALUES_PER_UNPACK - 1) & -FixedBitIntUnpacker.NUM_VALUES_PER_UNPACK;
+    int alignedEndIndex = endIndex & -FixedBitIntUnpacker.NUM_VALUES_PER_UNPACK;
+    if (alignedStartIndex >= alignedEndIndex) {
+      readIntSequential(startIndex, numBitsPerValue, length, buffer, bufferStartIndex);
+      return;
+    }
+
+    // Head
+    int numHeadValues = alignedStartIndex - startIndex;
+    if (numHeadValues > 0) {
+      readIntSequential(startIndex, numBitsPerValue, numHeadValues, buffer, bufferStartIndex);
+    }
+
+    // Aligned blocks, where 32 values always take numBitsPerValue ints
+    int[] packed = new int[numBitsPerValue];
+    int byteOffset = (int) ((long) alignedStartIndex * numBitsPerValue / Byte.SIZE);
+    int bufferIndex = bufferStartIndex + numHeadValues;
+    for (int index = alignedStartIndex; index < alignedEndIndex; index += FixedBitIntUnpacker.NUM_VALUES_PER_UNPACK) {
+      for (int i = 0; i < numBitsPerValue; i++) {
+        // Assemble big-endian ints byte by byte because the byte order of PinotDataBuffer.getInt() is not consistent
+        // across implementations
+        packed[i] = (_dataBuffer.getByte(byteOffset) << 24) | ((_dataBuffer.getByte(byteOffset + 1) & BYTE_MASK) << 16)
+            | ((_dataBuffer.getByte(byteOffset + 2) & BYTE_MASK) << 8) | (_dataBuffer.getByte(byteOffset + 3)
+            & BYTE_MASK);
+        byteOffset += Integer.SIZE / Byte.SIZE;
+      }
+      FixedBitIntUnpacker.unpack(numBitsPerValue, packed, buffer, bufferIndex);
+      bufferIndex += FixedBitIntUnpacker.NUM_VALUES_PER_UNPACK;
+    }
+
+    // Tail
+    int numTailValues = endIndex - alignedEndIndex;
+    if (numTailValues > 0) {
+      readIntSequential(alignedEndIndex, numBitsPerValue, numTailValues, buffer, bufferIndex);
+    }
+  }
+
+  private void readIntSequential(int startIndex, int numBitsPerValue, int length, int[] buffer,
+      int bufferStartIndex) {
     long startBitOffset = (long) startIndex * numBitsPerValue;
     int byteOffset = (int) (startBitOffset / Byte.SIZE);
     int bitOffsetInFirstByte = (int) (startBitOffset % Byte.SIZE);
@@ -75,7 +125,8 @@ public final class PinotDataBitSet implements Closeable {
     // Initiated with the value in first byte
     int currentValue = _dataBuffer.getByte(byteOffset) & (BYTE_MASK >>> bitOffsetInFirstByte);
 
-    for (int i = 0; i < length; i++) {
+    int endIndex = bufferStartIndex + length;
+    for (int i = bufferStartIndex; i < endIndex; i++) {
       if (bitOffsetInFirstByte == Byte.SIZE) {
         bitOffsetInFirstByte = 0;
         currentValue = _dataBuffer.getByte(++byteOffset) & BYTE_MASK;
@@ -35,8 +35,11 @@ import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 import com.linkedin.pinot.core.util.CrcUtils;
 import java.io.File;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.configuration.PropertiesConfiguration;
@@ -59,10 +62,13 @@ import org.slf4j.LoggerFactory;
  *     convert it.
  *   </li>
  * </ul>
+ * <p>Raw indexes of columns with a configured compression type are re-encoded with that compression type, and
+ * dictionary-based indexes converted into raw indexes use it as well (default is SNAPPY).
  * <p>After the conversion, add "rawIndex" into the segment metadata "optimizations" field.
  */
 public class RawIndexConverter {
   private static final Logger LOGGER = LoggerFactory.getLogger(RawIndexConverter.class);
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
 
   // Threshold for the ratio of uncompressed raw index size and dictionary-based index size to trigger conversion
   private static final int CONVERSION_THRESHOLD = 4;
@@ -75,6 +81,7 @@ public class RawIndexConverter {
   private final File _convertedIndexDir;
   private final PropertiesConfiguration _convertedProperties;
   private final String _columnsToConvert;
+  private final Map<String, ChunkCompressorFactory.CompressionType> _compressionTypes;
 
   /**
    * NOTE: original segment should be in V1 format.
@@ -82,6 +89,17 @@ public class RawIndexConverter {
    */
   public RawIndexConverter(@Nonnull File originalIndexDir, @Nonnull File convertedIndexDir,
       @Nullable String columnsToConvert) throws Exception {
+    this(originalIndexDir, convertedIndexDir, columnsToConvert, null);
+  }
+
+  /**
+   * NOTE: original segment should be in V1 format.
+   *
+   * @param compressionTypes Map from column to the compression type of its raw index
+   */
+  public RawIndexConverter(@Nonnull File originalIndexDir, @Nonnull File convertedIndexDir,
+      @Nullable String columnsToConvert,
+      @Nullable Map<String, ChunkCompressorFactory.CompressionType> compressionTypes) throws Exception {
     FileUtils.copyDirectory(originalIndexDir, convertedIndexDir);
     IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
     indexLoadingConfig.setSegmentVersion(SegmentVersion.v1);
@@ -92,6 +110,11 @@ public class RawIndexConverter {
     _convertedProperties =
         new PropertiesConfiguration(new File(_convertedIndexDir, V1Constants.MetadataKeys.METADATA_FILE_NAME));
     _columnsToConvert = columnsToConvert;
+    if (compressionTypes != null) {
+      _compressionTypes = compressionTypes;
+    } else {
+      _compressionTypes = Collections.emptyMap();
+    }
   }
 
   public boolean convert() throws Exception {
@@ -121,14 +144,25 @@ public class RawIndexConverter {
           continue;
         }
         if (!_originalSegmentMetadata.hasDictionary(columnToConvert)) {
-          LOGGER.warn("Skip converting column: {} because its index is not dictionary-based");
+          if (!_compressionTypes.containsKey(columnToConvert)) {
+            LOGGER.warn("Skip converting column: {} because its index is not dictionary-based");
+          }
           continue;
         }
         columnsToConvert.add(fieldSpec);
       }
     }
 
-    if (columnsToConvert.isEmpty()) {
+    // Raw indexes with a configured compression type are re-encoded
+    List<FieldSpec> columnsToReencode = new ArrayList<>();
+    for (String column : _compressionTypes.keySet()) {
+      FieldSpec fieldSpec = schema.getFieldSpecFor(column);
+      if (fieldSpec != null && fieldSpec.isSingleValueField() && !_originalSegmentMetadata.hasDictionary(column)) {
+        columnsToReencode.add(fieldSpec);
+      }
+    }
+
+    if (columnsToConvert.isEmpty() && columnsToReencode.isEmpty()) {
       LOGGER.info("No column converted for segment: {} in table: {}", segmentName, tableName);
       return false;
     } else {
@@ -136,6 +170,9 @@ public class RawIndexConverter {
       for (FieldSpec columnToConvert : columnsToConvert) {
         convertColumn(columnToConvert);
       }
+      for (FieldSpec columnToReencode : columnsToReencode) {
+        reencodeColumn(columnToReencode);
+      }
       _convertedProperties.save();
 
       // Update creation metadata with new computed CRC and original segment creation time
@@ -143,7 +180,8 @@ public class RawIndexConverter {
           CrcUtils.forAllFilesInFolder(_convertedIndexDir).computeCrc(),
           _originalSegmentMetadata.getIndexCreationTime());
 
-      LOGGER.info("{} columns converted for segment: {} in table: {}", columnsToConvert.size(), segmentName, tableName);
+      LOGGER.info("{} columns converted and {} columns re-encoded for segment: {} in table: {}",
+          columnsToConvert.size(), columnsToReencode.size(), segmentName, tableName);
       return true;
     }
   }
@@ -192,7 +230,7 @@ public class RawIndexConverter {
     FieldSpec.DataType dataType = fieldSpec.getDataType();
     int lengthOfLongestEntry = _originalSegmentMetadata.getColumnMetadataFor(columnName).getStringColumnMaxLength();
     try (SingleValueRawIndexCreator rawIndexCreator = SegmentColumnarIndexCreator.getRawIndexCreatorForColumn(
-        _convertedIndexDir, ChunkCompressorFactory.CompressionType.SNAPPY, columnName, dataType,
+        _convertedIndexDir, getCompressionType(columnName), columnName, dataType,
         _originalSegmentMetadata.getTotalDocs(), lengthOfLongestEntry)) {
       BlockSingleValIterator iterator = (BlockSingleValIterator) dataSource.nextBlock().getBlockValueSet().iterator();
       int docId = 0;
@@ -208,5 +246,63 @@ public class RawIndexConverter {
     _convertedProperties.setProperty(
         V1Constants.MetadataKeys.Column.getKeyFor(columnName, V1Constants.MetadataKeys.Column.BITS_PER_ELEMENT),
         BITS_PER_ELEMENT_FOR_RAW_INDEX);
+    _convertedProperties.clearProperty(V1Constants.MetadataKeys.Column.getKeyFor(columnName,
+        V1Constants.MetadataKeys.Column.IS_VAR_LENGTH_DICTIONARY));
+  }
+
+  private void reencodeColumn(FieldSpec fieldSpec) throws Exception {
+    String columnName = fieldSpec.getName();
+    ChunkCompressorFactory.CompressionType compressionType = getCompressionType(columnName);
+    LOGGER.info("Re-encoding raw index of column: {} with compression type: {}", columnName, compressionType);
+
+    // Delete the existing raw index
+    FileUtils.deleteQuietly(
+        new File(_convertedIndexDir, columnName + V1Constants.Indexes.RAW_SV_FORWARD_INDEX_FILE_EXTENSION));
+
+    // Create the raw index from the values of the original raw index
+    DataSource dataSource = _originalIndexSegment.getDataSource(columnName);
+    FieldSpec.DataType dataType = fieldSpec.getDataType();
+    BlockSingleValIterator iterator = (BlockSingleValIterator) dataSource.nextBlock().getBlockValueSet().iterator();
+
+    // String column max length is not in the metadata for raw indexes, compute the longest entry in bytes
+    int lengthOfLongestEntry = 0;
+    if (dataType.equals(FieldSpec.DataType.STRING)) {
+      while (iterator.hasNext()) {
+        lengthOfLongestEntry = Math.max(lengthOfLongestEntry, iterator.nextStringVal().getBytes(UTF_8).length);
+      }
+      iterator.reset();
+    }
+
+    try (SingleValueRawIndexCreator rawIndexCreator = SegmentColumnarIndexCreator.getRawIndexCreatorForColumn(
+        _convertedIndexDir, compressionType, columnName, dataType, _originalSegmentMetadata.getTotalDocs(),
+        lengthOfLongestEntry)) {
+      int docId = 0;
+      while (iterator.hasNext()) {
+        switch (dataType) {
+          case INT:
+            rawIndexCreator.index(docId++, iterator.nextIntVal());
+            break;
+          case LONG:
+            rawIndexCreator.index(docId++, iterator.nextLongVal());
+            break;
+          case FLOAT:
+            rawIndexCreator.index(docId++, iterator.nextFloatVal());
+            break;
+          case DOUBLE:
+            rawIndexCreator.index(docId++, iterator.nextDoubleVal());
+            break;
+          case STRING:
+            rawIndexCreator.index(docId++, iterator.nextStringVal());
+            break;
+          default:
+            throw new UnsupportedOperationException("Unsupported data type: " + dataType + " for raw index");
+        }
+      }
+    }
+  }
+
+  private ChunkCompressorFactory.CompressionType getCompressionType(String column) {
+    ChunkCompressorFactory.CompressionType compressionType = _compressionTypes.get(column);
+    return compressionType != null ? compressionType : ChunkCompressorFactory.CompressionType.SNAPPY;
   }
 }
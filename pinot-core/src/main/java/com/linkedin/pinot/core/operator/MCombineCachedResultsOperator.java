@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.operator.query.CachedSegmentResultOperator;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
+import com.linkedin.pinot.core.query.reduce.CombineService;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>MCombineCachedResultsOperator</code> class is the operator to combine aggregation and aggregation group-by
+ * results when all the segments are served from the segment result cache.
+ * <p>The cached results are already computed, so they are merged on the calling thread through
+ * {@link CombineService#mergeTwoBlocks(BrokerRequest, IntermediateResultsBlock, IntermediateResultsBlock)} without
+ * submitting any job to the executor service.
+ */
+public class MCombineCachedResultsOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MCombineCachedResultsOperator.class);
+  private static final String OPERATOR_NAME = "MCombineCachedResultsOperator";
+
+  private final List<CachedSegmentResultOperator> _operators;
+  private final BrokerRequest _brokerRequest;
+
+  public MCombineCachedResultsOperator(List<CachedSegmentResultOperator> operators, BrokerRequest brokerRequest) {
+    Preconditions.checkArgument(!operators.isEmpty() && brokerRequest.isSetAggregationsInfo());
+
+    _operators = operators;
+    _brokerRequest = brokerRequest;
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    IntermediateResultsBlock mergedBlock = null;
+    try {
+      for (Operator operator : _operators) {
+        IntermediateResultsBlock blockToMerge = (IntermediateResultsBlock) operator.nextBlock();
+        if (mergedBlock == null) {
+          mergedBlock = blockToMerge;
+        } else {
+          try {
+            CombineService.mergeTwoBlocks(_brokerRequest, mergedBlock, blockToMerge);
+          } catch (Exception e) {
+            LOGGER.error("Caught exception while merging two cached blocks.", e);
+            mergedBlock.addToProcessingExceptions(QueryException.getException(QueryException.MERGE_RESPONSE_ERROR, e));
+          }
+        }
+      }
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while combining cached results.", e);
+      return new IntermediateResultsBlock(e);
+    }
+
+    // Trim the group-by results.
+    if (_brokerRequest.isSetGroupBy()) {
+      AggregationFunctionContext[] aggregationFunctionContexts = mergedBlock.getAggregationFunctionContexts();
+      int numAggregationFunctions = aggregationFunctionContexts.length;
+      AggregationFunction[] aggregationFunctions = new AggregationFunction[numAggregationFunctions];
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        aggregationFunctions[i] = aggregationFunctionContexts[i].getAggregationFunction();
+      }
+      AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
+          new AggregationGroupByTrimmingService(aggregationFunctions, (int) _brokerRequest.getGroupBy().getTopN());
+      List<Map<String, Object>> combinedAggregationGroupByResult = mergedBlock.getCombinedAggregationGroupByResult();
+      mergedBlock.setCombinedAggregationGroupByResult(
+          aggregationGroupByTrimmingService.trimIntermediateResultMaps(combinedAggregationGroupByResult));
+    }
+
+    // Set the execution statistics.
+    ExecutionStatistics executionStatistics = new ExecutionStatistics();
+    for (Operator operator : _operators) {
+      executionStatistics.merge(operator.getExecutionStatistics());
+    }
+    mergedBlock.setNumDocsScanned(executionStatistics.getNumDocsScanned());
+    mergedBlock.setNumEntriesScannedInFilter(executionStatistics.getNumEntriesScannedInFilter());
+    mergedBlock.setNumEntriesScannedPostFilter(executionStatistics.getNumEntriesScannedPostFilter());
+    mergedBlock.setNumTotalRawDocs(executionStatistics.getNumTotalRawDocs());
+
+    return mergedBlock;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+}
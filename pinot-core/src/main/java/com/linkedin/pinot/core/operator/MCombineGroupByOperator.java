@@ -27,8 +27,11 @@ import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUti
 import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
 import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
 import com.linkedin.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.query.aggregation.groupby.SpillableGroupByResultsMap;
 import com.linkedin.pinot.core.util.trace.TraceRunnable;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -39,12 +42,18 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 /**
  * The <code>MCombineGroupByOperator</code> class is the operator to combine aggregation group-by results.
+ * <p>With a memory budget, the merged results are spilled to local disk as sorted runs when the budget is exceeded, and
+ * the runs are merged while trimming the results (see {@link SpillableGroupByResultsMap}).
  */
 public class MCombineGroupByOperator extends BaseOperator<IntermediateResultsBlock> {
   private static final Logger LOGGER = LoggerFactory.getLogger(MCombineGroupByOperator.class);
@@ -68,6 +77,10 @@ public class MCombineGroupByOperator extends BaseOperator<IntermediateResultsBlo
   private final ExecutorService _executorService;
   private final BrokerRequest _brokerRequest;
   private final long _timeOutMs;
+  // Memory budget for the group-by results of the query, beyond which the results are spilled, or non-positive value
+  // to never spill.
+  private final long _groupByMemoryBudgetBytes;
+  private final File _groupBySpillDir;
 
   /**
    * Constructor for the class.
@@ -80,12 +93,29 @@ public class MCombineGroupByOperator extends BaseOperator<IntermediateResultsBlo
    */
   public MCombineGroupByOperator(List<Operator> operators, ExecutorService executorService, long timeOutMs,
       BrokerRequest brokerRequest) {
+    this(operators, executorService, timeOutMs, brokerRequest, 0L, null);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param operators List of operators, whose result needs to be combined.
+   * @param executorService Executor service to use for multi-threaded portions of combine.
+   * @param timeOutMs Timeout for combine.
+   * @param brokerRequest BrokerRequest corresponding to the query.
+   * @param groupByMemoryBudgetBytes Memory budget for the group-by results, non-positive value to never spill.
+   * @param groupBySpillDir Directory for the spilled group-by results, or null to use the temporary directory.
+   */
+  public MCombineGroupByOperator(List<Operator> operators, ExecutorService executorService, long timeOutMs,
+      BrokerRequest brokerRequest, long groupByMemoryBudgetBytes, @Nullable File groupBySpillDir) {
     Preconditions.checkArgument(brokerRequest.isSetAggregationsInfo() && brokerRequest.isSetGroupBy());
 
     _operators = operators;
     _executorService = executorService;
     _brokerRequest = brokerRequest;
     _timeOutMs = timeOutMs;
+    _groupByMemoryBudgetBytes = groupByMemoryBudgetBytes;
+    _groupBySpillDir = groupBySpillDir != null ? groupBySpillDir : FileUtils.getTempDirectory();
   }
 
   /**
@@ -111,7 +141,10 @@ public class MCombineGroupByOperator extends BaseOperator<IntermediateResultsBlo
    *     Objects (one for each aggregation function).
    *   - Synchronization is provided by locking the group-key that is to be modified.
    *
-   * 2. The result of the concurrent map is then translated into what is expected by
+   *   - With a memory budget, the map is spilled after merging a result block if its estimated size exceeds the
+   *     budget. Merges hold the read lock of the spill lock, and spilling holds the write lock.
+   *
+   * 2. The result of the concurrent map (and the spilled runs) is then translated into what is expected by
    *    the broker (List<Map<String, Object>>).
    *
    * 3. This result is then sorted and then trimmed as per 'TOP N' in the brokerRequest.
@@ -121,7 +154,6 @@ public class MCombineGroupByOperator extends BaseOperator<IntermediateResultsBlo
   private IntermediateResultsBlock combineBlocks() {
     int numOperators = _operators.size();
     final CountDownLatch operatorLatch = new CountDownLatch(numOperators);
-    final Map<String, Object[]> resultsMap = new ConcurrentHashMap<>();
     final ConcurrentLinkedQueue<ProcessingException> mergedProcessingExceptions = new ConcurrentLinkedQueue<>();
 
     AggregationFunctionContext[] aggregationFunctionContexts =
@@ -132,6 +164,18 @@ public class MCombineGroupByOperator extends BaseOperator<IntermediateResultsBlo
       aggregationFunctions[i] = aggregationFunctionContexts[i].getAggregationFunction();
     }
 
+    final Map<String, Object[]> resultsMap = new ConcurrentHashMap<>();
+    final SpillableGroupByResultsMap spillableResultsMap;
+    final ReadWriteLock spillLock;
+    if (_groupByMemoryBudgetBytes > 0) {
+      spillableResultsMap =
+          new SpillableGroupByResultsMap(aggregationFunctions, _groupByMemoryBudgetBytes, _groupBySpillDir, resultsMap);
+      spillLock = new ReentrantReadWriteLock();
+    } else {
+      spillableResultsMap = null;
+      spillLock = null;
+    }
+
     Future[] futures = new Future[numOperators];
     for (int i = 0; i < numOperators; i++) {
       final int index = i;
@@ -151,34 +195,86 @@ public class MCombineGroupByOperator extends BaseOperator<IntermediateResultsBlo
               mergedProcessingExceptions.addAll(processingExceptionsToMerge);
             }
 
-            // Merge aggregation group-by result.
-            aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
-            if (aggregationGroupByResult != null) {
-              // Iterate over the group-by keys, for each key, update the group-by result in the resultsMap.
-              Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-              while (groupKeyIterator.hasNext()) {
-                GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                String groupKeyString = groupKey._stringKey;
-
-                // HashCode method might return negative value, make it non-negative
-                int lockIndex = (groupKeyString.hashCode() & Integer.MAX_VALUE) % NUM_LOCKS;
-                synchronized (LOCKS[lockIndex]) {
-                  Object[] results = resultsMap.get(groupKeyString);
-
-                  if (results == null) {
-                    results = new Object[numAggregationFunctions];
-                    for (int j = 0; j < numAggregationFunctions; j++) {
-                      results[j] = aggregationGroupByResult.getResultForKey(groupKey, j);
+            boolean spillCheckNeeded = false;
+            if (spillLock != null) {
+              spillLock.readLock().lock();
+            }
+            try {
+              // Merge aggregation group-by result.
+              aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
+              if (aggregationGroupByResult != null) {
+                // Iterate over the group-by keys, for each key, update the group-by result in the resultsMap.
+                Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+                while (groupKeyIterator.hasNext()) {
+                  GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+                  String groupKeyString = groupKey._stringKey;
+
+                  // HashCode method might return negative value, make it non-negative
+                  int lockIndex = (groupKeyString.hashCode() & Integer.MAX_VALUE) % NUM_LOCKS;
+                  synchronized (LOCKS[lockIndex]) {
+                    Object[] results = resultsMap.get(groupKeyString);
+
+                    if (results == null) {
+                      results = new Object[numAggregationFunctions];
+                      for (int j = 0; j < numAggregationFunctions; j++) {
+                        results[j] = aggregationGroupByResult.getResultForKey(groupKey, j);
+                      }
+                      resultsMap.put(groupKeyString, results);
+                    } else {
+                      for (int j = 0; j < numAggregationFunctions; j++) {
+                        results[j] = aggregationFunctions[j].merge(results[j],
+                            aggregationGroupByResult.getResultForKey(groupKey, j));
+                      }
                     }
-                    resultsMap.put(groupKeyString, results);
-                  } else {
-                    for (int j = 0; j < numAggregationFunctions; j++) {
-                      results[j] = aggregationFunctions[j].merge(results[j],
-                          aggregationGroupByResult.getResultForKey(groupKey, j));
+                  }
+                }
+              }
+
+              // Merge combined aggregation group-by result (e.g. results served from segment result cache).
+              // The combined result from a single segment is not trimmed, so all the maps share the same group keys.
+              List<Map<String, Object>> combinedAggregationGroupByResult =
+                  intermediateResultsBlock.getCombinedAggregationGroupByResult();
+              if (combinedAggregationGroupByResult != null) {
+                for (String groupKeyString : combinedAggregationGroupByResult.get(0).keySet()) {
+                  // HashCode method might return negative value, make it non-negative
+                  int lockIndex = (groupKeyString.hashCode() & Integer.MAX_VALUE) % NUM_LOCKS;
+                  synchronized (LOCKS[lockIndex]) {
+                    Object[] results = resultsMap.get(groupKeyString);
+
+                    if (results == null) {
+                      results = new Object[numAggregationFunctions];
+                      for (int j = 0; j < numAggregationFunctions; j++) {
+                        results[j] = combinedAggregationGroupByResult.get(j).get(groupKeyString);
+                      }
+                      resultsMap.put(groupKeyString, results);
+                    } else {
+                      for (int j = 0; j < numAggregationFunctions; j++) {
+                        results[j] = aggregationFunctions[j].merge(results[j],
+                            combinedAggregationGroupByResult.get(j).get(groupKeyString));
+                      }
                     }
                   }
                 }
               }
+
+              // Cheap check on the last size estimate, which can run concurrently with the merges of other threads.
+              if (spillableResultsMap != null) {
+                spillCheckNeeded = spillableResultsMap.isSpillCheckNeeded();
+              }
+            } finally {
+              if (spillLock != null) {
+                spillLock.readLock().unlock();
+              }
+            }
+
+            // Re-estimate and spill the merged results if needed, no merge can happen while holding the write lock.
+            if (spillCheckNeeded) {
+              spillLock.writeLock().lock();
+              try {
+                spillableResultsMap.spillIfNeeded();
+              } finally {
+                spillLock.writeLock().unlock();
+              }
             }
           } catch (Exception e) {
             LOGGER.error("Exception processing CombineGroupBy for index {}, operator {}", index,
@@ -203,8 +299,13 @@ public class MCombineGroupByOperator extends BaseOperator<IntermediateResultsBlo
       // Trim the results map.
       AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
           new AggregationGroupByTrimmingService(aggregationFunctions, (int) _brokerRequest.getGroupBy().getTopN());
-      List<Map<String, Object>> trimmedResults =
-          aggregationGroupByTrimmingService.trimIntermediateResultsMap(resultsMap);
+      List<Map<String, Object>> trimmedResults;
+      if (spillableResultsMap != null && spillableResultsMap.hasSpilled()) {
+        trimmedResults = SpillableGroupByResultsMap.mergeAndTrim(Collections.singletonList(spillableResultsMap),
+            aggregationFunctions, aggregationGroupByTrimmingService);
+      } else {
+        trimmedResults = aggregationGroupByTrimmingService.trimIntermediateResultsMap(resultsMap);
+      }
       IntermediateResultsBlock mergedBlock =
           new IntermediateResultsBlock(aggregationFunctionContexts, trimmedResults, true);
 
@@ -236,6 +337,9 @@ public class MCombineGroupByOperator extends BaseOperator<IntermediateResultsBlo
           future.cancel(true);
         }
       }
+      if (spillableResultsMap != null) {
+        spillableResultsMap.close();
+      }
     }
   }
 
@@ -0,0 +1,510 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator;
+
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.Selection;
+import com.linkedin.pinot.common.response.ProcessingException;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.plan.PlanNode;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
+import com.linkedin.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.query.aggregation.groupby.SpillableGroupByResultsMap;
+import com.linkedin.pinot.core.query.exception.BadQueryRequestException;
+import com.linkedin.pinot.core.query.reduce.CombineService;
+import com.linkedin.pinot.core.util.trace.TraceCallable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>MWorkStealingCombineOperator</code> class is the operator to run and combine the results of all the
+ * segment plan nodes of a query with a bounded number of tasks.
+ * <p>Instead of submitting one task per segment, it submits at most one task per core. Each task keeps pulling the
+ * next segment from a shared counter, runs its plan node and operator, and merges the result into a task-local
+ * result. The task-local results are merged once all the tasks finish, so no lock is needed while merging.
+ * <p>For selection queries without ORDER BY, the tasks stop pulling new segments as soon as enough rows are collected.
+ * In that case, the execution statistics only cover the processed segments.
+ * <p>For aggregation group-by queries with a memory budget, the task-local results are spilled to local disk as sorted
+ * runs when the budget is exceeded, and the runs are merged while trimming the results.
+ */
+public class MWorkStealingCombineOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MWorkStealingCombineOperator.class);
+  private static final String OPERATOR_NAME = "MWorkStealingCombineOperator";
+
+  private static final int MAX_NUM_TASKS_PER_QUERY = Runtime.getRuntime().availableProcessors();
+
+  private final List<PlanNode> _planNodes;
+  private final ExecutorService _executorService;
+  private final long _timeOutMs;
+  private final BrokerRequest _brokerRequest;
+  private final boolean _isGroupBy;
+  // Number of rows to collect before stopping the execution, or -1 if all the segments need to be processed.
+  private final int _numRowsToCollect;
+  // Memory budget for the group-by results of the query, beyond which the results are spilled, or non-positive value
+  // to never spill.
+  private final long _groupByMemoryBudgetBytes;
+  private final File _groupBySpillDir;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param planNodes List of segment plan nodes
+   * @param executorService Executor service
+   * @param timeOutMs Time out in milliseconds for query execution
+   * @param brokerRequest Broker request
+   */
+  public MWorkStealingCombineOperator(List<PlanNode> planNodes, ExecutorService executorService, long timeOutMs,
+      BrokerRequest brokerRequest) {
+    this(planNodes, executorService, timeOutMs, brokerRequest, 0L, null);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param planNodes List of segment plan nodes
+   * @param executorService Executor service
+   * @param timeOutMs Time out in milliseconds for query execution
+   * @param brokerRequest Broker request
+   * @param groupByMemoryBudgetBytes Memory budget for the group-by results, non-positive value to never spill
+   * @param groupBySpillDir Directory for the spilled group-by results, or null to use the temporary directory
+   */
+  public MWorkStealingCombineOperator(List<PlanNode> planNodes, ExecutorService executorService, long timeOutMs,
+      BrokerRequest brokerRequest, long groupByMemoryBudgetBytes, @Nullable File groupBySpillDir) {
+    _planNodes = planNodes;
+    _executorService = executorService;
+    _timeOutMs = timeOutMs;
+    _brokerRequest = brokerRequest;
+    _isGroupBy = brokerRequest.isSetAggregationsInfo() && brokerRequest.isSetGroupBy();
+    Selection selection = brokerRequest.getSelections();
+    if (!brokerRequest.isSetAggregationsInfo() && selection != null && !selection.isSetSelectionSortSequence()) {
+      _numRowsToCollect = selection.getSize();
+    } else {
+      _numRowsToCollect = -1;
+    }
+    _groupByMemoryBudgetBytes = groupByMemoryBudgetBytes;
+    _groupBySpillDir = groupBySpillDir != null ? groupBySpillDir : FileUtils.getTempDirectory();
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    final long queryEndTime = System.currentTimeMillis() + _timeOutMs;
+    final int numPlanNodes = _planNodes.size();
+    int numTasks = Math.max(1, Math.min(numPlanNodes, MAX_NUM_TASKS_PER_QUERY));
+
+    final AggregationFunction[] aggregationFunctions;
+    // The memory budget is evenly split across the tasks
+    final List<SpillableGroupByResultsMap> spillableResultsMaps = new ArrayList<>(numTasks);
+    if (_isGroupBy) {
+      AggregationFunctionContext[] aggregationFunctionContexts =
+          AggregationFunctionUtils.getAggregationFunctionContexts(_brokerRequest.getAggregationsInfo(), null);
+      int numAggregationFunctions = aggregationFunctionContexts.length;
+      aggregationFunctions = new AggregationFunction[numAggregationFunctions];
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        aggregationFunctions[i] = aggregationFunctionContexts[i].getAggregationFunction();
+      }
+      if (_groupByMemoryBudgetBytes > 0) {
+        for (int i = 0; i < numTasks; i++) {
+          spillableResultsMaps.add(new SpillableGroupByResultsMap(aggregationFunctions,
+              _groupByMemoryBudgetBytes / numTasks, _groupBySpillDir));
+        }
+      }
+    } else {
+      aggregationFunctions = null;
+    }
+
+    final AtomicInteger nextPlanNodeIndex = new AtomicInteger();
+    final AtomicInteger numRowsCollected = new AtomicInteger();
+    List<Future<TaskResult>> futures = new ArrayList<>(numTasks);
+    for (int i = 0; i < numTasks; i++) {
+      final SpillableGroupByResultsMap spillableResultsMap =
+          spillableResultsMaps.isEmpty() ? null : spillableResultsMaps.get(i);
+      futures.add(_executorService.submit(new TraceCallable<TaskResult>() {
+        @Override
+        public TaskResult callJob() throws Exception {
+          TaskResult taskResult = new TaskResult(spillableResultsMap);
+          while (!isEnoughRowsCollected(numRowsCollected)) {
+            int planNodeIndex = nextPlanNodeIndex.getAndIncrement();
+            if (planNodeIndex >= numPlanNodes) {
+              break;
+            }
+            // Check the deadline at segment boundary so that the task stops taking work once the query timed out
+            if (System.currentTimeMillis() >= queryEndTime) {
+              taskResult._timedOut = true;
+              break;
+            }
+            processSegment(_planNodes.get(planNodeIndex), taskResult, aggregationFunctions, numRowsCollected);
+          }
+          return taskResult;
+        }
+      }));
+    }
+
+    try {
+      return combineTaskResults(futures, queryEndTime, aggregationFunctions);
+    } finally {
+      for (SpillableGroupByResultsMap spillableResultsMap : spillableResultsMaps) {
+        spillableResultsMap.close();
+      }
+    }
+  }
+
+  /**
+   * Helper method to wait for the tasks and combine their results.
+   */
+  private IntermediateResultsBlock combineTaskResults(List<Future<TaskResult>> futures, long queryEndTime,
+      AggregationFunction[] aggregationFunctions) {
+    List<TaskResult> taskResults = new ArrayList<>(futures.size());
+    try {
+      for (Future<TaskResult> future : futures) {
+        taskResults.add(future.get(queryEndTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS));
+      }
+    } catch (InterruptedException e) {
+      LOGGER.error("Caught InterruptedException.", e);
+      return new IntermediateResultsBlock(QueryException.FUTURE_CALL_ERROR, e);
+    } catch (ExecutionException e) {
+      // Exceptions from the operators are caught inside the tasks, so this is caused by the plan nodes, need to check
+      // the cause to determine whether it is caused by bad query
+      Throwable cause = e.getCause();
+      if (cause instanceof BadQueryRequestException) {
+        throw (BadQueryRequestException) cause;
+      } else {
+        throw new RuntimeException("Caught exception while running MWorkStealingCombineOperator.", e);
+      }
+    } catch (TimeoutException e) {
+      LOGGER.error("Timed out while combining results after {}ms", _timeOutMs);
+      return new IntermediateResultsBlock(QueryException.EXECUTION_TIMEOUT_ERROR, e);
+    } finally {
+      // Cancel all ongoing jobs
+      for (Future<TaskResult> future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
+    }
+
+    for (TaskResult taskResult : taskResults) {
+      if (taskResult._timedOut) {
+        LOGGER.error("Timed out while processing segments after {}ms", _timeOutMs);
+        return new IntermediateResultsBlock(QueryException.EXECUTION_TIMEOUT_ERROR,
+            new TimeoutException("Timed out while processing segments"));
+      }
+    }
+
+    IntermediateResultsBlock mergedBlock;
+    if (_isGroupBy) {
+      mergedBlock = mergeGroupByTaskResults(taskResults, aggregationFunctions);
+    } else {
+      mergedBlock = mergeTaskResults(taskResults);
+    }
+
+    // Set the execution statistics.
+    ExecutionStatistics executionStatistics = new ExecutionStatistics();
+    for (TaskResult taskResult : taskResults) {
+      executionStatistics.merge(taskResult._executionStatistics);
+    }
+    mergedBlock.setNumDocsScanned(executionStatistics.getNumDocsScanned());
+    mergedBlock.setNumEntriesScannedInFilter(executionStatistics.getNumEntriesScannedInFilter());
+    mergedBlock.setNumEntriesScannedPostFilter(executionStatistics.getNumEntriesScannedPostFilter());
+    mergedBlock.setNumTotalRawDocs(executionStatistics.getNumTotalRawDocs());
+
+    return mergedBlock;
+  }
+
+  private boolean isEnoughRowsCollected(AtomicInteger numRowsCollected) {
+    return _numRowsToCollect >= 0 && numRowsCollected.get() >= _numRowsToCollect;
+  }
+
+  /**
+   * Helper method to run the plan node and operator of one segment, and merge the result into the task result.
+   */
+  private void processSegment(PlanNode planNode, TaskResult taskResult, AggregationFunction[] aggregationFunctions,
+      AtomicInteger numRowsCollected) {
+    Operator operator = planNode.run();
+    IntermediateResultsBlock blockToMerge;
+    try {
+      blockToMerge = (IntermediateResultsBlock) operator.nextBlock();
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while executing operator {}.", operator.getClass().getName(), e);
+      blockToMerge = new IntermediateResultsBlock(e);
+    }
+    ExecutionStatistics executionStatisticsToMerge = operator.getExecutionStatistics();
+    if (executionStatisticsToMerge != null) {
+      taskResult._executionStatistics.merge(executionStatisticsToMerge);
+    }
+
+    if (_isGroupBy) {
+      List<ProcessingException> processingExceptionsToMerge = blockToMerge.getProcessingExceptions();
+      if (processingExceptionsToMerge != null) {
+        taskResult._processingExceptions.addAll(processingExceptionsToMerge);
+      }
+      if (taskResult._aggregationFunctionContexts == null) {
+        taskResult._aggregationFunctionContexts = blockToMerge.getAggregationFunctionContexts();
+      }
+      try {
+        mergeGroupByResult(blockToMerge, taskResult._groupByResultsMap, aggregationFunctions);
+        if (taskResult._spillableResultsMap != null) {
+          taskResult._spillableResultsMap.spillIfNeeded();
+        }
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while merging group-by results.", e);
+        taskResult._processingExceptions.add(QueryException.getException(QueryException.MERGE_RESPONSE_ERROR, e));
+      }
+      return;
+    }
+
+    IntermediateResultsBlock mergedBlock = taskResult._mergedBlock;
+    int numRowsBeforeMerge = getNumSelectionRows(mergedBlock);
+    if (mergedBlock == null) {
+      taskResult._mergedBlock = blockToMerge;
+    } else {
+      try {
+        CombineService.mergeTwoBlocks(_brokerRequest, mergedBlock, blockToMerge);
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while merging two blocks.", e);
+        mergedBlock.addToProcessingExceptions(QueryException.getException(QueryException.MERGE_RESPONSE_ERROR, e));
+      }
+    }
+    if (_numRowsToCollect >= 0) {
+      numRowsCollected.addAndGet(getNumSelectionRows(taskResult._mergedBlock) - numRowsBeforeMerge);
+    }
+  }
+
+  private static int getNumSelectionRows(IntermediateResultsBlock block) {
+    if (block == null) {
+      return 0;
+    }
+    Collection<Serializable[]> selectionResult = block.getSelectionResult();
+    return selectionResult != null ? selectionResult.size() : 0;
+  }
+
+  /**
+   * Helper method to merge the group-by result (either the raw form or the combined form) of a block into the results
+   * map from group keys to aggregation results.
+   */
+  @SuppressWarnings("unchecked")
+  private static void mergeGroupByResult(IntermediateResultsBlock block, Map<String, Object[]> resultsMap,
+      AggregationFunction[] aggregationFunctions) {
+    int numAggregationFunctions = aggregationFunctions.length;
+
+    AggregationGroupByResult aggregationGroupByResult = block.getAggregationGroupByResult();
+    if (aggregationGroupByResult != null) {
+      Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+      while (groupKeyIterator.hasNext()) {
+        GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+        Object[] results = resultsMap.get(groupKey._stringKey);
+        if (results == null) {
+          results = new Object[numAggregationFunctions];
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            results[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
+          }
+          resultsMap.put(groupKey._stringKey, results);
+        } else {
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            results[i] =
+                aggregationFunctions[i].merge(results[i], aggregationGroupByResult.getResultForKey(groupKey, i));
+          }
+        }
+      }
+    }
+
+    // The combined result from a single segment is not trimmed, so all the maps share the same group keys.
+    List<Map<String, Object>> combinedAggregationGroupByResult = block.getCombinedAggregationGroupByResult();
+    if (combinedAggregationGroupByResult != null) {
+      for (String groupKeyString : combinedAggregationGroupByResult.get(0).keySet()) {
+        Object[] results = resultsMap.get(groupKeyString);
+        if (results == null) {
+          results = new Object[numAggregationFunctions];
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            results[i] = combinedAggregationGroupByResult.get(i).get(groupKeyString);
+          }
+          resultsMap.put(groupKeyString, results);
+        } else {
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            results[i] =
+                aggregationFunctions[i].merge(results[i], combinedAggregationGroupByResult.get(i).get(groupKeyString));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Helper method to merge the task results for selection and aggregation only queries.
+   */
+  private IntermediateResultsBlock mergeTaskResults(List<TaskResult> taskResults) {
+    IntermediateResultsBlock mergedBlock = null;
+    for (TaskResult taskResult : taskResults) {
+      IntermediateResultsBlock blockToMerge = taskResult._mergedBlock;
+      if (blockToMerge == null) {
+        continue;
+      }
+      if (mergedBlock == null) {
+        mergedBlock = blockToMerge;
+      } else {
+        try {
+          CombineService.mergeTwoBlocks(_brokerRequest, mergedBlock, blockToMerge);
+        } catch (Exception e) {
+          LOGGER.error("Caught exception while merging two blocks.", e);
+          mergedBlock.addToProcessingExceptions(QueryException.getException(QueryException.MERGE_RESPONSE_ERROR, e));
+        }
+      }
+    }
+    if (mergedBlock == null) {
+      // No segment processed
+      mergedBlock = new IntermediateResultsBlock(QueryException.QUERY_EXECUTION_ERROR,
+          new IllegalStateException("No segment processed"));
+    }
+    return mergedBlock;
+  }
+
+  /**
+   * Helper method to merge the task results for aggregation group-by queries, then trim the merged results.
+   */
+  private IntermediateResultsBlock mergeGroupByTaskResults(List<TaskResult> taskResults,
+      AggregationFunction[] aggregationFunctions) {
+    AggregationFunctionContext[] aggregationFunctionContexts = null;
+    List<ProcessingException> processingExceptions = new ArrayList<>();
+    List<SpillableGroupByResultsMap> spilledResultsMaps = new ArrayList<>();
+    for (TaskResult taskResult : taskResults) {
+      if (aggregationFunctionContexts == null) {
+        aggregationFunctionContexts = taskResult._aggregationFunctionContexts;
+      }
+      processingExceptions.addAll(taskResult._processingExceptions);
+      if (taskResult._spillableResultsMap != null && taskResult._spillableResultsMap.hasSpilled()) {
+        spilledResultsMaps.add(taskResult._spillableResultsMap);
+      }
+    }
+    if (aggregationFunctionContexts == null) {
+      aggregationFunctionContexts =
+          AggregationFunctionUtils.getAggregationFunctionContexts(_brokerRequest.getAggregationsInfo(), null);
+    }
+
+    // Merge and trim the results.
+    AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
+        new AggregationGroupByTrimmingService(aggregationFunctions, (int) _brokerRequest.getGroupBy().getTopN());
+    List<Map<String, Object>> trimmedResults;
+    if (spilledResultsMaps.isEmpty()) {
+      trimmedResults = aggregationGroupByTrimmingService.trimIntermediateResultsMap(
+          mergeInMemoryGroupByResults(taskResults, aggregationFunctions));
+    } else {
+      // Merge all the task results through the spilled runs
+      List<SpillableGroupByResultsMap> spillableResultsMaps = new ArrayList<>(taskResults.size());
+      for (TaskResult taskResult : taskResults) {
+        spillableResultsMaps.add(taskResult._spillableResultsMap);
+      }
+      try {
+        trimmedResults = SpillableGroupByResultsMap.mergeAndTrim(spillableResultsMaps, aggregationFunctions,
+            aggregationGroupByTrimmingService);
+      } catch (IOException e) {
+        LOGGER.error("Caught exception while merging spilled group-by results.", e);
+        return new IntermediateResultsBlock(QueryException.MERGE_RESPONSE_ERROR, e);
+      }
+    }
+    IntermediateResultsBlock mergedBlock =
+        new IntermediateResultsBlock(aggregationFunctionContexts, trimmedResults, true);
+
+    // Set the processing exceptions.
+    if (!processingExceptions.isEmpty()) {
+      mergedBlock.setProcessingExceptions(processingExceptions);
+    }
+
+    return mergedBlock;
+  }
+
+  /**
+   * Helper method to merge the in-memory group-by results of the tasks into the largest results map.
+   */
+  private static Map<String, Object[]> mergeInMemoryGroupByResults(List<TaskResult> taskResults,
+      AggregationFunction[] aggregationFunctions) {
+    int numAggregationFunctions = aggregationFunctions.length;
+    TaskResult largestTaskResult = taskResults.get(0);
+    for (TaskResult taskResult : taskResults) {
+      if (taskResult._groupByResultsMap.size() > largestTaskResult._groupByResultsMap.size()) {
+        largestTaskResult = taskResult;
+      }
+    }
+    Map<String, Object[]> resultsMap = largestTaskResult._groupByResultsMap;
+    for (TaskResult taskResult : taskResults) {
+      if (taskResult == largestTaskResult) {
+        continue;
+      }
+      for (Map.Entry<String, Object[]> entry : taskResult._groupByResultsMap.entrySet()) {
+        Object[] resultsToMerge = entry.getValue();
+        Object[] results = resultsMap.get(entry.getKey());
+        if (results == null) {
+          resultsMap.put(entry.getKey(), resultsToMerge);
+        } else {
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            results[i] = aggregationFunctions[i].merge(results[i], resultsToMerge[i]);
+          }
+        }
+      }
+    }
+    return resultsMap;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  /**
+   * Task-local result, only accessed by the task until it finishes.
+   */
+  private static class TaskResult {
+    final ExecutionStatistics _executionStatistics = new ExecutionStatistics();
+    boolean _timedOut;
+
+    // For selection and aggregation only queries
+    IntermediateResultsBlock _mergedBlock;
+
+    // For aggregation group-by queries
+    final SpillableGroupByResultsMap _spillableResultsMap;
+    final Map<String, Object[]> _groupByResultsMap;
+    final List<ProcessingException> _processingExceptions = new ArrayList<>();
+    AggregationFunctionContext[] _aggregationFunctionContexts;
+
+    TaskResult(@Nullable SpillableGroupByResultsMap spillableResultsMap) {
+      _spillableResultsMap = spillableResultsMap;
+      _groupByResultsMap =
+          spillableResultsMap != null ? spillableResultsMap.getResultsMap() : new HashMap<String, Object[]>();
+    }
+  }
+}
@@ -145,6 +145,15 @@ public class IntermediateResultsBlock implements Block {
     return _aggregationGroupByResult;
   }
 
+  @Nullable
+  public List<Map<String, Object>> getCombinedAggregationGroupByResult() {
+    return _combinedAggregationGroupByResult;
+  }
+
+  public void setCombinedAggregationGroupByResult(@Nullable List<Map<String, Object>> combinedAggregationGroupByResult) {
+    _combinedAggregationGroupByResult = combinedAggregationGroupByResult;
+  }
+
   @Nullable
   public List<ProcessingException> getProcessingExceptions() {
     return _processingExceptions;
@@ -20,11 +20,15 @@ import com.linkedin.pinot.core.common.BlockMetadata;
 import com.linkedin.pinot.core.common.BlockSingleValIterator;
 import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
+  // Number of documents read and evaluated together in one batch
+  private static final int BATCH_SIZE = 256;
+
   private int _currentDocId = -1;
   private final BlockSingleValIterator _valueIterator;
   private int _startDocId;
@@ -33,12 +37,23 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private String _datasourceName;
   private int _numEntriesScanned = 0;
   private final ValueMatcher _valueMatcher;
+  private final int _maxDocId;
+  // Whether to evaluate the documents in batches or one by one
+  private final boolean _evaluateInBatches;
+
+  // Matching doc ids from the last evaluated batch, where the ones before the index are already returned
+  private final int[] _docIdBuffer = new int[BATCH_SIZE];
+  private int _docIdBufferSize = 0;
+  private int _docIdBufferIndex = 0;
+  // First doc id of the next batch to evaluate
+  private int _nextBatchStartDocId;
 
   public SVScanDocIdIterator(String datasourceName, BlockValSet blockValSet, BlockMetadata blockMetadata,
       PredicateEvaluator evaluator) {
     _datasourceName = datasourceName;
     _evaluator = evaluator;
     _valueIterator = (BlockSingleValIterator) blockValSet.iterator();
+    _maxDocId = blockMetadata.getEndDocId();
 
     if (evaluator.isAlwaysFalse()) {
       _currentDocId = Constants.EOF;
@@ -50,11 +65,15 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     }
 
     if (evaluator.isDictionaryBased()) {
-      _valueMatcher = new IntMatcher(); // Match using dictionary id's that are integers.
+      _valueMatcher = new DictIdMatcher(blockValSet); // Match using dictionary id's that are integers.
     } else {
       _valueMatcher = getValueMatcherForType(blockMetadata.getDataType());
     }
     _valueMatcher.setEvaluator(evaluator);
+
+    // A dictionary based EQ predicate only compares against a single dictionary id, which is cheaper to evaluate one
+    // by one than to bulk read and compact in batches
+    _evaluateInBatches = !(evaluator.isDictionaryBased() && evaluator.getPredicateType() == Predicate.Type.EQ);
   }
 
   /**
@@ -66,6 +85,9 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     _currentDocId = startDocId - 1;
     _valueIterator.skipTo(startDocId);
     _startDocId = startDocId;
+    _nextBatchStartDocId = startDocId;
+    _docIdBufferSize = 0;
+    _docIdBufferIndex = 0;
   }
 
   /**
@@ -97,13 +119,12 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       targetDocId = _startDocId;
     } else if (targetDocId > _endDocId) {
       _currentDocId = Constants.EOF;
+      return Constants.EOF;
     }
     if (_currentDocId >= targetDocId) {
       return _currentDocId;
     } else {
-      _currentDocId = targetDocId - 1;
-      _valueIterator.skipTo(targetDocId);
-      return next();
+      return nextMatchingDocId(targetDocId);
     }
   }
 
@@ -112,11 +133,73 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (_currentDocId == Constants.EOF) {
       return Constants.EOF;
     }
-    while (_valueIterator.hasNext() && _currentDocId < _endDocId) {
-      _currentDocId = _currentDocId + 1;
-      _numEntriesScanned++;
-      if (_valueMatcher.doesCurrentEntryMatch(_valueIterator)) {
-        return _currentDocId;
+    return nextMatchingDocId(_currentDocId + 1);
+  }
+
+  /**
+   * Helper method to find the first matching document starting from the given doc id (inclusive).
+   * <p>Documents are read and evaluated in batches, but only the documents up to the returned one are counted as
+   * scanned, which is the same as evaluating the documents one by one.
+   */
+  private int nextMatchingDocId(int docId) {
+    if (!_evaluateInBatches) {
+      return nextMatchingDocIdOneByOne(docId);
+    }
+
+    // Skip the buffered doc ids before the given doc id
+    while (_docIdBufferIndex < _docIdBufferSize) {
+      int matchingDocId = _docIdBuffer[_docIdBufferIndex++];
+      if (matchingDocId >= docId) {
+        _numEntriesScanned += matchingDocId - docId + 1;
+        _currentDocId = matchingDocId;
+        return matchingDocId;
+      }
+    }
+
+    // Skip the documents before the given doc id that are not evaluated yet
+    _nextBatchStartDocId = Math.max(_nextBatchStartDocId, docId);
+    int lastDocId = Math.min(_endDocId, _maxDocId);
+    // NOTE: doc id is negative for predicate that is always evaluated as false
+    while (docId >= 0 && _nextBatchStartDocId <= lastDocId) {
+      int batchEndDocId = Math.min(lastDocId, _nextBatchStartDocId + BATCH_SIZE - 1);
+      int numDocs = batchEndDocId - _nextBatchStartDocId + 1;
+      for (int i = 0; i < numDocs; i++) {
+        _docIdBuffer[i] = _nextBatchStartDocId + i;
+      }
+      _docIdBufferSize = _valueMatcher.applyBatch(_valueIterator, _docIdBuffer, numDocs);
+      _nextBatchStartDocId = batchEndDocId + 1;
+      if (_docIdBufferSize > 0) {
+        int matchingDocId = _docIdBuffer[0];
+        _docIdBufferIndex = 1;
+        _numEntriesScanned += matchingDocId - docId + 1;
+        _currentDocId = matchingDocId;
+        return matchingDocId;
+      }
+      _docIdBufferIndex = 0;
+    }
+
+    if (docId >= 0 && lastDocId >= docId) {
+      _numEntriesScanned += lastDocId - docId + 1;
+    }
+    _currentDocId = Constants.EOF;
+    return Constants.EOF;
+  }
+
+  /**
+   * Helper method to find the first matching document starting from the given doc id (inclusive), where the documents
+   * are evaluated one by one.
+   */
+  private int nextMatchingDocIdOneByOne(int docId) {
+    // NOTE: doc id is negative for predicate that is always evaluated as false
+    if (docId >= 0) {
+      int lastDocId = Math.min(_endDocId, _maxDocId);
+      _valueIterator.skipTo(docId);
+      for (; docId <= lastDocId; docId++) {
+        _numEntriesScanned++;
+        if (_valueMatcher.doesCurrentEntryMatch(_valueIterator)) {
+          _currentDocId = docId;
+          return docId;
+        }
       }
     }
     _currentDocId = Constants.EOF;
@@ -140,18 +223,46 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       return result;
     }
     IntIterator intIterator = answer.getIntIterator();
-    int docId = -1;
-    while (intIterator.hasNext() && docId < _endDocId) {
-      docId = intIterator.next();
+    int[] docIds = new int[BATCH_SIZE];
+    int numDocs = 0;
+    while (intIterator.hasNext()) {
+      int docId = intIterator.next();
+      if (docId > _endDocId) {
+        break;
+      }
       if (docId >= _startDocId) {
+        docIds[numDocs++] = docId;
+        if (numDocs == BATCH_SIZE) {
+          addMatchingDocIds(docIds, numDocs, result);
+          numDocs = 0;
+        }
+      }
+    }
+    if (numDocs > 0) {
+      addMatchingDocIds(docIds, numDocs, result);
+    }
+    return result;
+  }
+
+  /**
+   * Helper method to evaluate a batch of documents and add the matching doc ids to the result bitmap.
+   */
+  private void addMatchingDocIds(int[] docIds, int numDocs, MutableRoaringBitmap result) {
+    _numEntriesScanned += numDocs;
+    if (!_evaluateInBatches) {
+      for (int i = 0; i < numDocs; i++) {
+        int docId = docIds[i];
         _valueIterator.skipTo(docId);
-        _numEntriesScanned++;
         if (_valueMatcher.doesCurrentEntryMatch(_valueIterator)) {
           result.add(docId);
         }
       }
+      return;
+    }
+    int numMatchingDocs = _valueMatcher.applyBatch(_valueIterator, docIds, numDocs);
+    for (int i = 0; i < numMatchingDocs; i++) {
+      result.add(docIds[i]);
     }
-    return result;
   }
 
   @Override
@@ -195,45 +306,111 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     }
 
     abstract boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator);
+
+    /**
+     * Read the values for a batch of documents, and compact the matching doc ids to the front of the doc id array.
+     *
+     * @param valueIterator Value iterator for the column
+     * @param docIds Doc ids (sorted) to evaluate, overwritten with the matching doc ids
+     * @param numDocs Number of doc ids to evaluate
+     * @return Number of matching doc ids
+     */
+    abstract int applyBatch(BlockSingleValIterator valueIterator, int[] docIds, int numDocs);
+  }
+
+  private static class DictIdMatcher extends ValueMatcher {
+    private final BlockValSet _blockValSet;
+    private final int[] _dictIds = new int[BATCH_SIZE];
+
+    DictIdMatcher(BlockValSet blockValSet) {
+      _blockValSet = blockValSet;
+    }
+
+    @Override
+    public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
+      return _evaluator.applySV(valueIterator.nextIntVal());
+    }
+
+    @Override
+    int applyBatch(BlockSingleValIterator valueIterator, int[] docIds, int numDocs) {
+      // Bulk read the dictionary ids from the forward index
+      _blockValSet.getDictionaryIds(docIds, 0, numDocs, _dictIds, 0);
+      return _evaluator.applySV(numDocs, docIds, _dictIds);
+    }
   }
 
   private static class IntMatcher extends ValueMatcher {
+    private final int[] _values = new int[BATCH_SIZE];
 
     @Override
     public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
       return _evaluator.applySV(valueIterator.nextIntVal());
     }
+
+    @Override
+    int applyBatch(BlockSingleValIterator valueIterator, int[] docIds, int numDocs) {
+      valueIterator.getIntValues(docIds, numDocs, _values);
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
   }
 
   private static class LongMatcher extends ValueMatcher {
+    private final long[] _values = new long[BATCH_SIZE];
 
     @Override
     public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
       return _evaluator.applySV(valueIterator.nextLongVal());
     }
+
+    @Override
+    int applyBatch(BlockSingleValIterator valueIterator, int[] docIds, int numDocs) {
+      valueIterator.getLongValues(docIds, numDocs, _values);
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
   }
 
   private static class FloatMatcher extends ValueMatcher {
+    private final float[] _values = new float[BATCH_SIZE];
 
     @Override
     public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
       return _evaluator.applySV(valueIterator.nextFloatVal());
     }
+
+    @Override
+    int applyBatch(BlockSingleValIterator valueIterator, int[] docIds, int numDocs) {
+      valueIterator.getFloatValues(docIds, numDocs, _values);
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
   }
 
   private static class DoubleMatcher extends ValueMatcher {
+    private final double[] _values = new double[BATCH_SIZE];
 
     @Override
     public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
       return _evaluator.applySV(valueIterator.nextDoubleVal());
     }
+
+    @Override
+    int applyBatch(BlockSingleValIterator valueIterator, int[] docIds, int numDocs) {
+      valueIterator.getDoubleValues(docIds, numDocs, _values);
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
   }
 
   private static class StringMatcher extends ValueMatcher {
+    private final String[] _values = new String[BATCH_SIZE];
 
     @Override
     public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
       return _evaluator.applySV(valueIterator.nextStringVal());
     }
+
+    @Override
+    int applyBatch(BlockSingleValIterator valueIterator, int[] docIds, int numDocs) {
+      valueIterator.getStringValues(docIds, numDocs, _values);
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
   }
 }
@@ -58,6 +58,48 @@ public final class SingleValueIterator extends BlockSingleValIterator {
     return _reader.getString(_nextDocId++, _context);
   }
 
+  @Override
+  public void getIntValues(int[] docIds, int numDocs, int[] values) {
+    if (numDocs > 0) {
+      _reader.readIntValues(docIds, 0, numDocs, values, 0, _context);
+      _nextDocId = docIds[numDocs - 1] + 1;
+    }
+  }
+
+  @Override
+  public void getLongValues(int[] docIds, int numDocs, long[] values) {
+    if (numDocs > 0) {
+      _reader.readLongValues(docIds, 0, numDocs, values, 0, _context);
+      _nextDocId = docIds[numDocs - 1] + 1;
+    }
+  }
+
+  @Override
+  public void getFloatValues(int[] docIds, int numDocs, float[] values) {
+    if (numDocs > 0) {
+      _reader.readFloatValues(docIds, 0, numDocs, values, 0, _context);
+      _nextDocId = docIds[numDocs - 1] + 1;
+    }
+  }
+
+  @Override
+  public void getDoubleValues(int[] docIds, int numDocs, double[] values) {
+    if (numDocs > 0) {
+      _reader.readDoubleValues(docIds, 0, numDocs, values, 0, _context);
+      _nextDocId = docIds[numDocs - 1] + 1;
+    }
+  }
+
+  @Override
+  public void getStringValues(int[] docIds, int numDocs, String[] values) {
+    for (int i = 0; i < numDocs; i++) {
+      values[i] = _reader.getString(docIds[i], _context);
+    }
+    if (numDocs > 0) {
+      _nextDocId = docIds[numDocs - 1] + 1;
+    }
+  }
+
   @Override
   public boolean hasNext() {
     return _nextDocId < _numDocs;
@@ -21,4 +21,62 @@ public abstract class BasePredicateEvaluator implements PredicateEvaluator {
   public final boolean isExclusive() {
     return getPredicateType().isExclusive();
   }
+
+  /*
+   * Batch evaluation shared by all the evaluators, one loop per value type. The gain of the batch evaluation comes from
+   * reading the values of the batch at once, so the evaluators do not override these loops.
+   *
+   * The matching doc ids are compacted without branching (the doc id is always written, and the output position only
+   * advances on a match), which allows the JIT to emit conditional moves instead of unpredictable branches.
+   */
+
+  @Override
+  public int applySV(int limit, int[] docIds, int[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      docIds[numMatchingDocs] = docIds[i];
+      numMatchingDocs += applySV(values[i]) ? 1 : 0;
+    }
+    return numMatchingDocs;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, long[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      docIds[numMatchingDocs] = docIds[i];
+      numMatchingDocs += applySV(values[i]) ? 1 : 0;
+    }
+    return numMatchingDocs;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, float[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      docIds[numMatchingDocs] = docIds[i];
+      numMatchingDocs += applySV(values[i]) ? 1 : 0;
+    }
+    return numMatchingDocs;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, double[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      docIds[numMatchingDocs] = docIds[i];
+      numMatchingDocs += applySV(values[i]) ? 1 : 0;
+    }
+    return numMatchingDocs;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, String[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      docIds[numMatchingDocs] = docIds[i];
+      numMatchingDocs += applySV(values[i]) ? 1 : 0;
+    }
+    return numMatchingDocs;
+  }
 }
@@ -19,6 +19,7 @@ import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.common.predicate.InPredicate;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.core.segment.index.readers.VarLengthStringDictionary;
 import it.unimi.dsi.fastutil.doubles.DoubleOpenHashSet;
 import it.unimi.dsi.fastutil.doubles.DoubleSet;
 import it.unimi.dsi.fastutil.floats.FloatOpenHashSet;
@@ -83,10 +84,19 @@ public class InPredicateEvaluatorFactory {
     DictionaryBasedInPredicateEvaluator(InPredicate inPredicate, Dictionary dictionary) {
       String[] values = inPredicate.getValues();
       _matchingDictIdSet = new IntOpenHashSet();
-      for (String value : values) {
-        int dictId = dictionary.indexOf(value);
-        if (dictId >= 0) {
-          _matchingDictIdSet.add(dictId);
+      if (dictionary instanceof VarLengthStringDictionary) {
+        // Look up all values in one batch, which uses hashed lookups instead of binary searches for large IN clauses
+        for (int dictId : ((VarLengthStringDictionary) dictionary).indexOf(values)) {
+          if (dictId >= 0) {
+            _matchingDictIdSet.add(dictId);
+          }
+        }
+      } else {
+        for (String value : values) {
+          int dictId = dictionary.indexOf(value);
+          if (dictId >= 0) {
+            _matchingDictIdSet.add(dictId);
+          }
         }
       }
     }
@@ -19,6 +19,7 @@ import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.common.predicate.NotInPredicate;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.core.segment.index.readers.VarLengthStringDictionary;
 import it.unimi.dsi.fastutil.doubles.DoubleOpenHashSet;
 import it.unimi.dsi.fastutil.doubles.DoubleSet;
 import it.unimi.dsi.fastutil.floats.FloatOpenHashSet;
@@ -85,10 +86,19 @@ public class NotInPredicateEvaluatorFactory {
     DictionaryBasedNotInPredicateEvaluator(NotInPredicate notInPredicate, Dictionary dictionary) {
       String[] values = notInPredicate.getValues();
       _nonMatchingDictIdSet = new IntOpenHashSet(values.length);
-      for (String value : values) {
-        int dictId = dictionary.indexOf(value);
-        if (dictId >= 0) {
-          _nonMatchingDictIdSet.add(dictId);
+      if (dictionary instanceof VarLengthStringDictionary) {
+        // Look up all values in one batch, which uses hashed lookups instead of binary searches for large NOT IN
+        for (int dictId : ((VarLengthStringDictionary) dictionary).indexOf(values)) {
+          if (dictId >= 0) {
+            _nonMatchingDictIdSet.add(dictId);
+          }
+        }
+      } else {
+        for (String value : values) {
+          int dictId = dictionary.indexOf(value);
+          if (dictId >= 0) {
+            _nonMatchingDictIdSet.add(dictId);
+          }
         }
       }
       _dictionary = dictionary;
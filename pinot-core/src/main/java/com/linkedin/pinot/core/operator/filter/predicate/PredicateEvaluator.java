@@ -145,4 +145,63 @@ public interface PredicateEvaluator {
    * @return Whether the entry matches the predicate
    */
   boolean applyMV(String[] values, int length);
+
+  /**
+   * APIs for batch evaluation of single-value entries.
+   */
+
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the doc ids of the matching entries to the
+   * front of the doc id array (in the same order).
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Doc ids of the entries, overwritten with the matching doc ids
+   * @param values Dictionary ids or raw values of the entries
+   * @return Number of matching entries
+   */
+  int applySV(int limit, int[] docIds, int[] values);
+
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the doc ids of the matching entries to the
+   * front of the doc id array (in the same order).
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Doc ids of the entries, overwritten with the matching doc ids
+   * @param values Raw values of the entries
+   * @return Number of matching entries
+   */
+  int applySV(int limit, int[] docIds, long[] values);
+
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the doc ids of the matching entries to the
+   * front of the doc id array (in the same order).
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Doc ids of the entries, overwritten with the matching doc ids
+   * @param values Raw values of the entries
+   * @return Number of matching entries
+   */
+  int applySV(int limit, int[] docIds, float[] values);
+
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the doc ids of the matching entries to the
+   * front of the doc id array (in the same order).
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Doc ids of the entries, overwritten with the matching doc ids
+   * @param values Raw values of the entries
+   * @return Number of matching entries
+   */
+  int applySV(int limit, int[] docIds, double[] values);
+
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the doc ids of the matching entries to the
+   * front of the doc id array (in the same order).
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Doc ids of the entries, overwritten with the matching doc ids
+   * @param values Raw values of the entries
+   * @return Number of matching entries
+   */
+  int applySV(int limit, int[] docIds, String[] values);
 }
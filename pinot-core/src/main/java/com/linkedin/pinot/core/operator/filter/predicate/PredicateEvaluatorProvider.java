@@ -54,24 +54,35 @@ public class PredicateEvaluatorProvider {
             throw new UnsupportedOperationException("Unsupported predicate type: " + predicate.getType());
         }
       } else {
-        DataType dataType = dataSource.getDataSourceMetadata().getDataType();
-        switch (predicate.getType()) {
-          case EQ:
-            return EqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator((EqPredicate) predicate, dataType);
-          case NEQ:
-            return NotEqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator((NEqPredicate) predicate, dataType);
-          case IN:
-            return InPredicateEvaluatorFactory.newRawValueBasedEvaluator((InPredicate) predicate, dataType);
-          case NOT_IN:
-            return NotInPredicateEvaluatorFactory.newRawValueBasedEvaluator((NotInPredicate) predicate, dataType);
-          case RANGE:
-            return RangePredicateEvaluatorFactory.newRawValueBasedEvaluator((RangePredicate) predicate, dataType);
-          case REGEXP_LIKE:
-            return RegexpLikePredicateEvaluatorFactory.newRawValueBasedEvaluator((RegexpLikePredicate) predicate,
-                dataType);
-          default:
-            throw new UnsupportedOperationException("Unsupported predicate type: " + predicate.getType());
-        }
+        return getRawValueBasedPredicateEvaluator(predicate, dataSource.getDataSourceMetadata().getDataType());
+      }
+    } catch (NumberFormatException e) {
+      // This NumberFormatException is caused by passing in a non-numeric string as numeric number in query
+      throw new BadQueryRequestException(e);
+    }
+  }
+
+  /**
+   * Returns a predicate evaluator on the actual values of the given data type.
+   */
+  public static PredicateEvaluator getRawValueBasedPredicateEvaluator(Predicate predicate, DataType dataType) {
+    try {
+      switch (predicate.getType()) {
+        case EQ:
+          return EqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator((EqPredicate) predicate, dataType);
+        case NEQ:
+          return NotEqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator((NEqPredicate) predicate, dataType);
+        case IN:
+          return InPredicateEvaluatorFactory.newRawValueBasedEvaluator((InPredicate) predicate, dataType);
+        case NOT_IN:
+          return NotInPredicateEvaluatorFactory.newRawValueBasedEvaluator((NotInPredicate) predicate, dataType);
+        case RANGE:
+          return RangePredicateEvaluatorFactory.newRawValueBasedEvaluator((RangePredicate) predicate, dataType);
+        case REGEXP_LIKE:
+          return RegexpLikePredicateEvaluatorFactory.newRawValueBasedEvaluator((RegexpLikePredicate) predicate,
+              dataType);
+        default:
+          throw new UnsupportedOperationException("Unsupported predicate type: " + predicate.getType());
       }
     } catch (NumberFormatException e) {
       // This NumberFormatException is caused by passing in a non-numeric string as numeric number in query
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.query;
+
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+
+/**
+ * The <code>CachedSegmentResultOperator</code> class provides the operator for aggregation or aggregation group-by
+ * query on a single segment whose results are served from the
+ * {@link com.linkedin.pinot.core.query.cache.SegmentResultCache}.
+ * <p>For aggregation group-by query, the results block contains the combined (map) form of the group-by results.
+ * <p>Nothing is scanned to serve cached results, so the execution statistics only report the total number of documents
+ * of the segment.
+ */
+public class CachedSegmentResultOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final String OPERATOR_NAME = "CachedSegmentResultOperator";
+
+  private final AggregationFunctionContext[] _aggregationFunctionContexts;
+  private final boolean _isGroupBy;
+  private final DataTable _dataTable;
+  private final ExecutionStatistics _executionStatistics;
+
+  public CachedSegmentResultOperator(@Nonnull AggregationFunctionContext[] aggregationFunctionContexts,
+      boolean isGroupBy, @Nonnull DataTable dataTable) {
+    _aggregationFunctionContexts = aggregationFunctionContexts;
+    _isGroupBy = isGroupBy;
+    _dataTable = dataTable;
+
+    long numTotalRawDocs = Long.parseLong(dataTable.getMetadata().get(DataTable.TOTAL_DOCS_METADATA_KEY));
+    _executionStatistics = new ExecutionStatistics(0L, 0L, 0L, numTotalRawDocs);
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    int numAggregationFunctions = _aggregationFunctionContexts.length;
+    List<Object> aggregationResult = new ArrayList<>(numAggregationFunctions);
+    if (_isGroupBy) {
+      // One row per aggregation function, with the map from group key to intermediate result in the second column.
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        aggregationResult.add(_dataTable.getObject(i, 1));
+      }
+    } else {
+      DataSchema dataSchema = _dataTable.getDataSchema();
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        switch (dataSchema.getColumnType(i)) {
+          case LONG:
+            aggregationResult.add(_dataTable.getLong(0, i));
+            break;
+          case DOUBLE:
+            aggregationResult.add(_dataTable.getDouble(0, i));
+            break;
+          case OBJECT:
+            aggregationResult.add(_dataTable.getObject(0, i));
+            break;
+          default:
+            throw new UnsupportedOperationException(
+                "Unsupported aggregation column data type: " + dataSchema.getColumnType(i) + " for column: "
+                    + dataSchema.getColumnName(i));
+        }
+      }
+    }
+
+    IntermediateResultsBlock resultsBlock =
+        new IntermediateResultsBlock(_aggregationFunctionContexts, aggregationResult, _isGroupBy);
+    resultsBlock.setNumDocsScanned(_executionStatistics.getNumDocsScanned());
+    resultsBlock.setNumEntriesScannedInFilter(_executionStatistics.getNumEntriesScannedInFilter());
+    resultsBlock.setNumEntriesScannedPostFilter(_executionStatistics.getNumEntriesScannedPostFilter());
+    resultsBlock.setNumTotalRawDocs(_executionStatistics.getNumTotalRawDocs());
+    return resultsBlock;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    return _executionStatistics;
+  }
+}
@@ -86,6 +86,7 @@ public class MSelectionOrderByOperator extends BaseOperator<IntermediateResultsB
       DocIdSetBlock docIdSetBlock = projectionBlock.getDocIdSetBlock();
       _selectionOperatorService.iterateOnBlocksWithOrdering(docIdSetBlock.getBlockDocIdSet().iterator(), _blocks);
     }
+    _selectionOperatorService.fetchRowsWithOrdering(_blocks);
 
     // Create execution statistics.
     numDocsScanned += _selectionOperatorService.getNumDocsScanned();
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.query;
+
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import com.linkedin.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentResultCachingOperator</code> class wraps the operator for aggregation or aggregation group-by query
+ * on a single segment, and puts the results of the underlying operator into the {@link SegmentResultCache}.
+ * <p>The results block of the underlying operator is returned as is.
+ */
+public class SegmentResultCachingOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCachingOperator.class);
+  private static final String OPERATOR_NAME = "SegmentResultCachingOperator";
+
+  private final Operator _operator;
+  private final boolean _isGroupBy;
+  private final SegmentResultCache _segmentResultCache;
+  private final SegmentResultCache.Key _key;
+
+  public SegmentResultCachingOperator(@Nonnull Operator operator, boolean isGroupBy,
+      @Nonnull SegmentResultCache segmentResultCache, @Nonnull SegmentResultCache.Key key) {
+    _operator = operator;
+    _isGroupBy = isGroupBy;
+    _segmentResultCache = segmentResultCache;
+    _key = key;
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) _operator.nextBlock();
+
+    // Do not cache partial results.
+    List processingExceptions = resultsBlock.getProcessingExceptions();
+    if (processingExceptions == null || processingExceptions.isEmpty()) {
+      try {
+        _segmentResultCache.put(_key, getBlockToCache(resultsBlock).getDataTable());
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while caching results of operator: {}", _operator.getClass().getName(), e);
+      }
+    }
+
+    return resultsBlock;
+  }
+
+  /**
+   * Get the results block to be cached, with the total number of documents of the segment attached.
+   * <p>For aggregation group-by query, the group-by results are converted into the combined (map) form.
+   */
+  private IntermediateResultsBlock getBlockToCache(IntermediateResultsBlock resultsBlock) {
+    IntermediateResultsBlock blockToCache;
+    if (_isGroupBy) {
+      AggregationFunctionContext[] aggregationFunctionContexts = resultsBlock.getAggregationFunctionContexts();
+      int numAggregationFunctions = aggregationFunctionContexts.length;
+      List<Map<String, Object>> combinedResult = new ArrayList<>(numAggregationFunctions);
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        combinedResult.add(new HashMap<String, Object>());
+      }
+      AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
+      if (aggregationGroupByResult != null) {
+        Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+        while (groupKeyIterator.hasNext()) {
+          GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            combinedResult.get(i).put(groupKey._stringKey, aggregationGroupByResult.getResultForKey(groupKey, i));
+          }
+        }
+      }
+      blockToCache = new IntermediateResultsBlock(aggregationFunctionContexts, combinedResult, true);
+    } else {
+      blockToCache = resultsBlock;
+    }
+
+    blockToCache.setNumTotalRawDocs(_operator.getExecutionStatistics().getNumTotalRawDocs());
+    return blockToCache;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    return _operator.getExecutionStatistics();
+  }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.plan;
+
+import com.linkedin.pinot.common.request.AggregationInfo;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.operator.query.CachedSegmentResultOperator;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>CachedSegmentResultPlanNode</code> class provides the execution plan for aggregation or aggregation
+ * group-by query on a single segment whose results are served from the
+ * {@link com.linkedin.pinot.core.query.cache.SegmentResultCache}.
+ */
+public class CachedSegmentResultPlanNode implements PlanNode {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CachedSegmentResultPlanNode.class);
+
+  private final IndexSegment _indexSegment;
+  private final List<AggregationInfo> _aggregationInfos;
+  private final boolean _isGroupBy;
+  private final DataTable _dataTable;
+
+  public CachedSegmentResultPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest,
+      @Nonnull DataTable dataTable) {
+    _indexSegment = indexSegment;
+    _aggregationInfos = brokerRequest.getAggregationsInfo();
+    _isGroupBy = brokerRequest.isSetGroupBy();
+    _dataTable = dataTable;
+  }
+
+  @Override
+  public CachedSegmentResultOperator run() {
+    return new CachedSegmentResultOperator(
+        AggregationFunctionUtils.getAggregationFunctionContexts(_aggregationInfos, _indexSegment.getSegmentMetadata()),
+        _isGroupBy, _dataTable);
+  }
+
+  @Override
+  public void showTree(String prefix) {
+    LOGGER.debug(prefix + "Segment Level Inner-Segment Plan Node:");
+    LOGGER.debug(prefix + "Operator: CachedSegmentResultOperator");
+    LOGGER.debug(prefix + "Argument 0: IndexSegment - " + _indexSegment.getSegmentName());
+    LOGGER.debug(prefix + "Argument 1: Aggregations - " + _aggregationInfos);
+  }
+}
@@ -17,15 +17,20 @@ package com.linkedin.pinot.core.plan;
 
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.MCombineCachedResultsOperator;
 import com.linkedin.pinot.core.operator.MCombineGroupByOperator;
 import com.linkedin.pinot.core.operator.MCombineOperator;
+import com.linkedin.pinot.core.operator.MWorkStealingCombineOperator;
+import com.linkedin.pinot.core.operator.query.CachedSegmentResultOperator;
 import com.linkedin.pinot.core.query.exception.BadQueryRequestException;
 import com.linkedin.pinot.core.util.trace.TraceCallable;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +48,9 @@ public class CombinePlanNode implements PlanNode {
   private final BrokerRequest _brokerRequest;
   private final ExecutorService _executorService;
   private final long _timeOutMs;
+  private final boolean _enableWorkStealing;
+  private final long _groupByMemoryBudgetBytes;
+  private final File _groupBySpillDir;
 
   /**
    * Constructor for the class.
@@ -54,14 +62,63 @@ public class CombinePlanNode implements PlanNode {
    */
   public CombinePlanNode(List<PlanNode> planNodes, BrokerRequest brokerRequest, ExecutorService executorService,
       long timeOutMs) {
+    this(planNodes, brokerRequest, executorService, timeOutMs, false);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param planNodes List of underlying plan nodes
+   * @param brokerRequest Broker request
+   * @param executorService Executor service
+   * @param timeOutMs Time out in milliseconds for query execution (not for planning phase)
+   * @param enableWorkStealing Whether to run and combine the plan nodes with a bounded number of work stealing tasks
+   */
+  public CombinePlanNode(List<PlanNode> planNodes, BrokerRequest brokerRequest, ExecutorService executorService,
+      long timeOutMs, boolean enableWorkStealing) {
+    this(planNodes, brokerRequest, executorService, timeOutMs, enableWorkStealing, 0L, null);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param planNodes List of underlying plan nodes
+   * @param brokerRequest Broker request
+   * @param executorService Executor service
+   * @param timeOutMs Time out in milliseconds for query execution (not for planning phase)
+   * @param enableWorkStealing Whether to run and combine the plan nodes with a bounded number of work stealing tasks
+   * @param groupByMemoryBudgetBytes Memory budget for the group-by results, beyond which the results are spilled to
+   *                                 local disk, non-positive value to never spill
+   * @param groupBySpillDir Directory for the spilled group-by results, or null to use the temporary directory
+   */
+  public CombinePlanNode(List<PlanNode> planNodes, BrokerRequest brokerRequest, ExecutorService executorService,
+      long timeOutMs, boolean enableWorkStealing, long groupByMemoryBudgetBytes, @Nullable File groupBySpillDir) {
     _planNodes = planNodes;
     _brokerRequest = brokerRequest;
     _executorService = executorService;
     _timeOutMs = timeOutMs;
+    _enableWorkStealing = enableWorkStealing;
+    _groupByMemoryBudgetBytes = groupByMemoryBudgetBytes;
+    _groupBySpillDir = groupBySpillDir;
   }
 
   @Override
   public Operator run() {
+    // All segments served from the segment result cache, merge the cached results without going through the executor.
+    if (isAllCachedSegmentResults()) {
+      List<CachedSegmentResultOperator> operators = new ArrayList<>(_planNodes.size());
+      for (PlanNode planNode : _planNodes) {
+        operators.add(((CachedSegmentResultPlanNode) planNode).run());
+      }
+      return new MCombineCachedResultsOperator(operators, _brokerRequest);
+    }
+
+    // Plan nodes are run inside the tasks of the work stealing combine operator.
+    if (_enableWorkStealing) {
+      return new MWorkStealingCombineOperator(_planNodes, _executorService, _timeOutMs, _brokerRequest,
+          _groupByMemoryBudgetBytes, _groupBySpillDir);
+    }
+
     int numPlanNodes = _planNodes.size();
     List<Operator> operators = new ArrayList<>(numPlanNodes);
 
@@ -115,17 +172,30 @@ public class CombinePlanNode implements PlanNode {
     // TODO: use the same combine operator for both aggregation and selection query.
     if (_brokerRequest.isSetAggregationsInfo() && _brokerRequest.getGroupBy() != null) {
       // Aggregation group-by query
-      return new MCombineGroupByOperator(operators, _executorService, _timeOutMs, _brokerRequest);
+      return new MCombineGroupByOperator(operators, _executorService, _timeOutMs, _brokerRequest,
+          _groupByMemoryBudgetBytes, _groupBySpillDir);
     } else {
       // Selection or aggregation only query
       return new MCombineOperator(operators, _executorService, _timeOutMs, _brokerRequest);
     }
   }
 
+  private boolean isAllCachedSegmentResults() {
+    if (_planNodes.isEmpty()) {
+      return false;
+    }
+    for (PlanNode planNode : _planNodes) {
+      if (!(planNode instanceof CachedSegmentResultPlanNode)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   public void showTree(String prefix) {
     LOGGER.debug(prefix + "Instance Level Inter-Segments Combine Plan Node:");
-    LOGGER.debug(prefix + "Operator: MCombineOperator/MCombineGroupByOperator");
+    LOGGER.debug(prefix + "Operator: MCombineOperator/MCombineGroupByOperator/MWorkStealingCombineOperator");
     LOGGER.debug(prefix + "Argument 0: BrokerRequest - " + _brokerRequest);
     int i = 1;
     for (PlanNode planNode : _planNodes) {
@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.plan;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.query.SegmentResultCachingOperator;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentResultCachingPlanNode</code> class wraps the execution plan for aggregation or aggregation group-by
+ * query on a single segment, and caches the results into the {@link SegmentResultCache}.
+ */
+public class SegmentResultCachingPlanNode implements PlanNode {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCachingPlanNode.class);
+
+  private final PlanNode _planNode;
+  private final boolean _isGroupBy;
+  private final SegmentResultCache _segmentResultCache;
+  private final SegmentResultCache.Key _key;
+
+  public SegmentResultCachingPlanNode(@Nonnull PlanNode planNode, @Nonnull BrokerRequest brokerRequest,
+      @Nonnull SegmentResultCache segmentResultCache, @Nonnull SegmentResultCache.Key key) {
+    _planNode = planNode;
+    _isGroupBy = brokerRequest.isSetGroupBy();
+    _segmentResultCache = segmentResultCache;
+    _key = key;
+  }
+
+  @Override
+  public Operator run() {
+    return new SegmentResultCachingOperator(_planNode.run(), _isGroupBy, _segmentResultCache, _key);
+  }
+
+  @Override
+  public void showTree(String prefix) {
+    LOGGER.debug(prefix + "Segment Level Inner-Segment Plan Node:");
+    LOGGER.debug(prefix + "Operator: SegmentResultCachingOperator");
+    LOGGER.debug(prefix + "Argument 0: PlanNode -");
+    _planNode.showTree(prefix + "    ");
+  }
+}
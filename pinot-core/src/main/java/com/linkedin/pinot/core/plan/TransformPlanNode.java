@@ -23,6 +23,7 @@ import com.linkedin.pinot.core.common.Operator;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.operator.MProjectionOperator;
 import com.linkedin.pinot.core.operator.transform.TransformExpressionOperator;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFactory;
 import com.linkedin.pinot.pql.parsers.Pql2Compiler;
 import java.util.ArrayList;
@@ -125,8 +126,8 @@ public class TransformPlanNode implements PlanNode {
       for (AggregationInfo aggregationInfo : brokerRequest.getAggregationsInfo()) {
         if (!aggregationInfo.getAggregationType()
             .equalsIgnoreCase(AggregationFunctionFactory.AggregationFunctionType.COUNT.getName())) {
-          String columns = aggregationInfo.getAggregationParams().get("column").trim();
-          projectionColumns.addAll(Arrays.asList(columns.split(",")));
+          String[] columns = AggregationFunctionContext.instantiate(aggregationInfo).getAggregationColumns();
+          projectionColumns.addAll(Arrays.asList(columns));
         }
       }
 
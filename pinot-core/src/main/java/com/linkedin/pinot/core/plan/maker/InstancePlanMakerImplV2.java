@@ -17,11 +17,14 @@ package com.linkedin.pinot.core.plan.maker;
 
 import com.linkedin.pinot.common.request.AggregationInfo;
 import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.data.manager.offline.OfflineSegmentDataManager;
 import com.linkedin.pinot.core.data.manager.offline.SegmentDataManager;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.plan.AggregationGroupByPlanNode;
 import com.linkedin.pinot.core.plan.AggregationPlanNode;
+import com.linkedin.pinot.core.plan.CachedSegmentResultPlanNode;
 import com.linkedin.pinot.core.plan.CombinePlanNode;
 import com.linkedin.pinot.core.plan.DictionaryBasedAggregationPlanNode;
 import com.linkedin.pinot.core.plan.GlobalPlanImplV0;
@@ -29,13 +32,16 @@ import com.linkedin.pinot.core.plan.InstanceResponsePlanNode;
 import com.linkedin.pinot.core.plan.MetadataBasedAggregationPlanNode;
 import com.linkedin.pinot.core.plan.Plan;
 import com.linkedin.pinot.core.plan.PlanNode;
+import com.linkedin.pinot.core.plan.SegmentResultCachingPlanNode;
 import com.linkedin.pinot.core.plan.SelectionPlanNode;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFactory.AggregationFunctionType;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
 import com.linkedin.pinot.core.query.config.QueryExecutorConfig;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -54,6 +60,20 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   private static final int DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY = 10_000;
   private final int _maxInitialResultHolderCapacity;
 
+  // Whether to run and combine the segment plan nodes with a bounded number of work stealing tasks per query,
+  // instead of one task per segment.
+  private static final String ENABLE_WORK_STEALING_COMBINE_KEY = "work.stealing.combine.enabled";
+  private static final boolean DEFAULT_ENABLE_WORK_STEALING_COMBINE = false;
+  private final boolean _enableWorkStealingCombine;
+
+  // Memory budget for the group-by results of a query, beyond which the results are spilled to local disk as sorted
+  // runs. Non-positive value to never spill.
+  private static final String GROUP_BY_MEMORY_BUDGET_BYTES_KEY = "group.by.memory.budget.bytes";
+  private static final long DEFAULT_GROUP_BY_MEMORY_BUDGET_BYTES = 0L;
+  private static final String GROUP_BY_SPILL_DIR_KEY = "group.by.spill.dir";
+  private final long _groupByMemoryBudgetBytes;
+  private final File _groupBySpillDir;
+
   // TODO: Fix the runtime trimming and add back the number of aggregation groups limit.
   // TODO: Need to revisit the runtime trimming solution. Current solution will remove group keys that should not be removed.
   // Limit on number of groups, beyond which results are truncated.
@@ -66,6 +86,9 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
    */
   public InstancePlanMakerImplV2() {
     _maxInitialResultHolderCapacity = DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
+    _enableWorkStealingCombine = DEFAULT_ENABLE_WORK_STEALING_COMBINE;
+    _groupByMemoryBudgetBytes = DEFAULT_GROUP_BY_MEMORY_BUDGET_BYTES;
+    _groupBySpillDir = null;
 //    _numAggrGroupsLimit = DEFAULT_NUM_AGGR_GROUPS_LIMIT;
   }
 
@@ -80,6 +103,14 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   public InstancePlanMakerImplV2(QueryExecutorConfig queryExecutorConfig) {
     _maxInitialResultHolderCapacity = queryExecutorConfig.getConfig()
         .getInt(MAX_INITIAL_RESULT_HOLDER_CAPACITY_KEY, DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
+    _enableWorkStealingCombine = queryExecutorConfig.getConfig()
+        .getBoolean(ENABLE_WORK_STEALING_COMBINE_KEY, DEFAULT_ENABLE_WORK_STEALING_COMBINE);
+    LOGGER.info("Work stealing combine enabled: {}", _enableWorkStealingCombine);
+    _groupByMemoryBudgetBytes = queryExecutorConfig.getConfig()
+        .getLong(GROUP_BY_MEMORY_BUDGET_BYTES_KEY, DEFAULT_GROUP_BY_MEMORY_BUDGET_BYTES);
+    String groupBySpillDir = queryExecutorConfig.getConfig().getString(GROUP_BY_SPILL_DIR_KEY);
+    _groupBySpillDir = groupBySpillDir != null ? new File(groupBySpillDir) : null;
+    LOGGER.info("Group-by memory budget: {} bytes, spill dir: {}", _groupByMemoryBudgetBytes, _groupBySpillDir);
 
     // TODO: Read the limit on number of aggregation groups in query result from config.
     // _numAggrGroupsLimit = queryExecutorConfig.getConfig().getInt(NUM_AGGR_GROUPS_LIMIT, DEFAULT_NUM_AGGR_GROUPS_LIMIT);
@@ -119,11 +150,32 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
     BrokerRequestPreProcessor.preProcess(indexSegments, brokerRequest);
 
+    // Only cache results for immutable segments.
+    SegmentResultCache segmentResultCache = SegmentResultCache.getInstance();
+    byte[] queryBytes = null;
+    if (segmentResultCache != null && SegmentResultCache.isCacheable(brokerRequest)) {
+      queryBytes = SegmentResultCache.getQueryBytes(brokerRequest);
+    }
+    String tableName = brokerRequest.getQuerySource().getTableName();
+
     List<PlanNode> planNodes = new ArrayList<>();
-    for (IndexSegment indexSegment : indexSegments) {
-      planNodes.add(makeInnerSegmentPlan(indexSegment, brokerRequest));
+    for (SegmentDataManager segmentDataManager : segmentDataManagers) {
+      IndexSegment indexSegment = segmentDataManager.getSegment();
+      if (queryBytes != null && segmentDataManager instanceof OfflineSegmentDataManager) {
+        SegmentResultCache.Key key = SegmentResultCache.getKey(tableName, indexSegment, queryBytes);
+        DataTable cachedDataTable = segmentResultCache.get(key);
+        if (cachedDataTable != null) {
+          planNodes.add(new CachedSegmentResultPlanNode(indexSegment, brokerRequest, cachedDataTable));
+        } else {
+          planNodes.add(new SegmentResultCachingPlanNode(makeInnerSegmentPlan(indexSegment, brokerRequest),
+              brokerRequest, segmentResultCache, key));
+        }
+      } else {
+        planNodes.add(makeInnerSegmentPlan(indexSegment, brokerRequest));
+      }
     }
-    CombinePlanNode combinePlanNode = new CombinePlanNode(planNodes, brokerRequest, executorService, timeOutMs);
+    CombinePlanNode combinePlanNode = new CombinePlanNode(planNodes, brokerRequest, executorService, timeOutMs,
+        _enableWorkStealingCombine, _groupByMemoryBudgetBytes, _groupBySpillDir);
 
     return new GlobalPlanImplV0(new InstanceResponsePlanNode(combinePlanNode));
   }
@@ -18,6 +18,10 @@ package com.linkedin.pinot.core.query.aggregation;
 import com.linkedin.pinot.common.request.AggregationInfo;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFactory;
+import com.linkedin.pinot.core.query.aggregation.function.DistinctCountThetaSketchAggregationFunction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 
 /**
@@ -29,8 +33,16 @@ public class AggregationFunctionContext {
 
   public static AggregationFunctionContext instantiate(AggregationInfo aggregationInfo) {
     String[] aggrColumns = aggregationInfo.getAggregationParams().get("column").trim().split(",");
-    String functionName = aggregationInfo.getAggregationType();
-    AggregationFunction aggregationFunction = AggregationFunctionFactory.getAggregationFunction(functionName);
+    AggregationFunction aggregationFunction = AggregationFunctionFactory.getAggregationFunction(aggregationInfo);
+    if (aggregationFunction instanceof DistinctCountThetaSketchAggregationFunction) {
+      // Columns of the filter predicates are aggregated along with the aggregation column
+      List<String> filterColumns =
+          ((DistinctCountThetaSketchAggregationFunction) aggregationFunction).getFilterColumns();
+      List<String> columns = new ArrayList<>(aggrColumns.length + filterColumns.size());
+      columns.addAll(Arrays.asList(aggrColumns));
+      columns.addAll(filterColumns);
+      aggrColumns = columns.toArray(new String[columns.size()]);
+    }
     return new AggregationFunctionContext(aggrColumns, aggregationFunction);
   }
 
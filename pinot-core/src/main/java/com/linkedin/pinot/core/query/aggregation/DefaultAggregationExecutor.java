@@ -87,12 +87,15 @@ public class DefaultAggregationExecutor implements AggregationExecutor {
       AggregationResultHolder resultHolder) {
     AggregationFunction aggregationFunction = aggrFuncContext.getAggregationFunction();
     String[] aggregationColumns = aggrFuncContext.getAggregationColumns();
-    Preconditions.checkState(aggregationColumns.length == 1);
     int length = transformBlock.getNumDocs();
 
     if (!aggregationFunction.getName().equals(AggregationFunctionFactory.AggregationFunctionType.COUNT.getName())) {
-      BlockValSet blockValSet = transformBlock.getBlockValueSet(aggregationColumns[0]);
-      aggregationFunction.aggregate(length, resultHolder, blockValSet);
+      int numAggregationColumns = aggregationColumns.length;
+      BlockValSet[] blockValSets = new BlockValSet[numAggregationColumns];
+      for (int i = 0; i < numAggregationColumns; i++) {
+        blockValSets[i] = transformBlock.getBlockValueSet(aggregationColumns[i]);
+      }
+      aggregationFunction.aggregate(length, resultHolder, blockValSets);
     } else {
       aggregationFunction.aggregate(length, resultHolder);
     }
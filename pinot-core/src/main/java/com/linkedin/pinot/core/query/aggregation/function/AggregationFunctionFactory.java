@@ -15,7 +15,12 @@
  */
 package com.linkedin.pinot.core.query.aggregation.function;
 
+import com.linkedin.pinot.common.request.AggregationInfo;
 import com.linkedin.pinot.core.query.exception.BadQueryRequestException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 
 
@@ -23,6 +28,9 @@ import javax.annotation.Nonnull;
  * Factory class to create instances of aggregation function of the given name.
  */
 public class AggregationFunctionFactory {
+  // Aggregation params of the additional arguments of the function: argument1, argument2...
+  private static final String ARGUMENT_PARAM_PREFIX = "argument";
+
   private AggregationFunctionFactory() {
   }
 
@@ -59,6 +67,11 @@ public class AggregationFunctionFactory {
     PERCENTILEEST90("percentileEst90"),
     PERCENTILEEST95("percentileEst95"),
     PERCENTILEEST99("percentileEst99"),
+    PERCENTILETDIGEST50("percentileTDigest50"),
+    PERCENTILETDIGEST90("percentileTDigest90"),
+    PERCENTILETDIGEST95("percentileTDigest95"),
+    PERCENTILETDIGEST99("percentileTDigest99"),
+    DISTINCTCOUNTTHETASKETCH("distinctCountThetaSketch"),
     // Multi-value aggregation functions.
     COUNTMV("countMV"),
     MINMV("minMV"),
@@ -90,7 +103,11 @@ public class AggregationFunctionFactory {
     PERCENTILEEST80MV("percentileEst80MV"),
     PERCENTILEEST90MV("percentileEst90MV"),
     PERCENTILEEST95MV("percentileEst95MV"),
-    PERCENTILEEST99MV("percentileEst99MV");
+    PERCENTILEEST99MV("percentileEst99MV"),
+    PERCENTILETDIGEST50MV("percentileTDigest50MV"),
+    PERCENTILETDIGEST90MV("percentileTDigest90MV"),
+    PERCENTILETDIGEST95MV("percentileTDigest95MV"),
+    PERCENTILETDIGEST99MV("percentileTDigest99MV");
 
     private final String _name;
 
@@ -113,6 +130,34 @@ public class AggregationFunctionFactory {
     }
   }
 
+  /**
+   * Given the aggregation info, create and return a new instance of the corresponding aggregation function, initialized
+   * with the additional arguments of the aggregation info.
+   * <p>Functions taking additional arguments validate them on construction, and other functions reject any.
+   */
+  @Nonnull
+  public static AggregationFunction getAggregationFunction(@Nonnull AggregationInfo aggregationInfo) {
+    String functionName = aggregationInfo.getAggregationType();
+    List<String> arguments = getArguments(aggregationInfo.getAggregationParams());
+    if (functionName.equalsIgnoreCase(AggregationFunctionType.DISTINCTCOUNTTHETASKETCH.getName())) {
+      return new DistinctCountThetaSketchAggregationFunction(arguments);
+    }
+    if (!arguments.isEmpty()) {
+      throw new BadQueryRequestException(
+          "Aggregation function: " + functionName + " does not take additional arguments: " + arguments);
+    }
+    return getAggregationFunction(functionName);
+  }
+
+  private static List<String> getArguments(Map<String, String> aggregationParams) {
+    List<String> arguments = new ArrayList<>();
+    String argument;
+    while ((argument = aggregationParams.get(ARGUMENT_PARAM_PREFIX + (arguments.size() + 1))) != null) {
+      arguments.add(argument);
+    }
+    return arguments;
+  }
+
   /**
    * Given the name of aggregation function, create and return a new instance of the corresponding aggregation function.
    */
@@ -187,6 +232,16 @@ public class AggregationFunctionFactory {
         return new PercentileEstAggregationFunction(95);
       case PERCENTILEEST99:
         return new PercentileEstAggregationFunction(99);
+      case PERCENTILETDIGEST50:
+        return new PercentileTDigestAggregationFunction(50);
+      case PERCENTILETDIGEST90:
+        return new PercentileTDigestAggregationFunction(90);
+      case PERCENTILETDIGEST95:
+        return new PercentileTDigestAggregationFunction(95);
+      case PERCENTILETDIGEST99:
+        return new PercentileTDigestAggregationFunction(99);
+      case DISTINCTCOUNTTHETASKETCH:
+        return new DistinctCountThetaSketchAggregationFunction(Collections.<String>emptyList());
       case COUNTMV:
         return new CountMVAggregationFunction();
       case MINMV:
@@ -249,6 +304,14 @@ public class AggregationFunctionFactory {
         return new PercentileEstMVAggregationFunction(95);
       case PERCENTILEEST99MV:
         return new PercentileEstMVAggregationFunction(99);
+      case PERCENTILETDIGEST50MV:
+        return new PercentileTDigestMVAggregationFunction(50);
+      case PERCENTILETDIGEST90MV:
+        return new PercentileTDigestMVAggregationFunction(90);
+      case PERCENTILETDIGEST95MV:
+        return new PercentileTDigestMVAggregationFunction(95);
+      case PERCENTILETDIGEST99MV:
+        return new PercentileTDigestMVAggregationFunction(99);
       default:
         throw new UnsupportedOperationException();
     }
@@ -57,8 +57,7 @@ public class AggregationFunctionUtils {
     int numAggregationFunctions = aggregationInfos.size();
     AggregationFunction[] aggregationFunctions = new AggregationFunction[numAggregationFunctions];
     for (int i = 0; i < numAggregationFunctions; i++) {
-      aggregationFunctions[i] =
-          AggregationFunctionFactory.getAggregationFunction(aggregationInfos.get(i).getAggregationType());
+      aggregationFunctions[i] = AggregationFunctionFactory.getAggregationFunction(aggregationInfos.get(i));
     }
     return aggregationFunctions;
   }
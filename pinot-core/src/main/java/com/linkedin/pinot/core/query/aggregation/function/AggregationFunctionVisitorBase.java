@@ -107,6 +107,18 @@ public class AggregationFunctionVisitorBase {
     visitFunction(function);
   }
 
+  public void visit(DistinctCountThetaSketchAggregationFunction function) {
+    visitFunction(function);
+  }
+
+  public void visit(PercentileTDigestAggregationFunction function) {
+    visitFunction(function);
+  }
+
+  public void visit(PercentileTDigestMVAggregationFunction function) {
+    visitFunction(function);
+  }
+
   public void visit(SumAggregationFunction function) {
     visitFunction(function);
   }
@@ -0,0 +1,586 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.function;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.FilterOperator;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.core.common.BlockValSet;
+import com.linkedin.pinot.core.common.Predicate;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import com.linkedin.pinot.core.query.aggregation.AggregationResultHolder;
+import com.linkedin.pinot.core.query.aggregation.ObjectAggregationResultHolder;
+import com.linkedin.pinot.core.query.aggregation.function.customobject.ThetaSketch;
+import com.linkedin.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import com.linkedin.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+import com.linkedin.pinot.core.query.exception.BadQueryRequestException;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Distinct count aggregation function based on {@link ThetaSketch}, whose intermediate result has a bounded size
+ * regardless of the cardinality of the column.
+ * <p>The function optionally takes filter predicates on single-value columns and a set expression on them as
+ * additional arguments, e.g. <code>distinctCountThetaSketch(memberId, 'country = ''us''', 'device = ''mobile''',
+ * 'SET_INTERSECT($1, $2)')</code> counts the distinct members matching both predicates. One sketch per predicate is
+ * built in a single pass, and the set expression is evaluated on the merged sketches when extracting the final result.
+ * The supported set operations are <code>SET_UNION</code>, <code>SET_INTERSECT</code> and <code>SET_DIFF</code>, where
+ * <code>$i</code> refers to the i-th predicate. Without set expression, the union of the predicates is counted.
+ */
+public class DistinctCountThetaSketchAggregationFunction implements AggregationFunction<ThetaSketch[], Long> {
+  private static final String NAME =
+      AggregationFunctionFactory.AggregationFunctionType.DISTINCTCOUNTTHETASKETCH.getName();
+  private static final String SET_EXPRESSION_PREFIX = "SET_";
+  private static final String PREDICATE_REFERENCE_PREFIX = "$";
+
+  private final List<String> _filterColumns = new ArrayList<>();
+  private final RowPredicate[] _predicates;
+  private final SetExpression _setExpression;
+
+  private boolean[][] _matches;
+
+  /**
+   * Constructor for the function.
+   *
+   * @param arguments Additional arguments of the function: filter predicates, optionally followed by a set expression
+   */
+  public DistinctCountThetaSketchAggregationFunction(@Nonnull List<String> arguments) {
+    int numArguments = arguments.size();
+    if (numArguments == 0) {
+      _predicates = new RowPredicate[0];
+      _setExpression = null;
+      return;
+    }
+
+    String lastArgument = arguments.get(numArguments - 1).trim();
+    boolean hasSetExpression = lastArgument.toUpperCase().startsWith(SET_EXPRESSION_PREFIX)
+        || lastArgument.startsWith(PREDICATE_REFERENCE_PREFIX);
+    int numPredicates = hasSetExpression ? numArguments - 1 : numArguments;
+    if (numPredicates == 0) {
+      throw new BadQueryRequestException("No predicate specified for set expression: " + lastArgument);
+    }
+    _predicates = new RowPredicate[numPredicates];
+    Pql2Compiler compiler = new Pql2Compiler();
+    for (int i = 0; i < numPredicates; i++) {
+      _predicates[i] = compilePredicate(compiler, arguments.get(i));
+    }
+    if (hasSetExpression) {
+      _setExpression = parseSetExpression(lastArgument, numPredicates);
+    } else {
+      List<SetExpression> operands = new ArrayList<>(numPredicates);
+      for (int i = 0; i < numPredicates; i++) {
+        operands.add(new PredicateReference(i));
+      }
+      _setExpression = new SetOperation(SetOperationType.UNION, operands);
+    }
+  }
+
+  /**
+   * Returns the columns referenced in the filter predicates, whose block value sets are expected after the one of the
+   * aggregated column.
+   */
+  @Nonnull
+  public List<String> getFilterColumns() {
+    return _filterColumns;
+  }
+
+  @Nonnull
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Nonnull
+  @Override
+  public String getColumnName(@Nonnull String[] columns) {
+    return NAME + "_" + columns[0];
+  }
+
+  @Override
+  public void accept(@Nonnull AggregationFunctionVisitorBase visitor) {
+    visitor.visit(this);
+  }
+
+  @Nonnull
+  @Override
+  public AggregationResultHolder createAggregationResultHolder() {
+    return new ObjectAggregationResultHolder();
+  }
+
+  @Nonnull
+  @Override
+  public GroupByResultHolder createGroupByResultHolder(int initialCapacity, int maxCapacity, int trimSize) {
+    return new ObjectGroupByResultHolder(initialCapacity, maxCapacity, trimSize);
+  }
+
+  @Override
+  public void aggregate(int length, @Nonnull AggregationResultHolder aggregationResultHolder,
+      @Nonnull BlockValSet... blockValSets) {
+    ThetaSketch[] thetaSketches = aggregationResultHolder.getResult();
+    if (thetaSketches == null) {
+      thetaSketches = createThetaSketches();
+      aggregationResultHolder.setValue(thetaSketches);
+    }
+
+    long[] hashes = getHashes(length, blockValSets[0]);
+    if (_predicates.length == 0) {
+      for (int i = 0; i < length; i++) {
+        thetaSketches[0].updateHash(hashes[i]);
+      }
+    } else {
+      boolean[][] matches = applyPredicates(length, blockValSets);
+      for (int i = 0; i < _predicates.length; i++) {
+        for (int j = 0; j < length; j++) {
+          if (matches[i][j]) {
+            thetaSketches[i].updateHash(hashes[j]);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public void aggregateGroupBySV(int length, @Nonnull int[] groupKeyArray,
+      @Nonnull GroupByResultHolder groupByResultHolder, @Nonnull BlockValSet... blockValSets) {
+    long[] hashes = getHashes(length, blockValSets[0]);
+    boolean[][] matches = applyPredicates(length, blockValSets);
+    for (int i = 0; i < length; i++) {
+      updateThetaSketches(getThetaSketches(groupByResultHolder, groupKeyArray[i]), matches, i, hashes[i]);
+    }
+  }
+
+  @Override
+  public void aggregateGroupByMV(int length, @Nonnull int[][] groupKeysArray,
+      @Nonnull GroupByResultHolder groupByResultHolder, @Nonnull BlockValSet... blockValSets) {
+    long[] hashes = getHashes(length, blockValSets[0]);
+    boolean[][] matches = applyPredicates(length, blockValSets);
+    for (int i = 0; i < length; i++) {
+      for (int groupKey : groupKeysArray[i]) {
+        updateThetaSketches(getThetaSketches(groupByResultHolder, groupKey), matches, i, hashes[i]);
+      }
+    }
+  }
+
+  /**
+   * Helper method to update the sketches of a group with the hash of a row, based on the predicates matched by the row.
+   */
+  private void updateThetaSketches(ThetaSketch[] thetaSketches, boolean[][] matches, int index, long hash) {
+    if (_predicates.length == 0) {
+      thetaSketches[0].updateHash(hash);
+    } else {
+      for (int i = 0; i < _predicates.length; i++) {
+        if (matches[i][index]) {
+          thetaSketches[i].updateHash(hash);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the sketches for the given group key. If one does not exist, creates new ones and returns them.
+   */
+  private ThetaSketch[] getThetaSketches(GroupByResultHolder groupByResultHolder, int groupKey) {
+    ThetaSketch[] thetaSketches = groupByResultHolder.getResult(groupKey);
+    if (thetaSketches == null) {
+      thetaSketches = createThetaSketches();
+      groupByResultHolder.setValueForKey(groupKey, thetaSketches);
+    }
+    return thetaSketches;
+  }
+
+  /**
+   * Returns one sketch per predicate, or one sketch if there is no predicate.
+   */
+  private ThetaSketch[] createThetaSketches() {
+    int numThetaSketches = Math.max(_predicates.length, 1);
+    ThetaSketch[] thetaSketches = new ThetaSketch[numThetaSketches];
+    for (int i = 0; i < numThetaSketches; i++) {
+      thetaSketches[i] = new ThetaSketch();
+    }
+    return thetaSketches;
+  }
+
+  /**
+   * Helper method to hash the values of the aggregated column.
+   */
+  private static long[] getHashes(int length, BlockValSet blockValSet) {
+    long[] hashes = new long[length];
+    FieldSpec.DataType valueType = blockValSet.getValueType();
+    switch (valueType) {
+      case INT:
+        int[] intValues = blockValSet.getIntValuesSV();
+        for (int i = 0; i < length; i++) {
+          hashes[i] = ThetaSketch.hash(intValues[i]);
+        }
+        break;
+
+      case LONG:
+        long[] longValues = blockValSet.getLongValuesSV();
+        for (int i = 0; i < length; i++) {
+          hashes[i] = ThetaSketch.hash(longValues[i]);
+        }
+        break;
+
+      case FLOAT:
+        float[] floatValues = blockValSet.getFloatValuesSV();
+        for (int i = 0; i < length; i++) {
+          hashes[i] = ThetaSketch.hash(floatValues[i]);
+        }
+        break;
+
+      case DOUBLE:
+        double[] doubleValues = blockValSet.getDoubleValuesSV();
+        for (int i = 0; i < length; i++) {
+          hashes[i] = ThetaSketch.hash(doubleValues[i]);
+        }
+        break;
+
+      case STRING:
+        String[] stringValues = blockValSet.getStringValuesSV();
+        for (int i = 0; i < length; i++) {
+          hashes[i] = ThetaSketch.hash(stringValues[i]);
+        }
+        break;
+
+      default:
+        throw new IllegalArgumentException(
+            "Illegal data type for distinct count theta sketch aggregation function: " + valueType);
+    }
+    return hashes;
+  }
+
+  /**
+   * Helper method to apply all the predicates on the rows of the block, returns one array of matches per predicate, or
+   * <code>null</code> if there is no predicate.
+   */
+  private boolean[][] applyPredicates(int length, BlockValSet[] blockValSets) {
+    int numPredicates = _predicates.length;
+    if (numPredicates == 0) {
+      return null;
+    }
+    if (_matches == null || _matches[0].length < length) {
+      _matches = new boolean[numPredicates][length];
+    }
+    for (int i = 0; i < numPredicates; i++) {
+      _predicates[i].apply(length, blockValSets, _matches[i]);
+    }
+    return _matches;
+  }
+
+  @Nonnull
+  @Override
+  public ThetaSketch[] extractAggregationResult(@Nonnull AggregationResultHolder aggregationResultHolder) {
+    ThetaSketch[] thetaSketches = aggregationResultHolder.getResult();
+    if (thetaSketches == null) {
+      return createThetaSketches();
+    } else {
+      return thetaSketches;
+    }
+  }
+
+  @Nonnull
+  @Override
+  public ThetaSketch[] extractGroupByResult(@Nonnull GroupByResultHolder groupByResultHolder, int groupKey) {
+    ThetaSketch[] thetaSketches = groupByResultHolder.getResult(groupKey);
+    if (thetaSketches == null) {
+      return createThetaSketches();
+    } else {
+      return thetaSketches;
+    }
+  }
+
+  @Nonnull
+  @Override
+  public ThetaSketch[] merge(@Nonnull ThetaSketch[] intermediateResult1, @Nonnull ThetaSketch[] intermediateResult2) {
+    for (int i = 0; i < intermediateResult1.length; i++) {
+      intermediateResult1[i].merge(intermediateResult2[i]);
+    }
+    return intermediateResult1;
+  }
+
+  @Override
+  public boolean isIntermediateResultComparable() {
+    return false;
+  }
+
+  @Nonnull
+  @Override
+  public FieldSpec.DataType getIntermediateResultDataType() {
+    return FieldSpec.DataType.OBJECT;
+  }
+
+  @Nonnull
+  @Override
+  public Long extractFinalResult(@Nonnull ThetaSketch[] intermediateResult) {
+    if (_setExpression == null) {
+      return intermediateResult[0].getEstimate();
+    } else {
+      return _setExpression.evaluate(intermediateResult).getEstimate();
+    }
+  }
+
+  /**
+   * Helper method to compile a filter predicate with the PQL compiler.
+   */
+  private RowPredicate compilePredicate(Pql2Compiler compiler, String predicate) {
+    BrokerRequest brokerRequest;
+    try {
+      brokerRequest = compiler.compileToBrokerRequest("SELECT * FROM dummy WHERE " + predicate);
+    } catch (Exception e) {
+      throw new BadQueryRequestException("Invalid predicate: " + predicate + ", " + e.getMessage());
+    }
+    return buildRowPredicate(RequestUtils.generateFilterQueryTree(brokerRequest));
+  }
+
+  private RowPredicate buildRowPredicate(FilterQueryTree filterQueryTree) {
+    FilterOperator operator = filterQueryTree.getOperator();
+    if (operator == FilterOperator.AND || operator == FilterOperator.OR) {
+      List<FilterQueryTree> children = filterQueryTree.getChildren();
+      RowPredicate[] childPredicates = new RowPredicate[children.size()];
+      for (int i = 0; i < childPredicates.length; i++) {
+        childPredicates[i] = buildRowPredicate(children.get(i));
+      }
+      return new CompoundRowPredicate(operator == FilterOperator.AND, childPredicates);
+    }
+    String column = filterQueryTree.getColumn();
+    int index = _filterColumns.indexOf(column);
+    if (index == -1) {
+      index = _filterColumns.size();
+      _filterColumns.add(column);
+    }
+    // The block value set of the aggregated column comes first
+    return new LeafRowPredicate(Predicate.newPredicate(filterQueryTree), index + 1);
+  }
+
+  /**
+   * Helper method to parse a set expression, e.g. <code>SET_DIFF($1, SET_UNION($2, $3))</code>.
+   */
+  private static SetExpression parseSetExpression(String expression, int numPredicates) {
+    expression = expression.trim();
+    if (expression.startsWith(PREDICATE_REFERENCE_PREFIX)) {
+      int index;
+      try {
+        index = Integer.parseInt(expression.substring(PREDICATE_REFERENCE_PREFIX.length()).trim());
+      } catch (NumberFormatException e) {
+        throw new BadQueryRequestException("Invalid predicate reference in set expression: " + expression);
+      }
+      if (index < 1 || index > numPredicates) {
+        throw new BadQueryRequestException(
+            "Predicate reference out of range [1, " + numPredicates + "] in set expression: " + expression);
+      }
+      return new PredicateReference(index - 1);
+    }
+
+    int openIndex = expression.indexOf('(');
+    if (openIndex == -1 || !expression.endsWith(")")) {
+      throw new BadQueryRequestException("Invalid set expression: " + expression);
+    }
+    String operationName = expression.substring(0, openIndex).trim().toUpperCase();
+    if (!operationName.startsWith(SET_EXPRESSION_PREFIX)) {
+      throw new BadQueryRequestException("Invalid set operation in set expression: " + expression);
+    }
+    SetOperationType operationType;
+    try {
+      operationType = SetOperationType.valueOf(operationName.substring(SET_EXPRESSION_PREFIX.length()));
+    } catch (IllegalArgumentException e) {
+      throw new BadQueryRequestException("Invalid set operation in set expression: " + expression);
+    }
+
+    // Split the operands on the top level commas
+    List<SetExpression> operands = new ArrayList<>();
+    String operandsString = expression.substring(openIndex + 1, expression.length() - 1);
+    int depth = 0;
+    int start = 0;
+    for (int i = 0; i < operandsString.length(); i++) {
+      char c = operandsString.charAt(i);
+      if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (c == ',' && depth == 0) {
+        operands.add(parseSetExpression(operandsString.substring(start, i), numPredicates));
+        start = i + 1;
+      }
+    }
+    operands.add(parseSetExpression(operandsString.substring(start), numPredicates));
+    if (operands.size() < 2 || (operationType == SetOperationType.DIFF && operands.size() != 2)) {
+      throw new BadQueryRequestException("Invalid number of operands in set expression: " + expression);
+    }
+    return new SetOperation(operationType, operands);
+  }
+
+  /**
+   * Filter predicate evaluated on the rows of a block.
+   */
+  private interface RowPredicate {
+
+    /**
+     * Sets whether each row of the block matches the predicate into the given array.
+     */
+    void apply(int length, BlockValSet[] blockValSets, boolean[] matches);
+  }
+
+  private static class LeafRowPredicate implements RowPredicate {
+    private final Predicate _predicate;
+    private final int _blockValSetIndex;
+
+    private FieldSpec.DataType _dataType;
+    private PredicateEvaluator _predicateEvaluator;
+
+    LeafRowPredicate(Predicate predicate, int blockValSetIndex) {
+      _predicate = predicate;
+      _blockValSetIndex = blockValSetIndex;
+    }
+
+    @Override
+    public void apply(int length, BlockValSet[] blockValSets, boolean[] matches) {
+      BlockValSet blockValSet = blockValSets[_blockValSetIndex];
+      FieldSpec.DataType dataType = blockValSet.getValueType();
+      if (dataType != _dataType) {
+        _predicateEvaluator = PredicateEvaluatorProvider.getRawValueBasedPredicateEvaluator(_predicate, dataType);
+        _dataType = dataType;
+      }
+      switch (dataType) {
+        case INT:
+          int[] intValues = blockValSet.getIntValuesSV();
+          for (int i = 0; i < length; i++) {
+            matches[i] = _predicateEvaluator.applySV(intValues[i]);
+          }
+          break;
+
+        case LONG:
+          long[] longValues = blockValSet.getLongValuesSV();
+          for (int i = 0; i < length; i++) {
+            matches[i] = _predicateEvaluator.applySV(longValues[i]);
+          }
+          break;
+
+        case FLOAT:
+          float[] floatValues = blockValSet.getFloatValuesSV();
+          for (int i = 0; i < length; i++) {
+            matches[i] = _predicateEvaluator.applySV(floatValues[i]);
+          }
+          break;
+
+        case DOUBLE:
+          double[] doubleValues = blockValSet.getDoubleValuesSV();
+          for (int i = 0; i < length; i++) {
+            matches[i] = _predicateEvaluator.applySV(doubleValues[i]);
+          }
+          break;
+
+        case STRING:
+          String[] stringValues = blockValSet.getStringValuesSV();
+          for (int i = 0; i < length; i++) {
+            matches[i] = _predicateEvaluator.applySV(stringValues[i]);
+          }
+          break;
+
+        default:
+          throw new IllegalArgumentException("Illegal data type for predicate: " + dataType);
+      }
+    }
+  }
+
+  private static class CompoundRowPredicate implements RowPredicate {
+    private final boolean _isAnd;
+    private final RowPredicate[] _children;
+
+    private boolean[] _childMatches;
+
+    CompoundRowPredicate(boolean isAnd, RowPredicate[] children) {
+      _isAnd = isAnd;
+      _children = children;
+    }
+
+    @Override
+    public void apply(int length, BlockValSet[] blockValSets, boolean[] matches) {
+      if (_childMatches == null || _childMatches.length < length) {
+        _childMatches = new boolean[length];
+      }
+      _children[0].apply(length, blockValSets, matches);
+      for (int i = 1; i < _children.length; i++) {
+        _children[i].apply(length, blockValSets, _childMatches);
+        for (int j = 0; j < length; j++) {
+          matches[j] = _isAnd ? matches[j] && _childMatches[j] : matches[j] || _childMatches[j];
+        }
+      }
+    }
+  }
+
+  private enum SetOperationType {
+    UNION, INTERSECT, DIFF
+  }
+
+  /**
+   * Set expression evaluated on the sketches of the predicates.
+   */
+  private interface SetExpression {
+
+    ThetaSketch evaluate(ThetaSketch[] thetaSketches);
+  }
+
+  private static class PredicateReference implements SetExpression {
+    private final int _index;
+
+    PredicateReference(int index) {
+      _index = index;
+    }
+
+    @Override
+    public ThetaSketch evaluate(ThetaSketch[] thetaSketches) {
+      return thetaSketches[_index];
+    }
+  }
+
+  private static class SetOperation implements SetExpression {
+    private final SetOperationType _operationType;
+    private final List<SetExpression> _operands;
+
+    SetOperation(SetOperationType operationType, List<SetExpression> operands) {
+      _operationType = operationType;
+      _operands = operands;
+    }
+
+    @Override
+    public ThetaSketch evaluate(ThetaSketch[] thetaSketches) {
+      ThetaSketch result = _operands.get(0).evaluate(thetaSketches);
+      for (int i = 1; i < _operands.size(); i++) {
+        ThetaSketch operand = _operands.get(i).evaluate(thetaSketches);
+        switch (_operationType) {
+          case UNION:
+            result = ThetaSketch.union(result, operand);
+            break;
+          case INTERSECT:
+            result = ThetaSketch.intersect(result, operand);
+            break;
+          case DIFF:
+            result = ThetaSketch.diff(result, operand);
+            break;
+          default:
+            throw new IllegalStateException();
+        }
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,309 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.function.customobject;
+
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import it.unimi.dsi.fastutil.Arrays;
+import it.unimi.dsi.fastutil.Swapper;
+import it.unimi.dsi.fastutil.doubles.DoubleArrays;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import java.nio.ByteBuffer;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Merging T-Digest for estimating quantiles of a stream of double values, as described in "Computing Extremely
+ * Accurate Quantiles Using t-Digests" by Ted Dunning and Otmar Ertl.
+ * <p>The values are clustered into weighted centroids, where the clusters are kept small near the tails and larger in
+ * the middle (bounded by the arcsine scale function of the compression). The number of centroids is bounded by the
+ * compression regardless of the number of values added, so the serialized form has a bounded size.
+ * <p>Added values are buffered and merged into the centroids in batches.
+ */
+public class TDigest {
+  public static final double DEFAULT_COMPRESSION = 100;
+  // Digests of small groups only hold a few values, so start with small arrays and grow them on demand
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final double _compression;
+  // Maximum number of values to buffer before merging them into the centroids
+  private final int _maxNumBuffered;
+  // Sorted centroids
+  private double[] _means;
+  private double[] _weights;
+  private int _numCentroids = 0;
+  // Un-merged values and centroids, also used as the scratch space to sort them together with the centroids
+  private double[] _bufferMeans;
+  private double[] _bufferWeights;
+  private int _numBuffered = 0;
+  private double _totalWeight = 0;
+  private double _min = Double.POSITIVE_INFINITY;
+  private double _max = Double.NEGATIVE_INFINITY;
+
+  // Sort the buffer by mean, created once to not allocate on each compression
+  private final AbstractIntComparator _bufferComparator = new AbstractIntComparator() {
+    @Override
+    public int compare(int i, int j) {
+      return Double.compare(_bufferMeans[i], _bufferMeans[j]);
+    }
+  };
+  private final Swapper _bufferSwapper = new Swapper() {
+    @Override
+    public void swap(int i, int j) {
+      double mean = _bufferMeans[i];
+      _bufferMeans[i] = _bufferMeans[j];
+      _bufferMeans[j] = mean;
+      double weight = _bufferWeights[i];
+      _bufferWeights[i] = _bufferWeights[j];
+      _bufferWeights[j] = weight;
+    }
+  };
+
+  public TDigest() {
+    this(DEFAULT_COMPRESSION);
+  }
+
+  public TDigest(double compression) {
+    this(compression, INITIAL_CAPACITY);
+  }
+
+  private TDigest(double compression, int initialNumCentroids) {
+    _compression = compression;
+    // The arcsine scale function bounds the number of centroids to PI * compression / 2, buffer up to 5 times of it
+    _maxNumBuffered = 5 * ((int) (2 * Math.ceil(compression)) + 10);
+    _means = new double[initialNumCentroids];
+    _weights = new double[initialNumCentroids];
+    _bufferMeans = new double[INITIAL_CAPACITY];
+    _bufferWeights = new double[INITIAL_CAPACITY];
+  }
+
+  public void add(double value) {
+    add(value, 1);
+  }
+
+  private void add(double mean, double weight) {
+    if (_numBuffered == _maxNumBuffered) {
+      compress();
+    } else if (_numBuffered == _bufferMeans.length) {
+      growBuffer(Math.min(2 * _numBuffered, _maxNumBuffered));
+    }
+    _bufferMeans[_numBuffered] = mean;
+    _bufferWeights[_numBuffered] = weight;
+    _numBuffered++;
+    _totalWeight += weight;
+    if (mean < _min) {
+      _min = mean;
+    }
+    if (mean > _max) {
+      _max = mean;
+    }
+  }
+
+  private void growBuffer(int capacity) {
+    _bufferMeans = DoubleArrays.ensureCapacity(_bufferMeans, capacity, _numBuffered);
+    _bufferWeights = DoubleArrays.ensureCapacity(_bufferWeights, capacity, _numBuffered);
+  }
+
+  private void growCentroids() {
+    int capacity = 2 * _means.length;
+    _means = DoubleArrays.ensureCapacity(_means, capacity, _means.length);
+    _weights = DoubleArrays.ensureCapacity(_weights, capacity, _weights.length);
+  }
+
+  public void merge(@Nonnull TDigest tDigest) {
+    tDigest.compress();
+    for (int i = 0; i < tDigest._numCentroids; i++) {
+      add(tDigest._means[i], tDigest._weights[i]);
+    }
+    // Keep the exact extremes of the other digest
+    if (tDigest._min < _min) {
+      _min = tDigest._min;
+    }
+    if (tDigest._max > _max) {
+      _max = tDigest._max;
+    }
+  }
+
+  /**
+   * Returns the number of values added.
+   */
+  public long size() {
+    return (long) _totalWeight;
+  }
+
+  /**
+   * Merge the buffered values into the centroids.
+   */
+  public void compress() {
+    if (_numBuffered == 0) {
+      return;
+    }
+
+    // Put the centroids in front of the buffered values and sort them all by mean
+    int numValues = _numBuffered + _numCentroids;
+    if (numValues > _bufferMeans.length) {
+      growBuffer(numValues);
+    }
+    System.arraycopy(_bufferMeans, 0, _bufferMeans, _numCentroids, _numBuffered);
+    System.arraycopy(_bufferWeights, 0, _bufferWeights, _numCentroids, _numBuffered);
+    System.arraycopy(_means, 0, _bufferMeans, 0, _numCentroids);
+    System.arraycopy(_weights, 0, _bufferWeights, 0, _numCentroids);
+    _numBuffered = 0;
+    Arrays.quickSort(0, numValues, _bufferComparator, _bufferSwapper);
+
+    // Greedily merge adjacent values while the merged centroid stays within the size limit of the scale function
+    int last = 0;
+    _means[0] = _bufferMeans[0];
+    _weights[0] = _bufferWeights[0];
+    double weightSoFar = 0;
+    double weightLimit = _totalWeight * integratedQ(integratedLocation(0) + 1);
+    for (int i = 1; i < numValues; i++) {
+      double mean = _bufferMeans[i];
+      double weight = _bufferWeights[i];
+      if (weightSoFar + _weights[last] + weight <= weightLimit) {
+        _weights[last] += weight;
+        _means[last] += (mean - _means[last]) * weight / _weights[last];
+      } else {
+        weightSoFar += _weights[last];
+        weightLimit = _totalWeight * integratedQ(integratedLocation(weightSoFar / _totalWeight) + 1);
+        last++;
+        if (last == _means.length) {
+          growCentroids();
+        }
+        _means[last] = mean;
+        _weights[last] = weight;
+      }
+    }
+    _numCentroids = last + 1;
+  }
+
+  /**
+   * Maps a quantile to the scale of the centroid indices (arcsine scale function).
+   */
+  private double integratedLocation(double quantile) {
+    return _compression * (Math.asin(2 * quantile - 1) + Math.PI / 2) / Math.PI;
+  }
+
+  /**
+   * Inverse of {@link #integratedLocation(double)}.
+   */
+  private double integratedQ(double location) {
+    return (Math.sin(Math.min(location, _compression) * Math.PI / _compression - Math.PI / 2) + 1) / 2;
+  }
+
+  /**
+   * Returns the estimated value at the given quantile (between 0 and 1), or {@link Double#NaN} if no value was added.
+   */
+  public double getQuantile(double quantile) {
+    compress();
+    if (_numCentroids == 0) {
+      return Double.NaN;
+    }
+    if (_numCentroids == 1) {
+      return _means[0];
+    }
+
+    int n = _numCentroids;
+    double index = quantile * _totalWeight;
+    if (index < 1) {
+      return _min;
+    }
+    // Interpolate between the min and the first centroid (a centroid of weight 2 has the min as one of its values)
+    if (_weights[0] > 2 && index < _weights[0] / 2) {
+      return _min + (index - 1) / (_weights[0] / 2 - 1) * (_means[0] - _min);
+    }
+    if (index > _totalWeight - 1) {
+      return _max;
+    }
+    // Interpolate between the last centroid and the max (a centroid of weight 2 has the max as one of its values)
+    if (_weights[n - 1] > 2 && _totalWeight - index <= _weights[n - 1] / 2) {
+      return _max - (_totalWeight - index - 1) / (_weights[n - 1] / 2 - 1) * (_max - _means[n - 1]);
+    }
+
+    // Interpolate between the two centroids around the index, where a centroid of weight 1 is a single value
+    double weightSoFar = _weights[0] / 2;
+    for (int i = 0; i < n - 1; i++) {
+      double deltaWeight = (_weights[i] + _weights[i + 1]) / 2;
+      if (weightSoFar + deltaWeight > index) {
+        double leftUnit = 0;
+        if (_weights[i] == 1) {
+          if (index - weightSoFar < 0.5) {
+            return _means[i];
+          }
+          leftUnit = 0.5;
+        }
+        double rightUnit = 0;
+        if (_weights[i + 1] == 1) {
+          if (weightSoFar + deltaWeight - index <= 0.5) {
+            return _means[i + 1];
+          }
+          rightUnit = 0.5;
+        }
+        double leftWeight = index - weightSoFar - leftUnit;
+        double rightWeight = weightSoFar + deltaWeight - index - rightUnit;
+        return (_means[i] * rightWeight + _means[i + 1] * leftWeight) / (leftWeight + rightWeight);
+      }
+      weightSoFar += deltaWeight;
+    }
+
+    // The index is within the right half of the last centroid of weight 2 (the other value is the max)
+    double leftWeight = index - (_totalWeight - _weights[n - 1] / 2);
+    double rightWeight = _totalWeight - index;
+    return (_means[n - 1] * rightWeight + _max * leftWeight) / (leftWeight + rightWeight);
+  }
+
+  /**
+   * Serializes the digest as the compression, min, max, number of centroids, then the mean and weight of each centroid.
+   */
+  @Nonnull
+  public byte[] toBytes() {
+    compress();
+    ByteBuffer byteBuffer = ByteBuffer.allocate(
+        3 * V1Constants.Numbers.DOUBLE_SIZE + V1Constants.Numbers.INTEGER_SIZE
+            + 2 * _numCentroids * V1Constants.Numbers.DOUBLE_SIZE);
+    byteBuffer.putDouble(_compression);
+    byteBuffer.putDouble(_min);
+    byteBuffer.putDouble(_max);
+    byteBuffer.putInt(_numCentroids);
+    for (int i = 0; i < _numCentroids; i++) {
+      byteBuffer.putDouble(_means[i]);
+      byteBuffer.putDouble(_weights[i]);
+    }
+    return byteBuffer.array();
+  }
+
+  @Nonnull
+  public static TDigest fromBytes(byte[] bytes) {
+    return fromByteBuffer(ByteBuffer.wrap(bytes));
+  }
+
+  @Nonnull
+  public static TDigest fromByteBuffer(ByteBuffer byteBuffer) {
+    double compression = byteBuffer.getDouble();
+    double min = byteBuffer.getDouble();
+    double max = byteBuffer.getDouble();
+    int numCentroids = byteBuffer.getInt();
+    TDigest tDigest = new TDigest(compression, Math.max(numCentroids, 1));
+    tDigest._min = min;
+    tDigest._max = max;
+    for (int i = 0; i < numCentroids; i++) {
+      tDigest._means[i] = byteBuffer.getDouble();
+      tDigest._weights[i] = byteBuffer.getDouble();
+      tDigest._totalWeight += tDigest._weights[i];
+    }
+    tDigest._numCentroids = numCentroids;
+    return tDigest;
+  }
+}
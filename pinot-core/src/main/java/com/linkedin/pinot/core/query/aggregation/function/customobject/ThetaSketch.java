@@ -0,0 +1,273 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.function.customobject;
+
+import com.linkedin.pinot.common.utils.HashUtil;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Theta sketch (K Minimum Values) for estimating the number of distinct values, which also supports set operations
+ * (union, intersection and difference) between sketches.
+ * <p>Each value is hashed into a 63 bits non-negative long, and only the hashes smaller than theta are kept. Once more
+ * than twice the nominal entries are kept, theta is lowered so that only the nominal entries smallest hashes remain.
+ * The number of distinct values is estimated as the number of kept hashes divided by the fraction of the hash space
+ * below theta. The size of the sketch is bounded by the nominal entries regardless of the number of distinct values.
+ */
+public class ThetaSketch {
+  public static final int DEFAULT_NOMINAL_ENTRIES = 4096;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private final int _nominalEntries;
+  private final LongOpenHashSet _hashes;
+  private long _theta = Long.MAX_VALUE;
+
+  public ThetaSketch() {
+    this(DEFAULT_NOMINAL_ENTRIES);
+  }
+
+  public ThetaSketch(int nominalEntries) {
+    _nominalEntries = nominalEntries;
+    _hashes = new LongOpenHashSet();
+  }
+
+  public void update(int value) {
+    updateHash(hash(value));
+  }
+
+  public void update(long value) {
+    updateHash(hash(value));
+  }
+
+  public void update(float value) {
+    updateHash(hash(value));
+  }
+
+  public void update(double value) {
+    updateHash(hash(value));
+  }
+
+  public void update(@Nonnull String value) {
+    updateHash(hash(value));
+  }
+
+  /**
+   * Updates the sketch with a hash computed by one of the <code>hash</code> methods.
+   */
+  public void updateHash(long hash) {
+    if (hash < _theta && _hashes.add(hash) && _hashes.size() > 2 * _nominalEntries) {
+      trim();
+    }
+  }
+
+  /*
+   * The hash methods return non-negative 63 bits hashes so that they can be compared with theta.
+   */
+
+  public static long hash(int value) {
+    return mix(value) >>> 1;
+  }
+
+  public static long hash(long value) {
+    return mix(value) >>> 1;
+  }
+
+  public static long hash(float value) {
+    return mix(Float.floatToIntBits(value)) >>> 1;
+  }
+
+  public static long hash(double value) {
+    return mix(Double.doubleToLongBits(value)) >>> 1;
+  }
+
+  public static long hash(@Nonnull String value) {
+    byte[] bytes = value.getBytes(UTF_8);
+    return HashUtil.hash64(bytes, bytes.length) >>> 1;
+  }
+
+  /**
+   * Finalization step of MurmurHash3, which is a bijection with good avalanche on the 64 bits.
+   */
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+
+  /**
+   * Keeps only the nominal entries smallest hashes, and lowers theta to the smallest dropped hash.
+   */
+  private void trim() {
+    long[] hashes = _hashes.toLongArray();
+    Arrays.sort(hashes);
+    _theta = hashes[_nominalEntries];
+    _hashes.clear();
+    for (int i = 0; i < _nominalEntries; i++) {
+      _hashes.add(hashes[i]);
+    }
+  }
+
+  /**
+   * Drops the hashes not smaller than the given theta.
+   */
+  private void lowerTheta(long theta) {
+    if (theta < _theta) {
+      _theta = theta;
+      LongIterator iterator = _hashes.iterator();
+      while (iterator.hasNext()) {
+        if (iterator.nextLong() >= theta) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Merges (union) another sketch into this sketch.
+   */
+  public void merge(@Nonnull ThetaSketch thetaSketch) {
+    lowerTheta(thetaSketch._theta);
+    LongIterator iterator = thetaSketch._hashes.iterator();
+    while (iterator.hasNext()) {
+      long hash = iterator.nextLong();
+      if (hash < _theta) {
+        _hashes.add(hash);
+      }
+    }
+    if (_hashes.size() > 2 * _nominalEntries) {
+      trim();
+    }
+  }
+
+  /**
+   * Returns the union of the given sketches without modifying them.
+   */
+  @Nonnull
+  public static ThetaSketch union(@Nonnull ThetaSketch thetaSketch1, @Nonnull ThetaSketch thetaSketch2) {
+    ThetaSketch result = new ThetaSketch(Math.min(thetaSketch1._nominalEntries, thetaSketch2._nominalEntries));
+    result.merge(thetaSketch1);
+    result.merge(thetaSketch2);
+    return result;
+  }
+
+  /**
+   * Returns the intersection of the given sketches without modifying them.
+   */
+  @Nonnull
+  public static ThetaSketch intersect(@Nonnull ThetaSketch thetaSketch1, @Nonnull ThetaSketch thetaSketch2) {
+    return intersectOrDiff(thetaSketch1, thetaSketch2, true);
+  }
+
+  /**
+   * Returns the values in the first sketch but not in the second one, without modifying the given sketches.
+   */
+  @Nonnull
+  public static ThetaSketch diff(@Nonnull ThetaSketch thetaSketch1, @Nonnull ThetaSketch thetaSketch2) {
+    return intersectOrDiff(thetaSketch1, thetaSketch2, false);
+  }
+
+  private static ThetaSketch intersectOrDiff(ThetaSketch thetaSketch1, ThetaSketch thetaSketch2, boolean intersect) {
+    ThetaSketch result = new ThetaSketch(Math.min(thetaSketch1._nominalEntries, thetaSketch2._nominalEntries));
+    result._theta = Math.min(thetaSketch1._theta, thetaSketch2._theta);
+    LongIterator iterator = thetaSketch1._hashes.iterator();
+    while (iterator.hasNext()) {
+      long hash = iterator.nextLong();
+      if (hash < result._theta && thetaSketch2._hashes.contains(hash) == intersect) {
+        result._hashes.add(hash);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the estimated number of distinct values.
+   */
+  public long getEstimate() {
+    int numHashes = _hashes.size();
+    if (_theta == Long.MAX_VALUE) {
+      return numHashes;
+    }
+    return Math.round(numHashes * ((double) Long.MAX_VALUE / _theta));
+  }
+
+  /**
+   * Returns the number of hashes kept in the sketch.
+   */
+  public int getNumHashes() {
+    return _hashes.size();
+  }
+
+  /**
+   * Serializes the sketch as the nominal entries, theta, number of hashes, then the hashes. Only the nominal entries
+   * smallest hashes are serialized.
+   */
+  @Nonnull
+  public byte[] toBytes() {
+    ByteBuffer byteBuffer = ByteBuffer.allocate(getSerializedSize());
+    toByteBuffer(byteBuffer);
+    return byteBuffer.array();
+  }
+
+  /**
+   * Returns the number of bytes of the serialized sketch.
+   */
+  public int getSerializedSize() {
+    return 2 * V1Constants.Numbers.INTEGER_SIZE
+        + (Math.min(_hashes.size(), _nominalEntries) + 1) * V1Constants.Numbers.LONG_SIZE;
+  }
+
+  /**
+   * Serializes the sketch into the given byte buffer, see {@link #toBytes()}.
+   */
+  public void toByteBuffer(@Nonnull ByteBuffer byteBuffer) {
+    if (_hashes.size() > _nominalEntries) {
+      trim();
+    }
+    byteBuffer.putInt(_nominalEntries);
+    byteBuffer.putLong(_theta);
+    byteBuffer.putInt(_hashes.size());
+    LongIterator iterator = _hashes.iterator();
+    while (iterator.hasNext()) {
+      byteBuffer.putLong(iterator.nextLong());
+    }
+  }
+
+  @Nonnull
+  public static ThetaSketch fromBytes(byte[] bytes) {
+    return fromByteBuffer(ByteBuffer.wrap(bytes));
+  }
+
+  @Nonnull
+  public static ThetaSketch fromByteBuffer(ByteBuffer byteBuffer) {
+    ThetaSketch thetaSketch = new ThetaSketch(byteBuffer.getInt());
+    thetaSketch._theta = byteBuffer.getLong();
+    int numHashes = byteBuffer.getInt();
+    for (int i = 0; i < numHashes; i++) {
+      thetaSketch._hashes.add(byteBuffer.getLong());
+    }
+    return thetaSketch;
+  }
+}
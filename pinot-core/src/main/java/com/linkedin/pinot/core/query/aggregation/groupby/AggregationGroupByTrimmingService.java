@@ -25,6 +25,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -72,52 +73,154 @@ public class AggregationGroupByTrimmingService {
     int numGroups = intermediateResultsMap.size();
     if (numGroups > _trimThreshold) {
       // Trim the result only if number of groups is larger than the threshold
+      return trimIntermediateResults(intermediateResultsMap.entrySet().iterator());
+    } else {
+      // Simply put results from intermediateResultsMap into trimmedResults
 
-      Sorter[] sorters = new Sorter[numAggregationFunctions];
       for (int i = 0; i < numAggregationFunctions; i++) {
-        AggregationFunction aggregationFunction = _aggregationFunctions[i];
-        sorters[i] = getSorter(_trimSize, aggregationFunction, aggregationFunction.isIntermediateResultComparable());
+        trimmedResultMaps[i] = new HashMap<>(numGroups);
       }
-
-      // Add results into sorters
       for (Map.Entry<String, Object[]> entry : intermediateResultsMap.entrySet()) {
         String groupKey = entry.getKey();
         Object[] intermediateResults = entry.getValue();
         for (int i = 0; i < numAggregationFunctions; i++) {
-          sorters[i].add(groupKey, intermediateResults[i]);
+          trimmedResultMaps[i].put(groupKey, intermediateResults[i]);
         }
       }
+    }
+
+    return Arrays.asList(trimmedResultMaps);
+  }
 
-      // Dump trimmed results into maps
+  /**
+   * Given an iterator of distinct group keys and the intermediate results for multiple aggregation functions, trim the
+   * results to desired size without materializing all the groups, and put them into a list of maps from group key to
+   * intermediate result for each aggregation function.
+   */
+  @Nonnull
+  public List<Map<String, Object>> trimIntermediateResults(
+      @Nonnull Iterator<? extends Map.Entry<String, Object[]>> intermediateResultsIterator) {
+    Sorter[] sorters = getSorters();
+    addToSorters(sorters, intermediateResultsIterator);
+    return dumpSorters(sorters);
+  }
+
+  /**
+   * Same as {@link #trimIntermediateResults(Iterator)}, but only trim the results if the number of groups is larger
+   * than the threshold (same as {@link #trimIntermediateResultsMap(Map)}). At most threshold number of groups are
+   * materialized before deciding whether to trim.
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public List<Map<String, Object>> trimIntermediateResultsIfNeeded(
+      @Nonnull Iterator<? extends Map.Entry<String, Object[]>> intermediateResultsIterator) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    Map<String, Object>[] resultMaps = new Map[numAggregationFunctions];
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      resultMaps[i] = new HashMap<>();
+    }
+    int numGroups = 0;
+    while (numGroups < _trimThreshold && intermediateResultsIterator.hasNext()) {
+      Map.Entry<String, Object[]> entry = intermediateResultsIterator.next();
+      String groupKey = entry.getKey();
+      Object[] intermediateResults = entry.getValue();
       for (int i = 0; i < numAggregationFunctions; i++) {
-        Map<String, Object> trimmedResultMap = new HashMap<>(_trimSize);
-        sorters[i].dumpToMap(trimmedResultMap);
-        trimmedResultMaps[i] = trimmedResultMap;
+        resultMaps[i].put(groupKey, intermediateResults[i]);
       }
-    } else {
-      // Simply put results from intermediateResultsMap into trimmedResults
+      numGroups++;
+    }
+    if (!intermediateResultsIterator.hasNext()) {
+      return Arrays.asList(resultMaps);
+    }
 
-      for (int i = 0; i < numAggregationFunctions; i++) {
-        trimmedResultMaps[i] = new HashMap<>(numGroups);
+    // More groups than the threshold, add the materialized groups and the remaining groups into sorters
+    Sorter[] sorters = getSorters();
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      for (Map.Entry<String, Object> entry : resultMaps[i].entrySet()) {
+        sorters[i].add(entry.getKey(), entry.getValue());
       }
-      for (Map.Entry<String, Object[]> entry : intermediateResultsMap.entrySet()) {
-        String groupKey = entry.getKey();
-        Object[] intermediateResults = entry.getValue();
-        for (int i = 0; i < numAggregationFunctions; i++) {
-          trimmedResultMaps[i].put(groupKey, intermediateResults[i]);
-        }
+      resultMaps[i] = null;
+    }
+    addToSorters(sorters, intermediateResultsIterator);
+    return dumpSorters(sorters);
+  }
+
+  private Sorter[] getSorters() {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    Sorter[] sorters = new Sorter[numAggregationFunctions];
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      AggregationFunction aggregationFunction = _aggregationFunctions[i];
+      sorters[i] = getSorter(_trimSize, aggregationFunction, aggregationFunction.isIntermediateResultComparable());
+    }
+    return sorters;
+  }
+
+  private void addToSorters(@Nonnull Sorter[] sorters,
+      @Nonnull Iterator<? extends Map.Entry<String, Object[]>> intermediateResultsIterator) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    while (intermediateResultsIterator.hasNext()) {
+      Map.Entry<String, Object[]> entry = intermediateResultsIterator.next();
+      String groupKey = entry.getKey();
+      Object[] intermediateResults = entry.getValue();
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        sorters[i].add(groupKey, intermediateResults[i]);
       }
     }
+  }
 
+  @SuppressWarnings("unchecked")
+  private List<Map<String, Object>> dumpSorters(@Nonnull Sorter[] sorters) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    Map<String, Object>[] trimmedResultMaps = new Map[numAggregationFunctions];
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      Map<String, Object> trimmedResultMap = new HashMap<>(_trimSize);
+      sorters[i].dumpToMap(trimmedResultMap);
+      trimmedResultMaps[i] = trimmedResultMap;
+    }
     return Arrays.asList(trimmedResultMaps);
   }
 
+  /**
+   * Given a list of maps from group key to intermediate result for each aggregation function, trim each map to desired
+   * size in place.
+   */
+  @Nonnull
+  public List<Map<String, Object>> trimIntermediateResultMaps(@Nonnull List<Map<String, Object>> intermediateResultMaps) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      Map<String, Object> intermediateResultMap = intermediateResultMaps.get(i);
+      if (intermediateResultMap.size() > _trimThreshold) {
+        // Trim the result only if number of groups is larger than the threshold
+
+        AggregationFunction aggregationFunction = _aggregationFunctions[i];
+        Sorter sorter =
+            getSorter(_trimSize, aggregationFunction, aggregationFunction.isIntermediateResultComparable());
+        for (Map.Entry<String, Object> entry : intermediateResultMap.entrySet()) {
+          sorter.add(entry.getKey(), entry.getValue());
+        }
+        Map<String, Object> trimmedResultMap = new HashMap<>(_trimSize);
+        sorter.dumpToMap(trimmedResultMap);
+        intermediateResultMaps.set(i, trimmedResultMap);
+      }
+    }
+    return intermediateResultMaps;
+  }
+
   /**
    * Given an array of maps from group key to final result for each aggregation function, trim the results to topN size.
    */
-  @SuppressWarnings("unchecked")
   @Nonnull
   public List<GroupByResult>[] trimFinalResults(@Nonnull Map<String, Comparable>[] finalResultMaps) {
+    return trimFinalResults(Collections.singletonList(finalResultMaps));
+  }
+
+  /**
+   * Given a list of arrays of maps from group key to final result for each aggregation function, where each array
+   * contains a disjoint partition of the group keys, trim the results across all partitions to topN size.
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public List<GroupByResult>[] trimFinalResults(@Nonnull List<Map<String, Comparable>[]> finalResultMapPartitions) {
     int numAggregationFunctions = _aggregationFunctions.length;
     List<GroupByResult>[] trimmedResults = new List[numAggregationFunctions];
 
@@ -125,21 +228,27 @@ public class AggregationGroupByTrimmingService {
       LinkedList<GroupByResult> groupByResults = new LinkedList<>();
       trimmedResults[i] = groupByResults;
 
-      Map<String, Comparable> finalResultMap = finalResultMaps[i];
-      if (finalResultMap.isEmpty()) {
-        continue;
-      }
-
       // Final result is always comparable
-      Sorter sorter = getSorter(_groupByTopN, _aggregationFunctions[i], true);
+      Sorter sorter = null;
 
       // Add results into sorter
-      for (Map.Entry<String, Comparable> entry : finalResultMap.entrySet()) {
-        sorter.add(entry.getKey(), entry.getValue());
+      for (Map<String, Comparable>[] finalResultMaps : finalResultMapPartitions) {
+        Map<String, Comparable> finalResultMap = finalResultMaps[i];
+        if (finalResultMap.isEmpty()) {
+          continue;
+        }
+        if (sorter == null) {
+          sorter = getSorter(_groupByTopN, _aggregationFunctions[i], true);
+        }
+        for (Map.Entry<String, Comparable> entry : finalResultMap.entrySet()) {
+          sorter.add(entry.getKey(), entry.getValue());
+        }
       }
 
       // Dump trimmed results into list
-      sorter.dumpToGroupByResults(groupByResults);
+      if (sorter != null) {
+        sorter.dumpToGroupByResults(groupByResults);
+      }
     }
 
     return trimmedResults;
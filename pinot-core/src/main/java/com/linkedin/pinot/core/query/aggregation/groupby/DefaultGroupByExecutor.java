@@ -164,15 +164,18 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
       GroupByResultHolder resultHolder) {
     AggregationFunction aggregationFunction = aggrFuncContext.getAggregationFunction();
     String[] aggregationColumns = aggrFuncContext.getAggregationColumns();
-    Preconditions.checkState(aggregationColumns.length == 1);
     int length = transformBlock.getNumDocs();
 
     if (!aggregationFunction.getName().equals(AggregationFunctionFactory.AggregationFunctionType.COUNT.getName())) {
-      BlockValSet blockValueSet = transformBlock.getBlockValueSet(aggregationColumns[0]);
+      int numAggregationColumns = aggregationColumns.length;
+      BlockValSet[] blockValueSets = new BlockValSet[numAggregationColumns];
+      for (int i = 0; i < numAggregationColumns; i++) {
+        blockValueSets[i] = transformBlock.getBlockValueSet(aggregationColumns[i]);
+      }
       if (_hasMVGroupByColumns) {
-        aggregationFunction.aggregateGroupByMV(length, _docIdToMVGroupKey, resultHolder, blockValueSet);
+        aggregationFunction.aggregateGroupByMV(length, _docIdToMVGroupKey, resultHolder, blockValueSets);
       } else {
-        aggregationFunction.aggregateGroupBySV(length, _docIdToSVGroupKey, resultHolder, blockValueSet);
+        aggregationFunction.aggregateGroupBySV(length, _docIdToSVGroupKey, resultHolder, blockValueSets);
       }
     } else {
       if (_hasMVGroupByColumns) {
@@ -0,0 +1,378 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.groupby;
+
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.datatable.ObjectCustomSerDe;
+import com.linkedin.pinot.core.common.datatable.ObjectType;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SpillableGroupByResultsMap</code> class holds a map from group key to the intermediate results for
+ * multiple aggregation functions within a memory budget.
+ * <p>When the estimated size of the map exceeds the budget, the groups are sorted by group key and spilled as a run to
+ * a local file, and the map is cleared. The runs are memory mapped and merged in group key order when the results are
+ * trimmed, so that only the trimmed results live on heap.
+ * <p>This class is not thread-safe, except that {@link #close()} can be called while another thread is spilling. A
+ * concurrent map can be passed in for concurrent merges, but the caller must block the merges while spilling.
+ */
+public class SpillableGroupByResultsMap implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SpillableGroupByResultsMap.class);
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  // Estimated heap overhead of a map entry, the group key string and the results array
+  private static final int ENTRY_OVERHEAD_BYTES = 128;
+  // Number of entries to sample to estimate the size of the intermediate results
+  private static final int NUM_ENTRIES_TO_SAMPLE = 16;
+  // The size of the intermediate results is re-estimated after this many checks, or once the number of groups doubled
+  private static final int NUM_CHECKS_PER_ESTIMATE = 32;
+
+  private final AggregationFunction[] _aggregationFunctions;
+  private final long _memoryBudgetBytes;
+  private final File _spillDir;
+  private final Map<String, Object[]> _resultsMap;
+  private final List<File> _runFiles = new ArrayList<>();
+  private boolean _closed = false;
+
+  // The estimate is read by concurrent merging threads, and only updated while no merge is happening
+  private volatile long _estimatedBytesPerEntry = 0L;
+  private volatile int _numGroupsAtLastEstimate = 0;
+  private final AtomicInteger _numChecksSinceLastEstimate = new AtomicInteger();
+
+  /**
+   * Constructor for the class.
+   *
+   * @param aggregationFunctions Aggregation functions
+   * @param memoryBudgetBytes Memory budget in bytes for the map, non-positive value to never spill
+   * @param spillDir Directory for the spilled runs
+   */
+  public SpillableGroupByResultsMap(@Nonnull AggregationFunction[] aggregationFunctions, long memoryBudgetBytes,
+      @Nonnull File spillDir) {
+    this(aggregationFunctions, memoryBudgetBytes, spillDir, new HashMap<String, Object[]>());
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param aggregationFunctions Aggregation functions
+   * @param memoryBudgetBytes Memory budget in bytes for the map, non-positive value to never spill
+   * @param spillDir Directory for the spilled runs
+   * @param resultsMap Empty in-memory map to merge the results into
+   */
+  public SpillableGroupByResultsMap(@Nonnull AggregationFunction[] aggregationFunctions, long memoryBudgetBytes,
+      @Nonnull File spillDir, @Nonnull Map<String, Object[]> resultsMap) {
+    _aggregationFunctions = aggregationFunctions;
+    _memoryBudgetBytes = memoryBudgetBytes;
+    _spillDir = spillDir;
+    _resultsMap = resultsMap;
+  }
+
+  /**
+   * Get the in-memory map from group key to intermediate results, where new results can be merged into.
+   */
+  @Nonnull
+  public Map<String, Object[]> getResultsMap() {
+    return _resultsMap;
+  }
+
+  /**
+   * Returns whether any run has been spilled.
+   */
+  public boolean hasSpilled() {
+    return !_runFiles.isEmpty();
+  }
+
+  /**
+   * Returns the number of spilled runs.
+   */
+  public int getNumSpilledRuns() {
+    return _runFiles.size();
+  }
+
+  /**
+   * Returns whether {@link #spillIfNeeded()} has work to do, i.e. the estimated size of the in-memory map exceeds the
+   * memory budget, or the size of an entry is due to be re-estimated.
+   * <p>This check only reads the last estimate and does not touch the entries, so it can run concurrently with merges
+   * into the in-memory map.
+   */
+  public boolean isSpillCheckNeeded() {
+    int numGroups = _resultsMap.size();
+    if (_memoryBudgetBytes <= 0 || numGroups == 0) {
+      return false;
+    }
+    long estimatedBytesPerEntry = _estimatedBytesPerEntry;
+    return estimatedBytesPerEntry == 0L || numGroups * estimatedBytesPerEntry > _memoryBudgetBytes
+        || numGroups >= 2 * _numGroupsAtLastEstimate
+        || _numChecksSinceLastEstimate.incrementAndGet() >= NUM_CHECKS_PER_ESTIMATE;
+  }
+
+  /**
+   * Spill the in-memory map if its estimated size exceeds the memory budget.
+   * <p>The size of an entry is estimated by sampling, which is only redone periodically or once the number of groups
+   * doubled, so that the check is cheap enough to run after each merge.
+   * <p>Should not be called concurrently with merges into the in-memory map, as it reads and clears the entries.
+   */
+  public void spillIfNeeded()
+      throws IOException {
+    if (!isSpillCheckNeeded()) {
+      return;
+    }
+    int numGroups = _resultsMap.size();
+    _estimatedBytesPerEntry = estimateBytesPerEntry();
+    _numGroupsAtLastEstimate = numGroups;
+    _numChecksSinceLastEstimate.set(0);
+    if (numGroups * _estimatedBytesPerEntry > _memoryBudgetBytes) {
+      spill();
+    }
+  }
+
+  /**
+   * Helper method to estimate the heap size of an entry by serializing a few sampled entries.
+   */
+  private long estimateBytesPerEntry()
+      throws IOException {
+    long numBytes = 0;
+    int numEntriesSampled = 0;
+    for (Map.Entry<String, Object[]> entry : _resultsMap.entrySet()) {
+      numBytes += 2 * entry.getKey().length();
+      for (Object intermediateResult : entry.getValue()) {
+        numBytes += ObjectCustomSerDe.serialize(intermediateResult).length;
+      }
+      if (++numEntriesSampled == NUM_ENTRIES_TO_SAMPLE) {
+        break;
+      }
+    }
+    return numBytes / numEntriesSampled + ENTRY_OVERHEAD_BYTES;
+  }
+
+  /**
+   * Sort the in-memory map by group key, write it as a run to a local file and clear it.
+   * <p>Each group is stored as the length of the UTF-8 encoded group key, the group key, then for each aggregation
+   * function the object type, the length of the serialized intermediate result and the serialized intermediate result.
+   */
+  public synchronized void spill()
+      throws IOException {
+    if (_closed) {
+      // Already closed because the query is done, simply drop the results
+      _resultsMap.clear();
+      return;
+    }
+    String[] groupKeys = _resultsMap.keySet().toArray(new String[_resultsMap.size()]);
+    Arrays.sort(groupKeys);
+    File runFile = File.createTempFile("groupByRun", ".run", _spillDir);
+    _runFiles.add(runFile);
+    try (DataOutputStream dataOutputStream = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(runFile)))) {
+      for (String groupKey : groupKeys) {
+        byte[] groupKeyBytes = groupKey.getBytes(UTF_8);
+        dataOutputStream.writeInt(groupKeyBytes.length);
+        dataOutputStream.write(groupKeyBytes);
+        for (Object intermediateResult : _resultsMap.get(groupKey)) {
+          byte[] bytes = ObjectCustomSerDe.serialize(intermediateResult);
+          dataOutputStream.writeInt(ObjectCustomSerDe.getObjectType(intermediateResult).getValue());
+          dataOutputStream.writeInt(bytes.length);
+          dataOutputStream.write(bytes);
+        }
+      }
+    }
+    LOGGER.debug("Spilled {} groups to run file: {}", groupKeys.length, runFile);
+    _resultsMap.clear();
+  }
+
+  /**
+   * Merge the results of all the given maps, where at least one of them has spilled, and trim the merged results.
+   * <p>The in-memory maps are spilled first, then all the runs are merged in group key order and fed into the trimming
+   * service, so that the merged results are never fully materialized on heap. Same as
+   * {@link AggregationGroupByTrimmingService#trimIntermediateResultsMap(Map)}, the results are only trimmed if the
+   * number of merged groups exceeds the trim threshold.
+   */
+  @Nonnull
+  public static List<Map<String, Object>> mergeAndTrim(@Nonnull List<SpillableGroupByResultsMap> resultsMaps,
+      @Nonnull AggregationFunction[] aggregationFunctions,
+      @Nonnull AggregationGroupByTrimmingService aggregationGroupByTrimmingService)
+      throws IOException {
+    List<RunReader> runReaders = new ArrayList<>();
+    try {
+      for (SpillableGroupByResultsMap resultsMap : resultsMaps) {
+        if (!resultsMap._resultsMap.isEmpty()) {
+          resultsMap.spill();
+        }
+        for (File runFile : resultsMap._runFiles) {
+          runReaders.add(new RunReader(runFile, aggregationFunctions.length));
+        }
+      }
+      return aggregationGroupByTrimmingService.trimIntermediateResultsIfNeeded(
+          new MergingIterator(runReaders, aggregationFunctions));
+    } finally {
+      for (RunReader runReader : runReaders) {
+        runReader.close();
+      }
+    }
+  }
+
+  /**
+   * Delete all the spilled runs. Runs spilled after this call are dropped.
+   */
+  @Override
+  public synchronized void close() {
+    _closed = true;
+    for (File runFile : _runFiles) {
+      FileUtils.deleteQuietly(runFile);
+    }
+    _runFiles.clear();
+  }
+
+  /**
+   * Reader of a memory mapped run, which keeps the current group of the run.
+   */
+  private static class RunReader implements Closeable {
+    private final PinotDataBuffer _dataBuffer;
+    private final int _size;
+    private final int _numAggregationFunctions;
+    private int _offset = 0;
+    private String _groupKey;
+    private Object[] _intermediateResults;
+
+    RunReader(File runFile, int numAggregationFunctions)
+        throws IOException {
+      _dataBuffer = PinotDataBuffer.fromFile(runFile, ReadMode.mmap, FileChannel.MapMode.READ_ONLY, "groupByRun");
+      _size = (int) _dataBuffer.size();
+      _numAggregationFunctions = numAggregationFunctions;
+    }
+
+    /**
+     * Advance to the next group of the run.
+     *
+     * @return Whether there is a next group
+     */
+    boolean advance() {
+      if (_offset == _size) {
+        _groupKey = null;
+        _intermediateResults = null;
+        return false;
+      }
+      _groupKey = new String(readBytes(), UTF_8);
+      _intermediateResults = new Object[_numAggregationFunctions];
+      for (int i = 0; i < _numAggregationFunctions; i++) {
+        ObjectType objectType = ObjectType.getObjectType(_dataBuffer.getInt(_offset));
+        _offset += 4;
+        try {
+          _intermediateResults[i] = ObjectCustomSerDe.deserialize(readBytes(), objectType);
+        } catch (IOException e) {
+          throw new RuntimeException("Caught exception while reading intermediate result from run", e);
+        }
+      }
+      return true;
+    }
+
+    private byte[] readBytes() {
+      int length = _dataBuffer.getInt(_offset);
+      _offset += 4;
+      byte[] bytes = new byte[length];
+      _dataBuffer.copyTo(_offset, bytes, 0, length);
+      _offset += length;
+      return bytes;
+    }
+
+    @Override
+    public void close() {
+      _dataBuffer.close();
+    }
+  }
+
+  /**
+   * Iterator of the distinct groups of multiple runs in group key order, where the intermediate results of the same
+   * group key from different runs are merged.
+   */
+  private static class MergingIterator implements Iterator<Map.Entry<String, Object[]>> {
+    private final AggregationFunction[] _aggregationFunctions;
+    private final PriorityQueue<RunReader> _heap;
+
+    MergingIterator(List<RunReader> runReaders, AggregationFunction[] aggregationFunctions) {
+      _aggregationFunctions = aggregationFunctions;
+      _heap = new PriorityQueue<>(Math.max(runReaders.size(), 1), new Comparator<RunReader>() {
+        @Override
+        public int compare(RunReader o1, RunReader o2) {
+          return o1._groupKey.compareTo(o2._groupKey);
+        }
+      });
+      for (RunReader runReader : runReaders) {
+        if (runReader.advance()) {
+          _heap.add(runReader);
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !_heap.isEmpty();
+    }
+
+    @Override
+    public Map.Entry<String, Object[]> next() {
+      if (_heap.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      RunReader runReader = _heap.poll();
+      String groupKey = runReader._groupKey;
+      Object[] intermediateResults = runReader._intermediateResults;
+      if (runReader.advance()) {
+        _heap.add(runReader);
+      }
+      while (!_heap.isEmpty() && _heap.peek()._groupKey.equals(groupKey)) {
+        runReader = _heap.poll();
+        for (int i = 0; i < _aggregationFunctions.length; i++) {
+          intermediateResults[i] = _aggregationFunctions[i].merge(intermediateResults[i],
+              runReader._intermediateResults[i]);
+        }
+        if (runReader.advance()) {
+          _heap.add(runReader);
+        }
+      }
+      return new ImmutablePair<>(groupKey, intermediateResults);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
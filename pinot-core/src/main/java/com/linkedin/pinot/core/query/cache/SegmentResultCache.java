@@ -0,0 +1,281 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.linkedin.pinot.common.metrics.ServerMeter;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.serde.SerDe;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.configuration.Configuration;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentResultCache</code> class is a bounded, size-aware cache for the per-segment intermediate results of
+ * aggregation and aggregation group-by queries.
+ * <p>Entries are keyed on the table name, the segment name, the segment CRC and the normalized broker request. The
+ * value is the serialized {@link DataTable} of the per-segment results block, with the total number of documents of the
+ * segment attached as metadata. Cached results report no documents or entries scanned, as nothing is scanned on a hit.
+ * <p>Only immutable (OFFLINE) segments should be cached. The table data manager must invalidate the entries of a
+ * segment when it gets replaced or removed.
+ * <p>The cache is a singleton shared by all the table data managers and query executors inside the server.
+ */
+@ThreadSafe
+public class SegmentResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCache.class);
+
+  // Configs under the query executor config.
+  public static final String CONFIG_PREFIX = "result.cache";
+  public static final String ENABLE_CONFIG = "enabled";
+  public static final String MAX_SIZE_IN_BYTES_CONFIG = "max.size.bytes";
+  public static final String EXPIRE_AFTER_ACCESS_MS_CONFIG = "expire.after.access.ms";
+  public static final boolean DEFAULT_ENABLE = false;
+  public static final long DEFAULT_MAX_SIZE_IN_BYTES = 128 * 1024 * 1024L;
+  public static final long DEFAULT_EXPIRE_AFTER_ACCESS_MS = 60 * 60 * 1000L;
+
+  // Rough estimation of the per entry overhead (cache entry, key object).
+  private static final int ENTRY_OVERHEAD_IN_BYTES = 128;
+
+  private static volatile SegmentResultCache _instance = null;
+
+  private final Cache<Key, byte[]> _cache;
+  private final ServerMetrics _serverMetrics;
+
+  public SegmentResultCache(long maxSizeInBytes, long expireAfterAccessMs, @Nonnull ServerMetrics serverMetrics) {
+    _serverMetrics = serverMetrics;
+    _cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxSizeInBytes)
+        .weigher(new Weigher<Key, byte[]>() {
+          @Override
+          public int weigh(@Nonnull Key key, @Nonnull byte[] value) {
+            return key.getSizeInBytes() + value.length;
+          }
+        })
+        .expireAfterAccess(expireAfterAccessMs, TimeUnit.MILLISECONDS)
+        .removalListener(new RemovalListener<Key, byte[]>() {
+          @Override
+          public void onRemoval(@Nonnull RemovalNotification<Key, byte[]> notification) {
+            if (notification.wasEvicted()) {
+              _serverMetrics.addMeteredGlobalValue(ServerMeter.SEGMENT_RESULT_CACHE_EVICTIONS, 1L);
+            }
+          }
+        })
+        .build();
+    LOGGER.info("Initialized segment result cache with max size: {} bytes, expire after access: {} ms",
+        maxSizeInBytes, expireAfterAccessMs);
+  }
+
+  /**
+   * To be called once when the query executor gets initialized. Creates the singleton instance if it is enabled in the
+   * given query executor configuration.
+   */
+  public static synchronized void init(@Nonnull Configuration queryExecutorConfig,
+      @Nonnull ServerMetrics serverMetrics) {
+    if (_instance != null) {
+      // We create multiple server instances in the hybrid cluster integration tests, so allow the call to init even if
+      // there is already one.
+      LOGGER.warn("Segment result cache already initialized");
+      return;
+    }
+    Configuration config = queryExecutorConfig.subset(CONFIG_PREFIX);
+    if (config.getBoolean(ENABLE_CONFIG, DEFAULT_ENABLE)) {
+      _instance = new SegmentResultCache(config.getLong(MAX_SIZE_IN_BYTES_CONFIG, DEFAULT_MAX_SIZE_IN_BYTES),
+          config.getLong(EXPIRE_AFTER_ACCESS_MS_CONFIG, DEFAULT_EXPIRE_AFTER_ACCESS_MS), serverMetrics);
+    }
+  }
+
+  @VisibleForTesting
+  public static synchronized void setInstance(@Nullable SegmentResultCache segmentResultCache) {
+    _instance = segmentResultCache;
+  }
+
+  /**
+   * Get the singleton instance, or <code>null</code> if the segment result cache is not enabled.
+   */
+  @Nullable
+  public static SegmentResultCache getInstance() {
+    return _instance;
+  }
+
+  /**
+   * Returns whether the per-segment results of the given broker request can be cached.
+   * <p>Only aggregation and aggregation group-by queries without trace are cached.
+   */
+  public static boolean isCacheable(@Nonnull BrokerRequest brokerRequest) {
+    return brokerRequest.isSetAggregationsInfo() && !brokerRequest.isEnableTrace();
+  }
+
+  /**
+   * Serialize the normalized broker request into the query part of the cache key. The same query bytes can be shared
+   * by all the segments queried by the same request.
+   *
+   * @return serialized normalized broker request, or <code>null</code> if the broker request cannot be serialized.
+   */
+  @Nullable
+  public static byte[] getQueryBytes(@Nonnull BrokerRequest brokerRequest) {
+    // SerDe is not thread-safe.
+    return new SerDe(new TCompactProtocol.Factory()).serialize(normalize(brokerRequest));
+  }
+
+  /**
+   * Build the cache key for the given segment and serialized broker request.
+   */
+  @Nonnull
+  public static Key getKey(@Nonnull String tableName, @Nonnull IndexSegment indexSegment, @Nonnull byte[] queryBytes) {
+    return new Key(tableName, indexSegment.getSegmentName(), indexSegment.getSegmentMetadata().getCrc(), queryBytes);
+  }
+
+  /**
+   * Get the cached per-segment results for the given key, or <code>null</code> if there is no cached results.
+   * <p>A new data table instance is returned for each call.
+   */
+  @Nullable
+  public DataTable get(@Nonnull Key key) {
+    byte[] cachedBytes = _cache.getIfPresent(key);
+    if (cachedBytes != null) {
+      try {
+        DataTable dataTable = DataTableFactory.getDataTable(cachedBytes);
+        _serverMetrics.addMeteredTableValue(key._tableName, ServerMeter.SEGMENT_RESULT_CACHE_HITS, 1L);
+        return dataTable;
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while de-serializing cached results for segment: {} of table: {}",
+            key._segmentName, key._tableName, e);
+        _cache.invalidate(key);
+      }
+    }
+    _serverMetrics.addMeteredTableValue(key._tableName, ServerMeter.SEGMENT_RESULT_CACHE_MISSES, 1L);
+    return null;
+  }
+
+  /**
+   * Put the per-segment results into the cache.
+   */
+  public void put(@Nonnull Key key, @Nonnull DataTable dataTable) {
+    try {
+      _cache.put(key, dataTable.toBytes());
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while serializing results for segment: {} of table: {}", key._segmentName,
+          key._tableName, e);
+    }
+  }
+
+  /**
+   * Invalidate all the cached results for the given segment. Should be invoked whenever the segment gets replaced or
+   * removed.
+   */
+  public void invalidate(@Nonnull String tableName, @Nonnull String segmentName) {
+    Iterator<Key> iterator = _cache.asMap().keySet().iterator();
+    while (iterator.hasNext()) {
+      Key key = iterator.next();
+      if (key._segmentName.equals(segmentName) && key._tableName.equals(tableName)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  public long size() {
+    return _cache.size();
+  }
+
+  /**
+   * Normalize the broker request so that requests sharing the same per-segment results share the same cache key.
+   * <p>Currently normalizes:
+   * <ul>
+   *   <li>Children of AND/OR filter nodes are put in a canonical order.</li>
+   *   <li>Fields only used for broker side reduce (group-by top N, having) are removed.</li>
+   *   <li>Trace flag, debug options and response format are removed.</li>
+   * </ul>
+   */
+  @Nonnull
+  static BrokerRequest normalize(@Nonnull BrokerRequest brokerRequest) {
+    BrokerRequest normalizedRequest = brokerRequest.deepCopy();
+    normalizedRequest.unsetEnableTrace();
+    normalizedRequest.unsetDebugOptions();
+    normalizedRequest.unsetResponseFormat();
+    normalizedRequest.unsetHavingFilterQuery();
+    normalizedRequest.unsetHavingFilterSubQueryMap();
+    if (normalizedRequest.isSetGroupBy()) {
+      normalizedRequest.getGroupBy().unsetTopN();
+    }
+    RequestUtils.normalizeFilter(normalizedRequest);
+    return normalizedRequest;
+  }
+
+  /**
+   * Key of the segment result cache.
+   */
+  public static final class Key {
+    private final String _tableName;
+    private final String _segmentName;
+    private final String _crc;
+    private final byte[] _queryBytes;
+    private final int _hashCode;
+
+    private Key(String tableName, String segmentName, String crc, byte[] queryBytes) {
+      _tableName = tableName;
+      _segmentName = segmentName;
+      _crc = crc;
+      _queryBytes = queryBytes;
+      int hashCode = tableName.hashCode();
+      hashCode = 31 * hashCode + segmentName.hashCode();
+      hashCode = 31 * hashCode + (crc != null ? crc.hashCode() : 0);
+      hashCode = 31 * hashCode + Arrays.hashCode(queryBytes);
+      _hashCode = hashCode;
+    }
+
+    private int getSizeInBytes() {
+      // Query bytes are shared by all keys of the same query, but count them anyway to stay conservative.
+      return ENTRY_OVERHEAD_IN_BYTES + 2 * (_tableName.length() + _segmentName.length()) + _queryBytes.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _hashCode == that._hashCode && _tableName.equals(that._tableName) && _segmentName.equals(
+          that._segmentName) && (_crc != null ? _crc.equals(that._crc) : that._crc == null) && Arrays.equals(
+          _queryBytes, that._queryBytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.core.query.executor;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.linkedin.pinot.common.data.DataManager;
 import com.linkedin.pinot.common.exception.QueryException;
@@ -37,6 +38,7 @@ import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.plan.Plan;
 import com.linkedin.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import com.linkedin.pinot.core.plan.maker.PlanMaker;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
 import com.linkedin.pinot.core.query.config.QueryExecutorConfig;
 import com.linkedin.pinot.core.query.exception.BadQueryRequestException;
 import com.linkedin.pinot.core.query.pruner.SegmentPrunerService;
@@ -86,6 +88,8 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     _segmentPrunerService = new SegmentPrunerServiceImpl(queryExecutorConfig.getPrunerConfig());
     LOGGER.info("Trying to build QueryPlanMaker");
     _planMaker = new InstancePlanMakerImplV2(queryExecutorConfig);
+    LOGGER.info("Trying to build SegmentResultCache");
+    SegmentResultCache.init(configuration, serverMetrics);
     LOGGER.info("Trying to build QueryExecutorTimer");
   }
 
@@ -157,7 +161,7 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
           TimerContext.Timer planBuildTimer = timerContext.startNewPhaseTimer(ServerQueryPhase.BUILD_QUERY_PLAN);
           Plan globalQueryPlan =
               _planMaker.makeInterSegmentPlan(queryableSegmentDataManagerList, brokerRequest, executorService,
-                  getResourceTimeOut(brokerRequest));
+                  getQueryTimeOut(queryRequest));
           planBuildTimer.stopAndRecord();
 
           if (PRINT_QUERY_PLAN) {
@@ -316,6 +320,20 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     _resourceTimeOutMsMap.put(resource, timeOutMs);
   }
 
+  /**
+   * Get the timeout for query execution. If the scheduler enforces the query deadline and the query specifies a timeout
+   * in its query options, the execution is not allowed to run past the query deadline (arrival time plus timeout).
+   * Otherwise the table timeout is used.
+   */
+  @VisibleForTesting
+  long getQueryTimeOut(ServerQueryRequest queryRequest) {
+    long resourceTimeOutMs = getResourceTimeOut(queryRequest.getBrokerRequest());
+    if (queryRequest.isDeadlineEnforced() && queryRequest.getTimeoutMs(0L) > 0L) {
+      return Math.max(1L, Math.min(resourceTimeOutMs, queryRequest.getRemainingTimeMs(resourceTimeOutMs)));
+    }
+    return resourceTimeOutMs;
+  }
+
   private long getResourceTimeOut(BrokerRequest brokerRequest) {
     try {
       String resourceName = brokerRequest.getQuerySource().getTableName();
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.pruner;
+
+import com.linkedin.pinot.common.query.ServerQueryRequest;
+import com.linkedin.pinot.common.request.FilterOperator;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.core.common.predicate.BaseInPredicate;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.IndexSegmentImpl;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.configuration.Configuration;
+
+
+/**
+ * Implementation of {@link SegmentPruner} that uses the per-column bloom filter index to prune segments for point
+ * lookups on high cardinality columns, where the column min/max value cannot help.
+ * <ul>
+ *   <li> For leaf node: Returns true if there is an EQUALITY or IN predicate on a column with bloom filter, and none
+ *   of the values might be contained in the segment, false otherwise. </li>
+ *   <li> For non-leaf AND node: True if any of its children returned true, false otherwise. </li>
+ *   <li> For non-leaf OR node: True if all its children returned true, false otherwise. </li>
+ * </ul>
+ */
+public class BloomFilterSegmentPruner implements SegmentPruner {
+
+  @Override
+  public void init(Configuration config) {
+  }
+
+  @Override
+  public boolean prune(@Nonnull IndexSegment segment, @Nonnull ServerQueryRequest queryRequest) {
+    return prune(segment, queryRequest.getFilterQueryTree());
+  }
+
+  /**
+   * Version of prune that directly takes filter query tree.
+   *
+   * @param segment Segment to prune
+   * @param filterQueryTree Filter query tree
+   * @return True if segment can be pruned, false otherwise.
+   */
+  public boolean prune(@Nonnull IndexSegment segment, @Nullable FilterQueryTree filterQueryTree) {
+    // Bloom filters only exist for offline (immutable) segments.
+    return (filterQueryTree != null) && (segment instanceof IndexSegmentImpl) && pruneSegment(filterQueryTree,
+        (IndexSegmentImpl) segment);
+  }
+
+  @Override
+  public String toString() {
+    return "BloomFilterSegmentPruner";
+  }
+
+  private boolean pruneSegment(@Nonnull FilterQueryTree filterQueryTree, @Nonnull IndexSegmentImpl segment) {
+    FilterOperator filterOperator = filterQueryTree.getOperator();
+    List<FilterQueryTree> children = filterQueryTree.getChildren();
+
+    if (children == null || children.isEmpty()) {
+      // Leaf Node
+
+      // Skip operator other than EQUALITY and IN
+      if ((filterOperator != FilterOperator.EQUALITY) && (filterOperator != FilterOperator.IN)) {
+        return false;
+      }
+
+      String column = filterQueryTree.getColumn();
+      ColumnMetadata columnMetadata = ((SegmentMetadataImpl) segment.getSegmentMetadata()).getColumnMetadataFor(column);
+      if (columnMetadata == null) {
+        // Should not reach here after DataSchemaSegmentPruner
+        return false;
+      }
+      BloomFilterReader bloomFilter = segment.getBloomFilterFor(column);
+      if (bloomFilter == null) {
+        return false;
+      }
+
+      List<String> values = filterQueryTree.getValue();
+      String[] valuesToCheck;
+      if (filterOperator == FilterOperator.EQUALITY) {
+        valuesToCheck = new String[]{values.get(0)};
+      } else {
+        // Keep the same backward compatible value splitting as the IN predicate
+        valuesToCheck =
+            (values.size() == 1) ? values.get(0).split(BaseInPredicate.DELIMITER) : values.toArray(new String[0]);
+      }
+
+      // Normalize the value to the string representation stored in the bloom filter (e.g. "1" -> "1.0" for FLOAT)
+      for (String value : valuesToCheck) {
+        if (bloomFilter.mightContain(
+            AbstractSegmentPruner.getValue(value, columnMetadata.getDataType()).toString())) {
+          return false;
+        }
+      }
+      return true;
+    } else {
+      // Parent node
+      switch (filterOperator) {
+        case AND:
+          for (FilterQueryTree child : children) {
+            if (pruneSegment(child, segment)) {
+              return true;
+            }
+          }
+          return false;
+
+        case OR:
+          for (FilterQueryTree child : children) {
+            if (!pruneSegment(child, segment)) {
+              return false;
+            }
+          }
+          return true;
+
+        default:
+          return false;
+      }
+    }
+  }
+}
@@ -0,0 +1,637 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.reduce;
+
+import com.linkedin.pinot.common.config.TableNameBuilder;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.metrics.BrokerMeter;
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.query.DataTableReducer;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.GroupBy;
+import com.linkedin.pinot.common.request.HavingFilterQuery;
+import com.linkedin.pinot.common.request.Selection;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.response.broker.AggregationResult;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.response.broker.GroupByResult;
+import com.linkedin.pinot.common.response.broker.QueryProcessingException;
+import com.linkedin.pinot.common.response.broker.SelectionResults;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
+import com.linkedin.pinot.core.query.selection.SelectionOperatorService;
+import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>BrokerDataTableReducer</code> class incrementally reduces data tables gathered from multiple servers to
+ * {@link BrokerResponseNative}.
+ * <p>Each data table is merged into the reduced results as soon as it is passed in: execution statistics are summed
+ * up, aggregation results and group-by result maps are merged, and selection rows are added into the selection
+ * order-by priority queue (or collected up to the selection size for selection only query). Only HAVING filtering,
+ * trimming and result rendering are left for {@link #getBrokerResponse()}.
+ * <p>For aggregation group-by query with a large number of groups, if a reduce executor is provided, the group-by
+ * result maps received after the number of groups reaches the threshold are not merged on the request thread.
+ * Instead, in {@link #getBrokerResponse()}, the group keys are hash-partitioned and each partition is merged, extracted
+ * and filtered by the HAVING clause independently on the reduce executor, then the partitions are trimmed together.
+ */
+@NotThreadSafe
+public class BrokerDataTableReducer implements DataTableReducer<BrokerResponseNative> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerDataTableReducer.class);
+
+  private final BrokerRequest _brokerRequest;
+  private final BrokerMetrics _brokerMetrics;
+  private final BrokerResponseNative _brokerResponseNative = new BrokerResponseNative();
+
+  private int _numDataTablesReduced = 0;
+  private long _numDocsScanned = 0L;
+  private long _numEntriesScannedInFilter = 0L;
+  private long _numEntriesScannedPostFilter = 0L;
+  private long _numTotalRawDocs = 0L;
+
+  // Data schema of the first data table with data schema inside (used to build empty selection results).
+  private DataSchema _cachedDataSchema;
+  // Data schema of the first data table with data rows inside, upgraded to cover all the data tables merged.
+  private DataSchema _masterDataSchema;
+
+  // For selection query.
+  private final List<String> _droppedServers = new ArrayList<>();
+  private SelectionOperatorService _selectionService;
+  private List<Serializable[]> _selectionRows;
+
+  // For aggregation query.
+  private AggregationFunction[] _aggregationFunctions;
+  private Object[] _intermediateResults;
+
+  // For aggregation group-by query.
+  private String[] _columnNames;
+  private Map<String, Object>[] _intermediateResultMaps;
+
+  // For parallel aggregation group-by reduce.
+  private final ExecutorService _reduceExecutor;
+  private final int _numReducePartitions;
+  private final long _minNumGroupsForParallelReduce;
+  private long _numGroupsReceived = 0L;
+  private final List<Map<String, Object>[]> _intermediateResultMapsToMerge = new ArrayList<>();
+
+  public BrokerDataTableReducer(@Nonnull BrokerRequest brokerRequest, @Nullable BrokerMetrics brokerMetrics) {
+    this(brokerRequest, brokerMetrics, null, 1, Long.MAX_VALUE);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param brokerRequest broker request.
+   * @param brokerMetrics broker metrics.
+   * @param reduceExecutor executor service for parallel aggregation group-by reduce, or null to reduce on the caller
+   *                       thread only.
+   * @param numReducePartitions number of partitions to split the group keys into for parallel reduce.
+   * @param minNumGroupsForParallelReduce minimum number of groups received to trigger parallel reduce.
+   */
+  public BrokerDataTableReducer(@Nonnull BrokerRequest brokerRequest, @Nullable BrokerMetrics brokerMetrics,
+      @Nullable ExecutorService reduceExecutor, int numReducePartitions, long minNumGroupsForParallelReduce) {
+    _brokerRequest = brokerRequest;
+    _brokerMetrics = brokerMetrics;
+    _reduceExecutor = reduceExecutor;
+    _numReducePartitions = numReducePartitions;
+    _minNumGroupsForParallelReduce = minNumGroupsForParallelReduce;
+    if (brokerRequest.isSetAggregationsInfo()) {
+      _aggregationFunctions = AggregationFunctionUtils.getAggregationFunctions(brokerRequest.getAggregationsInfo());
+    }
+  }
+
+  @Override
+  public void reduce(@Nonnull ServerInstance serverInstance, @Nonnull DataTable dataTable) {
+    _numDataTablesReduced++;
+    Map<String, String> metadata = dataTable.getMetadata();
+
+    // Reduce on trace info.
+    if (_brokerRequest.isEnableTrace()) {
+      _brokerResponseNative.getTraceInfo()
+          .put(serverInstance.getHostname(), metadata.get(DataTable.TRACE_INFO_METADATA_KEY));
+    }
+
+    // Reduce on exceptions.
+    List<QueryProcessingException> processingExceptions = _brokerResponseNative.getProcessingExceptions();
+    for (String key : metadata.keySet()) {
+      if (key.startsWith(DataTable.EXCEPTION_METADATA_KEY)) {
+        processingExceptions.add(new QueryProcessingException(Integer.parseInt(key.substring(9)), metadata.get(key)));
+      }
+    }
+
+    // Reduce on execution statistics.
+    String numDocsScannedString = metadata.get(DataTable.NUM_DOCS_SCANNED_METADATA_KEY);
+    if (numDocsScannedString != null) {
+      _numDocsScanned += Long.parseLong(numDocsScannedString);
+    }
+    String numEntriesScannedInFilterString = metadata.get(DataTable.NUM_ENTRIES_SCANNED_IN_FILTER_METADATA_KEY);
+    if (numEntriesScannedInFilterString != null) {
+      _numEntriesScannedInFilter += Long.parseLong(numEntriesScannedInFilterString);
+    }
+    String numEntriesScannedPostFilterString = metadata.get(DataTable.NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY);
+    if (numEntriesScannedPostFilterString != null) {
+      _numEntriesScannedPostFilter += Long.parseLong(numEntriesScannedPostFilterString);
+    }
+    String numTotalRawDocsString = metadata.get(DataTable.TOTAL_DOCS_METADATA_KEY);
+    if (numTotalRawDocsString != null) {
+      _numTotalRawDocs += Long.parseLong(numTotalRawDocsString);
+    }
+
+    // After processing the metadata, skip data tables without data rows inside.
+    DataSchema dataSchema = dataTable.getDataSchema();
+    if (dataSchema == null) {
+      return;
+    }
+    if (_cachedDataSchema == null) {
+      _cachedDataSchema = dataSchema;
+    }
+    if (dataTable.getNumberOfRows() == 0) {
+      return;
+    }
+
+    // Merge the data rows.
+    if (_brokerRequest.isSetSelections()) {
+      reduceSelectionResults(serverInstance, dataTable, dataSchema);
+    } else {
+      if (_masterDataSchema == null) {
+        _masterDataSchema = dataSchema;
+      }
+      if (!_brokerRequest.isSetGroupBy()) {
+        reduceAggregationResults(dataTable, dataSchema);
+      } else {
+        reduceGroupByResults(dataTable);
+      }
+    }
+  }
+
+  @Nonnull
+  @Override
+  public BrokerResponseNative getBrokerResponse() {
+    if (_numDataTablesReduced == 0) {
+      // Empty response.
+      return BrokerResponseNative.empty();
+    }
+
+    // Set execution statistics.
+    _brokerResponseNative.setNumDocsScanned(_numDocsScanned);
+    _brokerResponseNative.setNumEntriesScannedInFilter(_numEntriesScannedInFilter);
+    _brokerResponseNative.setNumEntriesScannedPostFilter(_numEntriesScannedPostFilter);
+    _brokerResponseNative.setTotalDocs(_numTotalRawDocs);
+
+    // Update broker metrics.
+    String tableName = _brokerRequest.getQuerySource().getTableName();
+    String rawTableName = TableNameBuilder.extractRawTableName(tableName);
+    if (_brokerMetrics != null) {
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.DOCUMENTS_SCANNED, _numDocsScanned);
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.ENTRIES_SCANNED_IN_FILTER,
+          _numEntriesScannedInFilter);
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.ENTRIES_SCANNED_POST_FILTER,
+          _numEntriesScannedPostFilter);
+    }
+
+    if (_masterDataSchema == null) {
+      // For no data table with data rows, construct empty result using the cached data schema.
+
+      // This will only happen to selection query.
+      if (_cachedDataSchema != null && _brokerRequest.isSetSelections()) {
+        List<String> selectionColumns =
+            SelectionOperatorUtils.getSelectionColumns(_brokerRequest.getSelections().getSelectionColumns(),
+                _cachedDataSchema);
+        _brokerResponseNative.setSelectionResults(
+            new SelectionResults(selectionColumns, new ArrayList<Serializable[]>(0)));
+      }
+    } else {
+      // Set query results into the broker response.
+      if (_brokerRequest.isSetSelections()) {
+        // Selection query.
+        if (!_droppedServers.isEmpty()) {
+          String errorMessage =
+              QueryException.MERGE_RESPONSE_ERROR.getMessage() + ": responses for table: " + tableName
+                  + " from servers: " + _droppedServers + " got dropped due to data schema inconsistency.";
+          LOGGER.info(errorMessage);
+          if (_brokerMetrics != null) {
+            _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESPONSE_MERGE_EXCEPTIONS, 1L);
+          }
+          _brokerResponseNative.addToExceptions(
+              new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE, errorMessage));
+        }
+        setSelectionResults(_brokerRequest.getSelections());
+      } else {
+        // Aggregation query.
+        if (!_brokerRequest.isSetGroupBy()) {
+          // Aggregation only query.
+          setAggregationResults();
+        } else {
+          // Aggregation group-by query.
+          boolean[] aggregationFunctionSelectStatus =
+              AggregationFunctionUtils.getAggregationFunctionsSelectStatus(_brokerRequest.getAggregationsInfo());
+          List<Map<String, Comparable>[]> finalResultMapPartitions;
+          if (_intermediateResultMapsToMerge.isEmpty()) {
+            finalResultMapPartitions = Collections.singletonList(getFinalResultMaps(_intermediateResultMaps));
+          } else {
+            finalResultMapPartitions = reduceGroupByResultsInParallel();
+          }
+          setGroupByResults(aggregationFunctionSelectStatus, _brokerRequest.getGroupBy(), finalResultMapPartitions);
+        }
+      }
+    }
+    return _brokerResponseNative;
+  }
+
+  /**
+   * Merge the selection rows of the data table.
+   * <p>Data tables not compatible with the data schema of the data tables merged before are dropped, otherwise the
+   * master data schema is upgraded to cover the data schema of the data table.
+   *
+   * @param serverInstance server instance.
+   * @param dataTable data table.
+   * @param dataSchema data schema of the data table.
+   */
+  private void reduceSelectionResults(@Nonnull ServerInstance serverInstance, @Nonnull DataTable dataTable,
+      @Nonnull DataSchema dataSchema) {
+    Selection selection = _brokerRequest.getSelections();
+    int selectionSize = selection.getSize();
+    if (_masterDataSchema == null) {
+      _masterDataSchema = dataSchema.clone();
+      if (selection.isSetSelectionSortSequence() && selectionSize != 0) {
+        _selectionService = new SelectionOperatorService(selection, _masterDataSchema);
+      } else {
+        _selectionRows = new ArrayList<>(selectionSize);
+      }
+    } else {
+      if (!_masterDataSchema.isTypeCompatibleWith(dataSchema)) {
+        _droppedServers.add(serverInstance.toString());
+        return;
+      }
+      _masterDataSchema.upgradeToCover(dataSchema);
+    }
+
+    Map<ServerInstance, DataTable> dataTableMap = Collections.singletonMap(serverInstance, dataTable);
+    if (_selectionService != null) {
+      // Selection order-by.
+      _selectionService.reduceWithOrdering(dataTableMap);
+    } else {
+      // Selection only, no need to extract more rows after collecting enough rows.
+      int numRowsToAdd = selectionSize - _selectionRows.size();
+      if (numRowsToAdd > 0) {
+        _selectionRows.addAll(SelectionOperatorUtils.reduceWithoutOrdering(dataTableMap, numRowsToAdd));
+      }
+    }
+  }
+
+  /**
+   * Merge the aggregation results of the data table.
+   *
+   * @param dataTable data table.
+   * @param dataSchema data schema of the data table.
+   */
+  private void reduceAggregationResults(@Nonnull DataTable dataTable, @Nonnull DataSchema dataSchema) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    if (_intermediateResults == null) {
+      _intermediateResults = new Object[numAggregationFunctions];
+    }
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      Object intermediateResultToMerge;
+      FieldSpec.DataType columnType = dataSchema.getColumnType(i);
+      switch (columnType) {
+        case LONG:
+          intermediateResultToMerge = dataTable.getLong(0, i);
+          break;
+        case DOUBLE:
+          intermediateResultToMerge = dataTable.getDouble(0, i);
+          break;
+        case OBJECT:
+          intermediateResultToMerge = dataTable.getObject(0, i);
+          break;
+        default:
+          throw new IllegalStateException("Illegal column type in aggregation results: " + columnType);
+      }
+      Object mergedIntermediateResult = _intermediateResults[i];
+      if (mergedIntermediateResult == null) {
+        _intermediateResults[i] = intermediateResultToMerge;
+      } else {
+        _intermediateResults[i] = _aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge);
+      }
+    }
+  }
+
+  /**
+   * Merge the group-by result maps of the data table.
+   * <p>Once the number of groups received reaches the threshold for parallel reduce, the group-by result maps are
+   * kept to be merged in parallel in {@link #getBrokerResponse()}.
+   *
+   * @param dataTable data table.
+   */
+  @SuppressWarnings("unchecked")
+  private void reduceGroupByResults(@Nonnull DataTable dataTable) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    Map<String, Object>[] intermediateResultMapsToMerge = new Map[numAggregationFunctions];
+    // All aggregation functions share the same groups (the maps can differ only after server side trimming), so count
+    // the groups of the largest map instead of adding up the map sizes
+    int numGroups = 0;
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      intermediateResultMapsToMerge[i] = dataTable.getObject(i, 1);
+      numGroups = Math.max(numGroups, intermediateResultMapsToMerge[i].size());
+    }
+    _numGroupsReceived += numGroups;
+    if (_columnNames == null) {
+      _columnNames = new String[numAggregationFunctions];
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        _columnNames[i] = dataTable.getString(i, 0);
+      }
+      _intermediateResultMaps = intermediateResultMapsToMerge;
+      return;
+    }
+    if (_reduceExecutor != null && _numReducePartitions > 1
+        && _numGroupsReceived >= _minNumGroupsForParallelReduce) {
+      _intermediateResultMapsToMerge.add(intermediateResultMapsToMerge);
+      return;
+    }
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      mergeIntermediateResultMap(_aggregationFunctions[i], _intermediateResultMaps[i],
+          intermediateResultMapsToMerge[i], 1, 0);
+    }
+  }
+
+  /**
+   * Merge the group-by result maps kept for parallel reduce by hash-partitioning the group keys, and for each
+   * partition, extract the final results and apply the HAVING filter on the reduce executor.
+   *
+   * @return list of final result maps (one map for each aggregation function) for each partition.
+   */
+  @SuppressWarnings("unchecked")
+  private List<Map<String, Comparable>[]> reduceGroupByResultsInParallel() {
+    final int numAggregationFunctions = _aggregationFunctions.length;
+    final List<Map<String, Object>[]> intermediateResultMapsList =
+        new ArrayList<>(_intermediateResultMapsToMerge.size() + 1);
+    intermediateResultMapsList.add(_intermediateResultMaps);
+    intermediateResultMapsList.addAll(_intermediateResultMapsToMerge);
+
+    // Estimate the number of groups in each partition with the size of the largest group-by result map.
+    int maxNumGroups = 0;
+    for (Map<String, Object>[] intermediateResultMaps : intermediateResultMapsList) {
+      maxNumGroups = Math.max(maxNumGroups, intermediateResultMaps[0].size());
+    }
+    final int initialCapacity = maxNumGroups / _numReducePartitions + 1;
+
+    Future<Map<String, Comparable>[]>[] futures = new Future[_numReducePartitions];
+    for (int i = 0; i < _numReducePartitions; i++) {
+      final int partitionId = i;
+      futures[i] = _reduceExecutor.submit(new Callable<Map<String, Comparable>[]>() {
+        @Override
+        public Map<String, Comparable>[] call() {
+          Map<String, Object>[] mergedIntermediateResultMaps = new Map[numAggregationFunctions];
+          for (int j = 0; j < numAggregationFunctions; j++) {
+            Map<String, Object> mergedIntermediateResultMap = new HashMap<>(initialCapacity);
+            for (Map<String, Object>[] intermediateResultMaps : intermediateResultMapsList) {
+              mergeIntermediateResultMap(_aggregationFunctions[j], mergedIntermediateResultMap,
+                  intermediateResultMaps[j], _numReducePartitions, partitionId);
+            }
+            mergedIntermediateResultMaps[j] = mergedIntermediateResultMap;
+          }
+          return getFinalResultMaps(mergedIntermediateResultMaps);
+        }
+      });
+    }
+
+    List<Map<String, Comparable>[]> finalResultMapPartitions = new ArrayList<>(_numReducePartitions);
+    try {
+      for (Future<Map<String, Comparable>[]> future : futures) {
+        finalResultMapPartitions.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      cancelFutures(futures);
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while reducing group-by results in parallel", e);
+    } catch (ExecutionException e) {
+      cancelFutures(futures);
+      throw new RuntimeException("Caught exception while reducing group-by results in parallel", e.getCause());
+    }
+    return finalResultMapPartitions;
+  }
+
+  private static void cancelFutures(@Nonnull Future[] futures) {
+    for (Future future : futures) {
+      future.cancel(true);
+    }
+  }
+
+  /**
+   * Merge the group-by result map into the merged group-by result map for the given aggregation function, only for
+   * the group keys belonging to the given partition.
+   *
+   * @param aggregationFunction aggregation function.
+   * @param mergedIntermediateResultMap merged group-by result map.
+   * @param intermediateResultMapToMerge group-by result map to merge.
+   * @param numPartitions number of partitions.
+   * @param partitionId partition id.
+   */
+  private static void mergeIntermediateResultMap(@Nonnull AggregationFunction aggregationFunction,
+      @Nonnull Map<String, Object> mergedIntermediateResultMap,
+      @Nonnull Map<String, Object> intermediateResultMapToMerge, int numPartitions, int partitionId) {
+    for (Map.Entry<String, Object> entry : intermediateResultMapToMerge.entrySet()) {
+      String groupKey = entry.getKey();
+      // HashCode method might return negative value, make it non-negative
+      if (numPartitions > 1 && (groupKey.hashCode() & Integer.MAX_VALUE) % numPartitions != partitionId) {
+        continue;
+      }
+      Object intermediateResultToMerge = entry.getValue();
+      Object mergedIntermediateResult = mergedIntermediateResultMap.get(groupKey);
+      if (mergedIntermediateResult != null) {
+        mergedIntermediateResultMap.put(groupKey,
+            aggregationFunction.merge(mergedIntermediateResult, intermediateResultToMerge));
+      } else {
+        mergedIntermediateResultMap.put(groupKey, intermediateResultToMerge);
+      }
+    }
+  }
+
+  /**
+   * Render the reduced selection results and set them into the broker response.
+   *
+   * @param selection selection information.
+   */
+  private void setSelectionResults(@Nonnull Selection selection) {
+    SelectionResults selectionResults;
+    if (_selectionService != null) {
+      // Selection order-by.
+      selectionResults = _selectionService.renderSelectionResultsWithOrdering();
+    } else {
+      // Selection only.
+      selectionResults = SelectionOperatorUtils.renderSelectionResultsWithoutOrdering(_selectionRows,
+          _masterDataSchema,
+          SelectionOperatorUtils.getSelectionColumns(selection.getSelectionColumns(), _masterDataSchema));
+    }
+
+    _brokerResponseNative.setSelectionResults(selectionResults);
+  }
+
+  /**
+   * Extract the final aggregation results and set them into the broker response.
+   */
+  private void setAggregationResults() {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    List<AggregationResult> reducedAggregationResults = new ArrayList<>(numAggregationFunctions);
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      String formattedResult =
+          AggregationFunctionUtils.formatValue(_aggregationFunctions[i].extractFinalResult(_intermediateResults[i]));
+      reducedAggregationResults.add(new AggregationResult(_masterDataSchema.getColumnName(i), formattedResult));
+    }
+    _brokerResponseNative.setAggregationResults(reducedAggregationResults);
+  }
+
+  /**
+   * Extract the final group-by results from the merged group-by result maps, and apply the HAVING filter if set.
+   *
+   * @param intermediateResultMaps merged group-by result maps.
+   * @return final result maps (one map for each aggregation function).
+   */
+  @SuppressWarnings("unchecked")
+  private Map<String, Comparable>[] getFinalResultMaps(@Nonnull Map<String, Object>[] intermediateResultMaps) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+
+    // Extract final result maps from the merged intermediate result maps.
+    Map<String, Comparable>[] finalResultMaps = new Map[numAggregationFunctions];
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      Map<String, Object> intermediateResultMap = intermediateResultMaps[i];
+      Map<String, Comparable> finalResultMap = new HashMap<>();
+      for (String groupKey : intermediateResultMap.keySet()) {
+        Object intermediateResult = intermediateResultMap.get(groupKey);
+        finalResultMap.put(groupKey, _aggregationFunctions[i].extractFinalResult(intermediateResult));
+      }
+      finalResultMaps[i] = finalResultMap;
+    }
+    //If HAVING clause is set, we further filter the group by results based on the HAVING predicate
+    HavingFilterQuery havingFilterQuery = _brokerRequest.getHavingFilterQuery();
+    if (havingFilterQuery != null) {
+      HavingClauseComparisonTree havingClauseComparisonTree =
+          HavingClauseComparisonTree.buildHavingClauseComparisonTree(havingFilterQuery,
+              _brokerRequest.getHavingFilterSubQueryMap());
+      //Applying close policy
+      //We just keep those groups (from different aggregation functions) that are exist in the result set of all aggregation functions.
+      //In other words, we just keep intersection of groups of different aggregation functions.
+      //Here we calculate the intersection of group key sets of different aggregation functions
+      Set<String> intersectionOfKeySets = finalResultMaps[0].keySet();
+      for (int i = 1; i < numAggregationFunctions; i++) {
+        intersectionOfKeySets.retainAll(finalResultMaps[i].keySet());
+      }
+
+      //Now it is time to remove those groups that do not validate HAVING clause predicate
+      //We use TreeMap which supports CASE_INSENSITIVE_ORDER
+      Map<String, Comparable> singleGroupAggResults = new TreeMap<String, Comparable>(String.CASE_INSENSITIVE_ORDER);
+      Map<String, Comparable>[] finalFilteredResultMaps = new Map[numAggregationFunctions];
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        finalFilteredResultMaps[i] = new HashMap<>();
+      }
+
+      for (String groupKey : intersectionOfKeySets) {
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          singleGroupAggResults.put(_columnNames[i], finalResultMaps[i].get(groupKey));
+        }
+        //if this group validate HAVING predicate keep it in the new map
+        if (havingClauseComparisonTree.isThisGroupPassPredicates(singleGroupAggResults)) {
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            finalFilteredResultMaps[i].put(groupKey, singleGroupAggResults.get(_columnNames[i]));
+          }
+        }
+      }
+      //update the final results
+      finalResultMaps = finalFilteredResultMaps;
+    }
+    return finalResultMaps;
+  }
+
+  /**
+   * Trim the final group-by results to top N and set them into the broker response.
+   *
+   * @param aggregationFunctionSelectStatus select status of the aggregation functions.
+   * @param groupBy group-by information.
+   * @param finalResultMapPartitions list of final result maps (one map for each aggregation function) for each
+   *                                 partition of the group keys.
+   */
+  @SuppressWarnings("unchecked")
+  private void setGroupByResults(@Nonnull boolean[] aggregationFunctionSelectStatus, @Nonnull GroupBy groupBy,
+      @Nonnull List<Map<String, Comparable>[]> finalResultMapPartitions) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+
+    int aggregationNumsInFinalResult = 0;
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      if (aggregationFunctionSelectStatus[i]) {
+        aggregationNumsInFinalResult++;
+      }
+    }
+
+    if (aggregationNumsInFinalResult > 0) {
+      String[] finalColumnNames = new String[aggregationNumsInFinalResult];
+      AggregationFunction[] finalAggregationFunctions = new AggregationFunction[aggregationNumsInFinalResult];
+      int numPartitions = finalResultMapPartitions.size();
+      List<Map<String, Comparable>[]> finalOutResultMapPartitions = new ArrayList<>(numPartitions);
+      for (int i = 0; i < numPartitions; i++) {
+        finalOutResultMapPartitions.add(new Map[aggregationNumsInFinalResult]);
+      }
+      int count = 0;
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        if (aggregationFunctionSelectStatus[i]) {
+          finalColumnNames[count] = _columnNames[i];
+          finalAggregationFunctions[count] = _aggregationFunctions[i];
+          for (int j = 0; j < numPartitions; j++) {
+            finalOutResultMapPartitions.get(j)[count] = finalResultMapPartitions.get(j)[i];
+          }
+          count++;
+        }
+      }
+      // Trim the final result maps to topN and set them into the broker response.
+      AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
+          new AggregationGroupByTrimmingService(finalAggregationFunctions, (int) groupBy.getTopN());
+      List<GroupByResult>[] groupByResultLists =
+          aggregationGroupByTrimmingService.trimFinalResults(finalOutResultMapPartitions);
+      List<AggregationResult> aggregationResults = new ArrayList<>(count);
+      for (int i = 0; i < aggregationNumsInFinalResult; i++) {
+        List<GroupByResult> groupByResultList = groupByResultLists[i];
+        List<String> groupByColumns = groupBy.getExpressions();
+        if (groupByColumns == null) {
+          groupByColumns = groupBy.getColumns();
+        }
+        aggregationResults.add(new AggregationResult(groupByResultList, groupByColumns, finalColumnNames[i]));
+      }
+      _brokerResponseNative.setAggregationResults(aggregationResults);
+    } else {
+      throw new IllegalStateException(
+          "There should be minimum one aggregation function in the select list of a Group by query");
+    }
+  }
+}
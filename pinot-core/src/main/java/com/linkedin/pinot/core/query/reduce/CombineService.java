@@ -22,10 +22,12 @@ import com.linkedin.pinot.common.response.ProcessingException;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
 import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 import javax.annotation.Nonnull;
 import org.slf4j.Logger;
@@ -72,6 +74,7 @@ public class CombineService {
           // No data in merged block.
           mergedBlock.setAggregationFunctionContexts(blockToMerge.getAggregationFunctionContexts());
           mergedBlock.setAggregationResults(aggregationResultToMerge);
+          return;
         }
 
         // Merge two block.
@@ -82,8 +85,44 @@ public class CombineService {
               .merge(mergedAggregationResult.get(i), aggregationResultToMerge.get(i)));
         }
       } else {
-        // Combine aggregation group-by result, which should not come into CombineService.
-        throw new UnsupportedOperationException();
+        // Combine aggregation group-by result.
+        // Only the combined (map) form of group-by result (e.g. results served from segment result cache) can be
+        // merged here, the raw form should be merged by MCombineGroupByOperator.
+
+        // Might be null if caught exception during query execution.
+        List<Map<String, Object>> groupByResultToMerge = blockToMerge.getCombinedAggregationGroupByResult();
+        if (groupByResultToMerge == null) {
+          if (blockToMerge.getAggregationGroupByResult() != null) {
+            throw new UnsupportedOperationException();
+          }
+          // No data in block to merge.
+          return;
+        }
+
+        AggregationFunctionContext[] mergedAggregationFunctionContexts = mergedBlock.getAggregationFunctionContexts();
+        if (mergedAggregationFunctionContexts == null) {
+          // No data in merged block.
+          mergedBlock.setAggregationFunctionContexts(blockToMerge.getAggregationFunctionContexts());
+          mergedBlock.setCombinedAggregationGroupByResult(groupByResultToMerge);
+          return;
+        }
+
+        // Merge two block.
+        List<Map<String, Object>> mergedGroupByResult = mergedBlock.getCombinedAggregationGroupByResult();
+        int numAggregationFunctions = mergedAggregationFunctionContexts.length;
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          AggregationFunction aggregationFunction = mergedAggregationFunctionContexts[i].getAggregationFunction();
+          Map<String, Object> mergedResultMap = mergedGroupByResult.get(i);
+          for (Map.Entry<String, Object> entry : groupByResultToMerge.get(i).entrySet()) {
+            String groupKey = entry.getKey();
+            Object mergedResult = mergedResultMap.get(groupKey);
+            if (mergedResult == null) {
+              mergedResultMap.put(groupKey, entry.getValue());
+            } else {
+              mergedResultMap.put(groupKey, aggregationFunction.merge(mergedResult, entry.getValue()));
+            }
+          }
+        }
       }
     } else {
       // Combine selection result.
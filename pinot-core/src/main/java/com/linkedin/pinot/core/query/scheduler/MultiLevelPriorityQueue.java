@@ -143,6 +143,20 @@ public class MultiLevelPriorityQueue implements SchedulerPriorityQueue {
     return pending;
   }
 
+  @Override
+  public int size() {
+    int size = 0;
+    queueLock.lock();
+    try {
+      for (SchedulerGroup group : schedulerGroups.values()) {
+        size += group.numPending();
+      }
+    } finally {
+      queueLock.unlock();
+    }
+    return size;
+  }
+
   private SchedulerQueryContext takeNextInternal() {
     SchedulerGroup currentWinnerGroup = null;
     long startTime = System.nanoTime();
@@ -79,6 +79,11 @@ public abstract class PriorityScheduler extends QueryScheduler {
   }
 
 
+  @Override
+  public int getNumQueuedQueries() {
+    return queryQueue.size() + super.getNumQueuedQueries();
+  }
+
   @Override
   public void start() {
     super.start();
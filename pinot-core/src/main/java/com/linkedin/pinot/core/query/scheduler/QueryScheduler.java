@@ -32,6 +32,7 @@ import com.linkedin.pinot.common.query.context.TimerContext;
 import com.linkedin.pinot.common.request.InstanceRequest;
 import com.linkedin.pinot.common.response.ProcessingException;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.common.utils.LatencyTracker;
 import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
 import com.linkedin.pinot.core.query.scheduler.resources.QueryExecutorService;
 import com.linkedin.pinot.core.query.scheduler.resources.ResourceManager;
@@ -55,6 +56,7 @@ public abstract class QueryScheduler {
   protected final ServerMetrics serverMetrics;
   protected final QueryExecutor queryExecutor;
   protected final ResourceManager resourceManager;
+  protected final LatencyTracker queryLatencyTracker = new LatencyTracker();
   protected volatile boolean isRunning = false;
 
   /**
@@ -103,6 +105,13 @@ public abstract class QueryScheduler {
   }
 
 
+  /**
+   * Number of queries accepted by the scheduler and waiting to be processed
+   */
+  public int getNumQueuedQueries() {
+    return resourceManager.getNumQueuedQueries();
+  }
+
   @VisibleForTesting
   public ExecutorService getQueryWorkers() {
     return resourceManager.getQueryWorkers();
@@ -148,11 +157,13 @@ public abstract class QueryScheduler {
     long requestId = instanceRequest.getRequestId();
     Map<String, String> dataTableMetadata = dataTable.getMetadata();
     dataTableMetadata.put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    addServerLoadMetadata(dataTableMetadata);
 
     byte[] responseData = serializeDataTable(request, dataTable);
 
     // Log the statistics
     TimerContext timerContext = request.getTimerContext();
+    queryLatencyTracker.record(timerContext.getPhaseDurationMs(ServerQueryPhase.TOTAL_QUERY_TIME));
 
     /*
     LOGGER.info("Processed timestamp={}, requestId={},table={},reqSegments={},prunedToSegmentCount={},totalExecMs={},totalTimeMs={},broker={},numDocsScanned={},scanInFilter={},scanPostFilter={},sched={}",
@@ -185,7 +196,7 @@ public abstract class QueryScheduler {
             request.getInstanceRequest().getSearchSegments().size(),
             request.getInstanceRequest().getSearchSegments().toString(),
             request.getSegmentCountAfterPruning(),
-            request.getSegmentsAfterPruning().toString(),
+            String.valueOf(request.getSegmentsAfterPruning()),
             getMetadataValue(dataTableMetadata, DataTable.EXECUTOR_CPU_TIME),
             timerContext.getPhaseDurationMs(ServerQueryPhase.QUERY_PLAN_EXECUTION),
             timerContext.getPhaseDurationMs(ServerQueryPhase.QUERY_PROCESSING),
@@ -195,7 +206,7 @@ public abstract class QueryScheduler {
             getMetadataValue(dataTableMetadata, DataTable.NUM_DOCS_SCANNED_METADATA_KEY),
             getMetadataValue(dataTableMetadata, DataTable.NUM_ENTRIES_SCANNED_IN_FILTER_METADATA_KEY),
             getMetadataValue(dataTableMetadata, DataTable.NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY),
-            responseData.length,
+            responseData != null ? responseData.length : 0,
             getMetadataValue(dataTableMetadata, DataTable.TOTAL_DOCS_METADATA_KEY),
             name());
 
@@ -204,6 +215,20 @@ public abstract class QueryScheduler {
     return responseData;
   }
 
+  /**
+   * Piggyback the current server load on the response so that brokers can route queries away from loaded servers.
+   * The latency percentiles are computed over the recent queries on this server.
+   */
+  protected void addServerLoadMetadata(Map<String, String> dataTableMetadata) {
+    dataTableMetadata.put(DataTable.SERVER_QUEUE_LENGTH_METADATA_KEY, Integer.toString(getNumQueuedQueries()));
+    dataTableMetadata.put(DataTable.SERVER_NUM_ACTIVE_THREADS_METADATA_KEY,
+        Integer.toString(resourceManager.getNumActiveThreads()));
+    dataTableMetadata.put(DataTable.SERVER_LATENCY_P50_MS_METADATA_KEY,
+        Long.toString(queryLatencyTracker.getPercentileMs(50)));
+    dataTableMetadata.put(DataTable.SERVER_LATENCY_P99_MS_METADATA_KEY,
+        Long.toString(queryLatencyTracker.getPercentileMs(99)));
+  }
+
   protected String getMetadataValue(Map<String, String> metadata, String key) {
     String val = metadata.get(key);
     return (val == null) ? "" : val;
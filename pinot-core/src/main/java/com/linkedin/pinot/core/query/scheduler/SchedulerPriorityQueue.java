@@ -49,4 +49,10 @@ public interface SchedulerPriorityQueue {
    *         List is empty if there are no pending queries
    */
   @Nonnull List<SchedulerQueryContext> drain();
+
+  /**
+   * Get the number of pending queries in the queue
+   * @return number of pending queries
+   */
+  int size();
 }
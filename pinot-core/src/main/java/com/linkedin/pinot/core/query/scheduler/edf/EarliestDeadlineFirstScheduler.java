@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler.edf;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.metrics.ServerMeter;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.metrics.ServerQueryPhase;
+import com.linkedin.pinot.common.query.QueryExecutor;
+import com.linkedin.pinot.common.query.ServerQueryRequest;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.core.query.scheduler.PriorityScheduler;
+import com.linkedin.pinot.core.query.scheduler.SchedulerGroupMapper;
+import com.linkedin.pinot.core.query.scheduler.SchedulerQueryContext;
+import com.linkedin.pinot.core.query.scheduler.TableBasedGroupMapper;
+import com.linkedin.pinot.core.query.scheduler.resources.PolicyBasedResourceManager;
+import com.linkedin.pinot.core.query.scheduler.resources.QueryExecutorService;
+import com.linkedin.pinot.core.query.scheduler.resources.ResourceManager;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.configuration.Configuration;
+
+
+/**
+ * Schedules the query with the earliest deadline first, where the deadline is the query arrival time plus the timeout
+ * from the query options (or the configured default timeout).
+ *
+ * Queries that can not finish before their deadline based on the per-table estimated query processing time are shed,
+ * both on arrival (admission control) and while pending in the queue. A query is always admitted as a probe when no
+ * query of its table is running, and the estimate decays over time, so that slow queries do not shed a table forever.
+ * The on-time and late completions, as well as the shed queries are reported through {@link ServerMeter}.
+ * <p>Only the queries scheduled here have their execution bounded by the query deadline, see
+ * {@link ServerQueryRequest#isDeadlineEnforced()}.
+ */
+public class EarliestDeadlineFirstScheduler extends PriorityScheduler {
+  public static final String DEFAULT_QUERY_TIMEOUT_MS_KEY = "default_query_timeout_ms";
+
+  private final EdfPriorityQueue edfQueue;
+  private final SchedulerGroupMapper groupMapper;
+  private final long defaultTimeoutMs;
+
+  public static EarliestDeadlineFirstScheduler create(@Nonnull Configuration config,
+      @Nonnull QueryExecutor queryExecutor, @Nonnull ServerMetrics metrics) {
+    ResourceManager rm = new PolicyBasedResourceManager(config);
+    SchedulerGroupMapper groupMapper = new TableBasedGroupMapper();
+    long defaultTimeoutMs =
+        config.getLong(DEFAULT_QUERY_TIMEOUT_MS_KEY, CommonConstants.Server.DEFAULT_QUERY_EXECUTOR_TIMEOUT_MS);
+    EdfPriorityQueue queue = new EdfPriorityQueue(config, rm, groupMapper, metrics, defaultTimeoutMs);
+    return new EarliestDeadlineFirstScheduler(rm, queryExecutor, queue, groupMapper, metrics, defaultTimeoutMs);
+  }
+
+  EarliestDeadlineFirstScheduler(@Nonnull ResourceManager resourceManager, @Nonnull QueryExecutor queryExecutor,
+      @Nonnull EdfPriorityQueue queue, @Nonnull SchedulerGroupMapper groupMapper, @Nonnull ServerMetrics metrics,
+      long defaultTimeoutMs) {
+    super(resourceManager, queryExecutor, queue, metrics);
+    this.edfQueue = queue;
+    this.groupMapper = groupMapper;
+    this.defaultTimeoutMs = defaultTimeoutMs;
+  }
+
+  @Override
+  public ListenableFuture<byte[]> submit(@Nullable ServerQueryRequest queryRequest) {
+    Preconditions.checkNotNull(queryRequest);
+    if (isRunning) {
+      EdfSchedulerGroup group = getSchedulerGroup(queryRequest);
+      if (!group.canFinish(queryRequest, System.nanoTime())) {
+        edfQueue.shedQuery(queryRequest, "Shed query that can not finish before its deadline on arrival");
+        return immediateErrorResponse(queryRequest,
+            QueryException.getException(QueryException.EXECUTION_TIMEOUT_ERROR,
+                "Query can not finish before its deadline"));
+      }
+      // Stop the execution at segment boundaries once the deadline has passed
+      queryRequest.setDeadlineEnforced(true);
+    }
+    return super.submit(queryRequest);
+  }
+
+  @Override
+  protected ListenableFutureTask<byte[]> createQueryFutureTask(@Nonnull final ServerQueryRequest request,
+      @Nonnull QueryExecutorService e) {
+    ListenableFutureTask<byte[]> queryFutureTask = super.createQueryFutureTask(request, e);
+    final EdfSchedulerGroup group = getSchedulerGroup(request);
+    queryFutureTask.addListener(new Runnable() {
+      @Override
+      public void run() {
+        long queryTimeNs = request.getTimerContext().getPhaseDurationNs(ServerQueryPhase.QUERY_PROCESSING);
+        // Queries that failed before processing do not tell anything about the processing time
+        if (queryTimeNs >= 0) {
+          group.recordQueryTimeMs(TimeUnit.NANOSECONDS.toMillis(queryTimeNs));
+        }
+        ServerMeter meter = System.nanoTime() <= request.getDeadlineNs(defaultTimeoutMs)
+            ? ServerMeter.SCHEDULER_QUERIES_COMPLETED_ON_TIME : ServerMeter.SCHEDULER_QUERIES_COMPLETED_LATE;
+        serverMetrics.addMeteredTableValue(request.getTableName(), meter, 1);
+      }
+    }, MoreExecutors.directExecutor());
+    return queryFutureTask;
+  }
+
+  @Override
+  public String name() {
+    return "EarliestDeadlineFirst";
+  }
+
+  private EdfSchedulerGroup getSchedulerGroup(ServerQueryRequest queryRequest) {
+    return edfQueue.getSchedulerGroup(groupMapper.getSchedulerGroupName(new SchedulerQueryContext(queryRequest)));
+  }
+}
@@ -0,0 +1,226 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler.edf;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.metrics.ServerMeter;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.query.ServerQueryRequest;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.linkedin.pinot.core.query.scheduler.MultiLevelPriorityQueue;
+import com.linkedin.pinot.core.query.scheduler.OutOfCapacityError;
+import com.linkedin.pinot.core.query.scheduler.QueryScheduler;
+import com.linkedin.pinot.core.query.scheduler.SchedulerGroupMapper;
+import com.linkedin.pinot.core.query.scheduler.SchedulerPriorityQueue;
+import com.linkedin.pinot.core.query.scheduler.SchedulerQueryContext;
+import com.linkedin.pinot.core.query.scheduler.resources.ResourceManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Earliest deadline first priority queue of {@link EdfSchedulerGroup}s.
+ *
+ * Among the groups that can be scheduled as per the {@link ResourceManager}, the query with the earliest deadline is
+ * selected for execution. Before selecting, pending queries that can not finish before their deadline based on the
+ * estimated query processing time of their group are shed: they are removed from the queue and answered with a
+ * timeout error right away, instead of wasting execution resources on responses that the broker will discard.
+ */
+public class EdfPriorityQueue implements SchedulerPriorityQueue {
+  private static final Logger LOGGER = LoggerFactory.getLogger(EdfPriorityQueue.class);
+  private static final int DEFAULT_WAKEUP_MICROS = 1000;
+
+  private final Map<String, EdfSchedulerGroup> schedulerGroups = new HashMap<>();
+  private final Lock queueLock = new ReentrantLock();
+  private final Condition queryReaderCondition = queueLock.newCondition();
+  private final ResourceManager resourceManager;
+  private final SchedulerGroupMapper groupMapper;
+  private final ServerMetrics serverMetrics;
+  private final long defaultTimeoutMs;
+  private final int maxPendingPerGroup;
+  private final int wakeUpTimeMicros;
+
+  public EdfPriorityQueue(@Nonnull Configuration config, @Nonnull ResourceManager resourceManager,
+      @Nonnull SchedulerGroupMapper groupMapper, @Nonnull ServerMetrics serverMetrics, long defaultTimeoutMs) {
+    Preconditions.checkNotNull(config);
+    Preconditions.checkNotNull(resourceManager);
+    Preconditions.checkNotNull(groupMapper);
+    Preconditions.checkNotNull(serverMetrics);
+
+    this.resourceManager = resourceManager;
+    this.groupMapper = groupMapper;
+    this.serverMetrics = serverMetrics;
+    this.defaultTimeoutMs = defaultTimeoutMs;
+    maxPendingPerGroup = config.getInt(MultiLevelPriorityQueue.MAX_PENDING_PER_GROUP_KEY, 10);
+    wakeUpTimeMicros = config.getInt(MultiLevelPriorityQueue.QUEUE_WAKEUP_MICROS, DEFAULT_WAKEUP_MICROS);
+  }
+
+  @Override
+  public void put(@Nonnull SchedulerQueryContext query) throws OutOfCapacityError {
+    Preconditions.checkNotNull(query);
+    String groupName = groupMapper.getSchedulerGroupName(query);
+    queueLock.lock();
+    try {
+      EdfSchedulerGroup group = getOrCreateGroup(groupName);
+      if (group.numPending() >= maxPendingPerGroup
+          && group.totalReservedThreads() >= resourceManager.getTableThreadsHardLimit()) {
+        throw new OutOfCapacityError(
+            String.format("SchedulerGroup %s is out of capacity. numPending: %d, maxPending: %d, reservedThreads: %d "
+                    + "threadsHardLimit: %d", groupName, group.numPending(), maxPendingPerGroup,
+                group.totalReservedThreads(), resourceManager.getTableThreadsHardLimit()));
+      }
+      query.setSchedulerGroupContext(group);
+      group.addLast(query);
+      queryReaderCondition.signal();
+    } finally {
+      queueLock.unlock();
+    }
+  }
+
+  /**
+   * Blocking call to read the next query in order of deadline
+   * @return query to schedule. Returns null only when interrupted
+   */
+  @Nullable
+  @Override
+  public SchedulerQueryContext take() {
+    queueLock.lock();
+    try {
+      SchedulerQueryContext schedulerQueryContext;
+      while ((schedulerQueryContext = takeNextInternal()) == null) {
+        try {
+          queryReaderCondition.await(wakeUpTimeMicros, TimeUnit.MICROSECONDS);
+        } catch (InterruptedException e) {
+          return null;
+        }
+      }
+      return schedulerQueryContext;
+    } finally {
+      queueLock.unlock();
+    }
+  }
+
+  @Nonnull
+  @Override
+  public List<SchedulerQueryContext> drain() {
+    List<SchedulerQueryContext> pending = new ArrayList<>();
+    queueLock.lock();
+    try {
+      for (EdfSchedulerGroup group : schedulerGroups.values()) {
+        while (!group.isEmpty()) {
+          pending.add(group.removeFirst());
+        }
+      }
+    } finally {
+      queueLock.unlock();
+    }
+    return pending;
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    queueLock.lock();
+    try {
+      for (EdfSchedulerGroup group : schedulerGroups.values()) {
+        size += group.numPending();
+      }
+    } finally {
+      queueLock.unlock();
+    }
+    return size;
+  }
+
+  /**
+   * Get the scheduler group for the given group name, creating it if it does not exist yet.
+   */
+  @Nonnull
+  public EdfSchedulerGroup getSchedulerGroup(@Nonnull String groupName) {
+    queueLock.lock();
+    try {
+      return getOrCreateGroup(groupName);
+    } finally {
+      queueLock.unlock();
+    }
+  }
+
+  private SchedulerQueryContext takeNextInternal() {
+    long currentTimeNs = System.nanoTime();
+    EdfSchedulerGroup winnerGroup = null;
+    for (EdfSchedulerGroup group : schedulerGroups.values()) {
+      shedUnfinishableQueries(group, currentTimeNs);
+      if (group.isEmpty() || !resourceManager.canSchedule(group)) {
+        continue;
+      }
+      if (winnerGroup == null || group.compareTo(winnerGroup) > 0) {
+        winnerGroup = group;
+      }
+    }
+    return winnerGroup != null ? winnerGroup.removeFirst() : null;
+  }
+
+  /**
+   * Sheds the pending queries of the group that can not finish before their deadline. Queries are ordered by deadline
+   * and share the same estimated processing time, so only the head of the group needs to be checked.
+   */
+  private void shedUnfinishableQueries(EdfSchedulerGroup group, long currentTimeNs) {
+    SchedulerQueryContext query;
+    while ((query = group.peekFirst()) != null && !group.canFinish(query.getQueryRequest(), currentTimeNs)) {
+      group.removeFirst();
+      shedQuery(query.getQueryRequest(), "Shed query that can not finish before its deadline while pending");
+      query.setResultFuture(Futures.immediateFuture(
+          buildErrorResponse(query.getQueryRequest(), "Query can not finish before its deadline")));
+    }
+  }
+
+  /**
+   * Records a shed query.
+   */
+  void shedQuery(@Nonnull ServerQueryRequest queryRequest, @Nonnull String message) {
+    LOGGER.debug("{}, requestId: {}, table: {}", message, queryRequest.getInstanceRequest().getRequestId(),
+        queryRequest.getTableName());
+    serverMetrics.addMeteredTableValue(queryRequest.getTableName(), ServerMeter.SCHEDULER_QUERIES_SHED, 1);
+  }
+
+  private static byte[] buildErrorResponse(@Nonnull ServerQueryRequest queryRequest, @Nonnull String errorMessage) {
+    DataTable result = new DataTableImplV2();
+    result.addException(QueryException.getException(QueryException.EXECUTION_TIMEOUT_ERROR, errorMessage));
+    return QueryScheduler.serializeDataTable(queryRequest, result);
+  }
+
+  private EdfSchedulerGroup getOrCreateGroup(String groupName) {
+    EdfSchedulerGroup group = schedulerGroups.get(groupName);
+    if (group == null) {
+      group = new EdfSchedulerGroup(groupName, defaultTimeoutMs);
+      schedulerGroups.put(groupName, group);
+    }
+    return group;
+  }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler.edf;
+
+import com.linkedin.pinot.common.query.ServerQueryRequest;
+import com.linkedin.pinot.core.query.scheduler.AbstractSchedulerGroup;
+import com.linkedin.pinot.core.query.scheduler.SchedulerGroup;
+import com.linkedin.pinot.core.query.scheduler.SchedulerGroupAccountant;
+import com.linkedin.pinot.core.query.scheduler.SchedulerQueryContext;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+
+/**
+ * {@link SchedulerGroup} that keeps its pending queries ordered by deadline (earliest first), and tracks an estimate
+ * of the query processing time for the group.
+ * <p>The pending queries are not thread safe, and are guarded by the lock of {@link EdfPriorityQueue}.
+ */
+public class EdfSchedulerGroup extends AbstractSchedulerGroup {
+  // Weight of the latest sample in the exponentially weighted moving average of the query processing time
+  private static final double QUERY_TIME_SAMPLE_WEIGHT = 0.25;
+  // Half-life of the estimate when no query completes, so that a few slow queries can not shed the group forever
+  static final long ESTIMATE_HALF_LIFE_NS = TimeUnit.SECONDS.toNanos(10);
+
+  private final long defaultTimeoutMs;
+  private final PriorityQueue<SchedulerQueryContext> deadlineOrderedQueries;
+  private double estimatedQueryTimeMs = 0;
+  private long estimateUpdateTimeNs;
+
+  public EdfSchedulerGroup(@Nonnull String name, final long defaultTimeoutMs) {
+    super(name);
+    this.defaultTimeoutMs = defaultTimeoutMs;
+    this.deadlineOrderedQueries = new PriorityQueue<>(11, new Comparator<SchedulerQueryContext>() {
+      @Override
+      public int compare(SchedulerQueryContext lhs, SchedulerQueryContext rhs) {
+        return Long.compare(getDeadlineNs(lhs), getDeadlineNs(rhs));
+      }
+    });
+  }
+
+  /**
+   * Get the deadline of the query in the {@link System#nanoTime()} time base.
+   */
+  public long getDeadlineNs(@Nonnull SchedulerQueryContext query) {
+    return query.getQueryRequest().getDeadlineNs(defaultTimeoutMs);
+  }
+
+  /**
+   * Get the estimated query processing time in milliseconds, 0 if no query has completed yet.
+   */
+  public long getEstimatedQueryTimeMs() {
+    return getEstimatedQueryTimeMs(System.nanoTime());
+  }
+
+  /**
+   * Get the estimated query processing time in milliseconds at the given time in the {@link System#nanoTime()} time
+   * base. The estimate decays by half every {@link #ESTIMATE_HALF_LIFE_NS} since the last completed query.
+   */
+  public synchronized long getEstimatedQueryTimeMs(long currentTimeNs) {
+    long elapsedNs = Math.max(0L, currentTimeNs - estimateUpdateTimeNs);
+    return (long) (estimatedQueryTimeMs * Math.pow(0.5, (double) elapsedNs / ESTIMATE_HALF_LIFE_NS));
+  }
+
+  /**
+   * Record the processing time of a completed query to update the estimate.
+   */
+  public void recordQueryTimeMs(long queryTimeMs) {
+    recordQueryTimeMs(queryTimeMs, System.nanoTime());
+  }
+
+  /**
+   * Record the processing time of a query completed at the given time in the {@link System#nanoTime()} time base.
+   */
+  public synchronized void recordQueryTimeMs(long queryTimeMs, long currentTimeNs) {
+    double decayedEstimateMs = getEstimatedQueryTimeMs(currentTimeNs);
+    if (decayedEstimateMs == 0) {
+      estimatedQueryTimeMs = queryTimeMs;
+    } else {
+      estimatedQueryTimeMs = decayedEstimateMs + QUERY_TIME_SAMPLE_WEIGHT * (queryTimeMs - decayedEstimateMs);
+    }
+    estimateUpdateTimeNs = currentTimeNs;
+  }
+
+  /**
+   * Returns whether the query is expected to finish before its deadline. When no query of the group is running, the
+   * query is admitted as a probe as long as its deadline has not passed, so that the estimate keeps being refreshed by
+   * completed queries instead of shedding the group based on stale samples.
+   */
+  public boolean canFinish(@Nonnull ServerQueryRequest queryRequest, long currentTimeNs) {
+    long deadlineNs = queryRequest.getDeadlineNs(defaultTimeoutMs);
+    if (numRunning() == 0) {
+      return currentTimeNs < deadlineNs;
+    }
+    return currentTimeNs + TimeUnit.MILLISECONDS.toNanos(getEstimatedQueryTimeMs(currentTimeNs)) <= deadlineNs;
+  }
+
+  @Override
+  public void addLast(SchedulerQueryContext query) {
+    deadlineOrderedQueries.add(query);
+  }
+
+  @Override
+  public SchedulerQueryContext peekFirst() {
+    return deadlineOrderedQueries.peek();
+  }
+
+  @Override
+  public SchedulerQueryContext removeFirst() {
+    return deadlineOrderedQueries.poll();
+  }
+
+  @Override
+  public void trimExpired(long deadlineMillis) {
+    Iterator<SchedulerQueryContext> iter = deadlineOrderedQueries.iterator();
+    while (iter.hasNext()) {
+      SchedulerQueryContext next = iter.next();
+      if (next.getArrivalTimeMs() < deadlineMillis) {
+        iter.remove();
+      }
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return deadlineOrderedQueries.isEmpty();
+  }
+
+  @Override
+  public int numPending() {
+    return deadlineOrderedQueries.size();
+  }
+
+  /**
+   * Group that has pending query with earlier deadline has higher priority.
+   * @return 1 if this has earlier deadline than rhs
+   *         -1 if this has later deadline than rhs
+   *         0 if deadlines are equal
+   */
+  @Override
+  public int compareTo(SchedulerGroupAccountant rhs) {
+    if (rhs == null) {
+      return 1;
+    }
+    if (this == rhs) {
+      return 0;
+    }
+    EdfSchedulerGroup rhsGroup = (EdfSchedulerGroup) rhs;
+    SchedulerQueryContext lhsFirst = peekFirst();
+    SchedulerQueryContext rhsFirst = rhsGroup.peekFirst();
+    if (lhsFirst != null && rhsFirst != null) {
+      return Long.compare(rhsGroup.getDeadlineNs(rhsFirst), getDeadlineNs(lhsFirst));
+    } else if (lhsFirst != null) {
+      return 1;
+    } else if (rhsFirst != null) {
+      return -1;
+    } else {
+      return 0;
+    }
+  }
+}
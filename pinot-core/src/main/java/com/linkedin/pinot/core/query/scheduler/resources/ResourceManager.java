@@ -22,8 +22,10 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.linkedin.pinot.common.query.ServerQueryRequest;
 import com.linkedin.pinot.core.query.scheduler.SchedulerGroupAccountant;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +66,9 @@ public abstract class ResourceManager {
   //
   protected final ListeningExecutorService queryRunners;
   protected final ListeningExecutorService queryWorkers;
+  // Underlying thread pools of the query runners and workers, used to report the server load
+  private final ThreadPoolExecutor queryRunnerThreadPool;
+  private final ThreadPoolExecutor queryWorkerThreadPool;
   protected final int numQueryRunnerThreads;
   protected final int numQueryWorkerThreads;
 
@@ -81,16 +86,21 @@ public abstract class ResourceManager {
         .setPriority(QUERY_RUNNER_THREAD_PRIORITY)
         .setNameFormat("pqr-%d")
         .build();
-    queryRunners = MoreExecutors.listeningDecorator(
-        Executors.newFixedThreadPool(numQueryRunnerThreads, queryRunnerFactory));
+    queryRunnerThreadPool = newFixedThreadPool(numQueryRunnerThreads, queryRunnerFactory);
+    queryRunners = MoreExecutors.listeningDecorator(queryRunnerThreadPool);
 
     // pqw -> pinot query workers
     ThreadFactory queryWorkersFactory = new ThreadFactoryBuilder().setDaemon(false)
         .setPriority(Thread.NORM_PRIORITY)
         .setNameFormat("pqw-%d")
         .build();
-    queryWorkers = MoreExecutors.listeningDecorator(
-        Executors.newFixedThreadPool(numQueryWorkerThreads, queryWorkersFactory));
+    queryWorkerThreadPool = newFixedThreadPool(numQueryWorkerThreads, queryWorkersFactory);
+    queryWorkers = MoreExecutors.listeningDecorator(queryWorkerThreadPool);
+  }
+
+  private static ThreadPoolExecutor newFixedThreadPool(int numThreads, ThreadFactory threadFactory) {
+    return new ThreadPoolExecutor(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<Runnable>(), threadFactory);
   }
 
   public void stop() {
@@ -116,6 +126,22 @@ public abstract class ResourceManager {
     return numQueryWorkerThreads;
   }
 
+  /**
+   * Approximate number of queries submitted to the query runners but not yet started.
+   * @return
+   */
+  public int getNumQueuedQueries() {
+    return queryRunnerThreadPool.getQueue().size();
+  }
+
+  /**
+   * Approximate number of query runner and worker threads actively executing queries.
+   * @return
+   */
+  public int getNumActiveThreads() {
+    return queryRunnerThreadPool.getActiveCount() + queryWorkerThreadPool.getActiveCount();
+  }
+
   /**
    * Returns executor service for running queries.
    * @return
@@ -25,10 +25,8 @@ import com.linkedin.pinot.core.common.Block;
 import com.linkedin.pinot.core.common.BlockDocIdIterator;
 import com.linkedin.pinot.core.common.Constants;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
-import com.linkedin.pinot.core.query.selection.comparator.CompositeDocIdValComparator;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -74,6 +72,8 @@ public class SelectionOperatorService {
   private final PriorityQueue<Serializable[]> _rows;
 
   private long _numDocsScanned = 0;
+  // Collects the document ids of the top rows before fetching the selection rows (inner segment)
+  private SelectionOrderByDocIdCollector _docIdCollector;
 
   /**
    * Constructor for <code>SelectionOperatorService</code> with {@link IndexSegment}. (Inner segment)
@@ -266,27 +266,43 @@ public class SelectionOperatorService {
   }
 
   /**
-   * Iterate over {@link Block}s, extract values from them and merge the values to the selection results for selection
-   * queries with <code>ORDER BY</code>. (Inner segment)
+   * Iterate over {@link Block}s and collect the document ids of the top rows based on the sort column values for
+   * selection queries with <code>ORDER BY</code>. (Inner segment)
+   * <p>The selection rows are fetched for the collected documents only, in method "fetchRowsWithOrdering()".
    *
    * @param blockDocIdIterator block document id iterator.
    * @param blocks {@link Block} array.
    */
   public void iterateOnBlocksWithOrdering(@Nonnull BlockDocIdIterator blockDocIdIterator, @Nonnull Block[] blocks) {
-    Comparator<Integer> rowDocIdComparator = new CompositeDocIdValComparator(_sortSequence, blocks);
-    PriorityQueue<Integer> rowDocIdPriorityQueue = new PriorityQueue<>(_maxNumRows, rowDocIdComparator);
+    if (_docIdCollector == null) {
+      _docIdCollector = new SelectionOrderByDocIdCollector(_sortSequence, blocks, _maxNumRows);
+    } else {
+      _docIdCollector.setBlocks(blocks);
+    }
     int docId;
     while ((docId = blockDocIdIterator.next()) != Constants.EOF) {
       _numDocsScanned++;
-      SelectionOperatorUtils.addToPriorityQueue(docId, rowDocIdPriorityQueue, _maxNumRows);
+      _docIdCollector.collect(docId);
     }
+  }
 
+  /**
+   * Fetch the selection rows for the documents collected by method "iterateOnBlocksWithOrdering()", and merge them to
+   * the selection results for selection queries with <code>ORDER BY</code>. (Inner segment)
+   * <p>Should be called once after iterating over all {@link Block}s. The blocks of the data sources cover the whole
+   * segment, so the last iterated blocks can fetch the rows for documents collected from any of them.
+   *
+   * @param blocks {@link Block} array of the last iteration.
+   */
+  public void fetchRowsWithOrdering(@Nonnull Block[] blocks) {
+    if (_docIdCollector == null) {
+      return;
+    }
     SelectionFetcher selectionFetcher = new SelectionFetcher(blocks, _dataSchema);
-    Collection<Serializable[]> rows = new ArrayList<>(rowDocIdPriorityQueue.size());
-    for (int rowDocId : rowDocIdPriorityQueue) {
-      rows.add(selectionFetcher.getRow(rowDocId));
+    for (int docId : _docIdCollector.getDocIds()) {
+      SelectionOperatorUtils.addToPriorityQueue(selectionFetcher.getRow(docId), _rows, _maxNumRows);
     }
-    SelectionOperatorUtils.mergeWithOrdering(_rows, rows, _maxNumRows);
+    _docIdCollector = null;
   }
 
   /**
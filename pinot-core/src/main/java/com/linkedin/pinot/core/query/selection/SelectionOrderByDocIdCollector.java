@@ -0,0 +1,321 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.selection;
+
+import com.linkedin.pinot.common.request.SelectionSort;
+import com.linkedin.pinot.core.common.Block;
+import com.linkedin.pinot.core.common.BlockMetadata;
+import com.linkedin.pinot.core.common.BlockSingleValIterator;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+
+/**
+ * The <code>SelectionOrderByDocIdCollector</code> class collects the document ids of the top rows of one segment for
+ * selection queries with <code>ORDER BY</code>, by reading and comparing the values of the sort columns only.
+ * <p>Sort column values are kept in primitive arrays: dictionary ids for columns with sorted dictionary, and values
+ * otherwise. The selection rows only need to be fetched for the collected document ids.
+ * <p>Same as the strict comparator in {@link SelectionOperatorService}, multi-value sort columns are not compared, and
+ * on ties the document collected first is kept.
+ */
+public class SelectionOrderByDocIdCollector {
+  private final int _maxNumRows;
+  private final SortColumn[] _sortColumns;
+  // Min heap of slots with the worst row on top, where a slot is the index of a row in the document id and sort column
+  // value arrays
+  private final int[] _heap;
+  private final int[] _docIds;
+  private int _numRows = 0;
+  // Slot to read the values of the next document into, which is not part of the heap
+  private int _freeSlot = 0;
+
+  /**
+   * Constructor for <code>SelectionOrderByDocIdCollector</code>.
+   *
+   * @param sortSequence de-duplicated sort sequence.
+   * @param blocks {@link Block} array, with the blocks for the sort columns first (in sort sequence order).
+   * @param maxNumRows maximum number of rows to collect.
+   */
+  public SelectionOrderByDocIdCollector(@Nonnull List<SelectionSort> sortSequence, @Nonnull Block[] blocks,
+      int maxNumRows) {
+    _maxNumRows = maxNumRows;
+    // One extra slot for the document being collected
+    int numSlots = maxNumRows + 1;
+    _heap = new int[maxNumRows];
+    _docIds = new int[numSlots];
+
+    List<SortColumn> sortColumns = new ArrayList<>();
+    int numSortColumns = sortSequence.size();
+    for (int i = 0; i < numSortColumns; i++) {
+      SortColumn sortColumn = createSortColumn(blocks[i].getMetadata(), sortSequence.get(i).isIsAsc(), numSlots);
+      if (sortColumn != null) {
+        sortColumns.add(sortColumn);
+      }
+    }
+    _sortColumns = sortColumns.toArray(new SortColumn[sortColumns.size()]);
+    setBlocks(blocks);
+  }
+
+  /**
+   * Helper method to create the {@link SortColumn} for a block, or <code>null</code> if the column cannot be compared.
+   */
+  private static SortColumn createSortColumn(BlockMetadata blockMetadata, boolean isAsc, int numSlots) {
+    if (!blockMetadata.isSingleValue()) {
+      return null;
+    }
+    Dictionary dictionary = blockMetadata.hasDictionary() ? blockMetadata.getDictionary() : null;
+    if (dictionary != null && dictionary.isSorted()) {
+      return new IntSortColumn(isAsc, numSlots, null);
+    }
+    switch (blockMetadata.getDataType()) {
+      case INT:
+        return new IntSortColumn(isAsc, numSlots, dictionary);
+      case LONG:
+        return new LongSortColumn(isAsc, numSlots, dictionary);
+      case FLOAT:
+        return new FloatSortColumn(isAsc, numSlots, dictionary);
+      case DOUBLE:
+        return new DoubleSortColumn(isAsc, numSlots, dictionary);
+      case STRING:
+        return new StringSortColumn(isAsc, numSlots, dictionary);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Set the blocks to read the sort column values from for the next documents to collect.
+   *
+   * @param blocks {@link Block} array, with the blocks for the sort columns first (in sort sequence order).
+   */
+  public void setBlocks(@Nonnull Block[] blocks) {
+    for (int i = 0; i < _sortColumns.length; i++) {
+      _sortColumns[i]._iterator = (BlockSingleValIterator) blocks[i].getBlockValueSet().iterator();
+    }
+  }
+
+  /**
+   * Collect a document, which is kept only if it is among the top rows collected so far.
+   *
+   * @param docId document id.
+   */
+  public void collect(int docId) {
+    if (_maxNumRows == 0) {
+      return;
+    }
+    int slot = _freeSlot;
+    _docIds[slot] = docId;
+    for (SortColumn sortColumn : _sortColumns) {
+      sortColumn.read(docId, slot);
+    }
+    if (_numRows < _maxNumRows) {
+      _heap[_numRows] = slot;
+      siftUp(_numRows++);
+      _freeSlot = _numRows;
+    } else if (compare(_heap[0], slot) < 0) {
+      _freeSlot = _heap[0];
+      _heap[0] = slot;
+      siftDown(0);
+    }
+  }
+
+  /**
+   * Get the collected document ids, in ascending order.
+   *
+   * @return collected document ids.
+   */
+  @Nonnull
+  public int[] getDocIds() {
+    int[] docIds = new int[_numRows];
+    for (int i = 0; i < _numRows; i++) {
+      docIds[i] = _docIds[_heap[i]];
+    }
+    Arrays.sort(docIds);
+    return docIds;
+  }
+
+  private int compare(int slot1, int slot2) {
+    for (SortColumn sortColumn : _sortColumns) {
+      int ret = sortColumn.compare(slot1, slot2);
+      if (ret != 0) {
+        return ret;
+      }
+    }
+    return 0;
+  }
+
+  private void siftUp(int index) {
+    int slot = _heap[index];
+    while (index > 0) {
+      int parentIndex = (index - 1) >>> 1;
+      int parentSlot = _heap[parentIndex];
+      if (compare(slot, parentSlot) >= 0) {
+        break;
+      }
+      _heap[index] = parentSlot;
+      index = parentIndex;
+    }
+    _heap[index] = slot;
+  }
+
+  private void siftDown(int index) {
+    int slot = _heap[index];
+    int half = _numRows >>> 1;
+    while (index < half) {
+      int childIndex = 2 * index + 1;
+      int childSlot = _heap[childIndex];
+      int rightIndex = childIndex + 1;
+      if (rightIndex < _numRows && compare(_heap[rightIndex], childSlot) < 0) {
+        childIndex = rightIndex;
+        childSlot = _heap[rightIndex];
+      }
+      if (compare(slot, childSlot) <= 0) {
+        break;
+      }
+      _heap[index] = childSlot;
+      index = childIndex;
+    }
+    _heap[index] = slot;
+  }
+
+  /**
+   * Values of one sort column for all slots. Values are read from the dictionary ids for unsorted dictionaries (e.g.
+   * for realtime segments), where dictionary ids do not follow the value order.
+   */
+  private static abstract class SortColumn {
+    // Ascending order keeps the largest values on top of the heap
+    final int _orderMultiplier;
+    final Dictionary _dictionary;
+    BlockSingleValIterator _iterator;
+
+    SortColumn(boolean isAsc, Dictionary dictionary) {
+      _orderMultiplier = isAsc ? -1 : 1;
+      _dictionary = dictionary;
+    }
+
+    abstract void read(int docId, int slot);
+
+    abstract int compare(int slot1, int slot2);
+  }
+
+  private static final class IntSortColumn extends SortColumn {
+    private final int[] _values;
+
+    IntSortColumn(boolean isAsc, int numSlots, Dictionary dictionary) {
+      super(isAsc, dictionary);
+      _values = new int[numSlots];
+    }
+
+    @Override
+    void read(int docId, int slot) {
+      _iterator.skipTo(docId);
+      int value = _iterator.nextIntVal();
+      _values[slot] = (_dictionary == null) ? value : _dictionary.getIntValue(value);
+    }
+
+    @Override
+    int compare(int slot1, int slot2) {
+      return Integer.compare(_values[slot1], _values[slot2]) * _orderMultiplier;
+    }
+  }
+
+  private static final class LongSortColumn extends SortColumn {
+    private final long[] _values;
+
+    LongSortColumn(boolean isAsc, int numSlots, Dictionary dictionary) {
+      super(isAsc, dictionary);
+      _values = new long[numSlots];
+    }
+
+    @Override
+    void read(int docId, int slot) {
+      _iterator.skipTo(docId);
+      _values[slot] =
+          (_dictionary == null) ? _iterator.nextLongVal() : _dictionary.getLongValue(_iterator.nextIntVal());
+    }
+
+    @Override
+    int compare(int slot1, int slot2) {
+      return Long.compare(_values[slot1], _values[slot2]) * _orderMultiplier;
+    }
+  }
+
+  private static final class FloatSortColumn extends SortColumn {
+    private final float[] _values;
+
+    FloatSortColumn(boolean isAsc, int numSlots, Dictionary dictionary) {
+      super(isAsc, dictionary);
+      _values = new float[numSlots];
+    }
+
+    @Override
+    void read(int docId, int slot) {
+      _iterator.skipTo(docId);
+      _values[slot] =
+          (_dictionary == null) ? _iterator.nextFloatVal() : _dictionary.getFloatValue(_iterator.nextIntVal());
+    }
+
+    @Override
+    int compare(int slot1, int slot2) {
+      return Float.compare(_values[slot1], _values[slot2]) * _orderMultiplier;
+    }
+  }
+
+  private static final class DoubleSortColumn extends SortColumn {
+    private final double[] _values;
+
+    DoubleSortColumn(boolean isAsc, int numSlots, Dictionary dictionary) {
+      super(isAsc, dictionary);
+      _values = new double[numSlots];
+    }
+
+    @Override
+    void read(int docId, int slot) {
+      _iterator.skipTo(docId);
+      _values[slot] =
+          (_dictionary == null) ? _iterator.nextDoubleVal() : _dictionary.getDoubleValue(_iterator.nextIntVal());
+    }
+
+    @Override
+    int compare(int slot1, int slot2) {
+      return Double.compare(_values[slot1], _values[slot2]) * _orderMultiplier;
+    }
+  }
+
+  private static final class StringSortColumn extends SortColumn {
+    private final String[] _values;
+
+    StringSortColumn(boolean isAsc, int numSlots, Dictionary dictionary) {
+      super(isAsc, dictionary);
+      _values = new String[numSlots];
+    }
+
+    @Override
+    void read(int docId, int slot) {
+      _iterator.skipTo(docId);
+      _values[slot] =
+          (_dictionary == null) ? _iterator.nextStringVal() : _dictionary.getStringValue(_iterator.nextIntVal());
+    }
+
+    @Override
+    int compare(int slot1, int slot2) {
+      return _values[slot1].compareTo(_values[slot2]) * _orderMultiplier;
+    }
+  }
+}
@@ -17,6 +17,7 @@ package com.linkedin.pinot.core.realtime;
 
 import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import java.util.List;
 
 
 public interface RealtimeSegment extends IndexSegment {
@@ -29,6 +30,15 @@ public interface RealtimeSegment extends IndexSegment {
    */
   boolean index(GenericRow row);
 
+  /**
+   * Indexes a batch of records into the segment in order, stopping at the record that fills the segment.
+   *
+   * @param rows Records represented as {@link GenericRow}s
+   * @return Whether the segment can index more records, if not the records after the one that filled the segment are
+   *         not indexed
+   */
+  boolean index(List<GenericRow> rows);
+
   /**
    * Returns the number of records already indexed into the segment.
    *
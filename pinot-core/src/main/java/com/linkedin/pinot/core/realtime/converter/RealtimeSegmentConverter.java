@@ -48,11 +48,21 @@ public class RealtimeSegmentConverter {
   private String sortedColumn;
   private List<String> invertedIndexColumns;
   private List<String> noDictionaryColumns;
+  private Map<String, ChunkCompressorFactory.CompressionType> noDictionaryCompressionTypes;
   private StarTreeIndexSpec starTreeIndexSpec;
 
   public RealtimeSegmentConverter(RealtimeSegmentImpl realtimeSegment, String outputPath, Schema schema,
       String tableName, String segmentName, String sortedColumn, List<String> invertedIndexColumns,
       List<String> noDictionaryColumns, StarTreeIndexSpec starTreeIndexSpec) {
+    this(realtimeSegment, outputPath, schema, tableName, segmentName, sortedColumn, invertedIndexColumns,
+        noDictionaryColumns, null, starTreeIndexSpec);
+  }
+
+  public RealtimeSegmentConverter(RealtimeSegmentImpl realtimeSegment, String outputPath, Schema schema,
+      String tableName, String segmentName, String sortedColumn, List<String> invertedIndexColumns,
+      List<String> noDictionaryColumns,
+      @Nullable Map<String, ChunkCompressorFactory.CompressionType> noDictionaryCompressionTypes,
+      StarTreeIndexSpec starTreeIndexSpec) {
     if (new File(outputPath).exists()) {
       throw new IllegalAccessError("path already exists:" + outputPath);
     }
@@ -82,6 +92,7 @@ public class RealtimeSegmentConverter {
     this.tableName = tableName;
     this.segmentName = segmentName;
     this.noDictionaryColumns = noDictionaryColumns;
+    this.noDictionaryCompressionTypes = noDictionaryCompressionTypes;
     this.starTreeIndexSpec = starTreeIndexSpec;
   }
 
@@ -110,7 +121,10 @@ public class RealtimeSegmentConverter {
       Map<String, ChunkCompressorFactory.CompressionType> columnToCompressionType = new HashMap<>();
       for (String column : noDictionaryColumns) {
         FieldSpec fieldSpec = dataSchema.getFieldSpecFor(column);
-        if (fieldSpec.getFieldType().equals(FieldSpec.FieldType.METRIC)) {
+        if (noDictionaryCompressionTypes != null && noDictionaryCompressionTypes.containsKey(column)) {
+          // Compression type configured in the table config takes precedence over the default one.
+          columnToCompressionType.put(column, noDictionaryCompressionTypes.get(column));
+        } else if (fieldSpec.getFieldType().equals(FieldSpec.FieldType.METRIC)) {
           columnToCompressionType.put(column, ChunkCompressorFactory.CompressionType.PASS_THROUGH);
         }
       }
@@ -18,6 +18,7 @@ package com.linkedin.pinot.core.realtime.impl;
 import com.google.common.base.Preconditions;
 import com.linkedin.pinot.common.config.SegmentPartitionConfig;
 import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.core.data.GenericRow;
@@ -39,6 +40,7 @@ import com.linkedin.pinot.core.util.IdMap;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.roaringbitmap.IntIterator;
@@ -50,6 +52,7 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
   // For multi-valued column, forward-index.
   // Maximum number of multi-values per row. We assert on this.
   private static final int MAX_MULTI_VALUES_PER_ROW = 1000;
+  private static final int INITIAL_MULTI_VALUES_BUFFER_SIZE = 16;
   private static final String RECORD_ID_MAP = "__recordIdMap__";
   private static final int EXPECTED_COMPRESSION = 1000;
   private static final int MIN_ROWS_TO_INDEX = 1000_000; // Min size of recordIdMap for updatable metrics.
@@ -74,6 +77,13 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
   private final IdMap<FixedIntArray> _recordIdMap;
   private final boolean _aggregateMetrics;
 
+  // Precomputed per-column indexers in the order of the schema field specs, used on the indexing path to avoid map
+  // lookups and per-row allocation
+  private final ColumnIndexer[] _columnIndexers;
+  // Dimension columns followed by the time column, used as the key for metrics aggregation
+  private final ColumnIndexer[] _keyColumnIndexers;
+  private final ColumnIndexer[] _metricColumnIndexers;
+
   private volatile int _numDocsIndexed = 0;
   private volatile long segmentHitCount = 0;
 
@@ -116,6 +126,7 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
     int avgNumMultiValues = config.getAvgNumMultiValues();
 
     // Initialize for each column
+    Map<String, ColumnIndexer> columnIndexerMap = new HashMap<>();
     for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
       String column = fieldSpec.getName();
       _maxNumValuesMap.put(column, 0);
@@ -162,6 +173,31 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
       if (invertedIndexColumns.contains(column)) {
         _invertedIndexMap.put(column, new RealtimeInvertedIndexReader());
       }
+
+      columnIndexerMap.put(column,
+          new ColumnIndexer(fieldSpec, _dictionaryMap.get(column), indexReaderWriter, _invertedIndexMap.get(column)));
+    }
+
+    _columnIndexers = new ColumnIndexer[columnIndexerMap.size()];
+    int i = 0;
+    for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
+      _columnIndexers[i++] = columnIndexerMap.get(fieldSpec.getName());
+    }
+    List<String> dimensionNames = _schema.getDimensionNames();
+    String timeColumnName = _schema.getTimeColumnName();
+    _keyColumnIndexers = new ColumnIndexer[dimensionNames.size() + (timeColumnName != null ? 1 : 0)];
+    i = 0;
+    for (String dimensionName : dimensionNames) {
+      _keyColumnIndexers[i++] = columnIndexerMap.get(dimensionName);
+    }
+    if (timeColumnName != null) {
+      _keyColumnIndexers[i] = columnIndexerMap.get(timeColumnName);
+    }
+    List<MetricFieldSpec> metricFieldSpecs = _schema.getMetricFieldSpecs();
+    _metricColumnIndexers = new ColumnIndexer[metricFieldSpecs.size()];
+    i = 0;
+    for (MetricFieldSpec metricFieldSpec : metricFieldSpecs) {
+      _metricColumnIndexers[i++] = columnIndexerMap.get(metricFieldSpec.getName());
     }
   }
 
@@ -180,84 +216,87 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
   @Override
   public boolean index(GenericRow row) {
     // Update dictionary first
-    Map<String, Object> dictIdMap = updateDictionary(row);
+    updateDictionary(row);
 
     int numDocs = _numDocsIndexed;
-    int docId = getOrCreateDocId(dictIdMap);
+    int docId = getOrCreateDocId();
 
     if (docId == numDocs) {
       // Add forward and inverted indices for new document.
-      addForwardIndex(row, docId, dictIdMap);
-      addInvertedIndex(docId, dictIdMap);
+      addForwardIndex(docId);
+      addInvertedIndex(docId);
       // Update number of document indexed at last to make the latest record queryable
       return _numDocsIndexed++ < _capacity;
     } else {
       Preconditions.checkState(_aggregateMetrics,
           "Invalid document-id during indexing: " + docId + " expected: " + numDocs);
       // Update metrics for existing document.
-      return aggregateMetrics(row, docId);
+      return aggregateMetrics(docId);
     }
   }
 
-  private Map<String, Object> updateDictionary(GenericRow row) {
-    Map<String, Object> dictIdMap = new HashMap<>();
-    for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
-      String column = fieldSpec.getName();
-      Object value = row.getValue(column);
-      MutableDictionary dictionary = _dictionaryMap.get(column);
-      if (dictionary != null) {
-        dictionary.index(value);
+  @Override
+  public boolean index(List<GenericRow> rows) {
+    for (GenericRow row : rows) {
+      if (!index(row)) {
+        return false;
       }
-      // Update max number of values for multi-value column
-      if (fieldSpec.isSingleValueField()) {
+    }
+    return true;
+  }
+
+  private void updateDictionary(GenericRow row) {
+    for (ColumnIndexer columnIndexer : _columnIndexers) {
+      Object value = row.getValue(columnIndexer._column);
+      columnIndexer._value = value;
+      MutableDictionary dictionary = columnIndexer._dictionary;
+      if (columnIndexer._isSingleValue) {
         if (dictionary != null) {
-          dictIdMap.put(column, dictionary.indexOf(value));
+          dictionary.index(value);
+          columnIndexer._dictId = dictionary.indexOf(value);
+        }
+        // Update min/max value for time column
+        if (columnIndexer._isTimeColumn) {
+          long timeValue;
+          if (value instanceof Number) {
+            timeValue = ((Number) value).longValue();
+          } else {
+            timeValue = Long.valueOf(value.toString());
+          }
+          _minTime = Math.min(_minTime, timeValue);
+          _maxTime = Math.max(_maxTime, timeValue);
         }
       } else {
         // No-dictionary not supported for multi-valued columns.
-        int i = 0;
+        dictionary.index(value);
         Object[] values = (Object[]) value;
-        int[] dictIds = new int[values.length];
-        for (Object object : values) {
-          dictIds[i++] = dictionary.indexOf(object);
+        int numValues = values.length;
+        int[] dictIds = columnIndexer.getDictIdsBuffer(numValues);
+        for (int i = 0; i < numValues; i++) {
+          dictIds[i] = dictionary.indexOf(values[i]);
         }
-        dictIdMap.put(column, dictIds);
-        int numValues = ((Object[]) value).length;
-        if (_maxNumValuesMap.get(column) < numValues) {
-          _maxNumValuesMap.put(column, numValues);
+        columnIndexer._numValues = numValues;
+        // Update max number of values for multi-value column
+        if (columnIndexer._maxNumValues < numValues) {
+          columnIndexer._maxNumValues = numValues;
+          _maxNumValuesMap.put(columnIndexer._column, numValues);
         }
-        continue;
-      }
-      // Update min/max value for time column
-      if (fieldSpec.getFieldType().equals(FieldSpec.FieldType.TIME)) {
-        long timeValue;
-        if (value instanceof Number) {
-          timeValue = ((Number) value).longValue();
-        } else {
-          timeValue = Long.valueOf(value.toString());
-        }
-        _minTime = Math.min(_minTime, timeValue);
-        _maxTime = Math.max(_maxTime, timeValue);
       }
     }
-    return dictIdMap;
   }
 
-  private void addForwardIndex(GenericRow row, int docId, Map<String, Object> dictIdMap) {
+  private void addForwardIndex(int docId) {
     // Store dictionary Id(s) for columns with dictionary
-    for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
-      String column = fieldSpec.getName();
-      Object value = row.getValue(column);
-      if (fieldSpec.isSingleValueField()) {
-        FixedByteSingleColumnSingleValueReaderWriter indexReaderWriter =
-            (FixedByteSingleColumnSingleValueReaderWriter) _indexReaderWriterMap.get(column);
-        Integer dictId = (Integer) dictIdMap.get(column);
-        if (dictId != null) {
+    for (ColumnIndexer columnIndexer : _columnIndexers) {
+      if (columnIndexer._isSingleValue) {
+        FixedByteSingleColumnSingleValueReaderWriter indexReaderWriter = columnIndexer._svForwardIndex;
+        if (columnIndexer._dictionary != null) {
           // Column with dictionary
-          indexReaderWriter.setInt(docId, dictId);
+          indexReaderWriter.setInt(docId, columnIndexer._dictId);
         } else {
           // No-dictionary column
-          FieldSpec.DataType dataType = fieldSpec.getDataType();
+          Object value = columnIndexer._value;
+          FieldSpec.DataType dataType = columnIndexer._dataType;
           switch (dataType) {
             case INT:
               indexReaderWriter.setInt(docId, (Integer) value);
@@ -273,45 +312,43 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
               break;
             default:
               throw new UnsupportedOperationException(
-                  "Unsupported data type: " + dataType + " for no-dictionary column: " + column);
+                  "Unsupported data type: " + dataType + " for no-dictionary column: " + columnIndexer._column);
           }
         }
       } else {
-        int[] dictIds = (int[]) dictIdMap.get(column);
-        ((FixedByteSingleColumnMultiValueReaderWriter) _indexReaderWriterMap.get(column)).setIntArray(docId, dictIds);
+        columnIndexer._mvForwardIndex.setIntArray(docId, columnIndexer._dictIds, columnIndexer._numValues);
       }
     }
   }
 
-  private void addInvertedIndex(int docId, Map<String, Object> dictIdMap) {
+  private void addInvertedIndex(int docId) {
     // Update inverted index at last
     // NOTE: inverted index have to be updated at last because once it gets updated, the latest record will become
     // queryable
-    for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
-      String column = fieldSpec.getName();
-      RealtimeInvertedIndexReader invertedIndex = _invertedIndexMap.get(column);
+    for (ColumnIndexer columnIndexer : _columnIndexers) {
+      RealtimeInvertedIndexReader invertedIndex = columnIndexer._invertedIndex;
       if (invertedIndex != null) {
-        if (fieldSpec.isSingleValueField()) {
-          invertedIndex.add(((Integer) dictIdMap.get(column)), docId);
+        if (columnIndexer._isSingleValue) {
+          invertedIndex.add(columnIndexer._dictId, docId);
         } else {
-          int[] dictIds = (int[]) dictIdMap.get(column);
-          for (int dictId : dictIds) {
-            invertedIndex.add(dictId, docId);
+          int[] dictIds = columnIndexer._dictIds;
+          int numValues = columnIndexer._numValues;
+          for (int i = 0; i < numValues; i++) {
+            invertedIndex.add(dictIds[i], docId);
           }
         }
       }
     }
   }
 
-  private boolean aggregateMetrics(GenericRow row, int docId) {
-    for (FieldSpec metricSpec : _schema.getMetricFieldSpecs()) {
-      String column = metricSpec.getName();
-      Object value = row.getValue(column);
-      Preconditions.checkState(metricSpec.isSingleValueField(), "Multivalued metrics cannot be updated.");
-      FixedByteSingleColumnSingleValueReaderWriter indexReaderWriter =
-          (FixedByteSingleColumnSingleValueReaderWriter) _indexReaderWriterMap.get(column);
-      Preconditions.checkState(_dictionaryMap.get(column) == null, "Updating metrics not supported with dictionary.");
-      FieldSpec.DataType dataType = metricSpec.getDataType();
+  private boolean aggregateMetrics(int docId) {
+    for (ColumnIndexer columnIndexer : _metricColumnIndexers) {
+      String column = columnIndexer._column;
+      Object value = columnIndexer._value;
+      Preconditions.checkState(columnIndexer._isSingleValue, "Multivalued metrics cannot be updated.");
+      FixedByteSingleColumnSingleValueReaderWriter indexReaderWriter = columnIndexer._svForwardIndex;
+      Preconditions.checkState(columnIndexer._dictionary == null, "Updating metrics not supported with dictionary.");
+      FieldSpec.DataType dataType = columnIndexer._dataType;
       switch (dataType) {
         case INT:
           indexReaderWriter.setInt(docId, (Integer) value + indexReaderWriter.getInt(docId));
@@ -320,10 +357,10 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
           indexReaderWriter.setLong(docId, (Long) value + indexReaderWriter.getLong(docId));
           break;
         case FLOAT:
-          indexReaderWriter.setFloat(docId, indexReaderWriter.getFloat(docId) + indexReaderWriter.getFloat(docId));
+          indexReaderWriter.setFloat(docId, (Float) value + indexReaderWriter.getFloat(docId));
           break;
         case DOUBLE:
-          indexReaderWriter.setDouble(docId, indexReaderWriter.getDouble(docId) + indexReaderWriter.getDouble(docId));
+          indexReaderWriter.setDouble(docId, (Double) value + indexReaderWriter.getDouble(docId));
           break;
         default:
           throw new UnsupportedOperationException(
@@ -666,21 +703,15 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
     return segmentName + ":" + columnName + indexType;
   }
 
-  private int getOrCreateDocId(Map<String, Object> dictIdMap) {
+  private int getOrCreateDocId() {
     if (!_aggregateMetrics) {
       return _numDocsIndexed;
     }
 
-    int i = 0;
+    // NOTE: the record id map keeps a reference to the key, so a new array is needed for each row
     int[] dictIds = new int[_numKeyColumns]; // dimensions + time column.
-
-    for (String column : _schema.getDimensionNames()) {
-      dictIds[i++] = (Integer) dictIdMap.get(column);
-    }
-
-    String timeColumnName = _schema.getTimeColumnName();
-    if (timeColumnName != null) {
-      dictIds[i] = (Integer) dictIdMap.get(timeColumnName);
+    for (int i = 0; i < _keyColumnIndexers.length; i++) {
+      dictIds[i] = _keyColumnIndexers[i]._dictId;
     }
     return _recordIdMap.put(new FixedIntArray(dictIds));
   }
@@ -708,4 +739,49 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
     return new FixedIntArrayOffHeapIdMap(estimatedRowsToIndex, maxOverFlowHashSize, _numKeyColumns, _memoryManager,
         RECORD_ID_MAP);
   }
+
+  /**
+   * Indexing state for a column, including the scratch values of the row being indexed which are reused across rows.
+   */
+  private static class ColumnIndexer {
+    final String _column;
+    final FieldSpec.DataType _dataType;
+    final boolean _isSingleValue;
+    final boolean _isTimeColumn;
+    final MutableDictionary _dictionary;
+    final FixedByteSingleColumnSingleValueReaderWriter _svForwardIndex;
+    final FixedByteSingleColumnMultiValueReaderWriter _mvForwardIndex;
+    final RealtimeInvertedIndexReader _invertedIndex;
+
+    Object _value;
+    int _dictId;
+    int[] _dictIds;
+    int _numValues;
+    int _maxNumValues;
+
+    ColumnIndexer(FieldSpec fieldSpec, MutableDictionary dictionary, DataFileReader indexReaderWriter,
+        RealtimeInvertedIndexReader invertedIndex) {
+      _column = fieldSpec.getName();
+      _dataType = fieldSpec.getDataType();
+      _isSingleValue = fieldSpec.isSingleValueField();
+      _isTimeColumn = fieldSpec.getFieldType() == FieldSpec.FieldType.TIME;
+      _dictionary = dictionary;
+      if (_isSingleValue) {
+        _svForwardIndex = (FixedByteSingleColumnSingleValueReaderWriter) indexReaderWriter;
+        _mvForwardIndex = null;
+      } else {
+        _svForwardIndex = null;
+        _mvForwardIndex = (FixedByteSingleColumnMultiValueReaderWriter) indexReaderWriter;
+        _dictIds = new int[INITIAL_MULTI_VALUES_BUFFER_SIZE];
+      }
+      _invertedIndex = invertedIndex;
+    }
+
+    int[] getDictIdsBuffer(int numValues) {
+      if (_dictIds.length < numValues) {
+        _dictIds = new int[Math.max(numValues, _dictIds.length * 2)];
+      }
+      return _dictIds;
+    }
+  }
 }
@@ -16,79 +16,83 @@
 package com.linkedin.pinot.core.realtime.impl.invertedindex;
 
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import java.util.Arrays;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 
 
-public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableRoaringBitmap> {
-  private final List<ThreadSafeMutableRoaringBitmap> _bitmaps = new ArrayList<>();
-  private final ReentrantReadWriteLock.ReadLock _readLock;
-  private final ReentrantReadWriteLock.WriteLock _writeLock;
+/**
+ * Inverted index for the mutable segment, written by the single consuming thread and read by query threads without
+ * locking.
+ * <p>Each dictionary id maps to a {@link RealtimePostingList}. Posting lists are published the same way as the
+ * document ids within a posting list: the writer stores the posting list into the array before publishing the new
+ * number of posting lists through a volatile write, and publishes the grown array through a volatile write before
+ * storing any new posting list into it.
+ * <p>Document ids are appended in increasing order before the segment updates its number of indexed documents, so
+ * the bitmaps returned might contain the document being indexed. Readers bound the snapshot by the number of
+ * documents indexed captured when the query starts (the end document id of the filter operators).
+ */
+public class RealtimeInvertedIndexReader implements InvertedIndexReader<ImmutableRoaringBitmap> {
+  private static final int INITIAL_CAPACITY = 16;
 
-  public RealtimeInvertedIndexReader() {
-    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    _readLock = readWriteLock.readLock();
-    _writeLock = readWriteLock.writeLock();
-  }
+  // Only modified by the writer thread, volatile to publish the content of the grown array
+  private volatile RealtimePostingList[] _postingLists = new RealtimePostingList[INITIAL_CAPACITY];
+  private volatile int _numPostingLists;
 
   /**
-   * Add the document id to the bitmap for the given dictionary id.
+   * Add the document id to the posting list for the given dictionary id.
+   * <p>Must be called by a single writer thread with non-decreasing document ids.
    */
   public void add(int dictId, int docId) {
-    if (_bitmaps.size() == dictId) {
-      // Bitmap for the dictionary id does not exist, add a new bitmap into the list
-      ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap(docId);
-      try {
-        _writeLock.lock();
-        _bitmaps.add(bitmap);
-      } finally {
-        _writeLock.unlock();
-      }
+    int numPostingLists = _numPostingLists;
+    RealtimePostingList[] postingLists = _postingLists;
+    if (dictId < numPostingLists) {
+      // Posting list for the dictionary id already exists, append the document id
+      postingLists[dictId].add(docId);
     } else {
-      // Bitmap for the dictionary id already exists, check and add document id into the bitmap
-      _bitmaps.get(dictId).checkAndAdd(docId);
+      // Posting list for the dictionary id does not exist, add a new posting list
+      // NOTE: dictionary ids are assigned sequentially, so the new dictionary id is always the next one
+      if (numPostingLists == postingLists.length) {
+        postingLists = Arrays.copyOf(postingLists, numPostingLists << 1);
+        // Publish the grown array
+        _postingLists = postingLists;
+      }
+      postingLists[dictId] = new RealtimePostingList(docId);
+      // Publish the posting list
+      _numPostingLists = dictId + 1;
     }
   }
 
-  @Override
-  public MutableRoaringBitmap getDocIds(int dictId) {
-    ThreadSafeMutableRoaringBitmap bitmap;
-    try {
-      _readLock.lock();
-      bitmap = _bitmaps.get(dictId);
-    } finally {
-      _readLock.unlock();
+  /**
+   * Returns the posting list for the given dictionary id, or <code>null</code> if no document has been indexed for the
+   * dictionary id yet.
+   */
+  public RealtimePostingList getPostingList(int dictId) {
+    // NOTE: read the number of posting lists before the array so that all the posting lists within it are visible
+    int numPostingLists = _numPostingLists;
+    RealtimePostingList[] postingLists = _postingLists;
+    if (dictId < numPostingLists) {
+      return postingLists[dictId];
+    } else {
+      return null;
     }
-    return bitmap.getMutableRoaringBitmap();
-  }
-
-  @Override
-  public void close() {
   }
 
   /**
-   * Helper wrapper class for {@link MutableRoaringBitmap} to make it thread-safe.
+   * {@inheritDoc}
+   * <p>Returns <code>null</code> if no document has been indexed for the dictionary id yet. The returned bitmap is
+   * shared among readers and must not be modified.
    */
-  private static class ThreadSafeMutableRoaringBitmap {
-    private MutableRoaringBitmap _mutableRoaringBitmap;
-
-    public ThreadSafeMutableRoaringBitmap(int firstDocId) {
-      _mutableRoaringBitmap = new MutableRoaringBitmap();
-      _mutableRoaringBitmap.add(firstDocId);
-    }
-
-    public void checkAndAdd(int docId) {
-      if (!_mutableRoaringBitmap.contains(docId)) {
-        synchronized (this) {
-          _mutableRoaringBitmap.add(docId);
-        }
-      }
+  @Override
+  public ImmutableRoaringBitmap getDocIds(int dictId) {
+    RealtimePostingList postingList = getPostingList(dictId);
+    if (postingList != null) {
+      return postingList.getDocIds();
+    } else {
+      return null;
     }
+  }
 
-    public synchronized MutableRoaringBitmap getMutableRoaringBitmap() {
-      return _mutableRoaringBitmap.clone();
-    }
+  @Override
+  public void close() {
   }
 }
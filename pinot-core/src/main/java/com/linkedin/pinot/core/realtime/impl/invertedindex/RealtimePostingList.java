@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl.invertedindex;
+
+import java.util.Arrays;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Append-only posting list for the realtime inverted index, written by a single consuming thread and read by any number
+ * of query threads without locking.
+ * <p>Document ids are appended in increasing order. The writer stores the document id into the array before publishing
+ * the new size through a volatile write, so a reader that reads the size first always sees a fully written prefix of
+ * the array. When the array is full, it is replaced by a larger copy that is published through a volatile write
+ * before any new document id is stored into it, so a reader that sees the new array also sees the copied prefix.
+ * <p>Readers get the posting list as an {@link ImmutableRoaringBitmap} so that it plugs into the existing bitmap based
+ * filter operators. The bitmap is built lazily and cached, and later readers only append the document ids added after
+ * the cached snapshot.
+ */
+public class RealtimePostingList {
+  private static final int INITIAL_CAPACITY = 4;
+
+  // Only modified by the writer thread, volatile to publish the content of the grown array
+  private volatile int[] _docIds = new int[INITIAL_CAPACITY];
+  private volatile int _size;
+
+  // Cached bitmap snapshot shared by the readers
+  private volatile BitmapSnapshot _snapshot = new BitmapSnapshot(0, new MutableRoaringBitmap());
+
+  public RealtimePostingList(int firstDocId) {
+    _docIds[0] = firstDocId;
+    _size = 1;
+  }
+
+  /**
+   * Appends the document id into the posting list. Must be called by a single writer thread with non-decreasing
+   * document ids. Duplicate document id (e.g. multi-value column with repeated values) is ignored.
+   */
+  public void add(int docId) {
+    int size = _size;
+    int[] docIds = _docIds;
+    if (docIds[size - 1] == docId) {
+      return;
+    }
+    if (size == docIds.length) {
+      docIds = Arrays.copyOf(docIds, size << 1);
+      // Publish the grown array
+      _docIds = docIds;
+    }
+    docIds[size] = docId;
+    // Publish the document id
+    _size = size + 1;
+  }
+
+  /**
+   * Returns the number of document ids published in the posting list.
+   */
+  public int size() {
+    return _size;
+  }
+
+  /**
+   * Returns a consistent snapshot of the posting list as a bitmap.
+   * <p>The returned bitmap is shared among readers and must not be modified.
+   */
+  public ImmutableRoaringBitmap getDocIds() {
+    // NOTE: read the size before the array so that all the values within the size are visible
+    int size = _size;
+    int[] docIds = _docIds;
+
+    BitmapSnapshot snapshot = _snapshot;
+    if (snapshot._size >= size) {
+      return snapshot._bitmap;
+    }
+
+    MutableRoaringBitmap bitmap = snapshot._bitmap.clone();
+    for (int i = snapshot._size; i < size; i++) {
+      bitmap.add(docIds[i]);
+    }
+    // Benign race: concurrent readers might replace each other's snapshot, but every snapshot is consistent
+    if (_snapshot._size < size) {
+      _snapshot = new BitmapSnapshot(size, bitmap);
+    }
+    return bitmap;
+  }
+
+  private static class BitmapSnapshot {
+    final int _size;
+    final MutableRoaringBitmap _bitmap;
+
+    BitmapSnapshot(int size, MutableRoaringBitmap bitmap) {
+      _size = size;
+      _bitmap = bitmap;
+    }
+  }
+}
@@ -34,6 +34,7 @@ import com.linkedin.pinot.core.segment.creator.SegmentCreator;
 import com.linkedin.pinot.core.segment.creator.SegmentIndexCreationInfo;
 import com.linkedin.pinot.core.segment.creator.SingleValueForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.SingleValueRawIndexCreator;
+import com.linkedin.pinot.core.segment.creator.impl.bloom.BloomFilterCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.MultiValueUnsortedForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueFixedByteRawIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueSortedForwardIndexCreator;
@@ -70,6 +71,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private Map<String, SegmentDictionaryCreator> _dictionaryCreatorMap = new HashMap<>();
   private Map<String, ForwardIndexCreator> _forwardIndexCreatorMap = new HashMap<>();
   private Map<String, InvertedIndexCreator> _invertedIndexCreatorMap = new HashMap<>();
+  private Map<String, BloomFilterCreator> _bloomFilterCreatorMap = new HashMap<>();
   private String segmentName;
   private Schema schema;
   private File _indexDir;
@@ -112,6 +114,12 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           "Cannot create inverted index for column: %s because it is not in schema", columnName);
       invertedIndexColumns.add(columnName);
     }
+    Set<String> bloomFilterColumns = new HashSet<>();
+    for (String columnName : config.getBloomFilterCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create bloom filter for column: %s because it is not in schema", columnName);
+      bloomFilterColumns.add(columnName);
+    }
 
     // Initialize creators for dictionary, forward index and inverted index
     for (FieldSpec fieldSpec : fieldSpecs) {
@@ -128,7 +136,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         // Initialize dictionary creator
         SegmentDictionaryCreator dictionaryCreator =
             new SegmentDictionaryCreator(hasNulls, indexCreationInfo.getSortedUniqueElementsArray(), fieldSpec,
-                _indexDir);
+                _indexDir, segmentCreationSpec.getVarLengthDictionaryColumns().contains(columnName));
         _dictionaryCreatorMap.put(columnName, dictionaryCreator);
 
         // Create dictionary
@@ -178,6 +186,14 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
             getRawIndexCreatorForColumn(_indexDir, compressionType, columnName, fieldSpec.getDataType(), totalDocs,
                 indexCreationInfo.getLegnthOfLongestEntry()));
       }
+
+      // Initialize bloom filter creator, all the unique values are already known from the stats collector
+      if (bloomFilterColumns.contains(columnName)) {
+        BloomFilterCreator bloomFilterCreator =
+            new BloomFilterCreator(_indexDir, columnName, indexCreationInfo.getDistinctValueCount());
+        bloomFilterCreator.addAll(indexCreationInfo.getSortedUniqueElementsArray());
+        _bloomFilterCreatorMap.put(columnName, bloomFilterCreator);
+      }
     }
   }
 
@@ -256,6 +272,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     for (InvertedIndexCreator invertedIndexCreator : _invertedIndexCreatorMap.values()) {
       invertedIndexCreator.seal();
     }
+    for (BloomFilterCreator bloomFilterCreator : _bloomFilterCreatorMap.values()) {
+      bloomFilterCreator.seal();
+    }
     writeMetadata();
   }
 
@@ -345,6 +364,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       addColumnMetadataInfo(properties, column, columnIndexCreationInfo, totalDocs, totalRawDocs, totalAggDocs,
           schema.getFieldSpecFor(column), _dictionaryCreatorMap.containsKey(column), dictionaryElementSize,
           hasInvertedIndex, hllOriginColumn);
+      if (dictionaryCreator != null && dictionaryCreator.isVarLengthDictionary()) {
+        properties.setProperty(getKeyFor(column, IS_VAR_LENGTH_DICTIONARY), String.valueOf(true));
+      }
     }
 
     properties.save();
@@ -430,6 +452,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     properties.clearProperty(getKeyFor(column, IS_SORTED));
     properties.clearProperty(getKeyFor(column, HAS_NULL_VALUE));
     properties.clearProperty(getKeyFor(column, HAS_DICTIONARY));
+    properties.clearProperty(getKeyFor(column, IS_VAR_LENGTH_DICTIONARY));
     properties.clearProperty(getKeyFor(column, HAS_INVERTED_INDEX));
     properties.clearProperty(getKeyFor(column, IS_SINGLE_VALUED));
     properties.clearProperty(getKeyFor(column, MAX_MULTI_VALUE_ELEMTS));
@@ -504,5 +527,8 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     for (InvertedIndexCreator invertedIndexCreator : _invertedIndexCreatorMap.values()) {
       invertedIndexCreator.close();
     }
+    for (BloomFilterCreator bloomFilterCreator : _bloomFilterCreatorMap.values()) {
+      bloomFilterCreator.close();
+    }
   }
 }
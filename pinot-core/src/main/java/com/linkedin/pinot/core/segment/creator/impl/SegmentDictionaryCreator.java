@@ -17,7 +17,9 @@ package com.linkedin.pinot.core.segment.creator.impl;
 
 import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.segment.ReadMode;
 import com.linkedin.pinot.core.io.writer.impl.FixedByteSingleValueMultiColWriter;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import it.unimi.dsi.fastutil.doubles.Double2IntOpenHashMap;
 import it.unimi.dsi.fastutil.floats.Float2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
@@ -26,6 +28,7 @@ import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.ArrayUtils;
@@ -41,6 +44,7 @@ public class SegmentDictionaryCreator implements Closeable {
   private final FieldSpec spec;
   private final File dictionaryFile;
   private final int rowCount;
+  private final boolean useVarLengthDictionary;
 
   private Int2IntOpenHashMap intValueToIndexMap;
   private Long2IntOpenHashMap longValueToIndexMap;
@@ -52,6 +56,15 @@ public class SegmentDictionaryCreator implements Closeable {
 
   public SegmentDictionaryCreator(boolean hasNulls, Object sortedList, FieldSpec spec, File indexDir)
       throws IOException {
+    this(hasNulls, sortedList, spec, indexDir, false);
+  }
+
+  /**
+   * @param useVarLengthDictionary Whether to store string values as variable length (unpadded) UTF-8 bytes, see
+   *                               {@link com.linkedin.pinot.core.segment.index.readers.VarLengthStringDictionary}
+   */
+  public SegmentDictionaryCreator(boolean hasNulls, Object sortedList, FieldSpec spec, File indexDir,
+      boolean useVarLengthDictionary) throws IOException {
     rowCount = ArrayUtils.getLength(sortedList);
 
     Object first = null;
@@ -98,6 +111,7 @@ public class SegmentDictionaryCreator implements Closeable {
     }
     this.sortedList = sortedList;
     this.spec = spec;
+    this.useVarLengthDictionary = useVarLengthDictionary && spec.getDataType() == FieldSpec.DataType.STRING;
     dictionaryFile = new File(indexDir, spec.getName() + V1Constants.Dict.FILE_EXTENSION);
     FileUtils.touch(dictionaryFile);
   }
@@ -173,6 +187,11 @@ public class SegmentDictionaryCreator implements Closeable {
           }
         }
 
+        if (useVarLengthDictionary) {
+          buildVarLengthStringDictionary(sortedStrings);
+          break;
+        }
+
         final FixedByteSingleValueMultiColWriter stringDictionaryWrite =
             new FixedByteSingleValueMultiColWriter(dictionaryFile, rowCount, 1, new int[]{stringColumnMaxLength});
         stringValueToIndexMap = new Object2IntOpenHashMap<>(rowCount);
@@ -188,10 +207,45 @@ public class SegmentDictionaryCreator implements Closeable {
     }
   }
 
+  /**
+   * Writes the offsets of the values followed by the packed UTF-8 bytes of the values.
+   */
+  private void buildVarLengthStringDictionary(String[] sortedStrings) throws IOException {
+    byte[][] valueBytes = new byte[rowCount][];
+    int offset = (rowCount + 1) * V1Constants.Numbers.INTEGER_SIZE;
+    int dictionarySize = offset;
+    for (int i = 0; i < rowCount; i++) {
+      valueBytes[i] = sortedStrings[i].getBytes(UTF_8);
+      dictionarySize += valueBytes[i].length;
+    }
+
+    PinotDataBuffer dataBuffer = PinotDataBuffer.fromFile(dictionaryFile, 0, dictionarySize, ReadMode.mmap,
+        FileChannel.MapMode.READ_WRITE, dictionaryFile.getAbsolutePath());
+    try {
+      stringValueToIndexMap = new Object2IntOpenHashMap<>(rowCount);
+      for (int i = 0; i < rowCount; i++) {
+        dataBuffer.putInt(i * V1Constants.Numbers.INTEGER_SIZE, offset);
+        dataBuffer.readFrom(valueBytes[i], offset);
+        offset += valueBytes[i].length;
+        stringValueToIndexMap.put(sortedStrings[i], i);
+      }
+      dataBuffer.putInt(rowCount * V1Constants.Numbers.INTEGER_SIZE, offset);
+    } finally {
+      dataBuffer.close();
+    }
+  }
+
   public int getStringColumnMaxLength() {
     return stringColumnMaxLength;
   }
 
+  /**
+   * Returns true if the dictionary stores variable length (unpadded) string values.
+   */
+  public boolean isVarLengthDictionary() {
+    return useVarLengthDictionary;
+  }
+
   public int indexOfSV(Object e) {
     switch (spec.getDataType()) {
       case INT:
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator.impl.bloom;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+
+
+/**
+ * Creator for the per-column bloom filter index.
+ * <p>Values are added by their string representation (the same representation used by the dictionary and by the
+ * query literals), so that a point lookup can be checked against the filter without knowing the column data type.
+ * <p>The serialized format is the one of {@link BloomFilter#writeTo(OutputStream)}.
+ */
+public class BloomFilterCreator implements Closeable {
+  public static final double DEFAULT_FPP = 0.05;
+
+  private final File _bloomFilterFile;
+  private final BloomFilter<CharSequence> _bloomFilter;
+
+  public BloomFilterCreator(File indexDir, String columnName, int cardinality) {
+    this(indexDir, columnName, cardinality, DEFAULT_FPP);
+  }
+
+  public BloomFilterCreator(File indexDir, String columnName, int cardinality, double fpp) {
+    _bloomFilterFile = new File(indexDir, columnName + V1Constants.Indexes.BLOOM_FILTER_FILE_EXTENSION);
+    _bloomFilter = BloomFilter.create(Funnels.stringFunnel(Charsets.UTF_8), Math.max(cardinality, 1), fpp);
+  }
+
+  public void add(Object value) {
+    _bloomFilter.put(value.toString());
+  }
+
+  /**
+   * Adds all values inside of an array of values, e.g. the sorted unique values of a column.
+   */
+  public void addAll(Object values) {
+    int length = Array.getLength(values);
+    for (int i = 0; i < length; i++) {
+      add(Array.get(values, i));
+    }
+  }
+
+  public void seal() throws IOException {
+    try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(_bloomFilterFile))) {
+      _bloomFilter.writeTo(outputStream);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+  }
+}
@@ -61,6 +61,7 @@ public class ColumnMetadata {
   private final boolean containsNulls;
   @JsonProperty
   private final boolean hasDictionary;
+  private final boolean isVarLengthDictionary;
   @JsonProperty
   private final boolean hasInvertedIndex;
   private final boolean isSingleValue;
@@ -98,6 +99,7 @@ public class ColumnMetadata {
     builder.setIsSorted(config.getBoolean(getKeyFor(column, IS_SORTED)));
     builder.setContainsNulls(config.getBoolean(getKeyFor(column, HAS_NULL_VALUE)));
     builder.setHasDictionary(config.getBoolean(getKeyFor(column, HAS_DICTIONARY), true));
+    builder.setVarLengthDictionary(config.getBoolean(getKeyFor(column, IS_VAR_LENGTH_DICTIONARY), false));
     builder.setHasInvertedIndex(config.getBoolean(getKeyFor(column, HAS_INVERTED_INDEX)));
     builder.setSingleValue(config.getBoolean(getKeyFor(column, IS_SINGLE_VALUED)));
     builder.setMaxNumberOfMultiValues(config.getInt(getKeyFor(column, MAX_MULTI_VALUE_ELEMTS)));
@@ -219,6 +221,7 @@ public class ColumnMetadata {
     private boolean isSorted;
     private boolean containsNulls;
     private boolean hasDictionary;
+    private boolean isVarLengthDictionary;
     private boolean hasInvertedIndex;
     private boolean isSingleValue;
     private int maxNumberOfMultiValues;
@@ -298,6 +301,11 @@ public class ColumnMetadata {
       return this;
     }
 
+    public Builder setVarLengthDictionary(boolean isVarLengthDictionary) {
+      this.isVarLengthDictionary = isVarLengthDictionary;
+      return this;
+    }
+
     public Builder setHasInvertedIndex(boolean hasInvertedIndex) {
       this.hasInvertedIndex = hasInvertedIndex;
       return this;
@@ -389,20 +397,22 @@ public class ColumnMetadata {
 
     public ColumnMetadata build() {
       return new ColumnMetadata(columnName, cardinality, totalDocs, totalRawDocs, totalAggDocs, dataType,
-          bitsPerElement, stringColumnMaxLength, fieldType, isSorted, containsNulls, hasDictionary, hasInvertedIndex,
-          isSingleValue, maxNumberOfMultiValues, totalNumberOfEntries, isAutoGenerated, defaultNullValueString,
-          timeUnit, paddingCharacter, derivedMetricType, fieldSize, originColumnName, minValue, maxValue,
-          partitionFunction, numPartitions, partitionValues, dateTimeFormat, dateTimeGranularity);
+          bitsPerElement, stringColumnMaxLength, fieldType, isSorted, containsNulls, hasDictionary,
+          isVarLengthDictionary, hasInvertedIndex, isSingleValue, maxNumberOfMultiValues, totalNumberOfEntries,
+          isAutoGenerated, defaultNullValueString, timeUnit, paddingCharacter, derivedMetricType, fieldSize,
+          originColumnName, minValue, maxValue, partitionFunction, numPartitions, partitionValues, dateTimeFormat,
+          dateTimeGranularity);
     }
   }
 
   private ColumnMetadata(String columnName, int cardinality, int totalDocs, int totalRawDocs, int totalAggDocs,
       DataType dataType, int bitsPerElement, int stringColumnMaxLength, FieldType fieldType, boolean isSorted,
-      boolean hasNulls, boolean hasDictionary, boolean hasInvertedIndex, boolean isSingleValue,
-      int maxNumberOfMultiValues, int totalNumberOfEntries, boolean isAutoGenerated, String defaultNullValueString,
-      TimeUnit timeUnit, char paddingCharacter, DerivedMetricType derivedMetricType, int fieldSize,
-      String originColumnName, Comparable minValue, Comparable maxValue, PartitionFunction partitionFunction,
-      int numPartitions, List<IntRange> partitionRanges, String dateTimeFormat, String dateTimeGranularity) {
+      boolean hasNulls, boolean hasDictionary, boolean isVarLengthDictionary, boolean hasInvertedIndex,
+      boolean isSingleValue, int maxNumberOfMultiValues, int totalNumberOfEntries, boolean isAutoGenerated,
+      String defaultNullValueString, TimeUnit timeUnit, char paddingCharacter, DerivedMetricType derivedMetricType,
+      int fieldSize, String originColumnName, Comparable minValue, Comparable maxValue,
+      PartitionFunction partitionFunction, int numPartitions, List<IntRange> partitionRanges, String dateTimeFormat,
+      String dateTimeGranularity) {
     this.columnName = columnName;
     this.cardinality = cardinality;
     this.totalDocs = totalDocs;
@@ -415,6 +425,7 @@ public class ColumnMetadata {
     this.isSorted = isSorted;
     this.containsNulls = hasNulls;
     this.hasDictionary = hasDictionary;
+    this.isVarLengthDictionary = isVarLengthDictionary;
     this.hasInvertedIndex = hasInvertedIndex;
     this.isSingleValue = isSingleValue;
     this.maxNumberOfMultiValues = maxNumberOfMultiValues;
@@ -510,6 +521,14 @@ public class ColumnMetadata {
     return hasDictionary;
   }
 
+  /**
+   * Returns true if the string dictionary stores variable length (unpadded) values, false if values are padded to
+   * {@link #getStringColumnMaxLength()} bytes.
+   */
+  public boolean isVarLengthDictionary() {
+    return isVarLengthDictionary;
+  }
+
   public boolean hasInvertedIndex() {
     return hasInvertedIndex;
   }
@@ -25,9 +25,12 @@ import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.io.reader.DataFileReader;
 import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
 import com.linkedin.pinot.core.segment.index.data.source.ColumnDataSource;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
 import com.linkedin.pinot.core.segment.store.SegmentDirectory;
 import com.linkedin.pinot.core.startree.StarTree;
 import java.io.IOException;
@@ -40,6 +43,7 @@ import org.slf4j.LoggerFactory;
 
 public class IndexSegmentImpl implements IndexSegment {
   private static final Logger LOGGER = LoggerFactory.getLogger(IndexSegmentImpl.class);
+  private static final int WARM_UP_PAGE_SIZE = 4096;
 
   private SegmentDirectory segmentDirectory;
   private volatile long segmentHitCount = 0;
@@ -83,6 +87,10 @@ public class IndexSegmentImpl implements IndexSegment {
     return indexContainerMap.get(column).getInvertedIndex();
   }
 
+  public BloomFilterReader getBloomFilterFor(String column) {
+    return indexContainerMap.get(column).getBloomFilter();
+  }
+
   @Override
   public String getSegmentName() {
     return segmentMetadata.getName();
@@ -156,6 +164,44 @@ public class IndexSegmentImpl implements IndexSegment {
     return segmentDirectory.getDiskSizeBytes();
   }
 
+  /**
+   * Prefetches the forward index, dictionary and inverted index buffers of the given columns by touching every page,
+   * so that the first queries on the segment do not stall on page faults.
+   * <p>Columns not in the segment are ignored. Buffers already loaded into heap are cheap to touch.
+   *
+   * @param columns Columns to warm up
+   * @return Number of bytes prefetched
+   */
+  public long warmUp(Set<String> columns) throws Exception {
+    long numBytes = 0L;
+    long checksum = 0L;
+    try (SegmentDirectory.Reader segmentReader = segmentDirectory.createReader()) {
+      if (segmentReader == null) {
+        LOGGER.warn("Cannot acquire reader to warm up segment: {}, skipping", getSegmentName());
+        return 0L;
+      }
+      for (String column : columns) {
+        if (!indexContainerMap.containsKey(column)) {
+          continue;
+        }
+        for (ColumnIndexType indexType : ColumnIndexType.values()) {
+          if (segmentReader.hasIndexFor(column, indexType)) {
+            PinotDataBuffer buffer = segmentReader.getIndexFor(column, indexType);
+            // NOTE: index buffers are int addressable, and not all buffer implementations support long index
+            int size = (int) Math.min(buffer.size(), Integer.MAX_VALUE);
+            for (int offset = 0; offset < size && offset >= 0; offset += WARM_UP_PAGE_SIZE) {
+              checksum += buffer.getByte(offset);
+            }
+            numBytes += size;
+          }
+        }
+      }
+    }
+    LOGGER.info("Warmed up {} bytes for columns: {} in segment: {} (checksum: {})", numBytes, columns,
+        getSegmentName(), checksum);
+    return numBytes;
+  }
+
 
   public Iterator<GenericRow> iterator(final int startDocId, final int endDocId) {
     final Map<String, BlockSingleValIterator> singleValIteratorMap = new HashMap<>();
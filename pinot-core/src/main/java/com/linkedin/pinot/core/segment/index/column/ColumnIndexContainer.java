@@ -18,6 +18,7 @@ package com.linkedin.pinot.core.segment.index.column;
 import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.core.io.reader.DataFileReader;
 import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
+import com.linkedin.pinot.core.io.reader.impl.ChunkCache;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitMultiValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedByteChunkSingleValueReader;
@@ -26,6 +27,7 @@ import com.linkedin.pinot.core.io.reader.impl.v1.VarByteChunkSingleValueReader;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import com.linkedin.pinot.core.segment.index.readers.BitmapInvertedIndexReader;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.DoubleDictionary;
 import com.linkedin.pinot.core.segment.index.readers.FloatDictionary;
 import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
@@ -38,6 +40,7 @@ import com.linkedin.pinot.core.segment.index.readers.OnHeapIntDictionary;
 import com.linkedin.pinot.core.segment.index.readers.OnHeapLongDictionary;
 import com.linkedin.pinot.core.segment.index.readers.OnHeapStringDictionary;
 import com.linkedin.pinot.core.segment.index.readers.StringDictionary;
+import com.linkedin.pinot.core.segment.index.readers.VarLengthStringDictionary;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import com.linkedin.pinot.core.segment.store.ColumnIndexType;
 import com.linkedin.pinot.core.segment.store.SegmentDirectory;
@@ -52,15 +55,25 @@ public final class ColumnIndexContainer {
   private final DataFileReader _forwardIndex;
   private final InvertedIndexReader _invertedIndex;
   private final ImmutableDictionaryReader _dictionary;
+  private final BloomFilterReader _bloomFilter;
 
   public ColumnIndexContainer(SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
       IndexLoadingConfig indexLoadingConfig) throws IOException {
     String columnName = metadata.getColumnName();
     boolean loadInvertedIndex = false;
     boolean loadOnHeapDictionary = false;
+    boolean loadBloomFilter = false;
+    ChunkCache chunkCache = null;
     if (indexLoadingConfig != null) {
       loadInvertedIndex = indexLoadingConfig.getInvertedIndexColumns().contains(columnName);
       loadOnHeapDictionary = indexLoadingConfig.getOnHeapDictionaryColumns().contains(columnName);
+      loadBloomFilter = indexLoadingConfig.getBloomFilterColumns().contains(columnName);
+      chunkCache = indexLoadingConfig.getChunkCache();
+    }
+    if (loadBloomFilter && segmentReader.hasIndexFor(columnName, ColumnIndexType.BLOOM_FILTER)) {
+      _bloomFilter = new BloomFilterReader(segmentReader.getIndexFor(columnName, ColumnIndexType.BLOOM_FILTER));
+    } else {
+      _bloomFilter = null;
     }
     PinotDataBuffer fwdIndexBuffer = segmentReader.getIndexFor(columnName, ColumnIndexType.FORWARD_INDEX);
     if (metadata.hasDictionary()) {
@@ -95,7 +108,7 @@ public final class ColumnIndexContainer {
       }
     } else {
       // Raw index
-      _forwardIndex = loadRawForwardIndex(fwdIndexBuffer, metadata.getDataType());
+      _forwardIndex = loadRawForwardIndex(fwdIndexBuffer, metadata.getDataType(), chunkCache);
       _invertedIndex = null;
       _dictionary = null;
     }
@@ -113,7 +126,11 @@ public final class ColumnIndexContainer {
     return _dictionary;
   }
 
-  private static ImmutableDictionaryReader loadDictionary(PinotDataBuffer dictionaryBuffer, ColumnMetadata metadata,
+  public BloomFilterReader getBloomFilter() {
+    return _bloomFilter;
+  }
+
+  public static ImmutableDictionaryReader loadDictionary(PinotDataBuffer dictionaryBuffer, ColumnMetadata metadata,
       boolean loadOnHeap) throws IOException {
     FieldSpec.DataType dataType = metadata.getDataType();
     if (loadOnHeap) {
@@ -140,6 +157,13 @@ public final class ColumnIndexContainer {
             : new DoubleDictionary(dictionaryBuffer, length);
 
       case STRING:
+        if (metadata.isVarLengthDictionary()) {
+          if (loadOnHeap) {
+            LOGGER.warn("On-heap dictionary is not supported for variable length dictionary, loading off-heap for "
+                + "column: {}", metadata.getColumnName());
+          }
+          return new VarLengthStringDictionary(dictionaryBuffer, length);
+        }
         int numBytesPerValue = metadata.getStringColumnMaxLength();
         byte paddingByte = (byte) metadata.getPaddingCharacter();
         return loadOnHeap ? new OnHeapStringDictionary(dictionaryBuffer, length, numBytesPerValue, paddingByte)
@@ -150,16 +174,16 @@ public final class ColumnIndexContainer {
   }
 
   private static SingleColumnSingleValueReader loadRawForwardIndex(PinotDataBuffer forwardIndexBuffer,
-      FieldSpec.DataType dataType) throws IOException {
+      FieldSpec.DataType dataType, ChunkCache chunkCache) throws IOException {
 
     switch (dataType) {
       case INT:
       case LONG:
       case FLOAT:
       case DOUBLE:
-        return new FixedByteChunkSingleValueReader(forwardIndexBuffer);
+        return new FixedByteChunkSingleValueReader(forwardIndexBuffer, chunkCache);
       case STRING:
-        return new VarByteChunkSingleValueReader(forwardIndexBuffer);
+        return new VarByteChunkSingleValueReader(forwardIndexBuffer, chunkCache);
       default:
         throw new IllegalStateException("Illegal data type for raw forward index: " + dataType);
     }
@@ -21,10 +21,14 @@ import com.linkedin.pinot.common.config.TableConfig;
 import com.linkedin.pinot.common.segment.ReadMode;
 import com.linkedin.pinot.core.data.manager.config.InstanceDataManagerConfig;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.io.reader.impl.ChunkCache;
 import com.linkedin.pinot.core.segment.index.loader.columnminmaxvalue.ColumnMinMaxValueGeneratorMode;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -40,7 +44,11 @@ public class IndexLoadingConfig {
   private List<String> _sortedColumns = Collections.emptyList();
   private Set<String> _invertedIndexColumns = new HashSet<>();
   private Set<String> _noDictionaryColumns = new HashSet<>();
+  private Map<String, ChunkCompressorFactory.CompressionType> _noDictionaryCompressionTypes = new HashMap<>();
   private Set<String> _onHeapDictionaryColumns = new HashSet<>();
+  private Set<String> _warmUpColumns = new HashSet<>();
+  private Set<String> _bloomFilterColumns = new HashSet<>();
+  private ChunkCache _chunkCache;
   private SegmentVersion _segmentVersion;
   // This value will remain true only when the empty constructor is invoked.
   private boolean _enableDefaultColumns = true;
@@ -49,6 +57,7 @@ public class IndexLoadingConfig {
   private boolean _enableSplitCommit;
   private boolean _isRealtimeOffheapAllocation;
   private boolean _isDirectRealtimeOffheapAllocation;
+  private int _realtimeNumDecodeThreads;
 
   public IndexLoadingConfig(@Nonnull InstanceDataManagerConfig instanceDataManagerConfig,
       @Nonnull TableConfig tableConfig) {
@@ -78,11 +87,29 @@ public class IndexLoadingConfig {
       _noDictionaryColumns.addAll(noDictionaryColumns);
     }
 
+    Map<String, String> noDictionaryCompressionTypes = indexingConfig.getNoDictionaryCompressionTypes();
+    if (noDictionaryCompressionTypes != null) {
+      for (Map.Entry<String, String> entry : noDictionaryCompressionTypes.entrySet()) {
+        _noDictionaryCompressionTypes.put(entry.getKey(),
+            ChunkCompressorFactory.CompressionType.valueOf(entry.getValue().toUpperCase()));
+      }
+    }
+
     List<String> onHeapDictionaryColumns = indexingConfig.getOnHeapDictionaryColumns();
     if (onHeapDictionaryColumns != null) {
       _onHeapDictionaryColumns.addAll(onHeapDictionaryColumns);
     }
 
+    List<String> warmUpColumns = indexingConfig.getWarmUpColumns();
+    if (warmUpColumns != null) {
+      _warmUpColumns.addAll(warmUpColumns);
+    }
+
+    List<String> bloomFilterColumns = indexingConfig.getBloomFilterColumns();
+    if (bloomFilterColumns != null) {
+      _bloomFilterColumns.addAll(bloomFilterColumns);
+    }
+
     String tableSegmentVersion = indexingConfig.getSegmentFormatVersion();
     if (tableSegmentVersion != null) {
       _segmentVersion = SegmentVersion.valueOf(tableSegmentVersion.toLowerCase());
@@ -112,6 +139,7 @@ public class IndexLoadingConfig {
 
     _isRealtimeOffheapAllocation = instanceDataManagerConfig.isRealtimeOffHeapAllocation();
     _isDirectRealtimeOffheapAllocation = instanceDataManagerConfig.isDirectRealtimeOffheapAllocation();
+    _realtimeNumDecodeThreads = instanceDataManagerConfig.getRealtimeNumDecodeThreads();
 
     String avgMultiValueCount = instanceDataManagerConfig.getAvgMultiValueCount();
     if (avgMultiValueCount != null) {
@@ -165,11 +193,61 @@ public class IndexLoadingConfig {
     return _noDictionaryColumns;
   }
 
+  /**
+   * Returns the compression types configured for raw indexes of no-dictionary columns. Columns without an entry use
+   * the default compression type.
+   */
+  @Nonnull
+  public Map<String, ChunkCompressorFactory.CompressionType> getNoDictionaryCompressionTypes() {
+    return _noDictionaryCompressionTypes;
+  }
+
   @Nonnull
   public Set<String> getOnHeapDictionaryColumns() {
     return _onHeapDictionaryColumns;
   }
 
+  /**
+   * Returns the columns whose index buffers should be prefetched after the segment is loaded.
+   */
+  @Nonnull
+  public Set<String> getWarmUpColumns() {
+    return _warmUpColumns;
+  }
+
+  /**
+   * For tests only.
+   */
+  @VisibleForTesting
+  public void setWarmUpColumns(@Nonnull Set<String> warmUpColumns) {
+    _warmUpColumns = warmUpColumns;
+  }
+
+  @Nonnull
+  public Set<String> getBloomFilterColumns() {
+    return _bloomFilterColumns;
+  }
+
+  /**
+   * For tests only.
+   */
+  @VisibleForTesting
+  public void setBloomFilterColumns(@Nonnull Set<String> bloomFilterColumns) {
+    _bloomFilterColumns = bloomFilterColumns;
+  }
+
+  /**
+   * Returns the server-wide cache for decompressed chunks of raw forward indexes, or null if it is disabled.
+   */
+  @Nullable
+  public ChunkCache getChunkCache() {
+    return _chunkCache;
+  }
+
+  public void setChunkCache(@Nullable ChunkCache chunkCache) {
+    _chunkCache = chunkCache;
+  }
+
   @Nullable
   public SegmentVersion getSegmentVersion() {
     return _segmentVersion;
@@ -198,6 +276,10 @@ public class IndexLoadingConfig {
     return _isDirectRealtimeOffheapAllocation;
   }
 
+  public int getRealtimeNumDecodeThreads() {
+    return _realtimeNumDecodeThreads;
+  }
+
   @Nonnull
   public ColumnMinMaxValueGeneratorMode getColumnMinMaxValueGeneratorMode() {
     return _columnMinMaxValueGeneratorMode;
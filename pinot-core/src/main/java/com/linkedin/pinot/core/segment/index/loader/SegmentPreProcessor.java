@@ -18,6 +18,7 @@ package com.linkedin.pinot.core.segment.index.loader;
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.segment.ReadMode;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.loader.bloomfilter.BloomFilterHandler;
 import com.linkedin.pinot.core.segment.index.loader.columnminmaxvalue.ColumnMinMaxValueGenerator;
 import com.linkedin.pinot.core.segment.index.loader.columnminmaxvalue.ColumnMinMaxValueGeneratorMode;
 import com.linkedin.pinot.core.segment.index.loader.defaultcolumn.DefaultColumnHandler;
@@ -34,6 +35,7 @@ import javax.annotation.Nullable;
  * <p>Pre-processing steps include:
  * <ul>
  *   <li>Use {@link InvertedIndexHandler} to create inverted indices</li>
+ *   <li>Use {@link BloomFilterHandler} to create bloom filters</li>
  *   <li>Use {@link DefaultColumnHandler} to update auto-generated default columns</li>
  *   <li>Use {@link ColumnMinMaxValueGenerator} to add min/max value to column metadata</li>
  * </ul>
@@ -68,6 +70,11 @@ public class SegmentPreProcessor implements AutoCloseable {
           new InvertedIndexHandler(_indexDir, _segmentMetadata, _indexLoadingConfig, segmentWriter);
       invertedIndexHandler.createInvertedIndices();
 
+      // Create column bloom filters according to the index config.
+      BloomFilterHandler bloomFilterHandler =
+          new BloomFilterHandler(_indexDir, _segmentMetadata, _indexLoadingConfig, segmentWriter);
+      bloomFilterHandler.createBloomFilters();
+
       // Update default columns according to the schema.
       // NOTE: This step may modify the segment metadata. When adding new steps after this, reload the metadata.
       if (_indexLoadingConfig.isEnableDefaultColumns() && (_schema != null)) {
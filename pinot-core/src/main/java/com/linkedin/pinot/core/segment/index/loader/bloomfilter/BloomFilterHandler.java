@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.loader.bloomfilter;
+
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.creator.impl.bloom.BloomFilterCreator;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.loader.LoaderUtils;
+import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
+import com.linkedin.pinot.core.segment.store.SegmentDirectory;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Creates the bloom filter index for existing segments according to the index loading config.
+ * <p>Only dictionary-encoded columns are supported here, because the unique values of the column can be read from the
+ * dictionary without scanning the forward index. Bloom filters for raw index columns can only be created when
+ * generating the segment.
+ */
+public class BloomFilterHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BloomFilterHandler.class);
+
+  private final File _indexDir;
+  private final SegmentDirectory.Writer _segmentWriter;
+  private final String _segmentName;
+  private final SegmentVersion _segmentVersion;
+  private final Set<ColumnMetadata> _bloomFilterColumns = new HashSet<>();
+
+  public BloomFilterHandler(@Nonnull File indexDir, @Nonnull SegmentMetadataImpl segmentMetadata,
+      @Nonnull IndexLoadingConfig indexLoadingConfig, @Nonnull SegmentDirectory.Writer segmentWriter) {
+    _indexDir = indexDir;
+    _segmentWriter = segmentWriter;
+    _segmentName = segmentMetadata.getName();
+    _segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
+
+    for (String column : indexLoadingConfig.getBloomFilterColumns()) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+      if (columnMetadata != null) {
+        if (columnMetadata.hasDictionary()) {
+          _bloomFilterColumns.add(columnMetadata);
+        } else {
+          LOGGER.warn("Cannot create bloom filter for raw index column: {} in segment: {}", column, _segmentName);
+        }
+      }
+    }
+  }
+
+  public void createBloomFilters() throws IOException {
+    for (ColumnMetadata columnMetadata : _bloomFilterColumns) {
+      createBloomFilterForColumn(columnMetadata);
+    }
+  }
+
+  private void createBloomFilterForColumn(ColumnMetadata columnMetadata) throws IOException {
+    String column = columnMetadata.getColumnName();
+
+    File inProgress = new File(_indexDir, column + ".bloom.inprogress");
+    File bloomFilterFile = new File(_indexDir, column + V1Constants.Indexes.BLOOM_FILTER_FILE_EXTENSION);
+
+    if (!inProgress.exists()) {
+      // Marker file does not exist, which means last run ended normally.
+
+      if (_segmentWriter.hasIndexFor(column, ColumnIndexType.BLOOM_FILTER)) {
+        // Skip creating bloom filter if already exists.
+
+        LOGGER.info("Found bloom filter for segment: {}, column: {}", _segmentName, column);
+        return;
+      }
+
+      // Create a marker file.
+      FileUtils.touch(inProgress);
+    } else {
+      // Marker file exists, which means last run gets interrupted.
+
+      // Remove bloom filter if exists.
+      // For v1 and v2, it's the actual bloom filter. For v3, it's the temporary bloom filter.
+      FileUtils.deleteQuietly(bloomFilterFile);
+    }
+
+    // Create new bloom filter for the column.
+    LOGGER.info("Creating new bloom filter for segment: {}, column: {}", _segmentName, column);
+    int cardinality = columnMetadata.getCardinality();
+    try (BloomFilterCreator creator = new BloomFilterCreator(_indexDir, column, cardinality);
+        ImmutableDictionaryReader dictionary = ColumnIndexContainer.loadDictionary(
+            _segmentWriter.getIndexFor(column, ColumnIndexType.DICTIONARY), columnMetadata, false)) {
+      for (int dictId = 0; dictId < cardinality; dictId++) {
+        creator.add(dictionary.getStringValue(dictId));
+      }
+      creator.seal();
+    }
+
+    // For v3, write the generated bloom filter file into the single file and remove it.
+    if (_segmentVersion == SegmentVersion.v3) {
+      LoaderUtils.writeIndexToV3Format(_segmentWriter, column, bloomFilterFile, ColumnIndexType.BLOOM_FILTER);
+    }
+
+    // Delete the marker file.
+    FileUtils.deleteQuietly(inProgress);
+
+    LOGGER.info("Created bloom filter for segment: {}, column: {}", _segmentName, column);
+  }
+}
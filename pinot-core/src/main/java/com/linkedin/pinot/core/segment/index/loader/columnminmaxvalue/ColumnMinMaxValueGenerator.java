@@ -26,6 +26,7 @@ import com.linkedin.pinot.core.segment.index.readers.FloatDictionary;
 import com.linkedin.pinot.core.segment.index.readers.IntDictionary;
 import com.linkedin.pinot.core.segment.index.readers.LongDictionary;
 import com.linkedin.pinot.core.segment.index.readers.StringDictionary;
+import com.linkedin.pinot.core.segment.index.readers.VarLengthStringDictionary;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import com.linkedin.pinot.core.segment.store.ColumnIndexType;
 import com.linkedin.pinot.core.segment.store.SegmentDirectory;
@@ -115,6 +116,13 @@ public class ColumnMinMaxValueGenerator {
         }
         break;
       case STRING:
+        if (columnMetadata.isVarLengthDictionary()) {
+          try (VarLengthStringDictionary stringDictionary = new VarLengthStringDictionary(dictionaryBuffer, length)) {
+            SegmentColumnarIndexCreator.addColumnMinMaxValueInfo(_segmentProperties, columnName,
+                stringDictionary.get(0), stringDictionary.get(length - 1));
+          }
+          break;
+        }
         try (StringDictionary stringDictionary = new StringDictionary(dictionaryBuffer, length,
             columnMetadata.getStringColumnMaxLength(), (byte) columnMetadata.getPaddingCharacter())) {
           SegmentColumnarIndexCreator.addColumnMinMaxValueInfo(_segmentProperties, columnName, stringDictionary.get(0),
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.readers;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+
+/**
+ * Reader for the per-column bloom filter index created by
+ * {@link com.linkedin.pinot.core.segment.creator.impl.bloom.BloomFilterCreator}.
+ * <p>The bloom filter is small (a few bits per unique value), so it is deserialized on heap once at load time.
+ */
+public class BloomFilterReader {
+  private final BloomFilter<CharSequence> _bloomFilter;
+
+  public BloomFilterReader(PinotDataBuffer bloomFilterBuffer) throws IOException {
+    byte[] bytes = new byte[(int) bloomFilterBuffer.size()];
+    bloomFilterBuffer.copyTo(0, bytes, 0, bytes.length);
+    _bloomFilter = BloomFilter.readFrom(new ByteArrayInputStream(bytes), Funnels.stringFunnel(Charsets.UTF_8));
+  }
+
+  /**
+   * Returns false if the value is definitely not in the column, true if it might be.
+   *
+   * @param value String representation of the value
+   */
+  public boolean mightContain(String value) {
+    return _bloomFilter.mightContain(value);
+  }
+}
@@ -39,6 +39,16 @@ public abstract class ImmutableDictionaryReader extends BaseDictionary {
     _paddingByte = paddingByte;
   }
 
+  /**
+   * Constructor for dictionaries with variable length values, which read the values from the buffer themselves.
+   */
+  protected ImmutableDictionaryReader(PinotDataBuffer dataBuffer, int length) {
+    _valueReader = new FixedByteValueReaderWriter(dataBuffer);
+    _length = length;
+    _numBytesPerValue = 0;
+    _paddingByte = 0;
+  }
+
   /**
    * Returns the insertion index of object in the dictionary.
    * <ul>
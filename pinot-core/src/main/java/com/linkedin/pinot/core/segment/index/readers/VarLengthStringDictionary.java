@@ -0,0 +1,255 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.readers;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.nio.charset.Charset;
+
+
+/**
+ * Implementation of String dictionary that stores the values as variable length (unpadded) UTF-8 bytes, so that one
+ * long value does not inflate the size of every value.
+ * <p>Format: (length + 1) int offsets of the values from the start of the buffer, the last one being the end of the
+ * last value, followed by the packed UTF-8 bytes of the values sorted in {@link String} order.
+ * <p>Lookups compare the UTF-8 bytes of the looked up value directly with the bytes in the buffer, without creating any
+ * String. Large batches of lookups (e.g. values of big IN predicates) go through a hash table over the values, which is
+ * built on first use.
+ */
+public class VarLengthStringDictionary extends ImmutableDictionaryReader {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int INT_SIZE = 4;
+
+  // Minimum number of values in a batch lookup for which the hash table is built, if not already built
+  public static final int MIN_NUM_VALUES_FOR_HASHED_LOOKUP = 16;
+
+  private final PinotDataBuffer _dataBuffer;
+  private final int _length;
+
+  // Open addressing hash table of (dictId + 1), with 0 for empty slots
+  private volatile int[] _hashTable;
+
+  public VarLengthStringDictionary(PinotDataBuffer dataBuffer, int length) {
+    super(dataBuffer, length);
+    _dataBuffer = dataBuffer;
+    _length = length;
+    Preconditions.checkState(dataBuffer.size() == getOffset(length));
+  }
+
+  @Override
+  public int indexOf(Object rawValue) {
+    return indexOf(((String) rawValue).getBytes(UTF_8));
+  }
+
+  /**
+   * Returns the dictionary id of the given UTF-8 encoded value, or -1 if it does not exist in the dictionary.
+   */
+  public int indexOf(byte[] utf8Value) {
+    int index = binarySearch(utf8Value);
+    return (index >= 0) ? index : -1;
+  }
+
+  /**
+   * Returns the dictionary ids of the given values, with -1 for the values that do not exist in the dictionary.
+   * <p>Looks up the values in the hash table if it is already built or if there are enough values to build it,
+   * otherwise binary searches each value.
+   */
+  public int[] indexOf(String[] values) {
+    int numValues = values.length;
+    int[] dictIds = new int[numValues];
+    int[] hashTable = _hashTable;
+    if (hashTable == null && numValues >= MIN_NUM_VALUES_FOR_HASHED_LOOKUP) {
+      hashTable = getHashTable();
+    }
+    for (int i = 0; i < numValues; i++) {
+      byte[] utf8Value = values[i].getBytes(UTF_8);
+      dictIds[i] = (hashTable != null) ? hashedIndexOf(hashTable, utf8Value) : indexOf(utf8Value);
+    }
+    return dictIds;
+  }
+
+  @Override
+  public int insertionIndexOf(Object rawValue) {
+    return binarySearch(((String) rawValue).getBytes(UTF_8));
+  }
+
+  @Override
+  public String get(int dictId) {
+    return getStringValue(dictId);
+  }
+
+  @Override
+  public int getIntValue(int dictId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public long getLongValue(int dictId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public float getFloatValue(int dictId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public double getDoubleValue(int dictId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public String getStringValue(int dictId) {
+    int startOffset = getOffset(dictId);
+    int length = getOffset(dictId + 1) - startOffset;
+    byte[] bytes = new byte[length];
+    _dataBuffer.copyTo(startOffset, bytes, 0, length);
+    return new String(bytes, UTF_8);
+  }
+
+  @Override
+  public void readStringValues(int[] dictIds, int inStartPos, int length, String[] outValues, int outStartPos) {
+    int inEndPos = inStartPos + length;
+    for (int i = inStartPos; i < inEndPos; i++) {
+      outValues[outStartPos++] = getStringValue(dictIds[i]);
+    }
+  }
+
+  private int getOffset(int dictId) {
+    return _dataBuffer.getInt(dictId * INT_SIZE);
+  }
+
+  private int binarySearch(byte[] utf8Value) {
+    int low = 0;
+    int high = _length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int compareResult = compare(mid, utf8Value);
+      if (compareResult < 0) {
+        low = mid + 1;
+      } else if (compareResult > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Compares the value for the given dictionary id with the given UTF-8 encoded value, in {@link String} order.
+   */
+  private int compare(int dictId, byte[] utf8Value) {
+    int startOffset = getOffset(dictId);
+    int length = getOffset(dictId + 1) - startOffset;
+    int minLength = Math.min(length, utf8Value.length);
+    for (int i = 0; i < minLength; i++) {
+      int byte1 = _dataBuffer.getByte(startOffset + i) & 0xFF;
+      int byte2 = utf8Value[i] & 0xFF;
+      if (byte1 != byte2) {
+        return toUtf16Order(byte1) - toUtf16Order(byte2);
+      }
+    }
+    return length - utf8Value.length;
+  }
+
+  /**
+   * Unsigned UTF-8 byte order is code point order, which is also {@link String} (UTF-16) order except that characters
+   * from U+E000 to U+FFFF (lead bytes 0xEE and 0xEF) sort after supplementary characters (lead bytes 0xF0 to 0xF4) in
+   * UTF-16. Moves these two lead bytes after all the others, so that comparing bytes gives {@link String} order.
+   */
+  private static int toUtf16Order(int unsignedByte) {
+    return (unsignedByte == 0xEE || unsignedByte == 0xEF) ? unsignedByte + 0x12 : unsignedByte;
+  }
+
+  private boolean equals(int dictId, byte[] utf8Value) {
+    int startOffset = getOffset(dictId);
+    int length = getOffset(dictId + 1) - startOffset;
+    if (length != utf8Value.length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (_dataBuffer.getByte(startOffset + i) != utf8Value[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int hashedIndexOf(int[] hashTable, byte[] utf8Value) {
+    int mask = hashTable.length - 1;
+    int slot = hash(utf8Value) & mask;
+    while (true) {
+      int entry = hashTable[slot];
+      if (entry == 0) {
+        return -1;
+      }
+      if (equals(entry - 1, utf8Value)) {
+        return entry - 1;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private int[] getHashTable() {
+    int[] hashTable = _hashTable;
+    if (hashTable == null) {
+      synchronized (this) {
+        hashTable = _hashTable;
+        if (hashTable == null) {
+          hashTable = buildHashTable();
+          _hashTable = hashTable;
+        }
+      }
+    }
+    return hashTable;
+  }
+
+  private int[] buildHashTable() {
+    // Keep the load factor no more than 0.5
+    int[] hashTable = new int[Integer.highestOneBit(Math.max(_length, 1)) << 2];
+    int mask = hashTable.length - 1;
+    for (int dictId = 0; dictId < _length; dictId++) {
+      int startOffset = getOffset(dictId);
+      int endOffset = getOffset(dictId + 1);
+      int hash = 1;
+      for (int i = startOffset; i < endOffset; i++) {
+        hash = 31 * hash + _dataBuffer.getByte(i);
+      }
+      int slot = mix(hash) & mask;
+      while (hashTable[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      hashTable[slot] = dictId + 1;
+    }
+    return hashTable;
+  }
+
+  private static int hash(byte[] utf8Value) {
+    int hash = 1;
+    for (byte value : utf8Value) {
+      hash = 31 * hash + value;
+    }
+    return mix(hash);
+  }
+
+  // Spreads the bits of the polynomial hash, whose low bits (used for the slot) are weak for short values
+  private static int mix(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85EBCA6B;
+    return hash ^ (hash >>> 13);
+  }
+}
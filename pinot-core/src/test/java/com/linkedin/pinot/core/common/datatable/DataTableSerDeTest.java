@@ -280,5 +280,12 @@ public class DataTableSerDeTest {
         }
       }
     }
+
+    // The de-serialized data table references the received bytes, re-serialize it should get the same data.
+    byte[] serializedBytes = dataTable.toBytes();
+    byte[] reSerializedBytes = newDataTable.toBytes();
+    Assert.assertEquals(reSerializedBytes.length, serializedBytes.length, ERROR_MESSAGE);
+    Assert.assertEquals(DataTableFactory.getDataTable(reSerializedBytes).toString(), newDataTable.toString(),
+        ERROR_MESSAGE);
   }
 }
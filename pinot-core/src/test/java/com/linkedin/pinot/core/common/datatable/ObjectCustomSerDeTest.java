@@ -17,6 +17,8 @@ package com.linkedin.pinot.core.common.datatable;
 
 import com.linkedin.pinot.core.query.aggregation.function.customobject.AvgPair;
 import com.linkedin.pinot.core.query.aggregation.function.customobject.MinMaxRangePair;
+import com.linkedin.pinot.core.query.aggregation.function.customobject.TDigest;
+import com.linkedin.pinot.core.query.aggregation.function.customobject.ThetaSketch;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import java.io.IOException;
@@ -164,4 +166,55 @@ public class ObjectCustomSerDeTest {
       Assert.assertEquals((Object) actual, expected, ERROR_MESSAGE);
     }
   }
+
+  /**
+   * Test for ser/de of {@link TDigest}.
+   */
+  @Test
+  public void testTDigest()
+      throws IOException {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      TDigest expected = new TDigest();
+      int size = RANDOM.nextInt(10000);
+      for (int j = 0; j < size; j++) {
+        expected.add(RANDOM.nextDouble());
+      }
+
+      byte[] bytes = ObjectCustomSerDe.serialize(expected);
+      TDigest actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.TDigest);
+
+      Assert.assertEquals(actual.size(), expected.size(), ERROR_MESSAGE);
+      for (int j = 0; j <= 100; j += 10) {
+        double quantile = j / 100.0;
+        Assert.assertEquals(actual.getQuantile(quantile), expected.getQuantile(quantile), ERROR_MESSAGE);
+      }
+    }
+  }
+
+  /**
+   * Test for ser/de of array of {@link ThetaSketch}.
+   */
+  @Test
+  public void testThetaSketchArray()
+      throws IOException {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      int length = RANDOM.nextInt(5);
+      ThetaSketch[] expected = new ThetaSketch[length];
+      for (int j = 0; j < length; j++) {
+        expected[j] = new ThetaSketch();
+        int size = RANDOM.nextInt(10000);
+        for (int k = 0; k < size; k++) {
+          expected[j].update(RANDOM.nextInt());
+        }
+      }
+
+      byte[] bytes = ObjectCustomSerDe.serialize(expected);
+      ThetaSketch[] actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.ThetaSketchArray);
+
+      Assert.assertEquals(actual.length, length, ERROR_MESSAGE);
+      for (int j = 0; j < length; j++) {
+        Assert.assertEquals(actual[j].getEstimate(), expected[j].getEstimate(), ERROR_MESSAGE);
+      }
+    }
+  }
 }
@@ -28,6 +28,8 @@ import com.linkedin.pinot.core.data.manager.config.InstanceDataManagerConfig;
 import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentImpl;
 import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentStatsHistory;
 import com.linkedin.pinot.core.realtime.impl.kafka.KafkaLowLevelStreamProviderConfig;
+import com.linkedin.pinot.core.realtime.impl.kafka.KafkaMessageDecoder;
+import com.linkedin.pinot.core.realtime.impl.kafka.MessageBatch;
 import com.linkedin.pinot.core.realtime.impl.kafka.SimpleConsumerWrapper;
 import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import com.yammer.metrics.core.MetricsRegistry;
@@ -136,6 +138,10 @@ public class LLRealtimeSegmentDataManagerTest {
   }
 
   private FakeLLRealtimeSegmentDataManager createFakeSegmentManager() throws Exception {
+    return createFakeSegmentManager(0);
+  }
+
+  private FakeLLRealtimeSegmentDataManager createFakeSegmentManager(int numDecodeThreads) throws Exception {
     LLCRealtimeSegmentZKMetadata segmentZKMetadata = createZkMetadata();
     TableConfig tableConfig = createTableConfig();
     InstanceZKMetadata instanceZKMetadata = new InstanceZKMetadata();
@@ -144,7 +150,7 @@ public class LLRealtimeSegmentDataManagerTest {
     Schema schema = Schema.fromString(makeSchema());
     ServerMetrics serverMetrics = new ServerMetrics(new MetricsRegistry());
     FakeLLRealtimeSegmentDataManager segmentDataManager = new FakeLLRealtimeSegmentDataManager(segmentZKMetadata,
-        tableConfig, instanceZKMetadata, tableDataManager, resourceDir, schema, serverMetrics);
+        tableConfig, instanceZKMetadata, tableDataManager, resourceDir, schema, serverMetrics, numDecodeThreads);
     return segmentDataManager;
   }
 
@@ -397,6 +403,34 @@ public class LLRealtimeSegmentDataManagerTest {
 
   // If the state is is COMMITTED or RETAINED, nothing to do
   // If discarded or error state, then downloadAndReplace the segment
+  // Test that the pipelined decoder is still usable when catching up after the consumer thread has exited.
+  @Test
+  public void testCatchupWithPipelinedDecoderAfterConsumerExit() throws Exception {
+    FakeLLRealtimeSegmentDataManager segmentDataManager = createFakeSegmentManager(2);
+    segmentDataManager._stopWaitTimeMs = 0;
+    LLRealtimeSegmentDataManager.PartitionConsumer consumer = segmentDataManager.createPartitionConsumer();
+    final long endOffset = _startOffset + 500;
+    segmentDataManager._consumeOffsets.add(endOffset);
+    segmentDataManager._responses.add(new SegmentCompletionProtocol.Response(
+        new SegmentCompletionProtocol.Response.Params().withStatus(
+            SegmentCompletionProtocol.ControllerResponseStatus.HOLD).withOffset(endOffset)));
+
+    // The consumer thread exits while holding
+    consumer.run();
+    Assert.assertEquals(segmentDataManager._state.get(segmentDataManager), LLRealtimeSegmentDataManager.State.HOLDING);
+
+    // Then the controller asks to go online at a later offset, so we catch up using the pipelined decoder
+    final long finalOffset = endOffset + 100;
+    LLCRealtimeSegmentZKMetadata metadata = new LLCRealtimeSegmentZKMetadata();
+    metadata.setEndOffset(finalOffset);
+    segmentDataManager._consumeOffsets.add(finalOffset);
+    segmentDataManager.goOnlineFromConsuming(metadata);
+    Assert.assertTrue(segmentDataManager._pipelinedDecodeCalled);
+    Assert.assertTrue(segmentDataManager._buildAndReplaceCalled);
+    Assert.assertFalse(segmentDataManager._downloadAndReplaceCalled);
+    segmentDataManager.destroy();
+  }
+
   @Test
   public void testOnlineTransitionAfterStop() throws Exception {
     LLCRealtimeSegmentZKMetadata metadata = new LLCRealtimeSegmentZKMetadata();
@@ -652,8 +686,9 @@ public class LLRealtimeSegmentDataManagerTest {
     private boolean _downloadAndReplaceCalled = false;
     public boolean _throwExceptionFromConsume = false;
     public boolean _postConsumeStoppedCalled = false;
+    public boolean _pipelinedDecodeCalled = false;
 
-    private static InstanceDataManagerConfig makeInstanceDataManagerConfig() {
+    private static InstanceDataManagerConfig makeInstanceDataManagerConfig(int numDecodeThreads) {
       InstanceDataManagerConfig dataManagerConfig = mock(InstanceDataManagerConfig.class);
       when(dataManagerConfig.getReadMode()).thenReturn(null);
       when(dataManagerConfig.getAvgMultiValueCount()).thenReturn(null);
@@ -661,15 +696,17 @@ public class LLRealtimeSegmentDataManagerTest {
       when(dataManagerConfig.isEnableDefaultColumns()).thenReturn(false);
       when(dataManagerConfig.isEnableSplitCommit()).thenReturn(false);
       when(dataManagerConfig.isRealtimeOffHeapAllocation()).thenReturn(false);
+      when(dataManagerConfig.getRealtimeNumDecodeThreads()).thenReturn(numDecodeThreads);
       return dataManagerConfig;
     }
 
     public FakeLLRealtimeSegmentDataManager(RealtimeSegmentZKMetadata segmentZKMetadata, TableConfig tableConfig,
         InstanceZKMetadata instanceZKMetadata, RealtimeTableDataManager realtimeTableDataManager,
-        String resourceDataDir, Schema schema, ServerMetrics serverMetrics)
+        String resourceDataDir, Schema schema, ServerMetrics serverMetrics, int numDecodeThreads)
         throws Exception {
       super(segmentZKMetadata, tableConfig, instanceZKMetadata, realtimeTableDataManager, resourceDataDir,
-          new IndexLoadingConfig(makeInstanceDataManagerConfig(), tableConfig), schema, serverMetrics);
+          new IndexLoadingConfig(makeInstanceDataManagerConfig(numDecodeThreads), tableConfig), schema,
+          serverMetrics);
       _state = LLRealtimeSegmentDataManager.class.getDeclaredField("_state");
       _state.setAccessible(true);
       _shouldStop = LLRealtimeSegmentDataManager.class.getDeclaredField("_shouldStop");
@@ -722,11 +759,30 @@ public class LLRealtimeSegmentDataManagerTest {
       if (_throwExceptionFromConsume) {
         throw new SimpleConsumerWrapper.PermanentConsumerException(Errors.OFFSET_OUT_OF_RANGE);
       }
+      decodeWithPipelinedDecoderIfNecessary();
       setCurrentOffset(_consumeOffsets.remove());
       terminateLoopIfNecessary();
       return true;
     }
 
+    private void decodeWithPipelinedDecoderIfNecessary() throws Exception {
+      Field field = LLRealtimeSegmentDataManager.class.getDeclaredField("_pipelinedMessageDecoder");
+      field.setAccessible(true);
+      PipelinedMessageDecoder pipelinedMessageDecoder = (PipelinedMessageDecoder) field.get(this);
+      if (pipelinedMessageDecoder == null) {
+        return;
+      }
+      MessageBatch messageBatch = mock(MessageBatch.class);
+      when(messageBatch.getMessageCount()).thenReturn(1);
+      pipelinedMessageDecoder.startBatch(messageBatch);
+      try {
+        pipelinedMessageDecoder.take(0);
+      } finally {
+        pipelinedMessageDecoder.finishBatch();
+      }
+      _pipelinedDecodeCalled = true;
+    }
+
     @Override
     protected SegmentCompletionProtocol.Response postSegmentConsumedMsg() {
       SegmentCompletionProtocol.Response response = _responses.remove();
@@ -754,7 +810,7 @@ public class LLRealtimeSegmentDataManagerTest {
       when(config.getSizeThresholdToFlushSegment()).thenReturn(maxRowsInSegment);
       when(config.getTimeThresholdToFlushSegment()).thenReturn(maxTimeForSegmentCloseMs);
       try {
-        when(config.getDecoder()).thenReturn(null);
+        when(config.getDecoder()).thenReturn(mock(KafkaMessageDecoder.class));
       } catch (Exception e) {
         Assert.fail("Exception setting up streapProviderConfig");
       }
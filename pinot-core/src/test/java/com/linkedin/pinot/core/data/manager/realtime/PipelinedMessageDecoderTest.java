@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.data.manager.realtime;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.extractors.FieldExtractorFactory;
+import com.linkedin.pinot.core.data.extractors.PlainFieldExtractor;
+import com.linkedin.pinot.core.realtime.impl.kafka.KafkaMessageDecoder;
+import com.linkedin.pinot.core.realtime.impl.kafka.MessageBatch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class PipelinedMessageDecoderTest {
+  private static final String COLUMN_NAME = "column";
+  private static final int NUM_DECODE_THREADS = 4;
+  private static final Random RANDOM = new Random();
+
+  private PipelinedMessageDecoder _pipelinedMessageDecoder;
+
+  @BeforeClass
+  public void setUp() {
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(COLUMN_NAME, FieldSpec.DataType.INT, true));
+    List<KafkaMessageDecoder> messageDecoders = new ArrayList<>();
+    List<PlainFieldExtractor> fieldExtractors = new ArrayList<>();
+    for (int i = 0; i < NUM_DECODE_THREADS; i++) {
+      messageDecoders.add(new IntMessageDecoder());
+      fieldExtractors.add(FieldExtractorFactory.getPlainFieldExtractor(schema));
+    }
+    _pipelinedMessageDecoder = new PipelinedMessageDecoder(messageDecoders, fieldExtractors, "test");
+  }
+
+  @Test
+  public void testTakeInOrder() throws Exception {
+    // Larger than the ring buffer to exercise the reuse of the chunk buffers
+    int numMessages = PipelinedMessageDecoder.RING_BUFFER_SIZE * 3 + RANDOM.nextInt(PipelinedMessageDecoder.CHUNK_SIZE);
+    IntMessageBatch messageBatch = new IntMessageBatch(numMessages);
+    _pipelinedMessageDecoder.startBatch(messageBatch);
+    try {
+      for (int i = 0; i < numMessages; i++) {
+        GenericRow row = _pipelinedMessageDecoder.take(i);
+        if (messageBatch.isInvalid(i)) {
+          Assert.assertNull(row);
+        } else {
+          Assert.assertNotNull(row);
+          Assert.assertEquals(row.getValue(COLUMN_NAME), messageBatch.getValue(i));
+        }
+      }
+      Assert.assertEquals(_pipelinedMessageDecoder.getDecodeLag(), 0);
+      Assert.assertEquals(_pipelinedMessageDecoder.getIndexLag(), 0);
+    } finally {
+      _pipelinedMessageDecoder.finishBatch();
+    }
+  }
+
+  @Test
+  public void testFinishBatchEarly() throws Exception {
+    for (int round = 0; round < 10; round++) {
+      int numMessages = RANDOM.nextInt(PipelinedMessageDecoder.RING_BUFFER_SIZE * 2) + 1;
+      int numMessagesToTake = RANDOM.nextInt(numMessages);
+      IntMessageBatch messageBatch = new IntMessageBatch(numMessages);
+      _pipelinedMessageDecoder.startBatch(messageBatch);
+      try {
+        for (int i = 0; i < numMessagesToTake; i++) {
+          GenericRow row = _pipelinedMessageDecoder.take(i);
+          if (!messageBatch.isInvalid(i)) {
+            Assert.assertEquals(row.getValue(COLUMN_NAME), messageBatch.getValue(i));
+          }
+        }
+      } finally {
+        _pipelinedMessageDecoder.finishBatch();
+      }
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _pipelinedMessageDecoder.close();
+  }
+
+  /**
+   * Message batch of 4-byte big-endian ints, where about 1% of the messages are invalid (empty).
+   */
+  private static class IntMessageBatch implements MessageBatch<byte[]> {
+    private final byte[] _payload;
+    private final int[] _values;
+    private final boolean[] _isInvalid;
+
+    IntMessageBatch(int numMessages) {
+      _payload = new byte[numMessages * Integer.SIZE / Byte.SIZE];
+      _values = new int[numMessages];
+      _isInvalid = new boolean[numMessages];
+      for (int i = 0; i < numMessages; i++) {
+        int value = RANDOM.nextInt();
+        _values[i] = value;
+        _isInvalid[i] = RANDOM.nextInt(100) == 0;
+        int offset = i * Integer.SIZE / Byte.SIZE;
+        _payload[offset] = (byte) (value >>> 24);
+        _payload[offset + 1] = (byte) (value >>> 16);
+        _payload[offset + 2] = (byte) (value >>> 8);
+        _payload[offset + 3] = (byte) value;
+      }
+    }
+
+    int getValue(int index) {
+      return _values[index];
+    }
+
+    boolean isInvalid(int index) {
+      return _isInvalid[index];
+    }
+
+    @Override
+    public int getMessageCount() {
+      return _values.length;
+    }
+
+    @Override
+    public byte[] getMessageAtIndex(int index) {
+      return _payload;
+    }
+
+    @Override
+    public int getMessageOffsetAtIndex(int index) {
+      return index * Integer.SIZE / Byte.SIZE;
+    }
+
+    @Override
+    public int getMessageLengthAtIndex(int index) {
+      return _isInvalid[index] ? 0 : Integer.SIZE / Byte.SIZE;
+    }
+
+    @Override
+    public long getNextKafkaMessageOffsetAtIndex(int index) {
+      return index + 1;
+    }
+  }
+
+  private static class IntMessageDecoder implements KafkaMessageDecoder<byte[]> {
+    @Override
+    public void init(Map<String, String> props, Schema indexingSchema, String kafkaTopicName) {
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, GenericRow destination) {
+      return decode(payload, 0, payload.length, destination);
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
+      if (length != Integer.SIZE / Byte.SIZE) {
+        return null;
+      }
+      int value = (payload[offset] << 24) | ((payload[offset + 1] & 0xFF) << 16) | ((payload[offset + 2] & 0xFF) << 8)
+          | (payload[offset + 3] & 0xFF);
+      destination.putField(COLUMN_NAME, value);
+      return destination;
+    }
+  }
+}
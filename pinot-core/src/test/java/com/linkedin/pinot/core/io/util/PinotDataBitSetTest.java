@@ -72,6 +72,40 @@ public class PinotDataBitSetTest {
     }
   }
 
+  @Test
+  public void testBulkReadInt() {
+    int numValues = 1000;
+    int[] values = new int[numValues];
+    int[] buffer = new int[numValues + 10];
+    for (int numBitsPerValue = 1; numBitsPerValue <= Integer.SIZE; numBitsPerValue++) {
+      int dataBufferSize = (int) (((long) numValues * numBitsPerValue + Byte.SIZE - 1) / Byte.SIZE);
+      try (PinotDataBitSet dataBitSet = new PinotDataBitSet(PinotDataBuffer.allocateDirect(dataBufferSize))) {
+        for (int i = 0; i < numValues; i++) {
+          int value = RANDOM.nextInt() >>> (Integer.SIZE - numBitsPerValue);
+          values[i] = value;
+          dataBitSet.writeInt(i, numBitsPerValue, value);
+        }
+
+        // Test full read
+        dataBitSet.readInt(0, numBitsPerValue, numValues, buffer);
+        for (int i = 0; i < numValues; i++) {
+          Assert.assertEquals(buffer[i], values[i]);
+        }
+
+        // Test random range read with buffer start index
+        for (int i = 0; i < 100; i++) {
+          int startIndex = RANDOM.nextInt(numValues);
+          int numValuesToRead = RANDOM.nextInt(numValues - startIndex) + 1;
+          int bufferStartIndex = RANDOM.nextInt(10);
+          dataBitSet.readInt(startIndex, numBitsPerValue, numValuesToRead, buffer, bufferStartIndex);
+          for (int j = 0; j < numValuesToRead; j++) {
+            Assert.assertEquals(buffer[bufferStartIndex + j], values[startIndex + j]);
+          }
+        }
+      }
+    }
+  }
+
   @Test
   public void testSetUnsetBit() {
     int dataBufferSize = RANDOM.nextInt(100) + 1;
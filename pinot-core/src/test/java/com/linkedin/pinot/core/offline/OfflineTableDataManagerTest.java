@@ -151,6 +151,9 @@ public class OfflineTableDataManagerTest {
     tableDataManager.releaseSegment(segmentDataManager);
     Assert.assertEquals(segmentDataManager.getRefCnt(), 0);
     Assert.assertEquals(_nDestroys, 1);
+    // A destroyed segment cannot be acquired again by a query holding a stale reference to it.
+    Assert.assertFalse(segmentDataManager.tryIncrementRefCnt());
+    Assert.assertEquals(segmentDataManager.getRefCnt(), 0);
 
     // Now the segment should not be available for use.Also, returning a null reader is fine
     segmentDataManager = tableDataManager.acquireSegment(segmentName);
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+public class MCombineGroupByOperatorTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final BrokerRequest BROKER_REQUEST =
+      COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable GROUP BY column TOP 10");
+  private static final int NUM_SEGMENTS = 1000;
+  private static final int NUM_GROUPS = 100;
+  private static final int NUM_THREADS = 4;
+
+  private final ExecutorService _executorService = Executors.newFixedThreadPool(NUM_THREADS);
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  @Test
+  public void testGroupBy() {
+    IntermediateResultsBlock mergedBlock =
+        new MCombineGroupByOperator(getOperators(), _executorService, 10_000L, BROKER_REQUEST).nextBlock();
+    checkMergedBlock(mergedBlock);
+  }
+
+  @Test
+  public void testGroupBySpill() throws IOException {
+    // Spill the results after merging every segment
+    File spillDir = Files.createTempDirectory("groupBySpill").toFile();
+    try {
+      IntermediateResultsBlock mergedBlock =
+          new MCombineGroupByOperator(getOperators(), _executorService, 10_000L, BROKER_REQUEST, 1L, spillDir)
+              .nextBlock();
+      checkMergedBlock(mergedBlock);
+      // Spilled runs should be deleted
+      Assert.assertEquals(spillDir.list().length, 0);
+    } finally {
+      FileUtils.deleteQuietly(spillDir);
+    }
+  }
+
+  private static void checkMergedBlock(IntermediateResultsBlock mergedBlock) {
+    Assert.assertNull(mergedBlock.getProcessingExceptions());
+    Map<String, Object> mergedGroupByResult = mergedBlock.getCombinedAggregationGroupByResult().get(0);
+    Assert.assertEquals(mergedGroupByResult.size(), NUM_GROUPS + 1);
+    Assert.assertEquals(mergedGroupByResult.get("a"), (long) NUM_SEGMENTS);
+    for (int i = 0; i < NUM_GROUPS; i++) {
+      Assert.assertEquals(mergedGroupByResult.get("k" + i), 2L * NUM_SEGMENTS / NUM_GROUPS);
+    }
+  }
+
+  /**
+   * Returns the operators for the segments, where each segment has group "a" with value 1 and group "k(i % 100)" with
+   * value 2.
+   */
+  private static List<Operator> getOperators() {
+    List<Operator> operators = new ArrayList<>(NUM_SEGMENTS);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      final String groupKey = "k" + i % NUM_GROUPS;
+      operators.add(new BaseOperator<IntermediateResultsBlock>() {
+        @Override
+        protected IntermediateResultsBlock getNextBlock() {
+          Map<String, Object> groupByResult = new HashMap<>();
+          groupByResult.put("a", 1L);
+          groupByResult.put(groupKey, 2L);
+          return new IntermediateResultsBlock(
+              AggregationFunctionUtils.getAggregationFunctionContexts(BROKER_REQUEST.getAggregationsInfo(), null),
+              Collections.singletonList(groupByResult), true);
+        }
+
+        @Override
+        public String getOperatorName() {
+          return "TestOperator";
+        }
+
+        @Override
+        public ExecutionStatistics getExecutionStatistics() {
+          return new ExecutionStatistics(1L, 0L, 0L, 1L);
+        }
+      });
+    }
+    return operators;
+  }
+}
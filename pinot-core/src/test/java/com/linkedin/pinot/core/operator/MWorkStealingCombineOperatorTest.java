@@ -0,0 +1,225 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.plan.PlanNode;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+public class MWorkStealingCombineOperatorTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final int NUM_SEGMENTS = 1000;
+  private static final int NUM_THREADS = 4;
+
+  private final ExecutorService _executorService = Executors.newFixedThreadPool(NUM_THREADS);
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  @Test
+  public void testAggregationOnly() {
+    final BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable");
+    AtomicInteger numSegmentsProcessed = new AtomicInteger();
+    List<PlanNode> planNodes = getPlanNodes(numSegmentsProcessed, new BlockFactory() {
+      @Override
+      public IntermediateResultsBlock newBlock() {
+        List<Object> aggregationResult = new ArrayList<>();
+        aggregationResult.add(1L);
+        return new IntermediateResultsBlock(getAggregationFunctionContexts(brokerRequest), aggregationResult, false);
+      }
+    });
+
+    IntermediateResultsBlock mergedBlock =
+        new MWorkStealingCombineOperator(planNodes, _executorService, 10_000L, brokerRequest).nextBlock();
+    Assert.assertNull(mergedBlock.getProcessingExceptions());
+    Assert.assertEquals(mergedBlock.getAggregationResult().get(0), (long) NUM_SEGMENTS);
+    Assert.assertEquals(numSegmentsProcessed.get(), NUM_SEGMENTS);
+  }
+
+  @Test
+  public void testGroupBy() {
+    final BrokerRequest brokerRequest =
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable GROUP BY column TOP 10");
+    AtomicInteger numSegmentsProcessed = new AtomicInteger();
+    List<PlanNode> planNodes = getPlanNodes(numSegmentsProcessed, new BlockFactory() {
+      @Override
+      public IntermediateResultsBlock newBlock() {
+        Map<String, Object> groupByResult = new HashMap<>();
+        groupByResult.put("a", 1L);
+        groupByResult.put("b", 2L);
+        return new IntermediateResultsBlock(getAggregationFunctionContexts(brokerRequest),
+            Collections.singletonList(groupByResult), true);
+      }
+    });
+
+    IntermediateResultsBlock mergedBlock =
+        new MWorkStealingCombineOperator(planNodes, _executorService, 10_000L, brokerRequest).nextBlock();
+    Assert.assertNull(mergedBlock.getProcessingExceptions());
+    Map<String, Object> mergedGroupByResult = mergedBlock.getCombinedAggregationGroupByResult().get(0);
+    Assert.assertEquals(mergedGroupByResult.size(), 2);
+    Assert.assertEquals(mergedGroupByResult.get("a"), (long) NUM_SEGMENTS);
+    Assert.assertEquals(mergedGroupByResult.get("b"), 2L * NUM_SEGMENTS);
+    Assert.assertEquals(numSegmentsProcessed.get(), NUM_SEGMENTS);
+  }
+
+  @Test
+  public void testGroupBySpill() throws IOException {
+    final BrokerRequest brokerRequest =
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable GROUP BY column TOP 10");
+    final AtomicInteger numBlocks = new AtomicInteger();
+    AtomicInteger numSegmentsProcessed = new AtomicInteger();
+    List<PlanNode> planNodes = getPlanNodes(numSegmentsProcessed, new BlockFactory() {
+      @Override
+      public IntermediateResultsBlock newBlock() {
+        Map<String, Object> groupByResult = new HashMap<>();
+        groupByResult.put("a", 1L);
+        groupByResult.put("k" + numBlocks.getAndIncrement() % 100, 2L);
+        return new IntermediateResultsBlock(getAggregationFunctionContexts(brokerRequest),
+            Collections.singletonList(groupByResult), true);
+      }
+    });
+
+    // Spill the results of every segment
+    File spillDir = Files.createTempDirectory("groupBySpill").toFile();
+    try {
+      IntermediateResultsBlock mergedBlock =
+          new MWorkStealingCombineOperator(planNodes, _executorService, 10_000L, brokerRequest, 1L, spillDir)
+              .nextBlock();
+      Assert.assertNull(mergedBlock.getProcessingExceptions());
+      Map<String, Object> mergedGroupByResult = mergedBlock.getCombinedAggregationGroupByResult().get(0);
+      Assert.assertEquals(mergedGroupByResult.size(), 101);
+      Assert.assertEquals(mergedGroupByResult.get("a"), (long) NUM_SEGMENTS);
+      for (int i = 0; i < 100; i++) {
+        Assert.assertEquals(mergedGroupByResult.get("k" + i), 2L * NUM_SEGMENTS / 100);
+      }
+      Assert.assertEquals(numSegmentsProcessed.get(), NUM_SEGMENTS);
+      // Spilled runs should be deleted
+      Assert.assertEquals(spillDir.list().length, 0);
+    } finally {
+      FileUtils.deleteQuietly(spillDir);
+    }
+  }
+
+  @Test
+  public void testSelectionOnlyEarlyTermination() {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT * FROM testTable LIMIT 10");
+    AtomicInteger numSegmentsProcessed = new AtomicInteger();
+    List<PlanNode> planNodes = getPlanNodes(numSegmentsProcessed, new BlockFactory() {
+      @Override
+      public IntermediateResultsBlock newBlock() {
+        List<Serializable[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+          rows.add(new Serializable[]{i});
+        }
+        return new IntermediateResultsBlock(
+            new DataSchema(new String[]{"column"}, new FieldSpec.DataType[]{FieldSpec.DataType.INT}), rows);
+      }
+    });
+
+    IntermediateResultsBlock mergedBlock =
+        new MWorkStealingCombineOperator(planNodes, _executorService, 10_000L, brokerRequest).nextBlock();
+    Assert.assertNull(mergedBlock.getProcessingExceptions());
+    Assert.assertEquals(mergedBlock.getSelectionResult().size(), 10);
+    // Each task stops pulling segments once 10 rows are collected (2 segments), and there are at most one more segment
+    // in progress for each of the other tasks.
+    int numTasks = Math.min(NUM_SEGMENTS, Runtime.getRuntime().availableProcessors());
+    Assert.assertTrue(numSegmentsProcessed.get() <= numTasks + 1, "Processed: " + numSegmentsProcessed.get());
+  }
+
+  @Test
+  public void testOperatorThrowException() {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable");
+    AtomicInteger numSegmentsProcessed = new AtomicInteger();
+    List<PlanNode> planNodes = getPlanNodes(numSegmentsProcessed, new BlockFactory() {
+      @Override
+      public IntermediateResultsBlock newBlock() {
+        throw new RuntimeException("Inner exception message.");
+      }
+    });
+
+    IntermediateResultsBlock mergedBlock =
+        new MWorkStealingCombineOperator(planNodes, _executorService, 10_000L, brokerRequest).nextBlock();
+    Assert.assertEquals(mergedBlock.getProcessingExceptions().size(), NUM_SEGMENTS);
+    Assert.assertEquals(numSegmentsProcessed.get(), NUM_SEGMENTS);
+  }
+
+  private static AggregationFunctionContext[] getAggregationFunctionContexts(BrokerRequest brokerRequest) {
+    return AggregationFunctionUtils.getAggregationFunctionContexts(brokerRequest.getAggregationsInfo(), null);
+  }
+
+  private static List<PlanNode> getPlanNodes(final AtomicInteger numSegmentsProcessed,
+      final BlockFactory blockFactory) {
+    List<PlanNode> planNodes = new ArrayList<>(NUM_SEGMENTS);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      planNodes.add(new PlanNode() {
+        @Override
+        public Operator run() {
+          return new BaseOperator<IntermediateResultsBlock>() {
+            @Override
+            protected IntermediateResultsBlock getNextBlock() {
+              numSegmentsProcessed.incrementAndGet();
+              return blockFactory.newBlock();
+            }
+
+            @Override
+            public String getOperatorName() {
+              return "TestOperator";
+            }
+
+            @Override
+            public ExecutionStatistics getExecutionStatistics() {
+              return new ExecutionStatistics(1L, 0L, 0L, 1L);
+            }
+          };
+        }
+
+        @Override
+        public void showTree(String prefix) {
+        }
+      });
+    }
+    return planNodes;
+  }
+
+  private interface BlockFactory {
+    IntermediateResultsBlock newBlock();
+  }
+}
@@ -0,0 +1,294 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.dociditerators;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.BlockMetadata;
+import com.linkedin.pinot.core.common.BlockValSet;
+import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.common.predicate.EqPredicate;
+import com.linkedin.pinot.core.common.predicate.InPredicate;
+import com.linkedin.pinot.core.common.predicate.RangePredicate;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedByteChunkSingleValueReader;
+import com.linkedin.pinot.core.io.util.FixedBitIntReaderWriter;
+import com.linkedin.pinot.core.io.util.FixedByteValueReaderWriter;
+import com.linkedin.pinot.core.io.writer.impl.v1.FixedByteChunkSingleValueWriter;
+import com.linkedin.pinot.core.operator.blocks.BlockMetadataImpl;
+import com.linkedin.pinot.core.operator.docvalsets.SingleValueSet;
+import com.linkedin.pinot.core.operator.filter.predicate.EqualsPredicateEvaluatorFactory;
+import com.linkedin.pinot.core.operator.filter.predicate.InPredicateEvaluatorFactory;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
+import com.linkedin.pinot.core.segment.index.readers.IntDictionary;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for {@link SVScanDocIdIterator}, which evaluates the documents in batches (except for dictionary based EQ
+ * predicate), and should behave the same as evaluating the documents one by one.
+ * <p>The number of documents spans multiple batches, and the raw values are stored in chunks that are not aligned with
+ * the batches.
+ */
+public class SVScanDocIdIteratorTest {
+  private static final String COLUMN_NAME = "column";
+  private static final int NUM_DOCS = 1009;
+  private static final int NUM_DOCS_PER_CHUNK = 100;
+  private static final int CARDINALITY = 10;
+  private static final File RAW_INDEX_FILE =
+      new File(FileUtils.getTempDirectory(), SVScanDocIdIteratorTest.class.getSimpleName());
+
+  private final int[] _values = new int[NUM_DOCS];
+  private PinotDataBuffer _dictionaryBuffer;
+  private PinotDataBuffer _dictionaryBasedForwardIndexBuffer;
+  private PinotDataBuffer _rawForwardIndexBuffer;
+  private BlockValSet _dictionaryBasedBlockValSet;
+  private BlockMetadata _dictionaryBasedBlockMetadata;
+  private BlockValSet _rawBlockValSet;
+  private BlockMetadata _rawBlockMetadata;
+
+  @SuppressWarnings("unchecked")
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    Random random = new Random();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      _values[i] = random.nextInt(CARDINALITY);
+    }
+
+    // Dictionary ids are the same as the values
+    _dictionaryBuffer = PinotDataBuffer.allocateDirect(CARDINALITY * Integer.SIZE / Byte.SIZE);
+    FixedByteValueReaderWriter dictionaryWriter = new FixedByteValueReaderWriter(_dictionaryBuffer);
+    for (int i = 0; i < CARDINALITY; i++) {
+      dictionaryWriter.writeInt(i, i);
+    }
+    IntDictionary dictionary = new IntDictionary(_dictionaryBuffer, CARDINALITY);
+    int numBitsPerValue = Integer.SIZE - Integer.numberOfLeadingZeros(CARDINALITY - 1);
+    _dictionaryBasedForwardIndexBuffer =
+        PinotDataBuffer.allocateDirect((NUM_DOCS * numBitsPerValue + Byte.SIZE - 1) / Byte.SIZE);
+    new FixedBitIntReaderWriter(_dictionaryBasedForwardIndexBuffer, NUM_DOCS, numBitsPerValue).writeInt(0, NUM_DOCS,
+        _values);
+    _dictionaryBasedBlockValSet =
+        new SingleValueSet(new FixedBitSingleValueReader(_dictionaryBasedForwardIndexBuffer, NUM_DOCS, numBitsPerValue),
+            NUM_DOCS, FieldSpec.DataType.INT);
+    _dictionaryBasedBlockMetadata = new BlockMetadataImpl(NUM_DOCS, true, 0, FieldSpec.DataType.INT, dictionary);
+
+    FileUtils.deleteQuietly(RAW_INDEX_FILE);
+    try (FixedByteChunkSingleValueWriter writer = new FixedByteChunkSingleValueWriter(RAW_INDEX_FILE,
+        ChunkCompressorFactory.CompressionType.SNAPPY, NUM_DOCS, NUM_DOCS_PER_CHUNK, Integer.SIZE / Byte.SIZE)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        writer.setInt(i, _values[i]);
+      }
+    }
+    _rawForwardIndexBuffer = PinotDataBuffer.fromFile(RAW_INDEX_FILE, ReadMode.mmap, FileChannel.MapMode.READ_ONLY,
+        getClass().getName());
+    SingleColumnSingleValueReader rawIndexReader = new FixedByteChunkSingleValueReader(_rawForwardIndexBuffer);
+    _rawBlockValSet = new SingleValueSet(rawIndexReader, NUM_DOCS, FieldSpec.DataType.INT);
+    _rawBlockMetadata = new BlockMetadataImpl(NUM_DOCS, true, 0, FieldSpec.DataType.INT, null);
+  }
+
+  @Test
+  public void testNext() {
+    for (boolean hasDictionary : new boolean[]{true, false}) {
+      for (String predicateType : new String[]{"EQ", "IN", "RANGE"}) {
+        SVScanDocIdIterator docIdIterator = getDocIdIterator(hasDictionary, predicateType);
+        String message = hasDictionary + ":" + predicateType;
+        int docId = firstMatchingDocId(predicateType, 0);
+        while (docId != Constants.EOF) {
+          Assert.assertEquals(docIdIterator.next(), docId, message);
+          Assert.assertEquals(docIdIterator.currentDocId(), docId, message);
+          // Only the documents up to the matching one should be counted as scanned
+          Assert.assertEquals(docIdIterator.getNumEntriesScanned(), docId + 1, message);
+          docId = firstMatchingDocId(predicateType, docId + 1);
+        }
+        Assert.assertEquals(docIdIterator.next(), Constants.EOF, message);
+        Assert.assertEquals(docIdIterator.getNumEntriesScanned(), NUM_DOCS, message);
+        Assert.assertEquals(docIdIterator.next(), Constants.EOF, message);
+        Assert.assertEquals(docIdIterator.getNumEntriesScanned(), NUM_DOCS, message);
+      }
+    }
+  }
+
+  @Test
+  public void testAdvance() {
+    // Targets within the same batch, on both sides of the batch boundaries, and in the last partial batch
+    int[] targetDocIds = {3, 10, 255, 256, 257, 300, 511, 512, 900, 1000, 1008};
+    for (boolean hasDictionary : new boolean[]{true, false}) {
+      for (String predicateType : new String[]{"EQ", "IN", "RANGE"}) {
+        SVScanDocIdIterator docIdIterator = getDocIdIterator(hasDictionary, predicateType);
+        String message = hasDictionary + ":" + predicateType;
+        int currentDocId = -1;
+        int expectedNumEntriesScanned = 0;
+        for (int targetDocId : targetDocIds) {
+          if (currentDocId >= targetDocId) {
+            // Advancing to a doc id before the current one does not move the iterator
+            Assert.assertEquals(docIdIterator.advance(targetDocId), currentDocId, message);
+            continue;
+          }
+          int docId = firstMatchingDocId(predicateType, targetDocId);
+          Assert.assertEquals(docIdIterator.advance(targetDocId), docId, message);
+          if (docId == Constants.EOF) {
+            expectedNumEntriesScanned += NUM_DOCS - targetDocId;
+            Assert.assertEquals(docIdIterator.getNumEntriesScanned(), expectedNumEntriesScanned, message);
+            break;
+          }
+          expectedNumEntriesScanned += docId - targetDocId + 1;
+          Assert.assertEquals(docIdIterator.getNumEntriesScanned(), expectedNumEntriesScanned, message);
+
+          // Mix next() with advance() to read the buffered doc ids
+          int nextDocId = firstMatchingDocId(predicateType, docId + 1);
+          Assert.assertEquals(docIdIterator.next(), nextDocId, message);
+          if (nextDocId == Constants.EOF) {
+            expectedNumEntriesScanned += NUM_DOCS - docId - 1;
+            Assert.assertEquals(docIdIterator.getNumEntriesScanned(), expectedNumEntriesScanned, message);
+            break;
+          }
+          expectedNumEntriesScanned += nextDocId - docId;
+          Assert.assertEquals(docIdIterator.getNumEntriesScanned(), expectedNumEntriesScanned, message);
+          currentDocId = nextDocId;
+        }
+
+        // Advancing past the end doc id
+        docIdIterator = getDocIdIterator(hasDictionary, predicateType);
+        Assert.assertEquals(docIdIterator.advance(NUM_DOCS), Constants.EOF, message);
+        Assert.assertEquals(docIdIterator.next(), Constants.EOF, message);
+      }
+    }
+  }
+
+  @Test
+  public void testStartAndEndDocId() {
+    int startDocId = 250;
+    int endDocId = 700;
+    for (boolean hasDictionary : new boolean[]{true, false}) {
+      for (String predicateType : new String[]{"EQ", "IN", "RANGE"}) {
+        SVScanDocIdIterator docIdIterator = getDocIdIterator(hasDictionary, predicateType);
+        String message = hasDictionary + ":" + predicateType;
+        docIdIterator.setStartDocId(startDocId);
+        docIdIterator.setEndDocId(endDocId);
+        int docId = firstMatchingDocId(predicateType, startDocId);
+        while (docId != Constants.EOF && docId <= endDocId) {
+          Assert.assertEquals(docIdIterator.next(), docId, message);
+          docId = firstMatchingDocId(predicateType, docId + 1);
+        }
+        Assert.assertEquals(docIdIterator.next(), Constants.EOF, message);
+        Assert.assertEquals(docIdIterator.getNumEntriesScanned(), endDocId - startDocId + 1, message);
+      }
+    }
+  }
+
+  @Test
+  public void testApplyAnd() {
+    Random random = new Random();
+    MutableRoaringBitmap answer = new MutableRoaringBitmap();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (random.nextBoolean()) {
+        answer.add(i);
+      }
+    }
+    for (boolean hasDictionary : new boolean[]{true, false}) {
+      for (String predicateType : new String[]{"EQ", "IN", "RANGE"}) {
+        SVScanDocIdIterator docIdIterator = getDocIdIterator(hasDictionary, predicateType);
+        String message = hasDictionary + ":" + predicateType;
+        MutableRoaringBitmap expected = new MutableRoaringBitmap();
+        for (int i = 0; i < NUM_DOCS; i++) {
+          if (answer.contains(i) && matches(predicateType, _values[i])) {
+            expected.add(i);
+          }
+        }
+        Assert.assertEquals(docIdIterator.applyAnd(answer), expected, message);
+        Assert.assertEquals(docIdIterator.getNumEntriesScanned(), answer.getCardinality(), message);
+      }
+    }
+  }
+
+  private SVScanDocIdIterator getDocIdIterator(boolean hasDictionary, String predicateType) {
+    PredicateEvaluator predicateEvaluator;
+    switch (predicateType) {
+      case "EQ":
+        EqPredicate eqPredicate = new EqPredicate(COLUMN_NAME, Collections.singletonList("5"));
+        predicateEvaluator = hasDictionary ? EqualsPredicateEvaluatorFactory.newDictionaryBasedEvaluator(eqPredicate,
+            _dictionaryBasedBlockMetadata.getDictionary())
+            : EqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator(eqPredicate, FieldSpec.DataType.INT);
+        break;
+      case "IN":
+        InPredicate inPredicate =
+            new InPredicate(COLUMN_NAME, Collections.singletonList("1" + InPredicate.DELIMITER + "7"));
+        predicateEvaluator = hasDictionary ? InPredicateEvaluatorFactory.newDictionaryBasedEvaluator(inPredicate,
+            _dictionaryBasedBlockMetadata.getDictionary())
+            : InPredicateEvaluatorFactory.newRawValueBasedEvaluator(inPredicate, FieldSpec.DataType.INT);
+        break;
+      case "RANGE":
+        RangePredicate rangePredicate =
+            new RangePredicate(COLUMN_NAME, Collections.singletonList("[2" + RangePredicate.DELIMITER + "4)"));
+        predicateEvaluator = hasDictionary ? RangePredicateEvaluatorFactory.newDictionaryBasedEvaluator(rangePredicate,
+            _dictionaryBasedBlockMetadata.getDictionary())
+            : RangePredicateEvaluatorFactory.newRawValueBasedEvaluator(rangePredicate, FieldSpec.DataType.INT);
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+    if (hasDictionary) {
+      return new SVScanDocIdIterator(COLUMN_NAME, _dictionaryBasedBlockValSet, _dictionaryBasedBlockMetadata,
+          predicateEvaluator);
+    } else {
+      return new SVScanDocIdIterator(COLUMN_NAME, _rawBlockValSet, _rawBlockMetadata, predicateEvaluator);
+    }
+  }
+
+  private static boolean matches(String predicateType, int value) {
+    switch (predicateType) {
+      case "EQ":
+        return value == 5;
+      case "IN":
+        return value == 1 || value == 7;
+      case "RANGE":
+        return value >= 2 && value < 4;
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  private int firstMatchingDocId(String predicateType, int startDocId) {
+    for (int docId = startDocId; docId < NUM_DOCS; docId++) {
+      if (matches(predicateType, _values[docId])) {
+        return docId;
+      }
+    }
+    return Constants.EOF;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _dictionaryBuffer.close();
+    _dictionaryBasedForwardIndexBuffer.close();
+    _rawForwardIndexBuffer.close();
+    FileUtils.deleteQuietly(RAW_INDEX_FILE);
+  }
+}
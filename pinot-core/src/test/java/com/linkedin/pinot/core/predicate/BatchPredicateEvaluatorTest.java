@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.predicate;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.common.predicate.EqPredicate;
+import com.linkedin.pinot.core.common.predicate.InPredicate;
+import com.linkedin.pinot.core.common.predicate.NEqPredicate;
+import com.linkedin.pinot.core.common.predicate.RangePredicate;
+import com.linkedin.pinot.core.operator.filter.predicate.EqualsPredicateEvaluatorFactory;
+import com.linkedin.pinot.core.operator.filter.predicate.InPredicateEvaluatorFactory;
+import com.linkedin.pinot.core.operator.filter.predicate.NotEqualsPredicateEvaluatorFactory;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for batch evaluation of single-value entries, which should match evaluating the entries one by one.
+ */
+public class BatchPredicateEvaluatorTest {
+  private static final String COLUMN_NAME = "column";
+  private static final int NUM_VALUES = 1000;
+  private static final int MAX_VALUE = 100;
+  private static final FieldSpec.DataType[] DATA_TYPES =
+      {FieldSpec.DataType.INT, FieldSpec.DataType.LONG, FieldSpec.DataType.FLOAT, FieldSpec.DataType.DOUBLE};
+
+  private final Random _random = new Random();
+
+  @Test
+  public void testBatchEvaluation() {
+    int[] intValues = new int[NUM_VALUES];
+    long[] longValues = new long[NUM_VALUES];
+    float[] floatValues = new float[NUM_VALUES];
+    double[] doubleValues = new double[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      int value = _random.nextInt(MAX_VALUE);
+      intValues[i] = value;
+      longValues[i] = value;
+      floatValues[i] = value;
+      doubleValues[i] = value;
+    }
+
+    for (FieldSpec.DataType dataType : DATA_TYPES) {
+      for (PredicateEvaluator predicateEvaluator : getPredicateEvaluators(dataType)) {
+        int[] docIds = getDocIds();
+        int numMatchingDocs;
+        switch (dataType) {
+          case INT:
+            numMatchingDocs = predicateEvaluator.applySV(NUM_VALUES, docIds, intValues);
+            break;
+          case LONG:
+            numMatchingDocs = predicateEvaluator.applySV(NUM_VALUES, docIds, longValues);
+            break;
+          case FLOAT:
+            numMatchingDocs = predicateEvaluator.applySV(NUM_VALUES, docIds, floatValues);
+            break;
+          case DOUBLE:
+            numMatchingDocs = predicateEvaluator.applySV(NUM_VALUES, docIds, doubleValues);
+            break;
+          default:
+            throw new IllegalStateException();
+        }
+
+        int[] expectedDocIds = new int[NUM_VALUES];
+        int expectedNumMatchingDocs = 0;
+        for (int docId = 0; docId < NUM_VALUES; docId++) {
+          boolean match;
+          switch (dataType) {
+            case INT:
+              match = predicateEvaluator.applySV(intValues[docId]);
+              break;
+            case LONG:
+              match = predicateEvaluator.applySV(longValues[docId]);
+              break;
+            case FLOAT:
+              match = predicateEvaluator.applySV(floatValues[docId]);
+              break;
+            case DOUBLE:
+              match = predicateEvaluator.applySV(doubleValues[docId]);
+              break;
+            default:
+              throw new IllegalStateException();
+          }
+          if (match) {
+            expectedDocIds[expectedNumMatchingDocs++] = docId;
+          }
+        }
+        Assert.assertEquals(numMatchingDocs, expectedNumMatchingDocs);
+        Assert.assertEquals(Arrays.copyOf(docIds, numMatchingDocs),
+            Arrays.copyOf(expectedDocIds, expectedNumMatchingDocs));
+      }
+    }
+  }
+
+  @Test
+  public void testBatchEvaluationOfStrings() {
+    String[] values = new String[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      values[i] = Integer.toString(_random.nextInt(MAX_VALUE));
+    }
+    for (PredicateEvaluator predicateEvaluator : getPredicateEvaluators(FieldSpec.DataType.STRING)) {
+      int[] docIds = getDocIds();
+      int numMatchingDocs = predicateEvaluator.applySV(NUM_VALUES, docIds, values);
+      int expectedNumMatchingDocs = 0;
+      for (int docId = 0; docId < NUM_VALUES; docId++) {
+        if (predicateEvaluator.applySV(values[docId])) {
+          Assert.assertEquals(docIds[expectedNumMatchingDocs++], docId);
+        }
+      }
+      Assert.assertEquals(numMatchingDocs, expectedNumMatchingDocs);
+    }
+  }
+
+  private PredicateEvaluator[] getPredicateEvaluators(FieldSpec.DataType dataType) {
+    String value = Integer.toString(_random.nextInt(MAX_VALUE));
+    String lowerBound = Integer.toString(_random.nextInt(MAX_VALUE / 2));
+    String upperBound = Integer.toString(MAX_VALUE / 2 + _random.nextInt(MAX_VALUE / 2));
+    return new PredicateEvaluator[]{
+        EqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator(
+            new EqPredicate(COLUMN_NAME, Collections.singletonList(value)), dataType),
+        NotEqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator(
+            new NEqPredicate(COLUMN_NAME, Collections.singletonList(value)), dataType),
+        InPredicateEvaluatorFactory.newRawValueBasedEvaluator(
+            new InPredicate(COLUMN_NAME, Collections.singletonList(value + InPredicate.DELIMITER + lowerBound)),
+            dataType),
+        RangePredicateEvaluatorFactory.newRawValueBasedEvaluator(new RangePredicate(COLUMN_NAME,
+            Collections.singletonList("[" + lowerBound + RangePredicate.DELIMITER + upperBound + ")")), dataType)
+    };
+  }
+
+  private static int[] getDocIds() {
+    int[] docIds = new int[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      docIds[i] = i;
+    }
+    return docIds;
+  }
+}
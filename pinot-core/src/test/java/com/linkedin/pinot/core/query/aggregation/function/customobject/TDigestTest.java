@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.function.customobject;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for {@link TDigest} class.
+ */
+public class TDigestTest {
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+
+  private static final int NUM_VALUES = 100000;
+  private static final int NUM_DIGESTS = 10;
+  private static final double[] QUANTILES = new double[]{0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99};
+  // Allowed error on the rank of the estimated value
+  private static final double MAX_RANK_ERROR = 0.01;
+
+  @Test
+  public void testAccuracy() {
+    double[] values = new double[NUM_VALUES];
+    TDigest tDigest = new TDigest();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      values[i] = RANDOM.nextGaussian();
+      tDigest.add(values[i]);
+    }
+    Assert.assertEquals(tDigest.size(), NUM_VALUES, ERROR_MESSAGE);
+    checkQuantiles(tDigest, values);
+  }
+
+  @Test
+  public void testMerge() {
+    double[] values = new double[NUM_VALUES];
+    TDigest mergedTDigest = new TDigest();
+    int numValuesPerDigest = NUM_VALUES / NUM_DIGESTS;
+    for (int i = 0; i < NUM_DIGESTS; i++) {
+      TDigest tDigest = new TDigest();
+      for (int j = 0; j < numValuesPerDigest; j++) {
+        // Skew the value distribution of each digest
+        double value = RANDOM.nextDouble() * (i + 1);
+        values[i * numValuesPerDigest + j] = value;
+        tDigest.add(value);
+      }
+      mergedTDigest.merge(tDigest);
+    }
+    Assert.assertEquals(mergedTDigest.size(), NUM_VALUES, ERROR_MESSAGE);
+    checkQuantiles(mergedTDigest, values);
+  }
+
+  @Test
+  public void testSerializedSizeBounded() {
+    TDigest tDigest = new TDigest();
+    int maxSerializedSize = 0;
+    for (int i = 0; i < NUM_VALUES; i++) {
+      tDigest.add(RANDOM.nextLong());
+      if (i % 1000 == 0) {
+        maxSerializedSize = Math.max(maxSerializedSize, tDigest.toBytes().length);
+      }
+    }
+    // Header + at most (2 * compression + 10) centroids, 16 bytes each
+    Assert.assertTrue(maxSerializedSize <= 28 + (2 * (int) TDigest.DEFAULT_COMPRESSION + 10) * 16, ERROR_MESSAGE);
+
+    TDigest deserializedTDigest = TDigest.fromBytes(tDigest.toBytes());
+    Assert.assertEquals(deserializedTDigest.size(), tDigest.size(), ERROR_MESSAGE);
+    for (double quantile : QUANTILES) {
+      Assert.assertEquals(deserializedTDigest.getQuantile(quantile), tDigest.getQuantile(quantile), ERROR_MESSAGE);
+    }
+  }
+
+  @Test
+  public void testSmallInputs() {
+    TDigest tDigest = new TDigest();
+    Assert.assertTrue(Double.isNaN(tDigest.getQuantile(0.5)));
+
+    tDigest.add(1.0);
+    Assert.assertEquals(tDigest.getQuantile(0.5), 1.0);
+
+    for (int i = 2; i <= 10; i++) {
+      tDigest.add(i);
+    }
+    // With few values every value is kept as its own centroid
+    Assert.assertEquals(tDigest.getQuantile(0), 1.0);
+    Assert.assertEquals(tDigest.getQuantile(1), 10.0);
+    Assert.assertEquals(tDigest.getQuantile(0.5), 5.5, 0.5);
+  }
+
+  @Test
+  public void testQuantileBounds() {
+    // Small compression so that the centroids at the tails get merged, including centroids of weight 2
+    for (double compression : new double[]{2, 5, TDigest.DEFAULT_COMPRESSION}) {
+      for (int numValues = 1; numValues <= 300; numValues++) {
+        TDigest tDigest = new TDigest(compression);
+        for (int i = 0; i < numValues; i++) {
+          tDigest.add(RANDOM.nextInt(numValues));
+        }
+        double previousEstimate = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i <= 2 * numValues; i++) {
+          double estimate = tDigest.getQuantile((double) i / (2 * numValues));
+          Assert.assertFalse(Double.isNaN(estimate), ERROR_MESSAGE);
+          Assert.assertTrue(estimate >= tDigest.getQuantile(0) && estimate <= tDigest.getQuantile(1), ERROR_MESSAGE);
+          Assert.assertTrue(estimate >= previousEstimate, ERROR_MESSAGE);
+          previousEstimate = estimate;
+        }
+      }
+    }
+  }
+
+  private static void checkQuantiles(TDigest tDigest, double[] values) {
+    Arrays.sort(values);
+    int numValues = values.length;
+    for (double quantile : QUANTILES) {
+      double estimate = tDigest.getQuantile(quantile);
+      // Compare the rank of the estimate instead of the value itself so that the check is distribution agnostic
+      int index = Arrays.binarySearch(values, estimate);
+      if (index < 0) {
+        index = -index - 1;
+      }
+      Assert.assertEquals((double) index / numValues, quantile, MAX_RANK_ERROR, ERROR_MESSAGE);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.function.customobject;
+
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for {@link ThetaSketch} class.
+ */
+public class ThetaSketchTest {
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+
+  private static final int NUM_VALUES = 1000000;
+  // Relative standard error is 1 / sqrt(nominal entries) ~= 1.6%, allow 5 times of it
+  private static final double MAX_RELATIVE_ERROR = 0.08;
+
+  @Test
+  public void testExactMode() {
+    ThetaSketch thetaSketch = new ThetaSketch();
+    for (int i = 0; i < ThetaSketch.DEFAULT_NOMINAL_ENTRIES; i++) {
+      thetaSketch.update(i);
+      // Duplicate values should not be counted
+      thetaSketch.update(i);
+    }
+    Assert.assertEquals(thetaSketch.getEstimate(), ThetaSketch.DEFAULT_NOMINAL_ENTRIES);
+  }
+
+  @Test
+  public void testEstimate() {
+    ThetaSketch thetaSketch = new ThetaSketch();
+    long offset = RANDOM.nextLong();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      thetaSketch.update(offset + i);
+    }
+    checkEstimate(thetaSketch.getEstimate(), NUM_VALUES);
+    Assert.assertTrue(thetaSketch.getNumHashes() <= 2 * ThetaSketch.DEFAULT_NOMINAL_ENTRIES, ERROR_MESSAGE);
+  }
+
+  @Test
+  public void testSetOperations() {
+    // Values in [0, 2 * NUM_VALUES) in the first sketch, and values in [NUM_VALUES, 3 * NUM_VALUES) in the second one
+    ThetaSketch thetaSketch1 = new ThetaSketch();
+    ThetaSketch thetaSketch2 = new ThetaSketch();
+    String prefix = Long.toString(RANDOM.nextLong());
+    for (int i = 0; i < 3 * NUM_VALUES; i++) {
+      String value = prefix + i;
+      if (i < 2 * NUM_VALUES) {
+        thetaSketch1.update(value);
+      }
+      if (i >= NUM_VALUES) {
+        thetaSketch2.update(value);
+      }
+    }
+
+    checkEstimate(ThetaSketch.union(thetaSketch1, thetaSketch2).getEstimate(), 3 * NUM_VALUES);
+    checkEstimate(ThetaSketch.intersect(thetaSketch1, thetaSketch2).getEstimate(), NUM_VALUES);
+    checkEstimate(ThetaSketch.diff(thetaSketch1, thetaSketch2).getEstimate(), NUM_VALUES);
+
+    // Set operations should not modify the input sketches
+    checkEstimate(thetaSketch1.getEstimate(), 2 * NUM_VALUES);
+    checkEstimate(thetaSketch2.getEstimate(), 2 * NUM_VALUES);
+
+    thetaSketch1.merge(thetaSketch2);
+    checkEstimate(thetaSketch1.getEstimate(), 3 * NUM_VALUES);
+  }
+
+  @Test
+  public void testSerDe() {
+    ThetaSketch thetaSketch = new ThetaSketch();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      thetaSketch.update(RANDOM.nextDouble());
+    }
+    byte[] bytes = thetaSketch.toBytes();
+    // Serialized size is bounded by the nominal entries
+    Assert.assertTrue(bytes.length <= 16 + 8 * ThetaSketch.DEFAULT_NOMINAL_ENTRIES, ERROR_MESSAGE);
+    Assert.assertEquals(bytes.length, thetaSketch.getSerializedSize(), ERROR_MESSAGE);
+
+    ThetaSketch deserializedThetaSketch = ThetaSketch.fromBytes(bytes);
+    Assert.assertEquals(deserializedThetaSketch.getEstimate(), thetaSketch.getEstimate(), ERROR_MESSAGE);
+    Assert.assertEquals(deserializedThetaSketch.getNumHashes(), thetaSketch.getNumHashes(), ERROR_MESSAGE);
+  }
+
+  private static void checkEstimate(long estimate, long expected) {
+    Assert.assertEquals((double) estimate, (double) expected, expected * MAX_RELATIVE_ERROR, ERROR_MESSAGE);
+  }
+}
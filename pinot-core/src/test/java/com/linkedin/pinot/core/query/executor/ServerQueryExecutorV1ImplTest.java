@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.executor;
+
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.query.ServerQueryRequest;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Collections;
+import org.testng.annotations.Test;
+
+import static com.linkedin.pinot.core.query.scheduler.TestHelper.*;
+import static org.testng.Assert.*;
+
+
+public class ServerQueryExecutorV1ImplTest {
+  private static final String TABLE_NAME = "testTable";
+
+  private final ServerMetrics _serverMetrics = new ServerMetrics(new MetricsRegistry());
+
+  @Test
+  public void testQueryTimeOut() {
+    ServerQueryExecutorV1Impl queryExecutor = new ServerQueryExecutorV1Impl();
+    long defaultTimeOutMs = CommonConstants.Server.DEFAULT_QUERY_EXECUTOR_TIMEOUT_MS;
+
+    // Without query timeout option, the table timeout is used
+    ServerQueryRequest queryRequest = createQueryRequest(null);
+    assertEquals(queryExecutor.getQueryTimeOut(queryRequest), defaultTimeOutMs);
+    queryRequest.setDeadlineEnforced(true);
+    assertEquals(queryExecutor.getQueryTimeOut(queryRequest), defaultTimeOutMs);
+
+    // With query timeout option, the table timeout is used unless the scheduler enforces the query deadline
+    queryRequest = createQueryRequest(1_000L);
+    assertEquals(queryExecutor.getQueryTimeOut(queryRequest), defaultTimeOutMs);
+    queryRequest.setDeadlineEnforced(true);
+    long queryTimeOutMs = queryExecutor.getQueryTimeOut(queryRequest);
+    assertTrue(queryTimeOutMs > 0L && queryTimeOutMs <= 1_000L);
+
+    // The table timeout still applies if shorter than the query deadline
+    queryExecutor.updateResourceTimeOutInMs(TABLE_NAME, 500L);
+    assertEquals(queryExecutor.getQueryTimeOut(queryRequest), 500L);
+  }
+
+  private ServerQueryRequest createQueryRequest(Long timeoutMs) {
+    ServerQueryRequest queryRequest = createServerQueryRequest(TABLE_NAME, _serverMetrics);
+    queryRequest.getTimerContext().setQueryArrivalTimeNs(System.nanoTime());
+    if (timeoutMs != null) {
+      queryRequest.getBrokerRequest()
+          .setQueryOptions(Collections.singletonMap(ServerQueryRequest.TIMEOUT_MS_QUERY_OPTION, timeoutMs.toString()));
+    }
+    return queryRequest;
+  }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.reduce;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.response.broker.AggregationResult;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.response.broker.GroupByResult;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+public class BrokerReduceServiceTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final int NUM_SERVERS = 10;
+  private static final int NUM_GROUPS_PER_SERVER = 1000;
+  private static final int NUM_PARTITIONS = 4;
+
+  private final ExecutorService _executorService = Executors.newFixedThreadPool(NUM_PARTITIONS);
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  @Test
+  public void testParallelGroupByReduce()
+      throws Exception {
+    Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      // Group keys of adjacent servers overlap by half.
+      dataTableMap.put(new ServerInstance("localhost:" + i),
+          buildGroupByDataTable(i * NUM_GROUPS_PER_SERVER / 2, NUM_GROUPS_PER_SERVER));
+    }
+
+    String[] queries = new String[]{
+        "SELECT SUM(m), MAX(m) FROM t GROUP BY d TOP 100",
+        "SELECT SUM(m), MAX(m) FROM t GROUP BY d HAVING SUM(m) < 3000 TOP 100"
+    };
+    BrokerReduceService sequentialReduceService = new BrokerReduceService();
+    // Trigger parallel reduce after the first data table.
+    BrokerReduceService parallelReduceService =
+        new BrokerReduceService(_executorService, NUM_PARTITIONS, NUM_GROUPS_PER_SERVER * 2);
+    for (String query : queries) {
+      BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(query);
+      BrokerResponseNative expected = sequentialReduceService.reduceOnDataTable(brokerRequest, dataTableMap, null);
+      BrokerResponseNative actual = parallelReduceService.reduceOnDataTable(brokerRequest, dataTableMap, null);
+      assertSameGroupByResults(actual.getAggregationResults(), expected.getAggregationResults());
+    }
+  }
+
+  @Test
+  public void testParallelGroupByReduceThreshold()
+      throws Exception {
+    Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      dataTableMap.put(new ServerInstance("localhost:" + i),
+          buildGroupByDataTable(i * NUM_GROUPS_PER_SERVER, NUM_GROUPS_PER_SERVER));
+    }
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT SUM(m), MAX(m) FROM t GROUP BY d TOP 100");
+
+    // Each group should be counted once instead of once per aggregation function.
+    ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(NUM_PARTITIONS);
+    try {
+      new BrokerReduceService(executor, NUM_PARTITIONS, NUM_SERVERS * NUM_GROUPS_PER_SERVER + 1).reduceOnDataTable(
+          brokerRequest, dataTableMap, null);
+      Assert.assertEquals(executor.getTaskCount(), 0L);
+      new BrokerReduceService(executor, NUM_PARTITIONS, NUM_SERVERS * NUM_GROUPS_PER_SERVER).reduceOnDataTable(
+          brokerRequest, dataTableMap, null);
+      Assert.assertEquals(executor.getTaskCount(), (long) NUM_PARTITIONS);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static void assertSameGroupByResults(List<AggregationResult> actual, List<AggregationResult> expected) {
+    Assert.assertEquals(actual.size(), expected.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Assert.assertEquals(actual.get(i).getFunction(), expected.get(i).getFunction());
+      List<GroupByResult> actualGroupByResults = actual.get(i).getGroupByResult();
+      List<GroupByResult> expectedGroupByResults = expected.get(i).getGroupByResult();
+      Assert.assertFalse(expectedGroupByResults.isEmpty());
+      Assert.assertEquals(actualGroupByResults.size(), expectedGroupByResults.size());
+      for (int j = 0; j < expectedGroupByResults.size(); j++) {
+        Assert.assertEquals(actualGroupByResults.get(j).getGroup(), expectedGroupByResults.get(j).getGroup());
+        Assert.assertEquals(actualGroupByResults.get(j).getValue(), expectedGroupByResults.get(j).getValue());
+      }
+    }
+  }
+
+  /**
+   * Build a group-by data table for SUM(m) and MAX(m), where each group 'k' has value 'k'.
+   */
+  private static DataTable buildGroupByDataTable(int startGroup, int numGroups)
+      throws Exception {
+    Map<String, Object> groupByResultMap = new HashMap<>();
+    for (int i = startGroup; i < startGroup + numGroups; i++) {
+      groupByResultMap.put(Integer.toString(i), (double) i);
+    }
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(
+        new DataSchema(new String[]{"functionName", "GroupByResultMap"},
+            new FieldSpec.DataType[]{FieldSpec.DataType.STRING, FieldSpec.DataType.OBJECT}));
+    String[] functionNames = new String[]{"sum_m", "max_m"};
+    for (String functionName : functionNames) {
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, functionName);
+      dataTableBuilder.setColumn(1, groupByResultMap);
+      dataTableBuilder.finishRow();
+    }
+    return dataTableBuilder.build();
+  }
+}
@@ -136,6 +136,11 @@ public class PrioritySchedulerTest {
     byte[] resultData = result.get();
     DataTable table = DataTableFactory.getDataTable(resultData);
     assertEquals(table.getMetadata().get("table"), "1");
+    // verify that the server load is piggybacked on the response
+    assertEquals(table.getMetadata().get(DataTable.SERVER_QUEUE_LENGTH_METADATA_KEY), "0");
+    assertTrue(Integer.parseInt(table.getMetadata().get(DataTable.SERVER_NUM_ACTIVE_THREADS_METADATA_KEY)) >= 1);
+    assertNotNull(table.getMetadata().get(DataTable.SERVER_LATENCY_P50_MS_METADATA_KEY));
+    assertNotNull(table.getMetadata().get(DataTable.SERVER_LATENCY_P99_MS_METADATA_KEY));
     // verify that accounting is handled right
     assertEquals(group.numPending(), 0);
     assertEquals(group.getThreadsInUse(), 0);
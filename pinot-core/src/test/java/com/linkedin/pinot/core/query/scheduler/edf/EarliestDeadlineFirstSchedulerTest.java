@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler.edf;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.linkedin.pinot.common.data.DataManager;
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.metrics.ServerQueryPhase;
+import com.linkedin.pinot.common.query.QueryExecutor;
+import com.linkedin.pinot.common.query.ServerQueryRequest;
+import com.linkedin.pinot.common.query.context.TimerContext;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.linkedin.pinot.core.query.scheduler.TableBasedGroupMapper;
+import com.linkedin.pinot.core.query.scheduler.resources.ResourceManager;
+import com.linkedin.pinot.core.query.scheduler.resources.UnboundedResourceManager;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.testng.annotations.Test;
+
+import static com.linkedin.pinot.core.query.scheduler.TestHelper.*;
+import static org.testng.Assert.*;
+
+
+public class EarliestDeadlineFirstSchedulerTest {
+  private static final long DEFAULT_TIMEOUT_MS = 10_000L;
+  private static final long BLOCKING_QUERY_TIMEOUT_MS = 5_000L;
+  private static final String TABLE_NAME = "1";
+
+  private final ServerMetrics metrics = new ServerMetrics(new MetricsRegistry());
+
+  @Test
+  public void testShedAndRecover() throws Exception {
+    PropertiesConfiguration conf = new PropertiesConfiguration();
+    // Enough runners to execute a query while another one is blocked
+    conf.setProperty(ResourceManager.QUERY_RUNNER_CONFIG_KEY, 4);
+    ResourceManager resourceManager = new UnboundedResourceManager(conf);
+    EdfPriorityQueue queue =
+        new EdfPriorityQueue(conf, resourceManager, new TableBasedGroupMapper(), metrics, DEFAULT_TIMEOUT_MS);
+    BlockingQueryExecutor queryExecutor = new BlockingQueryExecutor();
+    EarliestDeadlineFirstScheduler scheduler =
+        new EarliestDeadlineFirstScheduler(resourceManager, queryExecutor, queue, new TableBasedGroupMapper(),
+            metrics, DEFAULT_TIMEOUT_MS);
+    scheduler.start();
+    try {
+      // A few slow queries pushed the estimate above the timeout of the next queries
+      EdfSchedulerGroup group = queue.getSchedulerGroup(TABLE_NAME);
+      group.recordQueryTimeMs(2_000L);
+
+      // While a query of the table is running, queries that can not finish are shed on arrival
+      CountDownLatch runningQueryLatch = new CountDownLatch(1);
+      queryExecutor._latch = runningQueryLatch;
+      ListenableFuture<byte[]> runningQuery = scheduler.submit(createQuery(BLOCKING_QUERY_TIMEOUT_MS));
+      while (group.numRunning() == 0) {
+        Thread.sleep(10L);
+      }
+      assertTrue(isShed(scheduler.submit(createQuery(500L)).get()));
+      runningQueryLatch.countDown();
+      assertFalse(isShed(runningQuery.get()));
+
+      // With no query running, each query is admitted as a probe and its completion brings the estimate down
+      int numProbes = 0;
+      while (group.getEstimatedQueryTimeMs() >= 500L) {
+        assertTrue(++numProbes <= 10, "Estimate did not recover after probe queries");
+        assertFalse(isShed(scheduler.submit(createQuery(500L)).get()));
+        while (group.numRunning() > 0) {
+          Thread.sleep(10L);
+        }
+      }
+
+      // Once recovered, the queries are no longer shed even when another query is running
+      runningQueryLatch = new CountDownLatch(1);
+      queryExecutor._latch = runningQueryLatch;
+      runningQuery = scheduler.submit(createQuery(BLOCKING_QUERY_TIMEOUT_MS));
+      while (group.numRunning() == 0) {
+        Thread.sleep(10L);
+      }
+      assertFalse(isShed(scheduler.submit(createQuery(500L)).get()));
+      runningQueryLatch.countDown();
+      assertFalse(isShed(runningQuery.get()));
+    } finally {
+      scheduler.stop();
+    }
+  }
+
+  @Test
+  public void testDeadlineEnforced() throws Exception {
+    PropertiesConfiguration conf = new PropertiesConfiguration();
+    EarliestDeadlineFirstScheduler scheduler =
+        EarliestDeadlineFirstScheduler.create(conf, new BlockingQueryExecutor(), metrics);
+    scheduler.start();
+    try {
+      ServerQueryRequest queryRequest = createQuery(BLOCKING_QUERY_TIMEOUT_MS);
+      assertFalse(queryRequest.isDeadlineEnforced());
+      assertFalse(isShed(scheduler.submit(queryRequest).get()));
+      assertTrue(queryRequest.isDeadlineEnforced());
+    } finally {
+      scheduler.stop();
+    }
+  }
+
+  private ServerQueryRequest createQuery(long timeoutMs) {
+    ServerQueryRequest queryRequest = createServerQueryRequest(TABLE_NAME, metrics);
+    queryRequest.getTimerContext().setQueryArrivalTimeNs(System.nanoTime());
+    queryRequest.getBrokerRequest().setQueryOptions(
+        Collections.singletonMap(ServerQueryRequest.TIMEOUT_MS_QUERY_OPTION, Long.toString(timeoutMs)));
+    return queryRequest;
+  }
+
+  private static boolean isShed(byte[] response) throws Exception {
+    DataTable dataTable = DataTableFactory.getDataTable(response);
+    return dataTable.getMetadata()
+        .containsKey(DataTable.EXCEPTION_METADATA_KEY + QueryException.EXECUTION_TIMEOUT_ERROR.getErrorCode());
+  }
+
+  /**
+   * Query executor that blocks the queries with {@link #BLOCKING_QUERY_TIMEOUT_MS} timeout on the latch if set, and
+   * returns an empty result.
+   */
+  private static class BlockingQueryExecutor implements QueryExecutor {
+    volatile CountDownLatch _latch;
+
+    @Override
+    public void init(Configuration queryExecutorConfig, DataManager dataManager, ServerMetrics serverMetrics) {
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public DataTable processQuery(ServerQueryRequest queryRequest, ExecutorService executorService) {
+      TimerContext.Timer queryProcessingTimer =
+          queryRequest.getTimerContext().startNewPhaseTimer(ServerQueryPhase.QUERY_PROCESSING);
+      CountDownLatch latch = _latch;
+      if (latch != null && queryRequest.getTimeoutMs(0L) == BLOCKING_QUERY_TIMEOUT_MS) {
+        try {
+          latch.await(DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+      queryProcessingTimer.stopAndRecord();
+      return new DataTableImplV2();
+    }
+
+    @Override
+    public void shutDown() {
+    }
+
+    @Override
+    public boolean isStarted() {
+      return true;
+    }
+
+    @Override
+    public void updateResourceTimeOutInMs(String resource, long timeOutMs) {
+    }
+  }
+}
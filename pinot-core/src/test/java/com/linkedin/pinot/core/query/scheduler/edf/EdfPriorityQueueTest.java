@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler.edf;
+
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.query.ServerQueryRequest;
+import com.linkedin.pinot.core.query.scheduler.OutOfCapacityError;
+import com.linkedin.pinot.core.query.scheduler.SchedulerQueryContext;
+import com.linkedin.pinot.core.query.scheduler.TableBasedGroupMapper;
+import com.linkedin.pinot.core.query.scheduler.resources.UnboundedResourceManager;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.testng.annotations.Test;
+
+import static com.linkedin.pinot.core.query.scheduler.TestHelper.*;
+import static org.testng.Assert.*;
+
+
+public class EdfPriorityQueueTest {
+  private static final long DEFAULT_TIMEOUT_MS = 10_000L;
+
+  final ServerMetrics metrics = new ServerMetrics(new MetricsRegistry());
+  final String groupOne = "1";
+  final String groupTwo = "2";
+
+  @Test
+  public void testDeadlineOrder() throws OutOfCapacityError {
+    EdfPriorityQueue queue = createQueue();
+    SchedulerQueryContext defaultTimeout = createQuery(groupOne, null);
+    SchedulerQueryContext shortTimeout = createQuery(groupTwo, 1_000L);
+    SchedulerQueryContext mediumTimeout = createQuery(groupOne, 5_000L);
+    queue.put(defaultTimeout);
+    queue.put(shortTimeout);
+    queue.put(mediumTimeout);
+    assertEquals(queue.size(), 3);
+
+    assertSame(queue.take(), shortTimeout);
+    assertSame(queue.take(), mediumTimeout);
+    assertSame(queue.take(), defaultTimeout);
+    assertEquals(queue.size(), 0);
+  }
+
+  @Test
+  public void testShedQueriesThatCanNotFinish() throws Exception {
+    EdfPriorityQueue queue = createQueue();
+    // Queries of group one take about 2 seconds, and one of them is running
+    EdfSchedulerGroup group = queue.getSchedulerGroup(groupOne);
+    group.recordQueryTimeMs(2_000L);
+    group.startQuery();
+
+    SchedulerQueryContext unfinishable = createQuery(groupOne, 1_000L);
+    SchedulerQueryContext finishable = createQuery(groupOne, 5_000L);
+    SchedulerQueryContext otherGroup = createQuery(groupTwo, 1_000L);
+    queue.put(unfinishable);
+    queue.put(finishable);
+    queue.put(otherGroup);
+
+    assertSame(queue.take(), otherGroup);
+    assertTrue(unfinishable.getResultFuture().isDone());
+    assertNotNull(unfinishable.getResultFuture().get());
+    assertSame(queue.take(), finishable);
+    assertFalse(finishable.getResultFuture().isDone());
+    assertEquals(queue.size(), 0);
+  }
+
+  @Test
+  public void testProbeQueryWhenNoneRunning() throws Exception {
+    EdfPriorityQueue queue = createQueue();
+    queue.getSchedulerGroup(groupOne).recordQueryTimeMs(2_000L);
+
+    // No query of group one is running, so the head query is kept as a probe even if it can not finish in time
+    SchedulerQueryContext probe = createQuery(groupOne, 1_000L);
+    queue.put(probe);
+    assertSame(queue.take(), probe);
+    assertFalse(probe.getResultFuture() != null && probe.getResultFuture().isDone());
+
+    // A query past its deadline is still shed
+    SchedulerQueryContext expired = createQuery(groupOne, 50L);
+    SchedulerQueryContext otherGroup = createQuery(groupTwo, 1_000L);
+    queue.put(expired);
+    queue.put(otherGroup);
+    assertSame(queue.take(), otherGroup);
+    assertTrue(expired.getResultFuture().isDone());
+    assertEquals(queue.size(), 0);
+  }
+
+  @Test
+  public void testEstimatedQueryTime() {
+    EdfSchedulerGroup group = new EdfSchedulerGroup(groupOne, DEFAULT_TIMEOUT_MS);
+    long now = System.nanoTime();
+    assertEquals(group.getEstimatedQueryTimeMs(now), 0L);
+    group.recordQueryTimeMs(100L, now);
+    assertEquals(group.getEstimatedQueryTimeMs(now), 100L);
+    group.recordQueryTimeMs(500L, now);
+    assertEquals(group.getEstimatedQueryTimeMs(now), 200L);
+
+    // Without completed queries, the estimate decays by half every half-life
+    assertEquals(group.getEstimatedQueryTimeMs(now + EdfSchedulerGroup.ESTIMATE_HALF_LIFE_NS), 100L);
+    assertEquals(group.getEstimatedQueryTimeMs(now + 2 * EdfSchedulerGroup.ESTIMATE_HALF_LIFE_NS), 50L);
+    group.recordQueryTimeMs(250L, now + EdfSchedulerGroup.ESTIMATE_HALF_LIFE_NS);
+    assertEquals(group.getEstimatedQueryTimeMs(now + EdfSchedulerGroup.ESTIMATE_HALF_LIFE_NS), 137L);
+  }
+
+  private EdfPriorityQueue createQueue() {
+    PropertiesConfiguration conf = new PropertiesConfiguration();
+    return new EdfPriorityQueue(conf, new UnboundedResourceManager(conf), new TableBasedGroupMapper(), metrics,
+        DEFAULT_TIMEOUT_MS);
+  }
+
+  private SchedulerQueryContext createQuery(String table, Long timeoutMs) {
+    ServerQueryRequest queryRequest = createServerQueryRequest(table, metrics);
+    queryRequest.getTimerContext().setQueryArrivalTimeNs(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(100));
+    if (timeoutMs != null) {
+      queryRequest.getBrokerRequest()
+          .setQueryOptions(Collections.singletonMap(ServerQueryRequest.TIMEOUT_MS_QUERY_OPTION, timeoutMs.toString()));
+    }
+    return new SchedulerQueryContext(queryRequest);
+  }
+}
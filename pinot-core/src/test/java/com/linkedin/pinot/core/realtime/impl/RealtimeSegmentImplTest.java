@@ -22,11 +22,16 @@ import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import com.linkedin.pinot.core.io.writer.impl.DirectMemoryManager;
 import com.linkedin.pinot.core.io.writer.impl.MmapMemoryManager;
+import com.linkedin.pinot.core.realtime.RealtimeSegment;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import org.apache.commons.lang.RandomStringUtils;
@@ -129,6 +134,64 @@ public class RealtimeSegmentImplTest {
     }
   }
 
+  /**
+   * This test indexes rows with a multi-value column in batches without metrics aggregation, and ensures that all the
+   * values can be read back.
+   */
+  @Test
+  public void testBatchIndex() {
+    String mvColumn = "mvDim";
+    Schema schema = buildSchema();
+    schema.addField(new DimensionFieldSpec(mvColumn, FieldSpec.DataType.INT, false));
+    RealtimeSegmentStatsHistory statsHistory = mock(RealtimeSegmentStatsHistory.class);
+    when(statsHistory.getEstimatedAvgColSize(any(String.class))).thenReturn(32);
+    when(statsHistory.getEstimatedCardinality(any(String.class))).thenReturn(200);
+    RealtimeSegment realtimeSegment = new RealtimeSegmentImpl(new RealtimeSegmentConfig.Builder().setCapacity(NUM_ROWS)
+        .setMemoryManager(new DirectMemoryManager(SEGMENT_NAME))
+        .setNoDictionaryColumns(new HashSet<>(Collections.singletonList(METRIC_COLUMN)))
+        .setSchema(schema)
+        .setSegmentName(SEGMENT_NAME)
+        .setStatsHistory(statsHistory)
+        .setInvertedIndexColumns(new HashSet<>(Arrays.asList(DIMENSION_1, mvColumn)))
+        .setRealtimeSegmentZKMetadata(new RealtimeSegmentZKMetadata())
+        .setAvgNumMultiValues(2)
+        .build());
+
+    try {
+      List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+      for (int i = 0; i < NUM_ROWS; i++) {
+        GenericRow row = new GenericRow();
+        row.putField(DIMENSION_1, (long) _random.nextInt(10));
+        row.putField(DIMENSION_2, RandomStringUtils.randomAlphabetic(5));
+        row.putField(METRIC_COLUMN, _random.nextInt());
+        // Number of values varies from 1 to 40 to exercise the reuse of the dictionary id buffer
+        Object[] values = new Object[_random.nextInt(40) + 1];
+        for (int j = 0; j < values.length; j++) {
+          values[j] = _random.nextInt(100);
+        }
+        row.putField(mvColumn, values);
+        rows.add(row);
+      }
+      int batchSize = 100;
+      for (int i = 0; i < NUM_ROWS; i += batchSize) {
+        Assert.assertTrue(realtimeSegment.index(rows.subList(i, Math.min(i + batchSize, NUM_ROWS))));
+      }
+      Assert.assertEquals(realtimeSegment.getNumDocsIndexed(), NUM_ROWS);
+
+      GenericRow reuse = new GenericRow();
+      for (int docId = 0; docId < NUM_ROWS; docId++) {
+        realtimeSegment.getRecord(docId, reuse);
+        GenericRow expected = rows.get(docId);
+        Assert.assertEquals(reuse.getValue(DIMENSION_1), expected.getValue(DIMENSION_1));
+        Assert.assertEquals(reuse.getValue(DIMENSION_2), expected.getValue(DIMENSION_2));
+        Assert.assertEquals(reuse.getValue(METRIC_COLUMN), expected.getValue(METRIC_COLUMN));
+        Assert.assertEquals((Object[]) reuse.getValue(mvColumn), (Object[]) expected.getValue(mvColumn));
+      }
+    } finally {
+      realtimeSegment.destroy();
+    }
+  }
+
   /**
    * Helper method to build key containing dimension column values.
    *
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl.invertedindex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class RealtimeInvertedIndexReaderTest {
+  private static final int NUM_DOCS = 200_000;
+  private static final int CARDINALITY = 100;
+  private static final int NUM_READERS = 4;
+
+  @Test
+  public void testSingleThread() {
+    RealtimeInvertedIndexReader invertedIndex = new RealtimeInvertedIndexReader();
+    Assert.assertNull(invertedIndex.getDocIds(0));
+
+    // Multi-value column with repeated values for the same document
+    invertedIndex.add(0, 0);
+    invertedIndex.add(1, 0);
+    invertedIndex.add(1, 0);
+    invertedIndex.add(0, 2);
+    ImmutableRoaringBitmap bitmap0 = invertedIndex.getDocIds(0);
+    Assert.assertEquals(bitmap0.toArray(), new int[]{0, 2});
+    Assert.assertEquals(invertedIndex.getDocIds(1).toArray(), new int[]{0});
+    Assert.assertNull(invertedIndex.getDocIds(2));
+
+    // Snapshot should be reused if no document is appended, and should not be affected by later appends
+    Assert.assertSame(invertedIndex.getDocIds(0), bitmap0);
+    for (int docId = 3; docId < 100; docId++) {
+      invertedIndex.add(docId % 3, docId);
+    }
+    Assert.assertEquals(bitmap0.toArray(), new int[]{0, 2});
+    MutableRoaringBitmap[] expectedBitmaps =
+        new MutableRoaringBitmap[]{MutableRoaringBitmap.bitmapOf(0, 2), MutableRoaringBitmap.bitmapOf(0),
+            new MutableRoaringBitmap()};
+    for (int docId = 3; docId < 100; docId++) {
+      expectedBitmaps[docId % 3].add(docId);
+    }
+    for (int dictId = 0; dictId < 3; dictId++) {
+      ImmutableRoaringBitmap bitmap = invertedIndex.getDocIds(dictId);
+      Assert.assertEquals(bitmap, expectedBitmaps[dictId]);
+      Assert.assertEquals(invertedIndex.getPostingList(dictId).size(), bitmap.getCardinality());
+    }
+  }
+
+  @Test
+  public void testConcurrentReadWrite()
+      throws Exception {
+    final RealtimeInvertedIndexReader invertedIndex = new RealtimeInvertedIndexReader();
+    final AtomicInteger numDocsIndexed = new AtomicInteger();
+    final AtomicBoolean done = new AtomicBoolean();
+    ExecutorService executorService = Executors.newFixedThreadPool(NUM_READERS);
+
+    try {
+      List<Future<Void>> futures = new ArrayList<>(NUM_READERS);
+      for (int i = 0; i < NUM_READERS; i++) {
+        futures.add(executorService.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            while (!done.get()) {
+              int numDocs = numDocsIndexed.get();
+              for (int dictId = 0; dictId < CARDINALITY; dictId++) {
+                ImmutableRoaringBitmap bitmap = invertedIndex.getDocIds(dictId);
+                if (bitmap == null) {
+                  Assert.assertTrue(numDocs <= dictId);
+                  continue;
+                }
+                // All documents indexed before the snapshot must be visible, and in the right posting list
+                int expectedCount = (numDocs - dictId + CARDINALITY - 1) / CARDINALITY;
+                Assert.assertTrue(bitmap.getCardinality() >= expectedCount);
+                IntIterator iterator = bitmap.getIntIterator();
+                int count = 0;
+                while (iterator.hasNext()) {
+                  int docId = iterator.next();
+                  Assert.assertEquals(docId % CARDINALITY, dictId);
+                  if (docId < numDocs) {
+                    count++;
+                  }
+                }
+                Assert.assertEquals(count, expectedCount);
+              }
+            }
+            return null;
+          }
+        }));
+      }
+
+      for (int docId = 0; docId < NUM_DOCS; docId++) {
+        invertedIndex.add(docId % CARDINALITY, docId);
+        numDocsIndexed.set(docId + 1);
+      }
+      done.set(true);
+      for (Future<Void> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    for (int dictId = 0; dictId < CARDINALITY; dictId++) {
+      Assert.assertEquals(invertedIndex.getDocIds(dictId).getCardinality(), NUM_DOCS / CARDINALITY);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.loader.Loaders;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
+import com.linkedin.pinot.core.segment.store.SegmentDirectory;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class IndexSegmentImplTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "IndexSegmentImplTest");
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 10000;
+  private static final String DIMENSION_NAME = "dimension";
+  private static final String METRIC_NAME = "metric";
+  private static final String RAW_METRIC_NAME = "rawMetric";
+
+  private File _segmentDir;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(DIMENSION_NAME, FieldSpec.DataType.STRING, true));
+    schema.addField(new MetricFieldSpec(METRIC_NAME, FieldSpec.DataType.LONG));
+    schema.addField(new MetricFieldSpec(RAW_METRIC_NAME, FieldSpec.DataType.DOUBLE));
+
+    Random random = new Random();
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Map<String, Object> map = new HashMap<>();
+      map.put(DIMENSION_NAME, "value" + random.nextInt(100));
+      map.put(METRIC_NAME, random.nextLong());
+      map.put(RAW_METRIC_NAME, random.nextDouble());
+      GenericRow row = new GenericRow();
+      row.init(map);
+      rows.add(row);
+    }
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getAbsolutePath());
+    config.setSegmentName(SEGMENT_NAME);
+    config.setSegmentVersion(SegmentVersion.v1);
+    config.setInvertedIndexCreationColumns(Collections.singletonList(DIMENSION_NAME));
+    config.setRawIndexCreationColumns(Collections.singletonList(RAW_METRIC_NAME));
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows, schema));
+    driver.build();
+    _segmentDir = new File(INDEX_DIR, SEGMENT_NAME);
+  }
+
+  @Test
+  public void testWarmUp() throws Exception {
+    // Loading with v3 converts the segment, so test v1 first
+    for (SegmentVersion segmentVersion : new SegmentVersion[]{SegmentVersion.v1, SegmentVersion.v3}) {
+      IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+      indexLoadingConfig.setReadMode(ReadMode.mmap);
+      indexLoadingConfig.setSegmentVersion(segmentVersion);
+      IndexSegmentImpl indexSegment = (IndexSegmentImpl) Loaders.IndexSegment.load(_segmentDir, indexLoadingConfig);
+      try {
+        Set<String> columns = indexSegment.getColumnNames();
+        long expectedNumBytes = 0L;
+        SegmentDirectory segmentDirectory =
+            SegmentDirectory.createFromLocalFS(_segmentDir, new SegmentMetadataImpl(_segmentDir), ReadMode.mmap);
+        try (SegmentDirectory.Reader reader = segmentDirectory.createReader()) {
+          for (String column : columns) {
+            for (ColumnIndexType indexType : ColumnIndexType.values()) {
+              if (reader.hasIndexFor(column, indexType)) {
+                expectedNumBytes += reader.getIndexFor(column, indexType).size();
+              }
+            }
+          }
+        }
+        segmentDirectory.close();
+        Assert.assertTrue(expectedNumBytes > 0L);
+        Assert.assertEquals(indexSegment.warmUp(columns), expectedNumBytes);
+
+        // Unknown columns should be ignored
+        Assert.assertEquals(indexSegment.warmUp(Collections.singleton("unknownColumn")), 0L);
+      } finally {
+        indexSegment.destroy();
+      }
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
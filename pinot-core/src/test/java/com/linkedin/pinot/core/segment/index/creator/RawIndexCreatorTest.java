@@ -24,9 +24,11 @@ import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
 import com.linkedin.pinot.core.data.readers.RecordReader;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.io.reader.impl.ChunkReaderContext;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedByteChunkSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.VarByteChunkSingleValueReader;
+import com.linkedin.pinot.core.minion.RawIndexConverter;
 import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import com.linkedin.pinot.core.segment.store.ColumnIndexType;
@@ -36,6 +38,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.RandomStringUtils;
@@ -159,6 +162,40 @@ public class RawIndexCreatorTest {
     }
   }
 
+  /**
+   * Test for re-encoding raw indexes with a different compression type.
+   * Compares values read from the re-encoded raw indexes against expected value.
+   * @throws Exception
+   */
+  @Test
+  public void testReencodeRawIndex()
+      throws Exception {
+    Map<String, ChunkCompressorFactory.CompressionType> compressionTypes = new HashMap<>();
+    compressionTypes.put(LONG_COLUMN, ChunkCompressorFactory.CompressionType.LZ4);
+    compressionTypes.put(STRING_COLUMN, ChunkCompressorFactory.CompressionType.DEFLATE);
+    File convertedIndexDir = new File(SEGMENT_DIR_NAME, "converted");
+    RawIndexConverter rawIndexConverter =
+        new RawIndexConverter(_segmentDirectory.getPath().toFile(), convertedIndexDir, null, compressionTypes);
+    Assert.assertTrue(rawIndexConverter.convert());
+
+    try (SegmentDirectory.Reader convertedReader = SegmentDirectory.createFromLocalFS(convertedIndexDir,
+        ReadMode.mmap).createReader()) {
+      FixedByteChunkSingleValueReader longReader =
+          new FixedByteChunkSingleValueReader(convertedReader.getIndexFor(LONG_COLUMN, ColumnIndexType.FORWARD_INDEX));
+      VarByteChunkSingleValueReader stringReader = new VarByteChunkSingleValueReader(
+          convertedReader.getIndexFor(STRING_COLUMN, ColumnIndexType.FORWARD_INDEX));
+      ChunkReaderContext stringContext = stringReader.createContext();
+
+      _recordReader.rewind();
+      for (int row = 0; row < NUM_ROWS; row++) {
+        GenericRow expectedRow = _recordReader.next();
+        Assert.assertEquals(readValueFromIndex(longReader, FieldSpec.DataType.LONG, row),
+            expectedRow.getValue(LONG_COLUMN));
+        Assert.assertEquals(stringReader.getString(row, stringContext), expectedRow.getValue(STRING_COLUMN));
+      }
+    }
+  }
+
   /**
    * Helper method to perform actual tests for a given column.
    *
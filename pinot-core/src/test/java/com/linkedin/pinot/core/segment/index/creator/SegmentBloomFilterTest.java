@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.creator;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.query.pruner.BloomFilterSegmentPruner;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.IndexSegmentImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.loader.Loaders;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for the bloom filter index:
+ * <ul>
+ *   <li> Test to cover bloom filter creation during segment generation and during segment pre-processing. </li>
+ *   <li> Test to cover segment pruning with {@link BloomFilterSegmentPruner}. </li>
+ * </ul>
+ */
+public class SegmentBloomFilterTest {
+  private static final String SEGMENT_DIR_NAME =
+      System.getProperty("java.io.tmpdir") + File.separator + "bloomFilterTest";
+  private static final String TABLE_NAME = "bloomFilterTable";
+  private static final String SEGMENT_NAME = "bloomFilter";
+  private static final String SEGMENT_PATH = SEGMENT_DIR_NAME + File.separator + SEGMENT_NAME;
+
+  private static final int NUM_ROWS = 1001;
+  // Bloom filter created during segment generation
+  private static final String INT_COLUMN_NAME = "intColumn";
+  // Bloom filter created during segment pre-processing
+  private static final String STRING_COLUMN_NAME = "stringColumn";
+  // No bloom filter
+  private static final String NO_BLOOM_FILTER_COLUMN_NAME = "noBloomFilterColumn";
+
+  private IndexSegment _segment;
+
+  @BeforeClass
+  public void init()
+      throws Exception {
+    FileUtils.deleteQuietly(new File(SEGMENT_DIR_NAME));
+    buildSegment();
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setBloomFilterColumns(new HashSet<>(Arrays.asList(INT_COLUMN_NAME, STRING_COLUMN_NAME)));
+    _segment = Loaders.IndexSegment.load(new File(SEGMENT_PATH), indexLoadingConfig);
+  }
+
+  @AfterClass
+  public void cleanup() {
+    _segment.destroy();
+    FileUtils.deleteQuietly(new File(SEGMENT_DIR_NAME));
+  }
+
+  @Test
+  public void testBloomFilter() {
+    IndexSegmentImpl segment = (IndexSegmentImpl) _segment;
+    BloomFilterReader intBloomFilter = segment.getBloomFilterFor(INT_COLUMN_NAME);
+    BloomFilterReader stringBloomFilter = segment.getBloomFilterFor(STRING_COLUMN_NAME);
+    Assert.assertNotNull(intBloomFilter);
+    Assert.assertNotNull(stringBloomFilter);
+    Assert.assertNull(segment.getBloomFilterFor(NO_BLOOM_FILTER_COLUMN_NAME));
+
+    // No false negative
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Assert.assertTrue(intBloomFilter.mightContain(Integer.toString(getIntValue(i))));
+      Assert.assertTrue(stringBloomFilter.mightContain(getStringValue(i)));
+    }
+  }
+
+  /**
+   * Unit test for {@link BloomFilterSegmentPruner}.
+   * <ul>
+   *   <li> Ensures that values in the segment never prune the segment. </li>
+   *   <li> Ensures that most values not in the segment prune the segment (bloom filter can have false positive). </li>
+   *   <li> Ensures that predicates on columns without bloom filter do not prune the segment. </li>
+   * </ul>
+   */
+  @Test
+  public void testPruner() {
+    Pql2Compiler compiler = new Pql2Compiler();
+    BloomFilterSegmentPruner pruner = new BloomFilterSegmentPruner();
+
+    int numPruned = 0;
+    for (int i = 0; i < NUM_ROWS; i++) {
+      // Values in the segment
+      Assert.assertFalse(prune(compiler, pruner, INT_COLUMN_NAME + " = " + getIntValue(i)));
+      Assert.assertFalse(prune(compiler, pruner, STRING_COLUMN_NAME + " = '" + getStringValue(i) + "'"));
+      Assert.assertFalse(
+          prune(compiler, pruner, INT_COLUMN_NAME + " IN (" + (getIntValue(i) + 1) + ", " + getIntValue(i) + ")"));
+
+      // Values not in the segment (all int values are even)
+      if (prune(compiler, pruner, INT_COLUMN_NAME + " = " + (getIntValue(i) + 1))) {
+        numPruned++;
+      }
+
+      // Column without bloom filter
+      Assert.assertFalse(prune(compiler, pruner, NO_BLOOM_FILTER_COLUMN_NAME + " = " + (getIntValue(i) + 1)));
+
+      // AND: pruned as long as one child can prune
+      Assert.assertTrue(prune(compiler, pruner,
+          STRING_COLUMN_NAME + " = 'notInSegment' AND " + INT_COLUMN_NAME + " = " + getIntValue(i)));
+
+      // OR: pruned only if all children can prune
+      Assert.assertFalse(prune(compiler, pruner,
+          STRING_COLUMN_NAME + " = 'notInSegment' OR " + INT_COLUMN_NAME + " = " + getIntValue(i)));
+    }
+    // Default false positive probability is 5%
+    Assert.assertTrue(numPruned > NUM_ROWS * 0.8, "Pruned " + numPruned + " out of " + NUM_ROWS);
+
+    // Range predicate is not supported
+    Assert.assertFalse(prune(compiler, pruner, INT_COLUMN_NAME + " > " + Integer.MAX_VALUE / 2));
+  }
+
+  private boolean prune(Pql2Compiler compiler, BloomFilterSegmentPruner pruner, String predicate) {
+    String query = "select count(*) from " + TABLE_NAME + " where " + predicate;
+    FilterQueryTree filterQueryTree = RequestUtils.generateFilterQueryTree(compiler.compileToBrokerRequest(query));
+    return pruner.prune(_segment, filterQueryTree);
+  }
+
+  private static int getIntValue(int row) {
+    return row * 2;
+  }
+
+  private static String getStringValue(int row) {
+    return "value_" + row;
+  }
+
+  private void buildSegment()
+      throws Exception {
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(INT_COLUMN_NAME, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(STRING_COLUMN_NAME, FieldSpec.DataType.STRING, true));
+    schema.addField(new DimensionFieldSpec(NO_BLOOM_FILTER_COLUMN_NAME, FieldSpec.DataType.INT, true));
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(SEGMENT_DIR_NAME);
+    config.setSegmentName(SEGMENT_NAME);
+    config.setTableName(TABLE_NAME);
+    config.setBloomFilterCreationColumns(Collections.singletonList(INT_COLUMN_NAME));
+
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      HashMap<String, Object> map = new HashMap<>();
+      map.put(INT_COLUMN_NAME, getIntValue(i));
+      map.put(STRING_COLUMN_NAME, getStringValue(i));
+      map.put(NO_BLOOM_FILTER_COLUMN_NAME, getIntValue(i));
+
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(map);
+      rows.add(genericRow);
+    }
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows, schema));
+    driver.build();
+  }
+}
@@ -52,11 +52,14 @@ public class FixedByteChunkSingleValueReaderWriteTest {
   @Test
   public void testWithCompression()
       throws Exception {
-    ChunkCompressorFactory.CompressionType compressionType = ChunkCompressorFactory.CompressionType.SNAPPY;
-    testInt(compressionType);
-    testLong(compressionType);
-    testFloat(compressionType);
-    testDouble(compressionType);
+    for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+      if (compressionType != ChunkCompressorFactory.CompressionType.PASS_THROUGH) {
+        testInt(compressionType);
+        testLong(compressionType);
+        testFloat(compressionType);
+        testDouble(compressionType);
+      }
+    }
   }
 
   @Test
@@ -103,6 +106,14 @@ public class FixedByteChunkSingleValueReaderWriteTest {
         Assert.assertEquals(actual, expected[i]);
       }
     }
+
+    // Batch read a subset of the rows, which spans complete as well as partial chunks
+    int[] rows = getRows();
+    int[] values = new int[rows.length];
+    reader.readIntValues(rows, 0, rows.length, values, 0, reader.createContext());
+    for (int i = 0; i < rows.length; i++) {
+      Assert.assertEquals(values[i], expected[rows[i]]);
+    }
     reader.close();
     FileUtils.deleteQuietly(outFile);
   }
@@ -141,6 +152,14 @@ public class FixedByteChunkSingleValueReaderWriteTest {
         Assert.assertEquals(actual, expected[i]);
       }
     }
+
+    // Batch read a subset of the rows, which spans complete as well as partial chunks
+    int[] rows = getRows();
+    long[] values = new long[rows.length];
+    reader.readLongValues(rows, 0, rows.length, values, 0, reader.createContext());
+    for (int i = 0; i < rows.length; i++) {
+      Assert.assertEquals(values[i], expected[rows[i]]);
+    }
     reader.close();
     FileUtils.deleteQuietly(outFile);
   }
@@ -179,6 +198,14 @@ public class FixedByteChunkSingleValueReaderWriteTest {
         Assert.assertEquals(actual, expected[i]);
       }
     }
+
+    // Batch read a subset of the rows, which spans complete as well as partial chunks
+    int[] rows = getRows();
+    float[] values = new float[rows.length];
+    reader.readFloatValues(rows, 0, rows.length, values, 0, reader.createContext());
+    for (int i = 0; i < rows.length; i++) {
+      Assert.assertEquals(values[i], expected[rows[i]]);
+    }
     reader.close();
     FileUtils.deleteQuietly(outFile);
   }
@@ -217,6 +244,14 @@ public class FixedByteChunkSingleValueReaderWriteTest {
         Assert.assertEquals(actual, expected[i]);
       }
     }
+
+    // Batch read a subset of the rows, which spans complete as well as partial chunks
+    int[] rows = getRows();
+    double[] values = new double[rows.length];
+    reader.readDoubleValues(rows, 0, rows.length, values, 0, reader.createContext());
+    for (int i = 0; i < rows.length; i++) {
+      Assert.assertEquals(values[i], expected[rows[i]]);
+    }
     reader.close();
     FileUtils.deleteQuietly(outFile);
   }
@@ -251,4 +286,15 @@ public class FixedByteChunkSingleValueReaderWriteTest {
     }
     reader.close();
   }
+
+  /**
+   * Returns every third row, so that consecutive rows can either be in the same chunk or across chunks.
+   */
+  private static int[] getRows() {
+    int[] rows = new int[(NUM_VALUES + 2) / 3];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = i * 3;
+    }
+    return rows;
+  }
 }
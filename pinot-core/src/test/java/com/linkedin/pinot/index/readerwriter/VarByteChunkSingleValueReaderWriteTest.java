@@ -17,6 +17,7 @@ package com.linkedin.pinot.index.readerwriter;
 
 import com.linkedin.pinot.common.segment.ReadMode;
 import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.io.reader.impl.ChunkCache;
 import com.linkedin.pinot.core.io.reader.impl.ChunkReaderContext;
 import com.linkedin.pinot.core.io.reader.impl.v1.VarByteChunkSingleValueReader;
 import com.linkedin.pinot.core.io.writer.impl.v1.VarByteChunkSingleValueWriter;
@@ -45,9 +46,9 @@ public class VarByteChunkSingleValueReaderWriteTest {
   private static final String TEST_FILE = System.getProperty("java.io.tmpdir") + File.separator + "varByteSVRTest";
 
   /**
-   * This test writes {@link #NUM_STRINGS} using {@link VarByteChunkSingleValueWriter}. It then reads
-   * the strings using {@link VarByteChunkSingleValueReader}, and asserts that what was written is the same as
-   * what was read in.
+   * This test writes {@link #NUM_STRINGS} using {@link VarByteChunkSingleValueWriter} for each compression type,
+   * then reads the strings using {@link VarByteChunkSingleValueReader}, and asserts that what was written is the
+   * same as what was read in.
    *
    * Number of docs and docs per chunk are chosen to generate complete as well partial chunks.
    *
@@ -56,6 +57,13 @@ public class VarByteChunkSingleValueReaderWriteTest {
   @Test
   public void test()
       throws Exception {
+    for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+      test(compressionType);
+    }
+  }
+
+  private void test(ChunkCompressorFactory.CompressionType compressionType)
+      throws Exception {
     String[] expected = new String[NUM_STRINGS];
     Random random = new Random();
 
@@ -68,7 +76,6 @@ public class VarByteChunkSingleValueReaderWriteTest {
       maxStringLengthInBytes = Math.max(maxStringLengthInBytes, expected[i].getBytes(UTF_8).length);
     }
 
-    ChunkCompressorFactory.CompressionType compressionType = ChunkCompressorFactory.CompressionType.SNAPPY;
     VarByteChunkSingleValueWriter writer =
         new VarByteChunkSingleValueWriter(outFile, compressionType, NUM_STRINGS, NUM_DOCS_PER_CHUNK,
             maxStringLengthInBytes);
@@ -92,6 +99,70 @@ public class VarByteChunkSingleValueReaderWriteTest {
     FileUtils.deleteQuietly(outFile);
   }
 
+  /**
+   * This test reads the strings through two readers of the same data with a shared {@link ChunkCache}, with the
+   * contexts interleaved (as concurrent queries would), and asserts that:
+   * <ul>
+   *   <li> What was read is the same as what was written. </li>
+   *   <li> Chunks decompressed by one reader are not served to the other one. </li>
+   *   <li> Chunks are served from the cache on subsequent reads, and only the chunks of the closed reader are evicted
+   *   when a reader is closed. </li>
+   * </ul>
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testWithChunkCache()
+      throws Exception {
+    String[] expected = new String[NUM_STRINGS];
+    Random random = new Random();
+
+    File outFile = new File(TEST_FILE);
+    FileUtils.deleteQuietly(outFile);
+
+    int maxStringLengthInBytes = 0;
+    for (int i = 0; i < NUM_STRINGS; i++) {
+      expected[i] = RandomStringUtils.random(random.nextInt(MAX_STRING_LENGTH));
+      maxStringLengthInBytes = Math.max(maxStringLengthInBytes, expected[i].getBytes(UTF_8).length);
+    }
+
+    VarByteChunkSingleValueWriter writer =
+        new VarByteChunkSingleValueWriter(outFile, ChunkCompressorFactory.CompressionType.SNAPPY, NUM_STRINGS,
+            NUM_DOCS_PER_CHUNK, maxStringLengthInBytes);
+    for (int i = 0; i < NUM_STRINGS; i++) {
+      writer.setString(i, expected[i]);
+    }
+    writer.close();
+
+    PinotDataBuffer pinotDataBuffer =
+        PinotDataBuffer.fromFile(outFile, ReadMode.mmap, FileChannel.MapMode.READ_ONLY, getClass().getName());
+
+    ChunkCache chunkCache = new ChunkCache(100 * 1024 * 1024);
+    VarByteChunkSingleValueReader reader1 = new VarByteChunkSingleValueReader(pinotDataBuffer, chunkCache);
+    VarByteChunkSingleValueReader reader2 = new VarByteChunkSingleValueReader(pinotDataBuffer, chunkCache);
+    ChunkReaderContext context1 = reader1.createContext();
+    ChunkReaderContext context2 = reader1.createContext();
+    ChunkReaderContext context3 = reader2.createContext();
+
+    for (int i = 0; i < 3 * NUM_STRINGS; i++) {
+      int row = random.nextInt(NUM_STRINGS);
+      Assert.assertEquals(reader1.getString(row, context1), expected[row]);
+      Assert.assertEquals(reader1.getString(NUM_STRINGS - 1 - row, context2), expected[NUM_STRINGS - 1 - row]);
+      Assert.assertEquals(reader2.getString(row, context3), expected[row]);
+    }
+    Assert.assertTrue(chunkCache.getHitRatio() > 0);
+    Assert.assertTrue(chunkCache.getSizeInBytes() > 0);
+
+    // Closing one reader only evicts its own chunks
+    long sizeInBytes = chunkCache.getSizeInBytes();
+    reader1.close();
+    Assert.assertTrue(chunkCache.getSizeInBytes() > 0);
+    Assert.assertTrue(chunkCache.getSizeInBytes() < sizeInBytes);
+    reader2.close();
+    Assert.assertEquals(chunkCache.getSizeInBytes(), 0);
+    FileUtils.deleteQuietly(outFile);
+  }
+
   /**
    * This test ensures that the reader can read in an data file from version 1.
    * @throws IOException
@@ -16,6 +16,7 @@
 package com.linkedin.pinot.queries;
 
 import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.core.query.exception.BadQueryRequestException;
 import org.testng.annotations.Test;
 
 
@@ -196,6 +197,45 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1324", "3197"});
   }
 
+  @Test
+  public void testDistinctCountThetaSketch() {
+    String query = "SELECT DISTINCTCOUNTTHETASKETCH(column1), DISTINCTCOUNTTHETASKETCH(column3) FROM testTable";
+
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 120000L, 0L, 240000L, 120000L,
+        new String[]{"6621", "21679"});
+
+    brokerResponse = getBrokerResponseForQueryWithFilter(query);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+        new String[]{"1872", "4548"});
+
+    brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 120000L, 0L, 360000L, 120000L,
+        new String[]{"3495", "11886"});
+
+    brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+        new String[]{"1272", "3289"});
+  }
+
+  @Test
+  public void testDistinctCountThetaSketchWithSetOperations() {
+    // Exact distinct counts: 1032 for the intersection, 3930 for the union
+    String query = "SELECT DISTINCTCOUNTTHETASKETCH(column1, 'column11 = ''t''', 'column6 < 500000000', "
+        + "'SET_INTERSECT($1, $2)'), DISTINCTCOUNTTHETASKETCH(column1, 'column11 = ''t''', 'column6 < 500000000', "
+        + "'SET_UNION($1, $2)'), DISTINCTCOUNTTHETASKETCH(column1, 'column11 = ''t'' AND column6 < 500000000') "
+        + "FROM testTable";
+
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 120000L, 0L, 360000L, 120000L,
+        new String[]{"1034", "3930", "1032"});
+  }
+
+  @Test(expectedExceptions = BadQueryRequestException.class)
+  public void testAggregationFunctionWithUnexpectedArguments() {
+    getOperatorForQuery("SELECT SUM(column1, 'column6 < 500000000') FROM testTable");
+  }
+
   @Test
   public void testPercentile50() {
     String query = "SELECT PERCENTILE50(column1), PERCENTILE50(column3) FROM testTable";
@@ -363,4 +403,88 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
         new String[]{"2146232405", "999309554"});
   }
+
+  @Test
+  public void testPercentileTDigest50() {
+    String query = "SELECT PERCENTILETDIGEST50(column1), PERCENTILETDIGEST50(column3) FROM testTable";
+
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 120000L, 0L, 240000L, 120000L,
+        new String[]{"1108550979.99078", "1079437985.15233"});
+
+    brokerResponse = getBrokerResponseForQueryWithFilter(query);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+        new String[]{"1137136586.71132", "505305940.68557"});
+
+    brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 120000L, 0L, 360000L, 120000L,
+        new String[]{"2146791843.00000", "2141451242.00000"});
+
+    brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+        new String[]{"2142595699.00000", "999309554.00000"});
+  }
+
+  @Test
+  public void testPercentileTDigest90() {
+    String query = "SELECT PERCENTILETDIGEST90(column1), PERCENTILETDIGEST90(column3) FROM testTable";
+
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 120000L, 0L, 240000L, 120000L,
+        new String[]{"1942570946.53868", "1936371893.32852"});
+
+    brokerResponse = getBrokerResponseForQueryWithFilter(query);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+        new String[]{"1939150062.60875", "897716273.67668"});
+
+    brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 120000L, 0L, 360000L, 120000L,
+        new String[]{"2146791843.00000", "2147278341.00000"});
+
+    brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+        new String[]{"2142595699.00000", "999309554.00000"});
+  }
+
+  @Test
+  public void testPercentileTDigest95() {
+    String query = "SELECT PERCENTILETDIGEST95(column1), PERCENTILETDIGEST95(column3) FROM testTable";
+
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 120000L, 0L, 240000L, 120000L,
+        new String[]{"2072775392.72954", "2041366042.32083"});
+
+    brokerResponse = getBrokerResponseForQueryWithFilter(query);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+        new String[]{"2095458337.99807", "947734631.72807"});
+
+    brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 120000L, 0L, 360000L, 120000L,
+        new String[]{"2146791843.00000", "2147419555.00000"});
+
+    brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+        new String[]{"2142595699.00000", "999309554.00000"});
+  }
+
+  @Test
+  public void testPercentileTDigest99() {
+    String query = "SELECT PERCENTILETDIGEST99(column1), PERCENTILETDIGEST99(column3) FROM testTable";
+
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 120000L, 0L, 240000L, 120000L,
+        new String[]{"2138343127.43942", "2125522798.20752"});
+
+    brokerResponse = getBrokerResponseForQueryWithFilter(query);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+        new String[]{"2145036526.36072", "990054891.09071"});
+
+    brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 120000L, 0L, 360000L, 120000L,
+        new String[]{"2146791843.00000", "2147419555.00000"});
+
+    brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+        new String[]{"2146232405.00000", "999309554.00000"});
+  }
 }
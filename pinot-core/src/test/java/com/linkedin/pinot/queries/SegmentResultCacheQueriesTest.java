@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.queries;
+
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for serving aggregation and aggregation group-by queries from the {@link SegmentResultCache}.
+ */
+public class SegmentResultCacheQueriesTest extends BaseSingleValueQueriesTest {
+  private static final String AGGREGATION_QUERY =
+      "SELECT COUNT(*), SUM(column1), MAX(column3), AVG(column6), DISTINCTCOUNT(column9) FROM testTable";
+  // Avoid aggregation functions with ties in the top groups, which are not guaranteed to be returned in the same order.
+  private static final String GROUP_BY_QUERY =
+      "SELECT COUNT(*), SUM(column1), MAX(column3), DISTINCTCOUNT(column9) FROM testTable";
+  private static final String GROUP_BY = " GROUP BY column11, column12 TOP 5";
+
+  private SegmentResultCache _segmentResultCache;
+
+  @BeforeMethod
+  public void setUpCache() {
+    _segmentResultCache = new SegmentResultCache(1024 * 1024L, 60_000L, new ServerMetrics(new MetricsRegistry()));
+    SegmentResultCache.setInstance(_segmentResultCache);
+  }
+
+  @AfterMethod
+  public void tearDownCache() {
+    SegmentResultCache.setInstance(null);
+  }
+
+  @Test
+  public void testAggregationOnly()
+      throws Exception {
+    testCachedQuery(AGGREGATION_QUERY);
+    testCachedQuery(AGGREGATION_QUERY + getFilter());
+  }
+
+  @Test
+  public void testAggregationGroupBy()
+      throws Exception {
+    testCachedQuery(GROUP_BY_QUERY + GROUP_BY);
+    testCachedQuery(GROUP_BY_QUERY + getFilter() + GROUP_BY);
+  }
+
+  @Test
+  public void testNormalizedKey()
+      throws Exception {
+    getBrokerResponseForQuery(
+        GROUP_BY_QUERY + " WHERE column11 = 'P' AND (column1 > 100 OR column3 < 200) GROUP BY column12 TOP 5");
+    Assert.assertEquals(_segmentResultCache.size(), 1L);
+
+    // Same per-segment results for different AND/OR operand order and different group-by top N.
+    getBrokerResponseForQuery(
+        GROUP_BY_QUERY + " WHERE (column3 < 200 OR column1 > 100) AND column11 = 'P' GROUP BY column12 TOP 10");
+    Assert.assertEquals(_segmentResultCache.size(), 1L);
+
+    getBrokerResponseForQuery(
+        GROUP_BY_QUERY + " WHERE (column3 < 200 AND column1 > 100) OR column11 = 'P' GROUP BY column12 TOP 10");
+    Assert.assertEquals(_segmentResultCache.size(), 2L);
+  }
+
+  @Test
+  public void testSelectionNotCached() {
+    getBrokerResponseForQuery("SELECT * FROM testTable");
+    Assert.assertEquals(_segmentResultCache.size(), 0L);
+  }
+
+  private void testCachedQuery(String query)
+      throws Exception {
+    // The 2 identical index segments share the same cache key.
+    BrokerResponseNative expectedBrokerResponse = getBrokerResponseForQuery(query);
+    long cacheSize = _segmentResultCache.size();
+    Assert.assertTrue(cacheSize > 0L);
+
+    // Served from cache, should get the same response without any document or entry scanned.
+    BrokerResponseNative cachedBrokerResponse = getBrokerResponseForQuery(query);
+    Assert.assertEquals(_segmentResultCache.size(), cacheSize);
+    Assert.assertEquals(cachedBrokerResponse.getNumDocsScanned(), 0L);
+    Assert.assertEquals(cachedBrokerResponse.getNumEntriesScannedInFilter(), 0L);
+    Assert.assertEquals(cachedBrokerResponse.getNumEntriesScannedPostFilter(), 0L);
+    Assert.assertEquals(cachedBrokerResponse.getTotalDocs(), expectedBrokerResponse.getTotalDocs());
+    cachedBrokerResponse.setNumDocsScanned(expectedBrokerResponse.getNumDocsScanned());
+    cachedBrokerResponse.setNumEntriesScannedInFilter(expectedBrokerResponse.getNumEntriesScannedInFilter());
+    cachedBrokerResponse.setNumEntriesScannedPostFilter(expectedBrokerResponse.getNumEntriesScannedPostFilter());
+    Assert.assertEquals(cachedBrokerResponse.toJsonString(), expectedBrokerResponse.toJsonString());
+
+    // After invalidation, the query should be executed again.
+    _segmentResultCache.invalidate("testTable", getIndexSegment().getSegmentName());
+    Assert.assertEquals(_segmentResultCache.size(), 0L);
+    Assert.assertEquals(getBrokerResponseForQuery(query).toJsonString(), expectedBrokerResponse.toJsonString());
+  }
+}
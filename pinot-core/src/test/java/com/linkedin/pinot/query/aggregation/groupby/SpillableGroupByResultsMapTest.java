@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.query.aggregation.groupby;
+
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFactory;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
+import com.linkedin.pinot.core.query.aggregation.groupby.SpillableGroupByResultsMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class SpillableGroupByResultsMapTest {
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+
+  private static final AggregationFunction SUM = AggregationFunctionFactory.getAggregationFunction("SUM");
+  private static final AggregationFunction DISTINCTCOUNT =
+      AggregationFunctionFactory.getAggregationFunction("DISTINCTCOUNT");
+  private static final AggregationFunction[] AGGREGATION_FUNCTIONS = {SUM, DISTINCTCOUNT};
+  private static final int NUM_GROUPS = 2000;
+  private static final int NUM_RECORDS = 20000;
+  private static final int NUM_MAPS = 3;
+
+  private File _spillDir;
+
+  @BeforeClass
+  public void setUp() throws IOException {
+    _spillDir = Files.createTempDirectory("spillableGroupByResultsMapTest").toFile();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(_spillDir);
+  }
+
+  @Test
+  public void testSpillAndMerge() throws IOException {
+    List<SpillableGroupByResultsMap> resultsMaps = new ArrayList<>(NUM_MAPS);
+    for (int i = 0; i < NUM_MAPS; i++) {
+      resultsMaps.add(new SpillableGroupByResultsMap(AGGREGATION_FUNCTIONS, 64 * 1024, _spillDir));
+    }
+
+    // Merge random records into the spillable maps and the expected map
+    Map<String, Object[]> expectedResultsMap = new HashMap<>();
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      String groupKey = "group" + RANDOM.nextInt(NUM_GROUPS);
+      double value = RANDOM.nextInt(100);
+      IntOpenHashSet set = new IntOpenHashSet();
+      set.add(RANDOM.nextInt(10));
+      merge(expectedResultsMap, groupKey, new Object[]{value, set.clone()});
+      SpillableGroupByResultsMap resultsMap = resultsMaps.get(RANDOM.nextInt(NUM_MAPS));
+      merge(resultsMap.getResultsMap(), groupKey, new Object[]{value, set});
+      resultsMap.spillIfNeeded();
+    }
+    int numSpilledRuns = 0;
+    for (SpillableGroupByResultsMap resultsMap : resultsMaps) {
+      numSpilledRuns += resultsMap.getNumSpilledRuns();
+    }
+    Assert.assertTrue(numSpilledRuns > NUM_MAPS, ERROR_MESSAGE);
+
+    // Group-by top 1000 keeps all the groups
+    AggregationGroupByTrimmingService trimmingService =
+        new AggregationGroupByTrimmingService(AGGREGATION_FUNCTIONS, 1000);
+    List<Map<String, Object>> trimmedResults =
+        SpillableGroupByResultsMap.mergeAndTrim(resultsMaps, AGGREGATION_FUNCTIONS, trimmingService);
+    Assert.assertEquals(trimmedResults, trimmingService.trimIntermediateResultsMap(expectedResultsMap), ERROR_MESSAGE);
+
+    for (SpillableGroupByResultsMap resultsMap : resultsMaps) {
+      resultsMap.close();
+    }
+    Assert.assertEquals(_spillDir.list().length, 0);
+  }
+
+  @Test
+  public void testTrimSpilledResults() throws IOException {
+    // Trim size is max(topN * 5, 5000), and trim threshold is trim size * 4
+    AggregationGroupByTrimmingService trimmingService =
+        new AggregationGroupByTrimmingService(AGGREGATION_FUNCTIONS, 10);
+
+    // Number of groups larger than the trim threshold
+    int numGroups = 20001;
+    SpillableGroupByResultsMap resultsMap = buildSpilledResultsMap(numGroups);
+    List<Map<String, Object>> trimmedResults =
+        SpillableGroupByResultsMap.mergeAndTrim(Arrays.asList(resultsMap), AGGREGATION_FUNCTIONS, trimmingService);
+    Map<String, Object> sumResults = trimmedResults.get(0);
+    Assert.assertEquals(sumResults.size(), 5000);
+    for (int i = numGroups - 5000; i < numGroups; i++) {
+      Assert.assertEquals(sumResults.get("group" + i), (double) i);
+    }
+    resultsMap.close();
+
+    // Number of groups equal to the trim threshold, same as the in-memory results, the results should not be trimmed
+    numGroups = 20000;
+    resultsMap = buildSpilledResultsMap(numGroups);
+    trimmedResults =
+        SpillableGroupByResultsMap.mergeAndTrim(Arrays.asList(resultsMap), AGGREGATION_FUNCTIONS, trimmingService);
+    Assert.assertEquals(trimmedResults.get(0).size(), numGroups);
+    Assert.assertEquals(trimmedResults.get(1).size(), numGroups);
+    resultsMap.close();
+  }
+
+  @Test
+  public void testSpillCheck() throws IOException {
+    SpillableGroupByResultsMap resultsMap =
+        new SpillableGroupByResultsMap(AGGREGATION_FUNCTIONS, 1024 * 1024, _spillDir);
+    Assert.assertFalse(resultsMap.isSpillCheckNeeded());
+
+    // No estimate yet
+    Map<String, Object[]> map = resultsMap.getResultsMap();
+    map.put("group0", new Object[]{0.0, new IntOpenHashSet()});
+    Assert.assertTrue(resultsMap.isSpillCheckNeeded());
+    resultsMap.spillIfNeeded();
+    Assert.assertFalse(resultsMap.hasSpilled());
+
+    // Fresh estimate within the memory budget, until the number of groups doubles
+    map.put("group1", new Object[]{1.0, new IntOpenHashSet()});
+    map.put("group2", new Object[]{2.0, new IntOpenHashSet()});
+    Assert.assertTrue(resultsMap.isSpillCheckNeeded());
+    resultsMap.spillIfNeeded();
+    Assert.assertFalse(resultsMap.isSpillCheckNeeded());
+
+    // Re-estimate periodically
+    boolean spillCheckNeeded = false;
+    for (int i = 0; i < 32 && !spillCheckNeeded; i++) {
+      spillCheckNeeded = resultsMap.isSpillCheckNeeded();
+    }
+    Assert.assertTrue(spillCheckNeeded);
+    resultsMap.spillIfNeeded();
+    Assert.assertFalse(resultsMap.hasSpilled());
+    resultsMap.close();
+  }
+
+  private SpillableGroupByResultsMap buildSpilledResultsMap(int numGroups) throws IOException {
+    SpillableGroupByResultsMap resultsMap = new SpillableGroupByResultsMap(AGGREGATION_FUNCTIONS, 1L, _spillDir);
+    for (int i = 0; i < numGroups; i++) {
+      IntOpenHashSet set = new IntOpenHashSet();
+      set.add(i);
+      resultsMap.getResultsMap().put("group" + i, new Object[]{(double) i, set});
+      if (i % 1000 == 0) {
+        resultsMap.spillIfNeeded();
+      }
+    }
+    Assert.assertTrue(resultsMap.hasSpilled());
+    return resultsMap;
+  }
+
+  private static void merge(Map<String, Object[]> resultsMap, String groupKey, Object[] resultsToMerge) {
+    Object[] results = resultsMap.get(groupKey);
+    if (results == null) {
+      resultsMap.put(groupKey, resultsToMerge);
+    } else {
+      for (int i = 0; i < AGGREGATION_FUNCTIONS.length; i++) {
+        results[i] = AGGREGATION_FUNCTIONS[i].merge(results[i], resultsToMerge[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.query.selection;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.request.SelectionSort;
+import com.linkedin.pinot.core.common.Block;
+import com.linkedin.pinot.core.common.BlockMetadata;
+import com.linkedin.pinot.core.common.BlockSingleValIterator;
+import com.linkedin.pinot.core.common.BlockValSet;
+import com.linkedin.pinot.core.query.selection.SelectionOrderByDocIdCollector;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Unit tests for {@link SelectionOrderByDocIdCollector}.
+ */
+public class SelectionOrderByDocIdCollectorTest {
+  private static final int NUM_DOCS = 10000;
+  private static final int MAX_NUM_ROWS = 100;
+  private static final Random RANDOM = new Random();
+
+  /**
+   * Order by a string column with many ties (descending) then a unique long column (ascending), without dictionary.
+   * Documents are collected over two sets of blocks.
+   */
+  @Test
+  public void testRawValues() {
+    final String[] stringValues = new String[NUM_DOCS];
+    final long[] longValues = new long[NUM_DOCS];
+    List<Long> uniqueLongs = new ArrayList<>(NUM_DOCS);
+    for (int i = 0; i < NUM_DOCS; i++) {
+      uniqueLongs.add((long) i - NUM_DOCS / 2);
+    }
+    Collections.shuffle(uniqueLongs, RANDOM);
+    for (int i = 0; i < NUM_DOCS; i++) {
+      stringValues[i] = "value" + RANDOM.nextInt(10);
+      longValues[i] = uniqueLongs.get(i);
+    }
+
+    List<SelectionSort> sortSequence = Arrays.asList(getSelectionSort("string", false), getSelectionSort("long", true));
+    SelectionOrderByDocIdCollector collector = new SelectionOrderByDocIdCollector(sortSequence,
+        new Block[]{getBlock(FieldSpec.DataType.STRING, null, stringValues), getBlock(FieldSpec.DataType.LONG, null,
+            longValues)}, MAX_NUM_ROWS);
+    for (int docId = 0; docId < NUM_DOCS / 2; docId++) {
+      collector.collect(docId);
+    }
+    collector.setBlocks(new Block[]{getBlock(FieldSpec.DataType.STRING, null, stringValues), getBlock(
+        FieldSpec.DataType.LONG, null, longValues)});
+    for (int docId = NUM_DOCS / 2; docId < NUM_DOCS; docId++) {
+      collector.collect(docId);
+    }
+
+    Assert.assertEquals(collector.getDocIds(), getExpectedDocIds(new Comparator<Integer>() {
+      @Override
+      public int compare(Integer docId1, Integer docId2) {
+        int ret = stringValues[docId2].compareTo(stringValues[docId1]);
+        if (ret != 0) {
+          return ret;
+        }
+        return Long.compare(longValues[docId1], longValues[docId2]);
+      }
+    }));
+  }
+
+  /**
+   * Order by an int column with sorted dictionary (dictionary ids compared) and with unsorted dictionary (values
+   * compared, dictionary ids in reverse value order).
+   */
+  @Test
+  public void testDictionaryBased() {
+    final int[] values = new int[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      values[i] = i;
+    }
+    List<Integer> shuffledValues = new ArrayList<>(NUM_DOCS);
+    for (int value : values) {
+      shuffledValues.add(value);
+    }
+    Collections.shuffle(shuffledValues, RANDOM);
+    for (int i = 0; i < NUM_DOCS; i++) {
+      values[i] = shuffledValues.get(i);
+    }
+    Comparator<Integer> descendingValueComparator = new Comparator<Integer>() {
+      @Override
+      public int compare(Integer docId1, Integer docId2) {
+        return Integer.compare(values[docId2], values[docId1]);
+      }
+    };
+    List<SelectionSort> sortSequence = Collections.singletonList(getSelectionSort("int", false));
+
+    // Sorted dictionary, dictionary id is the value
+    Dictionary sortedDictionary = mock(Dictionary.class);
+    when(sortedDictionary.isSorted()).thenReturn(true);
+    SelectionOrderByDocIdCollector collector = new SelectionOrderByDocIdCollector(sortSequence,
+        new Block[]{getBlock(FieldSpec.DataType.INT, sortedDictionary, values)}, MAX_NUM_ROWS);
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      collector.collect(docId);
+    }
+    Assert.assertEquals(collector.getDocIds(), getExpectedDocIds(descendingValueComparator));
+
+    // Unsorted dictionary, dictionary id is (NUM_DOCS - 1 - value)
+    final int[] dictIds = new int[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      dictIds[i] = NUM_DOCS - 1 - values[i];
+    }
+    Dictionary unsortedDictionary = mock(Dictionary.class);
+    when(unsortedDictionary.isSorted()).thenReturn(false);
+    when(unsortedDictionary.getIntValue(anyInt())).thenAnswer(new Answer<Integer>() {
+      @Override
+      public Integer answer(InvocationOnMock invocation) {
+        return NUM_DOCS - 1 - (Integer) invocation.getArgument(0);
+      }
+    });
+    collector = new SelectionOrderByDocIdCollector(sortSequence,
+        new Block[]{getBlock(FieldSpec.DataType.INT, unsortedDictionary, dictIds)}, MAX_NUM_ROWS);
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      collector.collect(docId);
+    }
+    Assert.assertEquals(collector.getDocIds(), getExpectedDocIds(descendingValueComparator));
+  }
+
+  private static int[] getExpectedDocIds(Comparator<Integer> comparator) {
+    List<Integer> docIds = new ArrayList<>(NUM_DOCS);
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      docIds.add(docId);
+    }
+    Collections.sort(docIds, comparator);
+    int[] expectedDocIds = new int[MAX_NUM_ROWS];
+    for (int i = 0; i < MAX_NUM_ROWS; i++) {
+      expectedDocIds[i] = docIds.get(i);
+    }
+    Arrays.sort(expectedDocIds);
+    return expectedDocIds;
+  }
+
+  private static SelectionSort getSelectionSort(String column, boolean isAsc) {
+    SelectionSort selectionSort = new SelectionSort();
+    selectionSort.setColumn(column);
+    selectionSort.setIsAsc(isAsc);
+    return selectionSort;
+  }
+
+  /**
+   * Helper method to mock a single-value block over the given values (int[] for dictionary ids).
+   */
+  private static Block getBlock(FieldSpec.DataType dataType, Dictionary dictionary, final Object values) {
+    BlockMetadata blockMetadata = mock(BlockMetadata.class);
+    when(blockMetadata.isSingleValue()).thenReturn(true);
+    when(blockMetadata.getDataType()).thenReturn(dataType);
+    when(blockMetadata.hasDictionary()).thenReturn(dictionary != null);
+    when(blockMetadata.getDictionary()).thenReturn(dictionary);
+
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    when(blockValSet.iterator()).thenReturn(new BlockSingleValIterator() {
+      private int _nextDocId = 0;
+
+      @Override
+      public int nextIntVal() {
+        return ((int[]) values)[_nextDocId++];
+      }
+
+      @Override
+      public long nextLongVal() {
+        return ((long[]) values)[_nextDocId++];
+      }
+
+      @Override
+      public String nextStringVal() {
+        return ((String[]) values)[_nextDocId++];
+      }
+
+      @Override
+      public boolean hasNext() {
+        return _nextDocId < NUM_DOCS;
+      }
+
+      @Override
+      public void skipTo(int docId) {
+        _nextDocId = docId;
+      }
+
+      @Override
+      public void reset() {
+        _nextDocId = 0;
+      }
+    });
+
+    Block block = mock(Block.class);
+    when(block.getMetadata()).thenReturn(blockMetadata);
+    when(block.getBlockValueSet()).thenReturn(blockValSet);
+    return block;
+  }
+}
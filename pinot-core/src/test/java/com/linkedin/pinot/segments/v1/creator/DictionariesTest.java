@@ -42,9 +42,12 @@ import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
 import com.linkedin.pinot.core.segment.index.readers.IntDictionary;
 import com.linkedin.pinot.core.segment.index.readers.LongDictionary;
 import com.linkedin.pinot.core.segment.index.readers.StringDictionary;
+import com.linkedin.pinot.core.segment.index.readers.VarLengthStringDictionary;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import com.linkedin.pinot.core.util.AvroUtils;
 import com.linkedin.pinot.util.TestUtils;
 import java.io.File;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -420,6 +423,64 @@ public class DictionariesTest {
     FileUtils.deleteQuietly(indexDir);
   }
 
+  /**
+   * Tests that the variable length string dictionary keeps the values in String order (including characters whose
+   * UTF-8 byte order differs from UTF-16 order), and that single and batch lookups match binary searches on the values.
+   */
+  @Test
+  public void testVarLengthStringDictionary() throws Exception {
+    File indexDir = new File("/tmp/dict.test");
+    indexDir.deleteOnExit();
+    FieldSpec fieldSpec = new DimensionFieldSpec("test", DataType.STRING, true);
+
+    String[] inputStrings =
+        {"", "a", "ab", "b", "Caf\u00e9", "\uD83D\uDE00", "\uE000", "\uFF21", "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa"};
+    Arrays.sort(inputStrings);
+    int length = inputStrings.length;
+
+    SegmentDictionaryCreator dictionaryCreator =
+        new SegmentDictionaryCreator(false, inputStrings, fieldSpec, indexDir, true);
+    dictionaryCreator.build();
+    Assert.assertTrue(dictionaryCreator.isVarLengthDictionary());
+    dictionaryCreator.close();
+
+    File dictionaryFile = new File(indexDir, "test" + V1Constants.Dict.FILE_EXTENSION);
+    int expectedSize = (length + 1) * V1Constants.Numbers.INTEGER_SIZE;
+    for (String inputString : inputStrings) {
+      expectedSize += inputString.getBytes("UTF-8").length;
+    }
+    Assert.assertEquals(dictionaryFile.length(), expectedSize);
+
+    String[] probes =
+        {"", "a", "aa", "ab", "abc", "b", "c", "Caf\u00e9", "Cafe", "\uD83D\uDE00", "\uD83D\uDE01", "\uD7FF",
+            "\uE000", "\uE001", "\uFF21", "\uFFFF", "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa"};
+    Assert.assertTrue(probes.length >= VarLengthStringDictionary.MIN_NUM_VALUES_FOR_HASHED_LOOKUP);
+    try (VarLengthStringDictionary dictionary = new VarLengthStringDictionary(
+        PinotDataBuffer.fromFile(dictionaryFile, ReadMode.mmap, FileChannel.MapMode.READ_ONLY, "testVarLength"),
+        length)) {
+      Assert.assertEquals(dictionary.length(), length);
+      for (int i = 0; i < length; i++) {
+        Assert.assertEquals(dictionary.get(i), inputStrings[i]);
+        Assert.assertEquals(dictionary.indexOf(inputStrings[i]), i);
+      }
+
+      int[] expectedDictIds = new int[probes.length];
+      for (int i = 0; i < probes.length; i++) {
+        int expectedInsertionIndex = Arrays.binarySearch(inputStrings, probes[i]);
+        expectedDictIds[i] = (expectedInsertionIndex >= 0) ? expectedInsertionIndex : -1;
+        Assert.assertEquals(dictionary.insertionIndexOf(probes[i]), expectedInsertionIndex, probes[i]);
+        Assert.assertEquals(dictionary.indexOf(probes[i]), expectedDictIds[i], probes[i]);
+      }
+
+      // Batch lookups, first one builds the hash table which is then used for the smaller batch as well
+      Assert.assertEquals(dictionary.indexOf(probes), expectedDictIds);
+      int[] expectedBatchDictIds = {Arrays.binarySearch(inputStrings, "b"), -1};
+      Assert.assertEquals(dictionary.indexOf(new String[]{"b", "c"}), expectedBatchDictIds);
+    }
+
+    FileUtils.deleteQuietly(indexDir);
+  }
+
   /**
    * Helper method to build stats collector for a given column.
    *
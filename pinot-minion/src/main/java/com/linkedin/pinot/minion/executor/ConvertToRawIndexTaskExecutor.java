@@ -18,10 +18,15 @@ package com.linkedin.pinot.minion.executor;
 import com.linkedin.pinot.common.config.PinotTaskConfig;
 import com.linkedin.pinot.common.metadata.segment.SegmentZKMetadataCustomMapModifier;
 import com.linkedin.pinot.core.common.MinionConstants;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.minion.RawIndexConverter;
 import java.io.File;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang.StringUtils;
 
 
 public class ConvertToRawIndexTaskExecutor extends BaseSegmentConversionExecutor {
@@ -29,11 +34,31 @@ public class ConvertToRawIndexTaskExecutor extends BaseSegmentConversionExecutor
   @Override
   protected File convert(@Nonnull PinotTaskConfig pinotTaskConfig, @Nonnull File originalIndexDir,
       @Nonnull File workingDir) throws Exception {
+    Map<String, String> configs = pinotTaskConfig.getConfigs();
     new RawIndexConverter(originalIndexDir, workingDir,
-        pinotTaskConfig.getConfigs().get(MinionConstants.ConvertToRawIndexTask.COLUMNS_TO_CONVERT_KEY)).convert();
+        configs.get(MinionConstants.ConvertToRawIndexTask.COLUMNS_TO_CONVERT_KEY),
+        parseCompressionTypes(configs.get(MinionConstants.ConvertToRawIndexTask.COMPRESSION_TYPES_KEY))).convert();
     return workingDir;
   }
 
+  @Nullable
+  private static Map<String, ChunkCompressorFactory.CompressionType> parseCompressionTypes(
+      @Nullable String compressionTypesConfig) {
+    if (compressionTypesConfig == null) {
+      return null;
+    }
+    Map<String, ChunkCompressorFactory.CompressionType> compressionTypes = new HashMap<>();
+    for (String columnCompressionType : StringUtils.split(compressionTypesConfig, ',')) {
+      String[] pair = StringUtils.split(columnCompressionType, ':');
+      if (pair.length != 2) {
+        throw new IllegalArgumentException("Illegal column compression type config: " + columnCompressionType);
+      }
+      compressionTypes.put(pair[0].trim(),
+          ChunkCompressorFactory.CompressionType.valueOf(pair[1].trim().toUpperCase()));
+    }
+    return compressionTypes;
+  }
+
   @Override
   protected SegmentZKMetadataCustomMapModifier getSegmentZKMetadataCustomMapModifier() throws Exception {
     return new SegmentZKMetadataCustomMapModifier(SegmentZKMetadataCustomMapModifier.ModifyMode.UPDATE,
@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.broker.routing.RoutingTableLookupRequest;
+import com.linkedin.pinot.broker.routing.builder.AdaptiveRoutingTableBuilder;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.scattergather.ServerLoadTracker;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.InstanceConfig;
+
+
+/**
+ * Simulator that replays server latency traces against the {@link AdaptiveRoutingTableBuilder} and compares the query
+ * latency with the load-oblivious balanced random routing.
+ * <p>Each server is simulated as a single FIFO queue, where the time to process a request is the number of segments
+ * routed to the server times the per-segment latency of the server at the time the request starts processing. The
+ * latency trace is a CSV file with lines of <code>timeMs,serverIndex,perSegmentLatencyMs</code> sorted by time, where
+ * each line sets the per-segment latency of the server from the given time on. Without a trace file, a synthetic trace
+ * is generated where a random server becomes 10 times slower for 5 seconds every 10 seconds.
+ * <p>Usage: AdaptiveRoutingSimulator [traceFile]
+ */
+public class AdaptiveRoutingSimulator {
+  private static final String TABLE_NAME = "table_OFFLINE";
+  private static final int NUM_SERVERS = 6;
+  private static final int NUM_REPLICAS = 3;
+  private static final int NUM_SEGMENTS = 60;
+  private static final double BASE_PER_SEGMENT_LATENCY_MS = 1.0;
+  private static final double QUERIES_PER_SECOND = 50.0;
+  private static final long SIMULATION_TIME_MS = 120_000L;
+  private static final long RANDOM_SEED = 12345L;
+
+  private final List<double[]> _trace;
+  private final String[] _serverNames = new String[NUM_SERVERS];
+  private final ServerInstance[] _serverInstances = new ServerInstance[NUM_SERVERS];
+
+  public AdaptiveRoutingSimulator(List<double[]> trace) {
+    _trace = trace;
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      _serverNames[i] = "Server_10.0.0." + (i + 1) + "_8098";
+      _serverInstances[i] = ServerInstance.forInstanceName(_serverNames[i]);
+    }
+  }
+
+  /**
+   * Runs the simulation and returns the sorted query latencies.
+   */
+  public double[] simulate(boolean adaptive) {
+    ServerLoadTracker serverLoadTracker = new ServerLoadTracker();
+    AdaptiveRoutingTableBuilder routingTableBuilder = new AdaptiveRoutingTableBuilder();
+    // Without feeding the server load, the routing is balanced with replicas randomly selected
+    routingTableBuilder.setServerLoadTracker(serverLoadTracker);
+    ExternalView externalView = new ExternalView(TABLE_NAME);
+    List<InstanceConfig> instanceConfigs = new ArrayList<>();
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      for (int j = 0; j < NUM_REPLICAS; j++) {
+        externalView.setState("segment_" + i, _serverNames[(i + j) % NUM_SERVERS], "ONLINE");
+      }
+    }
+    for (String serverName : _serverNames) {
+      instanceConfigs.add(new InstanceConfig(serverName));
+    }
+    routingTableBuilder.computeRoutingTableFromExternalView(TABLE_NAME, externalView, instanceConfigs);
+    RoutingTableLookupRequest request = new RoutingTableLookupRequest(TABLE_NAME);
+
+    Random random = new Random(RANDOM_SEED);
+    double[] perSegmentLatencyMs = new double[NUM_SERVERS];
+    Arrays.fill(perSegmentLatencyMs, BASE_PER_SEGMENT_LATENCY_MS);
+    int traceIndex = 0;
+    double[] serverFreeTimeMs = new double[NUM_SERVERS];
+    PriorityQueue<Response> pendingResponses = new PriorityQueue<>();
+    List<Double> queryLatencies = new ArrayList<>();
+
+    double currentTimeMs = 0.0;
+    while (currentTimeMs < SIMULATION_TIME_MS) {
+      // Deliver the responses received before the current time to the server load tracker
+      while (!pendingResponses.isEmpty() && pendingResponses.peek()._finishTimeMs <= currentTimeMs) {
+        Response response = pendingResponses.poll();
+        if (adaptive) {
+          ServerInstance serverInstance = _serverInstances[response._serverId];
+          serverLoadTracker.requestCompleted(serverInstance, Math.round(response._responseTimeMs));
+          serverLoadTracker.updateServiceTime(serverInstance, Math.round(response._serviceTimeMs));
+        }
+      }
+
+      // Apply the latency trace
+      while (traceIndex < _trace.size() && _trace.get(traceIndex)[0] <= currentTimeMs) {
+        double[] entry = _trace.get(traceIndex++);
+        perSegmentLatencyMs[(int) entry[1]] = entry[2];
+      }
+
+      // Route and process the query
+      Map<String, List<String>> routingTable = routingTableBuilder.getRoutingTable(request);
+      double queryLatencyMs = 0.0;
+      for (Map.Entry<String, List<String>> entry : routingTable.entrySet()) {
+        int serverId = Arrays.asList(_serverNames).indexOf(entry.getKey());
+        double startTimeMs = Math.max(currentTimeMs, serverFreeTimeMs[serverId]);
+        double serviceTimeMs = entry.getValue().size() * perSegmentLatencyMs[serverId];
+        double finishTimeMs = startTimeMs + serviceTimeMs;
+        serverFreeTimeMs[serverId] = finishTimeMs;
+        double responseTimeMs = finishTimeMs - currentTimeMs;
+        queryLatencyMs = Math.max(queryLatencyMs, responseTimeMs);
+        if (adaptive) {
+          serverLoadTracker.requestSent(_serverInstances[serverId]);
+        }
+        pendingResponses.add(new Response(serverId, finishTimeMs, responseTimeMs, serviceTimeMs));
+      }
+      queryLatencies.add(queryLatencyMs);
+
+      // Poisson arrival
+      currentTimeMs += -Math.log(1.0 - random.nextDouble()) * 1000.0 / QUERIES_PER_SECOND;
+    }
+
+    int numQueries = queryLatencies.size();
+    double[] latencies = new double[numQueries];
+    for (int i = 0; i < numQueries; i++) {
+      latencies[i] = queryLatencies.get(i);
+    }
+    Arrays.sort(latencies);
+    return latencies;
+  }
+
+  private static double percentile(double[] sortedValues, double percentile) {
+    int index = (int) Math.ceil(percentile / 100.0 * sortedValues.length) - 1;
+    return sortedValues[Math.max(index, 0)];
+  }
+
+  private static void printLatencies(String name, double[] sortedLatencies) {
+    System.out.println(String.format("%-16s queries: %d, p50: %.1fms, p90: %.1fms, p99: %.1fms, max: %.1fms", name,
+        sortedLatencies.length, percentile(sortedLatencies, 50), percentile(sortedLatencies, 90),
+        percentile(sortedLatencies, 99), sortedLatencies[sortedLatencies.length - 1]));
+  }
+
+  private static List<double[]> readTrace(File traceFile)
+      throws Exception {
+    List<double[]> trace = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(traceFile))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        String[] fields = line.split(",");
+        trace.add(new double[]{Double.parseDouble(fields[0].trim()), Integer.parseInt(fields[1].trim()),
+            Double.parseDouble(fields[2].trim())});
+      }
+    }
+    return trace;
+  }
+
+  private static List<double[]> generateTrace() {
+    List<double[]> trace = new ArrayList<>();
+    Random random = new Random(RANDOM_SEED);
+    for (long timeMs = 0; timeMs < SIMULATION_TIME_MS; timeMs += 10_000L) {
+      int serverId = random.nextInt(NUM_SERVERS);
+      trace.add(new double[]{timeMs, serverId, 10 * BASE_PER_SEGMENT_LATENCY_MS});
+      trace.add(new double[]{timeMs + 5_000L, serverId, BASE_PER_SEGMENT_LATENCY_MS});
+    }
+    return trace;
+  }
+
+  private static class Response implements Comparable<Response> {
+    private final int _serverId;
+    private final double _finishTimeMs;
+    private final double _responseTimeMs;
+    private final double _serviceTimeMs;
+
+    private Response(int serverId, double finishTimeMs, double responseTimeMs, double serviceTimeMs) {
+      _serverId = serverId;
+      _finishTimeMs = finishTimeMs;
+      _responseTimeMs = responseTimeMs;
+      _serviceTimeMs = serviceTimeMs;
+    }
+
+    @Override
+    public int compareTo(Response o) {
+      return Double.compare(_finishTimeMs, o._finishTimeMs);
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    List<double[]> trace = args.length > 0 ? readTrace(new File(args[0])) : generateTrace();
+    AdaptiveRoutingSimulator simulator = new AdaptiveRoutingSimulator(trace);
+    printLatencies("BalancedRandom", simulator.simulate(false));
+    printLatencies("Adaptive", simulator.simulate(true));
+  }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.core.query.reduce.BrokerReduceService;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the broker reduce of high-cardinality aggregation group-by queries, driving
+ * {@link BrokerReduceService} with synthetic data tables from multiple servers.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx8G"})
+public class BenchmarkBrokerReduce {
+  private static final String QUERY = "SELECT SUM(m), MAX(m) FROM myTable GROUP BY d TOP 100";
+  private static final String[] FUNCTION_NAMES = new String[]{"sum_m", "max_m"};
+
+  @Param({"50"})
+  public int numServers;
+
+  @Param({"200000"})
+  public int numGroupsPerServer;
+
+  /** Number of reduce threads (and group key partitions), 1 for sequential reduce */
+  @Param({"1", "4", "8"})
+  public int numReduceThreads;
+
+  private BrokerRequest _brokerRequest;
+  private Map<ServerInstance, DataTable> _dataTableMap;
+  private ExecutorService _reduceExecutor;
+  private BrokerReduceService _brokerReduceService;
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    _brokerRequest = new Pql2Compiler().compileToBrokerRequest(QUERY);
+
+    // Each server returns a random subset of the groups, so that groups overlap across servers.
+    Random random = new Random(0);
+    int totalNumGroups = numGroupsPerServer * 4;
+    _dataTableMap = new HashMap<>(numServers);
+    for (int i = 0; i < numServers; i++) {
+      Map<String, Object> groupByResultMap = new HashMap<>(numGroupsPerServer);
+      while (groupByResultMap.size() < numGroupsPerServer) {
+        int group = random.nextInt(totalNumGroups);
+        groupByResultMap.put(Integer.toString(group), (double) random.nextInt(1000));
+      }
+      _dataTableMap.put(new ServerInstance("server" + i + ":8098"), buildGroupByDataTable(groupByResultMap));
+    }
+
+    if (numReduceThreads > 1) {
+      _reduceExecutor = Executors.newFixedThreadPool(numReduceThreads);
+      _brokerReduceService = new BrokerReduceService(_reduceExecutor, numReduceThreads, 0L);
+    } else {
+      _brokerReduceService = new BrokerReduceService();
+    }
+  }
+
+  private static DataTable buildGroupByDataTable(Map<String, Object> groupByResultMap)
+      throws Exception {
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(
+        new DataSchema(new String[]{"functionName", "GroupByResultMap"},
+            new FieldSpec.DataType[]{FieldSpec.DataType.STRING, FieldSpec.DataType.OBJECT}));
+    for (String functionName : FUNCTION_NAMES) {
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, functionName);
+      dataTableBuilder.setColumn(1, groupByResultMap);
+      dataTableBuilder.finishRow();
+    }
+    return dataTableBuilder.build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (_reduceExecutor != null) {
+      _reduceExecutor.shutdown();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public BrokerResponseNative reduceGroupBy() {
+    return _brokerReduceService.reduceOnDataTable(_brokerRequest, _dataTableMap, null);
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkBrokerReduce.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10))
+        .warmupIterations(2)
+        .measurementTime(TimeValue.seconds(30))
+        .measurementIterations(5);
+
+    new Runner(opt.build()).run();
+  }
+}
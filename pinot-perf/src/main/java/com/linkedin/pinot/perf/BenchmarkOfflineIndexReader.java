@@ -22,6 +22,7 @@ import com.linkedin.pinot.core.io.reader.ReaderContext;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitMultiValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.SortedIndexReader;
+import com.linkedin.pinot.core.io.util.FixedBitIntReaderWriter;
 import com.linkedin.pinot.core.segment.creator.SegmentIndexCreationDriver;
 import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
@@ -31,6 +32,7 @@ import com.linkedin.pinot.core.segment.index.readers.FloatDictionary;
 import com.linkedin.pinot.core.segment.index.readers.IntDictionary;
 import com.linkedin.pinot.core.segment.index.readers.LongDictionary;
 import com.linkedin.pinot.core.segment.index.readers.StringDictionary;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import com.linkedin.pinot.core.segment.store.ColumnIndexType;
 import com.linkedin.pinot.core.segment.store.SegmentDirectory;
 import com.linkedin.pinot.integration.tests.ClusterTest;
@@ -44,7 +46,9 @@ import org.apache.commons.io.FileUtils;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -151,6 +155,76 @@ public class BenchmarkOfflineIndexReader {
     return ret;
   }
 
+  /**
+   * Synthetic fixed-bit forward index for each number of bits per value, used to report values/sec per bit width.
+   */
+  @State(Scope.Benchmark)
+  public static class FixedBitState {
+    private static final int NUM_VALUES = 1_000_000;
+    private static final int BLOCK_SIZE = 10_000;
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15", "16", "17", "18", "19",
+        "20", "21", "22", "23", "24", "25", "26", "27", "28", "29", "30", "31", "32"})
+    private int _numBitsPerValue;
+
+    private PinotDataBuffer _dataBuffer;
+    private FixedBitSingleValueReader _reader;
+    private int[] _docIds;
+    private int[] _values;
+
+    @Setup
+    public void setUp() {
+      _dataBuffer =
+          PinotDataBuffer.allocateDirect((int) (((long) NUM_VALUES * _numBitsPerValue + Byte.SIZE - 1) / Byte.SIZE));
+      try (FixedBitIntReaderWriter writer = new FixedBitIntReaderWriter(_dataBuffer, NUM_VALUES, _numBitsPerValue)) {
+        for (int i = 0; i < NUM_VALUES; i++) {
+          writer.writeInt(i, RANDOM.nextInt() >>> (Integer.SIZE - _numBitsPerValue));
+        }
+      }
+      _reader = new FixedBitSingleValueReader(_dataBuffer, NUM_VALUES, _numBitsPerValue);
+      _docIds = new int[BLOCK_SIZE];
+      _values = new int[BLOCK_SIZE];
+    }
+
+    @TearDown
+    public void tearDown() {
+      _reader.close();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(FixedBitState.NUM_VALUES)
+  public int fixedBitSingleValueReaderPerValue(FixedBitState state) {
+    FixedBitSingleValueReader reader = state._reader;
+    int ret = 0;
+    for (int i = 0; i < FixedBitState.NUM_VALUES; i++) {
+      ret += reader.getInt(i);
+    }
+    return ret;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(FixedBitState.NUM_VALUES)
+  public int fixedBitSingleValueReaderBulk(FixedBitState state) {
+    FixedBitSingleValueReader reader = state._reader;
+    int[] docIds = state._docIds;
+    int[] values = state._values;
+    int ret = 0;
+    for (int startDocId = 0; startDocId < FixedBitState.NUM_VALUES; startDocId += FixedBitState.BLOCK_SIZE) {
+      // Contiguous doc ids as produced by a full scan
+      for (int i = 0; i < FixedBitState.BLOCK_SIZE; i++) {
+        docIds[i] = startDocId + i;
+      }
+      reader.readValues(docIds, 0, FixedBitState.BLOCK_SIZE, values, 0);
+      ret += values[FixedBitState.BLOCK_SIZE - 1];
+    }
+    return ret;
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MICROSECONDS)
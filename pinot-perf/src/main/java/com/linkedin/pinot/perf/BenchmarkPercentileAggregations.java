@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.core.common.datatable.ObjectCustomSerDe;
+import com.linkedin.pinot.core.common.datatable.ObjectType;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.function.PercentileAggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.function.PercentileEstAggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.function.PercentileTDigestAggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.function.customobject.QuantileDigest;
+import com.linkedin.pinot.core.query.aggregation.function.customobject.TDigest;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark comparing the percentile aggregation functions: exact (<code>percentile</code>), Q-Digest based
+ * (<code>percentileEst</code>) and T-Digest based (<code>percentileTDigest</code>).
+ * <p>
+ * Each benchmark builds one intermediate result per segment, ser/de it as done between server and broker, then merges
+ * the results and extracts the final result. Running the main method also prints the serialized size and the error of
+ * each function.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkPercentileAggregations {
+  private static final int PERCENTILE = 95;
+  private static final int NUM_SEGMENTS = 10;
+
+  @Param({"10000", "1000000"})
+  private int _numValuesPerSegment;
+
+  private long[][] _values;
+
+  private final PercentileAggregationFunction _percentileFunction = new PercentileAggregationFunction(PERCENTILE);
+  private final PercentileEstAggregationFunction _percentileEstFunction =
+      new PercentileEstAggregationFunction(PERCENTILE);
+  private final PercentileTDigestAggregationFunction _percentileTDigestFunction =
+      new PercentileTDigestAggregationFunction(PERCENTILE);
+
+  @Setup
+  public void setUp() {
+    _values = generateValues(NUM_SEGMENTS, _numValuesPerSegment, new Random());
+  }
+
+  @Benchmark
+  public double percentile()
+      throws IOException {
+    DoubleArrayList[] intermediateResults = new DoubleArrayList[NUM_SEGMENTS];
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      DoubleArrayList doubleArrayList = new DoubleArrayList();
+      for (long value : _values[i]) {
+        doubleArrayList.add(value);
+      }
+      intermediateResults[i] =
+          ObjectCustomSerDe.deserialize(ObjectCustomSerDe.serialize(doubleArrayList), ObjectType.DoubleArrayList);
+    }
+    return mergeAndExtract(_percentileFunction, intermediateResults);
+  }
+
+  @Benchmark
+  public double percentileEst()
+      throws IOException {
+    QuantileDigest[] intermediateResults = new QuantileDigest[NUM_SEGMENTS];
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      QuantileDigest quantileDigest = new QuantileDigest(PercentileEstAggregationFunction.DEFAULT_MAX_ERROR);
+      for (long value : _values[i]) {
+        quantileDigest.add(value);
+      }
+      intermediateResults[i] =
+          ObjectCustomSerDe.deserialize(ObjectCustomSerDe.serialize(quantileDigest), ObjectType.QuantileDigest);
+    }
+    return mergeAndExtract(_percentileEstFunction, intermediateResults);
+  }
+
+  @Benchmark
+  public double percentileTDigest()
+      throws IOException {
+    TDigest[] intermediateResults = new TDigest[NUM_SEGMENTS];
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      TDigest tDigest = new TDigest();
+      for (long value : _values[i]) {
+        tDigest.add(value);
+      }
+      intermediateResults[i] = ObjectCustomSerDe.deserialize(ObjectCustomSerDe.serialize(tDigest), ObjectType.TDigest);
+    }
+    return mergeAndExtract(_percentileTDigestFunction, intermediateResults);
+  }
+
+  private static <T> double mergeAndExtract(AggregationFunction<T, ? extends Number> function,
+      T[] intermediateResults) {
+    T mergedResult = intermediateResults[0];
+    for (int i = 1; i < intermediateResults.length; i++) {
+      mergedResult = function.merge(mergedResult, intermediateResults[i]);
+    }
+    return function.extractFinalResult(mergedResult).doubleValue();
+  }
+
+  /**
+   * Generates values with a log-normal distribution (long tail, as for latencies), with a different scale per segment.
+   */
+  private static long[][] generateValues(int numSegments, int numValuesPerSegment, Random random) {
+    long[][] values = new long[numSegments][numValuesPerSegment];
+    for (int i = 0; i < numSegments; i++) {
+      for (int j = 0; j < numValuesPerSegment; j++) {
+        values[i][j] = (long) (Math.exp(random.nextGaussian() + 5) * (i + 1));
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Prints the serialized size of the intermediate result of a segment and the rank error of the final result for each
+   * function.
+   */
+  private static void printAccuracyAndSize(int numValuesPerSegment)
+      throws IOException {
+    long[][] values = generateValues(NUM_SEGMENTS, numValuesPerSegment, new Random(0));
+    BenchmarkPercentileAggregations benchmark = new BenchmarkPercentileAggregations();
+    benchmark._values = values;
+
+    long[] sortedValues = new long[NUM_SEGMENTS * numValuesPerSegment];
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      System.arraycopy(values[i], 0, sortedValues, i * numValuesPerSegment, numValuesPerSegment);
+    }
+    Arrays.sort(sortedValues);
+
+    DoubleArrayList doubleArrayList = new DoubleArrayList();
+    QuantileDigest quantileDigest = new QuantileDigest(PercentileEstAggregationFunction.DEFAULT_MAX_ERROR);
+    TDigest tDigest = new TDigest();
+    for (long value : values[0]) {
+      doubleArrayList.add(value);
+      quantileDigest.add(value);
+      tDigest.add(value);
+    }
+
+    System.out.println("Number of values per segment: " + numValuesPerSegment);
+    printResult("percentile", ObjectCustomSerDe.serialize(doubleArrayList).length, benchmark.percentile(),
+        sortedValues);
+    printResult("percentileEst", ObjectCustomSerDe.serialize(quantileDigest).length, benchmark.percentileEst(),
+        sortedValues);
+    printResult("percentileTDigest", ObjectCustomSerDe.serialize(tDigest).length, benchmark.percentileTDigest(),
+        sortedValues);
+  }
+
+  private static void printResult(String functionName, int serializedSize, double result, long[] sortedValues) {
+    int index = Arrays.binarySearch(sortedValues, (long) result);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    double rankError = Math.abs((double) index / sortedValues.length * 100 - PERCENTILE);
+    System.out.println(
+        String.format("  %-20s serialized size per segment: %10d bytes, result: %15.2f, rank error: %.4f%%",
+            functionName, serializedSize, result, rankError));
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    printAccuracyAndSize(10000);
+    printAccuracyAndSize(1000000);
+
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkPercentileAggregations.class.getSimpleName())
+        .mode(Mode.Throughput)
+        .timeUnit(TimeUnit.SECONDS)
+        .warmupTime(TimeValue.seconds(5))
+        .warmupIterations(2)
+        .measurementTime(TimeValue.seconds(10))
+        .measurementIterations(3)
+        .forks(1);
+
+    new Runner(opt.build()).run();
+  }
+}
@@ -16,15 +16,27 @@
 package com.linkedin.pinot.perf;
 
 import com.google.common.util.concurrent.Uninterruptibles;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import com.linkedin.pinot.common.utils.KafkaStarterUtils;
 import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.AvroRecordReader;
+import com.linkedin.pinot.core.io.writer.impl.DirectMemoryManager;
+import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentConfig;
+import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentImpl;
+import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentStatsHistory;
 import com.linkedin.pinot.integration.tests.ClusterIntegrationTestUtils;
 import com.linkedin.pinot.integration.tests.RealtimeClusterIntegrationTest;
 import com.linkedin.pinot.util.TestUtils;
 import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import kafka.server.KafkaServerStartable;
 import org.json.JSONArray;
@@ -34,6 +46,8 @@ import org.json.JSONObject;
 /**
  * Benchmark that writes a configurable amount of rows in Kafka and checks how much time it takes to consume all of
  * them.
+ * <p>With the <code>segmentIndexing</code> argument, it only indexes the rows into a {@link RealtimeSegmentImpl} without
+ * the cluster and Kafka, and reports the rows/sec and the allocation rate of the indexing path.
  */
 public class BenchmarkRealtimeConsumptionSpeed extends RealtimeClusterIntegrationTest {
   private static final int ROW_COUNT = 100_000;
@@ -42,10 +56,17 @@ public class BenchmarkRealtimeConsumptionSpeed extends RealtimeClusterIntegratio
   private final File _tmpDir = new File("/tmp/" + getHelixClusterName());
   private static final int SEGMENT_COUNT = 1;
   private static final Random RANDOM = new Random(123456L);
+  private static final String SEGMENT_INDEXING_MODE = "segmentIndexing";
+  private static final int NUM_SEGMENT_INDEXING_ROUNDS = 10;
+  private static final int INDEXING_BATCH_SIZE = 1000;
 
   public static void main(String[] args) {
     try {
-      new BenchmarkRealtimeConsumptionSpeed().runBenchmark();
+      if (args.length > 0 && SEGMENT_INDEXING_MODE.equals(args[0])) {
+        new BenchmarkRealtimeConsumptionSpeed().runSegmentIndexingBenchmark();
+      } else {
+        new BenchmarkRealtimeConsumptionSpeed().runBenchmark();
+      }
     } catch (Exception e) {
       System.exit(-1);
     }
@@ -127,4 +148,59 @@ public class BenchmarkRealtimeConsumptionSpeed extends RealtimeClusterIntegratio
 
     System.out.println("Consumed " + ROW_COUNT + " rows in " + (endTime - startTime) / 1000.0 + " seconds");
   }
+
+  private void runSegmentIndexingBenchmark() throws Exception {
+    // Unpack data and read all rows into memory
+    TarGzCompressionUtils.unTar(
+        new File(TestUtils.getFileFromResourceUrl(RealtimeClusterIntegrationTest.class.getClassLoader()
+            .getResource("On_Time_On_Time_Performance_2014_100k_subset_nonulls.tar.gz"))), _tmpDir);
+    Schema schema = Schema.fromFile(getSchemaFile());
+    List<GenericRow> rows = new ArrayList<>();
+    try (AvroRecordReader recordReader = new AvroRecordReader(
+        new File(_tmpDir.getPath() + "/On_Time_On_Time_Performance_2014_1.avro"), schema)) {
+      while (recordReader.hasNext()) {
+        rows.add(recordReader.next());
+      }
+    }
+    int numRows = rows.size();
+    RealtimeSegmentStatsHistory statsHistory =
+        RealtimeSegmentStatsHistory.deserialzeFrom(new File(_tmpDir, "segmentIndexingStats.ser"));
+    List<String> invertedIndexColumns = getInvertedIndexColumns();
+    Set<String> invertedIndexColumnSet =
+        invertedIndexColumns != null ? new HashSet<>(invertedIndexColumns) : Collections.<String>emptySet();
+    com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+
+    // The first rounds warm up the JIT
+    for (int round = 0; round < NUM_SEGMENT_INDEXING_ROUNDS; round++) {
+      String segmentName = "segmentIndexing_" + round;
+      RealtimeSegmentImpl realtimeSegment = new RealtimeSegmentImpl(
+          new RealtimeSegmentConfig.Builder().setSegmentName(segmentName)
+              .setStreamName(getKafkaTopic())
+              .setSchema(schema)
+              .setCapacity(numRows)
+              .setAvgNumMultiValues(2)
+              .setNoDictionaryColumns(Collections.<String>emptySet())
+              .setInvertedIndexColumns(invertedIndexColumnSet)
+              .setRealtimeSegmentZKMetadata(new RealtimeSegmentZKMetadata())
+              .setMemoryManager(new DirectMemoryManager(segmentName))
+              .setStatsHistory(statsHistory)
+              .build());
+
+      long startAllocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+      long startTimeNs = System.nanoTime();
+      for (int i = 0; i < numRows; i += INDEXING_BATCH_SIZE) {
+        realtimeSegment.index(rows.subList(i, Math.min(i + INDEXING_BATCH_SIZE, numRows)));
+      }
+      long timeNs = System.nanoTime() - startTimeNs;
+      long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+      realtimeSegment.destroy();
+
+      double timeSeconds = timeNs / 1e9;
+      System.out.println(String.format(
+          "Round %d: indexed %d rows in %.3f seconds, %.0f rows/sec, allocated %d bytes (%.1f bytes/row, %.1f MB/sec)",
+          round, numRows, timeSeconds, numRows / timeSeconds, allocatedBytes, (double) allocatedBytes / numRows,
+          allocatedBytes / timeSeconds / 1024 / 1024));
+    }
+  }
 }
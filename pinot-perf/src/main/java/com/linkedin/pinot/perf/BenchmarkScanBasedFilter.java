@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.BlockMetadata;
+import com.linkedin.pinot.core.common.BlockSingleValIterator;
+import com.linkedin.pinot.core.common.BlockValSet;
+import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.common.predicate.EqPredicate;
+import com.linkedin.pinot.core.common.predicate.InPredicate;
+import com.linkedin.pinot.core.common.predicate.RangePredicate;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedByteChunkSingleValueReader;
+import com.linkedin.pinot.core.io.util.FixedBitIntReaderWriter;
+import com.linkedin.pinot.core.io.util.FixedByteValueReaderWriter;
+import com.linkedin.pinot.core.io.writer.impl.v1.FixedByteChunkSingleValueWriter;
+import com.linkedin.pinot.core.operator.blocks.BlockMetadataImpl;
+import com.linkedin.pinot.core.operator.dociditerators.SVScanDocIdIterator;
+import com.linkedin.pinot.core.operator.docvalsets.SingleValueSet;
+import com.linkedin.pinot.core.operator.filter.predicate.EqualsPredicateEvaluatorFactory;
+import com.linkedin.pinot.core.operator.filter.predicate.InPredicateEvaluatorFactory;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
+import com.linkedin.pinot.core.segment.index.readers.IntDictionary;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Variant of {@link FilterOperatorBenchmark} for the scan based filter on an unindexed INT column, which compares
+ * evaluating the documents one by one with the batch evaluation in {@link SVScanDocIdIterator}. Dictionary based EQ
+ * predicate is evaluated one by one in both cases, since batching does not pay off for it.
+ * <p>The scores are in documents scanned per second.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx4G"})
+public class BenchmarkScanBasedFilter {
+  private static final String COLUMN_NAME = "column";
+  private static final int NUM_DOCS = 1_000_000;
+  private static final int NUM_DOCS_PER_CHUNK = 1000;
+  private static final int CARDINALITY = 1000;
+
+  @Param({"EQ", "IN", "RANGE"})
+  public String predicateType;
+
+  /** Forward index with dictionary (bit-packed dictionary ids), or raw values in compressed chunks */
+  @Param({"DICTIONARY", "RAW"})
+  public String encoding;
+
+  private PinotDataBuffer _dictionaryBuffer;
+  private PinotDataBuffer _forwardIndexBuffer;
+  private File _rawIndexFile;
+  private BlockValSet _blockValSet;
+  private BlockMetadata _blockMetadata;
+  private PredicateEvaluator _predicateEvaluator;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp()
+      throws IOException {
+    Random random = new Random(0);
+    int[] values = new int[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      values[i] = random.nextInt(CARDINALITY);
+    }
+
+    if (encoding.equals("DICTIONARY")) {
+      // Dictionary ids are the same as the values
+      _dictionaryBuffer = PinotDataBuffer.allocateDirect(CARDINALITY * Integer.SIZE / Byte.SIZE);
+      FixedByteValueReaderWriter dictionaryWriter = new FixedByteValueReaderWriter(_dictionaryBuffer);
+      for (int i = 0; i < CARDINALITY; i++) {
+        dictionaryWriter.writeInt(i, i);
+      }
+      IntDictionary dictionary = new IntDictionary(_dictionaryBuffer, CARDINALITY);
+
+      int numBitsPerValue = Integer.SIZE - Integer.numberOfLeadingZeros(CARDINALITY - 1);
+      _forwardIndexBuffer =
+          PinotDataBuffer.allocateDirect(((long) NUM_DOCS * numBitsPerValue + Byte.SIZE - 1) / Byte.SIZE);
+      new FixedBitIntReaderWriter(_forwardIndexBuffer, NUM_DOCS, numBitsPerValue).writeInt(0, NUM_DOCS, values);
+      _blockValSet = new SingleValueSet(new FixedBitSingleValueReader(_forwardIndexBuffer, NUM_DOCS, numBitsPerValue),
+          NUM_DOCS, FieldSpec.DataType.INT);
+      _blockMetadata = new BlockMetadataImpl(NUM_DOCS, true, 0, FieldSpec.DataType.INT, dictionary);
+    } else {
+      _rawIndexFile = File.createTempFile(BenchmarkScanBasedFilter.class.getSimpleName(), ".raw");
+      try (FixedByteChunkSingleValueWriter writer = new FixedByteChunkSingleValueWriter(_rawIndexFile,
+          ChunkCompressorFactory.CompressionType.SNAPPY, NUM_DOCS, NUM_DOCS_PER_CHUNK, Integer.SIZE / Byte.SIZE)) {
+        for (int i = 0; i < NUM_DOCS; i++) {
+          writer.setInt(i, values[i]);
+        }
+      }
+      _forwardIndexBuffer = PinotDataBuffer.fromFile(_rawIndexFile, ReadMode.mmap, FileChannel.MapMode.READ_ONLY,
+          BenchmarkScanBasedFilter.class.getSimpleName());
+      SingleColumnSingleValueReader rawIndexReader = new FixedByteChunkSingleValueReader(_forwardIndexBuffer);
+      _blockValSet = new SingleValueSet(rawIndexReader, NUM_DOCS, FieldSpec.DataType.INT);
+      _blockMetadata = new BlockMetadataImpl(NUM_DOCS, true, 0, FieldSpec.DataType.INT, null);
+    }
+
+    _predicateEvaluator = getPredicateEvaluator();
+  }
+
+  private PredicateEvaluator getPredicateEvaluator() {
+    boolean hasDictionary = _blockMetadata.hasDictionary();
+    switch (predicateType) {
+      case "EQ":
+        EqPredicate eqPredicate = new EqPredicate(COLUMN_NAME, Collections.singletonList("500"));
+        return hasDictionary ? EqualsPredicateEvaluatorFactory.newDictionaryBasedEvaluator(eqPredicate,
+            _blockMetadata.getDictionary())
+            : EqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator(eqPredicate, FieldSpec.DataType.INT);
+      case "IN":
+        InPredicate inPredicate = new InPredicate(COLUMN_NAME,
+            Collections.singletonList("100" + InPredicate.DELIMITER + "300" + InPredicate.DELIMITER + "500"));
+        return hasDictionary ? InPredicateEvaluatorFactory.newDictionaryBasedEvaluator(inPredicate,
+            _blockMetadata.getDictionary())
+            : InPredicateEvaluatorFactory.newRawValueBasedEvaluator(inPredicate, FieldSpec.DataType.INT);
+      case "RANGE":
+        RangePredicate rangePredicate =
+            new RangePredicate(COLUMN_NAME, Collections.singletonList("[100" + RangePredicate.DELIMITER + "200)"));
+        return hasDictionary ? RangePredicateEvaluatorFactory.newDictionaryBasedEvaluator(rangePredicate,
+            _blockMetadata.getDictionary())
+            : RangePredicateEvaluatorFactory.newRawValueBasedEvaluator(rangePredicate, FieldSpec.DataType.INT);
+      default:
+        throw new IllegalStateException("Unsupported predicate type: " + predicateType);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (_dictionaryBuffer != null) {
+      _dictionaryBuffer.close();
+    }
+    _forwardIndexBuffer.close();
+    FileUtils.deleteQuietly(_rawIndexFile);
+  }
+
+  /**
+   * Evaluates the documents one by one through the value iterator.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(NUM_DOCS)
+  public int perDocScan() {
+    BlockSingleValIterator valueIterator = (BlockSingleValIterator) _blockValSet.iterator();
+    int numMatchingDocs = 0;
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (_predicateEvaluator.applySV(valueIterator.nextIntVal())) {
+        numMatchingDocs++;
+      }
+    }
+    return numMatchingDocs;
+  }
+
+  /**
+   * Evaluates the documents in batches through the scan based doc id iterator.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(NUM_DOCS)
+  public int batchScan() {
+    SVScanDocIdIterator docIdIterator =
+        new SVScanDocIdIterator(COLUMN_NAME, _blockValSet, _blockMetadata, _predicateEvaluator);
+    int numMatchingDocs = 0;
+    while (docIdIterator.next() != Constants.EOF) {
+      numMatchingDocs++;
+    }
+    return numMatchingDocs;
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkScanBasedFilter.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(5))
+        .warmupIterations(2)
+        .measurementTime(TimeValue.seconds(10))
+        .measurementIterations(5);
+
+    new Runner(opt.build()).run();
+  }
+}
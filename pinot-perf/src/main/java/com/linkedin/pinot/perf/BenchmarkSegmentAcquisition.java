@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.core.data.manager.config.TableDataManagerConfig;
+import com.linkedin.pinot.core.data.manager.offline.AbstractTableDataManager;
+import com.linkedin.pinot.core.data.manager.offline.SegmentDataManager;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for segment acquisition in {@link AbstractTableDataManager} with concurrent queries and segment churn.
+ * <p>
+ * Query threads acquire and release either all segments or a subset of them, while one thread keeps replacing segments
+ * (as happens on realtime segment commits).
+ */
+@State(Scope.Benchmark)
+public class BenchmarkSegmentAcquisition {
+  private static final String TABLE_NAME = "benchmarkTable_OFFLINE";
+  private static final String SEGMENT_NAME_PREFIX = "segment_";
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkSegmentAcquisition");
+
+  @Param({"10", "1000"})
+  private int _numSegments;
+
+  private BenchmarkTableDataManager _tableDataManager;
+  private List<String> _segmentNames;
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    PropertiesConfiguration configuration = new PropertiesConfiguration();
+    configuration.setProperty("name", TABLE_NAME);
+    configuration.setProperty("directory", TEMP_DIR.getAbsolutePath());
+    _tableDataManager = new BenchmarkTableDataManager();
+    _tableDataManager.init(new TableDataManagerConfig(configuration), "benchmarkInstance", null,
+        new ServerMetrics(new MetricsRegistry()));
+    _tableDataManager.start();
+
+    String[] segmentNames = new String[_numSegments];
+    for (int i = 0; i < _numSegments; i++) {
+      segmentNames[i] = SEGMENT_NAME_PREFIX + i;
+      _tableDataManager.replaceSegment(segmentNames[i]);
+    }
+    // Queries on a subset of the segments (e.g. after broker side pruning) use half of them
+    _segmentNames = Arrays.asList(segmentNames).subList(0, Math.max(_numSegments / 2, 1));
+  }
+
+  @TearDown
+  public void tearDown() {
+    _tableDataManager.shutDown();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Benchmark
+  @Group("queriesWithChurn")
+  @GroupThreads(4)
+  public int acquireAllSegments() {
+    List<SegmentDataManager> segmentDataManagers = _tableDataManager.acquireAllSegments();
+    return releaseSegments(segmentDataManagers);
+  }
+
+  @Benchmark
+  @Group("queriesWithChurn")
+  @GroupThreads(3)
+  public int acquireSegments() {
+    List<SegmentDataManager> segmentDataManagers = _tableDataManager.acquireSegments(_segmentNames);
+    return releaseSegments(segmentDataManagers);
+  }
+
+  @Benchmark
+  @Group("queriesWithChurn")
+  @GroupThreads(1)
+  public void replaceSegment(ChurnState churnState) {
+    _tableDataManager.replaceSegment(SEGMENT_NAME_PREFIX + churnState._random.nextInt(_numSegments));
+  }
+
+  private int releaseSegments(List<SegmentDataManager> segmentDataManagers) {
+    int numSegments = segmentDataManagers.size();
+    for (SegmentDataManager segmentDataManager : segmentDataManagers) {
+      _tableDataManager.releaseSegment(segmentDataManager);
+    }
+    return numSegments;
+  }
+
+  @State(Scope.Thread)
+  public static class ChurnState {
+    private final Random _random = new Random();
+  }
+
+  /**
+   * Table data manager managing dummy segments, so that only the cost of segment acquisition is measured.
+   */
+  private static class BenchmarkTableDataManager extends AbstractTableDataManager {
+
+    @Override
+    protected void doInit() {
+    }
+
+    @Override
+    protected void doShutdown() {
+    }
+
+    void replaceSegment(String segmentName) {
+      SegmentDataManager oldSegmentDataManager =
+          putSegmentDataManager(segmentName, new DummySegmentDataManager(segmentName));
+      if (oldSegmentDataManager != null && oldSegmentDataManager.decrementRefCnt() == 0) {
+        closeSegment(oldSegmentDataManager);
+      }
+    }
+
+    @Override
+    protected void closeSegment(SegmentDataManager segmentDataManager) {
+      segmentDataManager.destroy();
+    }
+  }
+
+  private static class DummySegmentDataManager extends SegmentDataManager {
+    private final String _segmentName;
+
+    DummySegmentDataManager(String segmentName) {
+      _segmentName = segmentName;
+    }
+
+    @Override
+    public String getSegmentName() {
+      return _segmentName;
+    }
+
+    @Override
+    public IndexSegment getSegment() {
+      return null;
+    }
+
+    @Override
+    public void destroy() {
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkSegmentAcquisition.class.getSimpleName())
+        .mode(Mode.Throughput)
+        .timeUnit(TimeUnit.MILLISECONDS)
+        .warmupTime(TimeValue.seconds(5))
+        .warmupIterations(2)
+        .measurementTime(TimeValue.seconds(10))
+        .measurementIterations(3)
+        .forks(1);
+
+    new Runner(opt.build()).run();
+  }
+}
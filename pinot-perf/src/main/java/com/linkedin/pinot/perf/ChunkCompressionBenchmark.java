@@ -0,0 +1,247 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.io.reader.impl.ChunkReaderContext;
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedByteChunkSingleValueReader;
+import com.linkedin.pinot.core.io.reader.impl.v1.VarByteChunkSingleValueReader;
+import com.linkedin.pinot.core.io.writer.impl.v1.FixedByteChunkSingleValueWriter;
+import com.linkedin.pinot.core.io.writer.impl.v1.VarByteChunkSingleValueWriter;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.kohsuke.args4j.CmdLineParser;
+import org.kohsuke.args4j.Option;
+
+
+/**
+ * Class to compare the chunk compression types of raw (no-dictionary) indexes, in terms of index size v.s. full scan
+ * throughput. It writes a string column and a long column with each compression type, and scans them sequentially.
+ * Strings can be read from an input file (one string per line), or generated from a small vocabulary of words.
+ */
+@SuppressWarnings("FieldCanBeLocal")
+public class ChunkCompressionBenchmark {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final String INDEX_DIR_NAME =
+      System.getProperty("java.io.tmpdir") + File.separator + "chunkCompressionPerf";
+  private static final int NUM_WORDS = 1000;
+  private static final int MAX_WORD_LENGTH = 10;
+  private static final int MAX_WORDS_PER_STRING = 10;
+
+  @Option(name = "-dataFile", required = false, usage = "File containing input strings (one string per line)")
+  private String _dataFile = null;
+
+  @Option(name = "-numRows", required = false, usage = "Number of rows to generate if no data file is specified")
+  private int _numRows = 1_000_000;
+
+  @Option(name = "-numDocsPerChunk", required = false, usage = "Number of docs per chunk")
+  private int _numDocsPerChunk = 1000;
+
+  @Option(name = "-numScans", required = false, usage = "Number of full scans to perform for each index")
+  private int _numScans = 10;
+
+  @Option(name = "-help", required = false, help = true, aliases = {"-h"}, usage = "print this message")
+  private boolean _help = false;
+
+  private String[] _strings;
+  private long[] _longs;
+
+  public void run()
+      throws Exception {
+    generateData();
+    File indexDir = new File(INDEX_DIR_NAME);
+    FileUtils.deleteQuietly(indexDir);
+    FileUtils.forceMkdir(indexDir);
+
+    try {
+      long rawStringSize = 0;
+      for (String string : _strings) {
+        rawStringSize += string.getBytes(UTF_8).length;
+      }
+      long rawLongSize = (long) _longs.length * V1Constants.Numbers.LONG_SIZE;
+
+      System.out.println(String.format("Number of rows: %d, raw string bytes: %d, raw long bytes: %d", _strings.length,
+          rawStringSize, rawLongSize));
+      System.out.println(
+          String.format("%-14s %-8s %14s %8s %12s %12s", "Compression", "Column", "Index bytes", "Ratio", "Scan ms",
+              "Scan MB/s"));
+
+      for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+        File stringIndexFile = new File(indexDir, compressionType + ".string");
+        writeStringIndex(stringIndexFile, compressionType);
+        printResult(compressionType, "string", stringIndexFile.length(), rawStringSize,
+            scanStringIndex(stringIndexFile));
+
+        File longIndexFile = new File(indexDir, compressionType + ".long");
+        writeLongIndex(longIndexFile, compressionType);
+        printResult(compressionType, "long", longIndexFile.length(), rawLongSize, scanLongIndex(longIndexFile));
+      }
+    } finally {
+      FileUtils.deleteQuietly(indexDir);
+    }
+  }
+
+  /**
+   * Helper method to read the strings from the data file, or to generate them out of a vocabulary of random words, so
+   * that they are compressible as real-world strings are. Longs are generated as a random walk, as metrics are.
+   */
+  private void generateData()
+      throws Exception {
+    Random random = new Random(0);
+    if (_dataFile != null) {
+      List<String> lines = FileUtils.readLines(new File(_dataFile), UTF_8);
+      _strings = lines.toArray(new String[lines.size()]);
+    } else {
+      String[] words = new String[NUM_WORDS];
+      for (int i = 0; i < NUM_WORDS; i++) {
+        char[] chars = new char[random.nextInt(MAX_WORD_LENGTH) + 1];
+        for (int j = 0; j < chars.length; j++) {
+          chars[j] = (char) ('a' + random.nextInt(26));
+        }
+        words[i] = new String(chars);
+      }
+      _strings = new String[_numRows];
+      for (int i = 0; i < _numRows; i++) {
+        StringBuilder stringBuilder = new StringBuilder();
+        int numWords = random.nextInt(MAX_WORDS_PER_STRING) + 1;
+        for (int j = 0; j < numWords; j++) {
+          stringBuilder.append(words[random.nextInt(NUM_WORDS)]).append(' ');
+        }
+        _strings[i] = stringBuilder.toString();
+      }
+    }
+
+    _longs = new long[_strings.length];
+    long value = 0;
+    for (int i = 0; i < _longs.length; i++) {
+      value += random.nextInt(1000);
+      _longs[i] = value;
+    }
+  }
+
+  private void writeStringIndex(File file, ChunkCompressorFactory.CompressionType compressionType)
+      throws Exception {
+    int maxLength = 0;
+    for (String string : _strings) {
+      maxLength = Math.max(maxLength, string.getBytes(UTF_8).length);
+    }
+    VarByteChunkSingleValueWriter writer =
+        new VarByteChunkSingleValueWriter(file, compressionType, _strings.length, _numDocsPerChunk, maxLength);
+    for (int i = 0; i < _strings.length; i++) {
+      writer.setString(i, _strings[i]);
+    }
+    writer.close();
+  }
+
+  private void writeLongIndex(File file, ChunkCompressorFactory.CompressionType compressionType)
+      throws Exception {
+    FixedByteChunkSingleValueWriter writer =
+        new FixedByteChunkSingleValueWriter(file, compressionType, _longs.length, _numDocsPerChunk,
+            V1Constants.Numbers.LONG_SIZE);
+    for (int i = 0; i < _longs.length; i++) {
+      writer.setLong(i, _longs[i]);
+    }
+    writer.close();
+  }
+
+  /**
+   * Returns the average time in ms to scan the string index.
+   */
+  private double scanStringIndex(File file)
+      throws Exception {
+    PinotDataBuffer dataBuffer =
+        PinotDataBuffer.fromFile(file, ReadMode.mmap, FileChannel.MapMode.READ_ONLY, getClass().getName());
+    VarByteChunkSingleValueReader reader = new VarByteChunkSingleValueReader(dataBuffer);
+    try {
+      // Warm up
+      scanStringIndex(reader);
+      long start = System.nanoTime();
+      for (int i = 0; i < _numScans; i++) {
+        scanStringIndex(reader);
+      }
+      return (System.nanoTime() - start) / 1e6 / _numScans;
+    } finally {
+      reader.close();
+      dataBuffer.close();
+    }
+  }
+
+  private void scanStringIndex(VarByteChunkSingleValueReader reader) {
+    ChunkReaderContext context = reader.createContext();
+    for (int i = 0; i < _strings.length; i++) {
+      if (reader.getString(i, context).length() != _strings[i].length()) {
+        throw new IllegalStateException("Value mismatch for row: " + i);
+      }
+    }
+  }
+
+  /**
+   * Returns the average time in ms to scan the long index.
+   */
+  private double scanLongIndex(File file)
+      throws Exception {
+    PinotDataBuffer dataBuffer =
+        PinotDataBuffer.fromFile(file, ReadMode.mmap, FileChannel.MapMode.READ_ONLY, getClass().getName());
+    FixedByteChunkSingleValueReader reader = new FixedByteChunkSingleValueReader(dataBuffer);
+    try {
+      // Warm up
+      scanLongIndex(reader);
+      long start = System.nanoTime();
+      for (int i = 0; i < _numScans; i++) {
+        scanLongIndex(reader);
+      }
+      return (System.nanoTime() - start) / 1e6 / _numScans;
+    } finally {
+      reader.close();
+      dataBuffer.close();
+    }
+  }
+
+  private void scanLongIndex(FixedByteChunkSingleValueReader reader) {
+    ChunkReaderContext context = reader.createContext();
+    for (int i = 0; i < _longs.length; i++) {
+      if (reader.getLong(i, context) != _longs[i]) {
+        throw new IllegalStateException("Value mismatch for row: " + i);
+      }
+    }
+  }
+
+  private void printResult(ChunkCompressorFactory.CompressionType compressionType, String column, long indexSize,
+      long rawSize, double scanTimeMs) {
+    System.out.println(
+        String.format("%-14s %-8s %14d %8.2f %12.2f %12.2f", compressionType, column, indexSize,
+            (double) rawSize / indexSize, scanTimeMs, rawSize / 1e3 / scanTimeMs));
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChunkCompressionBenchmark benchmark = new ChunkCompressionBenchmark();
+    CmdLineParser parser = new CmdLineParser(benchmark);
+    parser.parseArgument(args);
+    if (benchmark._help) {
+      parser.printUsage(System.out);
+      return;
+    }
+    benchmark.run();
+  }
+}
@@ -23,6 +23,7 @@ import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.io.reader.impl.ChunkCache;
 import com.linkedin.pinot.core.operator.BReusableFilteredDocIdSetOperator;
 import com.linkedin.pinot.core.operator.BaseOperator;
 import com.linkedin.pinot.core.operator.MProjectionOperator;
@@ -32,6 +33,7 @@ import com.linkedin.pinot.core.operator.filter.BaseFilterOperator;
 import com.linkedin.pinot.core.plan.DocIdSetPlanNode;
 import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import com.linkedin.pinot.core.segment.index.loader.Loaders;
 import com.linkedin.pinot.operator.filter.FilterOperatorTestUtils;
 import java.io.BufferedReader;
@@ -43,6 +45,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.io.FileUtils;
 import org.kohsuke.args4j.CmdLineParser;
 import org.kohsuke.args4j.Option;
@@ -52,6 +58,8 @@ import org.kohsuke.args4j.Option;
  * Class to perform benchmark on lookups for dictionary encoded fwd index v.s. raw index without dictionary.
  * It can take an existing segment with two columns to compare. It can also create a segment on the fly with a
  * given input file containing strings (one string per line).
+ * With multiple threads, it also shows the effect of the shared decompressed chunk cache ({@link ChunkCache}) for
+ * concurrent readers of the raw index column.
  */
 @SuppressWarnings({"FieldCanBeLocal", "unused"})
 public class RawIndexBenchmark {
@@ -85,10 +93,17 @@ public class RawIndexBenchmark {
   @Option(name = "-numConsecutiveLookups", required = false, usage = "Number of consecutive docIds to lookup")
   private int _numConsecutiveLookups = DEFAULT_NUM_CONSECUTIVE_LOOKUP;
 
+  @Option(name = "-numThreads", required = false, usage = "Number of threads performing the lookups concurrently")
+  private int _numThreads = 1;
+
+  @Option(name = "-chunkCacheSize", required = false, usage = "Size in bytes of the chunk cache (0 to disable)")
+  private long _chunkCacheSize = 0;
+
   @Option(name = "-help", required = false, help = true, aliases = {"-h"}, usage = "print this message")
   private boolean _help = false;
 
   private int _numRows = 0;
+  private ChunkCache _chunkCache = null;
 
   public void run()
       throws Exception {
@@ -98,7 +113,13 @@ public class RawIndexBenchmark {
     }
 
     File segmentFile = (_segmentDir == null) ? buildSegment() : new File(_segmentDir);
-    IndexSegment segment = Loaders.IndexSegment.load(segmentFile, ReadMode.valueOf(_loadMode));
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.valueOf(_loadMode));
+    if (_chunkCacheSize > 0) {
+      _chunkCache = new ChunkCache(_chunkCacheSize);
+      indexLoadingConfig.setChunkCache(_chunkCache);
+    }
+    IndexSegment segment = Loaders.IndexSegment.load(segmentFile, indexLoadingConfig);
     compareIndexSizes(segment, segmentFile, _fwdIndexColumn, _rawIndexColumn);
     compareLookups(segment);
 
@@ -192,14 +213,55 @@ public class RawIndexBenchmark {
    *
    * @param segment Segment to compare the columns for
    */
-  private void compareLookups(IndexSegment segment) {
+  private void compareLookups(IndexSegment segment)
+      throws Exception {
     int[] filteredDocIds = generateDocIds(segment);
-    long rawIndexTime = profileLookups(segment, _rawIndexColumn, filteredDocIds);
-    long fwdIndexTime = profileLookups(segment, _fwdIndexColumn, filteredDocIds);
+    long rawIndexTime = profileConcurrentLookups(segment, _rawIndexColumn, filteredDocIds);
+    long fwdIndexTime = profileConcurrentLookups(segment, _fwdIndexColumn, filteredDocIds);
 
     System.out.println("Raw index lookup time: " + rawIndexTime);
     System.out.println("Fwd index lookup time: " + fwdIndexTime);
     System.out.println("Percentage change: " + ((fwdIndexTime - rawIndexTime) * 100.0 / rawIndexTime) + " %");
+    if (_chunkCache != null) {
+      System.out.println("Chunk cache hit ratio: " + _chunkCache.getHitRatio() + ", size: "
+          + toMegaBytes(_chunkCache.getSizeInBytes()) + " MB");
+    }
+  }
+
+  /**
+   * Profiles the lookup time for a given column, with {@link #_numThreads} threads performing the same lookups
+   * concurrently (as concurrent queries on the same hot column would).
+   *
+   * @param segment Segment to profile
+   * @param column Column to profile
+   * @param docIds DocIds to lookup on the column
+   * @return Wall clock time in millis for all the threads to finish the lookups
+   */
+  private long profileConcurrentLookups(final IndexSegment segment, final String column, final int[] docIds)
+      throws Exception {
+    if (_numThreads <= 1) {
+      return profileLookups(segment, column, docIds);
+    }
+
+    ExecutorService executorService = Executors.newFixedThreadPool(_numThreads);
+    try {
+      List<Future<Long>> futures = new ArrayList<>(_numThreads);
+      long start = System.currentTimeMillis();
+      for (int i = 0; i < _numThreads; i++) {
+        futures.add(executorService.submit(new Callable<Long>() {
+          @Override
+          public Long call() {
+            return profileLookups(segment, column, docIds);
+          }
+        }));
+      }
+      for (Future<Long> future : futures) {
+        future.get();
+      }
+      return (System.currentTimeMillis() - start);
+    } finally {
+      executorService.shutdown();
+    }
   }
 
   /**
@@ -221,7 +283,7 @@ public class RawIndexBenchmark {
     long start = System.currentTimeMillis();
     while ((projectionBlock = projectionOperator.nextBlock()) != null) {
       ProjectionBlockValSet blockValueSet = (ProjectionBlockValSet) projectionBlock.getBlockValueSet(column);
-      blockValueSet.getDoubleValuesSV();
+      blockValueSet.getStringValuesSV();
     }
     return (System.currentTimeMillis() - start);
   }
@@ -23,12 +23,16 @@ import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.data.readers.FileFormat;
 import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
 import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
 import com.linkedin.pinot.core.segment.index.IndexSegmentImpl;
 import com.linkedin.pinot.core.segment.index.loader.Loaders;
 import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
+import com.linkedin.pinot.core.segment.index.readers.VarLengthStringDictionary;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -39,63 +43,69 @@ import org.apache.commons.lang.RandomStringUtils;
 
 
 /**
- * Performance test for lookup in string dictionary.
+ * Performance test for lookup in string dictionary, comparing the fixed width (padded) dictionary with the variable
+ * length one on dictionary size, single value lookups and batch lookups (as done for IN predicates).
  */
 public class StringDictionaryPerfTest {
   private static final int MAX_STRING_LENGTH = 100;
   private static final String TMP_DIR = System.getProperty("java.io.tmpdir");
   private static final String COLUMN_NAME = "test";
-  private static final int TOTAL_NUM_LOOKUPS = 100_000;
+  private static final int BATCH_SIZE = 1000;
 
-  String[] _inputStrings;
-  private File _indexDir;
+  private String[] _inputStrings;
   private int _dictLength;
 
   /**
-   * Helper method to build a segment:
-   * <ul>
-   *   <li> Segment contains one string column </li>
-   *   <li> Row values for the column are randomly generated strings of length 1 to 100 </li>
-   * </ul>
+   * Helper method to generate the unique values for the column, randomly generated strings of length 1 to 100.
    *
    * @param dictLength Length of the dictionary
+   */
+  public void generateInputStrings(int dictLength) {
+    _dictLength = dictLength;
+    _inputStrings = new String[dictLength];
+
+    Random random = new Random(System.nanoTime());
+    Set<String> uniqueStrings = new HashSet<>(dictLength);
+    int i = 0;
+    while (i < dictLength) {
+      String randomString = RandomStringUtils.randomAlphanumeric(1 + random.nextInt(MAX_STRING_LENGTH));
+      if (uniqueStrings.add(randomString)) {
+        _inputStrings[i++] = randomString;
+      }
+    }
+  }
+
+  /**
+   * Helper method to build a segment containing one string column, with one row per generated value.
+   *
+   * @param varLengthDictionary Whether to create variable length dictionary for the column
+   * @return Index directory of the segment
    * @throws Exception
    */
-  public void buildSegment(int dictLength)
+  public File buildSegment(boolean varLengthDictionary)
       throws Exception {
     Schema schema = new Schema();
     String segmentName = "perfTestSegment" + System.currentTimeMillis();
-    _indexDir = new File(TMP_DIR + File.separator + segmentName);
-    _indexDir.deleteOnExit();
+    File indexDir = new File(TMP_DIR + File.separator + segmentName);
+    indexDir.deleteOnExit();
 
     FieldSpec fieldSpec = new DimensionFieldSpec(COLUMN_NAME, FieldSpec.DataType.STRING, true);
     schema.addField(fieldSpec);
 
-    _dictLength = dictLength;
-    _inputStrings = new String[dictLength];
-
     SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
-    config.setOutDir(_indexDir.getParent());
+    config.setOutDir(indexDir.getParent());
     config.setFormat(FileFormat.AVRO);
     config.setSegmentName(segmentName);
+    // Keep the dictionary in its own file to measure its size
+    config.setSegmentVersion(SegmentVersion.v1);
+    if (varLengthDictionary) {
+      config.setVarLengthDictionaryColumns(Collections.singletonList(COLUMN_NAME));
+    }
 
-    Random random = new Random(System.nanoTime());
-    List<GenericRow> rows = new ArrayList<>(dictLength);
-    Set<String> uniqueStrings = new HashSet<>(dictLength);
-
-    int i = 0;
-    while (i < dictLength) {
+    List<GenericRow> rows = new ArrayList<>(_dictLength);
+    for (String inputString : _inputStrings) {
       HashMap<String, Object> map = new HashMap<>();
-      String randomString = RandomStringUtils.randomAlphanumeric(1 + random.nextInt(MAX_STRING_LENGTH));
-
-      if (uniqueStrings.contains(randomString)) {
-        continue;
-      }
-
-      _inputStrings[i] = randomString;
-      uniqueStrings.add(randomString);
-      map.put("test", _inputStrings[i++]);
-
+      map.put(COLUMN_NAME, inputString);
       GenericRow genericRow = new GenericRow();
       genericRow.init(map);
       rows.add(genericRow);
@@ -104,30 +114,52 @@ public class StringDictionaryPerfTest {
     SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
     driver.init(config, new GenericRowRecordReader(rows, schema));
     driver.build();
+    return indexDir;
   }
 
   /**
-   * Measures the performance of string dictionary lookups by performing the provided
-   * number of lookups to random indices.
+   * Measures the performance of string dictionary lookups by performing the provided number of lookups to random
+   * values, one at a time and then in batches.
    *
+   * @param indexDir Index directory of the segment
    * @param numLookups Number of lookups to perform
    * @throws Exception
    */
-  public void perfTestLookups(int numLookups)
+  public void perfTestLookups(File indexDir, int numLookups)
       throws Exception {
-    IndexSegmentImpl segment = (IndexSegmentImpl) Loaders.IndexSegment.load(_indexDir, ReadMode.heap);
+    IndexSegmentImpl segment = (IndexSegmentImpl) Loaders.IndexSegment.load(indexDir, ReadMode.heap);
     ImmutableDictionaryReader dictionary = segment.getDictionaryFor(COLUMN_NAME);
+    long dictionarySize = new File(indexDir, COLUMN_NAME + V1Constants.Dict.FILE_EXTENSION).length();
+    System.out.println(dictionary.getClass().getSimpleName() + " size: " + dictionarySize + " bytes");
 
     Random random = new Random(System.nanoTime());
     long start = System.currentTimeMillis();
-
     for (int i = 0; i < numLookups; i++) {
-      int index = 1 + random.nextInt(_dictLength);
-      dictionary.indexOf(_inputStrings[index]);
+      dictionary.indexOf(_inputStrings[random.nextInt(_dictLength)]);
     }
+    System.out.println("Total time for " + numLookups + " lookups: " + (System.currentTimeMillis() - start));
+
+    String[] batch = new String[BATCH_SIZE];
+    int numBatches = numLookups / BATCH_SIZE;
+    start = System.currentTimeMillis();
+    for (int i = 0; i < numBatches; i++) {
+      for (int j = 0; j < BATCH_SIZE; j++) {
+        batch[j] = _inputStrings[random.nextInt(_dictLength)];
+      }
+      if (dictionary instanceof VarLengthStringDictionary) {
+        ((VarLengthStringDictionary) dictionary).indexOf(batch);
+      } else {
+        for (String value : batch) {
+          dictionary.indexOf(value);
+        }
+      }
+    }
+    System.out.println(
+        "Total time for " + numBatches + " batch lookups of " + BATCH_SIZE + " values: " + (System.currentTimeMillis()
+            - start));
 
-    FileUtils.deleteQuietly(_indexDir);
-    System.out.println("Total time for " + TOTAL_NUM_LOOKUPS + " lookups: " + (System.currentTimeMillis() - start));
+    segment.destroy();
+    FileUtils.deleteQuietly(indexDir);
   }
 
   public static void main(String[] args)
@@ -140,7 +172,9 @@ public class StringDictionaryPerfTest {
     int numLookups = Integer.valueOf(args[1]);
 
     StringDictionaryPerfTest test = new StringDictionaryPerfTest();
-    test.buildSegment(dictLength);
-    test.perfTestLookups(numLookups);
+    test.generateInputStrings(dictLength);
+    for (boolean varLengthDictionary : new boolean[]{false, true}) {
+      test.perfTestLookups(test.buildSegment(varLengthDictionary), numLookups);
+    }
   }
 }
@@ -19,8 +19,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.linkedin.pinot.common.config.TableConfig;
 import com.linkedin.pinot.common.config.TableNameBuilder;
-import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
+import com.linkedin.pinot.common.metrics.ServerGauge;
 import com.linkedin.pinot.common.metrics.ServerMetrics;
 import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants;
@@ -29,17 +29,20 @@ import com.linkedin.pinot.core.data.manager.offline.InstanceDataManager;
 import com.linkedin.pinot.core.data.manager.offline.SegmentDataManager;
 import com.linkedin.pinot.core.data.manager.offline.TableDataManager;
 import com.linkedin.pinot.core.data.manager.offline.TableDataManagerProvider;
-import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.indexsegment.columnar.ColumnarSegmentLoader;
+import com.linkedin.pinot.core.io.reader.impl.ChunkCache;
 import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import com.linkedin.pinot.core.segment.index.loader.LoaderUtils;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
@@ -54,18 +57,23 @@ import org.slf4j.LoggerFactory;
 /**
  * The class <code>HelixInstanceDataManager</code> is the instance data manager based on Helix.
  *
- * TODO: add locks and remove synchronized to add segments in parallel
+ * <p>OFFLINE segments are loaded in parallel on the Helix state transition threads (e.g. on server startup), bounded
+ * by the per-disk limit of {@link SegmentLoadThrottler}. Only the table creation is guarded by the instance lock, and
+ * the operations on the same segment are serialized by {@link SegmentLocks}.
+ *
  * TODO: move SegmentFetcherAndLoader into this class to make this the top level manager
  */
 public class HelixInstanceDataManager implements InstanceDataManager {
   private static final Logger LOGGER = LoggerFactory.getLogger(HelixInstanceDataManager.class);
 
-  private final Map<String, TableDataManager> _tableDataManagerMap = new HashMap<>();
+  private final Map<String, TableDataManager> _tableDataManagerMap = new ConcurrentHashMap<>();
 
   private HelixInstanceDataManagerConfig _instanceDataManagerConfig;
   private String _instanceId;
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private ServerMetrics _serverMetrics;
+  private SegmentLoadThrottler _segmentLoadThrottler;
+  private ChunkCache _chunkCache;
   private boolean _started = false;
 
   @Override
@@ -76,6 +84,14 @@ public class HelixInstanceDataManager implements InstanceDataManager {
       _instanceId = _instanceDataManagerConfig.getInstanceId();
       _propertyStore = propertyStore;
       _serverMetrics = serverMetrics;
+      _segmentLoadThrottler =
+          new SegmentLoadThrottler(_instanceDataManagerConfig.getMaxParallelSegmentLoadsPerDisk());
+      long chunkCacheSizeInBytes = _instanceDataManagerConfig.getChunkCacheSizeInBytes();
+      if (chunkCacheSizeInBytes > 0) {
+        LOGGER.info("Enabling chunk cache of size: {} bytes", chunkCacheSizeInBytes);
+        _chunkCache = new ChunkCache(chunkCacheSizeInBytes);
+        addChunkCacheGauges();
+      }
 
       LOGGER.info("InstanceDataManager Config:" + _instanceDataManagerConfig.toString());
       File instanceDataDir = new File(_instanceDataManagerConfig.getInstanceDataDir());
@@ -122,18 +138,33 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     LOGGER.info("Finish shutting down Helix instance data manager");
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>Not synchronized so that segments can be loaded in parallel, bounded by the per-disk limit. The segment lock
+   * serializes the load with the refresh and reload of the same segment.
+   */
   @Override
-  public synchronized void addOfflineSegment(@Nonnull String offlineTableName, @Nonnull String segmentName,
+  public void addOfflineSegment(@Nonnull String offlineTableName, @Nonnull String segmentName,
       @Nonnull File indexDir) throws Exception {
     LOGGER.info("Adding segment: {} to OFFLINE table: {}", segmentName, offlineTableName);
     TableConfig tableConfig = ZKMetadataProvider.getTableConfig(_propertyStore, offlineTableName);
     Preconditions.checkNotNull(tableConfig);
-    if (!_tableDataManagerMap.containsKey(offlineTableName)) {
-      addTable(offlineTableName, tableConfig);
-    }
+    TableDataManager tableDataManager = getOrAddTable(offlineTableName, tableConfig);
 
-    _tableDataManagerMap.get(offlineTableName)
-        .addSegment(indexDir, new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig));
+    Lock segmentLock = SegmentLocks.getSegmentLock(offlineTableName, segmentName);
+    segmentLock.lock();
+    try {
+      Semaphore semaphore = _segmentLoadThrottler.acquire(indexDir);
+      try {
+        tableDataManager.addSegment(indexDir, getIndexLoadingConfig(tableConfig));
+      } finally {
+        if (semaphore != null) {
+          semaphore.release();
+        }
+      }
+    } finally {
+      segmentLock.unlock();
+    }
     LOGGER.info("Added segment: {} to OFFLINE table: {}", segmentName, offlineTableName);
   }
 
@@ -143,16 +174,42 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     LOGGER.info("Adding segment: {} to REALTIME table: {}", segmentName, realtimeTableName);
     TableConfig tableConfig = ZKMetadataProvider.getTableConfig(_propertyStore, realtimeTableName);
     Preconditions.checkNotNull(tableConfig);
-    if (!_tableDataManagerMap.containsKey(realtimeTableName)) {
-      addTable(realtimeTableName, tableConfig);
-    }
-
-    _tableDataManagerMap.get(realtimeTableName)
-        .addSegment(segmentName, tableConfig, new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig));
+    getOrAddTable(realtimeTableName, tableConfig).addSegment(segmentName, tableConfig,
+        getIndexLoadingConfig(tableConfig));
     LOGGER.info("Added segment: {} to REALTIME table: {}", segmentName, realtimeTableName);
   }
 
-  private void addTable(@Nonnull String tableNameWithType, @Nonnull TableConfig tableConfig)
+  private IndexLoadingConfig getIndexLoadingConfig(@Nonnull TableConfig tableConfig) {
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig);
+    indexLoadingConfig.setChunkCache(_chunkCache);
+    return indexLoadingConfig;
+  }
+
+  private void addChunkCacheGauges() {
+    _serverMetrics.addCallbackGauge(ServerGauge.CHUNK_CACHE_HIT_RATIO_PERCENT.getGaugeName(), new Callable<Long>() {
+      @Override
+      public Long call() throws Exception {
+        return Math.round(_chunkCache.getHitRatio() * 100);
+      }
+    });
+    _serverMetrics.addCallbackGauge(ServerGauge.CHUNK_CACHE_MEMORY_USED.getGaugeName(), new Callable<Long>() {
+      @Override
+      public Long call() throws Exception {
+        return _chunkCache.getSizeInBytes();
+      }
+    });
+  }
+
+  private synchronized TableDataManager getOrAddTable(@Nonnull String tableNameWithType,
+      @Nonnull TableConfig tableConfig) throws ConfigurationException {
+    TableDataManager tableDataManager = _tableDataManagerMap.get(tableNameWithType);
+    if (tableDataManager == null) {
+      tableDataManager = addTable(tableNameWithType, tableConfig);
+    }
+    return tableDataManager;
+  }
+
+  private TableDataManager addTable(@Nonnull String tableNameWithType, @Nonnull TableConfig tableConfig)
       throws ConfigurationException {
     LOGGER.info("Adding table: {}", tableNameWithType);
     TableDataManagerConfig tableDataManagerConfig =
@@ -164,6 +221,7 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     tableDataManager.start();
     _tableDataManagerMap.put(tableNameWithType, tableDataManager);
     LOGGER.info("Added table: {}", tableNameWithType);
+    return tableDataManager;
   }
 
   @Override
@@ -175,9 +233,12 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>Not synchronized, the segment lock serializes the reload with the add and refresh of the same segment.
+   */
   @Override
-  public synchronized void reloadSegment(@Nonnull String tableNameWithType, @Nonnull String segmentName)
-      throws Exception {
+  public void reloadSegment(@Nonnull String tableNameWithType, @Nonnull String segmentName) throws Exception {
     SegmentMetadata segmentMetadata = getSegmentMetadata(tableNameWithType, segmentName);
     if (segmentMetadata == null) {
       LOGGER.warn("Cannot locate segment: {} in table: {]", segmentName, tableNameWithType);
@@ -187,33 +248,37 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     TableConfig tableConfig = ZKMetadataProvider.getTableConfig(_propertyStore, tableNameWithType);
     Preconditions.checkNotNull(tableConfig);
 
-    Schema schema = null;
-    // For OFFLINE table, try to get schema for default columns
-    if (TableNameBuilder.OFFLINE.tableHasTypeSuffix(tableNameWithType)) {
-      schema = ZKMetadataProvider.getTableSchema(_propertyStore, tableNameWithType);
-    }
-
-    reloadSegment(tableNameWithType, segmentMetadata, tableConfig, schema);
+    reloadSegment(tableNameWithType, segmentMetadata, tableConfig);
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>Not synchronized, the segment lock serializes the reload with the add and refresh of the same segment.
+   */
   @Override
-  public synchronized void reloadAllSegments(@Nonnull String tableNameWithType) throws Exception {
+  public void reloadAllSegments(@Nonnull String tableNameWithType) throws Exception {
     TableConfig tableConfig = ZKMetadataProvider.getTableConfig(_propertyStore, tableNameWithType);
     Preconditions.checkNotNull(tableConfig);
 
-    Schema schema = null;
-    // For OFFLINE table, try to get schema for default columns
-    if (TableNameBuilder.OFFLINE.tableHasTypeSuffix(tableNameWithType)) {
-      schema = ZKMetadataProvider.getTableSchema(_propertyStore, tableNameWithType);
-    }
-
     for (SegmentMetadata segmentMetadata : getAllSegmentsMetadata(tableNameWithType)) {
-      reloadSegment(tableNameWithType, segmentMetadata, tableConfig, schema);
+      reloadSegment(tableNameWithType, segmentMetadata, tableConfig);
     }
   }
 
   private void reloadSegment(@Nonnull String tableNameWithType, @Nonnull SegmentMetadata segmentMetadata,
-      @Nonnull TableConfig tableConfig, @Nullable Schema schema) throws Exception {
+      @Nonnull TableConfig tableConfig) throws Exception {
+    String segmentName = segmentMetadata.getName();
+    Lock segmentLock = SegmentLocks.getSegmentLock(tableNameWithType, segmentName);
+    segmentLock.lock();
+    try {
+      reloadSegmentUnderLock(tableNameWithType, segmentMetadata, tableConfig);
+    } finally {
+      segmentLock.unlock();
+    }
+  }
+
+  private void reloadSegmentUnderLock(@Nonnull String tableNameWithType, @Nonnull SegmentMetadata segmentMetadata,
+      @Nonnull TableConfig tableConfig) throws Exception {
     String segmentName = segmentMetadata.getName();
     LOGGER.info("Reloading segment: {} in table: {}", segmentName, tableNameWithType);
 
@@ -240,12 +305,15 @@ public class HelixInstanceDataManager implements InstanceDataManager {
       // Copy from segment backup directory back to index directory
       FileUtils.copyDirectory(segmentBackupDir, indexDir);
 
-      // Load from index directory
-      IndexSegment indexSegment =
-          ColumnarSegmentLoader.load(indexDir, new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig), schema);
-
-      // Replace the old segment in memory
-      _tableDataManagerMap.get(tableNameWithType).addSegment(indexSegment);
+      // Load from index directory and replace the old segment in memory
+      TableDataManager tableDataManager = _tableDataManagerMap.get(tableNameWithType);
+      IndexLoadingConfig indexLoadingConfig = getIndexLoadingConfig(tableConfig);
+      if (TableNameBuilder.OFFLINE.tableHasTypeSuffix(tableNameWithType)) {
+        // Same as adding the segment: loads with the schema for default columns, and warms up the configured columns
+        tableDataManager.addSegment(indexDir, indexLoadingConfig);
+      } else {
+        tableDataManager.addSegment(ColumnarSegmentLoader.load(indexDir, indexLoadingConfig, null));
+      }
 
       // Rename segment backup directory to segment temporary directory (atomic)
       // The reason to first rename then delete is that, renaming is an atomic operation, but deleting is not. When we
@@ -73,6 +73,10 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   // The metric ServerGauge.REALTIME_OFFHEAP_MEMORY_USED should indicate how much memory is needed.
   private static final String DIRECT_REALTIME_OFFHEAP_ALLOCATION = "realtime.alloc.offheap.direct";
 
+  // Number of threads per consuming partition that decode Kafka messages ahead of the indexing thread.
+  // A value of <= 0 (default) disables the pipelined consumption, and messages are decoded on the indexing thread.
+  private static final String REALTIME_NUM_DECODE_THREADS = "realtime.num.decode.threads";
+
   // Number of simultaneous segments that can be refreshed on one server.
   // Segment refresh works by loading the old as well as new versions of segments in memory, assigning
   // new incoming queries to use the new version. The old version is dropped when all the queries that
@@ -87,6 +91,16 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   //
   private static final String MAX_PARALLEL_REFRESH_THREADS = "max.parallel.refresh.threads";
 
+  // Number of segments that can be loaded in parallel on each disk. Segments are loaded on the Helix state transition
+  // threads, so this bounds the parallelism of loading (e.g. on server startup) per disk.
+  // A value of <= 0 indicates unlimited.
+  private static final String MAX_PARALLEL_SEGMENT_LOADS_PER_DISK = "max.parallel.segment.loads.per.disk";
+
+  // Size in bytes of the server-wide heap cache of decompressed chunks for raw (no-dictionary) forward indexes,
+  // shared by concurrent queries over the same columns.
+  // A value of <= 0 disables the cache.
+  private static final String CHUNK_CACHE_SIZE_IN_BYTES = "chunk.cache.size.bytes";
+
   private final static String[] REQUIRED_KEYS = { INSTANCE_ID, INSTANCE_DATA_DIR, READ_MODE };
   private Configuration _instanceDataManagerConfiguration = null;
 
@@ -169,6 +183,11 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getBoolean(DIRECT_REALTIME_OFFHEAP_ALLOCATION, false);
   }
 
+  @Override
+  public int getRealtimeNumDecodeThreads() {
+    return _instanceDataManagerConfiguration.getInt(REALTIME_NUM_DECODE_THREADS, 0);
+  }
+
   @Override
   public String getAvgMultiValueCount() {
     return _instanceDataManagerConfiguration.getString(AVERAGE_MV_COUNT, null);
@@ -178,6 +197,14 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getInt(MAX_PARALLEL_REFRESH_THREADS, 1);
   }
 
+  public int getMaxParallelSegmentLoadsPerDisk() {
+    return _instanceDataManagerConfiguration.getInt(MAX_PARALLEL_SEGMENT_LOADS_PER_DISK, 1);
+  }
+
+  public long getChunkCacheSizeInBytes() {
+    return _instanceDataManagerConfiguration.getLong(CHUNK_CACHE_SIZE_IN_BYTES, 0L);
+  }
+
   public int getMaxParallelSegmentBuilds() {
     return _instanceDataManagerConfiguration.getInt(MAX_PARALLEL_SEGMENT_BUILDS, 0);
   }
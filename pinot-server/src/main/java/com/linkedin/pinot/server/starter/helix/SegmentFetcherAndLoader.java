@@ -31,6 +31,7 @@ import com.linkedin.pinot.core.segment.index.loader.LoaderUtils;
 import com.linkedin.pinot.core.segment.index.loader.V3RemoveIndexException;
 import java.io.File;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
@@ -78,7 +79,21 @@ public class SegmentFetcherAndLoader {
     SegmentFetcherFactory.getInstance().init(segmentFetcherFactoryConfig);
   }
 
+  /**
+   * Adds the segment, or refreshes it if the local copy is different from the one in ZK metadata. Holds the segment
+   * lock so that the download does not race with a reload of the same segment.
+   */
   public void addOrReplaceOfflineSegment(String tableName, String segmentId, boolean retryOnFailure) {
+    Lock segmentLock = SegmentLocks.getSegmentLock(tableName, segmentId);
+    segmentLock.lock();
+    try {
+      addOrReplaceOfflineSegmentUnderLock(tableName, segmentId, retryOnFailure);
+    } finally {
+      segmentLock.unlock();
+    }
+  }
+
+  private void addOrReplaceOfflineSegmentUnderLock(String tableName, String segmentId, boolean retryOnFailure) {
     OfflineSegmentZKMetadata newSegmentZKMetadata =
         ZKMetadataProvider.getOfflineSegmentZKMetadata(_propertyStore, tableName, segmentId);
     Preconditions.checkNotNull(newSegmentZKMetadata);
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.server.starter.helix;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Limits the number of segments loaded in parallel on each disk.
+ * <p>Segment loading (format conversion, index pre-processing and mapping) is mostly IO bound, so segments on
+ * different disks can be loaded in parallel while segments on the same disk are bounded to avoid thrashing it. Disks
+ * are identified by the {@link FileStore} of the segment index directory.
+ */
+public class SegmentLoadThrottler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentLoadThrottler.class);
+  private static final String UNKNOWN_DISK = "unknown";
+
+  private final int _maxParallelLoadsPerDisk;
+  private final ConcurrentMap<String, Semaphore> _diskSemaphores = new ConcurrentHashMap<>();
+
+  /**
+   * @param maxParallelLoadsPerDisk Maximum number of segments loaded in parallel on each disk, non-positive value
+   *                                means unlimited
+   */
+  public SegmentLoadThrottler(int maxParallelLoadsPerDisk) {
+    _maxParallelLoadsPerDisk = maxParallelLoadsPerDisk;
+  }
+
+  /**
+   * Acquires a load permit for the disk of the given index directory, blocking until it is available.
+   *
+   * @return Semaphore to release after loading the segment, or <code>null</code> if unlimited
+   */
+  public Semaphore acquire(File indexDir) throws InterruptedException {
+    if (_maxParallelLoadsPerDisk <= 0) {
+      return null;
+    }
+    String disk = getDisk(indexDir);
+    Semaphore semaphore = _diskSemaphores.get(disk);
+    if (semaphore == null) {
+      Semaphore newSemaphore = new Semaphore(_maxParallelLoadsPerDisk, true);
+      semaphore = _diskSemaphores.putIfAbsent(disk, newSemaphore);
+      if (semaphore == null) {
+        semaphore = newSemaphore;
+      }
+    }
+    long startTime = System.currentTimeMillis();
+    semaphore.acquire();
+    long waitTimeMs = System.currentTimeMillis() - startTime;
+    if (waitTimeMs > 0) {
+      LOGGER.info("Waited {}ms for load permit on disk: {} for index directory: {}", waitTimeMs, disk, indexDir);
+    }
+    return semaphore;
+  }
+
+  private static String getDisk(File indexDir) {
+    // Index directory might not exist yet, use the closest existing ancestor
+    File file = indexDir.getAbsoluteFile();
+    while (file != null && !file.exists()) {
+      file = file.getParentFile();
+    }
+    if (file == null) {
+      return UNKNOWN_DISK;
+    }
+    try {
+      FileStore fileStore = Files.getFileStore(file.toPath());
+      return fileStore.name();
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while getting file store for: {}", file, e);
+      return UNKNOWN_DISK;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.server.starter.helix;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Striped locks to serialize the operations that modify the index directory of a segment on local disk, i.e. adding,
+ * refreshing (download and add) and reloading the segment. Segments are loaded in parallel, so these operations can
+ * otherwise race on the same segment, e.g. a refresh replacing the index directory while a reload renames it.
+ * <p>The locks are reentrant so that a refresh can add the segment while holding its lock. They must be taken before
+ * the instance lock of {@link HelixInstanceDataManager}, never while holding it.
+ */
+public class SegmentLocks {
+  private static final int NUM_LOCKS = 10000;
+  private static final Lock[] LOCKS = new Lock[NUM_LOCKS];
+
+  static {
+    for (int i = 0; i < NUM_LOCKS; i++) {
+      LOCKS[i] = new ReentrantLock();
+    }
+  }
+
+  private SegmentLocks() {
+  }
+
+  /**
+   * Returns the lock for the given segment. Different segments might share the same lock.
+   */
+  public static Lock getSegmentLock(String tableNameWithType, String segmentName) {
+    // Hash code can be negative, so make sure we are getting a positive lock index
+    return LOCKS[((tableNameWithType.hashCode() * 31 + segmentName.hashCode()) & Integer.MAX_VALUE) % NUM_LOCKS];
+  }
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.server.starter.helix;
+
+import com.linkedin.pinot.common.config.TableConfig;
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.apache.helix.AccessOption;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.zookeeper.data.Stat;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.*;
+
+
+/**
+ * Tests that adding and reloading the same OFFLINE segment in parallel are serialized by {@link SegmentLocks}.
+ */
+public class HelixInstanceDataManagerTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "HelixInstanceDataManagerTest");
+  private static final File SEGMENT_SOURCE_DIR = new File(TEMP_DIR, "source");
+  private static final File INSTANCE_DATA_DIR = new File(TEMP_DIR, "data");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String OFFLINE_TABLE_NAME = "testTable_OFFLINE";
+  private static final File TABLE_DATA_DIR = new File(INSTANCE_DATA_DIR, OFFLINE_TABLE_NAME);
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final String COLUMN_NAME = "column";
+  private static final int NUM_ROWS = 1000;
+  private static final long TIMEOUT_MS = 60_000L;
+
+  private HelixInstanceDataManager _instanceDataManager;
+  private ExecutorService _executorService;
+  private String _segmentName;
+  private File _indexDir;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    FileUtils.forceMkdir(TABLE_DATA_DIR);
+
+    // Build the segment to be added
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(COLUMN_NAME, FieldSpec.DataType.INT, true));
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Map<String, Object> map = new HashMap<>();
+      map.put(COLUMN_NAME, i);
+      GenericRow row = new GenericRow();
+      row.init(map);
+      rows.add(row);
+    }
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(schema);
+    segmentGeneratorConfig.setOutDir(SEGMENT_SOURCE_DIR.getAbsolutePath());
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(rows, schema));
+    driver.build();
+    _segmentName = driver.getSegmentName();
+    _indexDir = new File(TABLE_DATA_DIR, _segmentName);
+    FileUtils.copyDirectory(new File(SEGMENT_SOURCE_DIR, _segmentName), _indexDir);
+
+    // Mock the property store to only contain the table config
+    TableConfig tableConfig =
+        new TableConfig.Builder(CommonConstants.Helix.TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+    // Only test the segment operations, skip the index pre-processing
+    tableConfig.getIndexingConfig().setColumnMinMaxValueGeneratorMode("NONE");
+    ZNRecord tableConfigZNRecord = TableConfig.toZnRecord(tableConfig);
+    @SuppressWarnings("unchecked")
+    ZkHelixPropertyStore<ZNRecord> propertyStore = mock(ZkHelixPropertyStore.class);
+    when(propertyStore.get(eq(ZKMetadataProvider.constructPropertyStorePathForResourceConfig(OFFLINE_TABLE_NAME)),
+        isNull(Stat.class), eq(AccessOption.PERSISTENT))).thenReturn(tableConfigZNRecord);
+
+    Configuration config = new PropertiesConfiguration();
+    config.addProperty(HelixInstanceDataManagerConfig.INSTANCE_ID, "testInstance");
+    config.addProperty(HelixInstanceDataManagerConfig.INSTANCE_DATA_DIR, INSTANCE_DATA_DIR.getAbsolutePath());
+    config.addProperty(HelixInstanceDataManagerConfig.INSTANCE_SEGMENT_TAR_DIR,
+        new File(TEMP_DIR, "tar").getAbsolutePath());
+    config.addProperty(HelixInstanceDataManagerConfig.READ_MODE, "mmap");
+    _instanceDataManager = new HelixInstanceDataManager();
+    _instanceDataManager.init(config, propertyStore, new ServerMetrics(new MetricsRegistry()));
+    _instanceDataManager.start();
+
+    _executorService = Executors.newCachedThreadPool();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdownNow();
+    _instanceDataManager.shutDown();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testSegmentLockBlocksAddAndReload()
+      throws Exception {
+    Lock segmentLock = SegmentLocks.getSegmentLock(OFFLINE_TABLE_NAME, _segmentName);
+
+    // Add cannot load the segment while the segment lock is held
+    Future<Void> addFuture;
+    segmentLock.lock();
+    try {
+      addFuture = _executorService.submit(getAddTask());
+      assertBlocked(addFuture);
+      Assert.assertNull(_instanceDataManager.getSegmentMetadata(OFFLINE_TABLE_NAME, _segmentName));
+    } finally {
+      segmentLock.unlock();
+    }
+    addFuture.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    Assert.assertNotNull(_instanceDataManager.getSegmentMetadata(OFFLINE_TABLE_NAME, _segmentName));
+
+    // Reload cannot move the index directory while the segment lock is held
+    Future<Void> reloadFuture;
+    segmentLock.lock();
+    try {
+      reloadFuture = _executorService.submit(getReloadTask());
+      assertBlocked(reloadFuture);
+      Assert.assertTrue(_indexDir.isDirectory());
+      Assert.assertFalse(getBackupDir().exists());
+    } finally {
+      segmentLock.unlock();
+    }
+    reloadFuture.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    assertSegmentLoaded();
+  }
+
+  @Test(dependsOnMethods = "testSegmentLockBlocksAddAndReload")
+  public void testParallelAddAndReload()
+      throws Exception {
+    // Without the segment lock, the reload renames the index directory away while the add is loading from it
+    for (int i = 0; i < 10; i++) {
+      Future<Void> addFuture = _executorService.submit(getAddTask());
+      Future<Void> reloadFuture = _executorService.submit(getReloadTask());
+      addFuture.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      reloadFuture.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      assertSegmentLoaded();
+    }
+  }
+
+  private Callable<Void> getAddTask() {
+    return new Callable<Void>() {
+      @Override
+      public Void call()
+          throws Exception {
+        _instanceDataManager.addOfflineSegment(OFFLINE_TABLE_NAME, _segmentName, _indexDir);
+        return null;
+      }
+    };
+  }
+
+  private Callable<Void> getReloadTask() {
+    return new Callable<Void>() {
+      @Override
+      public Void call()
+          throws Exception {
+        _instanceDataManager.reloadSegment(OFFLINE_TABLE_NAME, _segmentName);
+        return null;
+      }
+    };
+  }
+
+  private File getBackupDir() {
+    return new File(TABLE_DATA_DIR, _segmentName + CommonConstants.Segment.SEGMENT_BACKUP_DIR_SUFFIX);
+  }
+
+  private void assertSegmentLoaded() {
+    Assert.assertNotNull(_instanceDataManager.getSegmentMetadata(OFFLINE_TABLE_NAME, _segmentName));
+    Assert.assertTrue(_indexDir.isDirectory());
+    Assert.assertFalse(getBackupDir().exists());
+    Assert.assertFalse(
+        new File(TABLE_DATA_DIR, _segmentName + CommonConstants.Segment.SEGMENT_TEMP_DIR_SUFFIX).exists());
+  }
+
+  private static void assertBlocked(Future<Void> future)
+      throws Exception {
+    try {
+      future.get(500, TimeUnit.MILLISECONDS);
+      Assert.fail("Operation should be blocked by the segment lock");
+    } catch (TimeoutException e) {
+      // Expected
+    }
+  }
+}
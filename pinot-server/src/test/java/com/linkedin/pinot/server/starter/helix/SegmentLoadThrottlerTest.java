@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.server.starter.helix;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class SegmentLoadThrottlerTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "SegmentLoadThrottlerTest");
+  // Index directories on the same disk, which might not exist yet
+  private static final File INDEX_DIR_1 = new File(TEMP_DIR, "segment1");
+  private static final File INDEX_DIR_2 = new File(TEMP_DIR, "table/segment2");
+
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    Assert.assertTrue(TEMP_DIR.mkdirs());
+    _executorService = Executors.newCachedThreadPool();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdownNow();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testUnlimited()
+      throws Exception {
+    for (int maxParallelLoadsPerDisk : new int[]{0, -1}) {
+      SegmentLoadThrottler segmentLoadThrottler = new SegmentLoadThrottler(maxParallelLoadsPerDisk);
+      for (int i = 0; i < 10; i++) {
+        Assert.assertNull(segmentLoadThrottler.acquire(INDEX_DIR_1));
+        Assert.assertNull(segmentLoadThrottler.acquire(INDEX_DIR_2));
+      }
+    }
+  }
+
+  @Test
+  public void testPerDiskPermits()
+      throws Exception {
+    final SegmentLoadThrottler segmentLoadThrottler = new SegmentLoadThrottler(2);
+
+    // Index directories on the same disk share the same permits
+    Semaphore semaphore1 = segmentLoadThrottler.acquire(INDEX_DIR_1);
+    Semaphore semaphore2 = segmentLoadThrottler.acquire(INDEX_DIR_2);
+    Assert.assertNotNull(semaphore1);
+    Assert.assertSame(semaphore2, semaphore1);
+    Assert.assertEquals(semaphore1.availablePermits(), 0);
+
+    // The third load on the disk blocks until a permit is released
+    Future<Semaphore> future = _executorService.submit(new Callable<Semaphore>() {
+      @Override
+      public Semaphore call()
+          throws Exception {
+        return segmentLoadThrottler.acquire(INDEX_DIR_1);
+      }
+    });
+    try {
+      future.get(500, TimeUnit.MILLISECONDS);
+      Assert.fail("Load permit should not be available");
+    } catch (TimeoutException e) {
+      // Expected
+    }
+    semaphore1.release();
+    Assert.assertSame(future.get(10, TimeUnit.SECONDS), semaphore1);
+    Assert.assertEquals(semaphore1.availablePermits(), 0);
+
+    semaphore1.release();
+    semaphore2.release();
+    Assert.assertEquals(semaphore1.availablePermits(), 2);
+  }
+}
@@ -15,16 +15,20 @@
  */
 package com.linkedin.pinot.transport.common;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.linkedin.pinot.common.response.ServerInstance;
@@ -68,6 +72,13 @@ public class CompositeFuture<V> extends AbstractCompositeListenableFuture<V> {
 
   private final GatherModeOnError _gatherMode;
 
+  // Responses in the order they arrive, followed by a done marker once no more response is expected
+  private final BlockingQueue<Map.Entry<ServerInstance, V>> _arrivedResponseQueue = new LinkedBlockingQueue<>();
+  private final Map.Entry<ServerInstance, V> _doneMarker = new AbstractMap.SimpleImmutableEntry<>(null, null);
+  private final AtomicInteger _numProcessedFutures = new AtomicInteger();
+  // Only accessed by the consumer of takeNextResponse()
+  private boolean _doneMarkerTaken = false;
+
   // Descriptive name of the future
   private final String _name;
 
@@ -99,6 +110,9 @@ public class CompositeFuture<V> extends AbstractCompositeListenableFuture<V> {
     } else {
       _latch = new CountDownLatch(0);
     }
+    if (_futures.isEmpty()) {
+      _arrivedResponseQueue.offer(_doneMarker);
+    }
     for (ServerResponseFuture<V> entry : _futures) {
       if (null != entry) {
         addResponseFutureListener(entry);
@@ -117,6 +131,27 @@ public class CompositeFuture<V> extends AbstractCompositeListenableFuture<V> {
       LOGGER.info("Cancelling future {}", entry.getName());
       entry.cancel(true);
     }
+    // No more response is going to be taken
+    _arrivedResponseQueue.offer(_doneMarker);
+  }
+
+  /**
+   * Take the next arrived response, waiting if no response has arrived yet. Responses are returned in the order they
+   * arrive, so that the caller can process each response without waiting for the slowest one.
+   * This method is meant to be called by a single thread, instead of calling 'get'.
+   *
+   * @return The next response, or null if all the underlying futures are done and all responses have been taken.
+   */
+  public Map.Entry<ServerInstance, V> takeNextResponse() throws InterruptedException {
+    while (true) {
+      Map.Entry<ServerInstance, V> response =
+          _doneMarkerTaken ? _arrivedResponseQueue.poll() : _arrivedResponseQueue.take();
+      if (response != _doneMarker) {
+        return response;
+      }
+      // All responses have been queued before the done marker, drain the queue without waiting
+      _doneMarkerTaken = true;
+    }
   }
 
   @Override
@@ -197,6 +232,7 @@ public class CompositeFuture<V> extends AbstractCompositeListenableFuture<V> {
     if (null != response) {
       LOGGER.debug("Response from {} is {}", server, response);
       _delayedResponseMap.putAll(response);
+      _arrivedResponseQueue.addAll(response.entrySet());
     } else if (null != error) {
       LOGGER.debug("Error from {} is : {}", server, error);
       _errorMap.putAll(error);
@@ -207,6 +243,9 @@ public class CompositeFuture<V> extends AbstractCompositeListenableFuture<V> {
     }
     // TODO May be limit the number of entries here to 10? We don't want to create too much garbage on the broker.
     _responseTimeMap.put(server, durationMillis);
+    if (_numProcessedFutures.incrementAndGet() == _futures.size()) {
+      _arrivedResponseQueue.offer(_doneMarker);
+    }
     return ret;
   }
 
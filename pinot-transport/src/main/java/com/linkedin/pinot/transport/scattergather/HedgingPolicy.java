@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.scattergather;
+
+import com.linkedin.pinot.common.config.TableNameBuilder;
+import com.linkedin.pinot.common.utils.LatencyTracker;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The <code>HedgingPolicy</code> class decides when to send a speculative (hedged) request to a second replica.
+ * <p>The response time of the servers is tracked per table. If the response of a server has not arrived after the
+ * configured percentile of the recent response times of the table, the same segments are queried on another replica
+ * and the first response wins. The percentile can be overridden per table (with or without type suffix), where a value
+ * outside of (0, 100) disables hedging for the table.
+ */
+@ThreadSafe
+public class HedgingPolicy {
+  public static final double DEFAULT_PERCENTILE = 95;
+  public static final long DEFAULT_MIN_DELAY_MS = 10L;
+  public static final int DEFAULT_MIN_NUM_SAMPLES = 100;
+
+  private final ScheduledExecutorService _scheduler;
+  private final double _defaultPercentile;
+  private final Map<String, Double> _tablePercentiles;
+  private final long _minDelayMs;
+  private final int _minNumSamples;
+  private final ConcurrentMap<String, LatencyTracker> _responseTimeTrackers = new ConcurrentHashMap<>();
+
+  /**
+   * @param scheduler scheduler to fire the hedged requests.
+   * @param defaultPercentile default percentile of the response time after which to send hedged requests.
+   * @param tablePercentiles per table percentile overrides.
+   * @param minDelayMs minimum delay before sending a hedged request.
+   * @param minNumSamples minimum number of responses of the table observed before starting hedging.
+   */
+  public HedgingPolicy(@Nonnull ScheduledExecutorService scheduler, double defaultPercentile,
+      @Nonnull Map<String, Double> tablePercentiles, long minDelayMs, int minNumSamples) {
+    _scheduler = scheduler;
+    _defaultPercentile = defaultPercentile;
+    _tablePercentiles = tablePercentiles;
+    _minDelayMs = minDelayMs;
+    _minNumSamples = minNumSamples;
+  }
+
+  @Nonnull
+  public ScheduledExecutorService getScheduler() {
+    return _scheduler;
+  }
+
+  /**
+   * Record the response time of a server for the given table.
+   */
+  public void recordResponseTime(@Nonnull String tableName, long responseTimeMs) {
+    LatencyTracker responseTimeTracker = _responseTimeTrackers.get(tableName);
+    if (responseTimeTracker == null) {
+      LatencyTracker newResponseTimeTracker = new LatencyTracker();
+      responseTimeTracker = _responseTimeTrackers.putIfAbsent(tableName, newResponseTimeTracker);
+      if (responseTimeTracker == null) {
+        responseTimeTracker = newResponseTimeTracker;
+      }
+    }
+    responseTimeTracker.record(responseTimeMs);
+  }
+
+  /**
+   * Get the delay after which to send a hedged request for the given table, or -1 if the table should not be hedged.
+   */
+  public long getHedgeDelayMs(@Nonnull String tableName) {
+    double percentile = getPercentile(tableName);
+    if (percentile <= 0 || percentile >= 100) {
+      return -1L;
+    }
+    LatencyTracker responseTimeTracker = _responseTimeTrackers.get(tableName);
+    if (responseTimeTracker == null || responseTimeTracker.getNumRecorded() < _minNumSamples) {
+      return -1L;
+    }
+    return Math.max(responseTimeTracker.getPercentileMs(percentile), _minDelayMs);
+  }
+
+  private double getPercentile(String tableName) {
+    Double percentile = _tablePercentiles.get(tableName);
+    if (percentile == null) {
+      percentile = _tablePercentiles.get(TableNameBuilder.extractRawTableName(tableName));
+    }
+    return percentile != null ? percentile : _defaultPercentile;
+  }
+}
@@ -20,6 +20,7 @@ import com.linkedin.pinot.common.metrics.BrokerMetrics;
 import com.linkedin.pinot.common.metrics.BrokerQueryPhase;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.common.Cancellable;
 import com.linkedin.pinot.transport.common.CompositeFuture;
 import com.linkedin.pinot.transport.common.CompositeFuture.GatherModeOnError;
 import com.linkedin.pinot.transport.common.ServerResponseFuture;
@@ -34,6 +35,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -53,11 +55,32 @@ public class ScatterGatherImpl implements ScatterGather {
 
   private final KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> _connPool;
   private final ExecutorService _executorService;
+  private final ServerLoadTracker _serverLoadTracker;
+  private final HedgingPolicy _hedgingPolicy;
 
   public ScatterGatherImpl(@Nonnull KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> connPool,
       @Nonnull ExecutorService executorService) {
+    this(connPool, executorService, null, null);
+  }
+
+  public ScatterGatherImpl(@Nonnull KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> connPool,
+      @Nonnull ExecutorService executorService, @Nullable ServerLoadTracker serverLoadTracker) {
+    this(connPool, executorService, serverLoadTracker, null);
+  }
+
+  /**
+   * @param connPool connection pool.
+   * @param executorService executor service to check out connections and send requests.
+   * @param serverLoadTracker tracker to be fed with the in-flight requests and response times of the servers.
+   * @param hedgingPolicy policy to send hedged requests to a second replica, or null to disable hedging.
+   */
+  public ScatterGatherImpl(@Nonnull KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> connPool,
+      @Nonnull ExecutorService executorService, @Nullable ServerLoadTracker serverLoadTracker,
+      @Nullable HedgingPolicy hedgingPolicy) {
     _connPool = connPool;
     _executorService = executorService;
+    _serverLoadTracker = serverLoadTracker;
+    _hedgingPolicy = hedgingPolicy;
   }
 
   @Nonnull
@@ -128,7 +151,14 @@ public class ScatterGatherImpl implements ScatterGather {
     if (sentSuccessfully) {
       List<ServerResponseFuture<byte[]>> responseFutures = new ArrayList<>();
       for (SingleRequestHandler h : handlers) {
-        responseFutures.add(h.getResponseFuture());
+        ResponseFuture responseFuture = h.getResponseFuture();
+        if (_serverLoadTracker != null && h.isSent()) {
+          trackServerLoad(h.getServer(), responseFuture, scatterGatherRequest.getRequestTimeoutMs());
+        }
+        if (_hedgingPolicy != null && h.isSent() && scatterGatherRequest.getBrokerRequest() != null) {
+          responseFuture = hedgeRequest(h, scatterGatherRequestContext, brokerMetrics);
+        }
+        responseFutures.add(responseFuture);
         String shortServerName = h.getServer().getShortHostName();
         if (isOfflineTable != null) {
           if (isOfflineTable) {
@@ -160,6 +190,264 @@ public class ScatterGatherImpl implements ScatterGather {
     return response;
   }
 
+  /**
+   * Track the in-flight request and the response time of the server. Failed requests are penalized with at least the
+   * request timeout as the response time, cancelled requests are not counted as they do not reflect the server load.
+   */
+  private void trackServerLoad(final ServerInstance server, final ResponseFuture responseFuture,
+      final long requestTimeoutMs) {
+    _serverLoadTracker.requestSent(server);
+    responseFuture.addListener(new Runnable() {
+      @Override
+      public void run() {
+        if (responseFuture.isCancelled()) {
+          _serverLoadTracker.requestCancelled(server);
+        } else if (responseFuture.getError() != null) {
+          _serverLoadTracker.requestFailed(server, Math.max(responseFuture.getDurationMillis(), requestTimeoutMs));
+        } else {
+          _serverLoadTracker.requestCompleted(server, responseFuture.getDurationMillis());
+        }
+      }
+    }, null);
+  }
+
+  /**
+   * Track the response time of the table for the hedging policy, and schedule a hedged request if the table should be
+   * hedged and there is time left.
+   *
+   * @return future for the response of the request, which completes with the first successful response if hedged.
+   */
+  private ResponseFuture hedgeRequest(SingleRequestHandler handler, ScatterGatherRequestContext context,
+      BrokerMetrics brokerMetrics) {
+    ResponseFuture responseFuture = handler.getResponseFuture();
+    String tableName = context._request.getBrokerRequest().getQuerySource().getTableName();
+    trackResponseTime(tableName, responseFuture);
+
+    long hedgeDelayMs = _hedgingPolicy.getHedgeDelayMs(tableName);
+    if (hedgeDelayMs < 0 || hedgeDelayMs >= context.getRemainingTimeMs()
+        || context._request.getSegmentToServersMap() == null) {
+      return responseFuture;
+    }
+    HedgedRequest hedgedRequest = new HedgedRequest(handler, context, tableName, brokerMetrics);
+    hedgedRequest.start(hedgeDelayMs);
+    return hedgedRequest._responseFuture;
+  }
+
+  /**
+   * Track the response time of the successful responses for the hedging policy.
+   */
+  private void trackResponseTime(final String tableName, final ResponseFuture responseFuture) {
+    responseFuture.addListener(new Runnable() {
+      @Override
+      public void run() {
+        if (!responseFuture.isCancelled() && responseFuture.getError() == null) {
+          _hedgingPolicy.recordResponseTime(tableName, responseFuture.getDurationMillis());
+        }
+      }
+    }, null);
+  }
+
+  /**
+   * Pick another server serving all the given segments, preferring the least loaded one if the server load is tracked.
+   *
+   * @return server to send the hedged request to, or null if no other server serves all the segments.
+   */
+  @Nullable
+  private ServerInstance pickHedgeServer(ServerInstance server, List<String> segments,
+      Map<String, List<String>> segmentToServersMap) {
+    List<String> candidates = null;
+    for (String segment : segments) {
+      List<String> servers = segmentToServersMap.get(segment);
+      if (servers == null) {
+        return null;
+      }
+      if (candidates == null) {
+        candidates = new ArrayList<>(servers);
+      } else {
+        candidates.retainAll(servers);
+      }
+      if (candidates.isEmpty()) {
+        return null;
+      }
+    }
+    if (candidates == null) {
+      return null;
+    }
+
+    List<ServerInstance> candidateServers = new ArrayList<>(candidates.size());
+    for (String candidate : candidates) {
+      ServerInstance candidateServer = ServerInstance.forInstanceName(candidate);
+      if (!candidateServer.equals(server)) {
+        candidateServers.add(candidateServer);
+      }
+    }
+    int numCandidateServers = candidateServers.size();
+    if (numCandidateServers == 0) {
+      return null;
+    }
+    if (_serverLoadTracker == null) {
+      return candidateServers.get(ThreadLocalRandom.current().nextInt(numCandidateServers));
+    }
+    ServerInstance selectedServer = null;
+    double minScore = Double.MAX_VALUE;
+    for (ServerInstance candidateServer : candidateServers) {
+      double score = _serverLoadTracker.getScore(candidateServer);
+      if (score < minScore) {
+        minScore = score;
+        selectedServer = candidateServer;
+      }
+    }
+    return selectedServer;
+  }
+
+  /**
+   * Cancel the request handler asynchronously, as cancelling waits for the request to be sent.
+   */
+  private void cancelAsync(final SingleRequestHandler handler) {
+    _executorService.submit(new Runnable() {
+      @Override
+      public void run() {
+        handler.cancel();
+      }
+    });
+  }
+
+  /**
+   * A request which is re-issued to another replica if its response has not arrived after the hedge delay. The
+   * response future completes with the first successful response (or the last error), keyed by the original server,
+   * and the other request gets cancelled.
+   */
+  private class HedgedRequest implements Cancellable {
+    private final SingleRequestHandler _handler;
+    private final ScatterGatherRequestContext _context;
+    private final String _tableName;
+    private final BrokerMetrics _brokerMetrics;
+    private final ResponseFuture _responseFuture;
+
+    private volatile SingleRequestHandler _hedgeHandler;
+
+    HedgedRequest(SingleRequestHandler handler, ScatterGatherRequestContext context, String tableName,
+        BrokerMetrics brokerMetrics) {
+      _handler = handler;
+      _context = context;
+      _tableName = tableName;
+      _brokerMetrics = brokerMetrics;
+      _responseFuture = new ResponseFuture(handler.getServer(),
+          "Hedged response future for request " + context._request.getRequestId());
+      _responseFuture.setCancellable(this);
+    }
+
+    void start(long hedgeDelayMs) {
+      addResponseListener(_handler, false);
+      _hedgingPolicy.getScheduler().schedule(new Runnable() {
+        @Override
+        public void run() {
+          sendHedgeRequest();
+        }
+      }, hedgeDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void sendHedgeRequest() {
+      final SingleRequestHandler hedgeHandler;
+      synchronized (this) {
+        long remainingTimeMs = _context.getRemainingTimeMs();
+        if (_responseFuture.isDone() || remainingTimeMs <= 0) {
+          return;
+        }
+        ScatterGatherRequest request = _context._request;
+        ServerInstance hedgeServer =
+            pickHedgeServer(_handler.getServer(), _handler.getSegments(), request.getSegmentToServersMap());
+        if (hedgeServer == null) {
+          LOGGER.debug("No other server found to hedge request {} to server {}", request.getRequestId(),
+              _handler.getServer());
+          return;
+        }
+        hedgeHandler = new SingleRequestHandler(_connPool, hedgeServer, request, _handler.getSegments(),
+            remainingTimeMs, new CountDownLatch(1), _brokerMetrics);
+        _hedgeHandler = hedgeHandler;
+      }
+      _executorService.submit(new Runnable() {
+        @Override
+        public void run() {
+          hedgeHandler.run();
+          if (hedgeHandler.isSent()) {
+            _brokerMetrics.addMeteredQueryValue(_context._request.getBrokerRequest(),
+                BrokerMeter.HEDGED_REQUESTS_SENT, 1);
+            if (_serverLoadTracker != null) {
+              trackServerLoad(hedgeHandler.getServer(), hedgeHandler.getResponseFuture(),
+                  _context._request.getRequestTimeoutMs());
+            }
+            trackResponseTime(_tableName, hedgeHandler.getResponseFuture());
+          }
+          // Response future is not set if the request is cancelled before being sent
+          if (hedgeHandler.getResponseFuture() != null) {
+            addResponseListener(hedgeHandler, true);
+          }
+        }
+      });
+    }
+
+    private void addResponseListener(final SingleRequestHandler handler, final boolean isHedge) {
+      handler.getResponseFuture().addListener(new Runnable() {
+        @Override
+        public void run() {
+          onResponse(handler, isHedge);
+        }
+      }, null);
+    }
+
+    private synchronized void onResponse(SingleRequestHandler handler, boolean isHedge) {
+      ResponseFuture responseFuture = handler.getResponseFuture();
+      // Cancelled requests are the ones lost the race or cancelled with the hedged request
+      if (responseFuture.isCancelled() || _responseFuture.isDone()) {
+        return;
+      }
+      SingleRequestHandler otherHandler = isHedge ? _handler : _hedgeHandler;
+      Map<ServerInstance, Throwable> errorMap = responseFuture.getError();
+      if (errorMap == null || errorMap.isEmpty()) {
+        byte[] response;
+        try {
+          response = responseFuture.getOne();
+        } catch (Exception e) {
+          // Should not happen as the future is already done
+          _responseFuture.onError(e);
+          return;
+        }
+        BrokerRequest brokerRequest = _context._request.getBrokerRequest();
+        if (isHedge) {
+          _brokerMetrics.addMeteredQueryValue(brokerRequest, BrokerMeter.HEDGED_REQUESTS_WON, 1);
+        }
+        _responseFuture.onSuccess(response);
+        if (otherHandler != null) {
+          if (otherHandler.isSent()) {
+            _brokerMetrics.addMeteredQueryValue(brokerRequest, BrokerMeter.HEDGED_REQUESTS_WASTED_TIME_MS,
+                otherHandler.getTimeSinceSentMillis());
+          }
+          cancelAsync(otherHandler);
+        }
+      } else {
+        // Wait for the other request if it is still pending
+        ResponseFuture otherResponseFuture = otherHandler != null ? otherHandler.getResponseFuture() : null;
+        if (otherHandler == null || (otherResponseFuture != null && otherResponseFuture.isDone())) {
+          _responseFuture.onError(errorMap.values().iterator().next());
+        }
+      }
+    }
+
+    /**
+     * Called when the hedged response future is cancelled, which cancels both requests.
+     */
+    @Override
+    public boolean cancel() {
+      cancelAsync(_handler);
+      SingleRequestHandler hedgeHandler = _hedgeHandler;
+      if (hedgeHandler != null) {
+        cancelAsync(hedgeHandler);
+      }
+      return true;
+    }
+  }
+
   private static class ScatterGatherRequestContext {
     private final ScatterGatherRequest _request;
     private final long _startTimeMs;
@@ -203,6 +491,7 @@ public class ScatterGatherImpl implements ScatterGather {
 
     // Track if request has been dispatched
     private final AtomicBoolean _isSent = new AtomicBoolean(false);
+    private volatile long _sentTimeMillis;
 
     // Cancel dispatching request
     private final AtomicBoolean _isCancelled = new AtomicBoolean(false);
@@ -309,6 +598,7 @@ public class ScatterGatherImpl implements ScatterGather {
         }
         ByteBuf req = Unpooled.wrappedBuffer(serializedRequest);
         _responseFuture = conn.sendRequest(req, _request.getRequestId(), timeRemainingMillis);
+        _sentTimeMillis = System.currentTimeMillis();
         _isSent.set(true);
         LOGGER.debug("Response Future is : {}", _responseFuture);
         error = false;
@@ -372,6 +662,14 @@ public class ScatterGatherImpl implements ScatterGather {
       return _server;
     }
 
+    public List<String> getSegments() {
+      return _segments;
+    }
+
+    public long getTimeSinceSentMillis() {
+      return System.currentTimeMillis() - _sentTimeMillis;
+    }
+
     public ResponseFuture getResponseFuture() {
       return _responseFuture;
     }
@@ -18,6 +18,7 @@ package com.linkedin.pinot.transport.scattergather;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 
 /**
@@ -34,6 +35,14 @@ public interface ScatterGatherRequest {
    */
   Map<String, List<String>> getRoutingTable();
 
+  /**
+   * Get the map from segment to all the servers serving it, which is used to pick another replica for hedged requests.
+   *
+   * @return Map from segment to servers, or null if not available
+   */
+  @Nullable
+  Map<String, List<String>> getSegmentToServersMap();
+
   /**
    * Get the request to be sent to the server.
    *
@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.scattergather;
+
+import com.linkedin.pinot.common.response.ServerInstance;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The <code>ServerLoadTracker</code> class tracks the load of each server as observed by the broker, which is used
+ * for adaptive replica selection.
+ * <p>For each server, it tracks:
+ * <ul>
+ *   <li>Number of in-flight requests sent from this broker</li>
+ *   <li>Exponentially weighted moving average (EWMA) of the response time observed by the broker</li>
+ *   <li>EWMA of the service time reported by the server</li>
+ *   <li>Load reported by the server along with the responses (scheduler queue length, active threads and recent
+ *   latency percentiles), where the queue length is an EWMA</li>
+ * </ul>
+ * <p>The score of a server follows the C3 ranking function: <code>R - T + (1 + os * n + q)^3 * T</code>, where
+ * <code>R</code> is the response time, <code>T</code> is the service time, <code>os</code> is the number of in-flight
+ * requests, <code>n</code> is the number of brokers sending requests to the server (concurrency compensation) and
+ * <code>q</code> is the queue length reported by the server.
+ * The response time is used as the service time for servers not reporting it. Servers with lower score are preferred.
+ */
+@ThreadSafe
+public class ServerLoadTracker {
+  public static final double DEFAULT_EWMA_ALPHA = 0.2;
+  public static final int DEFAULT_NUM_BROKERS = 1;
+
+  private final ConcurrentMap<ServerInstance, ServerLoad> _serverLoadMap = new ConcurrentHashMap<>();
+  // Weight of the new sample in the EWMA
+  private final double _ewmaAlpha;
+  private final int _numBrokers;
+
+  public ServerLoadTracker() {
+    this(DEFAULT_EWMA_ALPHA, DEFAULT_NUM_BROKERS);
+  }
+
+  public ServerLoadTracker(double ewmaAlpha, int numBrokers) {
+    _ewmaAlpha = ewmaAlpha;
+    _numBrokers = numBrokers;
+  }
+
+  /**
+   * Called when a request is sent to the server.
+   */
+  public void requestSent(@Nonnull ServerInstance server) {
+    getServerLoad(server)._numInFlightRequests.incrementAndGet();
+  }
+
+  /**
+   * Called when a response is received from the server.
+   */
+  public void requestCompleted(@Nonnull ServerInstance server, long responseTimeMs) {
+    ServerLoad serverLoad = getServerLoad(server);
+    serverLoad._numInFlightRequests.decrementAndGet();
+    serverLoad.updateResponseTime(responseTimeMs, _ewmaAlpha);
+  }
+
+  /**
+   * Called when a request to the server failed, where the penalty is used as the response time.
+   */
+  public void requestFailed(@Nonnull ServerInstance server, long penaltyMs) {
+    requestCompleted(server, penaltyMs);
+  }
+
+  /**
+   * Called when a request to the server is cancelled by the broker, which does not reflect the server load.
+   */
+  public void requestCancelled(@Nonnull ServerInstance server) {
+    getServerLoad(server)._numInFlightRequests.decrementAndGet();
+  }
+
+  /**
+   * Called when the server reports the time used to serve a request.
+   */
+  public void updateServiceTime(@Nonnull ServerInstance server, long serviceTimeMs) {
+    getServerLoad(server).updateServiceTime(serviceTimeMs, _ewmaAlpha);
+  }
+
+  /**
+   * Called when the server reports its load along with a response.
+   */
+  public void updateReportedLoad(@Nonnull ServerInstance server, int queueLength, int numActiveThreads,
+      long p50LatencyMs, long p99LatencyMs) {
+    AtomicReference<ReportedLoad> reportedLoadRef = getServerLoad(server)._reportedLoad;
+    while (true) {
+      ReportedLoad oldReportedLoad = reportedLoadRef.get();
+      double queueLengthEwma = oldReportedLoad != null ? _ewmaAlpha * queueLength
+          + (1.0 - _ewmaAlpha) * oldReportedLoad._queueLength : queueLength;
+      ReportedLoad newReportedLoad = new ReportedLoad(queueLengthEwma, numActiveThreads, p50LatencyMs, p99LatencyMs);
+      if (reportedLoadRef.compareAndSet(oldReportedLoad, newReportedLoad)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Get the latest load reported by the server, or <code>null</code> if the server has not reported any load.
+   */
+  @Nullable
+  public ReportedLoad getReportedLoad(@Nonnull ServerInstance server) {
+    ServerLoad serverLoad = _serverLoadMap.get(server);
+    return serverLoad != null ? serverLoad._reportedLoad.get() : null;
+  }
+
+  public int getNumInFlightRequests(@Nonnull ServerInstance server) {
+    ServerLoad serverLoad = _serverLoadMap.get(server);
+    return serverLoad != null ? serverLoad._numInFlightRequests.get() : 0;
+  }
+
+  public double getResponseTimeMs(@Nonnull ServerInstance server) {
+    ServerLoad serverLoad = _serverLoadMap.get(server);
+    return serverLoad != null ? serverLoad._responseTimeMs : 0.0;
+  }
+
+  public double getServiceTimeMs(@Nonnull ServerInstance server) {
+    ServerLoad serverLoad = _serverLoadMap.get(server);
+    return serverLoad != null ? serverLoad._serviceTimeMs : 0.0;
+  }
+
+  /**
+   * Get the score of the server, lower is better. Servers without any statistics have score 0.
+   */
+  public double getScore(@Nonnull ServerInstance server) {
+    ServerLoad serverLoad = _serverLoadMap.get(server);
+    if (serverLoad == null) {
+      return 0.0;
+    }
+    double responseTimeMs = serverLoad._responseTimeMs;
+    // Use the response time as the service time if the server does not report it
+    double serviceTimeMs = serverLoad._hasServiceTime ? serverLoad._serviceTimeMs : responseTimeMs;
+    double queueSizeEstimate = 1.0 + Math.max(serverLoad._numInFlightRequests.get(), 0) * _numBrokers;
+    ReportedLoad reportedLoad = serverLoad._reportedLoad.get();
+    if (reportedLoad != null) {
+      queueSizeEstimate += reportedLoad._queueLength;
+    }
+    return Math.max(responseTimeMs - serviceTimeMs, 0.0)
+        + queueSizeEstimate * queueSizeEstimate * queueSizeEstimate * serviceTimeMs;
+  }
+
+  private ServerLoad getServerLoad(ServerInstance server) {
+    ServerLoad serverLoad = _serverLoadMap.get(server);
+    if (serverLoad == null) {
+      ServerLoad newServerLoad = new ServerLoad();
+      serverLoad = _serverLoadMap.putIfAbsent(server, newServerLoad);
+      if (serverLoad == null) {
+        serverLoad = newServerLoad;
+      }
+    }
+    return serverLoad;
+  }
+
+  /**
+   * Immutable snapshot of the load reported by a server.
+   */
+  public static class ReportedLoad {
+    private final double _queueLength;
+    private final int _numActiveThreads;
+    private final long _p50LatencyMs;
+    private final long _p99LatencyMs;
+
+    private ReportedLoad(double queueLength, int numActiveThreads, long p50LatencyMs, long p99LatencyMs) {
+      _queueLength = queueLength;
+      _numActiveThreads = numActiveThreads;
+      _p50LatencyMs = p50LatencyMs;
+      _p99LatencyMs = p99LatencyMs;
+    }
+
+    /**
+     * EWMA of the scheduler queue length reported by the server.
+     */
+    public double getQueueLength() {
+      return _queueLength;
+    }
+
+    public int getNumActiveThreads() {
+      return _numActiveThreads;
+    }
+
+    public long getP50LatencyMs() {
+      return _p50LatencyMs;
+    }
+
+    public long getP99LatencyMs() {
+      return _p99LatencyMs;
+    }
+  }
+
+  /**
+   * Load statistics of a single server. Readers access the volatile fields without locking.
+   */
+  private static class ServerLoad {
+    private final AtomicInteger _numInFlightRequests = new AtomicInteger();
+    private final AtomicReference<ReportedLoad> _reportedLoad = new AtomicReference<>();
+    private volatile double _responseTimeMs;
+    private volatile double _serviceTimeMs;
+    private boolean _hasResponseTime;
+    private volatile boolean _hasServiceTime;
+
+    synchronized void updateResponseTime(long responseTimeMs, double ewmaAlpha) {
+      if (_hasResponseTime) {
+        _responseTimeMs = ewmaAlpha * responseTimeMs + (1.0 - ewmaAlpha) * _responseTimeMs;
+      } else {
+        _responseTimeMs = responseTimeMs;
+        _hasResponseTime = true;
+      }
+    }
+
+    synchronized void updateServiceTime(long serviceTimeMs, double ewmaAlpha) {
+      if (_hasServiceTime) {
+        _serviceTimeMs = ewmaAlpha * serviceTimeMs + (1.0 - ewmaAlpha) * _serviceTimeMs;
+      } else {
+        _serviceTimeMs = serviceTimeMs;
+        _hasServiceTime = true;
+      }
+    }
+  }
+}
@@ -99,6 +99,36 @@ public class CompositeFutureTest {
     executor.shutdown();
   }
 
+  @Test
+  /**
+   * Responses are taken in the order they arrive, and null is returned once all the futures are done.
+   * @throws Exception
+   */
+  public void testTakeNextResponse() throws Exception {
+    int numFutures = 3;
+    List<AsyncResponseFuture<String>> futures = new ArrayList<>();
+    for (int i = 0; i < numFutures; i++) {
+      futures.add(new AsyncResponseFuture<String>(new ServerInstance("localhost:" + i), ""));
+    }
+    CompositeFuture<String> compositeFuture = new CompositeFuture<>("test", GatherModeOnError.AND);
+    compositeFuture.start(new ArrayList<ServerResponseFuture<String>>(futures));
+
+    futures.get(2).onSuccess("message_2");
+    Map.Entry<ServerInstance, String> response = compositeFuture.takeNextResponse();
+    Assert.assertEquals(response.getKey(), new ServerInstance("localhost:2"));
+    Assert.assertEquals(response.getValue(), "message_2");
+
+    futures.get(1).onError(new Exception("error_1"));
+    futures.get(0).onSuccess("message_0");
+    response = compositeFuture.takeNextResponse();
+    Assert.assertEquals(response.getKey(), new ServerInstance("localhost:0"));
+    Assert.assertEquals(response.getValue(), "message_0");
+
+    // The errored future has no response, so all responses have been taken
+    Assert.assertNull(compositeFuture.takeNextResponse());
+    Assert.assertNull(compositeFuture.takeNextResponse());
+  }
+
   @Test
   /**
    * We got error from all the futures and stoponFirstError is false
@@ -403,6 +403,11 @@ public class ScatterGatherPerfClient implements Runnable {
       return _pgToServersMap;
     }
 
+    @Override
+    public Map<String, List<String>> getSegmentToServersMap() {
+      return null;
+    }
+
     @Override
     public byte[] getRequestForService(List<String> segments) {
       return _brokerRequest;
@@ -19,8 +19,10 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.Uninterruptibles;
+import com.linkedin.pinot.common.metrics.BrokerMeter;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
 import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.QuerySource;
 import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.common.restlet.resources.ServerLatencyMetric;
 import com.linkedin.pinot.common.utils.CommonConstants;
@@ -32,6 +34,9 @@ import com.linkedin.pinot.transport.netty.NettyServer.RequestHandlerFactory;
 import com.linkedin.pinot.transport.netty.NettyTCPServer;
 import com.linkedin.pinot.transport.netty.PooledNettyClientResourceManager;
 import com.linkedin.pinot.transport.pool.KeyedPoolImpl;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.Metric;
+import com.yammer.metrics.core.MetricName;
 import com.yammer.metrics.core.MetricsRegistry;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
@@ -39,6 +44,7 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.HashedWheelTimer;
 import io.netty.util.ResourceLeakDetector;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -241,6 +247,87 @@ public class ScatterGatherTest {
     }
   }
 
+  @Test
+  public void testHedging() throws Exception {
+    NettyServer[] nettyServers = new NettyServer[2];
+    String[] serverNames = new String[2];
+    ServerInstance[] serverInstances = new ServerInstance[2];
+    for (int i = 0; i < 2; i++) {
+      int serverPort = BASE_SERVER_PORT + i;
+
+      // Set first server as slow server
+      if (i == 0) {
+        nettyServers[i] = new NettyTCPServer(serverPort, new TestRequestHandlerFactory(5000L, false), null);
+      } else {
+        nettyServers[i] = new NettyTCPServer(serverPort, new TestRequestHandlerFactory(0L, false), null);
+      }
+      new Thread(nettyServers[i]).start();
+
+      String serverName = CommonConstants.Helix.PREFIX_OF_SERVER_INSTANCE + LOCAL_HOST
+              + ServerInstance.NAME_PORT_DELIMITER_FOR_INSTANCE_NAME + serverPort;
+      serverNames[i] = serverName;
+      serverInstances[i] = ServerInstance.forInstanceName(serverName);
+    }
+    // Query the slow server, where the segment is also served by the other server
+    Map<String, List<String>> routingTable = new HashMap<>();
+    routingTable.put(serverNames[0], Collections.singletonList("segment_0"));
+    Map<String, List<String>> segmentToServersMap = new HashMap<>();
+    segmentToServersMap.put("segment_0", Arrays.asList(serverNames));
+
+    // Setup client
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+    EventLoopGroup eventLoopGroup = new NioEventLoopGroup();
+    KeyedPoolImpl<PooledNettyClientResourceManager.PooledClientConnection> connectionPool =
+            setUpConnectionPool(metricsRegistry, eventLoopGroup);
+    ExecutorService executorService = Executors.newCachedThreadPool();
+    ScheduledExecutorService hedgeScheduler = Executors.newSingleThreadScheduledExecutor();
+    HedgingPolicy hedgingPolicy =
+        new HedgingPolicy(hedgeScheduler, 90, Collections.<String, Double>emptyMap(), 10L, 1);
+    hedgingPolicy.recordResponseTime("testTable_OFFLINE", 100L);
+    ScatterGather scatterGather = new ScatterGatherImpl(connectionPool, executorService, null, hedgingPolicy);
+    ScatterGatherStats scatterGatherStats = new ScatterGatherStats();
+    BrokerMetrics brokerMetrics = new BrokerMetrics(metricsRegistry);
+
+    // Send the request
+    BrokerRequest brokerRequest = new BrokerRequest();
+    QuerySource querySource = new QuerySource();
+    querySource.setTableName("testTable_OFFLINE");
+    brokerRequest.setQuerySource(querySource);
+    ScatterGatherRequest scatterGatherRequest =
+        new TestScatterGatherRequest(routingTable, segmentToServersMap, brokerRequest, 10_000L);
+    long startTimeMs = System.currentTimeMillis();
+    CompositeFuture<byte[]> future =
+            scatterGather.scatterGather(scatterGatherRequest, scatterGatherStats, brokerMetrics);
+
+    // Should get the response from the hedged request, keyed by the original server
+    Map<ServerInstance, byte[]> serverToResponseMap = future.get();
+    Assert.assertTrue(System.currentTimeMillis() - startTimeMs < 5000L);
+    Assert.assertEquals(serverToResponseMap.size(), 1);
+    Assert.assertEquals(new String(serverToResponseMap.get(serverInstances[0])), "segment_0");
+    Assert.assertTrue(future.getError().isEmpty());
+    Assert.assertEquals(getMeterCount(metricsRegistry, BrokerMeter.HEDGED_REQUESTS_SENT), 1L);
+    Assert.assertEquals(getMeterCount(metricsRegistry, BrokerMeter.HEDGED_REQUESTS_WON), 1L);
+
+    connectionPool.shutdown();
+    executorService.shutdown();
+    hedgeScheduler.shutdown();
+    eventLoopGroup.shutdownGracefully();
+
+    for (int i = 0; i < 2; i++) {
+      nettyServers[i].shutdownGracefully();
+    }
+  }
+
+  private static long getMeterCount(MetricsRegistry metricsRegistry, BrokerMeter brokerMeter) {
+    long count = 0L;
+    for (Map.Entry<MetricName, Metric> entry : metricsRegistry.allMetrics().entrySet()) {
+      if (entry.getKey().getName().endsWith(brokerMeter.getMeterName())) {
+        count += ((Meter) entry.getValue()).count();
+      }
+    }
+    return count;
+  }
+
   private KeyedPoolImpl<PooledNettyClientResourceManager.PooledClientConnection> setUpConnectionPool(
           MetricsRegistry metricsRegistry, EventLoopGroup eventLoopGroup) {
     ScheduledExecutorService timedExecutor = new ScheduledThreadPoolExecutor(1);
@@ -256,10 +343,19 @@ public class ScatterGatherTest {
 
   private static class TestScatterGatherRequest implements ScatterGatherRequest {
     private final Map<String, List<String>> _routingTable;
+    private final Map<String, List<String>> _segmentToServersMap;
+    private final BrokerRequest _brokerRequest;
     private final long _timeoutMs;
 
     public TestScatterGatherRequest(Map<String, List<String>> routingTable, long timeoutMs) {
+      this(routingTable, null, null, timeoutMs);
+    }
+
+    public TestScatterGatherRequest(Map<String, List<String>> routingTable,
+        Map<String, List<String>> segmentToServersMap, BrokerRequest brokerRequest, long timeoutMs) {
       _routingTable = routingTable;
+      _segmentToServersMap = segmentToServersMap;
+      _brokerRequest = brokerRequest;
       _timeoutMs = timeoutMs;
     }
 
@@ -268,6 +364,11 @@ public class ScatterGatherTest {
       return _routingTable;
     }
 
+    @Override
+    public Map<String, List<String>> getSegmentToServersMap() {
+      return _segmentToServersMap;
+    }
+
     @Override
     public byte[] getRequestForService(List<String> segments) {
       return segments.get(0).getBytes();
@@ -285,7 +386,7 @@ public class ScatterGatherTest {
 
     @Override
     public BrokerRequest getBrokerRequest() {
-      return null;
+      return _brokerRequest;
     }
   }
 
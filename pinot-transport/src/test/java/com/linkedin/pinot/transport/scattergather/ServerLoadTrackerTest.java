@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.scattergather;
+
+import com.linkedin.pinot.common.response.ServerInstance;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class ServerLoadTrackerTest {
+  private static final double DELTA = 1e-9;
+  private static final ServerInstance SERVER_1 = new ServerInstance("localhost", 1234);
+  private static final ServerInstance SERVER_2 = new ServerInstance("localhost", 2345);
+
+  @Test
+  public void testScore() {
+    ServerLoadTracker serverLoadTracker = new ServerLoadTracker(0.5, 2);
+    Assert.assertEquals(serverLoadTracker.getScore(SERVER_1), 0.0, DELTA);
+
+    // Response time is used as service time if the server does not report it
+    serverLoadTracker.requestSent(SERVER_1);
+    Assert.assertEquals(serverLoadTracker.getNumInFlightRequests(SERVER_1), 1);
+    serverLoadTracker.requestCompleted(SERVER_1, 10L);
+    Assert.assertEquals(serverLoadTracker.getNumInFlightRequests(SERVER_1), 0);
+    Assert.assertEquals(serverLoadTracker.getResponseTimeMs(SERVER_1), 10.0, DELTA);
+    Assert.assertEquals(serverLoadTracker.getScore(SERVER_1), 10.0, DELTA);
+
+    // EWMA of response time and service time
+    serverLoadTracker.requestSent(SERVER_1);
+    serverLoadTracker.requestCompleted(SERVER_1, 20L);
+    serverLoadTracker.updateServiceTime(SERVER_1, 5L);
+    Assert.assertEquals(serverLoadTracker.getResponseTimeMs(SERVER_1), 15.0, DELTA);
+    Assert.assertEquals(serverLoadTracker.getServiceTimeMs(SERVER_1), 5.0, DELTA);
+    Assert.assertEquals(serverLoadTracker.getScore(SERVER_1), 10.0 + 5.0, DELTA);
+
+    // In-flight requests are compensated by the number of brokers
+    serverLoadTracker.requestSent(SERVER_1);
+    Assert.assertEquals(serverLoadTracker.getScore(SERVER_1), 10.0 + 27.0 * 5.0, DELTA);
+    serverLoadTracker.requestCancelled(SERVER_1);
+    Assert.assertEquals(serverLoadTracker.getScore(SERVER_1), 10.0 + 5.0, DELTA);
+
+    // Failed request is penalized
+    serverLoadTracker.requestSent(SERVER_1);
+    serverLoadTracker.requestFailed(SERVER_1, 1015L);
+    Assert.assertEquals(serverLoadTracker.getResponseTimeMs(SERVER_1), 515.0, DELTA);
+
+    // Servers are tracked separately
+    Assert.assertEquals(serverLoadTracker.getScore(SERVER_2), 0.0, DELTA);
+  }
+
+  @Test
+  public void testReportedLoad() {
+    ServerLoadTracker serverLoadTracker = new ServerLoadTracker(0.5, 1);
+    Assert.assertNull(serverLoadTracker.getReportedLoad(SERVER_1));
+
+    serverLoadTracker.requestSent(SERVER_1);
+    serverLoadTracker.requestCompleted(SERVER_1, 10L);
+    serverLoadTracker.updateServiceTime(SERVER_1, 10L);
+    serverLoadTracker.updateReportedLoad(SERVER_1, 2, 8, 5L, 50L);
+    ServerLoadTracker.ReportedLoad reportedLoad = serverLoadTracker.getReportedLoad(SERVER_1);
+    Assert.assertNotNull(reportedLoad);
+    Assert.assertEquals(reportedLoad.getQueueLength(), 2.0, DELTA);
+    Assert.assertEquals(reportedLoad.getNumActiveThreads(), 8);
+    Assert.assertEquals(reportedLoad.getP50LatencyMs(), 5L);
+    Assert.assertEquals(reportedLoad.getP99LatencyMs(), 50L);
+    // Queue length reported by the server is added to the queue size estimate
+    Assert.assertEquals(serverLoadTracker.getScore(SERVER_1), 27.0 * 10.0, DELTA);
+
+    // Queue length is smoothed with EWMA, other values are the latest reported
+    serverLoadTracker.updateReportedLoad(SERVER_1, 0, 4, 6L, 60L);
+    reportedLoad = serverLoadTracker.getReportedLoad(SERVER_1);
+    Assert.assertEquals(reportedLoad.getQueueLength(), 1.0, DELTA);
+    Assert.assertEquals(reportedLoad.getNumActiveThreads(), 4);
+    Assert.assertEquals(reportedLoad.getP50LatencyMs(), 6L);
+    Assert.assertEquals(reportedLoad.getP99LatencyMs(), 60L);
+    Assert.assertEquals(serverLoadTracker.getScore(SERVER_1), 8.0 * 10.0, DELTA);
+  }
+}